@@ -47,6 +47,7 @@ public class Autocode64to32App extends RecursiveConvert {
 
 		String directories[] = new String[]{
 				"main/src", "main/test",
+				"main/src17", "main/test17",
 				"experimental/src", "experimental/test"};
 
 		ConvertFile32From64 converter = new ConvertFile32From64(true);
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+/**
+ * <p>
+ * Levenberg-Marquardt which works directly off of the normal equations computed by a
+ * {@link NormalEquationsFunction}.  The Jacobian is never explicitly declared making memory usage independent of the
+ * number of residuals.  Each iteration a single candidate step is computed from the damped system below and is
+ * accepted if it reduces the sum of squared residuals.
+ * </p>
+ * <pre>
+ * (J<sup>T</sup>J + &lambda;*diag(J<sup>T</sup>J))*step = -J<sup>T</sup>r
+ * </pre>
+ *
+ * <p>
+ * All internal work space is declared when the function is specified and recycled between calls to
+ * {@link #initialize}.  The interface mirrors {@link org.ddogleg.optimization.UnconstrainedLeastSquares}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LevenbergMarquardtNormal {
+	// the smallest and largest allowed damping parameter
+	public static final double MIN_DAMPING = 1e-12;
+	public static final double MAX_DAMPING = 1e20;
+
+	// function being optimized
+	NormalEquationsFunction function;
+
+	// initial value of the damping parameter
+	double initialDamping;
+	// current damping
+	double lambda;
+
+	// convergence tolerances
+	double ftol, gtol;
+
+	// current parameters and the candidate parameters
+	double[] x = new double[0];
+	double[] candidate = new double[0];
+	// the sum of squared residuals at x
+	double fx;
+
+	// normal equations at x and at the candidate
+	DMatrixRMaj JtJ = new DMatrixRMaj(1,1);
+	DMatrixRMaj Jtr = new DMatrixRMaj(1,1);
+	DMatrixRMaj candJtJ = new DMatrixRMaj(1,1);
+	DMatrixRMaj candJtr = new DMatrixRMaj(1,1);
+
+	// damped system and the step
+	DMatrixRMaj A = new DMatrixRMaj(1,1);
+	DMatrixRMaj step = new DMatrixRMaj(1,1);
+	LinearSolverDense<DMatrixRMaj> solver;
+
+	// true if it has converged
+	boolean converged;
+
+	/**
+	 * Specifies the initial damping
+	 *
+	 * @param initialDamping Initial value of &lambda;. Try 1e-3
+	 */
+	public LevenbergMarquardtNormal( double initialDamping ) {
+		this.initialDamping = initialDamping;
+	}
+
+	public LevenbergMarquardtNormal() {
+		this(1e-3);
+	}
+
+	/**
+	 * Specifies the function being optimized and declares work space.  Only needs to be called again if the number
+	 * of parameters changes.
+	 */
+	public void setFunction( NormalEquationsFunction function ) {
+		this.function = function;
+
+		int N = function.getNumOfInputsN();
+		if( x.length != N ) {
+			x = new double[N];
+			candidate = new double[N];
+			solver = LinearSolverFactory_DDRM.chol(N);
+		}
+		JtJ.reshape(N,N);
+		Jtr.reshape(N,1);
+		candJtJ.reshape(N,N);
+		candJtr.reshape(N,1);
+		A.reshape(N,N);
+		step.reshape(N,1);
+	}
+
+	/**
+	 * Specifies the initial parameters and convergence tolerances
+	 *
+	 * @param initial Initial parameters. Not modified.
+	 * @param ftol Relative tolerance for the change in the sum of squared residuals. 0 &le; ftol &lt; 1
+	 * @param gtol Absolute tolerance for the gradient's infinity norm. 0 &le; gtol
+	 */
+	public void initialize( double[] initial , double ftol , double gtol ) {
+		System.arraycopy(initial,0,x,0,x.length);
+		this.ftol = ftol;
+		this.gtol = gtol;
+		this.lambda = initialDamping;
+
+		fx = function.accumulate(x,JtJ,Jtr);
+		converged = checkGradient(Jtr);
+	}
+
+	/**
+	 * Attempts a single step.
+	 *
+	 * @return true if it has converged and no more iterations are needed
+	 */
+	public boolean iterate() {
+		if( converged )
+			return true;
+
+		final int N = x.length;
+
+		// A = J'J + lambda*diag(J'J)
+		A.set(JtJ);
+		for (int i = 0; i < N; i++) {
+			int index = i*N+i;
+			A.data[index] += lambda*(JtJ.data[index] + UtilEjml.EPS);
+		}
+
+		if( !solver.setA(A) ) {
+			return increaseDamping();
+		}
+		solver.solve(Jtr,step);
+
+		for (int i = 0; i < N; i++) {
+			candidate[i] = x[i] - step.data[i];
+		}
+
+		double fcandidate = function.accumulate(candidate,candJtJ,candJtr);
+
+		if( !(fcandidate < fx) ) {
+			return increaseDamping();
+		}
+
+		// accept the step and swap the work space
+		double[] tmpX = x; x = candidate; candidate = tmpX;
+		DMatrixRMaj tmp = JtJ; JtJ = candJtJ; candJtJ = tmp;
+		tmp = Jtr; Jtr = candJtr; candJtr = tmp;
+
+		double reduction = fx - fcandidate;
+		fx = fcandidate;
+		lambda = Math.max(MIN_DAMPING,lambda/10.0);
+
+		converged = reduction <= ftol*(fx+reduction) || checkGradient(Jtr);
+		return converged;
+	}
+
+	private boolean increaseDamping() {
+		lambda *= 10.0;
+		if( lambda > MAX_DAMPING )
+			converged = true;
+		return converged;
+	}
+
+	private boolean checkGradient( DMatrixRMaj g ) {
+		for (int i = 0; i < g.numRows; i++) {
+			if( Math.abs(g.data[i]) > gtol )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the current best parameters
+	 */
+	public double[] getParameters() {
+		return x;
+	}
+
+	/**
+	 * Sum of squared residuals at the current parameters
+	 */
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	public NormalEquationsFunction getFunction() {
+		return function;
+	}
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.UtilEjml;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+/**
+ * <p>
+ * Levenberg-Marquardt for functions with the block structure described in {@link NormalEquationsSchurFunction}.
+ * Local parameters are eliminated from the damped normal equations using the Schur complement, leaving a small
+ * dense system in only the global parameters:
+ * </p>
+ * <pre>
+ * (U - W*inv(V)*W')*step_g = b_g - W*inv(V)*b_l
+ * step_l = inv(V)*(b_l - W'*step_g)
+ * </pre>
+ * <p>
+ * The cost of each iteration is linear in the number of blocks instead of cubic in the total number of parameters,
+ * and neither the Jacobian nor the full J<sup>T</sup>J are ever declared.  Damping is applied to the diagonal
+ * of U and V.  Step acceptance and convergence tests are the same as in {@link LevenbergMarquardtNormal}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LevenbergMarquardtSchur {
+
+	// function being optimized
+	NormalEquationsSchurFunction function;
+
+	// initial value of the damping parameter
+	double initialDamping;
+	// current damping
+	double lambda;
+
+	// convergence tolerances
+	double ftol, gtol;
+
+	// current parameters and the candidate parameters
+	double[] x = new double[0];
+	double[] candidate = new double[0];
+	// the sum of squared residuals at x
+	double fx;
+
+	// sparse normal equations at x and at the candidate
+	Blocks current = new Blocks();
+	Blocks next = new Blocks();
+
+	// reduced system
+	DMatrixRMaj S = new DMatrixRMaj(1,1);
+	DMatrixRMaj rhs = new DMatrixRMaj(1,1);
+	DMatrixRMaj stepG = new DMatrixRMaj(1,1);
+	LinearSolverDense<DMatrixRMaj> solver;
+
+	// inverse of each damped diagonal block stacked on top of each other
+	DMatrixRMaj Vinv = new DMatrixRMaj(1,1);
+	// work space for a single diagonal block
+	DMatrixRMaj blockV = new DMatrixRMaj(1,1);
+	DMatrixRMaj blockVinv = new DMatrixRMaj(1,1);
+	// inv(V_k)*W_k'. B by G
+	DMatrixRMaj VinvWt = new DMatrixRMaj(1,1);
+
+	// true if it has converged
+	boolean converged;
+
+	/**
+	 * Specifies the initial damping
+	 *
+	 * @param initialDamping Initial value of &lambda;. Try 1e-3
+	 */
+	public LevenbergMarquardtSchur( double initialDamping ) {
+		this.initialDamping = initialDamping;
+	}
+
+	public LevenbergMarquardtSchur() {
+		this(1e-3);
+	}
+
+	/**
+	 * Specifies the function being optimized and declares work space.  Must be called again if the number of
+	 * parameters changes.
+	 */
+	public void setFunction( NormalEquationsSchurFunction function ) {
+		this.function = function;
+
+		int G = function.getNumOfGlobal();
+		int B = function.getBlockSize();
+		int L = function.getNumOfBlocks()*B;
+
+		if( x.length != G+L ) {
+			x = new double[G+L];
+			candidate = new double[G+L];
+		}
+		if( solver == null || S.numRows != G )
+			solver = LinearSolverFactory_DDRM.chol(G);
+
+		current.reshape(G,L,B);
+		next.reshape(G,L,B);
+		S.reshape(G,G);
+		rhs.reshape(G,1);
+		stepG.reshape(G,1);
+		Vinv.reshape(L,B);
+		blockV.reshape(B,B);
+		blockVinv.reshape(B,B);
+		VinvWt.reshape(B,G);
+	}
+
+	/**
+	 * Specifies the initial parameters and convergence tolerances
+	 *
+	 * @param initial Initial parameters. Not modified.
+	 * @param ftol Relative tolerance for the change in the sum of squared residuals. 0 &le; ftol &lt; 1
+	 * @param gtol Absolute tolerance for the gradient's infinity norm. 0 &le; gtol
+	 */
+	public void initialize( double[] initial , double ftol , double gtol ) {
+		System.arraycopy(initial,0,x,0,x.length);
+		this.ftol = ftol;
+		this.gtol = gtol;
+		this.lambda = initialDamping;
+
+		fx = current.compute(x);
+		converged = current.checkGradient(gtol);
+	}
+
+	/**
+	 * Attempts a single step.
+	 *
+	 * @return true if it has converged and no more iterations are needed
+	 */
+	public boolean iterate() {
+		if( converged )
+			return true;
+
+		if( !computeStep() )
+			return increaseDamping();
+
+		double fcandidate = next.compute(candidate);
+
+		if( !(fcandidate < fx) ) {
+			return increaseDamping();
+		}
+
+		// accept the step and swap the work space
+		double[] tmpX = x; x = candidate; candidate = tmpX;
+		Blocks tmp = current; current = next; next = tmp;
+
+		double reduction = fx - fcandidate;
+		fx = fcandidate;
+		lambda = Math.max(LevenbergMarquardtNormal.MIN_DAMPING,lambda/10.0);
+
+		converged = reduction <= ftol*(fx+reduction) || current.checkGradient(gtol);
+		return converged;
+	}
+
+	/**
+	 * Computes the damped step using the Schur complement and saves the candidate parameters
+	 *
+	 * @return true if successful or false if the system is singular
+	 */
+	boolean computeStep() {
+		final int G = S.numRows;
+		final int B = blockV.numRows;
+		final int K = function.getNumOfBlocks();
+
+		// S = U + damping, rhs = b_g
+		S.set(current.U);
+		for (int i = 0; i < G; i++) {
+			int index = i*G+i;
+			S.data[index] += lambda*(current.U.data[index] + UtilEjml.EPS);
+			rhs.data[i] = current.bg.data[i];
+		}
+
+		for (int k = 0; k < K; k++) {
+			// damped inverse of the diagonal block
+			System.arraycopy(current.V.data,k*B*B,blockV.data,0,B*B);
+			for (int i = 0; i < B; i++) {
+				blockV.data[i*B+i] += lambda*(blockV.data[i*B+i] + UtilEjml.EPS);
+			}
+			if( B == 1 ) {
+				if( blockV.data[0] == 0 )
+					return false;
+				blockVinv.data[0] = 1.0/blockV.data[0];
+			} else if( !CommonOps_DDRM.invert(blockV,blockVinv) ) {
+				return false;
+			}
+			System.arraycopy(blockVinv.data,0,Vinv.data,k*B*B,B*B);
+
+			// VinvWt = inv(V_k)*W_k'
+			int rowWt = k*B*G;
+			for (int i = 0; i < B; i++) {
+				for (int j = 0; j < G; j++) {
+					double sum = 0;
+					for (int l = 0; l < B; l++) {
+						sum += blockVinv.data[i*B+l]*current.Wt.data[rowWt+l*G+j];
+					}
+					VinvWt.data[i*G+j] = sum;
+				}
+			}
+
+			// S -= W_k*inv(V_k)*W_k' and rhs -= W_k*inv(V_k)*b_k
+			for (int i = 0; i < G; i++) {
+				for (int j = 0; j < G; j++) {
+					double sum = 0;
+					for (int l = 0; l < B; l++) {
+						sum += current.Wt.data[rowWt+l*G+i]*VinvWt.data[l*G+j];
+					}
+					S.data[i*G+j] -= sum;
+				}
+				double sum = 0;
+				for (int l = 0; l < B; l++) {
+					sum += VinvWt.data[l*G+i]*current.bl.data[k*B+l];
+				}
+				rhs.data[i] -= sum;
+			}
+		}
+
+		if( !solver.setA(S) )
+			return false;
+		solver.solve(rhs,stepG);
+
+		for (int i = 0; i < G; i++) {
+			candidate[i] = x[i] - stepG.data[i];
+		}
+
+		// back substitute to find the local steps
+		for (int k = 0; k < K; k++) {
+			int rowWt = k*B*G;
+			for (int i = 0; i < B; i++) {
+				double sum = 0;
+				for (int l = 0; l < B; l++) {
+					// (b_l - W'*step_g)[l]
+					double v = current.bl.data[k*B+l];
+					for (int j = 0; j < G; j++) {
+						v -= current.Wt.data[rowWt+l*G+j]*stepG.data[j];
+					}
+					sum += Vinv.data[k*B*B+i*B+l]*v;
+				}
+				int index = G+k*B+i;
+				candidate[index] = x[index] - sum;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean increaseDamping() {
+		lambda *= 10.0;
+		if( lambda > LevenbergMarquardtNormal.MAX_DAMPING )
+			converged = true;
+		return converged;
+	}
+
+	/**
+	 * Returns the current best parameters
+	 */
+	public double[] getParameters() {
+		return x;
+	}
+
+	/**
+	 * Sum of squared residuals at the current parameters
+	 */
+	public double getFunctionValue() {
+		return fx;
+	}
+
+	public NormalEquationsSchurFunction getFunction() {
+		return function;
+	}
+
+	/**
+	 * Storage for the non-zero portions of the normal equations
+	 */
+	class Blocks {
+		DMatrixRMaj U = new DMatrixRMaj(1,1);
+		DMatrixRMaj Wt = new DMatrixRMaj(1,1);
+		DMatrixRMaj V = new DMatrixRMaj(1,1);
+		DMatrixRMaj bg = new DMatrixRMaj(1,1);
+		DMatrixRMaj bl = new DMatrixRMaj(1,1);
+
+		void reshape( int G , int L , int B ) {
+			U.reshape(G,G);
+			Wt.reshape(L,G);
+			V.reshape(L,B);
+			bg.reshape(G,1);
+			bl.reshape(L,1);
+		}
+
+		double compute( double[] param ) {
+			return function.accumulate(param,U,Wt,V,bg,bl);
+		}
+
+		boolean checkGradient( double tol ) {
+			for (int i = 0; i < bg.numRows; i++) {
+				if( Math.abs(bg.data[i]) > tol )
+					return false;
+			}
+			for (int i = 0; i < bl.numRows; i++) {
+				if( Math.abs(bl.data[i]) > tol )
+					return false;
+			}
+			return true;
+		}
+	}
+}
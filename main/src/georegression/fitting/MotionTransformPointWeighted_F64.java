@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import georegression.struct.GeoTuple;
+import georegression.struct.InvertibleTransform;
+
+import java.util.List;
+
+/**
+ * Extension of {@link MotionTransformPoint} where each pair of corresponding points can be assigned a weight.
+ * Pairs with a larger weight have more influence on the solution.  When no weights are specified every
+ * pair is given the same weight.
+ *
+ * @author Peter Abeles
+ */
+public interface MotionTransformPointWeighted_F64 <T extends InvertibleTransform, P extends GeoTuple>
+		extends MotionTransformPoint<T,P>
+{
+	/**
+	 * Processes the sets of corresponding points and finds a transformation which when applied
+	 * to 'srcPts' will minimize the weighted difference with the 'dstPts'.
+	 *
+	 * @param srcPts The points which are to be transformed.  Not modified.
+	 * @param dstPts The points that are being compared against. Not modified.
+	 * @param weights Weight of each pair of points.  Must be &ge; 0 and at least as long as the lists. Not modified.
+	 * @return true if the computation successfully produced a solution and false if not. False is returned if
+	 * fewer than {@link #getMinimumPoints()} pairs have a weight greater than zero.
+	 */
+	boolean process( List<P> srcPts, List<P> dstPts, double weights[] );
+}
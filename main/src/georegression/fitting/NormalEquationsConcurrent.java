@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Computes the normal equations of a {@link NormalEquationsPartial} by splitting its terms into chunks which are
+ * processed in parallel.  Each chunk is accumulated into its own work space and the partial sums are then
+ * merged in a fixed order, so the results are deterministic and independent of thread scheduling.
+ * </p>
+ *
+ * <p>
+ * If there are too few terms to justify the overhead then everything is computed in the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class NormalEquationsConcurrent implements NormalEquationsFunction {
+
+	// function which is being computed
+	NormalEquationsPartial function;
+
+	// the smallest number of terms in a chunk
+	int minimumChunk;
+	// the maximum number of chunks
+	int maxChunks;
+
+	// work space for each chunk
+	DMatrixRMaj[] chunkJtJ = new DMatrixRMaj[0];
+	DMatrixRMaj[] chunkJtr = new DMatrixRMaj[0];
+	double[] chunkSumSq = new double[0];
+
+	/**
+	 * Configures the concurrent function
+	 *
+	 * @param function The function being computed
+	 * @param minimumChunk The minimum number of terms which are processed in a single chunk. Try 500
+	 * @param maxChunks Maximum number of chunks. Typically the number of available processors.
+	 */
+	public NormalEquationsConcurrent( NormalEquationsPartial function , int minimumChunk , int maxChunks ) {
+		if( minimumChunk <= 0 || maxChunks <= 0 )
+			throw new IllegalArgumentException("minimumChunk and maxChunks must be more than zero");
+		this.function = function;
+		this.minimumChunk = minimumChunk;
+		this.maxChunks = maxChunks;
+	}
+
+	/**
+	 * Uses the number of available processors to select the maximum number of chunks
+	 */
+	public NormalEquationsConcurrent( NormalEquationsPartial function ) {
+		this(function,500,Runtime.getRuntime().availableProcessors());
+	}
+
+	@Override
+	public int getNumOfInputsN() {
+		return function.getNumOfInputsN();
+	}
+
+	@Override
+	public int getNumOfOutputsM() {
+		return function.getNumOfOutputsM();
+	}
+
+	@Override
+	public double accumulate( final double[] input, DMatrixRMaj JtJ, DMatrixRMaj Jtr) {
+		final int N = function.getNumOfInputsN();
+		final int terms = function.getNumOfTerms();
+
+		JtJ.reshape(N,N);
+		Jtr.reshape(N,1);
+		JtJ.zero();
+		Jtr.zero();
+
+		final int numChunks = Math.max(1,Math.min(maxChunks,terms/minimumChunk));
+
+		double sumSq;
+		if( numChunks == 1 ) {
+			sumSq = function.accumulate(input,0,terms,JtJ,Jtr);
+		} else {
+			declareChunks(numChunks,N);
+
+			IntStream.range(0,numChunks).parallel().forEach(chunk -> {
+				int first = (int)((long)terms*chunk/numChunks);
+				int last = (int)((long)terms*(chunk+1)/numChunks);
+				chunkJtJ[chunk].zero();
+				chunkJtr[chunk].zero();
+				chunkSumSq[chunk] = function.accumulate(input,first,last,chunkJtJ[chunk],chunkJtr[chunk]);
+			});
+
+			// merge in a fixed order so that the results are repeatable
+			sumSq = 0;
+			for (int chunk = 0; chunk < numChunks; chunk++) {
+				double[] a = chunkJtJ[chunk].data;
+				double[] b = chunkJtr[chunk].data;
+				for (int i = 0; i < N*N; i++) {
+					JtJ.data[i] += a[i];
+				}
+				for (int i = 0; i < N; i++) {
+					Jtr.data[i] += b[i];
+				}
+				sumSq += chunkSumSq[chunk];
+			}
+		}
+
+		copyUpperToLower(JtJ);
+
+		return sumSq;
+	}
+
+	private void declareChunks( int numChunks , int N ) {
+		if( chunkJtJ.length < numChunks ) {
+			chunkJtJ = new DMatrixRMaj[numChunks];
+			chunkJtr = new DMatrixRMaj[numChunks];
+			chunkSumSq = new double[numChunks];
+			for (int i = 0; i < numChunks; i++) {
+				chunkJtJ[i] = new DMatrixRMaj(N,N);
+				chunkJtr[i] = new DMatrixRMaj(N,1);
+			}
+		}
+		for (int i = 0; i < numChunks; i++) {
+			chunkJtJ[i].reshape(N,N);
+			chunkJtr[i].reshape(N,1);
+		}
+	}
+
+	/**
+	 * Copies the upper triangle of a square matrix into its lower triangle
+	 */
+	public static void copyUpperToLower( DMatrixRMaj A ) {
+		final int N = A.numCols;
+		for (int j = 1; j < N; j++) {
+			for (int k = 0; k < j; k++) {
+				A.data[j*N+k] = A.data[k*N+j];
+			}
+		}
+	}
+
+	public NormalEquationsPartial getFunction() {
+		return function;
+	}
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Least-squares function which directly computes the normal equations, J<sup>T</sup>J and J<sup>T</sup>r, instead of
+ * the M by N Jacobian J and the M residuals r.  Since the outputs are N by N and N by 1 the memory required is
+ * independent of the number of residuals, which is useful when the number of points is large and the number of
+ * parameters is small.
+ * </p>
+ *
+ * <p>
+ * The functions are always computed using doubles, independent of the data type, for compatibility with
+ * {@link LevenbergMarquardtNormal}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface NormalEquationsFunction {
+
+	/**
+	 * Number of parameters being optimized
+	 */
+	int getNumOfInputsN();
+
+	/**
+	 * Number of residuals
+	 */
+	int getNumOfOutputsM();
+
+	/**
+	 * Computes the normal equations and sum of squared residuals for the specified parameters.
+	 *
+	 * @param input (Input) parameters being optimized. Not modified.
+	 * @param JtJ (Output) J<sup>T</sup>J. N by N
+	 * @param Jtr (Output) J<sup>T</sup>r. N by 1
+	 * @return Sum of the squared residuals
+	 */
+	double accumulate( double[] input , DMatrixRMaj JtJ , DMatrixRMaj Jtr );
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * {@link NormalEquationsFunction} where the sum of squared residuals is composed of independent terms, e.g. one
+ * per point, which can be accumulated separately.  This allows the normal equations to be computed in chunks
+ * and the partial sums merged, see {@link NormalEquationsConcurrent}.
+ * </p>
+ *
+ * <p>
+ * Implementations must not modify internal state inside of {@link #accumulate(double[], int, int, DMatrixRMaj, DMatrixRMaj)}
+ * so that it can be safely invoked by multiple threads at once on disjoint ranges.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface NormalEquationsPartial extends NormalEquationsFunction {
+
+	/**
+	 * Number of independent terms which are summed together.
+	 */
+	int getNumOfTerms();
+
+	/**
+	 * Adds the contribution of terms first to last-1 to the normal equations. Only the upper triangle of JtJ
+	 * is modified.
+	 *
+	 * @param input (Input) parameters being optimized. Not modified.
+	 * @param first Index of the first term, inclusive.
+	 * @param last Index of the last term, exclusive.
+	 * @param JtJ (Output) Upper triangle of J<sup>T</sup>J is added to. N by N
+	 * @param Jtr (Output) J<sup>T</sup>r is added to. N by 1
+	 * @return Sum of the squared residuals for the terms in the range
+	 */
+	double accumulate( double[] input , int first , int last , DMatrixRMaj JtJ , DMatrixRMaj Jtr );
+}
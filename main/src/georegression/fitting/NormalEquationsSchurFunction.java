@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * <p>
+ * Least-squares function whose parameters are composed of a few global parameters and many blocks of local
+ * parameters, where each residual only depends on the global parameters and a single block.  For example,
+ * fitting a shape to points where an extra parameter is estimated for each point.  The normal equations then
+ * have the following structure:
+ * </p>
+ * <pre>
+ * J<sup>T</sup>J = [ U  W ]      J<sup>T</sup>r = [ b_g ]
+ *       [ W' V ]              [ b_l ]
+ * </pre>
+ * <p>
+ * where U is the dense global block, V is block diagonal, and W couples the two.  Only the non-zero portions are
+ * computed making the memory usage linear in the number of blocks.  See {@link LevenbergMarquardtSchur}.
+ * </p>
+ *
+ * <p>
+ * Parameters are ordered with the global parameters first followed by each local block.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface NormalEquationsSchurFunction {
+
+	/**
+	 * Number of global parameters, G
+	 */
+	int getNumOfGlobal();
+
+	/**
+	 * Number of local blocks, K
+	 */
+	int getNumOfBlocks();
+
+	/**
+	 * Number of parameters in each local block, B
+	 */
+	int getBlockSize();
+
+	/**
+	 * Computes the non-zero portions of the normal equations.
+	 *
+	 * @param input (Input) parameters being optimized. Not modified.
+	 * @param U (Output) Global block. G by G
+	 * @param Wt (Output) Transpose of coupling matrix. Rows for block k start at k*B. K*B by G
+	 * @param V (Output) Diagonal blocks stacked on top of each other. K*B by B
+	 * @param bg (Output) Global portion of J<sup>T</sup>r. G by 1
+	 * @param bl (Output) Local portion of J<sup>T</sup>r. K*B by 1
+	 * @return Sum of the squared residuals
+	 */
+	double accumulate( double[] input ,
+					   DMatrixRMaj U , DMatrixRMaj Wt , DMatrixRMaj V ,
+					   DMatrixRMaj bg , DMatrixRMaj bl );
+}
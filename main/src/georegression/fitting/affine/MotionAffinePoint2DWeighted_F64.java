@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.fitting.MotionTransformPointWeighted_F64;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import java.util.List;
+
+
+/**
+ * Weighted version of {@link MotionAffinePoint2D_F64}.  Finds the best fit model parameters in the weighted
+ * least squares sense which can describe the transform from the 'fromPts' list to the 'toPts' list.  Each
+ * row in the linear system is scaled by the square root of its weight.
+ *
+ * @author Peter Abeles
+ */
+public class MotionAffinePoint2DWeighted_F64 implements MotionTransformPointWeighted_F64<Affine2D_F64, Point2D_F64> {
+
+	private LinearSolverDense<DMatrixRMaj> solver;
+	private DMatrixRMaj A;
+	protected DMatrixRMaj x;
+	private DMatrixRMaj y;
+
+	Affine2D_F64 model = new Affine2D_F64();
+
+	public MotionAffinePoint2DWeighted_F64() {
+		solver = LinearSolverFactory_DDRM.leastSquares(100, 2);
+		x = new DMatrixRMaj( 3, 2 );
+		A = new DMatrixRMaj( 0, 3 );
+		y = new DMatrixRMaj( 0, 2 );
+	}
+
+	@Override
+	public Affine2D_F64 getTransformSrcToDst() {
+		return model;
+	}
+
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts) {
+		return process(srcPts,dstPts,null);
+	}
+
+	/**
+	 * Same as {@link #process(List, List)} but with a weight for each pair.  If weights is null then every pair
+	 * is given a weight of one.
+	 */
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts, double weights[] ) {
+		int N = srcPts.size();
+
+		if( N != dstPts.size() ) {
+			throw new IllegalArgumentException( "From and to lists must be the same size" );
+		} else if( weights != null && weights.length < N ) {
+			throw new IllegalArgumentException( "Weights must be as long as the number of points" );
+		}
+
+		// too few points are left to constrain the motion, e.g. after robust weighting
+		int positive = N;
+		if( weights != null ) {
+			positive = 0;
+			for( int i = 0; i < N; i++ ) {
+				if( weights[i] > 0 )
+					positive++;
+			}
+		}
+		if( positive < getMinimumPoints() )
+			return false;
+
+		// grow or shrink the matrix sizes
+		A.reshape( N, 3 );
+		y.reshape( N, 2 );
+
+		// put the data into the matrices
+		int indexA = 0, indexY = 0;
+		for( int i = 0; i < N; i++ ) {
+			Point2D_F64 pt2 = srcPts.get( i );
+			Point2D_F64 pt1 = dstPts.get( i );
+
+			double w = weights == null ? 1 : Math.sqrt(weights[i]);
+
+			A.data[indexA++] = w*pt2.x;
+			A.data[indexA++] = w*pt2.y;
+			A.data[indexA++] = w;
+
+			y.data[indexY++] = w*pt1.x;
+			y.data[indexY++] = w*pt1.y;
+		}
+
+		// decompose A
+		if( !solver.setA( A ) )
+			return false;
+
+		// solve
+		solver.solve( y, x );
+
+		// write it into the model
+		model.a11 = x.data[0];
+		model.a12 = x.data[2];
+		model.tx = x.data[4];
+		model.a21 = x.data[1];
+		model.a22 = x.data[3];
+		model.ty = x.data[5];
+
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
@@ -29,8 +29,19 @@ import java.util.List;
 
 
 /**
+ * <p>
  * Finds the best fit model parameters in the least squares sense which can describe the transform
  * from the 'fromPts' list to the 'toPts' list.
+ * </p>
+ *
+ * <p>
+ * By default the N by 3 linear system is solved using QR. Since there are only 6 parameters the system can
+ * instead be reduced to the 3 by 3 normal equations, A<sup>T</sup>A and A<sup>T</sup>y, in a single pass and solved
+ * with a fixed size Cholesky decomposition. This is much faster and no matrices are reshaped, but squaring the
+ * problem squares its condition number. The centered variant subtracts the mean of each point set first, which
+ * decouples the translation from the linear part, leaving a well conditioned 2 by 2 system at the cost of a
+ * second pass. See {@link Mode}.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -43,11 +54,24 @@ public class MotionAffinePoint2D_F64 implements MotionTransformPoint<Affine2D_F6
 
 	Affine2D_F64 model = new Affine2D_F64();
 
+	// how the linear system is solved
+	private Mode mode;
+
+	/**
+	 * @param mode How the linear system is solved
+	 */
+	public MotionAffinePoint2D_F64( Mode mode ) {
+		this.mode = mode;
+		if( mode == Mode.QR ) {
+			solver = LinearSolverFactory_DDRM.leastSquares(100, 2);
+			x = new DMatrixRMaj(3, 2);
+			A = new DMatrixRMaj(0, 3);
+			y = new DMatrixRMaj(0, 2);
+		}
+	}
+
 	public MotionAffinePoint2D_F64() {
-		solver = LinearSolverFactory_DDRM.leastSquares(100, 2);
-		x = new DMatrixRMaj( 3, 2 );
-		A = new DMatrixRMaj( 0, 3 );
-		y = new DMatrixRMaj( 0, 2 );
+		this(Mode.QR);
 	}
 
 	@Override
@@ -66,6 +90,12 @@ public class MotionAffinePoint2D_F64 implements MotionTransformPoint<Affine2D_F6
 			throw new IllegalArgumentException( "Must be at least 3 points" );
 		}
 
+		switch( mode ) {
+			case NORMAL: return processNormal(srcPts, dstPts);
+			case NORMAL_CENTERED: return processCentered(srcPts, dstPts);
+			default: break;
+		}
+
 		if( A.data.length < N * 3 ) {
 			A.reshape( N, 3, true );
 			y.reshape( N, 2, true );
@@ -108,8 +138,143 @@ public class MotionAffinePoint2D_F64 implements MotionTransformPoint<Affine2D_F6
 		return true;
 	}
 
+	/**
+	 * Accumulates the 3 by 3 normal equations in a single pass and solves them with Cholesky
+	 */
+	private boolean processNormal( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts ) {
+		int N = srcPts.size();
+
+		// upper triangle of A'A and the two columns of A'y
+		double sxx = 0, sxy = 0, sx = 0, syy = 0, sy = 0;
+		double sxu = 0, syu = 0, su = 0, sxv = 0, syv = 0, sv = 0;
+
+		for( int i = 0; i < N; i++ ) {
+			Point2D_F64 s = srcPts.get(i);
+			Point2D_F64 d = dstPts.get(i);
+
+			sxx += s.x*s.x; sxy += s.x*s.y; sx += s.x;
+			syy += s.y*s.y; sy += s.y;
+
+			sxu += s.x*d.x; syu += s.y*d.x; su += d.x;
+			sxv += s.x*d.y; syv += s.y*d.y; sv += d.y;
+		}
+
+		// Cholesky decomposition, A'A = L*L'
+		double l11 = Math.sqrt(sxx);
+		if( !(l11 > 0) )
+			return false;
+		double l21 = sxy/l11;
+		double l31 = sx/l11;
+		double d22 = syy - l21*l21;
+		if( !(d22 > 0) )
+			return false;
+		double l22 = Math.sqrt(d22);
+		double l32 = (sy - l31*l21)/l22;
+		double d33 = N - l31*l31 - l32*l32;
+		if( !(d33 > 0) )
+			return false;
+		double l33 = Math.sqrt(d33);
+
+		// forward then back substitution for each column
+		double z1 = sxu/l11;
+		double z2 = (syu - l21*z1)/l22;
+		double z3 = (su - l31*z1 - l32*z2)/l33;
+		model.tx = z3/l33;
+		model.a12 = (z2 - l32*model.tx)/l22;
+		model.a11 = (z1 - l21*model.a12 - l31*model.tx)/l11;
+
+		z1 = sxv/l11;
+		z2 = (syv - l21*z1)/l22;
+		z3 = (sv - l31*z1 - l32*z2)/l33;
+		model.ty = z3/l33;
+		model.a22 = (z2 - l32*model.ty)/l22;
+		model.a21 = (z1 - l21*model.a22 - l31*model.ty)/l11;
+
+		return true;
+	}
+
+	/**
+	 * Subtracts the mean from each set of points so that the translation decouples, then solves the 2 by 2 normal
+	 * equations for the linear part.
+	 */
+	private boolean processCentered( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts ) {
+		int N = srcPts.size();
+
+		double meanX = 0, meanY = 0, meanU = 0, meanV = 0;
+		for( int i = 0; i < N; i++ ) {
+			Point2D_F64 s = srcPts.get(i);
+			Point2D_F64 d = dstPts.get(i);
+			meanX += s.x; meanY += s.y;
+			meanU += d.x; meanV += d.y;
+		}
+		meanX /= N; meanY /= N;
+		meanU /= N; meanV /= N;
+
+		double sxx = 0, sxy = 0, syy = 0;
+		double sxu = 0, syu = 0, sxv = 0, syv = 0;
+		for( int i = 0; i < N; i++ ) {
+			Point2D_F64 s = srcPts.get(i);
+			Point2D_F64 d = dstPts.get(i);
+			double x = s.x - meanX, y = s.y - meanY;
+			double u = d.x - meanU, v = d.y - meanV;
+
+			sxx += x*x; sxy += x*y; syy += y*y;
+			sxu += x*u; syu += y*u;
+			sxv += x*v; syv += y*v;
+		}
+
+		// solve the symmetric 2x2 system using Cholesky
+		double l11 = Math.sqrt(sxx);
+		if( !(l11 > 0) )
+			return false;
+		double l21 = sxy/l11;
+		double d22 = syy - l21*l21;
+		if( !(d22 > 0) )
+			return false;
+		double l22 = Math.sqrt(d22);
+
+		double z1 = sxu/l11;
+		double z2 = (syu - l21*z1)/l22;
+		model.a12 = z2/l22;
+		model.a11 = (z1 - l21*model.a12)/l11;
+
+		z1 = sxv/l11;
+		z2 = (syv - l21*z1)/l22;
+		model.a22 = z2/l22;
+		model.a21 = (z1 - l21*model.a22)/l11;
+
+		model.tx = meanU - model.a11*meanX - model.a12*meanY;
+		model.ty = meanV - model.a21*meanX - model.a22*meanY;
+
+		return true;
+	}
+
 	@Override
 	public int getMinimumPoints() {
 		return 3;
 	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * How the least squares problem is solved
+	 */
+	public enum Mode {
+		/**
+		 * QR decomposition of the N by 3 linear system. Most accurate and slowest.
+		 */
+		QR,
+		/**
+		 * Cholesky decomposition of the 3 by 3 normal equations computed in a single pass. No memory is
+		 * declared.
+		 */
+		NORMAL,
+		/**
+		 * Same as {@link #NORMAL} but the points are centered first, which requires two passes. No memory is
+		 * declared and it is much more stable when points are far from the origin.
+		 */
+		NORMAL_CENTERED
+	}
 }
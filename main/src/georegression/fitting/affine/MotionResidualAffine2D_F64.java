@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.fitting.robust.MotionResidual_F64;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+
+/**
+ * Computes the Euclidean distance between a point transformed by {@link Affine2D_F64} and its observed location.
+ *
+ * @author Peter Abeles
+ */
+public class MotionResidualAffine2D_F64 implements MotionResidual_F64<Affine2D_F64,Point2D_F64> {
+	@Override
+	public double computeResidual(Affine2D_F64 model, Point2D_F64 src, Point2D_F64 dst) {
+		double x = model.a11*src.x + model.a12*src.y + model.tx;
+		double y = model.a21*src.x + model.a22*src.y + model.ty;
+
+		double dx = dst.x - x;
+		double dy = dst.y - y;
+
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	@Override
+	public int getDimension() {
+		return 2;
+	}
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.box;
+
+import georegression.geometry.algs.EigenSymmetric3x3_F64;
+import georegression.geometry.algs.MinimumAreaRectangle_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fits an oriented box to a point cloud. The box's axes are initially the principal axes of the points, found from
+ * a covariance matrix which is computed in a single pass and decomposed in closed form using
+ * {@link EigenSymmetric3x3_F64}. A second pass finds the box's extents along those axes.
+ * </p>
+ *
+ * <p>
+ * The principal axes can be far from the minimum volume box, e.g. when the points are a cube. If refinement is
+ * turned on then for each axis the points are projected onto the plane perpendicular to it and the minimum area
+ * rectangle is found using rotating calipers over the edges of its 2D convex hull, see
+ * {@link MinimumAreaRectangle_F64}. The box is rotated around the axis if that reduces the volume. This is
+ * repeated until the volume stops decreasing.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FitBoxOriented3D_F64 {
+
+	// if true the box will be refined to reduce its volume
+	boolean refine = false;
+	// maximum number of times all three axes are refined
+	int maxIterations = 10;
+
+	// points packed into an array
+	GrowQueue_F64 work = new GrowQueue_F64();
+
+	// storage for the eigen decomposition
+	double[] eigenvalues = new double[3];
+	Vector3D_F64 axisX = new Vector3D_F64();
+	Vector3D_F64 axisY = new Vector3D_F64();
+	Vector3D_F64 axisZ = new Vector3D_F64();
+
+	// used during refinement
+	MinimumAreaRectangle_F64 rectangleAlg = new MinimumAreaRectangle_F64();
+	FastQueue<Point2D_F64> projected = new FastQueue<>(Point2D_F64.class, true);
+	Quadrilateral_F64 rectangle = new Quadrilateral_F64();
+	BoxOriented3D_F64 candidate = new BoxOriented3D_F64();
+
+	/**
+	 * Configures the fit
+	 *
+	 * @param refine If true the box found from the principal axes is refined to reduce its volume
+	 */
+	public FitBoxOriented3D_F64( boolean refine ) {
+		this.refine = refine;
+	}
+
+	public FitBoxOriented3D_F64() {
+	}
+
+	/**
+	 * Fits a box to the points
+	 *
+	 * @param points (Input) Points
+	 * @param box (Output) Oriented box which contains all the points
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( List<Point3D_F64> points , BoxOriented3D_F64 box ) {
+		work.resize(points.size()*3);
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			work.data[i*3] = p.x;
+			work.data[i*3+1] = p.y;
+			work.data[i*3+2] = p.z;
+		}
+		return process(work.data, 0, points.size(), box);
+	}
+
+	/**
+	 * Fits a box to points stored in an array, x0,y0,z0,x1,y1,z1,...
+	 *
+	 * @param xyz (Input) Packed points
+	 * @param first Index of the first point
+	 * @param count Number of points
+	 * @param box (Output) Oriented box which contains all the points
+	 * @return true if successful or false if there are no points
+	 */
+	public boolean process( double[] xyz , int first , int count , BoxOriented3D_F64 box ) {
+		if( count <= 0 ) {
+			box.boxToWorld.reset();
+			box.halfX = box.halfY = box.halfZ = 0;
+			return false;
+		}
+
+		principalAxes(xyz, first, count);
+		setAxes(box, axisX, axisY, axisZ);
+		computeExtents(xyz, first, count, box);
+
+		if( refine ) {
+			for (int iteration = 0; iteration < maxIterations; iteration++) {
+				boolean improved = false;
+				for (int axis = 0; axis < 3; axis++) {
+					improved |= refineAround(xyz, first, count, axis, box);
+				}
+				if( !improved )
+					break;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Fits a box to each cluster
+	 *
+	 * @param clusters (Input) Points in each cluster
+	 * @param boxes (Output) One box for each cluster
+	 */
+	public void process( List<List<Point3D_F64>> clusters , FastQueue<BoxOriented3D_F64> boxes ) {
+		boxes.reset();
+		for (int i = 0; i < clusters.size(); i++) {
+			process(clusters.get(i), boxes.grow());
+		}
+	}
+
+	/**
+	 * Fits a box to each cluster. The points in all the clusters are stored in a single array and
+	 * cluster 'i' contains the points from offsets[i] to offsets[i+1]-1.
+	 *
+	 * @param xyz (Input) Packed points, x0,y0,z0,x1,y1,z1,...
+	 * @param offsets (Input) Index of the first point in each cluster followed by the total number of points
+	 * @param boxes (Output) One box for each cluster
+	 */
+	public void process( double[] xyz , GrowQueue_I32 offsets , FastQueue<BoxOriented3D_F64> boxes ) {
+		boxes.reset();
+		for (int i = 0; i < offsets.size-1; i++) {
+			int first = offsets.data[i];
+			process(xyz, first, offsets.data[i+1] - first, boxes.grow());
+		}
+	}
+
+	/**
+	 * Finds the principal axes of the points from their covariance matrix. The covariance is computed in a single
+	 * pass with sums relative to the first point to avoid cancellation when far from the origin.
+	 */
+	void principalAxes( double[] xyz , int first , int count ) {
+		double ox = xyz[first*3], oy = xyz[first*3+1], oz = xyz[first*3+2];
+
+		double sx=0,sy=0,sz=0;
+		double xx=0,xy=0,xz=0,yy=0,yz=0,zz=0;
+		for (int i = first; i < first+count; i++) {
+			double dx = xyz[i*3] - ox, dy = xyz[i*3+1] - oy, dz = xyz[i*3+2] - oz;
+			sx += dx; sy += dy; sz += dz;
+			xx += dx*dx; xy += dx*dy; xz += dx*dz;
+			yy += dy*dy; yz += dy*dz; zz += dz*dz;
+		}
+		sx /= count; sy /= count; sz /= count;
+		xx = xx/count - sx*sx; xy = xy/count - sx*sy; xz = xz/count - sx*sz;
+		yy = yy/count - sy*sy; yz = yz/count - sy*sz; zz = zz/count - sz*sz;
+
+		EigenSymmetric3x3_F64.eigenvalues(xx,xy,xz,yy,yz,zz,eigenvalues);
+		EigenSymmetric3x3_F64.eigenvector(xx,xy,xz,yy,yz,zz,eigenvalues[0],axisX);
+		EigenSymmetric3x3_F64.eigenvector(xx,xy,xz,yy,yz,zz,eigenvalues[1],axisY);
+
+		// with repeated eigenvalues the vectors might not be orthogonal
+		double dot = axisX.dot(axisY);
+		axisY.x -= dot*axisX.x;
+		axisY.y -= dot*axisX.y;
+		axisY.z -= dot*axisX.z;
+		double norm = axisY.norm();
+		if( norm <= GrlConstants.TEST_F64 ) {
+			// pick the world axis which is most perpendicular
+			double ax = Math.abs(axisX.x), ay = Math.abs(axisX.y), az = Math.abs(axisX.z);
+			if( ax <= ay && ax <= az )
+				axisY.set(0, -axisX.z, axisX.y);
+			else if( ay <= az )
+				axisY.set(-axisX.z, 0, axisX.x);
+			else
+				axisY.set(-axisX.y, axisX.x, 0);
+			norm = axisY.norm();
+		}
+		axisY.divideIP(norm);
+		axisZ.cross(axisX, axisY);
+	}
+
+	/**
+	 * Rotates the box around one of its axes to minimize the area of the rectangle perpendicular to it
+	 *
+	 * @return true if the volume was reduced
+	 */
+	boolean refineAround( double[] xyz , int first , int count , int axis , BoxOriented3D_F64 box ) {
+		double[] R = box.boxToWorld.R.data;
+		// the other two axes in right handed order
+		int u = (axis+1)%3, v = (axis+2)%3;
+
+		projected.reset();
+		for (int i = first; i < first+count; i++) {
+			double x = xyz[i*3], y = xyz[i*3+1], z = xyz[i*3+2];
+			projected.grow().set(
+					R[u]*x + R[3+u]*y + R[6+u]*z,
+					R[v]*x + R[3+v]*y + R[6+v]*z);
+		}
+		rectangleAlg.process(projected.toList(), rectangle);
+
+		double theta = Math.atan2(rectangle.b.y - rectangle.a.y, rectangle.b.x - rectangle.a.x);
+		double c = Math.cos(theta), s = Math.sin(theta);
+
+		// rotate the two axes in the plane
+		candidate.set(box);
+		double[] C = candidate.boxToWorld.R.data;
+		for (int row = 0; row < 3; row++) {
+			double a = R[row*3+u], b = R[row*3+v];
+			C[row*3+u] = c*a + s*b;
+			C[row*3+v] = -s*a + c*b;
+		}
+		computeExtents(xyz, first, count, candidate);
+
+		if( candidate.volume() < box.volume()*(1.0 - GrlConstants.TEST_F64) ) {
+			box.set(candidate);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Given the box's rotation, finds its center and size
+	 */
+	static void computeExtents( double[] xyz , int first , int count , BoxOriented3D_F64 box ) {
+		double[] R = box.boxToWorld.R.data;
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+
+		for (int i = first; i < first+count; i++) {
+			double x = xyz[i*3], y = xyz[i*3+1], z = xyz[i*3+2];
+			double bx = R[0]*x + R[3]*y + R[6]*z;
+			double by = R[1]*x + R[4]*y + R[7]*z;
+			double bz = R[2]*x + R[5]*y + R[8]*z;
+
+			if( bx < minX ) minX = bx;
+			if( bx > maxX ) maxX = bx;
+			if( by < minY ) minY = by;
+			if( by > maxY ) maxY = by;
+			if( bz < minZ ) minZ = bz;
+			if( bz > maxZ ) maxZ = bz;
+		}
+
+		double cx = (minX + maxX)/2, cy = (minY + maxY)/2, cz = (minZ + maxZ)/2;
+		box.boxToWorld.T.set(
+				R[0]*cx + R[1]*cy + R[2]*cz,
+				R[3]*cx + R[4]*cy + R[5]*cz,
+				R[6]*cx + R[7]*cy + R[8]*cz);
+		box.halfX = (maxX - minX)/2;
+		box.halfY = (maxY - minY)/2;
+		box.halfZ = (maxZ - minZ)/2;
+	}
+
+	private static void setAxes( BoxOriented3D_F64 box , Vector3D_F64 x , Vector3D_F64 y , Vector3D_F64 z ) {
+		double[] R = box.boxToWorld.R.data;
+		R[0] = x.x; R[1] = y.x; R[2] = z.x;
+		R[3] = x.y; R[4] = y.y; R[5] = z.y;
+		R[6] = x.z; R[7] = y.z; R[8] = z.z;
+	}
+
+	public boolean isRefine() {
+		return refine;
+	}
+
+	public void setRefine( boolean refine ) {
+		this.refine = refine;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations( int maxIterations ) {
+		this.maxIterations = maxIterations;
+	}
+}
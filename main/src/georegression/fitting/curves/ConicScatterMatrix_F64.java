@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.curves;
+
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrix6x6;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Accumulates the scatter matrix, D<sup>T</sup>*D, of a conic's design matrix one point at a time. Each row
+ * of the design matrix is [x<sup>2</sup>, x*y, y<sup>2</sup>, x, y, 1] and every element in the 6x6 scatter
+ * matrix is a moment of the points, sum w*x<sup>i</sup>*y<sup>j</sup> with i+j &le; 4, so only 15 sums
+ * need to be stored no matter how many points there are.
+ * </p>
+ *
+ * <p>
+ * Points can be added after a fit and the fit recomputed, making it suitable for streaming contours.
+ * Partial sums computed in different threads can be combined with {@link #add(ConicScatterMatrix_F64)}.
+ * </p>
+ *
+ * @see FitConicAtA_F64
+ * @see FitEllipseAlgebraic_F64
+ *
+ * @author Peter Abeles
+ */
+public class ConicScatterMatrix_F64 {
+	// moments of 4th order. m_ij = sum w*x^i*y^j
+	public double m40, m31, m22, m13, m04;
+	// moments of 3rd order
+	public double m30, m21, m12, m03;
+	// moments of 2nd order
+	public double m20, m11, m02;
+	// moments of 1st order
+	public double m10, m01;
+	// sum of weights
+	public double m00;
+
+	/**
+	 * Sets all the sums to zero
+	 */
+	public void reset() {
+		m40 = m31 = m22 = m13 = m04 = 0;
+		m30 = m21 = m12 = m03 = 0;
+		m20 = m11 = m02 = 0;
+		m10 = m01 = 0;
+		m00 = 0;
+	}
+
+	/**
+	 * Adds a point with a weight of one
+	 */
+	public void add( double x , double y ) {
+		double xx = x*x, xy = x*y, yy = y*y;
+
+		m40 += xx*xx; m31 += xx*xy; m22 += xx*yy; m13 += xy*yy; m04 += yy*yy;
+		m30 += xx*x;  m21 += xx*y;  m12 += x*yy;  m03 += yy*y;
+		m20 += xx;    m11 += xy;    m02 += yy;
+		m10 += x;     m01 += y;
+		m00 += 1;
+	}
+
+	/**
+	 * Adds a weighted point. The weight is applied to the scatter matrix, i.e. it's the square of the weight
+	 * applied to a row in the design matrix.
+	 */
+	public void add( double x , double y , double weight ) {
+		double wx = weight*x, wy = weight*y;
+		double wxx = wx*x, wxy = wx*y, wyy = wy*y;
+
+		m40 += wxx*x*x; m31 += wxx*x*y; m22 += wxx*y*y; m13 += wxy*y*y; m04 += wyy*y*y;
+		m30 += wxx*x;   m21 += wxx*y;   m12 += wyy*x;   m03 += wyy*y;
+		m20 += wxx;     m11 += wxy;     m02 += wyy;
+		m10 += wx;      m01 += wy;
+		m00 += weight;
+	}
+
+	public void add( Point2D_F64 p ) {
+		add(p.x,p.y);
+	}
+
+	/**
+	 * Adds all the points in the list
+	 */
+	public void addAll( List<Point2D_F64> points ) {
+		addAll(points,0,points.size());
+	}
+
+	/**
+	 * Adds points in the list from index first (inclusive) to last (exclusive)
+	 */
+	public void addAll( List<Point2D_F64> points , int first , int last ) {
+		for (int i = first; i < last; i++) {
+			Point2D_F64 p = points.get(i);
+			add(p.x,p.y);
+		}
+	}
+
+	/**
+	 * Adds points which are packed inside an array as (x,y) pairs
+	 *
+	 * @param xy Array with interleaved coordinates x0,y0,x1,y1,...
+	 * @param offset Index of the first point's x coordinate
+	 * @param length Number of points
+	 */
+	public void addAll( double[] xy , int offset , int length ) {
+		int end = offset + length*2;
+		for (int i = offset; i < end; i += 2) {
+			add(xy[i],xy[i+1]);
+		}
+	}
+
+	/**
+	 * Adds the sums from another scatter matrix to this one. Used to merge partial results.
+	 */
+	public void add( ConicScatterMatrix_F64 src ) {
+		m40 += src.m40; m31 += src.m31; m22 += src.m22; m13 += src.m13; m04 += src.m04;
+		m30 += src.m30; m21 += src.m21; m12 += src.m12; m03 += src.m03;
+		m20 += src.m20; m11 += src.m11; m02 += src.m02;
+		m10 += src.m10; m01 += src.m01;
+		m00 += src.m00;
+	}
+
+	public void setTo( ConicScatterMatrix_F64 src ) {
+		reset();
+		add(src);
+	}
+
+	/**
+	 * Fills in the full symmetric 6x6 scatter matrix
+	 */
+	public void get( DMatrix6x6 S ) {
+		S.a11 = m40; S.a12 = m31; S.a13 = m22; S.a14 = m30; S.a15 = m21; S.a16 = m20;
+		S.a21 = m31; S.a22 = m22; S.a23 = m13; S.a24 = m21; S.a25 = m12; S.a26 = m11;
+		S.a31 = m22; S.a32 = m13; S.a33 = m04; S.a34 = m12; S.a35 = m03; S.a36 = m02;
+		S.a41 = m30; S.a42 = m21; S.a43 = m12; S.a44 = m20; S.a45 = m11; S.a46 = m10;
+		S.a51 = m21; S.a52 = m12; S.a53 = m03; S.a54 = m11; S.a55 = m02; S.a56 = m01;
+		S.a61 = m20; S.a62 = m11; S.a63 = m02; S.a64 = m10; S.a65 = m01; S.a66 = m00;
+	}
+
+	/**
+	 * Sum of all the weights. If no weights have been specified then it's the number of points.
+	 */
+	public double getTotalWeight() {
+		return m00;
+	}
+
+	public ConicScatterMatrix_F64 copy() {
+		ConicScatterMatrix_F64 ret = new ConicScatterMatrix_F64();
+		ret.setTo(this);
+		return ret;
+	}
+}
@@ -23,7 +23,6 @@ import georegression.struct.curve.ConicGeneral_F64;
 import georegression.struct.point.Point2D_F64;
 import org.ejml.data.DMatrix6x6;
 import org.ejml.data.DMatrixRMaj;
-import org.ejml.dense.fixed.CommonOps_DDF6;
 import org.ejml.dense.row.linsol.svd.SolveNullSpaceSvd_DDRM;
 import org.ejml.interfaces.SolveNullSpace;
 import org.ejml.ops.ConvertDMatrixStruct;
@@ -43,6 +42,8 @@ public class FitConicAtA_F64 implements FitShapeToPoints_F64<Point2D_F64,ConicGe
 	private DMatrixRMaj tmp = new DMatrixRMaj(6,6);
 	private DMatrixRMaj nullspace = new DMatrixRMaj(6,1);
 
+	private ConicScatterMatrix_F64 scatter = new ConicScatterMatrix_F64();
+
 	/**
 	 * Fits the conic to the points.  Strongly recommended that you transform the points such that they have
 	 * zero mean and a standard deviation along x and y axis, independently.
@@ -57,82 +58,10 @@ public class FitConicAtA_F64 implements FitShapeToPoints_F64<Point2D_F64,ConicGe
 		if( N < 3 )
 			throw new IllegalArgumentException("At least 3 points required");
 
-		CommonOps_DDF6.fill(ATA,0);
-
-		for (int i = 0; i < N; i++) {
-			Point2D_F64 p = points.get(i);
-
-			double x = p.x;
-			double y = p.y;
-			double xx = x*x;
-			double xxx = xx*x;
-			double yy = y*y;
-			double yyy = yy*y;
-
-			ATA.a11 += xx*xx;
-			ATA.a12 += xxx*y;
-			ATA.a13 += xx*yy;
-			ATA.a14 += xxx;
-			ATA.a15 += xx*y;
-			ATA.a16 += xx;
-
-			ATA.a22 += xx*yy;
-			ATA.a23 += x*yyy;
-//			ATA.a24 += xx*y;
-			ATA.a25 += x*yy;
-			ATA.a26 += x*y;
-
-			ATA.a33 += yyy*y;
-//			ATA.a34 += x*yy;
-			ATA.a35 += yyy;
-			ATA.a36 += yy;
-
-//			ATA.a44 += xx;
-			ATA.a45 += x*y;
-			ATA.a46 += x;
-
-//			ATA.a55 += yy;
-			ATA.a56 += y;
-
-		}
-		ATA.a21 = ATA.a12;
-		ATA.a24 = ATA.a15;
-
-		ATA.a31 = ATA.a13;
-		ATA.a32 = ATA.a23;
-		ATA.a34 = ATA.a25;
-
-		ATA.a41 = ATA.a14;
-		ATA.a42 = ATA.a24;
-		ATA.a43 = ATA.a34;
-		ATA.a44 = ATA.a16;
-
-		ATA.a51 = ATA.a15;
-		ATA.a52 = ATA.a25;
-		ATA.a53 = ATA.a35;
-		ATA.a54 = ATA.a45;
-		ATA.a55 = ATA.a36;
-
-		ATA.a61 = ATA.a16;
-		ATA.a62 = ATA.a26;
-		ATA.a63 = ATA.a36;
-		ATA.a64 = ATA.a56;
-		ATA.a65 = ATA.a56;
-		ATA.a66 = N;
+		scatter.reset();
+		scatter.addAll(points);
 
-		ConvertDMatrixStruct.convert(ATA,tmp);
-
-		if( !solver.process(tmp,1,nullspace) )
-			return false;
-
-		output.A = nullspace.data[0];
-		output.B = nullspace.data[1];
-		output.C = nullspace.data[2];
-		output.D = nullspace.data[3];
-		output.E = nullspace.data[4];
-		output.F = nullspace.data[5];
-
-		return true;
+		return process(scatter,output);
 	}
 
 	/**
@@ -149,71 +78,26 @@ public class FitConicAtA_F64 implements FitShapeToPoints_F64<Point2D_F64,ConicGe
 		if( N < 3 )
 			throw new IllegalArgumentException("At least 3 points required");
 
-		CommonOps_DDF6.fill(ATA,0);
-
+		scatter.reset();
 		for (int i = 0; i < N; i++) {
 			Point2D_F64 p = points.get(i);
-
 			double w = weights[i];
-			w *= w;
-			double x = p.x;
-			double y = p.y;
-			double xx = x*x;
-			double xxx = xx*x;
-			double yy = y*y;
-			double yyy = yy*y;
-
-			ATA.a11 += w*xx*xx;
-			ATA.a12 += w*xxx*y;
-			ATA.a13 += w*xx*yy;
-			ATA.a14 += w*xxx;
-			ATA.a15 += w*xx*y;
-			ATA.a16 += w*xx;
-
-			ATA.a22 += w*xx*yy;
-			ATA.a23 += w*x*yyy;
-//			ATA.a24 += w*xx*y;
-			ATA.a25 += w*x*yy;
-			ATA.a26 += w*x*y;
-
-			ATA.a33 += w*yyy*y;
-//			ATA.a34 += w*x*yy;
-			ATA.a35 += w*yyy;
-			ATA.a36 += w*yy;
-
-//			ATA.a44 += w*xx;
-			ATA.a45 += w*x*y;
-			ATA.a46 += w*x;
-
-//			ATA.a55 += w*yy;
-			ATA.a56 += w*y;
-
-			ATA.a66 += w;
+			scatter.add(p.x,p.y,w*w);
 		}
-		ATA.a21 = ATA.a12;
-		ATA.a24 = ATA.a15;
-
-		ATA.a31 = ATA.a13;
-		ATA.a32 = ATA.a23;
-		ATA.a34 = ATA.a25;
-
-		ATA.a41 = ATA.a14;
-		ATA.a42 = ATA.a24;
-		ATA.a43 = ATA.a34;
-		ATA.a44 = ATA.a16;
-
-		ATA.a51 = ATA.a15;
-		ATA.a52 = ATA.a25;
-		ATA.a53 = ATA.a35;
-		ATA.a54 = ATA.a45;
-		ATA.a55 = ATA.a36;
-
-		ATA.a61 = ATA.a16;
-		ATA.a62 = ATA.a26;
-		ATA.a63 = ATA.a36;
-		ATA.a64 = ATA.a56;
-		ATA.a65 = ATA.a56;
 
+		return process(scatter,output);
+	}
+
+	/**
+	 * Fits the conic to points which have already been summed up into a scatter matrix. The scatter matrix
+	 * can be updated and this function called again to refine the fit as new points arrive.
+	 *
+	 * @param scatter (Input) Scatter matrix of the points. Not modified.
+	 * @param output (Output) found conic
+	 * @return true if successful or false if it failed
+	 */
+	public boolean process( ConicScatterMatrix_F64 scatter , ConicGeneral_F64 output ) {
+		scatter.get(ATA);
 		ConvertDMatrixStruct.convert(ATA,tmp);
 
 		if( !solver.process(tmp,1,nullspace) )
@@ -52,10 +52,8 @@ import java.util.List;
  */
 public class FitEllipseAlgebraic_F64 {
 
-	// qudratic part of design matrix
-	private DMatrixRMaj D1 = new DMatrixRMaj(3,1);
-	// linear part of design matrix
-	private DMatrixRMaj D2 = new DMatrixRMaj(3,1);
+	// sums of the point moments which compose the scatter matrix
+	private ConicScatterMatrix_F64 scatter = new ConicScatterMatrix_F64();
 
 	// quadratic part of scatter matrix
 	private DMatrixRMaj S1 = new DMatrixRMaj(3,3);
@@ -76,28 +74,42 @@ public class FitEllipseAlgebraic_F64 {
 
 	private EllipseQuadratic_F64 ellipse = new EllipseQuadratic_F64();
 
+	/**
+	 * Fits an ellipse to the points.
+	 *
+	 * @param points (Input) points
+	 * @return true if successful or false if it failed
+	 */
 	public boolean process( List<Point2D_F64> points ) {
-		int N = points.size();
-
-		// Construct the design matrices.  linear and quadratic
-		D1.reshape(N,3); D2.reshape(N,3);
-		int index = 0;
-		for( int i = 0; i < N; i++ ) {
-			Point2D_F64 p = points.get(i);
-
-			// fill in each row one at a time
-			D1.data[index]   = p.x*p.x;
-			D2.data[index++] = p.x;
-			D1.data[index]   = p.x*p.y;
-			D2.data[index++] = p.y;
-			D1.data[index]   = p.y*p.y;
-			D2.data[index++] = 1;
-		}
+		scatter.reset();
+		scatter.addAll(points);
+
+		return process(scatter);
+	}
 
-		// Compute scatter matrix
-		CommonOps_DDRM.multTransA(D1, D1, S1); // S1 = D1'*D1
-		CommonOps_DDRM.multTransA(D1, D2, S2); // S2 = D1'*D2
-		CommonOps_DDRM.multTransA(D2, D2, S3); // S3 = D2'*D2
+	/**
+	 * Fits an ellipse to points which have already been summed into a scatter matrix.  Points can be added
+	 * to the scatter matrix, possibly from multiple threads, and the ellipse fit again without revisiting
+	 * old points.
+	 *
+	 * @param scatter (Input) Scatter matrix of the points. Not modified.
+	 * @return true if successful or false if it failed
+	 */
+	public boolean process( ConicScatterMatrix_F64 scatter ) {
+		// S1 = D1'*D1 where D1 is the quadratic part of the design matrix
+		S1.data[0] = scatter.m40; S1.data[1] = scatter.m31; S1.data[2] = scatter.m22;
+		S1.data[3] = scatter.m31; S1.data[4] = scatter.m22; S1.data[5] = scatter.m13;
+		S1.data[6] = scatter.m22; S1.data[7] = scatter.m13; S1.data[8] = scatter.m04;
+
+		// S2 = D1'*D2 where D2 is the linear part of the design matrix
+		S2.data[0] = scatter.m30; S2.data[1] = scatter.m21; S2.data[2] = scatter.m20;
+		S2.data[3] = scatter.m21; S2.data[4] = scatter.m12; S2.data[5] = scatter.m11;
+		S2.data[6] = scatter.m12; S2.data[7] = scatter.m03; S2.data[8] = scatter.m02;
+
+		// S3 = D2'*D2
+		S3.data[0] = scatter.m20; S3.data[1] = scatter.m11; S3.data[2] = scatter.m10;
+		S3.data[3] = scatter.m11; S3.data[4] = scatter.m02; S3.data[5] = scatter.m01;
+		S3.data[6] = scatter.m10; S3.data[7] = scatter.m01; S3.data[8] = scatter.m00;
 
 		// for getting a2 from a1
 		// T = -inv(S3)*S2'
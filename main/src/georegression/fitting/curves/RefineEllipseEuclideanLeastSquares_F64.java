@@ -18,6 +18,8 @@
 
 package georegression.fitting.curves;
 
+import georegression.fitting.LevenbergMarquardtSchur;
+import georegression.fitting.NormalEquationsSchurFunction;
 import georegression.misc.GrlConstants;
 import georegression.struct.curve.EllipseRotated_F64;
 import georegression.struct.point.Point2D_F64;
@@ -43,7 +45,10 @@ import java.util.List;
  * </p>
  *
  * <p>
- * NOTE: This implementation does not take advantage of the sparsity found in the Jacobian.  Could be speed up a bit.
+ * Two types of optimizers are supported.  A generic {@link UnconstrainedLeastSquares} which does not take advantage
+ * of the sparsity found in the Jacobian, or {@link LevenbergMarquardtSchur} which eliminates the per point angles
+ * using the Schur complement.  With the latter the cost of each iteration is linear in the number of points and
+ * the 2N by 5+N Jacobian is never declared.
  * </p>
  *
  * @author Peter Abeles
@@ -52,6 +57,7 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 
 	// optimization routine
 	protected UnconstrainedLeastSquares optimizer;
+	protected LevenbergMarquardtSchur optimizerSchur;
 	// convergence parameters
 	double ftol= GrlConstants.DCONV_TOL_B,gtol=GrlConstants.DCONV_TOL_B;
 	int maxIterations=500;
@@ -75,6 +81,14 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 		this.optimizer = optimizer;
 	}
 
+	/**
+	 * Uses an optimizer which takes advantage of the problem's sparse structure.  The angle of each point
+	 * is removed from the normal equations using the Schur complement.
+	 */
+	public RefineEllipseEuclideanLeastSquares_F64(LevenbergMarquardtSchur optimizer ) {
+		this.optimizerSchur = optimizer;
+	}
+
 	/**
 	 * Defaults to a robust solver since this problem often encounters singularities.
 	 */
@@ -119,17 +133,30 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 		}
 
 		// start optimization
-		optimizer.setFunction(new Error(),null);
-		optimizer.initialize(initialParam,ftol,gtol);
-		initialError = optimizer.getFunctionValue();
-
-		for( int i = 0; i < maxIterations; i++ ) {
-			if( optimizer.iterate() )
-				break;
+		/**/double[] foundParam;
+		if( optimizerSchur != null ) {
+			optimizerSchur.setFunction(new NormalEquations());
+			optimizerSchur.initialize(initialParam,ftol,gtol);
+			initialError = optimizerSchur.getFunctionValue();
+
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizerSchur.iterate() )
+					break;
+			}
+			foundParam = optimizerSchur.getParameters();
+		} else {
+			optimizer.setFunction(new Error(),null);
+			optimizer.initialize(initialParam,ftol,gtol);
+			initialError = optimizer.getFunctionValue();
+
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizer.iterate() )
+					break;
+			}
+			foundParam = optimizer.getParameters();
 		}
 
 		// decode found results
-		/**/double[] foundParam = optimizer.getParameters();
 		found.center.x = (double)foundParam[0];
 		found.center.y = (double)foundParam[1];
 		found.a = (double)foundParam[2];
@@ -144,9 +171,15 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 	}
 
 	public double getFitError() {
+		if( optimizerSchur != null )
+			return (double)optimizerSchur.getFunctionValue();
 		return (double)optimizer.getFunctionValue();
 	}
 
+	public LevenbergMarquardtSchur getOptimizerSchur() {
+		return optimizerSchur;
+	}
+
 	protected Error createError() {
 		return new Error();
 	}
@@ -155,6 +188,10 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 		return new Jacobian();
 	}
 
+	protected NormalEquations createNormalEquations() {
+		return new NormalEquations();
+	}
+
 	/**
 	 *
 	 */
@@ -252,8 +289,8 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 				output.data[indexY++] = -a*cp*ct + b*sp*st;
 
 				// partial theta(i)
-				output.data[ indexX + i] = a*cp*st + b*sp*cp;
-				output.data[ indexY + i] = a*sp*st - b*cp*cp;
+				output.data[ indexX + i] = a*cp*st + b*sp*ct;
+				output.data[ indexY + i] = a*sp*st - b*cp*ct;
 			}
 		}
 
@@ -262,4 +299,93 @@ public class RefineEllipseEuclideanLeastSquares_F64 {
 			return new /**/DMatrixRMaj(getNumOfOutputsM(),getNumOfInputsN());
 		}
 	}
+
+	/**
+	 * Computes the sparse normal equations.  The 5 ellipse parameters are global and the angle of each point
+	 * is a local block with a single parameter.
+	 */
+	public class NormalEquations implements NormalEquationsSchurFunction {
+
+		// global portion of the Jacobian for a single point
+		/**/double[] jx = new /**/double[5];
+		/**/double[] jy = new /**/double[5];
+
+		@Override
+		public int getNumOfGlobal() {
+			return 5;
+		}
+
+		@Override
+		public int getNumOfBlocks() {
+			return points.size();
+		}
+
+		@Override
+		public int getBlockSize() {
+			return 1;
+		}
+
+		@Override
+		public /**/double accumulate( /**/double[] input,
+									  /**/DMatrixRMaj U, /**/DMatrixRMaj Wt, /**/DMatrixRMaj V,
+									  /**/DMatrixRMaj bg, /**/DMatrixRMaj bl) {
+			/**/double x0  = input[0];
+			/**/double y0  = input[1];
+			/**/double a   = input[2];
+			/**/double b   = input[3];
+			/**/double phi = input[4];
+
+			/**/double cp = /**/Math.cos(phi);
+			/**/double sp = /**/Math.sin(phi);
+
+			U.zero();
+			bg.zero();
+
+			/**/double sumSq = 0;
+			for( int i = 0; i < points.size(); i++ ) {
+				Point2D_F64 p = points.get(i);
+				/**/double theta = input[5+i];
+
+				/**/double ct = /**/Math.cos(theta);
+				/**/double st = /**/Math.sin(theta);
+
+				// residual
+				/**/double rx = p.x - (x0 + cp*a*ct - sp*b*st);
+				/**/double ry = p.y - (y0 + sp*a*ct + cp*b*st);
+
+				// partials for the global parameters
+				jx[0] = -1;                   jy[0] = 0;
+				jx[1] = 0;                    jy[1] = -1;
+				jx[2] = -cp*ct;               jy[2] = -sp*ct;
+				jx[3] = sp*st;                jy[3] = -cp*st;
+				jx[4] = a*sp*ct + b*cp*st;    jy[4] = -a*cp*ct + b*sp*st;
+
+				// partials for theta(i)
+				/**/double tx = a*cp*st + b*sp*ct;
+				/**/double ty = a*sp*st - b*cp*ct;
+
+				int indexWt = i*5;
+				for (int j = 0; j < 5; j++) {
+					for (int k = j; k < 5; k++) {
+						U.data[j*5+k] += jx[j]*jx[k] + jy[j]*jy[k];
+					}
+					bg.data[j] += jx[j]*rx + jy[j]*ry;
+					Wt.data[indexWt+j] = jx[j]*tx + jy[j]*ty;
+				}
+				V.data[i] = tx*tx + ty*ty;
+				bl.data[i] = tx*rx + ty*ry;
+
+				sumSq += rx*rx + ry*ry;
+			}
+
+			// copy the upper triangle into the lower
+			for (int j = 1; j < 5; j++) {
+				for (int k = 0; k < j; k++) {
+					U.data[j*5+k] = U.data[k*5+j];
+				}
+			}
+
+			return sumSq;
+		}
+	}
 }
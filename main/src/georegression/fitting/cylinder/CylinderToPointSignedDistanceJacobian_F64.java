@@ -18,6 +18,9 @@
 
 package georegression.fitting.cylinder;
 
+import georegression.fitting.NormalEquationsConcurrent;
+import georegression.fitting.NormalEquationsFunction;
+import georegression.fitting.NormalEquationsPartial;
 import georegression.metric.MiscOps;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Vector3D_F64;
@@ -31,11 +34,13 @@ import java.util.List;
 //CUSTOM ignore org.ejml.data.DMatrixRMaj;
 
 /**
- * Jacobian of {@link CylinderToPointSignedDistance_F64}.
+ * Jacobian of {@link CylinderToPointSignedDistance_F64}.  Can also directly compute the 7 by 7 normal equations
+ * without declaring the full Jacobian, see {@link NormalEquationsFunction}.  Each point is an independent term
+ * so the normal equations can be computed in parallel using {@link NormalEquationsConcurrent}.
  *
  * @author Peter Abeles
  */
-public class CylinderToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN< /**/DMatrixRMaj > {
+public class CylinderToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN< /**/DMatrixRMaj >, NormalEquationsPartial {
 	// model of the cylinder
 	private Cylinder3D_F64 cylinder = new Cylinder3D_F64();
 
@@ -113,6 +118,94 @@ public class CylinderToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN
 		}
 	}
 
+	@Override
+	public int getNumOfTerms() {
+		return points.size();
+	}
+
+	@Override
+	public /**/double accumulate( /**/double[] input, /**/DMatrixRMaj JtJ, /**/DMatrixRMaj Jtr) {
+		JtJ.reshape(7,7);
+		Jtr.reshape(7,1);
+		JtJ.zero();
+		Jtr.zero();
+
+		/**/double sumSq = accumulate(input,0,points.size(),JtJ,Jtr);
+
+		NormalEquationsConcurrent.copyUpperToLower(JtJ);
+
+		return sumSq;
+	}
+
+	@Override
+	public /**/double accumulate( /**/double[] input, int first, int last, /**/DMatrixRMaj JtJ, /**/DMatrixRMaj Jtr) {
+		// parameters are decoded into local variables so that it can be called concurrently
+		double px = (double)input[0], py = (double)input[1], pz = (double)input[2];
+		double sx = (double)input[3], sy = (double)input[4], sz = (double)input[5];
+		double radius = (double)input[6];
+
+		// just need to compute this once
+		double slopeDot = sx*sx + sy*sy + sz*sz;
+		double slopeNorm = Math.sqrt(slopeDot);
+
+		// storage for a single row in the Jacobian
+		double[] row = new double[7];
+
+		/**/double[] A = JtJ.data;
+		/**/double[] b = Jtr.data;
+		/**/double sumSq = 0;
+
+		for( int i = first; i < last; i++ ) {
+			Point3D_F64 p = points.get(i);
+
+			double x = px - p.x;
+			double y = py - p.y;
+			double z = pz - p.z;
+
+			double cc = x*x + y*y + z*z;
+
+			double xdots = x*sx + y*sy + z*sz;
+			double bb = xdots/slopeNorm;
+
+			double distance = cc-bb*bb;
+
+			// round off error can make distanceSq go negative when it is very close to zero
+			if( distance < 0 ) {
+				for (int j = 0; j < 6; j++) {
+					row[j] = 0;
+				}
+				distance = 0;
+			} else {
+				distance = Math.sqrt(distance);
+
+				row[0] = (x - xdots*sx/slopeDot)/distance;
+				row[1] = (y - xdots*sy/slopeDot)/distance;
+				row[2] = (z - xdots*sz/slopeDot)/distance;
+
+				row[3] = -xdots*( x/slopeDot - (xdots/slopeDot)*(sx/slopeDot))/distance;
+				row[4] = -xdots*( y/slopeDot - (xdots/slopeDot)*(sy/slopeDot))/distance;
+				row[5] = -xdots*( z/slopeDot - (xdots/slopeDot)*(sz/slopeDot))/distance;
+			}
+			row[6] = -1;
+
+			double r = distance - radius;
+
+			// only the upper triangle is computed
+			for (int j = 0; j < 7; j++) {
+				double rj = row[j];
+				int index = j*7;
+				for (int k = j; k < 7; k++) {
+					A[index+k] += rj*row[k];
+				}
+				b[j] += rj*r;
+			}
+
+			sumSq += r*r;
+		}
+
+		return sumSq;
+	}
+
 	@Override
 	public /**/DMatrixRMaj declareMatrixMxN() {
 		return new /**/DMatrixRMaj(getNumOfOutputsM(),getNumOfInputsN());
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.cylinder;
+
+import georegression.geometry.UtilVector3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.decomposition.EigenDecomposition_F64;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fits a cylinder in closed form to a set of points with known surface normals.  All surface normals on a cylinder
+ * are perpendicular to its axis.  The axis is therefor selected as the eigenvector of
+ * sum(n*n<sup>T</sup>) with the smallest eigenvalue.  Then the points are projected onto a plane perpendicular to
+ * the axis and a circle is fit using algebraic least-squares, providing the axis's location and the radius.
+ * </p>
+ *
+ * <p>
+ * Intended to provide an initial estimate for {@link FitCylinderToPoints_F64}.  All work space is recycled
+ * between calls.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FitCylinderFromNormals_F64 {
+
+	private EigenDecomposition_F64<DMatrixRMaj> eigen = DecompositionFactory_DDRM.eig(3,true,true);
+	private DMatrixRMaj NN = new DMatrixRMaj(3,3);
+
+	// circle fitting
+	private LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.symmPosDef(3);
+	private DMatrixRMaj AtA = new DMatrixRMaj(3,3);
+	private DMatrixRMaj Atb = new DMatrixRMaj(3,1);
+	private DMatrixRMaj x = new DMatrixRMaj(3,1);
+
+	// coordinate system on the plane perpendicular to the axis
+	private Vector3D_F64 axis = new Vector3D_F64();
+	private Vector3D_F64 axisU = new Vector3D_F64();
+	private Vector3D_F64 axisV = new Vector3D_F64();
+	private Point3D_F64 mean = new Point3D_F64();
+
+	/**
+	 * Fits the cylinder to the points
+	 *
+	 * @param points (Input) points on the cylinder's surface
+	 * @param normals (Input) surface normal at each point. Does not need to be normalized.
+	 * @param output (Output) found cylinder. Slope will have a norm of one.
+	 * @return true if successful or false if it failed
+	 */
+	public boolean process( List<Point3D_F64> points , List<Vector3D_F64> normals , Cylinder3D_F64 output ) {
+		final int N = points.size();
+		if( N != normals.size() )
+			throw new IllegalArgumentException("There must be a normal for each point");
+		if( N < 3 )
+			throw new IllegalArgumentException("At least 3 points required");
+
+		if( !estimateAxis(normals) )
+			return false;
+
+		// Fit a circle to the points after they have been projected onto the plane
+		UtilVector3D_F64.perpendicularCanonical(axis,axisU);
+		axisU.normalize();
+		axisV.cross(axis,axisU);
+
+		mean.set(0,0,0);
+		for (int i = 0; i < N; i++) {
+			Point3D_F64 p = points.get(i);
+			mean.x += p.x; mean.y += p.y; mean.z += p.z;
+		}
+		mean.divideIP(N);
+
+		AtA.zero();
+		Atb.zero();
+		double[] A = AtA.data;
+		double[] b = Atb.data;
+
+		// circle equation: u^2 + v^2 = 2*a*u + 2*b*v + c
+		for (int i = 0; i < N; i++) {
+			Point3D_F64 p = points.get(i);
+			double dx = p.x - mean.x, dy = p.y - mean.y, dz = p.z - mean.z;
+
+			double u = axisU.x*dx + axisU.y*dy + axisU.z*dz;
+			double v = axisV.x*dx + axisV.y*dy + axisV.z*dz;
+			double rr = u*u + v*v;
+
+			A[0] += 4*u*u; A[1] += 4*u*v; A[2] += 2*u;
+			               A[4] += 4*v*v; A[5] += 2*v;
+
+			b[0] += 2*u*rr; b[1] += 2*v*rr; b[2] += rr;
+		}
+		A[3] = A[1]; A[6] = A[2]; A[7] = A[5];
+		A[8] = N;
+
+		if( !solver.setA(AtA) )
+			return false;
+		solver.solve(Atb,this.x);
+
+		double cu = this.x.data[0];
+		double cv = this.x.data[1];
+		double r2 = this.x.data[2] + cu*cu + cv*cv;
+		if( r2 < 0 )
+			return false;
+
+		output.line.p.x = mean.x + cu*axisU.x + cv*axisV.x;
+		output.line.p.y = mean.y + cu*axisU.y + cv*axisV.y;
+		output.line.p.z = mean.z + cu*axisU.z + cv*axisV.z;
+		output.line.slope.set(axis);
+		output.radius = Math.sqrt(r2);
+
+		return true;
+	}
+
+	/**
+	 * The axis is the direction which is most perpendicular to all the normals
+	 */
+	private boolean estimateAxis( List<Vector3D_F64> normals ) {
+		NN.zero();
+		for (int i = 0; i < normals.size(); i++) {
+			Vector3D_F64 n = normals.get(i);
+			double norm2 = n.normSq();
+			if( norm2 == 0 )
+				continue;
+
+			NN.data[0] += n.x*n.x/norm2; NN.data[1] += n.x*n.y/norm2; NN.data[2] += n.x*n.z/norm2;
+			                             NN.data[4] += n.y*n.y/norm2; NN.data[5] += n.y*n.z/norm2;
+			                                                          NN.data[8] += n.z*n.z/norm2;
+		}
+		NN.data[3] = NN.data[1]; NN.data[6] = NN.data[2]; NN.data[7] = NN.data[5];
+
+		if( !eigen.decompose(NN) )
+			return false;
+
+		int smallest = -1;
+		double smallestValue = Double.MAX_VALUE;
+		for (int i = 0; i < 3; i++) {
+			double value = eigen.getEigenvalue(i).getReal();
+			if( value < smallestValue && eigen.getEigenVector(i) != null ) {
+				smallestValue = value;
+				smallest = i;
+			}
+		}
+		if( smallest < 0 )
+			return false;
+
+		DMatrixRMaj v = eigen.getEigenVector(smallest);
+		axis.set(v.data[0],v.data[1],v.data[2]);
+		axis.normalize();
+
+		return true;
+	}
+}
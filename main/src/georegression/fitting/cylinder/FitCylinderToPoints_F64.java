@@ -18,8 +18,11 @@
 
 package georegression.fitting.cylinder;
 
+import georegression.fitting.LevenbergMarquardtNormal;
+import georegression.fitting.NormalEquationsConcurrent;
 import georegression.misc.GrlConstants;
 import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
 import georegression.struct.shapes.Cylinder3D_F64;
 import org.ddogleg.fitting.modelset.ModelFitter;
 import org.ddogleg.optimization.FactoryOptimization;
@@ -28,7 +31,16 @@ import org.ddogleg.optimization.UnconstrainedLeastSquares;
 import java.util.List;
 
 /**
+ * <p>
  * {@link UnconstrainedLeastSquares} fitting of 3D points to a {@link Cylinder3D_F64 cylinder}.
+ * </p>
+ *
+ * <p>
+ * Two solvers are supported. A generic {@link UnconstrainedLeastSquares} which is provided the full M by 7
+ * Jacobian or {@link LevenbergMarquardtNormal} which only needs the 7 by 7 normal equations. The latter's memory
+ * usage is constant no matter how many points there are and no work space is declared after the first call.
+ * If surface normals are available then an initial estimate can be found using {@link FitCylinderFromNormals_F64}.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -38,8 +50,13 @@ public class FitCylinderToPoints_F64 implements ModelFitter<Cylinder3D_F64,Point
 	private CylinderToPointSignedDistance_F64 function = new CylinderToPointSignedDistance_F64();
 	private CylinderToPointSignedDistanceJacobian_F64 jacobian = new CylinderToPointSignedDistanceJacobian_F64();
 
-	// The solver
+	// The solver. Only one of these two will be not null
 	private UnconstrainedLeastSquares optimizer;
+	private LevenbergMarquardtNormal optimizerNormal;
+
+	// used to find an initial estimate from surface normals
+	private FitCylinderFromNormals_F64 fromNormals = new FitCylinderFromNormals_F64();
+	private Cylinder3D_F64 estimate = new Cylinder3D_F64();
 
 	// need to convert sphere to double[]
 	private /**/double[] param = new /**/double[7];
@@ -70,6 +87,25 @@ public class FitCylinderToPoints_F64 implements ModelFitter<Cylinder3D_F64,Point
 		this.gtol = gtol;
 	}
 
+	/**
+	 * Constructor which uses a solver that works directly off of the normal equations.
+	 *
+	 * @param optimizer Optimization algorithm
+	 * @param maxIterations Maximum number of iterations that the optimizer can perform. Try 100
+	 * @param ftol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 * @param gtol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 */
+	public FitCylinderToPoints_F64(LevenbergMarquardtNormal optimizer,
+								   int maxIterations, double ftol, double gtol) {
+		this.optimizerNormal = optimizer;
+		this.maxIterations = maxIterations;
+		this.ftol = ftol;
+		this.gtol = gtol;
+
+		// the number of parameters never changes so this only needs to be done once
+		optimizer.setFunction(jacobian);
+	}
+
 	/**
 	 * Simplified constructor.  Only process access to the maximum number of iterations.
 	 * @param maxIterations Maximum number of iterations.  Try 100
@@ -78,6 +114,26 @@ public class FitCylinderToPoints_F64 implements ModelFitter<Cylinder3D_F64,Point
 		this(FactoryOptimization.leastSquaresLM( 1e-3 , false),maxIterations, GrlConstants.DCONV_TOL_B,0);
 	}
 
+	/**
+	 * Simplified constructor.
+	 *
+	 * @param maxIterations Maximum number of iterations.  Try 100
+	 * @param normalEquations If true then the 7 by 7 normal equations are used instead of the M by 7 Jacobian.
+	 */
+	public FitCylinderToPoints_F64( int maxIterations , boolean normalEquations ) {
+		this.maxIterations = maxIterations;
+		this.ftol = GrlConstants.DCONV_TOL_B;
+		this.gtol = 0;
+
+		// only declare the optimizer which is used
+		if( normalEquations ) {
+			this.optimizerNormal = new LevenbergMarquardtNormal(1e-3);
+			this.optimizerNormal.setFunction(jacobian);
+		} else {
+			this.optimizer = FactoryOptimization.leastSquaresLM(1e-3,false);
+		}
+	}
+
 	@Override
 	public boolean fitModel(List<Point3D_F64> dataSet, Cylinder3D_F64 initial, Cylinder3D_F64 found) {
 
@@ -86,16 +142,60 @@ public class FitCylinderToPoints_F64 implements ModelFitter<Cylinder3D_F64,Point
 		function.setPoints(dataSet);
 		jacobian.setPoints(dataSet);
 
-		optimizer.setFunction(function,jacobian);
-		optimizer.initialize(param,ftol,gtol);
+		if( optimizerNormal != null ) {
+			optimizerNormal.initialize(param,ftol,gtol);
+
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizerNormal.iterate() )
+					break;
+			}
 
-		for( int i = 0; i < maxIterations; i++ ) {
-			if( optimizer.iterate() )
-				break;
+			codec.decode(optimizerNormal.getParameters(), found);
+		} else {
+			optimizer.setFunction(function,jacobian);
+			optimizer.initialize(param,ftol,gtol);
+
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizer.iterate() )
+					break;
+			}
+
+			codec.decode(optimizer.getParameters(), found);
 		}
 
-		codec.decode(optimizer.getParameters(), found);
+		// The slope's scale is arbitrary and can drift during optimization
+		found.line.slope.normalize();
 
 		return true;
 	}
+
+	/**
+	 * Specifies if the normal equations should be computed in parallel by splitting the points into chunks.
+	 * Only has an effect when the normal equations solver is used.
+	 *
+	 * @param concurrent true to compute the normal equations in parallel
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		if( optimizerNormal == null )
+			return;
+		if( concurrent )
+			optimizerNormal.setFunction(new NormalEquationsConcurrent(jacobian));
+		else
+			optimizerNormal.setFunction(jacobian);
+	}
+
+	/**
+	 * Fits a cylinder to the points with no initial estimate.  The initial estimate is found
+	 * using {@link FitCylinderFromNormals_F64}.
+	 *
+	 * @param dataSet (Input) points
+	 * @param normals (Input) surface normal of each point
+	 * @param found (Output) found cylinder
+	 * @return true if successful
+	 */
+	public boolean fitModel(List<Point3D_F64> dataSet, List<Vector3D_F64> normals, Cylinder3D_F64 found) {
+		if( !fromNormals.process(dataSet,normals,estimate) )
+			return false;
+		return fitModel(dataSet,estimate,found);
+	}
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Closed form solution for the homography between exactly four pairs of points. The homography which maps the
+ * unit square onto each set of four points is found analytically [1] and the two are combined, H = Q_dst*inv(Q_src).
+ * No matrix decomposition is required and no memory is declared, making it well suited for the inner loop of
+ * RANSAC. Less accurate than {@link MotionHomographyPoint2D_F64} when the points are noisy or nearly degenerate.
+ * The found homography is scaled to have a Frobenius norm of one.
+ * </p>
+ *
+ * <p>
+ * [1] Heckbert, Paul S. "Fundamentals of texture mapping and image warping." Master's thesis,
+ * University of California, Berkeley (1989). Section 2.2.3
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionHomographyFourPoint2D_F64 implements MotionTransformPoint<Homography2D_F64, Point2D_F64> {
+
+	// maps the unit square to the source and destination points
+	Homography2D_F64 squareToSrc = new Homography2D_F64();
+	Homography2D_F64 squareToDst = new Homography2D_F64();
+	Homography2D_F64 srcToSquare = new Homography2D_F64();
+
+	Homography2D_F64 model = new Homography2D_F64();
+
+	@Override
+	public Homography2D_F64 getTransformSrcToDst() {
+		return model;
+	}
+
+	/**
+	 * Computes the homography from the four pairs of points
+	 *
+	 * @return false if the points are degenerate, e.g. three of them are collinear
+	 */
+	@Override
+	public boolean process( List<Point2D_F64> srcPts , List<Point2D_F64> dstPts ) {
+		if( srcPts.size() != 4 || dstPts.size() != 4 )
+			throw new IllegalArgumentException("Must be exactly 4 points");
+
+		if( !squareToQuad(srcPts, squareToSrc) || !squareToQuad(dstPts, squareToDst) )
+			return false;
+
+		squareToSrc.invert(srcToSquare);
+		srcToSquare.concat(squareToDst, model);
+
+		MotionHomographyPoint2D_F64.normalize(model);
+		double sum = model.a11 + model.a12 + model.a13 + model.a21 + model.a22 + model.a23 +
+				model.a31 + model.a32 + model.a33;
+		return !(Double.isNaN(sum) || Double.isInfinite(sum));
+	}
+
+	/**
+	 * Finds the homography which maps the corners of the unit square, (0,0), (1,0), (1,1), (0,1), onto the points
+	 *
+	 * @return false if degenerate
+	 */
+	static boolean squareToQuad( List<Point2D_F64> points , Homography2D_F64 H ) {
+		Point2D_F64 p0 = points.get(0), p1 = points.get(1), p2 = points.get(2), p3 = points.get(3);
+
+		// three collinear points can't be mapped to the corners of a square
+		if( isCollinear(p0, p1, p2) || isCollinear(p1, p2, p3) || isCollinear(p2, p3, p0) || isCollinear(p3, p0, p1) )
+			return false;
+
+		double sx = p0.x - p1.x + p2.x - p3.x;
+		double sy = p0.y - p1.y + p2.y - p3.y;
+
+		double dx1 = p1.x - p2.x, dx2 = p3.x - p2.x;
+		double dy1 = p1.y - p2.y, dy2 = p3.y - p2.y;
+
+		double det = dx1*dy2 - dx2*dy1;
+		double g = (sx*dy2 - dx2*sy)/det;
+		double h = (dx1*sy - sx*dy1)/det;
+
+		H.a11 = p1.x - p0.x + g*p1.x; H.a12 = p3.x - p0.x + h*p3.x; H.a13 = p0.x;
+		H.a21 = p1.y - p0.y + g*p1.y; H.a22 = p3.y - p0.y + h*p3.y; H.a23 = p0.y;
+		H.a31 = g;                    H.a32 = h;                    H.a33 = 1;
+
+		return true;
+	}
+
+	/**
+	 * Checks to see if the points are collinear to within floating point precision
+	 */
+	private static boolean isCollinear( Point2D_F64 a , Point2D_F64 b , Point2D_F64 c ) {
+		double abx = b.x - a.x, aby = b.y - a.y;
+		double acx = c.x - a.x, acy = c.y - a.y;
+		double cross = abx*acy - aby*acx;
+		return Math.abs(cross) <= 10*GrlConstants.EPS*(abx*abx + aby*aby + acx*acx + acy*acy);
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 4;
+	}
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Estimates a homography using the normalized Direct Linear Transform (DLT) [1]. Each pair of points provides two
+ * linear constraints on the 9 elements of the homography and the solution is the null space of the constraint
+ * matrix, found using SVD. Points are first translated so their centroid is at the origin and scaled so that
+ * their average distance from the origin is sqrt(2), which greatly improves the numerical stability. Works with
+ * 4 or more points. The found homography is scaled to have a Frobenius norm of one. Internal matrices are
+ * recycled between calls.
+ * </p>
+ *
+ * <p>
+ * The algebraic error is minimized, not the reprojection error. To minimize the reprojection error use
+ * {@link RefineHomographyPoint2D_F64}.
+ * </p>
+ *
+ * <p>
+ * [1] Hartley, Richard, and Andrew Zisserman. "Multiple view geometry in computer vision." Cambridge university
+ * press, 2003. Algorithm 4.2
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionHomographyPoint2D_F64 implements MotionTransformPoint<Homography2D_F64, Point2D_F64> {
+
+	// linear constraints. Two rows for each point
+	private DMatrixRMaj A = new DMatrixRMaj(8, 9);
+	private DMatrixRMaj nullspace = new DMatrixRMaj(9, 1);
+	private SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(8, 9, false, true, false);
+
+	// normalization of the source and destination points
+	private double srcX, srcY, srcScale;
+	private double dstX, dstY, dstScale;
+
+	Homography2D_F64 model = new Homography2D_F64();
+
+	@Override
+	public Homography2D_F64 getTransformSrcToDst() {
+		return model;
+	}
+
+	@Override
+	public boolean process( List<Point2D_F64> srcPts , List<Point2D_F64> dstPts ) {
+		int N = srcPts.size();
+
+		if( N != dstPts.size() ) {
+			throw new IllegalArgumentException("From and to lists must be the same size");
+		} else if( N < 4 ) {
+			throw new IllegalArgumentException("Must be at least 4 points");
+		}
+
+		if( !computeNormalization(srcPts, true) || !computeNormalization(dstPts, false) )
+			return false;
+
+		A.reshape(2*N, 9);
+		double[] a = A.data;
+		for (int i = 0, index = 0; i < N; i++) {
+			Point2D_F64 s = srcPts.get(i);
+			Point2D_F64 d = dstPts.get(i);
+
+			double x = (s.x - srcX)*srcScale;
+			double y = (s.y - srcY)*srcScale;
+			double u = (d.x - dstX)*dstScale;
+			double v = (d.y - dstY)*dstScale;
+
+			a[index++] = 0; a[index++] = 0; a[index++] = 0;
+			a[index++] = -x; a[index++] = -y; a[index++] = -1;
+			a[index++] = v*x; a[index++] = v*y; a[index++] = v;
+
+			a[index++] = x; a[index++] = y; a[index++] = 1;
+			a[index++] = 0; a[index++] = 0; a[index++] = 0;
+			a[index++] = -u*x; a[index++] = -u*y; a[index++] = -u;
+		}
+
+		if( !svd.decompose(A) )
+			return false;
+		SingularOps_DDRM.nullVector(svd, true, nullspace);
+
+		undoNormalization(nullspace.data, model);
+		return true;
+	}
+
+	/**
+	 * Computes the centroid and the scale factor which makes the average distance from the centroid sqrt(2)
+	 */
+	private boolean computeNormalization( List<Point2D_F64> points , boolean src ) {
+		int N = points.size();
+		double meanX = 0, meanY = 0;
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = points.get(i);
+			meanX += p.x;
+			meanY += p.y;
+		}
+		meanX /= N;
+		meanY /= N;
+
+		double meanDistance = 0;
+		for (int i = 0; i < N; i++) {
+			meanDistance += points.get(i).distance(meanX, meanY);
+		}
+		meanDistance /= N;
+		if( meanDistance == 0 )
+			return false;
+
+		double sqrt2 = Math.sqrt(2);
+		double scale = sqrt2/meanDistance;
+		if( src ) {
+			srcX = meanX; srcY = meanY; srcScale = scale;
+		} else {
+			dstX = meanX; dstY = meanY; dstScale = scale;
+		}
+		return true;
+	}
+
+	/**
+	 * Computes H = inv(T_dst)*H_n*T_src and scales it to have a norm of one
+	 *
+	 * @param h Homography in normalized coordinates. Row major.
+	 * @param H (Output) Homography in the original coordinates
+	 */
+	private void undoNormalization( double[] h , Homography2D_F64 H ) {
+		// right multiply by T_src
+		double b11 = h[0]*srcScale, b12 = h[1]*srcScale, b13 = h[2] - b11*srcX - b12*srcY;
+		double b21 = h[3]*srcScale, b22 = h[4]*srcScale, b23 = h[5] - b21*srcX - b22*srcY;
+		double b31 = h[6]*srcScale, b32 = h[7]*srcScale, b33 = h[8] - b31*srcX - b32*srcY;
+
+		// left multiply by the inverse of T_dst
+		H.a11 = b11/dstScale + dstX*b31; H.a12 = b12/dstScale + dstX*b32; H.a13 = b13/dstScale + dstX*b33;
+		H.a21 = b21/dstScale + dstY*b31; H.a22 = b22/dstScale + dstY*b32; H.a23 = b23/dstScale + dstY*b33;
+		H.a31 = b31; H.a32 = b32; H.a33 = b33;
+
+		normalize(H);
+	}
+
+	/**
+	 * Scales the homography so that it has a Frobenius norm of one and a33 is not negative
+	 */
+	static void normalize( Homography2D_F64 H ) {
+		double norm = Math.sqrt(H.a11*H.a11 + H.a12*H.a12 + H.a13*H.a13 +
+				H.a21*H.a21 + H.a22*H.a22 + H.a23*H.a23 +
+				H.a31*H.a31 + H.a32*H.a32 + H.a33*H.a33);
+		if( H.a33 < 0 )
+			norm = -norm;
+		H.a11 /= norm; H.a12 /= norm; H.a13 /= norm;
+		H.a21 /= norm; H.a22 /= norm; H.a23 /= norm;
+		H.a31 /= norm; H.a32 /= norm; H.a33 /= norm;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 4;
+	}
+}
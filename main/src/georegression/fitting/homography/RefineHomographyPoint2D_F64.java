@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.fitting.LevenbergMarquardtNormal;
+import georegression.fitting.NormalEquationsFunction;
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrixRMaj;
+
+import java.util.List;
+
+//CUSTOM ignore org.ejml.data.DMatrixRMaj;
+//CUSTOM ignore DMatrixRMaj;
+
+/**
+ * <p>
+ * Refines a homography by minimizing the reprojection error, the sum of squared Euclidean distances between the
+ * destination points and the transformed source points. Typically initialized with
+ * {@link MotionHomographyPoint2D_F64}. Optimization is done with {@link LevenbergMarquardtNormal}, which is
+ * a damped Gauss-Newton method, using the 8 by 8 normal equations so memory usage doesn't depend on the number
+ * of points and no work space is declared after the first call.
+ * </p>
+ *
+ * <p>
+ * A homography has 8 degrees of freedom. The element with the largest magnitude in the initial estimate is held
+ * fixed and the other 8 are optimized. The refined homography is scaled to have a Frobenius norm of one.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class RefineHomographyPoint2D_F64 {
+
+	private LevenbergMarquardtNormal optimizer = new LevenbergMarquardtNormal(1e-3);
+	private ReprojectionNormal function = new ReprojectionNormal();
+
+	// maximum number of iterations
+	private int maxIterations;
+
+	// tolerances for optimization
+	private double ftol;
+	private double gtol;
+
+	private /**/double[] param = new /**/double[8];
+
+	/**
+	 * @param maxIterations Maximum number of iterations. Try 20
+	 * @param ftol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 * @param gtol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 */
+	public RefineHomographyPoint2D_F64( int maxIterations , double ftol , double gtol ) {
+		this.maxIterations = maxIterations;
+		this.ftol = ftol;
+		this.gtol = gtol;
+		optimizer.setFunction(function);
+	}
+
+	public RefineHomographyPoint2D_F64() {
+		this(20, GrlConstants.DCONV_TOL_B, 0);
+	}
+
+	/**
+	 * Refines the homography
+	 *
+	 * @param srcPts (Input) Points in the source frame. Not modified.
+	 * @param dstPts (Input) Corresponding points in the destination frame. Not modified.
+	 * @param initial (Input) Initial estimate of the homography. Not modified.
+	 * @param refined (Output) Refined homography. Can be the same instance as initial.
+	 * @return true if successful
+	 */
+	public boolean process( List<Point2D_F64> srcPts , List<Point2D_F64> dstPts ,
+							Homography2D_F64 initial , Homography2D_F64 refined ) {
+		if( srcPts.size() != dstPts.size() )
+			throw new IllegalArgumentException("From and to lists must be the same size");
+		if( srcPts.size() < 4 )
+			throw new IllegalArgumentException("Must be at least 4 points");
+
+		function.setPoints(srcPts, dstPts);
+		function.encode(initial, param);
+		if( function.fixedValue == 0 )
+			return false;
+
+		optimizer.initialize(param, ftol, gtol);
+		for (int i = 0; i < maxIterations; i++) {
+			if( optimizer.iterate() )
+				break;
+		}
+
+		function.decode(optimizer.getParameters(), refined);
+		MotionHomographyPoint2D_F64.normalize(refined);
+		return true;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations( int maxIterations ) {
+		this.maxIterations = maxIterations;
+	}
+
+	/**
+	 * Computes the normal equations for the reprojection error. Parameters are the 9 elements of the homography
+	 * in row major order with the fixed element skipped.
+	 */
+	static class ReprojectionNormal implements NormalEquationsFunction {
+		List<Point2D_F64> srcPts, dstPts;
+
+		// index and value of the element in the homography which is fixed
+		int fixedIndex;
+		double fixedValue;
+
+		// homography and the gradient of the residuals for all 9 elements
+		/**/double[] h = new /**/double[9];
+		/**/double[] jx = new /**/double[9];
+		/**/double[] jy = new /**/double[9];
+
+		void setPoints( List<Point2D_F64> srcPts , List<Point2D_F64> dstPts ) {
+			this.srcPts = srcPts;
+			this.dstPts = dstPts;
+		}
+
+		/**
+		 * Selects the element with the largest magnitude to be fixed and writes the others into the parameters
+		 */
+		void encode( Homography2D_F64 H , /**/double[] param ) {
+			h[0] = H.a11; h[1] = H.a12; h[2] = H.a13;
+			h[3] = H.a21; h[4] = H.a22; h[5] = H.a23;
+			h[6] = H.a31; h[7] = H.a32; h[8] = H.a33;
+
+			fixedIndex = 0;
+			for (int i = 1; i < 9; i++) {
+				if( Math.abs(h[i]) > Math.abs(h[fixedIndex]) )
+					fixedIndex = i;
+			}
+			fixedValue = (double)h[fixedIndex];
+
+			for (int i = 0, j = 0; i < 9; i++) {
+				if( i != fixedIndex )
+					param[j++] = h[i];
+			}
+		}
+
+		void decode( /**/double[] param , Homography2D_F64 H ) {
+			toHomography(param);
+			H.a11 = (double)h[0]; H.a12 = (double)h[1]; H.a13 = (double)h[2];
+			H.a21 = (double)h[3]; H.a22 = (double)h[4]; H.a23 = (double)h[5];
+			H.a31 = (double)h[6]; H.a32 = (double)h[7]; H.a33 = (double)h[8];
+		}
+
+		private void toHomography( /**/double[] param ) {
+			for (int i = 0, j = 0; i < 9; i++) {
+				h[i] = i == fixedIndex ? fixedValue : param[j++];
+			}
+		}
+
+		@Override
+		public int getNumOfInputsN() {
+			return 8;
+		}
+
+		@Override
+		public int getNumOfOutputsM() {
+			return srcPts.size()*2;
+		}
+
+		@Override
+		public /**/double accumulate( /**/double[] input , /**/DMatrixRMaj JtJ , /**/DMatrixRMaj Jtr ) {
+			JtJ.reshape(8, 8);
+			Jtr.reshape(8, 1);
+			JtJ.zero();
+			Jtr.zero();
+			toHomography(input);
+
+			/**/double[] A = JtJ.data;
+			/**/double[] b = Jtr.data;
+			/**/double sumSq = 0;
+
+			for (int i = 0; i < srcPts.size(); i++) {
+				Point2D_F64 s = srcPts.get(i);
+				Point2D_F64 d = dstPts.get(i);
+
+				/**/double x = s.x, y = s.y;
+				/**/double w = h[6]*x + h[7]*y + h[8];
+				/**/double px = (h[0]*x + h[1]*y + h[2])/w;
+				/**/double py = (h[3]*x + h[4]*y + h[5])/w;
+				/**/double rx = px - d.x;
+				/**/double ry = py - d.y;
+
+				jx[0] = x/w; jx[1] = y/w; jx[2] = 1/w;
+				jx[3] = 0;   jx[4] = 0;   jx[5] = 0;
+				jx[6] = -px*x/w; jx[7] = -px*y/w; jx[8] = -px/w;
+
+				jy[0] = 0;   jy[1] = 0;   jy[2] = 0;
+				jy[3] = x/w; jy[4] = y/w; jy[5] = 1/w;
+				jy[6] = -py*x/w; jy[7] = -py*y/w; jy[8] = -py/w;
+
+				// only the upper triangle is computed
+				for (int r = 0, row = 0; r < 9; r++) {
+					if( r == fixedIndex )
+						continue;
+					for (int c = r, col = row; c < 9; c++) {
+						if( c == fixedIndex )
+							continue;
+						A[row*8 + col] += jx[r]*jx[c] + jy[r]*jy[c];
+						col++;
+					}
+					b[row] += jx[r]*rx + jy[r]*ry;
+					row++;
+				}
+
+				sumSq += rx*rx + ry*ry;
+			}
+
+			for (int row = 1; row < 8; row++) {
+				for (int col = 0; col < row; col++) {
+					A[row*8 + col] = A[col*8 + row];
+				}
+			}
+
+			return sumSq;
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.line;
+
+import georegression.struct.line.LinePolar2D_F32;
+import georegression.struct.line.LinePolar2D_F64;
+import georegression.struct.point.Point2D_I32;
+import org.ddogleg.struct.GrowQueue_I64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fits lines to windows of consecutive points along an integer contour. Prefix sums of x, y, x<sup>2</sup>,
+ * y<sup>2</sup>, and xy are computed once when the contour is specified and after that the best fit polar line,
+ * see {@link FitLine_I32}, and the fit error for any window are found in O(1). This makes algorithms which fit
+ * lines to many overlapping windows, such as polyline splitting, much faster.
+ * </p>
+ *
+ * <p>
+ * Sums are computed using 64-bit integers, which is exact. Intermediate values can overflow but because integer
+ * arithmetic is modular the results are still exact as long as the centered sums for a window fit inside a long,
+ * i.e. the number of points times the spread of the window is less than about 3*10<sup>9</sup>.
+ * </p>
+ *
+ * <p>
+ * Windows are specified by their first index and length. If the contour is closed a window can wrap around the
+ * end of the contour.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FitLineContour_I32 {
+	// prefix sums. Element i is the sum of the first i points
+	GrowQueue_I64 sumX = new GrowQueue_I64();
+	GrowQueue_I64 sumY = new GrowQueue_I64();
+	GrowQueue_I64 sumXX = new GrowQueue_I64();
+	GrowQueue_I64 sumYY = new GrowQueue_I64();
+	GrowQueue_I64 sumXY = new GrowQueue_I64();
+
+	// number of points in the contour
+	int size;
+	// if the contour is a loop
+	boolean closed;
+
+	// sums inside the most recent window
+	long n, sx, sy, sxx, syy, sxy;
+
+	/**
+	 * Specifies the contour and computes the prefix sums. O(N)
+	 *
+	 * @param contour The contour. Not modified or saved.
+	 * @param closed true if the contour is a loop and windows can wrap around the end
+	 */
+	public void setContour( List<Point2D_I32> contour , boolean closed ) {
+		initialize(contour.size(), closed);
+		for (int i = 0; i < size; i++) {
+			Point2D_I32 p = contour.get(i);
+			add(i, p.x, p.y);
+		}
+	}
+
+	/**
+	 * Specifies the contour and computes the prefix sums. O(N)
+	 *
+	 * @param xy Packed contour coordinates, x0,y0,x1,y1,... Not modified or saved.
+	 * @param numPoints Number of points in the contour
+	 * @param closed true if the contour is a loop and windows can wrap around the end
+	 */
+	public void setContour( int[] xy , int numPoints , boolean closed ) {
+		initialize(numPoints, closed);
+		for (int i = 0; i < size; i++) {
+			add(i, xy[i*2], xy[i*2+1]);
+		}
+	}
+
+	private void initialize( int size , boolean closed ) {
+		this.size = size;
+		this.closed = closed;
+		sumX.resize(size+1);
+		sumY.resize(size+1);
+		sumXX.resize(size+1);
+		sumYY.resize(size+1);
+		sumXY.resize(size+1);
+		sumX.data[0] = sumY.data[0] = sumXX.data[0] = sumYY.data[0] = sumXY.data[0] = 0;
+	}
+
+	private void add( int i , long x , long y ) {
+		sumX.data[i+1] = sumX.data[i] + x;
+		sumY.data[i+1] = sumY.data[i] + y;
+		sumXX.data[i+1] = sumXX.data[i] + x*x;
+		sumYY.data[i+1] = sumYY.data[i] + y*y;
+		sumXY.data[i+1] = sumXY.data[i] + x*y;
+	}
+
+	/**
+	 * Computes the best fit line to the points in the window. O(1)
+	 *
+	 * @param start Index of the first point
+	 * @param length Number of points in the window. Must be at least 1.
+	 * @param line (Output) Best fit line
+	 */
+	public void polar( int start , int length , LinePolar2D_F64 line ) {
+		computeSums(start, length);
+
+		// these are N times the centered sums and are exact
+		long dxx = n*sxx - sx*sx;
+		long dyy = n*syy - sy*sy;
+		long dxy = n*sxy - sx*sy;
+
+		double meanX = sx/(double)n;
+		double meanY = sy/(double)n;
+
+		line.angle = Math.atan2(-2.0*dxy, (double)(dyy - dxx))/2.0;
+		line.distance = meanX*Math.cos(line.angle) + meanY*Math.sin(line.angle);
+	}
+
+	/**
+	 * Computes the best fit line to the points in the window. O(1)
+	 *
+	 * @param start Index of the first point
+	 * @param length Number of points in the window. Must be at least 1.
+	 * @param line (Output) Best fit line
+	 */
+	public void polar( int start , int length , LinePolar2D_F32 line ) {
+		computeSums(start, length);
+
+		long dxx = n*sxx - sx*sx;
+		long dyy = n*syy - sy*sy;
+		long dxy = n*sxy - sx*sy;
+
+		double meanX = sx/(double)n;
+		double meanY = sy/(double)n;
+
+		double angle = Math.atan2(-2.0*dxy, (double)(dyy - dxx))/2.0;
+		line.angle = (float)angle;
+		line.distance = (float)(meanX*Math.cos(angle) + meanY*Math.sin(angle));
+	}
+
+	/**
+	 * Sum of the squared Euclidean distances of the points in the window from their best fit line. O(1)
+	 *
+	 * @param start Index of the first point
+	 * @param length Number of points in the window. Must be at least 1.
+	 * @return sum of squared errors
+	 */
+	public double error( int start , int length ) {
+		computeSums(start, length);
+
+		// the smallest eigenvalue of the scatter matrix
+		double cxx = (n*sxx - sx*sx)/(double)n;
+		double cyy = (n*syy - sy*sy)/(double)n;
+		double cxy = (n*sxy - sx*sy)/(double)n;
+
+		double diff = cxx - cyy;
+		double error = (cxx + cyy - Math.sqrt(diff*diff + 4*cxy*cxy))/2.0;
+		return Math.max(0, error);
+	}
+
+	/**
+	 * Computes the sums inside the window using the prefix sums
+	 */
+	private void computeSums( int start , int length ) {
+		if( length < 1 || length > size || start < 0 || start >= size )
+			throw new IllegalArgumentException("Window is outside the contour");
+
+		n = length;
+		int end = start + length;
+		if( end <= size ) {
+			sx = sumX.data[end] - sumX.data[start];
+			sy = sumY.data[end] - sumY.data[start];
+			sxx = sumXX.data[end] - sumXX.data[start];
+			syy = sumYY.data[end] - sumYY.data[start];
+			sxy = sumXY.data[end] - sumXY.data[start];
+		} else if( closed ) {
+			// wraps around. The window is the end of the contour plus the beginning
+			end -= size;
+			sx = sumX.data[size] - sumX.data[start] + sumX.data[end];
+			sy = sumY.data[size] - sumY.data[start] + sumY.data[end];
+			sxx = sumXX.data[size] - sumXX.data[start] + sumXX.data[end];
+			syy = sumYY.data[size] - sumYY.data[start] + sumYY.data[end];
+			sxy = sumXY.data[size] - sumXY.data[start] + sumXY.data[end];
+		} else {
+			throw new IllegalArgumentException("Window goes past the end of an open contour");
+		}
+	}
+
+	/**
+	 * Number of points in the contour
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+}
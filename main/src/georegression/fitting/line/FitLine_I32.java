@@ -45,13 +45,14 @@ public class FitLine_I32 {
 	 * @param length number of variables used in the list
 	 * @param ret Storage for the line.  If null a new line will be declared.
 	 * @return Best fit line
+	 * @see FitLineContour_I32
 	 */
 	public static LinePolar2D_F32 polar(List<Point2D_I32> points , int start , int length , LinePolar2D_F32 ret ) {
 		if( ret == null )
 			ret = new LinePolar2D_F32();
 
-		int sumX = 0;
-		int sumY = 0;
+		long sumX = 0;
+		long sumY = 0;
 
 		final int N = length;
 		for( int i = 0; i < N; i++ ) {
@@ -94,13 +95,14 @@ public class FitLine_I32 {
 	 * @param points Set of points on the line.
 	 * @param ret Storage for the line.  If null a new line will be declared.
 	 * @return Best fit line
+	 * @see FitLineContour_I32
 	 */
 	public static LinePolar2D_F64 polar(List<Point2D_I32> points  , int start , int length ,  LinePolar2D_F64 ret ) {
 		if( ret == null )
 			ret = new LinePolar2D_F64();
 
-		int sumX = 0;
-		int sumY = 0;
+		long sumX = 0;
+		long sumY = 0;
 
 		final int N = length;
 		for( int i = 0; i < N; i++ ) {
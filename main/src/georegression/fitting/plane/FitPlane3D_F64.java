@@ -18,6 +18,7 @@
 
 package georegression.fitting.plane;
 
+import georegression.geometry.algs.EigenSymmetric3x3_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Vector3D_F64;
 import org.ejml.data.DMatrixRMaj;
@@ -38,6 +39,8 @@ public class FitPlane3D_F64 {
 	DMatrixRMaj A = new DMatrixRMaj(3,3);
 	DMatrixRMaj nullspace = new DMatrixRMaj(3,1);
 
+	double[] eigenvalues = new double[3];
+
 	/**
 	 * SVD based method for fitting a plane to a set of points.  The plane's equation is returned
 	 * as a point on the plane and the normal vector.
@@ -101,4 +104,43 @@ public class FitPlane3D_F64 {
 
 		return true;
 	}
+
+	/**
+	 * Fits a plane to a set of points by computing their 3 by 3 covariance matrix and finding the eigenvector of
+	 * its smallest eigenvalue in closed form using {@link EigenSymmetric3x3_F64}.  Unlike {@link #svd} the memory
+	 * used is independent of the number of points.
+	 *
+	 * @param points (Input) Set of points on a plane.
+	 * @param outputCenter (Output) Centroid of the passed in points. Modified.
+	 * @param outputNormal (Output) Vector tangent to the plane.  Normalized.  Modified.
+	 * @return true if successful or false if there are too few points
+	 */
+	public boolean covariance( List<Point3D_F64> points , Point3D_F64 outputCenter , Vector3D_F64 outputNormal ) {
+		final int N = points.size();
+		if( N < 3 )
+			return false;
+
+		// find the centroid
+		double cx = 0, cy = 0, cz = 0;
+		for( int i = 0; i < N; i++ ) {
+			Point3D_F64 p = points.get(i);
+			cx += p.x; cy += p.y; cz += p.z;
+		}
+		cx /= N; cy /= N; cz /= N;
+
+		// upper triangle of the covariance matrix
+		double xx=0,xy=0,xz=0,yy=0,yz=0,zz=0;
+		for( int i = 0; i < N; i++ ) {
+			Point3D_F64 p = points.get(i);
+			double dx = p.x-cx, dy = p.y-cy, dz = p.z-cz;
+			xx += dx*dx; xy += dx*dy; xz += dx*dz;
+			yy += dy*dy; yz += dy*dz; zz += dz*dz;
+		}
+
+		EigenSymmetric3x3_F64.eigenvalues(xx,xy,xz,yy,yz,zz,eigenvalues);
+		EigenSymmetric3x3_F64.eigenvector(xx,xy,xz,yy,yz,zz,eigenvalues[2],outputNormal);
+
+		outputCenter.set(cx,cy,cz);
+		return true;
+	}
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+/**
+ * <p>
+ * Cauchy (Lorentzian) robust kernel.  Weights smoothly decay towards zero as the residual grows.
+ * </p>
+ * <pre>
+ * w(u) = 1/(1 + (u/k)^2)
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class CauchyWeight_F64 implements RobustWeightFunction_F64 {
+	// controls how quickly the weight decays
+	double threshold;
+
+	/**
+	 * @param threshold Residual at which the weight is 0.5.  In units of scale.
+	 */
+	public CauchyWeight_F64(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Uses the standard tuning constant of 2.3849, which has 95% efficiency for Gaussian noise.
+	 */
+	public CauchyWeight_F64() {
+		this(2.3849);
+	}
+
+	@Override
+	public double weight(double u) {
+		double a = u/threshold;
+		return 1.0/(1.0 + a*a);
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+/**
+ * <p>
+ * Huber's robust kernel.  Quadratic for small residuals and linear for large ones, outliers are never
+ * completely ignored.
+ * </p>
+ * <pre>
+ * w(u) = 1       if u &le; k
+ *      = k/u     otherwise
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class HuberWeight_F64 implements RobustWeightFunction_F64 {
+	// threshold between quadratic and linear regions
+	double threshold;
+
+	/**
+	 * @param threshold Threshold between quadratic and linear regions in units of scale.
+	 */
+	public HuberWeight_F64(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Uses the standard tuning constant of 1.345, which has 95% efficiency for Gaussian noise.
+	 */
+	public HuberWeight_F64() {
+		this(1.345);
+	}
+
+	@Override
+	public double weight(double u) {
+		if( u <= threshold )
+			return 1;
+		return threshold/u;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+}
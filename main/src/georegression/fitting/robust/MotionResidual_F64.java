@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+import georegression.struct.GeoTuple;
+import georegression.struct.InvertibleTransform;
+
+/**
+ * Computes the residual error between a pair of corresponding points given a transform.
+ *
+ * @author Peter Abeles
+ */
+public interface MotionResidual_F64 <T extends InvertibleTransform, P extends GeoTuple> {
+
+	/**
+	 * Computes the Euclidean distance between 'dst' and 'src' after it has been transformed by 'model'.
+	 *
+	 * @param model Transform from src to dst. Not modified.
+	 * @param src Point in source frame. Not modified.
+	 * @param dst Point in destination frame. Not modified.
+	 * @return Euclidean distance.
+	 */
+	double computeResidual( T model , P src , P dst );
+
+	/**
+	 * Number of components in the difference between the two points, e.g. 2 for 2D points. The residual is the
+	 * length of that difference, which is used to convert the median residual into a standard deviation.
+	 */
+	int getDimension();
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.fitting.MotionTransformPointWeighted_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.GeoTuple;
+import georegression.struct.InvertibleTransform;
+import org.ddogleg.sorting.QuickSelect;
+import org.ddogleg.struct.GrowQueue_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Robust motion estimation using iteratively reweighted least-squares (IRLS).  An initial estimate is found
+ * with every pair given the same weight.  Then the residual of each pair is computed and converted into a weight
+ * using a {@link RobustWeightFunction_F64 robust kernel}, and the weighted motion is found again.  This is repeated
+ * until the weights stop changing or the maximum number of iterations has been reached.
+ * </p>
+ *
+ * <p>
+ * Residuals are normalized by a scale before being passed to the kernel.  If the scale is not specified it's
+ * estimated at each iteration from the median residual.  Residuals are Euclidean distances and not zero-mean
+ * scalars, so the median is divided by the median of the chi distribution with as many degrees of freedom as
+ * the residual has dimensions.  For isotropic Gaussian noise this gives the standard deviation along each axis.
+ * Work space is recycled between iterations and calls.
+ * </p>
+ *
+ * <p>
+ * IRLS can tolerate a moderate fraction of outliers but, unlike RANSAC, requires the initial unweighted
+ * solution to be in the basin of convergence.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionTransformPointIRLS_F64 <T extends InvertibleTransform, P extends GeoTuple>
+		implements MotionTransformPoint<T,P>
+{
+	// converts the MAD of zero-mean scalars into an estimate of the standard deviation for Gaussian noise
+	public static final double MAD_TO_SIGMA = 1.4826;
+
+	// median of the chi distribution with 1, 2, and 3 degrees of freedom
+	private static final double[] CHI_MEDIAN = new double[]{0.6744897501960817, 1.1774100225154747, 1.5381722544550522};
+
+	// computes the weighted motion
+	MotionTransformPointWeighted_F64<T,P> alg;
+	// computes the residual for each pair
+	MotionResidual_F64<T,P> residual;
+	// converts residuals into weights
+	RobustWeightFunction_F64 kernel;
+
+	// maximum number of reweighting iterations
+	int maxIterations = 20;
+	// stop iterating when the largest change in weight is less than this
+	double convergenceTol = GrlConstants.DCONV_TOL_A;
+	// scale of residuals. If <= 0 then it's estimated automatically
+	double scale = 0;
+
+	// storage for residuals and weights
+	GrowQueue_F64 residuals = new GrowQueue_F64();
+	GrowQueue_F64 weights = new GrowQueue_F64();
+	GrowQueue_F64 work = new GrowQueue_F64();
+
+	// number of reweighting iterations performed in the last call
+	int iterations;
+
+	/**
+	 * Specifies internal algorithms
+	 *
+	 * @param alg Computes the weighted motion
+	 * @param residual Computes the residual error for a pair of points
+	 * @param kernel Robust kernel
+	 */
+	public MotionTransformPointIRLS_F64(MotionTransformPointWeighted_F64<T, P> alg,
+										MotionResidual_F64<T, P> residual,
+										RobustWeightFunction_F64 kernel) {
+		this.alg = alg;
+		this.residual = residual;
+		this.kernel = kernel;
+	}
+
+	@Override
+	public T getTransformSrcToDst() {
+		return alg.getTransformSrcToDst();
+	}
+
+	@Override
+	public boolean process(List<P> srcPts, List<P> dstPts) {
+		if( srcPts.size() != dstPts.size() )
+			throw new IllegalArgumentException( "There must be a 1 to 1 correspondence between the two sets of points" );
+
+		final int N = srcPts.size();
+		iterations = 0;
+
+		weights.resize(N);
+		residuals.resize(N);
+		weights.fill(1);
+
+		if( !alg.process(srcPts,dstPts,weights.data) )
+			return false;
+
+		for( iterations = 0; iterations < maxIterations; iterations++ ) {
+			T model = alg.getTransformSrcToDst();
+			for (int i = 0; i < N; i++) {
+				residuals.data[i] = residual.computeResidual(model,srcPts.get(i),dstPts.get(i));
+			}
+
+			double s = scale > 0 ? scale : estimateScale();
+
+			// a perfect fit to the majority of the points. Nothing left to improve
+			if( s <= 0 )
+				break;
+
+			double maxChange = 0;
+			for (int i = 0; i < N; i++) {
+				double w = kernel.weight(residuals.data[i]/s);
+				maxChange = Math.max(maxChange,Math.abs(w-weights.data[i]));
+				weights.data[i] = w;
+			}
+
+			if( !alg.process(srcPts,dstPts,weights.data) )
+				return false;
+
+			if( maxChange <= convergenceTol )
+				break;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Estimates the standard deviation of the noise along each axis from the median residual
+	 */
+	double estimateScale() {
+		work.setTo(residuals);
+		double median = QuickSelect.select(work.data,work.size/2,work.size);
+		return median/chiMedian(residual.getDimension());
+	}
+
+	/**
+	 * Median of the chi distribution, i.e. the median length of a vector with independent standard normal
+	 * components. Exact for up to 3 degrees of freedom and the Wilson-Hilferty approximation above that.
+	 *
+	 * @param dof Degrees of freedom. Number of components in the vector.
+	 * @return Median length
+	 */
+	public static double chiMedian( int dof ) {
+		if( dof < 1 )
+			throw new IllegalArgumentException("Degrees of freedom must be at least 1");
+		if( dof <= CHI_MEDIAN.length )
+			return CHI_MEDIAN[dof-1];
+		double a = 1.0 - 2.0/(9.0*dof);
+		return Math.sqrt(dof*a*a*a);
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return alg.getMinimumPoints();
+	}
+
+	/**
+	 * Weights computed for each pair of points in the last call to {@link #process}
+	 */
+	public GrowQueue_F64 getWeights() {
+		return weights;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public double getConvergenceTol() {
+		return convergenceTol;
+	}
+
+	public void setConvergenceTol(double convergenceTol) {
+		this.convergenceTol = convergenceTol;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Specifies the scale of the residuals.  If &le; 0 then the scale is estimated at each iteration from the
+	 * median residual.
+	 */
+	public void setScale(double scale) {
+		this.scale = scale;
+	}
+
+	public RobustWeightFunction_F64 getKernel() {
+		return kernel;
+	}
+
+	public void setKernel(RobustWeightFunction_F64 kernel) {
+		this.kernel = kernel;
+	}
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+/**
+ * Robust kernel used by iteratively reweighted least-squares (IRLS).  Converts a normalized residual into a weight.
+ * Residuals which are small relative to the scale are given a weight close to one while outliers are
+ * down weighted.
+ *
+ * @author Peter Abeles
+ */
+public interface RobustWeightFunction_F64 {
+
+	/**
+	 * Computes the weight for a residual.
+	 *
+	 * @param u Absolute value of the residual divided by the scale.  &ge; 0
+	 * @return weight from 0 to 1
+	 */
+	double weight( double u );
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+/**
+ * <p>
+ * Tukey's biweight (bisquare) robust kernel.  Residuals larger than the threshold are given a weight of zero
+ * and are completely ignored.
+ * </p>
+ * <pre>
+ * w(u) = (1 - (u/k)^2)^2   if u &lt; k
+ *      = 0                 otherwise
+ * </pre>
+ *
+ * @author Peter Abeles
+ */
+public class TukeyWeight_F64 implements RobustWeightFunction_F64 {
+	// residuals larger than this are ignored
+	double threshold;
+
+	/**
+	 * @param threshold Residuals larger than this are given a weight of zero. In units of scale.
+	 */
+	public TukeyWeight_F64(double threshold) {
+		this.threshold = threshold;
+	}
+
+	/**
+	 * Uses the standard tuning constant of 4.685, which has 95% efficiency for Gaussian noise.
+	 */
+	public TukeyWeight_F64() {
+		this(4.685);
+	}
+
+	@Override
+	public double weight(double u) {
+		if( u >= threshold )
+			return 0;
+		double a = u/threshold;
+		double b = 1 - a*a;
+		return b*b;
+	}
+
+	public double getThreshold() {
+		return threshold;
+	}
+
+	public void setThreshold(double threshold) {
+		this.threshold = threshold;
+	}
+}
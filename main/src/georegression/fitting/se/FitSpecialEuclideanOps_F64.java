@@ -19,6 +19,8 @@
 package georegression.fitting.se;
 
 import georegression.fitting.MotionTransformPoint;
+import georegression.fitting.robust.MotionTransformPointIRLS_F64;
+import georegression.fitting.robust.RobustWeightFunction_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se2_F64;
@@ -55,6 +57,30 @@ public class FitSpecialEuclideanOps_F64 {
 		return new MotionSe3PointSVD_F64();
 	}
 
+	/**
+	 * Creates a {@link MotionTransformPoint} for finding a {@link Se2_F64} from two
+	 * sets of 2D points which contain outliers.  Iteratively reweighted least-squares is used.
+	 *
+	 * @param kernel Robust kernel used to weight each pair of points.
+	 * @return {@link MotionTransformPointIRLS_F64}.
+	 */
+	public static MotionTransformPointIRLS_F64<Se2_F64, Point2D_F64> robustPoints2D( RobustWeightFunction_F64 kernel ) {
+		return new MotionTransformPointIRLS_F64<>(
+				new MotionSe2PointWeightedSVD_F64(),new MotionResidualSe2_F64(),kernel);
+	}
+
+	/**
+	 * Creates a {@link MotionTransformPoint} for finding a {@link Se3_F64} from two
+	 * sets of 3D points which contain outliers.  Iteratively reweighted least-squares is used.
+	 *
+	 * @param kernel Robust kernel used to weight each pair of points.
+	 * @return {@link MotionTransformPointIRLS_F64}.
+	 */
+	public static MotionTransformPointIRLS_F64<Se3_F64, Point3D_F64> robustPoints3D( RobustWeightFunction_F64 kernel ) {
+		return new MotionTransformPointIRLS_F64<>(
+				new MotionSe3PointWeightedSVD_F64(),new MotionResidualSe3_F64(),kernel);
+	}
+
 	/**
 	 * Given two sets of corresponding points compute the {@link Se2_F64} transform
 	 * which minimizes the difference between the two sets of points.
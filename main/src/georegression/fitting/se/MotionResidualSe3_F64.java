@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.robust.MotionResidual_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.data.DMatrixRMaj;
+
+/**
+ * Computes the Euclidean distance between a point transformed by {@link Se3_F64} and its observed location.
+ *
+ * @author Peter Abeles
+ */
+public class MotionResidualSe3_F64 implements MotionResidual_F64<Se3_F64,Point3D_F64> {
+	@Override
+	public double computeResidual(Se3_F64 model, Point3D_F64 src, Point3D_F64 dst) {
+		DMatrixRMaj R = model.R;
+
+		double x = R.data[0]*src.x + R.data[1]*src.y + R.data[2]*src.z + model.T.x;
+		double y = R.data[3]*src.x + R.data[4]*src.y + R.data[5]*src.z + model.T.y;
+		double z = R.data[6]*src.x + R.data[7]*src.y + R.data[8]*src.z + model.T.z;
+
+		double dx = dst.x - x;
+		double dy = dst.y - y;
+		double dz = dst.z - z;
+
+		return Math.sqrt(dx*dx + dy*dy + dz*dz);
+	}
+
+	@Override
+	public int getDimension() {
+		return 3;
+	}
+}
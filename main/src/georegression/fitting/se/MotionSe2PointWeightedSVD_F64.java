@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPointWeighted_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Weighted version of {@link MotionSe2PointSVD_F64}.  Finds the rigid body motion which minimizes the weighted
+ * difference between the two sets of associated points in 2D.  The rotation is computed from the SVD of a
+ * weighted cross correlation matrix.
+ * </p>
+ * <p>
+ * The weighted square error function that is minimized is:<br>
+ * f(p) = sum( i=1:N , w_i*||x_i - R(theta)*p_i + T||<sup>2</sup> )<br>
+ * where theta is the angle of rotation, T is the translation, w is the weight, x is the set of 'to' points
+ * and p is the set of 'from' points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSe2PointWeightedSVD_F64 implements MotionTransformPointWeighted_F64<Se2_F64, Point2D_F64> {
+
+	Se2_F64 motion = new Se2_F64();
+
+	Point2D_F64 meanFrom = new Point2D_F64();
+	Point2D_F64 meanTo = new Point2D_F64();
+
+	SingularValueDecomposition<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(2,2,true,true,false);
+	DMatrixRMaj Sigma = new DMatrixRMaj(2,2);
+	DMatrixRMaj U = new DMatrixRMaj(2,2);
+	DMatrixRMaj V = new DMatrixRMaj(2,2);
+	DMatrixRMaj R = new DMatrixRMaj(2,2);
+
+	@Override
+	public Se2_F64 getTransformSrcToDst() {
+		return motion;
+	}
+
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts) {
+		return process(srcPts,dstPts,null);
+	}
+
+	/**
+	 * Same as {@link #process(List, List)} but with a weight for each pair.  If weights is null then every pair
+	 * is given a weight of one.
+	 */
+	@Override
+	public boolean process( List<Point2D_F64> srcPts, List<Point2D_F64> dstPts, double weights[] ) {
+		if( srcPts.size() != dstPts.size() )
+			throw new IllegalArgumentException( "There must be a 1 to 1 correspondence between the two sets of points" );
+		if( weights != null && weights.length < srcPts.size() )
+			throw new IllegalArgumentException( "Weights must be as long as the number of points" );
+
+		final int N = srcPts.size();
+
+		// find the weighted mean of both sets of points
+		double totalWeight = 0;
+		int positive = 0;
+		meanFrom.set(0,0);
+		meanTo.set(0,0);
+		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1 : weights[i];
+			Point2D_F64 f = srcPts.get( i );
+			Point2D_F64 t = dstPts.get( i );
+
+			meanFrom.x += w*f.x; meanFrom.y += w*f.y;
+			meanTo.x += w*t.x; meanTo.y += w*t.y;
+			totalWeight += w;
+			if( w > 0 )
+				positive++;
+		}
+
+		// too few points are left to constrain the motion, e.g. after robust weighting
+		if( positive < getMinimumPoints() )
+			return false;
+
+		meanFrom.x /= totalWeight; meanFrom.y /= totalWeight;
+		meanTo.x /= totalWeight; meanTo.y /= totalWeight;
+
+		// compute the weighted cross-covariance matrix Sigma of the two sets of points
+		// Sigma = sum(i=1:N,w_i*[(p-mu_p)*(x-mu_x)^T])/sum(w)
+		double s11 = 0, s12 = 0;
+		double s21 = 0, s22 = 0;
+
+		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1 : weights[i];
+			Point2D_F64 f = srcPts.get( i );
+			Point2D_F64 t = dstPts.get( i );
+
+			double dfx = f.x - meanFrom.x, dfy = f.y - meanFrom.y;
+			double dtx = t.x - meanTo.x, dty = t.y - meanTo.y;
+
+			s11 += w*dfx*dtx;
+			s12 += w*dfx*dty;
+			s21 += w*dfy*dtx;
+			s22 += w*dfy*dty;
+		}
+
+		Sigma.data[0] = s11/totalWeight;Sigma.data[1] = s12/totalWeight;
+		Sigma.data[2] = s21/totalWeight;Sigma.data[3] = s22/totalWeight;
+
+		// Compute the SVD of the cross correlation matrix
+		// The rotation matrix is R = V*U^T
+		if( !svd.decompose(Sigma) )
+			return false;
+
+		svd.getU(U,false);
+		svd.getV(V,false);
+
+		CommonOps_DDRM.multTransB(V,U,R);
+
+		// Make sure a rotation and not a reflection is returned
+		if( CommonOps_DDRM.det(R) < 0 ) {
+			for( int i = 0; i < 2; i++ )
+				V.set( i, 1, -V.get( i, 1 ) );
+			CommonOps_DDRM.multTransB(V,U,R);
+		}
+
+		// extract the yaw from the rotation matrix
+		double yaw = Math.atan2( R.get( 1, 0 ), R.get( 0, 0 ) );
+
+		// save the results
+		GeometryMath_F64.rotate( yaw, meanFrom, meanFrom );
+		motion.getTranslation().x = meanTo.x - meanFrom.x;
+		motion.getTranslation().y = meanTo.y - meanFrom.y;
+		motion.setYaw( yaw );
+
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
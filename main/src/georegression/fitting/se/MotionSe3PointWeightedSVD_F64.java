@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPointWeighted_F64;
+import georegression.geometry.GeometryMath_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.SingularOps_DDRM;
+import org.ejml.dense.row.factory.DecompositionFactory_DDRM;
+import org.ejml.interfaces.decomposition.SingularValueDecomposition_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Weighted version of {@link MotionSe3PointSVD_F64}.  Finds the rigid body motion which minimizes the weighted
+ * difference between the two sets of associated points in 3D.  The weighted mean and cross-covariance are
+ * computed and the motion is extracted from the U and V components of the covariance's SVD.
+ * </p>
+ *
+ * <p>
+ * Internal work space is recycled between calls, making it suitable for use inside of iterative algorithms.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MotionSe3PointWeightedSVD_F64 implements MotionTransformPointWeighted_F64<Se3_F64, Point3D_F64> {
+
+	// rigid body motion
+	private Se3_F64 motion = new Se3_F64();
+
+	SingularValueDecomposition_F64<DMatrixRMaj> svd = DecompositionFactory_DDRM.svd(3, 3,true,true,false);
+	DMatrixRMaj Sigma = new DMatrixRMaj(3,3);
+	DMatrixRMaj U = new DMatrixRMaj(3,3);
+	DMatrixRMaj V = new DMatrixRMaj(3,3);
+
+	Point3D_F64 meanSrc = new Point3D_F64();
+	Point3D_F64 meanDst = new Point3D_F64();
+	Point3D_F64 temp = new Point3D_F64();
+
+	@Override
+	public Se3_F64 getTransformSrcToDst() {
+		return motion;
+	}
+
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts) {
+		return process(srcPts,dstPts,null);
+	}
+
+	/**
+	 * Same as {@link #process(List, List)} but with a weight for each pair.  If weights is null then every pair
+	 * is given a weight of one.
+	 */
+	@Override
+	public boolean process( List<Point3D_F64> srcPts, List<Point3D_F64> dstPts, double weights[] ) {
+		if( srcPts.size() != dstPts.size() )
+			throw new IllegalArgumentException( "There must be a 1 to 1 correspondence between the two sets of points" );
+		if( weights != null && weights.length < srcPts.size() )
+			throw new IllegalArgumentException( "Weights must be as long as the number of points" );
+
+		final int N = srcPts.size();
+
+		// find the weighted mean of both sets of points
+		double totalWeight = 0;
+		int positive = 0;
+		meanSrc.set(0,0,0);
+		meanDst.set(0,0,0);
+		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1 : weights[i];
+			Point3D_F64 f = srcPts.get( i );
+			Point3D_F64 t = dstPts.get( i );
+
+			meanSrc.x += w*f.x; meanSrc.y += w*f.y; meanSrc.z += w*f.z;
+			meanDst.x += w*t.x; meanDst.y += w*t.y; meanDst.z += w*t.z;
+			totalWeight += w;
+			if( w > 0 )
+				positive++;
+		}
+
+		// too few points are left to constrain the motion, e.g. after robust weighting
+		if( positive < getMinimumPoints() )
+			return false;
+
+		meanSrc.divideIP(totalWeight);
+		meanDst.divideIP(totalWeight);
+
+		// compute the weighted cross-covariance matrix Sigma of the two sets of points
+		double s11 = 0, s12 = 0, s13 = 0;
+		double s21 = 0, s22 = 0, s23 = 0;
+		double s31 = 0, s32 = 0, s33 = 0;
+
+		for( int i = 0; i < N; i++ ) {
+			double w = weights == null ? 1 : weights[i];
+			Point3D_F64 f = srcPts.get( i );
+			Point3D_F64 t = dstPts.get( i );
+
+			double dfx = f.x - meanSrc.x;
+			double dfy = f.y - meanSrc.y;
+			double dfz = f.z - meanSrc.z;
+
+			double dtx = w*(t.x - meanDst.x);
+			double dty = w*(t.y - meanDst.y);
+			double dtz = w*(t.z - meanDst.z);
+
+			s11 += dtx*dfx;
+			s12 += dtx*dfy;
+			s13 += dtx*dfz;
+			s21 += dty*dfx;
+			s22 += dty*dfy;
+			s23 += dty*dfz;
+			s31 += dtz*dfx;
+			s32 += dtz*dfy;
+			s33 += dtz*dfz;
+		}
+
+		Sigma.data[0] = s11; Sigma.data[1] = s12; Sigma.data[2] = s13;
+		Sigma.data[3] = s21; Sigma.data[4] = s22; Sigma.data[5] = s23;
+		Sigma.data[6] = s31; Sigma.data[7] = s32; Sigma.data[8] = s33;
+
+		if( !svd.decompose(Sigma) )
+			return false;
+
+		svd.getU(U,false);
+		svd.getV(V,false);
+
+		SingularOps_DDRM.descendingOrder(U,false,svd.getSingularValues(),3,V,false);
+
+		if( CommonOps_DDRM.det(U) < 0 ^ CommonOps_DDRM.det(V) < 0 ) {
+			// swap sign of the column 2
+			// this only needs to happen if data is planar
+			V.data[2] = -V.data[2];
+			V.data[5] = -V.data[5];
+			V.data[8] = -V.data[8];
+		}
+
+		CommonOps_DDRM.multTransB(U, V, motion.getR());
+
+		GeometryMath_F64.mult(motion.getR(),meanSrc,temp);
+
+		motion.getT().set(meanDst.x - temp.x,meanDst.y - temp.y,meanDst.z - temp.z);
+
+		return true;
+	}
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * Shape found by {@link EfficientRansac_F64} and the indexes of the points which belong to it.
+ *
+ * @author Peter Abeles
+ */
+public class DetectedShape_F64 {
+	/**
+	 * Which type of shape was found
+	 */
+	public PrimitiveShape_F64 type;
+	/**
+	 * The shape's model, e.g. {@link georegression.struct.shapes.Sphere3D_F64}
+	 */
+	public Object model;
+	/**
+	 * Indexes of inlier points
+	 */
+	public GrowQueue_I32 inliers = new GrowQueue_I32();
+
+	/**
+	 * Returns the model cast into the expected type
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getModel() {
+		return (T)model;
+	}
+
+	public PrimitiveShape_F64 getType() {
+		return type;
+	}
+
+	public GrowQueue_I32 getInliers() {
+		return inliers;
+	}
+}
@@ -0,0 +1,611 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Detects multiple geometric primitives, e.g. planes, spheres, and cylinders, in a point cloud with normals using
+ * the Efficient RANSAC algorithm [1].  Shapes are extracted one at a time, largest first, and their inliers are
+ * removed from the cloud.  Three techniques avoid the cost of scanning the entire cloud for every candidate:
+ * </p>
+ * <ul>
+ * <li>Localized sampling: The first point of a minimal set is selected at random and the remaining points are
+ * selected from the same octree cell.  The level in the tree is chosen adaptively based on which levels have
+ * produced the best candidates.</li>
+ * <li>Lazy scoring: Points are randomly shuffled and candidates are scored on a prefix of the shuffled points.
+ * The size of the inlier set is extrapolated and the prefix is only extended when needed to tell apart the best
+ * candidate from its competitors.</li>
+ * <li>Candidates are generated and scored in parallel.</li>
+ * </ul>
+ *
+ * <p>
+ * The best candidate is extracted once the probability that a larger shape has been missed is below the
+ * user specified threshold.  Processing stops when no shape with at least the minimum number of inliers is
+ * likely to remain.  A point is an inlier if it's within the distance tolerance and the angle between its normal
+ * and the shape's normal is within the angle tolerance.  The connected component step from [1] is not performed.
+ * </p>
+ *
+ * <p>
+ * [1] Schnabel, Ruwen, Roland Wahl, and Reinhard Klein. "Efficient RANSAC for point-cloud shape detection."
+ * Computer graphics forum. Vol. 26. No. 2. 2007.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings("unchecked")
+public class EfficientRansac_F64 {
+
+	// Types of shapes which are searched for
+	List<PrimitiveShape_F64> shapes = new ArrayList<>();
+
+	// tolerance for a point to be an inlier
+	double distanceTol;
+	double normalCosTol;
+	// minimum number of inliers for a shape to be accepted
+	int minInliers;
+
+	// required probability that the largest shape has been found before it is extracted
+	double probability = 0.99;
+	// number of candidates generated each round
+	int candidatesPerRound = 64;
+	// maximum number of candidates generated in total
+	int maxCandidates = 1000000;
+	// number of levels in the octree
+	int octreeDepth = 8;
+	// smallest number of points used to score a candidate
+	int minimumSubset = 1000;
+	// candidate scores are refined until their uncertainty relative to their score is less than this
+	double scorePrecision = 0.05;
+	// if true the best shape is refined using all of its inliers
+	boolean refine = true;
+	// if true candidates are generated in parallel
+	boolean concurrent = true;
+
+	Random rand;
+
+	// input point cloud
+	List<Point3D_F64> points;
+	List<Vector3D_F64> normals;
+
+	// octree used for localized sampling
+	LinearOctree_F64 octree = new LinearOctree_F64();
+
+	// indicates if a point has not yet been assigned to a shape
+	boolean[] available = new boolean[0];
+	// randomly shuffled list of points which are available. Prefixes are used for scoring
+	GrowQueue_I32 permutation = new GrowQueue_I32();
+	// number of available points
+	int remaining;
+	// size of the first subset points are scored on
+	int firstSubset;
+
+	// candidates which have not yet been extracted
+	List<Candidate> candidates = new ArrayList<>();
+	// total number of candidates which have been generated
+	long totalCandidates;
+
+	// statistics for each level in the octree
+	double[] levelScore = new double[0];
+	int[] levelDrawn = new int[0];
+	double[] levelCdf = new double[0];
+
+	// shapes which have been found
+	List<DetectedShape_F64> found = new ArrayList<>();
+
+	// work space
+	GrowQueue_I32 inliers = new GrowQueue_I32();
+	List<Point3D_F64> inlierPoints = new ArrayList<>();
+
+	/**
+	 * Configures the detector. Add shapes with {@link #addShape(PrimitiveShape_F64)}.
+	 *
+	 * @param randSeed Seed for the random number generator
+	 * @param distanceTol Maximum distance a point can be from the shape's surface to be an inlier
+	 * @param angleTol Maximum angle between a point's normal and the shape's normal to be an inlier. Radians.
+	 * @param minInliers Minimum number of inliers for a shape to be accepted
+	 */
+	public EfficientRansac_F64( long randSeed , double distanceTol , double angleTol , int minInliers ) {
+		this.rand = new Random(randSeed);
+		this.distanceTol = distanceTol;
+		this.normalCosTol = Math.cos(angleTol);
+		this.minInliers = minInliers;
+	}
+
+	/**
+	 * Adds a type of shape to search for
+	 */
+	public void addShape( PrimitiveShape_F64 shape ) {
+		shapes.add(shape);
+	}
+
+	/**
+	 * Searches for shapes in the point cloud
+	 *
+	 * @param points (Input) Points in the cloud. Not modified.
+	 * @param normals (Input) Normal of each point. Not modified.
+	 */
+	public void process( List<Point3D_F64> points , List<Vector3D_F64> normals ) {
+		if( points.size() != normals.size() )
+			throw new IllegalArgumentException("Number of points and normals must be the same");
+		if( shapes.isEmpty() )
+			throw new IllegalArgumentException("No shapes have been added");
+
+		this.points = points;
+		this.normals = normals;
+
+		found.clear();
+		candidates.clear();
+		totalCandidates = 0;
+
+		initialize();
+
+		while( remaining >= minInliers && totalCandidates < maxCandidates ) {
+			generateCandidates();
+
+			Candidate best = selectBest();
+
+			// keep on generating candidates until it's unlikely a larger shape has been missed
+			int target = minInliers;
+			if( best != null && best.expected(remaining) > minInliers )
+				target = (int)best.expected(remaining);
+			if( probabilityMissed(target) > 1.0-probability && totalCandidates < maxCandidates )
+				continue;
+
+			// it's unlikely that a shape large enough remains
+			if( best == null || best.expected(remaining) < minInliers )
+				break;
+
+			candidates.remove(best);
+			if( extract(best) ) {
+				removeInliers();
+			}
+		}
+	}
+
+	private void initialize() {
+		final int N = points.size();
+
+		octree.build(points,octreeDepth);
+
+		if( available.length < N )
+			available = new boolean[N];
+		permutation.resize(N);
+		for (int i = 0; i < N; i++) {
+			available[i] = true;
+			permutation.data[i] = i;
+		}
+		// Fisher-Yates shuffle
+		for (int i = N-1; i > 0; i--) {
+			int j = rand.nextInt(i+1);
+			int tmp = permutation.data[i];
+			permutation.data[i] = permutation.data[j];
+			permutation.data[j] = tmp;
+		}
+		setRemaining(N);
+
+		int levels = octreeDepth+1;
+		if( levelScore.length != levels ) {
+			levelScore = new double[levels];
+			levelDrawn = new int[levels];
+			levelCdf = new double[levels];
+		}
+		for (int i = 0; i < levels; i++) {
+			levelScore[i] = 0;
+			levelDrawn[i] = 0;
+		}
+	}
+
+	private void setRemaining( int remaining ) {
+		this.remaining = remaining;
+		this.firstSubset = remaining/64 > minimumSubset ? remaining/64 : minimumSubset;
+		if( firstSubset > remaining )
+			firstSubset = remaining;
+	}
+
+	/**
+	 * Generates a new set of candidates and scores them on the first subset
+	 */
+	void generateCandidates() {
+		computeLevelCdf();
+
+		final long[] seeds = new long[candidatesPerRound];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = rand.nextLong();
+		}
+
+		final Candidate[] batch = new Candidate[candidatesPerRound];
+		IntStream range = IntStream.range(0,candidatesPerRound);
+		if( concurrent )
+			range = range.parallel();
+		range.forEach(i -> batch[i] = createCandidate(new Random(seeds[i])));
+
+		totalCandidates += candidatesPerRound;
+		for (int i = 0; i < batch.length; i++) {
+			Candidate c = batch[i];
+			if( c == null )
+				continue;
+
+			double expected = c.expected(remaining);
+			levelScore[c.level] += expected;
+			levelDrawn[c.level]++;
+
+			// it's very unlikely this will ever be large enough to be accepted
+			if( c.upper(remaining) < minInliers )
+				continue;
+
+			candidates.add(c);
+		}
+	}
+
+	/**
+	 * Selects octree levels with a probability that's a mixture of the average score of candidates from that
+	 * level and a uniform distribution.
+	 */
+	private void computeLevelCdf() {
+		int levels = levelScore.length;
+
+		double total = 0;
+		for (int i = 0; i < levels; i++) {
+			total += (levelScore[i]+1.0)/(levelDrawn[i]+1.0);
+		}
+		double sum = 0;
+		for (int i = 0; i < levels; i++) {
+			double average = (levelScore[i]+1.0)/(levelDrawn[i]+1.0);
+			sum += 0.9*average/total + 0.1/levels;
+			levelCdf[i] = sum;
+		}
+	}
+
+	/**
+	 * Samples a minimal set from a single octree cell and creates a candidate from it.  Must be thread safe.
+	 *
+	 * @return The candidate or null if it failed
+	 */
+	Candidate createCandidate( Random rand ) {
+		PrimitiveShape_F64 shape = shapes.get(rand.nextInt(shapes.size()));
+		final int k = shape.getMinimumPoints();
+
+		// select the octree level
+		double r = rand.nextDouble()*levelCdf[levelCdf.length-1];
+		int level = 0;
+		while( level < levelCdf.length-1 && levelCdf[level] < r )
+			level++;
+
+		int[] samples = new int[k];
+		samples[0] = permutation.data[rand.nextInt(remaining)];
+
+		int[] cell = new int[2];
+		int size = octree.findCell(samples[0],level,cell);
+		if( size < k )
+			return null;
+
+		// select the other points from the same cell
+		for (int i = 1; i < k; i++) {
+			boolean success = false;
+			for (int trial = 0; trial < 20 && !success; trial++) {
+				int index = octree.getPointAt(cell[0]+rand.nextInt(size));
+				if( !available[index] )
+					continue;
+				success = true;
+				for (int j = 0; j < i; j++) {
+					if( samples[j] == index ) {
+						success = false;
+						break;
+					}
+				}
+				samples[i] = index;
+			}
+			if( !success )
+				return null;
+		}
+
+		Candidate c = new Candidate();
+		c.shape = shape;
+		c.level = level;
+		c.samples = samples;
+		c.model = shape.createModelInstance();
+		if( !shape.generate(points,normals,samples,c.model) )
+			return null;
+
+		// the minimal set must be consistent with the model
+		for (int i = 0; i < k; i++) {
+			if( !isInlier(shape,c.model,samples[i]) )
+				return null;
+		}
+
+		score(c);
+		return c;
+	}
+
+	/**
+	 * Finds the candidate with the largest expected number of inliers. The score of candidates is lazily
+	 * refined until the best candidate can be told apart from the others.
+	 */
+	Candidate selectBest() {
+		if( candidates.isEmpty() )
+			return null;
+
+		while( true ) {
+			Candidate best = candidates.get(0);
+			for (int i = 1; i < candidates.size(); i++) {
+				Candidate c = candidates.get(i);
+				if( c.expected(remaining) > best.expected(remaining) )
+					best = c;
+			}
+
+			// Candidates which overlap with the best are refined until the scores are known precisely enough.
+			// Without the precision test duplicates of the same shape would be evaluated against every point
+			double lower = best.lower(remaining);
+			boolean refined = false;
+			for (int i = 0; i < candidates.size(); i++) {
+				Candidate c = candidates.get(i);
+				if( c == best || c.upper(remaining) < lower )
+					continue;
+				if( !isPrecise(c) ) {
+					score(c);
+					refined = true;
+				}
+			}
+			if( !isPrecise(best) ) {
+				score(best);
+				refined = true;
+			}
+
+			if( !refined )
+				return best;
+		}
+	}
+
+	/**
+	 * Checks to see if the uncertainty in the candidate's score is small relative to the score
+	 */
+	boolean isPrecise( Candidate c ) {
+		return c.evaluated >= remaining || 2.0*c.sigma(remaining) <= scorePrecision*c.expected(remaining);
+	}
+
+	/**
+	 * Probability that a shape with the specified number of points has not been sampled yet by any of the
+	 * candidates. Assumes each candidate uses localized sampling.
+	 */
+	double probabilityMissed( int shapeSize ) {
+		int k = 0;
+		for (int i = 0; i < shapes.size(); i++) {
+			if( shapes.get(i).getMinimumPoints() > k )
+				k = shapes.get(i).getMinimumPoints();
+		}
+		double P = shapeSize/(remaining*(octreeDepth+1.0)*(1 << (k-1)));
+		if( P >= 1.0 )
+			return 0;
+		return Math.exp(totalCandidates*Math.log1p(-P));
+	}
+
+	/**
+	 * Extends the number of points the candidate has been scored against
+	 */
+	void score( Candidate c ) {
+		int end = c.evaluated == 0 ? firstSubset : c.evaluated*2;
+		if( end > remaining )
+			end = remaining;
+		int count = 0;
+		for (int i = c.evaluated; i < end; i++) {
+			if( isInlier(c.shape,c.model,permutation.data[i]) )
+				count++;
+		}
+		c.count += count;
+		c.evaluated = end;
+	}
+
+	/**
+	 * Finds all the inliers of the candidate, optionally refines it, and saves the results if there are enough
+	 * inliers.
+	 *
+	 * @return true if the shape was accepted
+	 */
+	boolean extract( Candidate c ) {
+		findInliers(c.shape,c.model,inliers);
+
+		if( refine && inliers.size >= c.shape.getMinimumPoints() ) {
+			Object copy = c.shape.createModelInstance();
+			c.shape.copyModel(c.model,copy);
+
+			inlierPoints.clear();
+			for (int i = 0; i < inliers.size; i++) {
+				inlierPoints.add(points.get(inliers.data[i]));
+			}
+			int before = inliers.size;
+			if( c.shape.refine(inlierPoints,c.model) ) {
+				findInliers(c.shape,c.model,inliers);
+				// refinement made it worse, revert
+				if( inliers.size < before ) {
+					c.shape.copyModel(copy,c.model);
+					findInliers(c.shape,c.model,inliers);
+				}
+			}
+		}
+
+		if( inliers.size < minInliers )
+			return false;
+
+		DetectedShape_F64 d = new DetectedShape_F64();
+		d.type = c.shape;
+		d.model = c.model;
+		d.inliers.setTo(inliers);
+		found.add(d);
+
+		return true;
+	}
+
+	private void findInliers( PrimitiveShape_F64 shape , Object model , GrowQueue_I32 output ) {
+		output.reset();
+		for (int i = 0; i < remaining; i++) {
+			int index = permutation.data[i];
+			if( isInlier(shape,model,index) )
+				output.add(index);
+		}
+	}
+
+	/**
+	 * Removes inliers of the most recently found shape from the set of available points and rescores all the
+	 * candidates which remain
+	 */
+	private void removeInliers() {
+		GrowQueue_I32 removed = found.get(found.size()-1).inliers;
+		for (int i = 0; i < removed.size; i++) {
+			available[removed.data[i]] = false;
+		}
+
+		// compact the shuffled list. The order is still random
+		int count = 0;
+		for (int i = 0; i < remaining; i++) {
+			int index = permutation.data[i];
+			if( available[index] )
+				permutation.data[count++] = index;
+		}
+		permutation.size = count;
+		setRemaining(count);
+
+		// discard candidates generated from removed points and rescore the others
+		for (int i = candidates.size()-1; i >= 0; i--) {
+			Candidate c = candidates.get(i);
+			boolean valid = true;
+			for (int j = 0; j < c.samples.length; j++) {
+				if( !available[c.samples[j]] ) {
+					valid = false;
+					break;
+				}
+			}
+			if( valid ) {
+				c.evaluated = 0;
+				c.count = 0;
+				score(c);
+				valid = c.upper(remaining) >= minInliers;
+			}
+			if( !valid ) {
+				candidates.remove(i);
+			}
+		}
+	}
+
+	private boolean isInlier( PrimitiveShape_F64 shape , Object model , int index ) {
+		Point3D_F64 p = points.get(index);
+		return shape.distance(model,p) <= distanceTol &&
+				shape.normalCos(model,p,normals.get(index)) >= normalCosTol;
+	}
+
+	/**
+	 * Returns all the shapes which were found, in the order they were extracted
+	 */
+	public List<DetectedShape_F64> getFound() {
+		return found;
+	}
+
+	/**
+	 * Returns a list of points which were not assigned to any shape
+	 */
+	public void getUnassigned( GrowQueue_I32 output ) {
+		output.reset();
+		for (int i = 0; i < points.size(); i++) {
+			if( available[i] )
+				output.add(i);
+		}
+	}
+
+	public void setProbability(double probability) {
+		this.probability = probability;
+	}
+
+	public void setCandidatesPerRound(int candidatesPerRound) {
+		this.candidatesPerRound = candidatesPerRound;
+	}
+
+	public void setMaxCandidates(int maxCandidates) {
+		this.maxCandidates = maxCandidates;
+	}
+
+	public void setOctreeDepth(int octreeDepth) {
+		this.octreeDepth = octreeDepth;
+	}
+
+	public void setMinimumSubset(int minimumSubset) {
+		this.minimumSubset = minimumSubset;
+	}
+
+	public void setScorePrecision(double scorePrecision) {
+		this.scorePrecision = scorePrecision;
+	}
+
+	public void setRefine(boolean refine) {
+		this.refine = refine;
+	}
+
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * A candidate shape and an estimate of its score
+	 */
+	static class Candidate {
+		PrimitiveShape_F64 shape;
+		Object model;
+		// level in the octree it was sampled from
+		int level;
+		// points in the minimal set
+		int[] samples;
+		// number of points in the shuffled list it has been evaluated against
+		int evaluated;
+		// number of inliers found in the evaluated points
+		int count;
+
+		/**
+		 * Expected number of inliers in the remaining points
+		 */
+		double expected( int remaining ) {
+			return count*(double)remaining/evaluated;
+		}
+
+		/**
+		 * Standard deviation of the expected number of inliers. Uses the variance of the hypergeometric distribution
+		 */
+		double sigma( int remaining ) {
+			if( evaluated >= remaining )
+				return 0;
+			double p = (count+1.0)/(evaluated+2.0);
+			double variance = evaluated*p*(1.0-p)*(remaining-evaluated)/(double)(remaining-1);
+			return Math.sqrt(variance)*remaining/evaluated;
+		}
+
+		double lower( int remaining ) {
+			return expected(remaining) - 2.0*sigma(remaining);
+		}
+
+		double upper( int remaining ) {
+			return expected(remaining) + 2.0*sigma(remaining);
+		}
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.struct.point.Point3D_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Octree stored as a sorted array of Morton codes.  Each point is assigned a code by interleaving the bits of its
+ * cell coordinate at the maximum depth.  After sorting, the points inside of any cell at any level are a contiguous
+ * range which is found with a binary search.  No tree nodes are declared, making it compact and fast to
+ * construct for large point clouds.
+ * </p>
+ *
+ * <p>
+ * Level 0 is the root cell which contains all the points and each additional level splits a cell into 8 children.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class LinearOctree_F64 {
+	/**
+	 * Largest supported depth. Limited by the number of bits in a long.
+	 */
+	public static final int MAX_DEPTH = 21;
+
+	// depth of the tree
+	int maxDepth;
+
+	// the bounding cube
+	double x0,y0,z0;
+	double width;
+
+	// Morton code of each point, indexed by point
+	long[] codes = new long[0];
+	// codes sorted in ascending order
+	long[] sortedCodes = new long[0];
+	// index of the point for each element in sortedCodes
+	int[] order = new int[0];
+
+	// number of points
+	int size;
+
+	// work space for sorting
+	long[] workCodes = new long[0];
+	int[] workOrder = new int[0];
+	int[] histogram = new int[256];
+
+	/**
+	 * Constructs the octree from the set of points
+	 *
+	 * @param points (Input) Points in the cloud. Not modified.
+	 * @param maxDepth Number of levels in the tree. 1 to {@link #MAX_DEPTH}.
+	 */
+	public void build( List<Point3D_F64> points , int maxDepth ) {
+		if( maxDepth < 1 || maxDepth > MAX_DEPTH )
+			throw new IllegalArgumentException("maxDepth must be from 1 to "+MAX_DEPTH);
+		this.maxDepth = maxDepth;
+		this.size = points.size();
+
+		declare(size);
+		computeBounds(points);
+
+		final long cells = 1L << maxDepth;
+		final double scale = width > 0 ? cells/width : 0;
+
+		for (int i = 0; i < size; i++) {
+			Point3D_F64 p = points.get(i);
+			long ix = (long)((p.x-x0)*scale);
+			long iy = (long)((p.y-y0)*scale);
+			long iz = (long)((p.z-z0)*scale);
+
+			// points on the upper boundary are put inside the last cell
+			if( ix >= cells ) ix = cells-1;
+			if( iy >= cells ) iy = cells-1;
+			if( iz >= cells ) iz = cells-1;
+
+			codes[i] = spread(ix) | (spread(iy) << 1) | (spread(iz) << 2);
+			sortedCodes[i] = codes[i];
+			order[i] = i;
+		}
+
+		radixSort();
+	}
+
+	private void declare( int N ) {
+		if( codes.length < N ) {
+			codes = new long[N];
+			sortedCodes = new long[N];
+			order = new int[N];
+			workCodes = new long[N];
+			workOrder = new int[N];
+		}
+	}
+
+	private void computeBounds( List<Point3D_F64> points ) {
+		double x1,y1,z1;
+		x0 = y0 = z0 = Double.MAX_VALUE;
+		x1 = y1 = z1 = -Double.MAX_VALUE;
+
+		for (int i = 0; i < size; i++) {
+			Point3D_F64 p = points.get(i);
+			if( p.x < x0 ) x0 = p.x;
+			if( p.y < y0 ) y0 = p.y;
+			if( p.z < z0 ) z0 = p.z;
+			if( p.x > x1 ) x1 = p.x;
+			if( p.y > y1 ) y1 = p.y;
+			if( p.z > z1 ) z1 = p.z;
+		}
+
+		if( size == 0 ) {
+			x0 = y0 = z0 = width = 0;
+		} else {
+			width = Math.max(x1-x0,Math.max(y1-y0,z1-z0));
+		}
+	}
+
+	/**
+	 * Spreads the lower 21-bits out so that there are two zeros between each bit
+	 */
+	static long spread( long x ) {
+		x &= 0x1fffffL;
+		x = (x | x << 32) & 0x1f00000000ffffL;
+		x = (x | x << 16) & 0x1f0000ff0000ffL;
+		x = (x | x << 8)  & 0x100f00f00f00f00fL;
+		x = (x | x << 4)  & 0x10c30c30c30c30c3L;
+		x = (x | x << 2)  & 0x1249249249249249L;
+		return x;
+	}
+
+	/**
+	 * Inverse of {@link #spread(long)}. Extracts every third bit.
+	 */
+	static long compact( long x ) {
+		x &= 0x1249249249249249L;
+		x = (x ^ (x >>> 2))  & 0x10c30c30c30c30c3L;
+		x = (x ^ (x >>> 4))  & 0x100f00f00f00f00fL;
+		x = (x ^ (x >>> 8))  & 0x1f0000ff0000ffL;
+		x = (x ^ (x >>> 16)) & 0x1f00000000ffffL;
+		x = (x ^ (x >>> 32)) & 0x1fffffL;
+		return x;
+	}
+
+	/**
+	 * LSD radix sort of the codes, 8-bits at a time.  Only the bits which are used are sorted.
+	 */
+	private void radixSort() {
+		int bits = 3*maxDepth;
+
+		long[] srcCodes = sortedCodes, dstCodes = workCodes;
+		int[] srcOrder = order, dstOrder = workOrder;
+
+		for (int shift = 0; shift < bits; shift += 8) {
+			for (int i = 0; i < 256; i++) {
+				histogram[i] = 0;
+			}
+			for (int i = 0; i < size; i++) {
+				histogram[(int)((srcCodes[i] >>> shift) & 0xFF)]++;
+			}
+			int total = 0;
+			for (int i = 0; i < 256; i++) {
+				int count = histogram[i];
+				histogram[i] = total;
+				total += count;
+			}
+			for (int i = 0; i < size; i++) {
+				int bucket = (int)((srcCodes[i] >>> shift) & 0xFF);
+				int dst = histogram[bucket]++;
+				dstCodes[dst] = srcCodes[i];
+				dstOrder[dst] = srcOrder[i];
+			}
+
+			long[] tmpCodes = srcCodes; srcCodes = dstCodes; dstCodes = tmpCodes;
+			int[] tmpOrder = srcOrder; srcOrder = dstOrder; dstOrder = tmpOrder;
+		}
+
+		sortedCodes = srcCodes; workCodes = dstCodes;
+		order = srcOrder; workOrder = dstOrder;
+	}
+
+	/**
+	 * Finds the range of sorted elements which are inside the cell at the specified level that contains the point.
+	 *
+	 * @param pointIndex Index of the point
+	 * @param level Level in the tree. 0 to maxDepth
+	 * @param range (Output) range[0] is the first element and range[1] is one past the last element. Use
+	 *              {@link #getPointAt(int)} to look up the point.
+	 * @return Number of points inside the cell
+	 */
+	public int findCell( int pointIndex , int level , int[] range ) {
+		int shift = 3*(maxDepth-level);
+		long prefix = codes[pointIndex] >>> shift;
+
+		range[0] = lowerBound(prefix << shift);
+		range[1] = lowerBound((prefix+1) << shift);
+
+		return range[1]-range[0];
+	}
+
+	/**
+	 * Finds the range of sorted elements which are inside the specified cell.
+	 *
+	 * @param level Level in the tree. 0 to maxDepth
+	 * @param cellX Cell's x-coordinate. 0 to 2<sup>level</sup>-1
+	 * @param cellY Cell's y-coordinate. 0 to 2<sup>level</sup>-1
+	 * @param cellZ Cell's z-coordinate. 0 to 2<sup>level</sup>-1
+	 * @param range (Output) range[0] is the first element and range[1] is one past the last element.
+	 * @return Number of points inside the cell. Zero if the coordinate is outside the tree.
+	 */
+	public int findCell( int level , long cellX , long cellY , long cellZ , int[] range ) {
+		long cells = 1L << level;
+		if( cellX < 0 || cellY < 0 || cellZ < 0 || cellX >= cells || cellY >= cells || cellZ >= cells ) {
+			range[0] = range[1] = 0;
+			return 0;
+		}
+		int shift = 3*(maxDepth-level);
+		long prefix = spread(cellX) | (spread(cellY) << 1) | (spread(cellZ) << 2);
+
+		range[0] = lowerBound(prefix << shift);
+		range[1] = lowerBound((prefix+1) << shift);
+
+		return range[1]-range[0];
+	}
+
+	/**
+	 * Looks up the coordinate of the cell which contains the point at the specified level
+	 *
+	 * @param pointIndex Index of the point
+	 * @param level Level in the tree. 0 to maxDepth
+	 * @param cell (Output) x, y, and z coordinate of the cell
+	 */
+	public void getCell( int pointIndex , int level , long[] cell ) {
+		long code = codes[pointIndex] >>> 3*(maxDepth-level);
+		cell[0] = compact(code);
+		cell[1] = compact(code >>> 1);
+		cell[2] = compact(code >>> 2);
+	}
+
+	/**
+	 * Returns the index of the first element which is &ge; the value
+	 */
+	private int lowerBound( long value ) {
+		int low = 0, high = size;
+		while( low < high ) {
+			int mid = (low+high) >>> 1;
+			if( sortedCodes[mid] < value )
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index of the point at the specified location in the sorted list
+	 */
+	public int getPointAt( int sortedIndex ) {
+		return order[sortedIndex];
+	}
+
+	/**
+	 * Returns the Morton code of the point
+	 */
+	public long getCode( int pointIndex ) {
+		return codes[pointIndex];
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Length of a side of a cell at the specified level
+	 */
+	public double getCellWidth( int level ) {
+		return width/(1L << level);
+	}
+}
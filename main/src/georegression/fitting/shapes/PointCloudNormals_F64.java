@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.geometry.algs.EigenSymmetric3x3_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.ddogleg.sorting.QuickSelect;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Estimates the surface normal and curvature of every point in a point cloud.  The normal is the eigenvector of the
+ * smallest eigenvalue of the covariance matrix of the point's neighborhood.  Curvature is the surface variation
+ * [1], &lambda;<sub>2</sub>/(&lambda;<sub>0</sub>+&lambda;<sub>1</sub>+&lambda;<sub>2</sub>), where
+ * &lambda;<sub>2</sub> is the smallest eigenvalue. The neighborhood is either the K nearest neighbors or all points
+ * within a radius.
+ * </p>
+ *
+ * <p>
+ * Neighbors are found using a {@link LinearOctree_F64} and each 3 by 3 covariance matrix is decomposed using
+ * {@link EigenSymmetric3x3_F64}, so no matrices are declared per point.  Points are processed in parallel in
+ * chunks. Results are written into packed arrays.  The sign of the normal is arbitrary.  If a point has fewer than
+ * 3 neighbors its normal is set to zero and its curvature to NaN.
+ * </p>
+ *
+ * <p>
+ * [1] Pauly, Mark, Markus Gross, and Leif P. Kobbelt. "Efficient simplification of point-sampled surfaces."
+ * IEEE Visualization, 2002.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PointCloudNormals_F64 {
+
+	// number of nearest neighbors. If zero then the radius is used
+	int numNeighbors = 10;
+	// radius of the neighborhood
+	double radius;
+
+	// number of levels in the octree
+	int octreeDepth = 10;
+	// minimum number of points processed in a single thread
+	int minimumChunk = 2000;
+	// if true points are processed in parallel
+	boolean concurrent = true;
+
+	// used to find neighbors
+	LinearOctree_F64 octree = new LinearOctree_F64();
+
+	// the point cloud being processed
+	List<Point3D_F64> points;
+
+	// level in the octree used for radius search
+	int radiusLevel;
+
+	/**
+	 * Uses the K nearest neighbors to define a neighborhood. The point itself is included.
+	 *
+	 * @param numNeighbors Number of neighbors. Must be 3 or more.
+	 */
+	public void setNearest( int numNeighbors ) {
+		if( numNeighbors < 3 )
+			throw new IllegalArgumentException("Need at least 3 neighbors");
+		this.numNeighbors = numNeighbors;
+	}
+
+	/**
+	 * Uses all points within the specified distance to define a neighborhood. The point itself is included.
+	 *
+	 * @param radius Radius of the neighborhood
+	 */
+	public void setRadius( double radius ) {
+		if( radius <= 0 )
+			throw new IllegalArgumentException("Radius must be more than zero");
+		this.numNeighbors = 0;
+		this.radius = radius;
+	}
+
+	/**
+	 * Computes normals and curvature for all the points
+	 *
+	 * @param points (Input) The point cloud
+	 * @param normals (Output) Normal of each point, packed as (x,y,z). Size 3*N
+	 * @param curvature (Output) Curvature of each point. Size N
+	 */
+	public void process( List<Point3D_F64> points , GrowQueue_F64 normals , GrowQueue_F64 curvature ) {
+		final int N = points.size();
+		this.points = points;
+
+		normals.resize(3*N);
+		curvature.resize(N);
+		if( N == 0 )
+			return;
+
+		octree.build(points,octreeDepth);
+
+		if( numNeighbors <= 0 ) {
+			// the deepest level where a cell is at least as wide as the radius
+			radiusLevel = 0;
+			while( radiusLevel < octreeDepth && octree.getCellWidth(radiusLevel+1) >= radius )
+				radiusLevel++;
+		}
+
+		final int numChunks = concurrent && N >= 2*minimumChunk ? N/minimumChunk : 1;
+		IntStream range = IntStream.range(0,numChunks);
+		if( concurrent )
+			range = range.parallel();
+		range.forEach(chunk -> {
+			int first = (int)((long)N*chunk/numChunks);
+			int last = (int)((long)N*(chunk+1)/numChunks);
+			Workspace work = new Workspace();
+			for (int i = first; i < last; i++) {
+				work.process(i,normals.data,curvature.data);
+			}
+		});
+	}
+
+	/**
+	 * Converts the packed normals into a list of vectors
+	 *
+	 * @param normals (Input) Normals packed as (x,y,z)
+	 * @param output (Output) List of vectors. Elements are added to the list.
+	 */
+	public static void convert( GrowQueue_F64 normals , List<Vector3D_F64> output ) {
+		for (int i = 0; i < normals.size; i += 3) {
+			output.add(new Vector3D_F64(normals.data[i],normals.data[i+1],normals.data[i+2]));
+		}
+	}
+
+	/**
+	 * Storage used by a single thread
+	 */
+	class Workspace {
+		// indexes of points in the neighborhood
+		GrowQueue_I32 neighbors = new GrowQueue_I32();
+		// squared distance of each point in the neighborhood
+		GrowQueue_F64 distances = new GrowQueue_F64();
+		// work space for selecting the K nearest neighbors
+		int[] indexes = new int[0];
+
+		int[] range = new int[2];
+		long[] cell = new long[3];
+		double[] eigenvalues = new double[3];
+		Vector3D_F64 normal = new Vector3D_F64();
+
+		void process( int pointIndex , double[] normals , double[] curvature ) {
+			Point3D_F64 q = points.get(pointIndex);
+
+			int count;
+			if( numNeighbors > 0 )
+				count = findNearest(q,pointIndex);
+			else
+				count = findRadius(q,pointIndex);
+
+			if( count < 3 ) {
+				normals[pointIndex*3] = normals[pointIndex*3+1] = normals[pointIndex*3+2] = 0;
+				curvature[pointIndex] = Double.NaN;
+				return;
+			}
+
+			// covariance relative to the query point to reduce round off error
+			double mx=0,my=0,mz=0;
+			double xx=0,xy=0,xz=0,yy=0,yz=0,zz=0;
+			for (int i = 0; i < count; i++) {
+				Point3D_F64 p = points.get(neighbors.data[indexes[i]]);
+				double dx = p.x - q.x, dy = p.y - q.y, dz = p.z - q.z;
+				mx += dx; my += dy; mz += dz;
+				xx += dx*dx; xy += dx*dy; xz += dx*dz;
+				yy += dy*dy; yz += dy*dz; zz += dz*dz;
+			}
+			mx /= count; my /= count; mz /= count;
+			xx = xx/count - mx*mx; xy = xy/count - mx*my; xz = xz/count - mx*mz;
+			yy = yy/count - my*my; yz = yz/count - my*mz;
+			zz = zz/count - mz*mz;
+
+			EigenSymmetric3x3_F64.eigenvalues(xx,xy,xz,yy,yz,zz,eigenvalues);
+			EigenSymmetric3x3_F64.eigenvector(xx,xy,xz,yy,yz,zz,eigenvalues[2],normal);
+
+			normals[pointIndex*3  ] = normal.x;
+			normals[pointIndex*3+1] = normal.y;
+			normals[pointIndex*3+2] = normal.z;
+
+			double sum = eigenvalues[0] + eigenvalues[1] + eigenvalues[2];
+			curvature[pointIndex] = sum > 0 ? Math.max(0,eigenvalues[2])/sum : 0;
+		}
+
+		/**
+		 * Finds the K nearest neighbors. Starts at the deepest cell which contains enough points and moves up
+		 * the tree until the K-th neighbor is guaranteed to be inside the searched cells.
+		 *
+		 * @return number of neighbors found
+		 */
+		int findNearest( Point3D_F64 q , int pointIndex ) {
+			int level = octree.getMaxDepth();
+			while( level > 0 && octree.findCell(pointIndex,level,range) < numNeighbors )
+				level--;
+
+			while( true ) {
+				octree.getCell(pointIndex,level,cell);
+				collectNeighborhood(q,level,Double.MAX_VALUE);
+
+				// when there are exactly K points the select is still needed to move the farthest one to the end
+				int size = neighbors.size;
+				if( size >= numNeighbors ) {
+					QuickSelect.selectIndex(distances.data,numNeighbors-1,size,indexes);
+				}
+
+				int found = size < numNeighbors ? size : numNeighbors;
+				if( level == 0 )
+					return found;
+
+				// Any point closer than the width of a cell must be inside the searched cells
+				double width = octree.getCellWidth(level);
+				if( found == numNeighbors && distances.data[indexes[found-1]] <= width*width )
+					return found;
+				level--;
+			}
+		}
+
+		/**
+		 * Finds all points within the radius
+		 *
+		 * @return number of neighbors found
+		 */
+		int findRadius( Point3D_F64 q , int pointIndex ) {
+			octree.getCell(pointIndex,radiusLevel,cell);
+			collectNeighborhood(q,radiusLevel,radius*radius);
+			return neighbors.size;
+		}
+
+		/**
+		 * Adds all points inside the 3x3x3 block of cells around the current cell which are within the
+		 * distance threshold
+		 */
+		void collectNeighborhood( Point3D_F64 q , int level , double maxDistanceSq ) {
+			neighbors.reset();
+			distances.reset();
+
+			for (int dz = -1; dz <= 1; dz++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					for (int dx = -1; dx <= 1; dx++) {
+						octree.findCell(level,cell[0]+dx,cell[1]+dy,cell[2]+dz,range);
+						for (int i = range[0]; i < range[1]; i++) {
+							int index = octree.getPointAt(i);
+							double d = points.get(index).distance2(q);
+							if( d <= maxDistanceSq ) {
+								neighbors.add(index);
+								distances.add(d);
+							}
+						}
+					}
+				}
+			}
+
+			if( indexes.length < neighbors.size ) {
+				indexes = new int[neighbors.size];
+			}
+			for (int i = 0; i < neighbors.size; i++) {
+				indexes[i] = i;
+			}
+		}
+	}
+
+	public void setOctreeDepth(int octreeDepth) {
+		this.octreeDepth = octreeDepth;
+	}
+
+	public void setMinimumChunk(int minimumChunk) {
+		this.minimumChunk = minimumChunk;
+	}
+
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+}
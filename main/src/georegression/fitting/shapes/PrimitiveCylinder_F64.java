@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.fitting.cylinder.FitCylinderToPoints_F64;
+import georegression.fitting.cylinder.ModelManagerCylinder3D_F64;
+import georegression.metric.Distance3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+
+import java.util.List;
+
+/**
+ * Cylinder primitive for {@link EfficientRansac_F64}.  Candidates are generated from two oriented points. The
+ * axis is the cross product of the two normals and it passes through the intersection of the two normal lines
+ * once they have been projected onto the plane perpendicular to the axis.  Refinement is done using
+ * {@link FitCylinderToPoints_F64}.
+ *
+ * @author Peter Abeles
+ */
+public class PrimitiveCylinder_F64 extends ModelManagerCylinder3D_F64
+		implements PrimitiveShape_F64<Cylinder3D_F64>
+{
+	FitCylinderToPoints_F64 fitter = new FitCylinderToPoints_F64(100,true);
+	Cylinder3D_F64 refined = new Cylinder3D_F64();
+
+	@Override
+	public int getMinimumPoints() {
+		return 2;
+	}
+
+	@Override
+	public boolean generate(List<Point3D_F64> points, List<Vector3D_F64> normals, int[] samples,
+							Cylinder3D_F64 output) {
+		Point3D_F64 p0 = points.get(samples[0]);
+		Point3D_F64 p1 = points.get(samples[1]);
+		Vector3D_F64 u = normals.get(samples[0]);
+		Vector3D_F64 v = normals.get(samples[1]);
+
+		// axis is perpendicular to both normals
+		double ax = u.y*v.z - u.z*v.y;
+		double ay = u.z*v.x - u.x*v.z;
+		double az = u.x*v.y - u.y*v.x;
+		double n = Math.sqrt(ax*ax + ay*ay + az*az);
+		if( n == 0 )
+			return false;
+		ax /= n; ay /= n; az /= n;
+
+		// project p1 onto the plane which contains p0 and is perpendicular to the axis
+		double wx = p1.x - p0.x, wy = p1.y - p0.y, wz = p1.z - p0.z;
+		double along = wx*ax + wy*ay + wz*az;
+		wx -= along*ax; wy -= along*ay; wz -= along*az;
+
+		// intersection of p0 + t0*u and (p0+w) + t1*v. Both normals lie in the plane
+		double a = u.dot(u);
+		double b = u.dot(v);
+		double c = v.dot(v);
+		double d = -(u.x*wx + u.y*wy + u.z*wz);
+		double e = -(v.x*wx + v.y*wy + v.z*wz);
+
+		double bottom = a*c - b*b;
+		if( bottom <= 0 )
+			return false;
+
+		double t0 = (b*e - c*d)/bottom;
+		double t1 = (a*e - b*d)/bottom;
+
+		output.line.p.x = p0.x + t0*u.x;
+		output.line.p.y = p0.y + t0*u.y;
+		output.line.p.z = p0.z + t0*u.z;
+		output.line.slope.set(ax,ay,az);
+		// average distance of the two points from the axis
+		double r0 = Math.sqrt(a*t0*t0);
+		double r1 = Math.sqrt(c*t1*t1);
+		output.radius = (r0 + r1)/2.0;
+
+		return output.radius > 0;
+	}
+
+	@Override
+	public double distance(Cylinder3D_F64 model, Point3D_F64 point) {
+		return Math.abs(Distance3D_F64.distance(model,point));
+	}
+
+	@Override
+	public double normalCos(Cylinder3D_F64 model, Point3D_F64 point, Vector3D_F64 normal) {
+		Vector3D_F64 s = model.line.slope;
+
+		double dx = point.x - model.line.p.x;
+		double dy = point.y - model.line.p.y;
+		double dz = point.z - model.line.p.z;
+
+		// remove the component along the axis
+		double along = (dx*s.x + dy*s.y + dz*s.z)/s.dot(s);
+		dx -= along*s.x; dy -= along*s.y; dz -= along*s.z;
+
+		double n = Math.sqrt(dx*dx + dy*dy + dz*dz)*normal.norm();
+		if( n == 0 )
+			return 0;
+		return Math.abs(dx*normal.x + dy*normal.y + dz*normal.z)/n;
+	}
+
+	@Override
+	public boolean refine(List<Point3D_F64> inliers, Cylinder3D_F64 model) {
+		if( !fitter.fitModel(inliers,model,refined) )
+			return false;
+		model.set(refined);
+		return true;
+	}
+}
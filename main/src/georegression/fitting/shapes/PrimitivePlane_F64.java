@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.fitting.plane.FitPlane3D_F64;
+import georegression.fitting.plane.ModelManagerPlaneGeneral3D_F64;
+import georegression.geometry.UtilPlane3D_F64;
+import georegression.metric.Distance3D_F64;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.plane.PlaneNormal3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+
+import java.util.List;
+
+/**
+ * Plane primitive for {@link EfficientRansac_F64}.  Candidates are generated from three points and refined
+ * using {@link FitPlane3D_F64#covariance}.
+ *
+ * @author Peter Abeles
+ */
+public class PrimitivePlane_F64 extends ModelManagerPlaneGeneral3D_F64
+		implements PrimitiveShape_F64<PlaneGeneral3D_F64>
+{
+	FitPlane3D_F64 fitter = new FitPlane3D_F64();
+	PlaneNormal3D_F64 planeNormal = new PlaneNormal3D_F64();
+
+	@Override
+	public int getMinimumPoints() {
+		return 3;
+	}
+
+	@Override
+	public boolean generate(List<Point3D_F64> points, List<Vector3D_F64> normals, int[] samples,
+							PlaneGeneral3D_F64 output) {
+		Point3D_F64 a = points.get(samples[0]);
+		Point3D_F64 b = points.get(samples[1]);
+		Point3D_F64 c = points.get(samples[2]);
+
+		double abx = b.x - a.x, aby = b.y - a.y, abz = b.z - a.z;
+		double acx = c.x - a.x, acy = c.y - a.y, acz = c.z - a.z;
+
+		double nx = aby*acz - abz*acy;
+		double ny = abz*acx - abx*acz;
+		double nz = abx*acy - aby*acx;
+
+		double n = Math.sqrt(nx*nx + ny*ny + nz*nz);
+		if( n == 0 )
+			return false;
+
+		output.A = nx/n;
+		output.B = ny/n;
+		output.C = nz/n;
+		output.D = output.A*a.x + output.B*a.y + output.C*a.z;
+
+		return true;
+	}
+
+	@Override
+	public double distance(PlaneGeneral3D_F64 model, Point3D_F64 point) {
+		return Math.abs(Distance3D_F64.distance(model,point));
+	}
+
+	@Override
+	public double normalCos(PlaneGeneral3D_F64 model, Point3D_F64 point, Vector3D_F64 normal) {
+		double dot = model.A*normal.x + model.B*normal.y + model.C*normal.z;
+		double n = Math.sqrt(model.A*model.A + model.B*model.B + model.C*model.C)*normal.norm();
+		return Math.abs(dot)/n;
+	}
+
+	@Override
+	public boolean refine(List<Point3D_F64> inliers, PlaneGeneral3D_F64 model) {
+		if( !fitter.covariance(inliers,planeNormal.p,planeNormal.n) )
+			return false;
+		UtilPlane3D_F64.convert(planeNormal,model);
+		return true;
+	}
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.ddogleg.fitting.modelset.ModelManager;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Description of a geometric primitive which can be detected by {@link EfficientRansac_F64}.  It knows how to
+ * create a candidate shape from a minimal set of oriented points and how to evaluate if a point and its normal
+ * are consistent with the shape.
+ * </p>
+ *
+ * <p>
+ * {@link #generate}, {@link #distance}, and {@link #normalCos} can be called by multiple threads at once and
+ * must not modify internal state. {@link #refine} is only called by a single thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface PrimitiveShape_F64 <Model> extends ModelManager<Model> {
+
+	/**
+	 * Number of oriented points required to generate a candidate
+	 */
+	int getMinimumPoints();
+
+	/**
+	 * Creates a shape from a minimal set of oriented points.
+	 *
+	 * @param points (Input) All the points
+	 * @param normals (Input) Normal of each point
+	 * @param samples (Input) Indexes of the points in the minimal set
+	 * @param output (Output) The found shape
+	 * @return true if successful or false if the set is degenerate
+	 */
+	boolean generate( List<Point3D_F64> points , List<Vector3D_F64> normals , int[] samples , Model output );
+
+	/**
+	 * Distance of the point from the shape's surface. Always positive.
+	 */
+	double distance( Model model , Point3D_F64 point );
+
+	/**
+	 * Absolute value of the cosine of the angle between the shape's surface normal closest to the point and
+	 * the point's normal.
+	 */
+	double normalCos( Model model , Point3D_F64 point , Vector3D_F64 normal );
+
+	/**
+	 * Refines the model using all of its inliers
+	 *
+	 * @param inliers (Input) Points which are inliers to the model
+	 * @param model (Input/Output) Initial estimate and the refined model
+	 * @return true if the model was successfully refined. If false the model must not be modified.
+	 */
+	boolean refine( List<Point3D_F64> inliers , Model model );
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.fitting.sphere.FitSphereToPoints_F64;
+import georegression.fitting.sphere.ModelManagerSphere3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+
+import java.util.List;
+
+/**
+ * Sphere primitive for {@link EfficientRansac_F64}.  Candidates are generated from two oriented points. The
+ * center is the midpoint of the closest points on the two lines defined by the points and their normals.
+ * Refinement is done using {@link FitSphereToPoints_F64}.
+ *
+ * @author Peter Abeles
+ */
+public class PrimitiveSphere_F64 extends ModelManagerSphere3D_F64
+		implements PrimitiveShape_F64<Sphere3D_F64>
+{
+	FitSphereToPoints_F64 fitter = new FitSphereToPoints_F64(100,true);
+	Sphere3D_F64 refined = new Sphere3D_F64();
+
+	@Override
+	public int getMinimumPoints() {
+		return 2;
+	}
+
+	@Override
+	public boolean generate(List<Point3D_F64> points, List<Vector3D_F64> normals, int[] samples,
+							Sphere3D_F64 output) {
+		Point3D_F64 p0 = points.get(samples[0]);
+		Point3D_F64 p1 = points.get(samples[1]);
+		Vector3D_F64 u = normals.get(samples[0]);
+		Vector3D_F64 v = normals.get(samples[1]);
+
+		double wx = p0.x - p1.x, wy = p0.y - p1.y, wz = p0.z - p1.z;
+
+		double a = u.dot(u);
+		double b = u.dot(v);
+		double c = v.dot(v);
+		double d = u.x*wx + u.y*wy + u.z*wz;
+		double e = v.x*wx + v.y*wy + v.z*wz;
+
+		double bottom = a*c - b*b;
+		if( bottom <= 0 )
+			return false;
+
+		// location of the closest points on each line
+		double t0 = (b*e - c*d)/bottom;
+		double t1 = (a*e - b*d)/bottom;
+
+		output.center.x = (p0.x + t0*u.x + p1.x + t1*v.x)/2.0;
+		output.center.y = (p0.y + t0*u.y + p1.y + t1*v.y)/2.0;
+		output.center.z = (p0.z + t0*u.z + p1.z + t1*v.z)/2.0;
+		output.radius = (output.center.distance(p0) + output.center.distance(p1))/2.0;
+
+		return output.radius > 0;
+	}
+
+	@Override
+	public double distance(Sphere3D_F64 model, Point3D_F64 point) {
+		return Math.abs(model.center.distance(point) - model.radius);
+	}
+
+	@Override
+	public double normalCos(Sphere3D_F64 model, Point3D_F64 point, Vector3D_F64 normal) {
+		double dx = point.x - model.center.x;
+		double dy = point.y - model.center.y;
+		double dz = point.z - model.center.z;
+
+		double n = Math.sqrt(dx*dx + dy*dy + dz*dz)*normal.norm();
+		if( n == 0 )
+			return 0;
+		return Math.abs(dx*normal.x + dy*normal.y + dz*normal.z)/n;
+	}
+
+	@Override
+	public boolean refine(List<Point3D_F64> inliers, Sphere3D_F64 model) {
+		if( !fitter.fitModel(inliers,model,refined) )
+			return false;
+		model.set(refined);
+		return true;
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sphere;
+
+import georegression.fitting.FitShapeToPoints_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.factory.LinearSolverFactory_DDRM;
+import org.ejml.interfaces.linsol.LinearSolverDense;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Fits a sphere to a set of points in closed form by minimizing the algebraic error.  The sphere equation is
+ * rewritten into a form which is linear in its parameters:
+ * </p>
+ * <pre>
+ * x<sup>2</sup> + y<sup>2</sup> + z<sup>2</sup> = 2*a*x + 2*b*y + 2*c*z + d
+ * </pre>
+ * <p>
+ * where (a,b,c) is the center and d = r<sup>2</sup> - (a<sup>2</sup> + b<sup>2</sup> + c<sup>2</sup>). The 4 by 4
+ * normal equations are accumulated in a single pass after the points have been centered, then solved. The
+ * algebraic error is biased towards smaller spheres when noise is present, but the solution is typically an
+ * excellent initial estimate for {@link FitSphereToPoints_F64}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FitSphereAlgebraic_F64 implements FitShapeToPoints_F64<Point3D_F64,Sphere3D_F64> {
+
+	private DMatrixRMaj AtA = new DMatrixRMaj(4,4);
+	private DMatrixRMaj Atb = new DMatrixRMaj(4,1);
+	private DMatrixRMaj x = new DMatrixRMaj(4,1);
+
+	private LinearSolverDense<DMatrixRMaj> solver = LinearSolverFactory_DDRM.symmPosDef(4);
+
+	private Point3D_F64 mean = new Point3D_F64();
+
+	@Override
+	public boolean process(List<Point3D_F64> points, Sphere3D_F64 output) {
+		return process(points,null,output);
+	}
+
+	/**
+	 * Fits a sphere to the weighted set of points.
+	 *
+	 * @param points (Input) points
+	 * @param weights (Input) Weight of each point. If null then all points have a weight of one.
+	 * @param output (Output) found sphere
+	 * @return true if successful or false if it failed
+	 */
+	@Override
+	public boolean process(List<Point3D_F64> points, double[] weights, Sphere3D_F64 output) {
+		final int N = points.size();
+		if( N < 4 )
+			throw new IllegalArgumentException("At least 4 points required");
+
+		// center the points to improve numerical stability
+		double totalWeight = 0;
+		mean.set(0,0,0);
+		for (int i = 0; i < N; i++) {
+			Point3D_F64 p = points.get(i);
+			double w = weights == null ? 1 : weights[i];
+			mean.x += w*p.x;
+			mean.y += w*p.y;
+			mean.z += w*p.z;
+			totalWeight += w;
+		}
+		if( totalWeight <= 0 )
+			return false;
+		mean.divideIP(totalWeight);
+
+		AtA.zero();
+		Atb.zero();
+		double[] A = AtA.data;
+		double[] b = Atb.data;
+
+		for (int i = 0; i < N; i++) {
+			Point3D_F64 p = points.get(i);
+			double w = weights == null ? 1 : weights[i];
+
+			double x = p.x - mean.x;
+			double y = p.y - mean.y;
+			double z = p.z - mean.z;
+			double rr = x*x + y*y + z*z;
+
+			// row of A is [2x 2y 2z 1]. The factor of 2 is applied after the loop
+			A[0] += w*x*x; A[1] += w*x*y; A[2]  += w*x*z; A[3]  += w*x;
+			               A[5] += w*y*y; A[6]  += w*y*z; A[7]  += w*y;
+			                              A[10] += w*z*z; A[11] += w*z;
+
+			b[0] += w*x*rr; b[1] += w*y*rr; b[2] += w*z*rr; b[3] += w*rr;
+		}
+
+		// apply the factor of 2 and fill in the lower triangle
+		for (int row = 0; row < 3; row++) {
+			for (int col = row; col < 3; col++) {
+				A[row*4+col] *= 4;
+				A[col*4+row] = A[row*4+col];
+			}
+			A[row*4+3] *= 2;
+			A[12+row] = A[row*4+3];
+			b[row] *= 2;
+		}
+		A[15] = totalWeight;
+
+		if( !solver.setA(AtA) )
+			return false;
+		solver.solve(Atb,this.x);
+
+		double a = this.x.data[0], bb = this.x.data[1], c = this.x.data[2], d = this.x.data[3];
+
+		double r2 = d + a*a + bb*bb + c*c;
+		if( r2 < 0 )
+			return false;
+
+		output.center.set(mean.x + a, mean.y + bb, mean.z + c);
+		output.radius = Math.sqrt(r2);
+
+		return true;
+	}
+}
@@ -18,6 +18,8 @@
 
 package georegression.fitting.sphere;
 
+import georegression.fitting.LevenbergMarquardtNormal;
+import georegression.fitting.NormalEquationsConcurrent;
 import georegression.misc.GrlConstants;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.shapes.Sphere3D_F64;
@@ -28,7 +30,16 @@ import org.ddogleg.optimization.UnconstrainedLeastSquares;
 import java.util.List;
 
 /**
+ * <p>
  * {@link UnconstrainedLeastSquares} fitting of 3D points to a sphere.
+ * </p>
+ *
+ * <p>
+ * Two solvers are supported. A generic {@link UnconstrainedLeastSquares} which is provided the full M by 4
+ * Jacobian or {@link LevenbergMarquardtNormal} which only needs the 4 by 4 normal equations. The latter's memory
+ * usage is constant no matter how many points there are and no work space is declared after the first call.
+ * If no initial estimate is provided then one is found using {@link FitSphereAlgebraic_F64}.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -38,8 +49,13 @@ public class FitSphereToPoints_F64 implements ModelFitter<Sphere3D_F64,Point3D_F
 	private SphereToPointSignedDistance_F64 function = new SphereToPointSignedDistance_F64();
 	private SphereToPointSignedDistanceJacobian_F64 jacobian = new SphereToPointSignedDistanceJacobian_F64();
 
-	// The solver
+	// The solver. Only one of these two will be not null
 	private UnconstrainedLeastSquares optimizer;
+	private LevenbergMarquardtNormal optimizerNormal;
+
+	// used to find an initial estimate when one is not provided
+	private FitSphereAlgebraic_F64 algebraic = new FitSphereAlgebraic_F64();
+	private Sphere3D_F64 estimate = new Sphere3D_F64();
 
 	// need to convert sphere to double[]
 	private /**/double[] param = new /**/double[4];
@@ -70,6 +86,25 @@ public class FitSphereToPoints_F64 implements ModelFitter<Sphere3D_F64,Point3D_F
 		this.gtol = gtol;
 	}
 
+	/**
+	 * Constructor which uses a solver that works directly off of the normal equations.
+	 *
+	 * @param optimizer Optimization algorithm
+	 * @param maxIterations Maximum number of iterations that the optimizer can perform. Try 100
+	 * @param ftol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 * @param gtol Convergence tolerance. See {@link LevenbergMarquardtNormal}.
+	 */
+	public FitSphereToPoints_F64(LevenbergMarquardtNormal optimizer,
+								 int maxIterations, double ftol, double gtol) {
+		this.optimizerNormal = optimizer;
+		this.maxIterations = maxIterations;
+		this.ftol = ftol;
+		this.gtol = gtol;
+
+		// the number of parameters never changes so this only needs to be done once
+		optimizer.setFunction(jacobian);
+	}
+
 	/**
 	 * Simplified constructor.  Only process access to the maximum number of iterations.
 	 * @param maxIterations Maximum number of iterations.  Try 100
@@ -78,23 +113,83 @@ public class FitSphereToPoints_F64 implements ModelFitter<Sphere3D_F64,Point3D_F
 		this(FactoryOptimization.leastSquaresLM(1e-3,false),maxIterations, GrlConstants.DCONV_TOL_B,0);
 	}
 
+	/**
+	 * Simplified constructor.
+	 *
+	 * @param maxIterations Maximum number of iterations.  Try 100
+	 * @param normalEquations If true then the 4 by 4 normal equations are used instead of the M by 4 Jacobian.
+	 */
+	public FitSphereToPoints_F64( int maxIterations , boolean normalEquations ) {
+		this.maxIterations = maxIterations;
+		this.ftol = GrlConstants.DCONV_TOL_B;
+		this.gtol = 0;
+
+		// only declare the optimizer which is used
+		if( normalEquations ) {
+			this.optimizerNormal = new LevenbergMarquardtNormal(1e-3);
+			this.optimizerNormal.setFunction(jacobian);
+		} else {
+			this.optimizer = FactoryOptimization.leastSquaresLM(1e-3,false);
+		}
+	}
+
+	/**
+	 * Specifies if the normal equations should be computed in parallel by splitting the points into chunks.
+	 * Only has an effect when the normal equations solver is used.
+	 *
+	 * @param concurrent true to compute the normal equations in parallel
+	 */
+	public void setConcurrent( boolean concurrent ) {
+		if( optimizerNormal == null )
+			return;
+		if( concurrent )
+			optimizerNormal.setFunction(new NormalEquationsConcurrent(jacobian));
+		else
+			optimizerNormal.setFunction(jacobian);
+	}
+
+	/**
+	 * Fits a sphere to the points.
+	 *
+	 * @param dataSet (Input) points
+	 * @param initial (Input) Initial estimate of the sphere. If null an algebraic fit is used.
+	 * @param found (Output) found sphere
+	 * @return true if successful
+	 */
 	@Override
 	public boolean fitModel(List<Point3D_F64> dataSet, Sphere3D_F64 initial, Sphere3D_F64 found) {
 
+		if( initial == null ) {
+			if( !algebraic.process(dataSet,estimate) )
+				return false;
+			initial = estimate;
+		}
+
 		codec.encode(initial,param);
 
 		function.setPoints(dataSet);
 		jacobian.setPoints(dataSet);
 
-		optimizer.setFunction(function,jacobian);
-		optimizer.initialize(param,ftol,gtol);
+		if( optimizerNormal != null ) {
+			optimizerNormal.initialize(param,ftol,gtol);
 
-		for( int i = 0; i < maxIterations; i++ ) {
-			if( optimizer.iterate() )
-				break;
-		}
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizerNormal.iterate() )
+					break;
+			}
+
+			codec.decode(optimizerNormal.getParameters(),found);
+		} else {
+			optimizer.setFunction(function,jacobian);
+			optimizer.initialize(param,ftol,gtol);
 
-		codec.decode(optimizer.getParameters(),found);
+			for( int i = 0; i < maxIterations; i++ ) {
+				if( optimizer.iterate() )
+					break;
+			}
+
+			codec.decode(optimizer.getParameters(),found);
+		}
 
 		return true;
 	}
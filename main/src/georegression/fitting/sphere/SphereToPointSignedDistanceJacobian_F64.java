@@ -20,6 +20,9 @@ package georegression.fitting.sphere;
 
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.shapes.Sphere3D_F64;
+import georegression.fitting.NormalEquationsConcurrent;
+import georegression.fitting.NormalEquationsFunction;
+import georegression.fitting.NormalEquationsPartial;
 import org.ddogleg.optimization.functions.FunctionNtoMxN;
 import org.ejml.data.DMatrixRMaj;
 
@@ -29,13 +32,15 @@ import java.util.List;
 //CUSTOM ignore DMatrixRMaj;
 
 /**
- * Jacobian of {@link SphereToPointSignedDistance_F64}.
+ * Jacobian of {@link SphereToPointSignedDistance_F64}.  Can also directly compute the 4 by 4 normal equations
+ * without declaring the full Jacobian, see {@link NormalEquationsFunction}.  Each point is an independent term
+ * so the normal equations can be computed in parallel using {@link NormalEquationsConcurrent}.
  *
  * @author Peter Abeles
  */
 // DESIGN NOTE: Could speed up by coupling it to the distance function.  That way distance would only need
 //              to be computed once.
-public class SphereToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN< /**/DMatrixRMaj > {
+public class SphereToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN< /**/DMatrixRMaj >, NormalEquationsPartial {
 
 	// model of the sphere
 	private Sphere3D_F64 sphere = new Sphere3D_F64();
@@ -76,6 +81,64 @@ public class SphereToPointSignedDistanceJacobian_F64 implements FunctionNtoMxN<
 		}
 	}
 
+	@Override
+	public int getNumOfTerms() {
+		return points.size();
+	}
+
+	@Override
+	public /**/double accumulate( /**/double[] input, /**/DMatrixRMaj JtJ, /**/DMatrixRMaj Jtr) {
+		JtJ.reshape(4,4);
+		Jtr.reshape(4,1);
+		JtJ.zero();
+		Jtr.zero();
+
+		/**/double sumSq = accumulate(input,0,points.size(),JtJ,Jtr);
+
+		NormalEquationsConcurrent.copyUpperToLower(JtJ);
+
+		return sumSq;
+	}
+
+	@Override
+	public /**/double accumulate( /**/double[] input, int first, int last, /**/DMatrixRMaj JtJ, /**/DMatrixRMaj Jtr) {
+		// parameters are decoded into local variables so that it can be called concurrently
+		double cx = (double)input[0];
+		double cy = (double)input[1];
+		double cz = (double)input[2];
+		double radius = (double)input[3];
+
+		/**/double[] A = JtJ.data;
+		/**/double[] b = Jtr.data;
+		/**/double sumSq = 0;
+
+		for( int i = first; i < last; i++ ) {
+			Point3D_F64 p = points.get(i);
+
+			double dx = cx - p.x;
+			double dy = cy - p.y;
+			double dz = cz - p.z;
+			double euclidean = Math.sqrt(dx*dx + dy*dy + dz*dz);
+
+			double r = euclidean - radius;
+			double jx = dx/euclidean;
+			double jy = dy/euclidean;
+			double jz = dz/euclidean;
+
+			// Only the upper triangle is computed. The last column of J is -1
+			A[0] += jx*jx; A[1] += jx*jy; A[2]  += jx*jz; A[3]  -= jx;
+			               A[5] += jy*jy; A[6]  += jy*jz; A[7]  -= jy;
+			                              A[10] += jz*jz; A[11] -= jz;
+			                                              A[15] += 1;
+
+			b[0] += jx*r; b[1] += jy*r; b[2] += jz*r; b[3] -= r;
+
+			sumSq += r*r;
+		}
+
+		return sumSq;
+	}
+
 	@Override
 	public /**/DMatrixRMaj declareMatrixMxN() {
 		return new /**/DMatrixRMaj(getNumOfOutputsM(),getNumOfInputsN());
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.struct.shapes.PackedContour2D;
+import georegression.struct.shapes.Rectangle2D_I32;
+
+/**
+ * <p>
+ * Functions for {@link PackedContour2D}. The contour is treated as a polygon with an edge from the last point back
+ * to the first. Computations use 64-bit integer arithmetic and are exact when the magnitude of every coordinate
+ * is less than 2<sup>30</sup>, with the exception of {@link #moments} which requires it to be less
+ * than 2<sup>14</sup>. Both are much larger than any image.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class UtilPackedContour2D {
+
+	/**
+	 * Computes twice the signed area of the polygon. Positive if counter-clockwise. Exact.
+	 *
+	 * @param contour Polygon
+	 * @return twice the signed area
+	 */
+	public static long area2( PackedContour2D contour ) {
+		final int N = contour.size();
+		long sum = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			sum += (long)contour.getX(j)*contour.getY(i) - (long)contour.getX(i)*contour.getY(j);
+		}
+		return sum;
+	}
+
+	/**
+	 * Area of a simple polygon
+	 *
+	 * @param contour Polygon
+	 * @return area
+	 */
+	public static double area( PackedContour2D contour ) {
+		return Math.abs(area2(contour))/2.0;
+	}
+
+	/**
+	 * Returns true if the polygon is in counter-clockwise order. Exact.
+	 */
+	public static boolean isCCW( PackedContour2D contour ) {
+		return area2(contour) > 0;
+	}
+
+	/**
+	 * Length of the contour.
+	 *
+	 * @param contour The contour
+	 * @param closed If true the length of the edge from the last point to the first is included
+	 * @return length
+	 */
+	public static double perimeter( PackedContour2D contour , boolean closed ) {
+		final int N = contour.size();
+		if( N < 2 )
+			return 0;
+		double total = 0;
+		for (int i = 1; i < N; i++) {
+			total += distance(contour, i-1, i);
+		}
+		if( closed )
+			total += distance(contour, N-1, 0);
+		return total;
+	}
+
+	private static double distance( PackedContour2D contour , int a , int b ) {
+		double dx = contour.getX(b) - contour.getX(a);
+		double dy = contour.getY(b) - contour.getY(a);
+		return Math.sqrt(dx*dx + dy*dy);
+	}
+
+	/**
+	 * <p>
+	 * Computes the area moments of a simple polygon using Green's theorem. To be exact the results are
+	 * scaled by an integer. Counter-clockwise polygons have positive moments. Intermediate sums can wrap around,
+	 * but the final values are exact when the magnitude of every coordinate is less than 2<sup>14</sup>.
+	 * </p>
+	 *
+	 * <pre>
+	 * moments[0] = 2*m00
+	 * moments[1] = 6*m10
+	 * moments[2] = 6*m01
+	 * moments[3] = 12*m20
+	 * moments[4] = 24*m11
+	 * moments[5] = 12*m02
+	 * </pre>
+	 *
+	 * @param contour Polygon
+	 * @param moments (Output) Scaled moments. Must have at least 6 elements.
+	 */
+	public static void moments( PackedContour2D contour , long[] moments ) {
+		final int N = contour.size();
+		long a = 0, mx = 0, my = 0, mxx = 0, mxy = 0, myy = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			long x0 = contour.getX(j), y0 = contour.getY(j);
+			long x1 = contour.getX(i), y1 = contour.getY(i);
+			long cross = x0*y1 - x1*y0;
+
+			a += cross;
+			mx += cross*(x0 + x1);
+			my += cross*(y0 + y1);
+			mxx += cross*(x0*x0 + x0*x1 + x1*x1);
+			mxy += cross*(x0*y1 + 2*x0*y0 + 2*x1*y1 + x1*y0);
+			myy += cross*(y0*y0 + y0*y1 + y1*y1);
+		}
+		moments[0] = a;
+		moments[1] = mx;
+		moments[2] = my;
+		moments[3] = mxx;
+		moments[4] = mxy;
+		moments[5] = myy;
+	}
+
+	/**
+	 * Finds the bounding rectangle. Note (x0,y0) is inclusive and (x1,y1) is exclusive.
+	 *
+	 * @param contour (Input) Contour
+	 * @param rectangle (Output) Bounding rectangle
+	 */
+	public static void bounding( PackedContour2D contour , Rectangle2D_I32 rectangle ) {
+		rectangle.x0 = Integer.MAX_VALUE;
+		rectangle.y0 = Integer.MAX_VALUE;
+		rectangle.x1 = Integer.MIN_VALUE;
+		rectangle.y1 = Integer.MIN_VALUE;
+
+		for (int i = 0; i < contour.size(); i++) {
+			int x = contour.getX(i);
+			int y = contour.getY(i);
+
+			if( x < rectangle.x0 )
+				rectangle.x0 = x;
+			if( x > rectangle.x1 )
+				rectangle.x1 = x;
+			if( y < rectangle.y0 )
+				rectangle.y0 = y;
+			if( y > rectangle.y1 )
+				rectangle.y1 = y;
+		}
+
+		rectangle.x1++;
+		rectangle.y1++;
+	}
+
+	/**
+	 * Determines if the polygon is convex. Collinear and duplicate points are allowed. Unlike only checking the
+	 * sign of each turn this also rejects polygons which wind around more than once, e.g. a star. Exact.
+	 *
+	 * @param contour Polygon
+	 * @return true if convex
+	 */
+	public static boolean isConvex( PackedContour2D contour ) {
+		final int N = contour.size();
+		if( N < 3 )
+			return false;
+
+		int sign = 0;
+		// number of times the direction along the x-axis changes
+		int flips = 0;
+		int prevDirection = 0, firstDirection = 0;
+
+		for (int i = 0; i < N; i++) {
+			int j = (i+1)%N;
+			int k = (i+2)%N;
+
+			long dx0 = contour.getX(j) - contour.getX(i);
+			long dy0 = contour.getY(j) - contour.getY(i);
+			long dx1 = contour.getX(k) - contour.getX(j);
+			long dy1 = contour.getY(k) - contour.getY(j);
+
+			long cross = dx0*dy1 - dy0*dx1;
+			if( cross != 0 ) {
+				int s = cross > 0 ? 1 : -1;
+				if( sign == 0 )
+					sign = s;
+				else if( sign != s )
+					return false;
+			}
+
+			if( dx0 != 0 ) {
+				int direction = dx0 > 0 ? 1 : -1;
+				if( prevDirection == 0 )
+					firstDirection = direction;
+				else if( direction != prevDirection )
+					flips++;
+				prevDirection = direction;
+			}
+		}
+		if( prevDirection != firstDirection )
+			flips++;
+
+		// a convex polygon goes right then left, or the reverse, only once
+		return sign != 0 && flips <= 2;
+	}
+
+	/**
+	 * Determines if the point is inside the polygon using the winding number. Points on the boundary are considered
+	 * inside. Exact.
+	 *
+	 * @param contour Polygon
+	 * @param x x-coordinate of the point
+	 * @param y y-coordinate of the point
+	 * @return true if inside or on the boundary
+	 */
+	public static boolean contains( PackedContour2D contour , int x , int y ) {
+		final int N = contour.size();
+		int winding = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			long ax = contour.getX(j), ay = contour.getY(j);
+			long bx = contour.getX(i), by = contour.getY(i);
+
+			long cross = (bx - ax)*(y - ay) - (by - ay)*(x - ax);
+
+			// on the boundary
+			if( cross == 0 && Math.min(ax, bx) <= x && x <= Math.max(ax, bx) &&
+					Math.min(ay, by) <= y && y <= Math.max(ay, by) )
+				return true;
+
+			if( ay <= y ) {
+				// upward crossing with the point to the left
+				if( by > y && cross > 0 )
+					winding++;
+			} else if( by <= y && cross < 0 ) {
+				// downward crossing with the point to the right
+				winding--;
+			}
+		}
+		return winding != 0;
+	}
+}
@@ -18,6 +18,7 @@
 
 package georegression.geometry;
 
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.GeoTuple2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.shapes.Rectangle2D_F64;
@@ -258,4 +259,20 @@ public class UtilPoint2D_F64 {
 
 		return out;
 	}
+
+	/**
+	 * Finds the minimal area {@link Rectangle2D_F64} which contains all the points in a packed array.
+	 *
+	 * @param xy Input: Points packed as x0,y0,x1,y1,...
+	 * @param length Input: Number of points
+	 * @param bounding Output: Bounding rectangle
+	 */
+	public static Rectangle2D_F64 bounding( double[] xy , int length , Rectangle2D_F64 bounding ) {
+		if( bounding == null )
+			bounding = new Rectangle2D_F64();
+
+		PackedKernels_F64.INSTANCE.bounding2(xy,length,bounding);
+
+		return bounding;
+	}
 }
@@ -18,6 +18,7 @@
 
 package georegression.geometry;
 
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.shapes.Box3D_F64;
 
@@ -188,4 +189,15 @@ public class UtilPoint3D_F64 {
 		bounding.p0.set(minX,minY,minZ);
 		bounding.p1.set(maxX, maxY, maxZ);
 	}
+
+	/**
+	 * Finds the minimal volume {@link Box3D_F64} which contains all the points in a packed array.
+	 *
+	 * @param xyz Input: Points packed as x0,y0,z0,x1,y1,z1,...
+	 * @param length Input: Number of points
+	 * @param bounding Output: Bounding box
+	 */
+	public static void boundingBox( double[] xyz , int length , Box3D_F64 bounding ) {
+		PackedKernels_F64.INSTANCE.bounding3(xyz,length,bounding);
+	}
 }
@@ -19,6 +19,7 @@
 package georegression.geometry;
 
 import georegression.geometry.algs.AndrewMonotoneConvexHull_F64;
+import georegression.geometry.predicates.RobustPredicates;
 import georegression.metric.Distance2D_F64;
 import georegression.struct.line.LineSegment2D_F64;
 import georegression.struct.point.Point2D_F64;
@@ -71,6 +72,32 @@ public class UtilPolygons2D_F64 {
 		return( numPositive == 0 || numPositive == N );
 	}
 
+	/**
+	 * Same as {@link #isConvex(Polygon2D_F64)} but the turn at each vertex is computed using
+	 * {@link RobustPredicates}, which makes it consistent for nearly collinear vertexes.
+	 *
+	 * @param poly Polygon
+	 * @return true if convex and false if concave
+	 */
+	public static boolean isConvexRobust( Polygon2D_F64 poly ) {
+		final int N = poly.size();
+		int numPositive = 0;
+		for (int i = 0; i < N; i++) {
+			int j = (i+1)%N;
+			int k = (i+2)%N;
+
+			Point2D_F64 a = poly.vertexes.data[i];
+			Point2D_F64 b = poly.vertexes.data[j];
+			Point2D_F64 c = poly.vertexes.data[k];
+
+			// same sign as (a-b) cross (c-b)
+			if( RobustPredicates.orient2d(a.x,a.y,c.x,c.y,b.x,b.y) > 0 )
+				numPositive++;
+		}
+
+		return( numPositive == 0 || numPositive == N );
+	}
+
 	/**
 	 * Converts a rectangle into a quadrilateral
 	 *
@@ -271,7 +298,36 @@ public class UtilPolygons2D_F64 {
 	}
 
 	/**
-	 * Computes the average of all the vertexes
+	 * Same as {@link #isCCW(List)} but the turn at each vertex is computed using
+	 * {@link RobustPredicates}, which makes it consistent for nearly collinear vertexes.
+	 *
+	 * @param polygon List of ordered points which define a polygon
+	 * @return true if CCW and false if CW
+	 */
+	public static boolean isCCWRobust( List<Point2D_F64> polygon ) {
+		final int N = polygon.size();
+		int sign = 0;
+		for (int i = 0; i < N; i++) {
+			int j = (i+1)%N;
+			int k = (i+2)%N;
+
+			Point2D_F64 a = polygon.get(i);
+			Point2D_F64 b = polygon.get(j);
+			Point2D_F64 c = polygon.get(k);
+
+			// same sign as (a-b) cross (c-b)
+			if( RobustPredicates.orient2d(a.x,a.y,c.x,c.y,b.x,b.y) > 0 )
+				sign++;
+			else
+				sign--;
+		}
+
+		return sign < 0;
+	}
+
+	/**
+	 * Computes the average of all the vertexes. This is not the centroid of the polygon's area, for that
+	 * see {@link georegression.geometry.algs.PolygonMoments_F64}.
 	 * @param input (input) polygon
 	 * @param average (output) average point
 	 */
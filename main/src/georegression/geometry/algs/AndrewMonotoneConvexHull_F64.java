@@ -18,6 +18,7 @@
 
 package georegression.geometry.algs;
 
+import georegression.geometry.predicates.RobustPredicates;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.shapes.Polygon2D_F64;
 import org.ddogleg.sorting.QuickSortComparator;
@@ -37,6 +38,9 @@ public class AndrewMonotoneConvexHull_F64 {
 
 	FastQueue<Point2D_F64> work = new FastQueue<Point2D_F64>(Point2D_F64.class,false);
 
+	// if true then exact orientation tests are used
+	boolean robust = false;
+
 	public AndrewMonotoneConvexHull_F64() {
 
 		// Sort the points based on their x value.  If the same then use y value
@@ -81,7 +85,7 @@ public class AndrewMonotoneConvexHull_F64 {
 		for (int i = 0; i < length; i++) {
 			Point2D_F64 p = input[i];
 			//Contains at least 2 points and the last two points and 'p' do not make a counter-clockwise turn
-			while( work.size() >= 2 && subtractThenCross(p,work.getTail(0),work.getTail(1)) >= 0) {
+			while( work.size() >= 2 && notCounterClockwise(p,work.getTail(0),work.getTail(1))) {
 				// remove the last points from the hull
 				work.removeTail();
 			}
@@ -97,7 +101,7 @@ public class AndrewMonotoneConvexHull_F64 {
 		{
 			//Contains at least 2 points and the last two points and 'p' do not make a counter-clockwise turn
 			Point2D_F64 p = input[i];
-			while( work.size() >= minSize && subtractThenCross(p,work.getTail(0),work.getTail(1)) >= 0 ) {
+			while( work.size() >= minSize && notCounterClockwise(p,work.getTail(0),work.getTail(1)) ) {
 				work.removeTail();
 			}
 			// append p to the end
@@ -114,6 +118,17 @@ public class AndrewMonotoneConvexHull_F64 {
 		}
 	}
 
+	/**
+	 * Checks to see if the cross product, (a-b) cross (a-c), is not negative.  Uses exact predicates if
+	 * robust is true.
+	 */
+	private boolean notCounterClockwise( Point2D_F64 a , Point2D_F64 b , Point2D_F64 c ) {
+		if( robust )
+			return RobustPredicates.orient2d(a.x,a.y,b.x,b.y,c.x,c.y) >= 0;
+		else
+			return subtractThenCross(a,b,c) >= 0;
+	}
+
 	/**
 	 * Performs the following operation: output = z-component[ (a-b) cross (a-c) ]
 	 */
@@ -127,4 +142,15 @@ public class AndrewMonotoneConvexHull_F64 {
 		return x0 * y1 - y0 * x1;
 	}
 
+	public boolean isRobust() {
+		return robust;
+	}
+
+	/**
+	 * If true then orientation tests are done using {@link RobustPredicates} and will give the correct
+	 * answer for nearly collinear points.  Slightly slower when there are many nearly collinear points.
+	 */
+	public void setRobust(boolean robust) {
+		this.robust = robust;
+	}
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.shapes.PackedContour2D;
+import georegression.struct.shapes.PackedContour2D_I32;
+import org.ddogleg.struct.GrowQueue_I64;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes the convex hull of a set of integer points using Andrew's monotone chain algorithm.  Each point is
+ * packed into a single long which sorts by x and then y, so sorting is done on a primitive array with no
+ * comparator. Orientation tests use 64-bit integer arithmetic and are exact when the magnitude of every
+ * coordinate is less than 2<sup>30</sup>. O(n log n) for sort and O(N) for the hull.
+ * </p>
+ *
+ * <p>
+ * The hull is in counter-clockwise order and does not contain duplicate or collinear points.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AndrewMonotoneConvexHull_I32 {
+
+	// sorted points encoded as longs
+	GrowQueue_I64 sorted = new GrowQueue_I64();
+
+	/**
+	 * Computes the convex hull.
+	 *
+	 * @param input (Input) Points. Not modified.
+	 * @param hull (Output) Convex hull in counter-clockwise order
+	 */
+	public void process( PackedContour2D input , PackedContour2D_I32 hull ) {
+		sorted.resize(input.size());
+		for (int i = 0; i < input.size(); i++) {
+			sorted.data[i] = encode(input.getX(i), input.getY(i));
+		}
+		Arrays.sort(sorted.data, 0, sorted.size);
+
+		// remove duplicates
+		int length = 0;
+		for (int i = 0; i < sorted.size; i++) {
+			if( length == 0 || sorted.data[length-1] != sorted.data[i] )
+				sorted.data[length++] = sorted.data[i];
+		}
+
+		hull.reset();
+		if( length < 3 ) {
+			for (int i = 0; i < length; i++) {
+				hull.add(decodeX(sorted.data[i]), decodeY(sorted.data[i]));
+			}
+			return;
+		}
+
+		hull.reserve(2*length);
+		int[] h = hull.data;
+		int k = 0;
+
+		// construct the lower hull
+		for (int i = 0; i < length; i++) {
+			int x = decodeX(sorted.data[i]);
+			int y = decodeY(sorted.data[i]);
+			while( k >= 2 && !isCounterClockwise(h, k-2, k-1, x, y) )
+				k--;
+			h[k*2] = x;
+			h[k*2+1] = y;
+			k++;
+		}
+
+		// construct the upper hull
+		int minSize = k+1;
+		for (int i = length-2; i >= 0; i--) {
+			int x = decodeX(sorted.data[i]);
+			int y = decodeY(sorted.data[i]);
+			while( k >= minSize && !isCounterClockwise(h, k-2, k-1, x, y) )
+				k--;
+			h[k*2] = x;
+			h[k*2+1] = y;
+			k++;
+		}
+
+		// the first point was added again at the end
+		hull.size = k-1;
+	}
+
+	/**
+	 * True if a, b, (x,y) makes a strictly counter-clockwise turn
+	 */
+	private static boolean isCounterClockwise( int[] h , int a , int b , int x , int y ) {
+		long ax = h[a*2], ay = h[a*2+1];
+		long x0 = h[b*2] - ax;
+		long y0 = h[b*2+1] - ay;
+		long x1 = x - ax;
+		long y1 = y - ay;
+
+		return x0*y1 - y0*x1 > 0;
+	}
+
+	/**
+	 * Encodes the point so that the natural order of the long is the same as sorting by x and then y
+	 */
+	static long encode( int x , int y ) {
+		return ((long)x << 32) | ((long)y - Integer.MIN_VALUE);
+	}
+
+	static int decodeX( long value ) {
+		return (int)(value >> 32);
+	}
+
+	static int decodeY( long value ) {
+		return (int)value ^ Integer.MIN_VALUE;
+	}
+}
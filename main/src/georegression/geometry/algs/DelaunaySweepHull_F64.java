@@ -0,0 +1,565 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * This file is a port of Delaunator, which is distributed under the following license:
+ *
+ * ISC License
+ *
+ * Copyright (c) 2017, Mapbox
+ *
+ * Permission to use, copy, modify, and/or distribute this software for any purpose
+ * with or without fee is hereby granted, provided that the above copyright notice
+ * and this permission notice appear in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS" AND THE AUTHOR DISCLAIMS ALL WARRANTIES WITH
+ * REGARD TO THIS SOFTWARE INCLUDING ALL IMPLIED WARRANTIES OF MERCHANTABILITY AND
+ * FITNESS. IN NO EVENT SHALL THE AUTHOR BE LIABLE FOR ANY SPECIAL, DIRECT,
+ * INDIRECT, OR CONSEQUENTIAL DAMAGES OR ANY DAMAGES WHATSOEVER RESULTING FROM LOSS
+ * OF USE, DATA OR PROFITS, WHETHER IN AN ACTION OF CONTRACT, NEGLIGENCE OR OTHER
+ * TORTIOUS ACTION, ARISING OUT OF OR IN CONNECTION WITH THE USE OR PERFORMANCE OF
+ * THIS SOFTWARE.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.predicates.RobustPredicates;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.TriangleMesh2D;
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.GrowQueue_F64;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Delaunay triangulation of a set of 2D points using the sweep-hull algorithm [1]. Points are sorted by their
+ * distance from the circumcenter of a seed triangle and are then added one at a time to a convex hull which grows
+ * outwards. Each new point is connected to the hull edges which it can see and the Delaunay condition is restored
+ * with edge flips. A hash of hull vertexes by their angle around the center is used to quickly find a visible edge.
+ * Orientation and in-circle tests are done with {@link RobustPredicates} so degenerate inputs, e.g. grids, are
+ * handled correctly.
+ * </p>
+ *
+ * <p>
+ * The output is a {@link TriangleMesh2D} with counter-clockwise triangles, adjacency between triangles, and the
+ * convex hull. Duplicate points, and points within round off error of a point which has already been added, are
+ * skipped and not referenced by any triangle. If all the points are collinear then there are no triangles and the
+ * hull contains the unique points sorted along the line. Internal buffers are reused between calls.
+ * </p>
+ *
+ * <p>
+ * The implementation is a port of Delaunator [2], modified to use robust predicates and to reuse memory. Delaunator
+ * is Copyright (c) 2017, Mapbox and is distributed under the ISC license, which is reproduced at the top of this file.
+ * </p>
+ *
+ * <p>
+ * [1] Sinclair, David. "S-hull: a fast radial sweep-hull routine for Delaunay triangulation." arXiv:1604.01428 (2016)<br>
+ * [2] Delaunator, https://github.com/mapbox/delaunator
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DelaunaySweepHull_F64 {
+
+	// reference to packed point coordinates which are being processed
+	private double[] coords;
+
+	// center which the points are sorted around
+	private double cx,cy;
+
+	// convex hull as a doubly linked list of vertexes
+	private int[] hullPrev = new int[0];
+	private int[] hullNext = new int[0];
+	// hull half edge which starts at each hull vertex
+	private int[] hullTri = new int[0];
+	// hash of hull vertexes by their pseudo-angle around the center
+	private int[] hullHash = new int[0];
+	private int hashSize;
+	private int hullStart;
+
+	// order points are added in and their distance from the center
+	private int[] ids = new int[0];
+	private QuickSort_F64 sorter = new QuickSort_F64();
+	private GrowQueue_F64 dists = new GrowQueue_F64();
+
+	// used to pack a list of points
+	private GrowQueue_F64 packed = new GrowQueue_F64();
+	// points in the order they are added
+	private GrowQueue_F64 sorted = new GrowQueue_F64();
+
+	// edges which need to be checked after a flip
+	private int[] edgeStack = new int[512];
+
+	// storage for the triangulation being constructed
+	private int[] triangles;
+	private int[] halfedges;
+	private int trianglesLen;
+
+	/**
+	 * Computes the Delaunay triangulation of a list of points
+	 *
+	 * @param points (Input) Points which are to be triangulated
+	 * @param output (Output) The triangulation. Vertexes are indexes in the list.
+	 */
+	public void process( List<Point2D_F64> points , TriangleMesh2D output ) {
+		packed.resize(points.size()*2);
+		for (int i = 0; i < points.size(); i++) {
+			Point2D_F64 p = points.get(i);
+			packed.data[i*2] = p.x;
+			packed.data[i*2+1] = p.y;
+		}
+		process(packed.data, points.size(), output);
+	}
+
+	/**
+	 * Computes the Delaunay triangulation of points packed into an array as x,y pairs
+	 *
+	 * @param xy (Input) Packed point coordinates
+	 * @param numPoints Number of points in the array
+	 * @param output (Output) The triangulation. Vertexes are indexes of points in the array.
+	 */
+	public void process( double[] xy , int numPoints , TriangleMesh2D output ) {
+		output.reset();
+		if( numPoints == 0 )
+			return;
+
+		this.coords = xy;
+		declareMemory(numPoints);
+
+		// center of the bounding box
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < numPoints; i++) {
+			double x = xy[i*2], y = xy[i*2+1];
+			if( x < minX ) minX = x;
+			if( y < minY ) minY = y;
+			if( x > maxX ) maxX = x;
+			if( y > maxY ) maxY = y;
+		}
+		double centerX = (minX + maxX)/2;
+		double centerY = (minY + maxY)/2;
+
+		// seed point closest to the center
+		int i0 = 0;
+		double minDist = Double.MAX_VALUE;
+		for (int i = 0; i < numPoints; i++) {
+			double d = dist2(centerX, centerY, xy[i*2], xy[i*2+1]);
+			if( d < minDist ) {
+				i0 = i;
+				minDist = d;
+			}
+		}
+		double i0x = xy[i0*2], i0y = xy[i0*2+1];
+
+		// point closest to the seed
+		int i1 = -1;
+		minDist = Double.MAX_VALUE;
+		for (int i = 0; i < numPoints; i++) {
+			if( i == i0 )
+				continue;
+			double d = dist2(i0x, i0y, xy[i*2], xy[i*2+1]);
+			if( d < minDist && d > 0 ) {
+				i1 = i;
+				minDist = d;
+			}
+		}
+
+		// third point which forms the smallest circumcircle with the first two. Points which are exactly collinear
+		// with the first two are rejected using the robust predicate, since the circumradius is computed with
+		// round off error and can be finite for a degenerate triangle
+		int i2 = -1;
+		if( i1 >= 0 ) {
+			double i1x = xy[i1*2], i1y = xy[i1*2+1];
+			double minRadius = Double.MAX_VALUE;
+			for (int i = 0; i < numPoints; i++) {
+				if( i == i0 || i == i1 )
+					continue;
+				if( RobustPredicates.orient2d(i0x, i0y, i1x, i1y, xy[i*2], xy[i*2+1]) == 0 )
+					continue;
+				double r = circumradius2(i0x, i0y, i1x, i1y, xy[i*2], xy[i*2+1]);
+				// a valid triangle which is so thin that the radius overflows is only used if there's nothing else
+				if( !(r < Double.MAX_VALUE) )
+					r = Double.MAX_VALUE;
+				if( i2 < 0 || r < minRadius ) {
+					i2 = i;
+					minRadius = r;
+				}
+			}
+		}
+
+		if( i2 < 0 ) {
+			collinear(numPoints, i0, i1, output);
+			return;
+		}
+
+		// make the seed triangle counter-clockwise
+		if( RobustPredicates.orient2d(i0x, i0y, xy[i1*2], xy[i1*2+1], xy[i2*2], xy[i2*2+1]) < 0 ) {
+			int tmp = i1;
+			i1 = i2;
+			i2 = tmp;
+		}
+		circumcenter(i0x, i0y, xy[i1*2], xy[i1*2+1], xy[i2*2], xy[i2*2+1]);
+
+		// sort the points by their distance from the center of the seed triangle
+		for (int i = 0; i < numPoints; i++) {
+			dists.data[i] = dist2(cx, cy, xy[i*2], xy[i*2+1]);
+		}
+		sorter.sort(dists.data, 0, numPoints, ids);
+
+		// Copy the points in the order they are added. Internally points are referenced by this order, which keeps
+		// points that are close together in the triangulation close together in memory.
+		sorted.resize(numPoints*2);
+		int k0 = 0, k1 = 0, k2 = 0;
+		for (int k = 0; k < numPoints; k++) {
+			int i = ids[k];
+			sorted.data[k*2] = xy[i*2];
+			sorted.data[k*2+1] = xy[i*2+1];
+			if( i == i0 ) k0 = k;
+			else if( i == i1 ) k1 = k;
+			else if( i == i2 ) k2 = k;
+		}
+		coords = sorted.data;
+		i0 = k0;
+		i1 = k1;
+		i2 = k2;
+
+		// initialize the hull using the seed triangle
+		hullStart = i0;
+		hullNext[i0] = hullPrev[i2] = i1;
+		hullNext[i1] = hullPrev[i0] = i2;
+		hullNext[i2] = hullPrev[i1] = i0;
+
+		hullTri[i0] = 0;
+		hullTri[i1] = 1;
+		hullTri[i2] = 2;
+
+		for (int i = 0; i < hashSize; i++) {
+			hullHash[i] = -1;
+		}
+		hullHash[hashKey(coords[i0*2], coords[i0*2+1])] = i0;
+		hullHash[hashKey(coords[i1*2], coords[i1*2+1])] = i1;
+		hullHash[hashKey(coords[i2*2], coords[i2*2+1])] = i2;
+
+		int maxTriangles = 2*numPoints - 5;
+		output.triangles.resize(maxTriangles*3);
+		output.halfedges.resize(maxTriangles*3);
+		triangles = output.triangles.data;
+		halfedges = output.halfedges.data;
+		trianglesLen = 0;
+		addTriangle(i0, i1, i2, -1, -1, -1);
+
+		double xp = 0, yp = 0;
+		for (int i = 0; i < numPoints; i++) {
+			double x = coords[i*2], y = coords[i*2+1];
+
+			// skip duplicate points
+			if( i > 0 && x == xp && y == yp )
+				continue;
+			xp = x;
+			yp = y;
+
+			if( i == i0 || i == i1 || i == i2 )
+				continue;
+
+			// find a hull vertex which is close to the point's angle
+			int start = 0;
+			int key = hashKey(x, y);
+			for (int j = 0; j < hashSize; j++) {
+				start = hullHash[(key + j) % hashSize];
+				if( start != -1 && start != hullNext[start] )
+					break;
+			}
+
+			// find an edge on the hull which is visible from the point
+			start = hullPrev[start];
+			int e = start, q;
+			while( !visible(x, y, e, q = hullNext[e]) ) {
+				e = q;
+				if( e == start ) {
+					e = -1;
+					break;
+				}
+			}
+			// the point is on the hull or inside of it. Only possible if it's almost a duplicate
+			if( e == -1 )
+				continue;
+
+			// add the first triangle from the point
+			int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+			hullTri[i] = legalize(t + 2);
+			hullTri[e] = t;
+
+			// walk forward through the hull, adding more triangles and flipping
+			int n = hullNext[e];
+			while( visible(x, y, n, q = hullNext[n]) ) {
+				t = addTriangle(n, i, q, hullTri[i], -1, hullTri[n]);
+				hullTri[i] = legalize(t + 2);
+				hullNext[n] = n; // mark as removed
+				n = q;
+			}
+
+			// walk backward from the other side, adding more triangles and flipping
+			if( e == start ) {
+				while( visible(x, y, q = hullPrev[e], e) ) {
+					t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+					legalize(t + 2);
+					hullTri[q] = t;
+					hullNext[e] = e; // mark as removed
+					e = q;
+				}
+			}
+
+			// update the hull
+			hullStart = hullPrev[i] = e;
+			hullNext[e] = hullPrev[n] = i;
+			hullNext[i] = n;
+
+			hullHash[hashKey(x, y)] = i;
+			hullHash[hashKey(coords[e*2], coords[e*2+1])] = e;
+		}
+
+		// convert back into the original indexes
+		output.triangles.size = trianglesLen;
+		output.halfedges.size = trianglesLen;
+		for (int i = 0; i < trianglesLen; i++) {
+			triangles[i] = ids[triangles[i]];
+		}
+
+		int e = hullStart;
+		do {
+			output.hull.add(ids[e]);
+			e = hullNext[e];
+		} while( e != hullStart );
+	}
+
+	/**
+	 * Handles the case where there's no triangle with a non-zero area. The hull is the points sorted along the line.
+	 */
+	private void collinear( int numPoints , int i0 , int i1 , TriangleMesh2D output ) {
+		if( i1 < 0 ) {
+			// every point is identical
+			output.hull.add(i0);
+			return;
+		}
+
+		double dx = coords[i1*2] - coords[i0*2];
+		double dy = coords[i1*2+1] - coords[i0*2+1];
+		for (int i = 0; i < numPoints; i++) {
+			dists.data[i] = (coords[i*2] - coords[i0*2])*dx + (coords[i*2+1] - coords[i0*2+1])*dy;
+		}
+		sorter.sort(dists.data, 0, numPoints, ids);
+
+		double previous = 0;
+		for (int k = 0; k < numPoints; k++) {
+			int i = ids[k];
+			double d = dists.data[i];
+			if( k == 0 || d > previous ) {
+				output.hull.add(i);
+				previous = d;
+			}
+		}
+	}
+
+	/**
+	 * Restores the Delaunay condition by flipping edges, starting with half edge 'a'. Returns the hull edge which
+	 * starts at the newly added point.
+	 */
+	private int legalize( int a ) {
+		int i = 0;
+		int ar;
+
+		while( true ) {
+			int b = halfedges[a];
+
+			/* if the pair of triangles doesn't satisfy the Delaunay condition
+			 * (p1 is inside the circumcircle of [p0, pr, pl]), flip them,
+			 * then do the same check/flip recursively for the new pair of triangles
+			 *
+			 *           pl                    pl
+			 *          /||\                  /  \
+			 *       al/ || \bl            al/    \a
+			 *        /  ||  \              /      \
+			 *       /  a||b  \    flip    /___ar___\
+			 *     p0\   ||   /p1   =>   p0\---bl---/p1
+			 *        \  ||  /              \      /
+			 *       ar\ || /br             b\    /br
+			 *          \||/                  \  /
+			 *           pr                    pr
+			 */
+			int a0 = a - a % 3;
+			ar = a0 + (a + 2) % 3;
+
+			if( b == -1 ) {
+				// convex hull edge
+				if( i == 0 )
+					break;
+				a = edgeStack[--i];
+				continue;
+			}
+
+			int b0 = b - b % 3;
+			int al = a0 + (a + 1) % 3;
+			int bl = b0 + (b + 2) % 3;
+
+			int p0 = triangles[ar];
+			int pr = triangles[a];
+			int pl = triangles[al];
+			int p1 = triangles[bl];
+
+			boolean illegal = RobustPredicates.incircle(
+					coords[p0*2], coords[p0*2+1], coords[pr*2], coords[pr*2+1],
+					coords[pl*2], coords[pl*2+1], coords[p1*2], coords[p1*2+1]) > 0;
+
+			if( illegal ) {
+				triangles[a] = p1;
+				triangles[b] = p0;
+
+				int hbl = halfedges[bl];
+
+				// edge swapped on the other side of the hull (rare). Fix the reference to the half edge
+				if( hbl == -1 ) {
+					int e = hullStart;
+					do {
+						if( hullTri[e] == bl ) {
+							hullTri[e] = a;
+							break;
+						}
+						e = hullPrev[e];
+					} while( e != hullStart );
+				}
+				link(a, hbl);
+				link(b, halfedges[ar]);
+				link(ar, bl);
+
+				int br = b0 + (b + 1) % 3;
+
+				if( i == edgeStack.length ) {
+					int[] tmp = new int[edgeStack.length*2];
+					System.arraycopy(edgeStack, 0, tmp, 0, i);
+					edgeStack = tmp;
+				}
+				edgeStack[i++] = br;
+			} else {
+				if( i == 0 )
+					break;
+				a = edgeStack[--i];
+			}
+		}
+
+		return ar;
+	}
+
+	/**
+	 * True if the hull edge from vertex a to b can be seen from the point. The hull is counter-clockwise so
+	 * the point must be to the right of the edge.
+	 */
+	private boolean visible( double x , double y , int a , int b ) {
+		return RobustPredicates.orient2d(coords[a*2], coords[a*2+1], coords[b*2], coords[b*2+1], x, y) < 0;
+	}
+
+	private int addTriangle( int i0 , int i1 , int i2 , int a , int b , int c ) {
+		int t = trianglesLen;
+
+		triangles[t] = i0;
+		triangles[t + 1] = i1;
+		triangles[t + 2] = i2;
+
+		link(t, a);
+		link(t + 1, b);
+		link(t + 2, c);
+
+		trianglesLen += 3;
+
+		return t;
+	}
+
+	private void link( int a , int b ) {
+		halfedges[a] = b;
+		if( b != -1 )
+			halfedges[b] = a;
+	}
+
+	/**
+	 * Maps a point's angle around the center into a bin in the hash. Monotonically increases with angle.
+	 */
+	private int hashKey( double x , double y ) {
+		double dx = x - cx;
+		double dy = y - cy;
+		double p = dx/(Math.abs(dx) + Math.abs(dy));
+		double angle = (dy > 0 ? 3 - p : 1 + p)/4;
+		int key = (int)(angle*hashSize);
+		return key < 0 ? 0 : key % hashSize;
+	}
+
+	private void declareMemory( int numPoints ) {
+		if( ids.length < numPoints ) {
+			ids = new int[numPoints];
+			hullPrev = new int[numPoints];
+			hullNext = new int[numPoints];
+			hullTri = new int[numPoints];
+		}
+		dists.resize(numPoints);
+
+		hashSize = (int)Math.ceil(Math.sqrt(numPoints));
+		if( hullHash.length < hashSize )
+			hullHash = new int[hashSize];
+	}
+
+	private static double dist2( double ax , double ay , double bx , double by ) {
+		double dx = ax - bx;
+		double dy = ay - by;
+		return dx*dx + dy*dy;
+	}
+
+	/**
+	 * Square of the circumcircle's radius. Can be infinite or NaN if the points are nearly collinear.
+	 */
+	private static double circumradius2( double ax , double ay , double bx , double by , double cx , double cy ) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = cx - ax;
+		double ey = cy - ay;
+
+		double bl = dx*dx + dy*dy;
+		double cl = ex*ex + ey*ey;
+		double d = 0.5/(dx*ey - dy*ex);
+
+		double x = (ey*bl - dy*cl)*d;
+		double y = (dx*cl - ex*bl)*d;
+
+		return x*x + y*y;
+	}
+
+	/**
+	 * Center of the circumcircle. Stored in (cx,cy)
+	 */
+	private void circumcenter( double ax , double ay , double bx , double by , double px , double py ) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = px - ax;
+		double ey = py - ay;
+
+		double bl = dx*dx + dy*dy;
+		double cl = ex*ex + ey*ey;
+		double d = 0.5/(dx*ey - dy*ex);
+
+		cx = ax + (ey*bl - dy*cl)*d;
+		cy = ay + (dx*cl - ex*bl)*d;
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+
+/**
+ * <p>
+ * Closed form eigen decomposition of a 3 by 3 symmetric matrix.  Eigenvalues are found from the roots of the
+ * characteristic cubic using the trigonometric solution [1] and eigenvectors from the cross product of rows of
+ * (A - &lambda;I).  No memory is declared and no iterations are performed, making it much faster than a general
+ * purpose decomposition when many small matrices need to be processed, e.g. covariance matrices of local
+ * neighborhoods.
+ * </p>
+ *
+ * <p>
+ * The matrix is specified by its upper triangle:
+ * </p>
+ * <pre>
+ * [ a00 a01 a02 ]
+ * [ a01 a11 a12 ]
+ * [ a02 a12 a22 ]
+ * </pre>
+ *
+ * <p>
+ * [1] Smith, Oliver K. "Eigenvalues of a symmetric 3 × 3 matrix." Communications of the ACM 4.4 (1961): 168.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class EigenSymmetric3x3_F64 {
+
+	/**
+	 * Computes the eigenvalues, which are sorted from largest to smallest.
+	 *
+	 * @param values (Output) Storage for the 3 eigenvalues
+	 */
+	public static void eigenvalues( double a00 , double a01 , double a02 ,
+									double a11 , double a12 ,
+									double a22 , double[] values )
+	{
+		// scale to reduce overflow/underflow
+		double scale = Math.max(Math.abs(a00),Math.abs(a01));
+		scale = Math.max(scale,Math.max(Math.abs(a02),Math.abs(a11)));
+		scale = Math.max(scale,Math.max(Math.abs(a12),Math.abs(a22)));
+		if( scale == 0 ) {
+			values[0] = values[1] = values[2] = 0;
+			return;
+		}
+		a00 /= scale; a01 /= scale; a02 /= scale;
+		a11 /= scale; a12 /= scale; a22 /= scale;
+
+		double p1 = a01*a01 + a02*a02 + a12*a12;
+		if( p1 == 0 ) {
+			// it's diagonal
+			sortDescending(a00*scale,a11*scale,a22*scale,values);
+			return;
+		}
+
+		double q = (a00 + a11 + a22)/3.0;
+		double b00 = a00-q, b11 = a11-q, b22 = a22-q;
+		double p2 = b00*b00 + b11*b11 + b22*b22 + 2.0*p1;
+		double p = Math.sqrt(p2/6.0);
+
+		// r = det(A - q*I)/(2*p^3)
+		double det = b00*(b11*b22 - a12*a12) - a01*(a01*b22 - a12*a02) + a02*(a01*a12 - b11*a02);
+		double r = det/(2.0*p*p*p);
+
+		double phi;
+		if( r <= -1 )
+			phi = GrlConstants.PI/3.0;
+		else if( r >= 1 )
+			phi = 0;
+		else
+			phi = Math.acos(r)/3.0;
+
+		double cosL = Math.cos(phi);
+		double cosS = Math.cos(phi + 2.0*GrlConstants.PI/3.0);
+		double largest = q + 2.0*p*cosL;
+		double smallest = q + 2.0*p*cosS;
+		double middle = 3.0*q - largest - smallest;
+		// round off error can push the middle value outside when it is repeated
+		if( middle > largest )
+			middle = largest;
+		else if( middle < smallest )
+			middle = smallest;
+
+		values[0] = largest*scale;
+		values[1] = middle*scale;
+		values[2] = smallest*scale;
+	}
+
+	private static void sortDescending( double a , double b , double c , double[] values ) {
+		double tmp;
+		if( a < b ) { tmp = a; a = b; b = tmp; }
+		if( b < c ) { tmp = b; b = c; c = tmp; }
+		if( a < b ) { tmp = a; a = b; b = tmp; }
+		values[0] = a;
+		values[1] = b;
+		values[2] = c;
+	}
+
+	/**
+	 * Computes the eigenvector which corresponds to the eigenvalue.  If the eigenvalue has a multiplicity
+	 * greater than one then an arbitrary vector from its eigenspace is returned.
+	 *
+	 * @param lambda (Input) An eigenvalue of the matrix
+	 * @param vector (Output) The eigenvector.  Normalized to one.
+	 */
+	public static void eigenvector( double a00 , double a01 , double a02 ,
+									double a11 , double a12 ,
+									double a22 , double lambda , Vector3D_F64 vector )
+	{
+		// rows of A - lambda*I
+		double r00 = a00-lambda, r01 = a01, r02 = a02;
+		double r10 = a01, r11 = a11-lambda, r12 = a12;
+		double r20 = a02, r21 = a12, r22 = a22-lambda;
+
+		// the eigenvector is perpendicular to every row. Use the most numerically stable cross product
+		double c0x = r01*r12 - r02*r11, c0y = r02*r10 - r00*r12, c0z = r00*r11 - r01*r10;
+		double c1x = r01*r22 - r02*r21, c1y = r02*r20 - r00*r22, c1z = r00*r21 - r01*r20;
+		double c2x = r11*r22 - r12*r21, c2y = r12*r20 - r10*r22, c2z = r10*r21 - r11*r20;
+
+		double n0 = c0x*c0x + c0y*c0y + c0z*c0z;
+		double n1 = c1x*c1x + c1y*c1y + c1z*c1z;
+		double n2 = c2x*c2x + c2y*c2y + c2z*c2z;
+
+		// magnitude of the rows. Used to decide if the cross products are degenerate
+		double m0 = r00*r00 + r01*r01 + r02*r02;
+		double m1 = r10*r10 + r11*r11 + r12*r12;
+		double m2 = r20*r20 + r21*r21 + r22*r22;
+		double maxRow = Math.max(m0,Math.max(m1,m2));
+
+		if( n0 >= n1 && n0 >= n2 && n0 > GrlConstants.EPS*maxRow*maxRow ) {
+			vector.set(c0x,c0y,c0z);
+		} else if( n1 >= n2 && n1 > GrlConstants.EPS*maxRow*maxRow ) {
+			vector.set(c1x,c1y,c1z);
+		} else if( n2 > GrlConstants.EPS*maxRow*maxRow ) {
+			vector.set(c2x,c2y,c2z);
+		} else if( maxRow == 0 ) {
+			// A = lambda*I, any vector will do
+			vector.set(1,0,0);
+			return;
+		} else {
+			// The eigenspace is a plane. Any vector perpendicular to the largest row is a solution
+			double x,y,z;
+			if( m0 == maxRow ) { x = r00; y = r01; z = r02; }
+			else if( m1 == maxRow ) { x = r10; y = r11; z = r12; }
+			else { x = r20; y = r21; z = r22; }
+
+			if( Math.abs(x) < Math.abs(y) && Math.abs(x) < Math.abs(z) )
+				vector.set(0,z,-y);
+			else if( Math.abs(y) < Math.abs(z) )
+				vector.set(z,0,-x);
+			else
+				vector.set(y,-x,0);
+		}
+		vector.normalize();
+	}
+}
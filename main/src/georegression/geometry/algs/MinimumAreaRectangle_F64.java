@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Finds the oriented rectangle with the smallest area which contains a set of points. The convex hull is found
+ * using {@link AndrewMonotoneConvexHull_F64} and then rotating calipers [1] are used to search all rectangles
+ * which have a side collinear with a hull edge. One of those is the optimal rectangle. Calipers are only
+ * advanced forward, so after the hull has been computed the search is O(n). No memory is declared after the
+ * internal work space has grown to the size of the input.
+ * </p>
+ *
+ * <p>
+ * [1] Toussaint, Godfried T. "Solving geometric problems with the rotating calipers." Proc. IEEE Melecon. 1983.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MinimumAreaRectangle_F64 {
+	AndrewMonotoneConvexHull_F64 hullAlg = new AndrewMonotoneConvexHull_F64();
+
+	// convex hull of the input points in counter-clockwise order
+	Polygon2D_F64 hull = new Polygon2D_F64();
+
+	// references to the input points. The hull algorithm sorts this array
+	private FastQueue<Point2D_F64> work = new FastQueue<>(Point2D_F64.class, false);
+
+	// area of the found rectangle
+	double area;
+
+	/**
+	 * Finds the minimum area rectangle which contains the polygon
+	 *
+	 * @param polygon (Input) Polygon. Not modified.
+	 * @param rectangle (Output) Found rectangle with vertexes in counter-clockwise order
+	 * @return true if successful or false if there were no points
+	 */
+	public boolean process( Polygon2D_F64 polygon , Quadrilateral_F64 rectangle ) {
+		work.reset();
+		for (int i = 0; i < polygon.size(); i++) {
+			work.add(polygon.get(i));
+		}
+		return computeRectangle(rectangle);
+	}
+
+	/**
+	 * Finds the minimum area rectangle which contains the points
+	 *
+	 * @param points (Input) Points. Not modified.
+	 * @param rectangle (Output) Found rectangle with vertexes in counter-clockwise order
+	 * @return true if successful or false if there were no points
+	 */
+	public boolean process( List<Point2D_F64> points , Quadrilateral_F64 rectangle ) {
+		work.reset();
+		for (int i = 0; i < points.size(); i++) {
+			work.add(points.get(i));
+		}
+		return computeRectangle(rectangle);
+	}
+
+	private boolean computeRectangle( Quadrilateral_F64 rectangle ) {
+		area = 0;
+		if( work.size == 0 )
+			return false;
+		if( work.size == 1 ) {
+			Point2D_F64 p = work.get(0);
+			rectangle.a.set(p); rectangle.b.set(p); rectangle.c.set(p); rectangle.d.set(p);
+			return true;
+		}
+
+		hullAlg.process(work.data, work.size, hull);
+
+		int M = hull.size();
+		if( M < 3 ) {
+			// all the points are identical or lie along a line
+			Point2D_F64 p0 = hull.get(0);
+			Point2D_F64 p1 = hull.get(M-1);
+			rectangle.a.set(p0); rectangle.b.set(p1); rectangle.c.set(p1); rectangle.d.set(p0);
+			return true;
+		}
+
+		Point2D_F64[] v = hull.vertexes.data;
+
+		// index of the vertexes which are farthest along the edge, perpendicular to it, and behind it. These are
+		// allowed to grow past M and only increase
+		int front = 1, top = 1, back = 1;
+
+		area = Double.MAX_VALUE;
+		for (int i = 0; i < M; i++) {
+			Point2D_F64 p0 = v[i];
+			Point2D_F64 p1 = v[(i+1)%M];
+			double ux = p1.x - p0.x;
+			double uy = p1.y - p0.y;
+			double length = Math.sqrt(ux*ux + uy*uy);
+			if( length == 0 )
+				continue;
+			ux /= length;
+			uy /= length;
+
+			// the hull is counter-clockwise so the inside is to the left of the edge
+			if( front < i+1 )
+				front = i+1;
+			while( dot(v[(front+1)%M], p0, ux, uy) > dot(v[front%M], p0, ux, uy) )
+				front++;
+			if( top < front )
+				top = front;
+			while( dot(v[(top+1)%M], p0, -uy, ux) > dot(v[top%M], p0, -uy, ux) )
+				top++;
+			if( back < top )
+				back = top;
+			while( dot(v[(back+1)%M], p0, ux, uy) < dot(v[back%M], p0, ux, uy) )
+				back++;
+
+			double maxU = dot(v[front%M], p0, ux, uy);
+			double minU = dot(v[back%M], p0, ux, uy);
+			double height = dot(v[top%M], p0, -uy, ux);
+
+			double found = (maxU - minU)*height;
+			if( found < area ) {
+				area = found;
+				rectangle.a.set(p0.x + ux*minU, p0.y + uy*minU);
+				rectangle.b.set(p0.x + ux*maxU, p0.y + uy*maxU);
+				rectangle.c.set(rectangle.b.x - uy*height, rectangle.b.y + ux*height);
+				rectangle.d.set(rectangle.a.x - uy*height, rectangle.a.y + ux*height);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Dot product of (p - origin) and (x,y)
+	 */
+	private static double dot( Point2D_F64 p , Point2D_F64 origin , double x , double y ) {
+		return (p.x - origin.x)*x + (p.y - origin.y)*y;
+	}
+
+	/**
+	 * Area of the most recently found rectangle
+	 */
+	public double getArea() {
+		return area;
+	}
+
+	/**
+	 * Convex hull of the most recently processed points
+	 */
+	public Polygon2D_F64 getHull() {
+		return hull;
+	}
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.UtilCircle2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.trig.Circle2D_F64;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * <p>
+ * Finds the smallest circle which contains a set of points using Welzl's algorithm [1]. The points are
+ * shuffled and the circle is grown incrementally, which takes O(n) expected time. The iterative form of
+ * the algorithm is used so there is no recursion and after the internal work space has grown to the size of
+ * the input no memory is declared.
+ * </p>
+ *
+ * <p>
+ * [1] Welzl, Emo. "Smallest enclosing disks (balls and ellipsoids)." New results and new trends in
+ * computer science (1991): 359-370.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MinimumEnclosingCircle_F64 {
+	// a point is outside the circle if its distance is more than this fraction of the radius larger
+	double tol = GrlConstants.TEST_F64;
+
+	// used to shuffle the points
+	Random rand;
+
+	// references to the input points in a random order
+	private FastQueue<Point2D_F64> work = new FastQueue<>(Point2D_F64.class, false);
+
+	/**
+	 * @param seed Seed for the random number generator used to shuffle the points
+	 */
+	public MinimumEnclosingCircle_F64( long seed ) {
+		rand = new Random(seed);
+	}
+
+	public MinimumEnclosingCircle_F64() {
+		this(0xBEEF);
+	}
+
+	/**
+	 * Finds the minimum enclosing circle
+	 *
+	 * @param points (Input) Points. Not modified.
+	 * @param circle (Output) Found circle
+	 * @return true if successful or false if there were no points
+	 */
+	public boolean process( List<Point2D_F64> points , Circle2D_F64 circle ) {
+		work.reset();
+		for (int i = 0; i < points.size(); i++) {
+			work.add(points.get(i));
+		}
+		if( work.size == 0 )
+			return false;
+
+		// a random order is what makes the expected running time linear
+		Point2D_F64[] p = work.data;
+		for (int i = work.size-1; i > 0; i--) {
+			int j = rand.nextInt(i+1);
+			Point2D_F64 tmp = p[i];
+			p[i] = p[j];
+			p[j] = tmp;
+		}
+
+		circle.center.set(p[0]);
+		circle.radius = 0;
+		for (int i = 1; i < work.size; i++) {
+			if( isInside(circle, p[i]) )
+				continue;
+
+			// p[i] must be on the boundary of the circle containing the first i+1 points
+			circle.center.set(p[i]);
+			circle.radius = 0;
+			for (int j = 0; j < i; j++) {
+				if( isInside(circle, p[j]) )
+					continue;
+
+				// p[i] and p[j] are both on the boundary
+				diameter(p[i], p[j], circle);
+				for (int k = 0; k < j; k++) {
+					if( isInside(circle, p[k]) )
+						continue;
+					circumscribe(p[i], p[j], p[k], circle);
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean isInside( Circle2D_F64 circle , Point2D_F64 p ) {
+		return circle.center.distance2(p) <= circle.radius*circle.radius*(1 + tol);
+	}
+
+	/**
+	 * Circle with the two points at opposite ends of its diameter
+	 */
+	private static void diameter( Point2D_F64 a , Point2D_F64 b , Circle2D_F64 circle ) {
+		circle.center.set((a.x + b.x)/2, (a.y + b.y)/2);
+		circle.radius = a.distance(b)/2;
+	}
+
+	/**
+	 * Circle which passes through all three points. If they are collinear then the circle is defined by the two
+	 * points which are farthest apart.
+	 */
+	private static void circumscribe( Point2D_F64 a , Point2D_F64 b , Point2D_F64 c , Circle2D_F64 circle ) {
+		if( UtilCircle2D_F64.circle(a, b, c, circle) )
+			return;
+
+		double ab = a.distance2(b), ac = a.distance2(c), bc = b.distance2(c);
+		if( ab >= ac && ab >= bc )
+			diameter(a, b, circle);
+		else if( ac >= bc )
+			diameter(a, c, circle);
+		else
+			diameter(b, c, circle);
+	}
+
+	public double getTol() {
+		return tol;
+	}
+
+	/**
+	 * Relative tolerance used when checking to see if a point is inside the circle
+	 */
+	public void setTol( double tol ) {
+		this.tol = tol;
+	}
+}
@@ -0,0 +1,1097 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.predicates.RobustPredicates;
+import georegression.metric.Intersection2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * Boolean operations (intersection, union, difference, and XOR) between two sets of polygons using the sweep line
+ * algorithm by Martinez, Rueda, and Feito [1]. Each input is a list of contours which is interpreted using the
+ * even-odd rule, so holes and multiple polygons are supported and the orientation of each contour doesn't
+ * matter. Edges are split where they intersect edges of the other polygon while sweeping from left to right.
+ * Each edge is then labeled as being inside or outside of the other polygon, and the edges which are in the result
+ * are connected into contours. Runs in O((n+k) log n), where n is the number of edges and k is the number of
+ * intersections.
+ * </p>
+ *
+ * <p>
+ * The output is a list of contours. Outer boundaries are in counter-clockwise order and holes are in clockwise order.
+ * The outer boundary which contains each hole is provided by {@link #getParents()}. Every output contour is simple,
+ * contours which touch at a vertex are split apart there. Orientation tests are done with
+ * {@link RobustPredicates} and parallel edges are detected exactly. Self intersecting input polygons are not
+ * supported. Sweep events are recycled between calls.
+ * </p>
+ *
+ * <p>
+ * If only the intersection of two convex polygons is needed then {@link SutherlandHodgmanClip_F64} is faster,
+ * see {@link #process(Polygon2D_F64, Polygon2D_F64, Operation, FastQueue)}.
+ * </p>
+ *
+ * <p>
+ * [1] Martinez, Francisco, Carlos Ogayar, Juan R. Jimenez, and Antonio J. Rueda. "A simple algorithm for Boolean
+ * operations on polygons." Advances in Engineering Software 64 (2013): 11-19.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PolygonBooleanMartinez_F64 {
+
+	/**
+	 * Which boolean operation is applied to the two polygons
+	 */
+	public enum Operation {
+		INTERSECTION,
+		UNION,
+		/** Subject minus clipping */
+		DIFFERENCE,
+		XOR
+	}
+
+	// Types of edges
+	static final int NORMAL = 0;
+	static final int NON_CONTRIBUTING = 1;
+	static final int SAME_TRANSITION = 2;
+	static final int DIFFERENT_TRANSITION = 3;
+
+	// recycled sweep events
+	private List<SweepEvent> pool = new ArrayList<>();
+	private int poolUsed;
+
+	// events ordered from left to right
+	private PriorityQueue<SweepEvent> queue;
+	// edges intersecting the sweep line ordered from bottom to top
+	private TreeSet<SweepEvent> sweepLine;
+	// events in the order they were processed
+	private List<SweepEvent> sortedEvents = new ArrayList<>();
+	// events for edges in the result
+	private List<SweepEvent> resultEvents = new ArrayList<>();
+	private GrowQueue_B processed = new GrowQueue_B();
+
+	// the contour each output contour is a hole inside of, or -1
+	private GrowQueue_I32 parents = new GrowQueue_I32();
+	// the contour found while connecting edges which each output contour came from
+	private GrowQueue_I32 walks = new GrowQueue_I32();
+	// number of outer contours each walk was split into. -1 if it wasn't split
+	private GrowQueue_I32 walkOuters = new GrowQueue_I32();
+
+	// work space for splitting contours which touch themselves
+	private Polygon2D_F64 walk = new Polygon2D_F64();
+	private GrowQueue_B pinch = new GrowQueue_B();
+	private GrowQueue_I32 stack = new GrowQueue_I32();
+	private GrowQueue_I32 stackPinch = new GrowQueue_I32();
+	private Point2D_F64 midpoint = new Point2D_F64();
+	// events around a vertex sorted by angle
+	private GrowQueue_I32 fan = new GrowQueue_I32();
+
+	// bounding box of each input. minX, minY, maxX, maxY
+	private double[] boxSubject = new double[4];
+	private double[] boxClipping = new double[4];
+	private int contourCount;
+
+	// intersection point between two edges
+	private double ix0, iy0;
+	// work space for overlapping edges
+	private SweepEvent[] events = new SweepEvent[4];
+
+	// used to call the fast path
+	private SutherlandHodgmanClip_F64 sutherland = new SutherlandHodgmanClip_F64();
+	private List<Polygon2D_F64> listSubject = new ArrayList<>();
+	private List<Polygon2D_F64> listClipping = new ArrayList<>();
+
+	private final Comparator<SweepEvent> compareEvents = new Comparator<SweepEvent>() {
+		@Override
+		public int compare( SweepEvent a , SweepEvent b ) {
+			return compareEvents(a, b);
+		}
+	};
+
+	public PolygonBooleanMartinez_F64() {
+		queue = new PriorityQueue<>(compareEvents);
+		sweepLine = new TreeSet<>(new Comparator<SweepEvent>() {
+			@Override
+			public int compare( SweepEvent a , SweepEvent b ) {
+				return compareSegments(a, b);
+			}
+		});
+	}
+
+	/**
+	 * Applies a boolean operation to two simple polygons. If the operation is an intersection and both polygons are
+	 * convex then {@link SutherlandHodgmanClip_F64} is used instead.
+	 *
+	 * @param subject (Input) The subject polygon
+	 * @param clipping (Input) The clipping polygon
+	 * @param operation Which operation is applied
+	 * @param output (Output) Contours in the result
+	 */
+	public void process( Polygon2D_F64 subject , Polygon2D_F64 clipping , Operation operation ,
+						 FastQueue<Polygon2D_F64> output ) {
+		if( operation == Operation.INTERSECTION && subject.size() >= 3 && clipping.size() >= 3 &&
+				subject.isConvex() && clipping.isConvex() ) {
+			output.reset();
+			parents.reset();
+			Polygon2D_F64 found = output.grow();
+			sutherland.process(subject, clipping, found);
+			if( found.size() < 3 ) {
+				output.reset();
+			} else {
+				if( signedArea(found) < 0 )
+					found.flip();
+				parents.add(-1);
+			}
+			return;
+		}
+
+		listSubject.clear();
+		listClipping.clear();
+		listSubject.add(subject);
+		listClipping.add(clipping);
+		process(listSubject, listClipping, operation, output);
+	}
+
+	/**
+	 * Applies a boolean operation to two sets of contours. Each set is interpreted with the even-odd rule.
+	 *
+	 * @param subject (Input) Contours in the subject polygon
+	 * @param clipping (Input) Contours in the clipping polygon
+	 * @param operation Which operation is applied
+	 * @param output (Output) Contours in the result
+	 */
+	public void process( List<Polygon2D_F64> subject , List<Polygon2D_F64> clipping , Operation operation ,
+						 FastQueue<Polygon2D_F64> output ) {
+		output.reset();
+		parents.reset();
+		poolUsed = 0;
+		queue.clear();
+		sweepLine.clear();
+		sortedEvents.clear();
+		contourCount = 0;
+
+		resetBox(boxSubject);
+		resetBox(boxClipping);
+		int numSubject = 0, numClipping = 0;
+		for (int i = 0; i < subject.size(); i++) {
+			numSubject += addContour(subject.get(i), true, boxSubject);
+		}
+		for (int i = 0; i < clipping.size(); i++) {
+			numClipping += addContour(clipping.get(i), false, boxClipping);
+		}
+
+		// handle trivial cases where the result is empty
+		if( numSubject == 0 && (operation == Operation.INTERSECTION || operation == Operation.DIFFERENCE) )
+			return;
+		if( numClipping == 0 && operation == Operation.INTERSECTION )
+			return;
+		if( operation == Operation.INTERSECTION && !boxesIntersect() )
+			return;
+
+		subdivide(operation);
+		connectEdges(output);
+	}
+
+	/**
+	 * For each contour in the output, the index of the outer contour it's a hole inside of. If it's not a hole
+	 * then -1.
+	 */
+	public GrowQueue_I32 getParents() {
+		return parents;
+	}
+
+	/**
+	 * Adds the edges in a contour to the event queue
+	 *
+	 * @return number of edges added
+	 */
+	private int addContour( Polygon2D_F64 contour , boolean isSubject , double[] box ) {
+		int contourId = contourCount++;
+		int total = 0;
+		int N = contour.size();
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			Point2D_F64 s1 = contour.get(j);
+			Point2D_F64 s2 = contour.get(i);
+
+			// skip collapsed edges
+			if( s1.x == s2.x && s1.y == s2.y )
+				continue;
+
+			SweepEvent e1 = createEvent(s1.x, s1.y, false, null, isSubject);
+			SweepEvent e2 = createEvent(s2.x, s2.y, false, e1, isSubject);
+			e1.other = e2;
+			e1.contourId = e2.contourId = contourId;
+
+			if( compareEvents(e1, e2) > 0 )
+				e2.left = true;
+			else
+				e1.left = true;
+
+			if( s1.x < box[0] ) box[0] = s1.x;
+			if( s1.y < box[1] ) box[1] = s1.y;
+			if( s1.x > box[2] ) box[2] = s1.x;
+			if( s1.y > box[3] ) box[3] = s1.y;
+
+			queue.add(e1);
+			queue.add(e2);
+			total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Sweeps a vertical line from left to right. Edges are split at intersections and labeled.
+	 */
+	private void subdivide( Operation operation ) {
+		double rightBound = Math.min(boxSubject[2], boxClipping[2]);
+
+		while( !queue.isEmpty() ) {
+			SweepEvent event = queue.poll();
+			sortedEvents.add(event);
+
+			// nothing to the right can be in the result
+			if( (operation == Operation.INTERSECTION && event.x > rightBound) ||
+					(operation == Operation.DIFFERENCE && event.x > boxSubject[2]) ) {
+				break;
+			}
+
+			if( event.left ) {
+				sweepLine.add(event);
+				SweepEvent prev = sweepLine.lower(event);
+				SweepEvent next = sweepLine.higher(event);
+
+				computeFields(event, prev, operation);
+				if( next != null && possibleIntersection(event, next) == 2 ) {
+					computeFields(event, prev, operation);
+					computeFields(next, event, operation);
+				}
+				if( prev != null && possibleIntersection(prev, event) == 2 ) {
+					SweepEvent prevprev = sweepLine.lower(prev);
+					computeFields(prev, prevprev, operation);
+					computeFields(event, prev, operation);
+				}
+			} else {
+				event = event.other;
+				if( sweepLine.contains(event) ) {
+					SweepEvent prev = sweepLine.lower(event);
+					SweepEvent next = sweepLine.higher(event);
+					sweepLine.remove(event);
+					if( prev != null && next != null )
+						possibleIntersection(prev, next);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determines if the edge is inside or outside of each polygon using the edge below it
+	 */
+	private void computeFields( SweepEvent event , SweepEvent prev , Operation operation ) {
+		if( prev == null ) {
+			event.inOut = false;
+			event.otherInOut = true;
+			event.prevInResult = null;
+		} else {
+			if( event.subject == prev.subject ) {
+				event.inOut = !prev.inOut;
+				event.otherInOut = prev.otherInOut;
+			} else {
+				event.inOut = !prev.otherInOut;
+				event.otherInOut = prev.isVertical() ? !prev.inOut : prev.inOut;
+			}
+			event.prevInResult = (prev.resultTransition == 0 || prev.isVertical()) ? prev.prevInResult : prev;
+		}
+
+		if( inResult(event, operation) ) {
+			event.resultTransition = resultTransition(event, operation);
+		} else {
+			event.resultTransition = 0;
+		}
+	}
+
+	private static boolean inResult( SweepEvent event , Operation operation ) {
+		switch( event.type ) {
+			case NORMAL:
+				switch( operation ) {
+					case INTERSECTION: return !event.otherInOut;
+					case UNION: return event.otherInOut;
+					case DIFFERENCE: return event.subject == event.otherInOut;
+					case XOR: return true;
+				}
+				break;
+
+			case SAME_TRANSITION:
+				return operation == Operation.INTERSECTION || operation == Operation.UNION;
+
+			case DIFFERENT_TRANSITION:
+				return operation == Operation.DIFFERENCE;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns 1 if the area above the edge is inside the result or -1 if it's outside.
+	 */
+	private static int resultTransition( SweepEvent event , Operation operation ) {
+		boolean thisIn = !event.inOut;
+		boolean thatIn = !event.otherInOut;
+		boolean isIn;
+		switch( operation ) {
+			case INTERSECTION: isIn = thisIn && thatIn; break;
+			case UNION: isIn = thisIn || thatIn; break;
+			case XOR: isIn = thisIn ^ thatIn; break;
+			default:
+				if( event.subject )
+					isIn = thisIn && !thatIn;
+				else
+					isIn = thatIn && !thisIn;
+		}
+		return isIn ? 1 : -1;
+	}
+
+	/**
+	 * Checks to see if two edges intersect and splits them at the intersection.
+	 *
+	 * @return 0 = no intersection, 1 = intersect at a point, 2 = overlap and share the left end point,
+	 * 3 = overlap otherwise
+	 */
+	private int possibleIntersection( SweepEvent se1 , SweepEvent se2 ) {
+		int count = intersection(se1, se2);
+		if( count == 0 )
+			return 0;
+
+		// the edges intersect at an end point of both edges
+		if( count == 1 && (se1.isSamePoint(se2) || se1.other.isSamePoint(se2.other)) )
+			return 0;
+
+		// overlapping edges in the same polygon
+		if( count == 2 && se1.subject == se2.subject )
+			return 0;
+
+		if( count == 1 ) {
+			double x = ix0, y = iy0;
+			if( !se1.isSamePoint(x, y) && !se1.other.isSamePoint(x, y) )
+				divideSegment(se1, x, y);
+			if( !se2.isSamePoint(x, y) && !se2.other.isSamePoint(x, y) )
+				divideSegment(se2, x, y);
+			return 1;
+		}
+
+		// the edges overlap
+		int size = 0;
+		boolean leftCoincide = false;
+		boolean rightCoincide = false;
+
+		if( se1.isSamePoint(se2) ) {
+			leftCoincide = true;
+		} else if( compareEvents(se1, se2) == 1 ) {
+			events[size++] = se2;
+			events[size++] = se1;
+		} else {
+			events[size++] = se1;
+			events[size++] = se2;
+		}
+
+		if( se1.other.isSamePoint(se2.other) ) {
+			rightCoincide = true;
+		} else if( compareEvents(se1.other, se2.other) == 1 ) {
+			events[size++] = se2.other;
+			events[size++] = se1.other;
+		} else {
+			events[size++] = se1.other;
+			events[size++] = se2.other;
+		}
+
+		if( leftCoincide ) {
+			// both edges are equal or share the left end point
+			se2.type = NON_CONTRIBUTING;
+			se1.type = se2.inOut == se1.inOut ? SAME_TRANSITION : DIFFERENT_TRANSITION;
+
+			if( !rightCoincide ) {
+				divideSegment(events[1].other, events[0].x, events[0].y);
+			}
+			return 2;
+		}
+
+		// the edges share the right end point
+		if( rightCoincide ) {
+			divideSegment(events[0], events[1].x, events[1].y);
+			return 3;
+		}
+
+		// neither edge contains the other
+		if( events[0] != events[3].other ) {
+			divideSegment(events[0], events[1].x, events[1].y);
+			divideSegment(events[1], events[2].x, events[2].y);
+			return 3;
+		}
+
+		// one edge contains the other
+		divideSegment(events[0], events[1].x, events[1].y);
+		divideSegment(events[3].other, events[2].x, events[2].y);
+
+		return 3;
+	}
+
+	/**
+	 * Splits the edge at the point
+	 */
+	private void divideSegment( SweepEvent se , double x , double y ) {
+		SweepEvent r = createEvent(x, y, false, se, se.subject);
+		SweepEvent l = createEvent(x, y, true, se.other, se.subject);
+		r.contourId = l.contourId = se.contourId;
+
+		// avoid a rounding error where the left event would be processed after the right event
+		if( compareEvents(l, se.other) > 0 ) {
+			se.other.left = true;
+			l.left = false;
+		}
+
+		se.other.other = l;
+		se.other = r;
+
+		queue.add(l);
+		queue.add(r);
+	}
+
+	/**
+	 * Finds the intersection of two edges. Parallel and collinear edges are detected exactly. If the intersection is
+	 * at a vertex then the vertex's coordinate is used. A single intersection point is saved in (ix0,iy0).
+	 *
+	 * @return 0 = no intersection, 1 = a single point, 2 = the edges overlap
+	 */
+	int intersection( SweepEvent a , SweepEvent b ) {
+		double a1x = a.x, a1y = a.y, a2x = a.other.x, a2y = a.other.y;
+		double b1x = b.x, b1y = b.y, b2x = b.other.x, b2y = b.other.y;
+
+		int o1 = (int)Math.signum(RobustPredicates.orient2d(a1x, a1y, a2x, a2y, b1x, b1y));
+		int o2 = (int)Math.signum(RobustPredicates.orient2d(a1x, a1y, a2x, a2y, b2x, b2y));
+
+		if( o1 == 0 && o2 == 0 ) {
+			return overlap(a, b);
+		}
+		if( o1 == o2 )
+			return 0;
+
+		int o3 = (int)Math.signum(RobustPredicates.orient2d(b1x, b1y, b2x, b2y, a1x, a1y));
+		int o4 = (int)Math.signum(RobustPredicates.orient2d(b1x, b1y, b2x, b2y, a2x, a2y));
+		if( o3 == o4 )
+			return 0;
+
+		if( o1 == 0 ) {
+			ix0 = b1x; iy0 = b1y;
+		} else if( o2 == 0 ) {
+			ix0 = b2x; iy0 = b2y;
+		} else if( o3 == 0 ) {
+			ix0 = a1x; iy0 = a1y;
+		} else if( o4 == 0 ) {
+			ix0 = a2x; iy0 = a2y;
+		} else {
+			double vax = a2x - a1x, vay = a2y - a1y;
+			double vbx = b2x - b1x, vby = b2y - b1y;
+			double t = ((b1x - a1x)*vby - (b1y - a1y)*vbx)/(vax*vby - vay*vbx);
+			ix0 = a1x + t*vax;
+			iy0 = a1y + t*vay;
+
+			// round off error can push the point outside of the edges
+			ix0 = clamp(ix0, Math.max(Math.min(a1x, a2x), Math.min(b1x, b2x)), Math.min(Math.max(a1x, a2x), Math.max(b1x, b2x)));
+			iy0 = clamp(iy0, Math.max(Math.min(a1y, a2y), Math.min(b1y, b2y)), Math.min(Math.max(a1y, a2y), Math.max(b1y, b2y)));
+		}
+		return 1;
+	}
+
+	/**
+	 * Overlap of two collinear edges. End points of the overlapping region are end points of the edges.
+	 */
+	private int overlap( SweepEvent a , SweepEvent b ) {
+		// left end points are processed first, so the overlap starts at the larger left point
+		SweepEvent lo = compareEvents(a, b) > 0 ? a : b;
+		SweepEvent hi = compareEvents(a.other, b.other) < 0 ? a.other : b.other;
+
+		int order = comparePoints(lo.x, lo.y, hi.x, hi.y);
+		if( order > 0 )
+			return 0;
+
+		ix0 = lo.x; iy0 = lo.y;
+		return order == 0 ? 1 : 2;
+	}
+
+	/**
+	 * Connects the edges in the result together to form contours
+	 */
+	private void connectEdges( FastQueue<Polygon2D_F64> output ) {
+		resultEvents.clear();
+		for (int i = 0; i < sortedEvents.size(); i++) {
+			SweepEvent event = sortedEvents.get(i);
+			if( (event.left && event.inResult()) || (!event.left && event.other.inResult()) )
+				resultEvents.add(event);
+		}
+
+		// overlapping edges can cause the events to not be perfectly sorted
+		for (int i = 1; i < resultEvents.size(); i++) {
+			SweepEvent event = resultEvents.get(i);
+			int j = i;
+			while( j > 0 && compareEvents(resultEvents.get(j-1), event) > 0 ) {
+				resultEvents.set(j, resultEvents.get(j-1));
+				j--;
+			}
+			resultEvents.set(j, event);
+		}
+
+		final int N = resultEvents.size();
+		for (int i = 0; i < N; i++) {
+			resultEvents.get(i).otherPos = i;
+		}
+		// the right event could be found before the left event is marked
+		for (int i = 0; i < N; i++) {
+			SweepEvent event = resultEvents.get(i);
+			if( !event.left ) {
+				int tmp = event.otherPos;
+				event.otherPos = event.other.otherPos;
+				event.other.otherPos = tmp;
+			}
+		}
+
+		processed.resize(N);
+		processed.fill(false);
+		walks.reset();
+		walkOuters.reset();
+		boolean anySplit = false;
+
+		for (int i = 0; i < N; i++) {
+			if( processed.data[i] )
+				continue;
+
+			int contourId = output.size;
+			initializeContour(resultEvents.get(i));
+
+			Polygon2D_F64 contour = output.grow();
+			contour.vertexes.reset();
+			pinch.reset();
+
+			int pos = i;
+			SweepEvent initial = resultEvents.get(i);
+			contour.vertexes.grow().set(initial.x, initial.y);
+			pinch.add(countAtPoint(i) > 2);
+			boolean pinched = pinch.data[0];
+
+			while( true ) {
+				markProcessed(pos, contourId);
+				pos = resultEvents.get(pos).otherPos;
+				markProcessed(pos, contourId);
+				SweepEvent event = resultEvents.get(pos);
+				contour.vertexes.grow().set(event.x, event.y);
+				// more than two result edges touch at this point
+				boolean p = countAtPoint(pos) > 2;
+				pinch.add(p);
+				pinched |= p;
+				pos = p ? pairedPos(pos) : nextPos(pos, i);
+				if( pos < 0 || pos >= N || processed.data[pos] )
+					break;
+			}
+
+			// the contour ends where it started
+			Point2D_F64 last = contour.vertexes.getTail();
+			if( contour.size() > 1 && last.x == initial.x && last.y == initial.y ) {
+				contour.vertexes.removeTail();
+				pinch.removeTail();
+			}
+
+			walks.add(contourId);
+			walkOuters.add(-1);
+
+			if( pinched ) {
+				anySplit = true;
+				splitPinched(output, contourId);
+			} else {
+				// outer contours are counter-clockwise and holes are clockwise
+				boolean ccw = signedArea(contour) > 0;
+				if( ccw != (parents.data[contourId] == -1) )
+					contour.flip();
+			}
+		}
+
+		if( anySplit )
+			resolveSplitParents(output);
+	}
+
+	/**
+	 * A contour which visits the same vertex more than once isn't simple. It's split into simple loops at those
+	 * vertexes and each loop is classified as an outer contour or a hole using the edge below its lowest vertex.
+	 */
+	private void splitPinched( FastQueue<Polygon2D_F64> output , int contourId ) {
+		walk.vertexes.reset();
+		Polygon2D_F64 contour = output.get(contourId);
+		for (int i = 0; i < contour.size(); i++) {
+			walk.vertexes.grow().set(contour.get(i));
+		}
+		int walkParent = parents.data[contourId];
+		int walkId = walks.data[contourId];
+		walkOuters.data[walkId] = 0;
+
+		stack.reset();
+		stackPinch.reset();
+		boolean first = true;
+		for (int i = 0; i < walk.size(); i++) {
+			if( pinch.data[i] ) {
+				Point2D_F64 p = walk.get(i);
+				int match = -1;
+				for (int j = stackPinch.size-1; j >= 0; j--) {
+					Point2D_F64 q = walk.get(stack.data[stackPinch.data[j]]);
+					if( p.x == q.x && p.y == q.y ) {
+						match = j;
+						break;
+					}
+				}
+				if( match >= 0 ) {
+					// the vertexes visited since the last time form a loop
+					int start = stackPinch.data[match];
+					addLoop(output, contourId, first, start, walkParent, walkId);
+					first = false;
+					stack.size = start + 1;
+					stackPinch.size = match + 1;
+					continue;
+				}
+				stackPinch.add(stack.size);
+			}
+			stack.add(i);
+		}
+		addLoop(output, contourId, first, 0, walkParent, walkId);
+	}
+
+	/**
+	 * Adds vertexes in the stack from 'start' to the end as a contour
+	 */
+	private void addLoop( FastQueue<Polygon2D_F64> output , int contourId , boolean first , int start ,
+						  int walkParent , int walkId ) {
+		if( stack.size - start < 3 )
+			return;
+
+		Polygon2D_F64 loop;
+		if( first ) {
+			loop = output.get(contourId);
+		} else {
+			loop = output.grow();
+			parents.add(walkParent);
+			walks.add(walkId);
+			walkOuters.add(-1);
+		}
+		int loopId = first ? contourId : output.size - 1;
+
+		loop.vertexes.reset();
+		int lowest = 0;
+		for (int i = start; i < stack.size; i++) {
+			Point2D_F64 p = walk.get(stack.data[i]);
+			if( i > start && comparePoints(p.x, p.y, loop.get(lowest).x, loop.get(lowest).y) < 0 )
+				lowest = loop.size();
+			loop.vertexes.grow().set(p);
+		}
+
+		// Both edges at the lowest vertex go to the right or up. The area above the lower edge is inside the loop
+		int N = loop.size();
+		Point2D_F64 v = loop.get(lowest);
+		Point2D_F64 a = loop.get((lowest + N - 1) % N);
+		Point2D_F64 b = loop.get((lowest + 1) % N);
+		Point2D_F64 lower = RobustPredicates.orient2d(v.x, v.y, b.x, b.y, a.x, a.y) > 0 ? b : a;
+		SweepEvent edge = findLeftEvent(v, lower);
+
+		boolean outer = edge == null ? walkParent == -1 : edge.resultTransition > 0;
+		if( outer ) {
+			parents.data[loopId] = -1;
+			walkOuters.data[walkId]++;
+		} else {
+			// if the walk was an outer contour then the hole is inside one of its loops
+			parents.data[loopId] = walkParent == -1 ? walkId : walkParent;
+		}
+
+		boolean ccw = signedArea(loop) > 0;
+		if( ccw != outer )
+			loop.flip();
+	}
+
+	/**
+	 * If a hole's parent was split into several contours then the outer contour which contains it is found
+	 */
+	private void resolveSplitParents( FastQueue<Polygon2D_F64> output ) {
+		for (int i = 0; i < output.size; i++) {
+			int parent = parents.data[i];
+			if( parent == -1 )
+				continue;
+			int walkId = walks.data[parent];
+			if( walkOuters.data[walkId] < 0 )
+				continue;
+
+			// a point on the hole which can't be on another contour
+			Polygon2D_F64 hole = output.get(i);
+			Point2D_F64 a = hole.get(0), b = hole.get(1);
+			midpoint.set((a.x + b.x)/2, (a.y + b.y)/2);
+
+			for (int j = 0; j < output.size; j++) {
+				if( walks.data[j] != walkId || parents.data[j] != -1 )
+					continue;
+				if( Intersection2D_F64.containConcaveRobust(output.get(j), midpoint) ) {
+					parents.data[i] = j;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of result events which start at the same point as the specified event
+	 */
+	private int countAtPoint( int pos ) {
+		SweepEvent p = resultEvents.get(pos);
+		int count = 1;
+		for (int i = pos - 1; i >= 0; i--) {
+			SweepEvent q = resultEvents.get(i);
+			if( q.x != p.x || q.y != p.y )
+				break;
+			count++;
+		}
+		for (int i = pos + 1; i < resultEvents.size(); i++) {
+			SweepEvent q = resultEvents.get(i);
+			if( q.x != p.x || q.y != p.y )
+				break;
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Searches for the left event of the result edge from a to b.
+	 */
+	private SweepEvent findLeftEvent( Point2D_F64 a , Point2D_F64 b ) {
+		int lo = 0, hi = resultEvents.size();
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			SweepEvent e = resultEvents.get(mid);
+			if( comparePoints(e.x, e.y, a.x, a.y) < 0 )
+				lo = mid + 1;
+			else
+				hi = mid;
+		}
+		for (int i = lo; i < resultEvents.size(); i++) {
+			SweepEvent e = resultEvents.get(i);
+			if( e.x != a.x || e.y != a.y )
+				break;
+			if( e.left && e.other.x == b.x && e.other.y == b.y )
+				return e;
+		}
+		return null;
+	}
+
+	/**
+	 * Uses the contour below the new contour to decide if it's a hole
+	 */
+	private void initializeContour( SweepEvent event ) {
+		SweepEvent below = event.prevInResult;
+		if( below == null ) {
+			parents.add(-1);
+			return;
+		}
+
+		int lowerId = below.outputContour;
+		if( below.resultTransition > 0 ) {
+			// inside of the result. See if the lower contour is a hole or an outer contour
+			int lowerParent = parents.data[lowerId];
+			parents.add(lowerParent != -1 ? lowerParent : lowerId);
+		} else {
+			// outside, so it's an outer contour
+			parents.add(-1);
+		}
+	}
+
+	private void markProcessed( int pos , int contourId ) {
+		processed.data[pos] = true;
+		resultEvents.get(pos).outputContour = contourId;
+	}
+
+	/**
+	 * At a vertex with more than two result edges the edges are sorted by angle. Edges which are next to each
+	 * other and have the result between them are paired up, which keeps the contour from crossing itself.
+	 *
+	 * @return Position of the event which leaves the vertex
+	 */
+	private int pairedPos( int pos ) {
+		SweepEvent v = resultEvents.get(pos);
+
+		int start = pos;
+		while( start > 0 && resultEvents.get(start-1).isSamePoint(v) )
+			start--;
+
+		// insertion sort by angle, counter-clockwise
+		fan.reset();
+		for (int i = start; i < resultEvents.size() && resultEvents.get(i).isSamePoint(v); i++) {
+			int j = fan.size;
+			fan.add(i);
+			while( j > 0 && compareAngle(v, resultEvents.get(fan.data[j-1]), resultEvents.get(i)) > 0 ) {
+				fan.data[j] = fan.data[j-1];
+				j--;
+			}
+			fan.data[j] = i;
+		}
+
+		// the sector after a non-vertical edge is inside if the result is on that side of the edge
+		int ref = 0;
+		while( resultEvents.get(fan.data[ref]).isVertical() )
+			ref++;
+		SweepEvent e = resultEvents.get(fan.data[ref]);
+		SweepEvent left = e.left ? e : e.other;
+		boolean refInside = (left.resultTransition > 0) == e.left;
+
+		int m = fan.indexOf(pos);
+		boolean inside = ((m - ref) % 2 == 0) == refInside;
+		int N = fan.size;
+		return inside ? fan.data[(m + 1) % N] : fan.data[(m + N - 1) % N];
+	}
+
+	/**
+	 * Compares the direction of two edges which start at the same vertex. Angles start at the positive x-axis.
+	 */
+	private static int compareAngle( SweepEvent v , SweepEvent a , SweepEvent b ) {
+		int halfA = half(v, a.other), halfB = half(v, b.other);
+		if( halfA != halfB )
+			return halfA - halfB;
+		return RobustPredicates.orient2d(v.x, v.y, a.other.x, a.other.y, b.other.x, b.other.y) > 0 ? -1 : 1;
+	}
+
+	private static int half( SweepEvent v , SweepEvent p ) {
+		return p.y > v.y || (p.y == v.y && p.x > v.x) ? 0 : 1;
+	}
+
+	/**
+	 * Finds the next unprocessed event which starts at the same point
+	 */
+	private int nextPos( int pos , int origPos ) {
+		final int N = resultEvents.size();
+		SweepEvent p = resultEvents.get(pos);
+
+		int newPos = pos + 1;
+		while( newPos < N ) {
+			SweepEvent p1 = resultEvents.get(newPos);
+			if( p1.x != p.x || p1.y != p.y )
+				break;
+			if( !processed.data[newPos] )
+				return newPos;
+			newPos++;
+		}
+
+		newPos = pos - 1;
+		while( newPos > origPos && processed.data[newPos] ) {
+			newPos--;
+		}
+		return newPos;
+	}
+
+	/**
+	 * Order in which events are processed. Left to right, then bottom to top.
+	 */
+	int compareEvents( SweepEvent e1 , SweepEvent e2 ) {
+		if( e1 == e2 )
+			return 0;
+		int order = comparePoints(e1.x, e1.y, e2.x, e2.y);
+		if( order != 0 )
+			return order;
+
+		// same point. Right end points are processed first
+		if( e1.left != e2.left )
+			return e1.left ? 1 : -1;
+
+		// not collinear. The event for the lower edge is processed first
+		if( RobustPredicates.orient2d(e1.x, e1.y, e1.other.x, e1.other.y, e2.other.x, e2.other.y) != 0 )
+			return e1.isBelow(e2.other.x, e2.other.y) ? -1 : 1;
+
+		// collinear
+		if( e1.subject != e2.subject )
+			return e1.subject ? -1 : 1;
+		return Integer.compare(e1.id, e2.id);
+	}
+
+	/**
+	 * Order of edges along the sweep line. Bottom to top.
+	 */
+	int compareSegments( SweepEvent le1 , SweepEvent le2 ) {
+		if( le1 == le2 )
+			return 0;
+
+		// the edges are not collinear
+		if( RobustPredicates.orient2d(le1.x, le1.y, le1.other.x, le1.other.y, le2.x, le2.y) != 0 ||
+				RobustPredicates.orient2d(le1.x, le1.y, le1.other.x, le1.other.y, le2.other.x, le2.other.y) != 0 ) {
+
+			// they share the left end point, so use the right end point to sort
+			if( le1.isSamePoint(le2) )
+				return le1.isBelow(le2.other.x, le2.other.y) ? -1 : 1;
+
+			// different left end points, but the same x-coordinate
+			if( le1.x == le2.x )
+				return le1.y < le2.y ? -1 : 1;
+
+			// see which edge was inserted into the sweep line last and compare against the other edge
+			if( compareEvents(le1, le2) == 1 )
+				return le2.isBelow(le1.x, le1.y) ? 1 : -1;
+
+			return le1.isBelow(le2.x, le2.y) ? -1 : 1;
+		}
+
+		// collinear edges
+		if( le1.subject == le2.subject ) {
+			if( le1.isSamePoint(le2) ) {
+				if( le1.contourId != le2.contourId )
+					return le1.contourId > le2.contourId ? 1 : -1;
+				return Integer.compare(le1.id, le2.id);
+			}
+		} else {
+			return le1.subject ? -1 : 1;
+		}
+
+		return compareEvents(le1, le2) == 1 ? 1 : -1;
+	}
+
+	private SweepEvent createEvent( double x , double y , boolean left , SweepEvent other , boolean subject ) {
+		SweepEvent e;
+		if( poolUsed < pool.size() ) {
+			e = pool.get(poolUsed);
+		} else {
+			e = new SweepEvent();
+			pool.add(e);
+		}
+		e.id = poolUsed++;
+		e.x = x;
+		e.y = y;
+		e.left = left;
+		e.other = other;
+		e.subject = subject;
+		e.type = NORMAL;
+		e.inOut = false;
+		e.otherInOut = false;
+		e.prevInResult = null;
+		e.resultTransition = 0;
+		e.contourId = 0;
+		e.outputContour = -1;
+		e.otherPos = -1;
+		return e;
+	}
+
+	private boolean boxesIntersect() {
+		return boxSubject[0] <= boxClipping[2] && boxClipping[0] <= boxSubject[2] &&
+				boxSubject[1] <= boxClipping[3] && boxClipping[1] <= boxSubject[3];
+	}
+
+	private static void resetBox( double[] box ) {
+		box[0] = box[1] = Double.MAX_VALUE;
+		box[2] = box[3] = -Double.MAX_VALUE;
+	}
+
+	private static int comparePoints( double ax , double ay , double bx , double by ) {
+		if( ax > bx ) return 1;
+		if( ax < bx ) return -1;
+		if( ay > by ) return 1;
+		if( ay < by ) return -1;
+		return 0;
+	}
+
+	private static double clamp( double value , double min , double max ) {
+		if( value < min ) return min;
+		if( value > max ) return max;
+		return value;
+	}
+
+	/**
+	 * Twice the signed area. Positive for counter-clockwise
+	 */
+	private static double signedArea( Polygon2D_F64 poly ) {
+		double total = 0;
+		int N = poly.size();
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			Point2D_F64 a = poly.get(j);
+			Point2D_F64 b = poly.get(i);
+			total += a.x*b.y - b.x*a.y;
+		}
+		return total;
+	}
+
+	/**
+	 * End point of an edge
+	 */
+	static class SweepEvent {
+		// location of the end point
+		double x, y;
+		// is this the left end point of the edge
+		boolean left;
+		// the event at the other end of the edge
+		SweepEvent other;
+		// true if it belongs to the subject or false for the clipping polygon
+		boolean subject;
+		// type of edge
+		int type;
+		// does the edge go from inside to outside of its polygon, for a ray going upwards
+		boolean inOut;
+		// is the closest edge below of the other polygon an inside to outside transition
+		boolean otherInOut;
+		// the closest edge below which is in the result
+		SweepEvent prevInResult;
+		// 0 = not in result, 1 = area above is inside the result, -1 = area above is outside
+		int resultTransition;
+		// which input contour it came from
+		int contourId;
+		// which output contour it belongs to
+		int outputContour;
+		// position of the other event in the result
+		int otherPos;
+		// unique ID used to break ties
+		int id;
+
+		boolean isVertical() {
+			return x == other.x;
+		}
+
+		boolean inResult() {
+			return resultTransition != 0;
+		}
+
+		/**
+		 * True if the edge is below the point
+		 */
+		boolean isBelow( double px , double py ) {
+			if( left )
+				return RobustPredicates.orient2d(x, y, other.x, other.y, px, py) > 0;
+			else
+				return RobustPredicates.orient2d(other.x, other.y, x, y, px, py) > 0;
+		}
+
+		boolean isSamePoint( SweepEvent e ) {
+			return x == e.x && y == e.y;
+		}
+
+		boolean isSamePoint( double px , double py ) {
+			return x == px && y == py;
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.curve.EllipseRotated_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.PackedContour2D;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.FastQueue;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the area, centroid, and second moments of the area inside a simple polygon in a single pass over its
+ * vertexes using Green's theorem. The centroid is the center of mass of the polygon's area and not the average of
+ * its vertexes. The second moments are central and normalized by the area, i.e. they are the covariance of a point
+ * selected uniformly inside the polygon. Results are the same for clockwise and counter-clockwise polygons.
+ * </p>
+ *
+ * <p>
+ * Sums are computed relative to the first vertex to reduce cancellation errors. Integer polygons use exact 64-bit
+ * sums, which requires the width and height of the polygon to be less than 2<sup>14</sup>.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PolygonMoments_F64 {
+	/**
+	 * Area of the polygon
+	 */
+	public double area;
+	/**
+	 * Center of mass of the area
+	 */
+	public Point2D_F64 centroid = new Point2D_F64();
+	/**
+	 * Central second moments normalized by the area
+	 */
+	public double xx, xy, yy;
+
+	/**
+	 * Computes the moments of the polygon
+	 *
+	 * @param polygon (Input) Simple polygon
+	 * @return true if successful or false if the polygon has no area
+	 */
+	public boolean process( Polygon2D_F64 polygon ) {
+		final int N = polygon.size();
+		if( N == 0 )
+			return degenerate(0, 0);
+		Point2D_F64 origin = polygon.get(0);
+
+		double a = 0, mx = 0, my = 0, mxx = 0, mxy = 0, myy = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			Point2D_F64 p0 = polygon.get(j);
+			Point2D_F64 p1 = polygon.get(i);
+			double x0 = p0.x - origin.x, y0 = p0.y - origin.y;
+			double x1 = p1.x - origin.x, y1 = p1.y - origin.y;
+			double cross = x0*y1 - x1*y0;
+
+			a += cross;
+			mx += cross*(x0 + x1);
+			my += cross*(y0 + y1);
+			mxx += cross*(x0*x0 + x0*x1 + x1*x1);
+			mxy += cross*(x0*y1 + 2*x0*y0 + 2*x1*y1 + x1*y0);
+			myy += cross*(y0*y0 + y0*y1 + y1*y1);
+		}
+
+		if( a == 0 ) {
+			double sumX = 0, sumY = 0;
+			for (int i = 0; i < N; i++) {
+				sumX += polygon.get(i).x;
+				sumY += polygon.get(i).y;
+			}
+			return degenerate(sumX/N, sumY/N);
+		}
+		return finish(origin.x, origin.y, a, mx, my, mxx, mxy, myy);
+	}
+
+	/**
+	 * Computes the moments of the polygon
+	 *
+	 * @param polygon (Input) Simple polygon
+	 * @return true if successful or false if the polygon has no area
+	 */
+	public boolean process( Polygon2D_I32 polygon ) {
+		final int N = polygon.size();
+		if( N == 0 )
+			return degenerate(0, 0);
+		Point2D_I32 origin = polygon.get(0);
+
+		long a = 0, mx = 0, my = 0, mxx = 0, mxy = 0, myy = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			Point2D_I32 p0 = polygon.get(j);
+			Point2D_I32 p1 = polygon.get(i);
+			long x0 = p0.x - origin.x, y0 = p0.y - origin.y;
+			long x1 = p1.x - origin.x, y1 = p1.y - origin.y;
+			long cross = x0*y1 - x1*y0;
+
+			a += cross;
+			mx += cross*(x0 + x1);
+			my += cross*(y0 + y1);
+			mxx += cross*(x0*x0 + x0*x1 + x1*x1);
+			mxy += cross*(x0*y1 + 2*x0*y0 + 2*x1*y1 + x1*y0);
+			myy += cross*(y0*y0 + y0*y1 + y1*y1);
+		}
+
+		if( a == 0 ) {
+			long sumX = 0, sumY = 0;
+			for (int i = 0; i < N; i++) {
+				sumX += polygon.get(i).x;
+				sumY += polygon.get(i).y;
+			}
+			return degenerate(sumX/(double)N, sumY/(double)N);
+		}
+		return finish(origin.x, origin.y, a, mx, my, mxx, mxy, myy);
+	}
+
+	/**
+	 * Computes the moments of the polygon
+	 *
+	 * @param contour (Input) Simple polygon
+	 * @return true if successful or false if the polygon has no area
+	 */
+	public boolean process( PackedContour2D contour ) {
+		final int N = contour.size();
+		if( N == 0 )
+			return degenerate(0, 0);
+		int ox = contour.getX(0), oy = contour.getY(0);
+
+		long a = 0, mx = 0, my = 0, mxx = 0, mxy = 0, myy = 0;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			long x0 = contour.getX(j) - ox, y0 = contour.getY(j) - oy;
+			long x1 = contour.getX(i) - ox, y1 = contour.getY(i) - oy;
+			long cross = x0*y1 - x1*y0;
+
+			a += cross;
+			mx += cross*(x0 + x1);
+			my += cross*(y0 + y1);
+			mxx += cross*(x0*x0 + x0*x1 + x1*x1);
+			mxy += cross*(x0*y1 + 2*x0*y0 + 2*x1*y1 + x1*y0);
+			myy += cross*(y0*y0 + y0*y1 + y1*y1);
+		}
+
+		if( a == 0 ) {
+			long sumX = 0, sumY = 0;
+			for (int i = 0; i < N; i++) {
+				sumX += contour.getX(i);
+				sumY += contour.getY(i);
+			}
+			return degenerate(sumX/(double)N, sumY/(double)N);
+		}
+		return finish(ox, oy, a, mx, my, mxx, mxy, myy);
+	}
+
+	/**
+	 * Converts the sums, which are relative to the origin, into the moments
+	 *
+	 * @param a Twice the signed area
+	 * @param mx 6 times the first moment along x
+	 * @param mxx 12 times the second moment along x
+	 * @param mxy 24 times the second cross moment
+	 */
+	private boolean finish( double ox , double oy ,
+							double a , double mx , double my , double mxx , double mxy , double myy ) {
+		// dividing by the signed area removes the sign introduced by the orientation
+		double cx = mx/(3*a);
+		double cy = my/(3*a);
+
+		area = Math.abs(a)/2;
+		centroid.set(ox + cx, oy + cy);
+		xx = mxx/(6*a) - cx*cx;
+		xy = mxy/(12*a) - cx*cy;
+		yy = myy/(6*a) - cy*cy;
+		return true;
+	}
+
+	private boolean degenerate( double x , double y ) {
+		area = 0;
+		centroid.set(x, y);
+		xx = xy = yy = 0;
+		return false;
+	}
+
+	/**
+	 * Computes the ellipse which has the same area, centroid, and second moments as the polygon. The axes of a
+	 * uniform ellipse are twice the square root of the eigenvalues of its covariance.
+	 *
+	 * @param ellipse (Output) Equivalent ellipse
+	 */
+	public void getEllipse( EllipseRotated_F64 ellipse ) {
+		double mean = (xx + yy)/2;
+		double diff = (xx - yy)/2;
+		double r = Math.sqrt(diff*diff + xy*xy);
+
+		double lambda0 = mean + r;
+		double lambda1 = mean - r;
+		// round off error can make it slightly negative
+		if( lambda1 < 0 )
+			lambda1 = 0;
+
+		double sqrt0 = Math.sqrt(lambda0);
+		double sqrt1 = Math.sqrt(lambda1);
+
+		ellipse.center.set(centroid);
+		ellipse.a = 2*sqrt0;
+		ellipse.b = 2*sqrt1;
+		ellipse.phi = Math.atan2(2*xy, xx - yy)/2;
+	}
+
+	/**
+	 * Computes the moments for a set of polygons
+	 *
+	 * @param polygons (Input) Simple polygons
+	 * @param moments (Output) Moments of each polygon
+	 */
+	public static void process( List<Polygon2D_F64> polygons , FastQueue<PolygonMoments_F64> moments ) {
+		moments.reset();
+		for (int i = 0; i < polygons.size(); i++) {
+			moments.grow().process(polygons.get(i));
+		}
+	}
+
+	/**
+	 * Computes the moments for a set of contours
+	 *
+	 * @param contours (Input) Simple polygons
+	 * @param moments (Output) Moments of each contour
+	 */
+	public static void processContours( List<? extends PackedContour2D> contours ,
+										FastQueue<PolygonMoments_F64> moments ) {
+		moments.reset();
+		for (int i = 0; i < contours.size(); i++) {
+			moments.grow().process(contours.get(i));
+		}
+	}
+
+	/**
+	 * Computes the equivalent ellipse for a set of moments
+	 *
+	 * @param moments (Input) Moments
+	 * @param ellipses (Output) Equivalent ellipses
+	 */
+	public static void ellipses( FastQueue<PolygonMoments_F64> moments , FastQueue<EllipseRotated_F64> ellipses ) {
+		ellipses.reset();
+		for (int i = 0; i < moments.size; i++) {
+			moments.get(i).getEllipse(ellipses.grow());
+		}
+	}
+
+	public void set( PolygonMoments_F64 src ) {
+		this.area = src.area;
+		this.centroid.set(src.centroid);
+		this.xx = src.xx;
+		this.xy = src.xy;
+		this.yy = src.yy;
+	}
+
+	public double getArea() {
+		return area;
+	}
+
+	public Point2D_F64 getCentroid() {
+		return centroid;
+	}
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Simplifies a polyline or polygon using the Douglas-Peucker algorithm [1]. The vertex farthest from the line
+ * between the two end points is kept if its distance is more than the tolerance, then both halves are simplified
+ * recursively. Vertexes are removed in place and no memory is allocated per vertex. A polygon is first split into
+ * two polylines at vertex 0 and the vertex farthest from it.
+ * </p>
+ *
+ * <p>
+ * The basic algorithm takes O(n<sup>2</sup>) time in the worst case because each step searches every vertex
+ * between the end points. If hull search is turned on, a tree of convex hulls is built over the vertexes and the
+ * farthest vertex is found with a binary search on O(log n) hulls. Building the tree is O(n log n) and the
+ * worst case is O(n log<sup>2</sup> n), which is an easier to implement alternative to the path hull of
+ * Hershberger and Snoeyink [2]. Both produce the same result unless two vertexes are the exact same distance
+ * from a line.
+ * </p>
+ *
+ * <p>
+ * [1] Douglas, David H., and Thomas K. Peucker. "Algorithms for the reduction of the number of points required to
+ * represent a digitized line or its caricature." Cartographica 10.2 (1973): 112-122.<br>
+ * [2] Hershberger, John, and Jack Snoeyink. "Speeding up the Douglas-Peucker line-simplification algorithm."
+ * Proc. 5th Intl. Symp. on Spatial Data Handling (1992)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SimplifyDouglasPeucker_F64 {
+	// number of vertexes in a leaf of the hull tree
+	private static final int BLOCK = 16;
+
+	// vertexes which are farther than this from the simplified line are kept
+	double tolerance;
+	// if true a tree of convex hulls is used to find the farthest vertex
+	boolean hullSearch;
+
+	// packed vertex coordinates. For polygons vertex 0 is repeated at the end
+	GrowQueue_F64 xy = new GrowQueue_F64();
+	// which vertexes are kept
+	GrowQueue_B keep = new GrowQueue_B();
+
+	// ranges which still need to be processed
+	private GrowQueue_I32 stack = new GrowQueue_I32();
+
+	// Tree of convex hulls. Each level has a list of vertexes sorted by x inside of each block, the upper and lower
+	// hulls of each block, and where each block's hulls start
+	private FastQueue<GrowQueue_I32> sortedX = new FastQueue<>(GrowQueue_I32.class, true);
+	private FastQueue<GrowQueue_I32> upper = new FastQueue<>(GrowQueue_I32.class, true);
+	private FastQueue<GrowQueue_I32> lower = new FastQueue<>(GrowQueue_I32.class, true);
+	private FastQueue<GrowQueue_I32> upperStart = new FastQueue<>(GrowQueue_I32.class, true);
+	private FastQueue<GrowQueue_I32> lowerStart = new FastQueue<>(GrowQueue_I32.class, true);
+
+	// result of the farthest vertex search
+	private int bestIndex;
+	private double bestDistance;
+	// line which distance is measured from
+	private double ax, ay, nx, ny;
+
+	/**
+	 * @param tolerance Vertexes which are farther than this from the simplified polyline are kept
+	 * @param hullSearch If true then convex hulls are used to speed up the search for the farthest vertex
+	 */
+	public SimplifyDouglasPeucker_F64( double tolerance , boolean hullSearch ) {
+		this.tolerance = tolerance;
+		this.hullSearch = hullSearch;
+	}
+
+	public SimplifyDouglasPeucker_F64( double tolerance ) {
+		this(tolerance, false);
+	}
+
+	/**
+	 * Simplifies the polygon in place
+	 */
+	public void process( Polygon2D_F64 polygon ) {
+		process(polygon.vertexes, true);
+	}
+
+	/**
+	 * Simplifies the polyline or polygon in place
+	 *
+	 * @param points (Input/Output) Vertexes. Removed vertexes are moved to the end of the queue.
+	 * @param closed true if it's a polygon and false if it's an open polyline
+	 */
+	public void process( FastQueue<Point2D_F64> points , boolean closed ) {
+		xy.reset();
+		for (int i = 0; i < points.size; i++) {
+			Point2D_F64 p = points.data[i];
+			xy.add(p.x);
+			xy.add(p.y);
+		}
+
+		select(points.size, closed);
+
+		int count = 0;
+		for (int i = 0; i < points.size; i++) {
+			if( keep.data[i] ) {
+				Point2D_F64 tmp = points.data[count];
+				points.data[count++] = points.data[i];
+				points.data[i] = tmp;
+			}
+		}
+		points.size = count;
+	}
+
+	/**
+	 * Decides which vertexes in {@link #xy} to keep
+	 *
+	 * @param N Number of vertexes
+	 * @param closed true for a polygon
+	 */
+	void select( int N , boolean closed ) {
+		keep.resize(N);
+		if( N <= (closed ? 3 : 2) ) {
+			keep.fill(true);
+			return;
+		}
+		keep.fill(false);
+		keep.data[0] = true;
+
+		int end = N-1;
+		if( closed ) {
+			xy.add(xy.data[0]);
+			xy.add(xy.data[1]);
+			end = N;
+		} else {
+			keep.data[N-1] = true;
+		}
+
+		if( hullSearch )
+			buildTree(end+1);
+
+		stack.reset();
+		if( closed ) {
+			// split the polygon at the vertex farthest from vertex 0
+			int far = 0;
+			double farDist = 0;
+			for (int i = 1; i < N; i++) {
+				double dx = xy.data[i*2] - xy.data[0], dy = xy.data[i*2+1] - xy.data[1];
+				double d = dx*dx + dy*dy;
+				if( d > farDist ) {
+					farDist = d;
+					far = i;
+				}
+			}
+			// all the vertexes are the same
+			if( far == 0 )
+				return;
+			keep.data[far] = true;
+			stack.add(0);
+			stack.add(far);
+			stack.add(far);
+			stack.add(end);
+		} else {
+			stack.add(0);
+			stack.add(end);
+		}
+
+		while( stack.size > 0 ) {
+			int b = stack.pop();
+			int a = stack.pop();
+			if( b - a < 2 )
+				continue;
+
+			findFarthest(a, b);
+			if( bestDistance > tolerance ) {
+				keep.data[bestIndex] = true;
+				stack.add(a);
+				stack.add(bestIndex);
+				stack.add(bestIndex);
+				stack.add(b);
+			}
+		}
+
+		if( closed )
+			xy.size -= 2;
+	}
+
+	/**
+	 * Finds the vertex between a and b, exclusive, which is farthest from the line between them
+	 */
+	private void findFarthest( int a , int b ) {
+		double[] d = xy.data;
+		ax = d[a*2];
+		ay = d[a*2+1];
+		double dx = d[b*2] - ax, dy = d[b*2+1] - ay;
+		double length = Math.sqrt(dx*dx + dy*dy);
+
+		bestIndex = a+1;
+		bestDistance = -1;
+
+		// the line is degenerate, use the distance from the point instead
+		if( length == 0 ) {
+			for (int i = a+1; i < b; i++) {
+				double ex = d[i*2] - ax, ey = d[i*2+1] - ay;
+				double dist = Math.sqrt(ex*ex + ey*ey);
+				if( dist > bestDistance ) {
+					bestDistance = dist;
+					bestIndex = i;
+				}
+			}
+			return;
+		}
+
+		nx = -dy/length;
+		ny = dx/length;
+
+		if( !hullSearch || b - a - 1 <= 2*BLOCK ) {
+			searchRange(a+1, b);
+			return;
+		}
+
+		// vertexes in partial blocks at the end points are searched directly
+		int lo = a+1, hi = b;
+		int bl = (lo + BLOCK - 1)/BLOCK;
+		int br = hi/BLOCK;
+		searchRange(lo, bl*BLOCK);
+		searchRange(br*BLOCK, hi);
+
+		// full blocks are searched using the tree
+		int level = 0;
+		while( bl < br ) {
+			if( (bl & 1) == 1 )
+				searchHull(level, bl++);
+			if( (br & 1) == 1 )
+				searchHull(level, --br);
+			bl /= 2;
+			br /= 2;
+			level++;
+		}
+	}
+
+	private void searchRange( int lo , int hi ) {
+		double[] d = xy.data;
+		for (int i = lo; i < hi; i++) {
+			checkVertex(i, d);
+		}
+	}
+
+	private void checkVertex( int i , double[] d ) {
+		double dist = Math.abs(nx*(d[i*2] - ax) + ny*(d[i*2+1] - ay));
+		if( dist > bestDistance || (dist == bestDistance && i < bestIndex) ) {
+			bestDistance = dist;
+			bestIndex = i;
+		}
+	}
+
+	/**
+	 * Checks the two vertexes in the block's hull which are the most extreme along the line's normal
+	 */
+	private void searchHull( int level , int block ) {
+		double[] d = xy.data;
+		GrowQueue_I32 u = upper.get(level), l = lower.get(level);
+		int u0 = upperStart.get(level).data[block], u1 = upperStart.get(level).data[block+1];
+		int l0 = lowerStart.get(level).data[block], l1 = lowerStart.get(level).data[block+1];
+
+		// The upper hull contains the maximum along any direction which points up and the lower hull the minimum
+		if( ny >= 0 ) {
+			checkVertex(extreme(u, u0, u1, 1), d);
+			checkVertex(extreme(l, l0, l1, -1), d);
+		} else {
+			checkVertex(extreme(l, l0, l1, 1), d);
+			checkVertex(extreme(u, u0, u1, -1), d);
+		}
+	}
+
+	/**
+	 * Binary search along a hull sorted by x for the vertex which maximizes sign*dot(normal,p). The dot product
+	 * is unimodal along the hull.
+	 */
+	private int extreme( GrowQueue_I32 hull , int start , int end , int sign ) {
+		double[] d = xy.data;
+		int lo = start, hi = end-1;
+		while( lo < hi ) {
+			int mid = (lo + hi) >>> 1;
+			int i = hull.data[mid], j = hull.data[mid+1];
+			double change = nx*(d[j*2] - d[i*2]) + ny*(d[j*2+1] - d[i*2+1]);
+			if( sign*change > 0 )
+				lo = mid+1;
+			else
+				hi = mid;
+		}
+		return hull.data[lo];
+	}
+
+	/**
+	 * Builds the tree of convex hulls. Vertexes in each block are sorted by merging the sorted children, so
+	 * each level takes linear time.
+	 */
+	private void buildTree( int N ) {
+		sortedX.reset();
+		upper.reset();
+		lower.reset();
+		upperStart.reset();
+		lowerStart.reset();
+
+		int numBlocks = N/BLOCK;
+		if( numBlocks == 0 )
+			return;
+
+		// sort each leaf block with insertion sort
+		GrowQueue_I32 sorted = sortedX.grow();
+		sorted.resize(numBlocks*BLOCK);
+		for (int block = 0; block < numBlocks; block++) {
+			int start = block*BLOCK;
+			for (int i = start; i < start + BLOCK; i++) {
+				int j = i;
+				while( j > start && lessX(i, sorted.data[j-1]) ) {
+					sorted.data[j] = sorted.data[j-1];
+					j--;
+				}
+				sorted.data[j] = i;
+			}
+		}
+		computeHulls(sorted, BLOCK, numBlocks);
+
+		int size = BLOCK;
+		// a block without a sibling isn't needed at the next level
+		while( numBlocks > 1 ) {
+			GrowQueue_I32 prev = sorted;
+			numBlocks /= 2;
+			sorted = sortedX.grow();
+			sorted.resize(numBlocks*size*2);
+			for (int block = 0; block < numBlocks; block++) {
+				int a = block*2*size, b = a + size;
+				int aEnd = b, bEnd = b + size;
+				int k = a;
+				while( a < aEnd || b < bEnd ) {
+					if( b == bEnd || (a < aEnd && lessX(prev.data[a], prev.data[b])) )
+						sorted.data[k++] = prev.data[a++];
+					else
+						sorted.data[k++] = prev.data[b++];
+				}
+			}
+			size *= 2;
+			computeHulls(sorted, size, numBlocks);
+		}
+	}
+
+	/**
+	 * Computes the upper and lower hulls of each block using Andrew's monotone chain
+	 */
+	private void computeHulls( GrowQueue_I32 sorted , int size , int numBlocks ) {
+		GrowQueue_I32 u = upper.grow(), l = lower.grow();
+		GrowQueue_I32 us = upperStart.grow(), ls = lowerStart.grow();
+		u.reset();
+		l.reset();
+		us.reset();
+		ls.reset();
+
+		for (int block = 0; block < numBlocks; block++) {
+			us.add(u.size);
+			ls.add(l.size);
+			int base = u.size;
+			int baseL = l.size;
+			for (int k = block*size; k < (block+1)*size; k++) {
+				int p = sorted.data[k];
+				while( u.size - base >= 2 && cross(u.data[u.size-2], u.data[u.size-1], p) >= 0 )
+					u.size--;
+				u.add(p);
+				while( l.size - baseL >= 2 && cross(l.data[l.size-2], l.data[l.size-1], p) <= 0 )
+					l.size--;
+				l.add(p);
+			}
+		}
+		us.add(u.size);
+		ls.add(l.size);
+	}
+
+	private boolean lessX( int a , int b ) {
+		double xa = xy.data[a*2], xb = xy.data[b*2];
+		return xa < xb || (xa == xb && xy.data[a*2+1] < xy.data[b*2+1]);
+	}
+
+	private double cross( int a , int b , int c ) {
+		double[] d = xy.data;
+		return (d[b*2] - d[a*2])*(d[c*2+1] - d[a*2+1]) - (d[b*2+1] - d[a*2+1])*(d[c*2] - d[a*2]);
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public void setTolerance( double tolerance ) {
+		this.tolerance = tolerance;
+	}
+
+	public boolean isHullSearch() {
+		return hullSearch;
+	}
+
+	public void setHullSearch( boolean hullSearch ) {
+		this.hullSearch = hullSearch;
+	}
+}
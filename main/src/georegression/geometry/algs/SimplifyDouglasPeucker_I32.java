@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.FastQueue;
+
+/**
+ * <p>
+ * Simplifies a polyline or polygon with integer coordinates using the Douglas-Peucker algorithm. See
+ * {@link SimplifyDouglasPeucker_F64} for the details. Integer coordinates are exactly represented by a double, so
+ * the result is the same.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SimplifyDouglasPeucker_I32 {
+	SimplifyDouglasPeucker_F64 alg;
+
+	/**
+	 * @param tolerance Vertexes which are farther than this from the simplified polyline are kept
+	 * @param hullSearch If true then convex hulls are used to speed up the search for the farthest vertex
+	 */
+	public SimplifyDouglasPeucker_I32( double tolerance , boolean hullSearch ) {
+		alg = new SimplifyDouglasPeucker_F64(tolerance, hullSearch);
+	}
+
+	public SimplifyDouglasPeucker_I32( double tolerance ) {
+		this(tolerance, false);
+	}
+
+	/**
+	 * Simplifies the polygon in place
+	 */
+	public void process( Polygon2D_I32 polygon ) {
+		process(polygon.vertexes, true);
+	}
+
+	/**
+	 * Simplifies the polyline or polygon in place
+	 *
+	 * @param points (Input/Output) Vertexes. Removed vertexes are moved to the end of the queue.
+	 * @param closed true if it's a polygon and false if it's an open polyline
+	 */
+	public void process( FastQueue<Point2D_I32> points , boolean closed ) {
+		alg.xy.reset();
+		for (int i = 0; i < points.size; i++) {
+			Point2D_I32 p = points.data[i];
+			alg.xy.add(p.x);
+			alg.xy.add(p.y);
+		}
+
+		alg.select(points.size, closed);
+
+		int count = 0;
+		for (int i = 0; i < points.size; i++) {
+			if( alg.keep.data[i] ) {
+				Point2D_I32 tmp = points.data[count];
+				points.data[count++] = points.data[i];
+				points.data[i] = tmp;
+			}
+		}
+		points.size = count;
+	}
+
+	public double getTolerance() {
+		return alg.getTolerance();
+	}
+
+	public void setTolerance( double tolerance ) {
+		alg.setTolerance(tolerance);
+	}
+}
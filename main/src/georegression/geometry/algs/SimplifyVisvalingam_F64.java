@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Simplifies a polyline or polygon using the Visvalingam-Whyatt algorithm [1]. The effective area of a vertex is
+ * the area of the triangle it forms with its two neighbors. The vertex with the smallest effective area is
+ * removed and the areas of its neighbors are updated, until every remaining vertex has an area of at least the
+ * tolerance. A neighbor's area is never allowed to become smaller than the area of the vertex which was just
+ * removed, so vertexes are removed in order of increasing area. Uses an indexed binary heap and runs in
+ * O(n log n) time. Vertexes are removed in place and no memory is allocated per vertex.
+ * </p>
+ *
+ * <p>
+ * The end points of a polyline are always kept and a polygon will have at least three vertexes.
+ * </p>
+ *
+ * <p>
+ * [1] Visvalingam, Maheswari, and James D. Whyatt. "Line generalisation by repeated elimination of points."
+ * The Cartographic Journal 30.1 (1993): 46-51.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SimplifyVisvalingam_F64 {
+	// vertexes with an effective area smaller than this are removed
+	double tolerance;
+
+	// packed vertex coordinates
+	GrowQueue_F64 xy = new GrowQueue_F64();
+	// which vertexes are kept
+	GrowQueue_B keep = new GrowQueue_B();
+
+	// linked list of remaining vertexes
+	private GrowQueue_I32 prev = new GrowQueue_I32();
+	private GrowQueue_I32 next = new GrowQueue_I32();
+
+	// binary min heap of vertexes sorted by area and the location of each vertex in the heap
+	private GrowQueue_I32 heap = new GrowQueue_I32();
+	private GrowQueue_I32 location = new GrowQueue_I32();
+	private GrowQueue_F64 area = new GrowQueue_F64();
+
+	/**
+	 * @param tolerance Vertexes with an effective area smaller than this are removed
+	 */
+	public SimplifyVisvalingam_F64( double tolerance ) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * Simplifies the polygon in place
+	 */
+	public void process( Polygon2D_F64 polygon ) {
+		process(polygon.vertexes, true);
+	}
+
+	/**
+	 * Simplifies the polyline or polygon in place
+	 *
+	 * @param points (Input/Output) Vertexes. Removed vertexes are moved to the end of the queue.
+	 * @param closed true if it's a polygon and false if it's an open polyline
+	 */
+	public void process( FastQueue<Point2D_F64> points , boolean closed ) {
+		xy.reset();
+		for (int i = 0; i < points.size; i++) {
+			Point2D_F64 p = points.data[i];
+			xy.add(p.x);
+			xy.add(p.y);
+		}
+
+		select(points.size, closed);
+
+		int count = 0;
+		for (int i = 0; i < points.size; i++) {
+			if( keep.data[i] ) {
+				Point2D_F64 tmp = points.data[count];
+				points.data[count++] = points.data[i];
+				points.data[i] = tmp;
+			}
+		}
+		points.size = count;
+	}
+
+	/**
+	 * Decides which vertexes in {@link #xy} to keep
+	 *
+	 * @param N Number of vertexes
+	 * @param closed true for a polygon
+	 */
+	void select( int N , boolean closed ) {
+		keep.resize(N);
+		keep.fill(true);
+		int minimum = closed ? 3 : 2;
+		if( N <= minimum )
+			return;
+
+		prev.resize(N);
+		next.resize(N);
+		area.resize(N);
+		location.resize(N);
+		location.fill(-1);
+		heap.reset();
+		for (int i = 0; i < N; i++) {
+			prev.data[i] = i-1;
+			next.data[i] = i+1;
+		}
+		if( closed ) {
+			prev.data[0] = N-1;
+			next.data[N-1] = 0;
+		}
+
+		// the end points of a polyline are never removed
+		int first = closed ? 0 : 1;
+		int last = closed ? N : N-1;
+		for (int i = first; i < last; i++) {
+			area.data[i] = triangleArea(i);
+			location.data[i] = heap.size;
+			heap.add(i);
+		}
+		for (int i = heap.size/2 - 1; i >= 0; i--) {
+			siftDown(i);
+		}
+
+		int remaining = N;
+		while( remaining > minimum && heap.size > 0 ) {
+			int v = heap.data[0];
+			double removedArea = area.data[v];
+			if( removedArea >= tolerance )
+				break;
+			removeTop();
+			keep.data[v] = false;
+			remaining--;
+
+			int p = prev.data[v];
+			int n = next.data[v];
+			next.data[p] = n;
+			prev.data[n] = p;
+			update(p, removedArea);
+			update(n, removedArea);
+		}
+	}
+
+	/**
+	 * Recomputes the area of a vertex which is still in the heap
+	 */
+	private void update( int v , double removedArea ) {
+		int loc = location.data[v];
+		if( loc < 0 )
+			return;
+		area.data[v] = Math.max(triangleArea(v), removedArea);
+		siftUp(loc);
+		siftDown(location.data[v]);
+	}
+
+	private double triangleArea( int v ) {
+		double[] d = xy.data;
+		int a = prev.data[v], c = next.data[v];
+		double ax = d[a*2], ay = d[a*2+1];
+		return Math.abs((d[v*2] - ax)*(d[c*2+1] - ay) - (d[v*2+1] - ay)*(d[c*2] - ax))/2;
+	}
+
+	private void removeTop() {
+		location.data[heap.data[0]] = -1;
+		heap.size--;
+		if( heap.size > 0 ) {
+			heap.data[0] = heap.data[heap.size];
+			location.data[heap.data[0]] = 0;
+			siftDown(0);
+		}
+	}
+
+	/**
+	 * Heap ordering. Ties are broken by vertex index so that the result doesn't depend on the heap's layout.
+	 */
+	private boolean lessThan( int a , int b ) {
+		return area.data[a] < area.data[b] || (area.data[a] == area.data[b] && a < b);
+	}
+
+	private void siftUp( int i ) {
+		int v = heap.data[i];
+		while( i > 0 ) {
+			int parent = (i - 1)/2;
+			int p = heap.data[parent];
+			if( !lessThan(v, p) )
+				break;
+			heap.data[i] = p;
+			location.data[p] = i;
+			i = parent;
+		}
+		heap.data[i] = v;
+		location.data[v] = i;
+	}
+
+	private void siftDown( int i ) {
+		int v = heap.data[i];
+		while( true ) {
+			int child = 2*i + 1;
+			if( child >= heap.size )
+				break;
+			if( child + 1 < heap.size && lessThan(heap.data[child+1], heap.data[child]) )
+				child++;
+			int c = heap.data[child];
+			if( !lessThan(c, v) )
+				break;
+			heap.data[i] = c;
+			location.data[c] = i;
+			i = child;
+		}
+		heap.data[i] = v;
+		location.data[v] = i;
+	}
+
+	public double getTolerance() {
+		return tolerance;
+	}
+
+	public void setTolerance( double tolerance ) {
+		this.tolerance = tolerance;
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.UtilPolygons2D_F64;
+import georegression.geometry.predicates.RobustPredicates;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.GrowQueue_F64;
+
+/**
+ * <p>
+ * Clips a polygon by a convex polygon using the Sutherland-Hodgman algorithm. The subject is clipped by the line
+ * through each edge of the clipping polygon, one edge at a time. Runs in O(n*m) and is much faster than a general
+ * polygon clipper when the clipping polygon has only a few sides, e.g. a rectangle or the intersection of two
+ * convex polygons.
+ * </p>
+ *
+ * <p>
+ * If the subject is convex then the output is their intersection. If the subject is concave and the intersection
+ * is made up of several pieces then the pieces will be connected by edges with zero area along the clipping
+ * polygon's boundary. The output has the same orientation as the subject. Internal buffers are reused.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SutherlandHodgmanClip_F64 {
+
+	// packed coordinates of the polygon being clipped
+	private GrowQueue_F64 work0 = new GrowQueue_F64();
+	private GrowQueue_F64 work1 = new GrowQueue_F64();
+
+	/**
+	 * Clips the subject by the convex polygon
+	 *
+	 * @param subject (Input) Polygon which is clipped
+	 * @param clip (Input) Convex polygon. Either orientation.
+	 * @param output (Output) Clipped polygon. Zero vertexes if there is no intersection.
+	 */
+	public void process( Polygon2D_F64 subject , Polygon2D_F64 clip , Polygon2D_F64 output ) {
+		work0.reset();
+		for (int i = 0; i < subject.size(); i++) {
+			Point2D_F64 p = subject.get(i);
+			work0.add(p.x);
+			work0.add(p.y);
+		}
+
+		// points to the left of counter-clockwise edges are inside
+		boolean ccw = UtilPolygons2D_F64.isCCW(clip);
+
+		int M = clip.size();
+		for (int i = 0, j = M-1; i < M && work0.size > 0; j = i, i++) {
+			Point2D_F64 a = clip.get(j);
+			Point2D_F64 b = clip.get(i);
+			if( ccw )
+				clipByEdge(a.x, a.y, b.x, b.y);
+			else
+				clipByEdge(b.x, b.y, a.x, a.y);
+		}
+
+		int N = work0.size/2;
+		output.vertexes.resize(N);
+		for (int i = 0; i < N; i++) {
+			output.vertexes.data[i].set(work0.data[i*2], work0.data[i*2+1]);
+		}
+	}
+
+	/**
+	 * Removes the part of the polygon in work0 which is to the right of the line from a to b.
+	 */
+	private void clipByEdge( double ax , double ay , double bx , double by ) {
+		work1.reset();
+		int N = work0.size/2;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			double px = work0.data[j*2], py = work0.data[j*2+1];
+			double cx = work0.data[i*2], cy = work0.data[i*2+1];
+
+			int sp = side(ax, ay, bx, by, px, py);
+			int sc = side(ax, ay, bx, by, cx, cy);
+
+			if( sc >= 0 ) {
+				if( sp < 0 && sc != 0 )
+					addIntersection(ax, ay, bx, by, px, py, cx, cy);
+				work1.add(cx);
+				work1.add(cy);
+			} else if( sp > 0 ) {
+				addIntersection(ax, ay, bx, by, px, py, cx, cy);
+			}
+		}
+
+		GrowQueue_F64 tmp = work0;
+		work0 = work1;
+		work1 = tmp;
+	}
+
+	/**
+	 * Which side of the line a point is on. 1 = left, 0 = on the line, -1 = right
+	 */
+	private static int side( double ax , double ay , double bx , double by , double px , double py ) {
+		return (int)Math.signum(RobustPredicates.orient2d(ax, ay, bx, by, px, py));
+	}
+
+	/**
+	 * Adds the point where the edge from p to c crosses the line through a and b
+	 */
+	private void addIntersection( double ax , double ay , double bx , double by ,
+								  double px , double py , double cx , double cy ) {
+		double dx = bx - ax, dy = by - ay;
+		double np = dx*(py - ay) - dy*(px - ax);
+		double nc = dx*(cy - ay) - dy*(cx - ax);
+		double t = np/(np - nc);
+		work1.add(px + t*(cx - px));
+		work1.add(py + t*(cy - py));
+	}
+}
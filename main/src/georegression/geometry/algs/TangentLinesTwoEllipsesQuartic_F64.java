@@ -0,0 +1,409 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.curve.EllipseRotated_F64;
+import georegression.struct.point.Point2D_F64;
+
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Closed form algorithm for finding the 4 pairs of tangent lines between two ellipses.  The ellipses are assumed
+ * to not intersect.  Line 0 and line 3 will not intersect the line joining the center of the two
+ * ellipses while line 1 and 2 will.  Looking from ellipse A towards ellipse B, line 0 and line 1 touch
+ * ellipse A on its left side while line 2 and 3 touch it on its right side.
+ * </p>
+ *
+ * <p>
+ * An affine transform is applied which turns ellipse A into the unit circle and places the center of B on the
+ * positive x-axis.  A line tangent to the unit circle is x*cos(t) + y*sin(t) = 1 and it's also tangent to B
+ * when it satisfies B's dual conic.  Substituting u = tan(t/2) turns that constraint into a quartic polynomial,
+ * which is solved using Ferrari's method and polished with a fixed number of Newton steps.  Unlike
+ * {@link TangentLinesTwoEllipses_F64} the amount of work is fixed and the results are deterministic.
+ * </p>
+ *
+ * <p>
+ * A batch interface is provided for processing many pairs of ellipses at once, optionally in parallel.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TangentLinesTwoEllipsesQuartic_F64 {
+
+	// number of Newton iterations used to refine each root of the quartic
+	private int polishIterations = 2;
+
+	// if true the batch process will be done using multiple threads
+	private boolean concurrent = false;
+	// minimum number of ellipse pairs processed by a single thread
+	private int minimumChunk = 200;
+
+	// coefficients of the quartic. Index is the power
+	private double[] coef = new double[5];
+	// real roots of the quartic
+	private double[] roots = new double[4];
+
+	// transform from the input coordinate system into the normalized one
+	private double m11,m12,m21,m22;
+
+	/**
+	 * <p>Selects 4 pairs of points.  Each point in the pair represents an end point in a line segment which is tangent
+	 * to both ellipseA and ellipseB.  Both ellipses are assumed to not intersect each other.  If the ellipses
+	 * intersect or if a numerical problem prevents all 4 lines from being found then false is returned.</p>
+	 *
+	 * @param ellipseA (Input) An ellipse
+	 * @param ellipseB (Input) An ellipse
+	 * @param tangentA0 (Output) Tangent point on A for line segment 0
+	 * @param tangentA1 (Output) Tangent point on A for line segment 1
+	 * @param tangentA2 (Output) Tangent point on A for line segment 2
+	 * @param tangentA3 (Output) Tangent point on A for line segment 3
+	 * @param tangentB0 (Output) Tangent point on B for line segment 0
+	 * @param tangentB1 (Output) Tangent point on B for line segment 1
+	 * @param tangentB2 (Output) Tangent point on B for line segment 2
+	 * @param tangentB3 (Output) Tangent point on B for line segment 3
+	 * @return true if all 4 lines were found
+	 */
+	public boolean process(EllipseRotated_F64 ellipseA , EllipseRotated_F64 ellipseB ,
+						   Point2D_F64 tangentA0 , Point2D_F64 tangentA1 ,
+						   Point2D_F64 tangentA2 , Point2D_F64 tangentA3 ,
+						   Point2D_F64 tangentB0 , Point2D_F64 tangentB1 ,
+						   Point2D_F64 tangentB2 , Point2D_F64 tangentB3 )
+	{
+		// axes of ellipse A
+		double cosA = Math.cos(ellipseA.phi);
+		double sinA = Math.sin(ellipseA.phi);
+
+		// center of B in A's normalized coordinate system
+		double dx = ellipseB.center.x - ellipseA.center.x;
+		double dy = ellipseB.center.y - ellipseA.center.y;
+		double lx = (dx*cosA + dy*sinA)/ellipseA.a;
+		double ly = (-dx*sinA + dy*cosA)/ellipseA.b;
+		double cx = Math.sqrt(lx*lx + ly*ly);
+		if( cx <= 1.0 )
+			return false; // B's center is inside of A
+
+		// rotate so that B's center lies on the positive x-axis
+		double cb = lx/cx;
+		double sb = ly/cx;
+
+		// M = rot(-beta)*diag(1/a,1/b)*rot(-phi)
+		m11 = ( cb*cosA/ellipseA.a - sb*sinA/ellipseA.b);
+		m12 = ( cb*sinA/ellipseA.a + sb*cosA/ellipseA.b);
+		m21 = (-sb*cosA/ellipseA.a - cb*sinA/ellipseA.b);
+		m22 = (-sb*sinA/ellipseA.a + cb*cosA/ellipseA.b);
+
+		// B's shape matrix in the normalized coordinate system, S = M*R*diag(a^2,b^2)*R'*M'
+		double cosB = Math.cos(ellipseB.phi);
+		double sinB = Math.sin(ellipseB.phi);
+		double g1x = (m11*cosB + m12*sinB)*ellipseB.a;
+		double g1y = (m21*cosB + m22*sinB)*ellipseB.a;
+		double g2x = (-m11*sinB + m12*cosB)*ellipseB.b;
+		double g2y = (-m21*sinB + m22*cosB)*ellipseB.b;
+
+		double s11 = g1x*g1x + g2x*g2x;
+		double s12 = g1x*g1y + g2x*g2y;
+		double s22 = g1y*g1y + g2y*g2y;
+
+		// Line with normal n = ((1-u^2),2*u)/(1+u^2) is tangent to B when n'*S*n = (n'*c - 1)^2
+		coef[0] = s11 - (cx-1)*(cx-1);
+		coef[1] = 4*s12;
+		coef[2] = -2*s11 + 4*s22 + 2*(cx*cx-1);
+		coef[3] = -4*s12;
+		coef[4] = s11 - (cx+1)*(cx+1);
+
+		if( solveQuartic(coef,roots) != 4 )
+			return false;
+
+		// use the tangent point on the unit circle to sort the lines
+		int outer0=-1,outer1=-1,inner0=-1,inner1=-1;
+		for (int i = 0; i < 4; i++) {
+			double u = polish(roots[i]);
+			roots[i] = u;
+
+			double nx = (1-u*u)/(1+u*u);
+			if( nx*cx < 1 ) {
+				if( outer0 == -1 ) outer0 = i; else if( outer1 == -1 ) outer1 = i; else return false;
+			} else {
+				if( inner0 == -1 ) inner0 = i; else if( inner1 == -1 ) inner1 = i; else return false;
+			}
+		}
+		if( outer1 == -1 || inner1 == -1 )
+			return false;
+
+		// lines which touch the left side of A have a positive y-coordinate
+		if( tangentY(roots[outer0]) < tangentY(roots[outer1]) ) { int tmp = outer0; outer0 = outer1; outer1 = tmp; }
+		if( tangentY(roots[inner0]) < tangentY(roots[inner1]) ) { int tmp = inner0; inner0 = inner1; inner1 = tmp; }
+
+		computeTangents(roots[outer0],ellipseA,cx,s11,s12,s22,tangentA0,tangentB0);
+		computeTangents(roots[inner0],ellipseA,cx,s11,s12,s22,tangentA1,tangentB1);
+		computeTangents(roots[inner1],ellipseA,cx,s11,s12,s22,tangentA2,tangentB2);
+		computeTangents(roots[outer1],ellipseA,cx,s11,s12,s22,tangentA3,tangentB3);
+
+		return true;
+	}
+
+	/**
+	 * Finds tangent lines for many pairs of ellipses.  For pair i, the tangent points are written
+	 * to tangents[i*8] to tangents[i*8+7] in the order A0,A1,A2,A3,B0,B1,B2,B3.
+	 *
+	 * @param ellipsesA (Input) First ellipse in each pair
+	 * @param ellipsesB (Input) Second ellipse in each pair
+	 * @param length Number of pairs
+	 * @param tangents (Output) Tangent points. Must have 8*length elements.
+	 * @param success (Output) If the tangent lines were found for a pair.  Must have length elements.
+	 */
+	public void process( EllipseRotated_F64[] ellipsesA , EllipseRotated_F64[] ellipsesB , int length,
+						 Point2D_F64[] tangents , boolean[] success )
+	{
+		if( tangents.length < length*8 )
+			throw new IllegalArgumentException("tangents must have at least 8*length elements");
+		if( success.length < length )
+			throw new IllegalArgumentException("success must have at least length elements");
+
+		if( !concurrent || length < minimumChunk*2 ) {
+			process(ellipsesA,ellipsesB,0,length,tangents,success);
+			return;
+		}
+
+		int numChunks = length/minimumChunk;
+		int threads = Runtime.getRuntime().availableProcessors();
+		if( numChunks > threads*4 )
+			numChunks = threads*4;
+		final int chunks = numChunks;
+
+		IntStream.range(0,chunks).parallel().forEach(chunk -> {
+			int first = (int)((long)length*chunk/chunks);
+			int last = (int)((long)length*(chunk+1)/chunks);
+			TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+			alg.setPolishIterations(polishIterations);
+			alg.process(ellipsesA,ellipsesB,first,last,tangents,success);
+		});
+	}
+
+	private void process( EllipseRotated_F64[] ellipsesA , EllipseRotated_F64[] ellipsesB , int first, int last,
+						  Point2D_F64[] tangents , boolean[] success ) {
+		for (int i = first; i < last; i++) {
+			int idx = i*8;
+			success[i] = process(ellipsesA[i],ellipsesB[i],
+					tangents[idx  ],tangents[idx+1],tangents[idx+2],tangents[idx+3],
+					tangents[idx+4],tangents[idx+5],tangents[idx+6],tangents[idx+7]);
+		}
+	}
+
+	/**
+	 * Computes the tangent points on the two ellipses for the line that's parametrized by u
+	 */
+	private void computeTangents( double u , EllipseRotated_F64 ellipseA ,
+								  double cx, double s11 , double s12 , double s22 ,
+								  Point2D_F64 tangentA , Point2D_F64 tangentB ) {
+		double w = 1 + u*u;
+		double nx = (1 - u*u)/w;
+		double ny = 2*u/w;
+
+		// on the unit circle the tangent point is the normal
+		toInput(nx,ny,ellipseA,tangentA);
+
+		// support point of B along the normal.  Which side depends on if the line is an inner or outer tangent
+		double snx = s11*nx + s12*ny;
+		double sny = s12*nx + s22*ny;
+		double scale = Math.sqrt(nx*snx + ny*sny);
+		if( nx*cx > 1 )
+			scale = -scale;
+
+		toInput(cx + snx/scale, sny/scale, ellipseA, tangentB);
+	}
+
+	/**
+	 * y-coordinate of the tangent point on the unit circle
+	 */
+	private static double tangentY( double u ) {
+		return 2*u/(1 + u*u);
+	}
+
+	/**
+	 * Converts a point from normalized coordinates back into input coordinates
+	 */
+	private void toInput( double x , double y , EllipseRotated_F64 ellipseA , Point2D_F64 output ) {
+		// inverse of M
+		double det = m11*m22 - m12*m21;
+		double ix = ( m22*x - m12*y)/det;
+		double iy = (-m21*x + m11*y)/det;
+
+		output.x = ellipseA.center.x + ix;
+		output.y = ellipseA.center.y + iy;
+	}
+
+	/**
+	 * Refines the root with Newton's method
+	 */
+	private double polish( double u ) {
+		for (int i = 0; i < polishIterations; i++) {
+			double f = (((coef[4]*u + coef[3])*u + coef[2])*u + coef[1])*u + coef[0];
+			double d = ((4*coef[4]*u + 3*coef[3])*u + 2*coef[2])*u + coef[1];
+			if( d == 0 )
+				break;
+			u -= f/d;
+		}
+		return u;
+	}
+
+	/**
+	 * Finds the real roots of a quartic polynomial using Ferrari's method.
+	 *
+	 * @param coef (Input) Coefficients of the polynomial. coef[i] is for x^i.
+	 * @param roots (Output) Real roots. Must have at least 4 elements.
+	 * @return Number of real roots found
+	 */
+	static int solveQuartic( double[] coef , double[] roots ) {
+		double a4 = coef[4];
+		if( a4 == 0 )
+			return 0;
+
+		double a = coef[3]/a4;
+		double b = coef[2]/a4;
+		double c = coef[1]/a4;
+		double d = coef[0]/a4;
+
+		// depressed quartic y^4 + p*y^2 + q*y + r = 0, where x = y - a/4
+		double aa = a*a;
+		double p = b - 3*aa/8;
+		double q = c - a*b/2 + aa*a/8;
+		double r = d - a*c/4 + aa*b/16 - 3*aa*aa/256;
+		double shift = -a/4;
+
+		double magnitude = Math.abs(p) + Math.abs(q) + Math.abs(r);
+		int total = 0;
+
+		if( Math.abs(q) <= GrlConstants.EPS*magnitude ) {
+			// biquadratic z^2 + p*z + r = 0, where z = y^2
+			double disc = p*p - 4*r;
+			if( disc < 0 )
+				return 0;
+			double sqrtDisc = Math.sqrt(disc);
+			double z0 = (-p + sqrtDisc)/2;
+			double z1 = (-p - sqrtDisc)/2;
+			if( z0 >= 0 ) {
+				double y = Math.sqrt(z0);
+				roots[total++] = y + shift;
+				roots[total++] = -y + shift;
+			}
+			if( z1 >= 0 ) {
+				double y = Math.sqrt(z1);
+				roots[total++] = y + shift;
+				roots[total++] = -y + shift;
+			}
+			return total;
+		}
+
+		// positive root of the resolvent cubic m^3 + p*m^2 + (p^2/4 - r)*m - q^2/8 = 0
+		double m = largestCubicRoot(p, p*p/4 - r, -q*q/8);
+		if( m <= 0 )
+			return 0;
+
+		// factor into (y^2 - s*y + p/2 + m + t)*(y^2 + s*y + p/2 + m - t)
+		double s = Math.sqrt(2*m);
+		double t = s*q/(4*m);
+		double h = p/2 + m;
+
+		total = solveQuadratic(-s,h + t,shift,roots,total);
+		total = solveQuadratic(s,h - t,shift,roots,total);
+
+		return total;
+	}
+
+	/**
+	 * Adds the real roots of y^2 + b*y + c = 0 after shifting them
+	 */
+	private static int solveQuadratic( double b , double c , double shift , double[] roots , int total ) {
+		double disc = b*b - 4*c;
+		if( disc < 0 )
+			return total;
+		double sqrtDisc = Math.sqrt(disc);
+		roots[total++] = (-b + sqrtDisc)/2 + shift;
+		roots[total++] = (-b - sqrtDisc)/2 + shift;
+		return total;
+	}
+
+	/**
+	 * Largest real root of m^3 + a*m^2 + b*m + c = 0
+	 */
+	static double largestCubicRoot( double a , double b , double c ) {
+		// depressed cubic z^3 + P*z + Q = 0 where m = z - a/3
+		double P = b - a*a/3;
+		double Q = 2*a*a*a/27 - a*b/3 + c;
+		double shift = -a/3;
+
+		double half = Q/2;
+		double third = P/3;
+		double disc = half*half + third*third*third;
+
+		double z;
+		if( disc > 0 ) {
+			double sqrtDisc = Math.sqrt(disc);
+			double u = Math.cbrt(-half + sqrtDisc);
+			double v = Math.cbrt(-half - sqrtDisc);
+			z = u + v;
+		} else if( P == 0 ) {
+			z = 0;
+		} else {
+			// three real roots
+			double k = Math.sqrt(-third);
+			double cosPhi = -half/(k*k*k);
+			if( cosPhi > 1 ) cosPhi = 1;
+			else if( cosPhi < -1 ) cosPhi = -1;
+			double phi = Math.acos(cosPhi);
+			double cosRoot = Math.cos(phi/3);
+			z = 2*k*cosRoot;
+		}
+		double m = z + shift;
+
+		// one Newton step to clean up round off error
+		double f = ((m + a)*m + b)*m + c;
+		double df = (3*m + 2*a)*m + b;
+		if( df != 0 )
+			m -= f/df;
+		return m;
+	}
+
+	public int getPolishIterations() {
+		return polishIterations;
+	}
+
+	public void setPolishIterations(int polishIterations) {
+		this.polishIterations = polishIterations;
+	}
+
+	public boolean isConcurrent() {
+		return concurrent;
+	}
+
+	public void setConcurrent(boolean concurrent) {
+		this.concurrent = concurrent;
+	}
+
+	public int getMinimumChunk() {
+		return minimumChunk;
+	}
+
+	public void setMinimumChunk(int minimumChunk) {
+		this.minimumChunk = minimumChunk;
+	}
+}
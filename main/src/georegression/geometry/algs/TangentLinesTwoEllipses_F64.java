@@ -35,7 +35,7 @@ import static georegression.geometry.UtilEllipse_F64.tangentLines;
  * </p>
  *
  * Algorithm: While a closed form solution does exist, it is very complex and an iterative solution is used
- * here instead.
+ * here instead.  See {@link TangentLinesTwoEllipsesQuartic_F64} for the closed form solution.
  * <ol>
  *     <li>Initialize by finding four lines which are approximately tangent.  Two will cross the center line
  *     and two will not.  See code for details</li>
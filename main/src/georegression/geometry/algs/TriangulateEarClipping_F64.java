@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Triangulates a simple polygon by repeatedly clipping off ears [1]. An ear is a convex vertex where the triangle
+ * formed with its two neighbors contains no other vertex. Holes are first connected to the outer contour with a
+ * bridge to a visible vertex, which turns the polygon into a single contour. Runs in O(n<sup>2</sup>) time, which
+ * is fast for small polygons. See {@link TriangulateMonotone_F64} for large polygons.
+ * </p>
+ *
+ * <p>
+ * If there is no ear, which can only happen when the input isn't simple or has collinear vertexes, then a
+ * collinear vertex is dropped or the first convex vertex is clipped, so that it always finishes.
+ * </p>
+ *
+ * <p>
+ * [1] Eberly, David. "Triangulation by ear clipping." Geometric Tools (2008)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangulateEarClipping_F64 extends TriangulatePolygonBase_F64 {
+
+	// Linked list of nodes. Bridges to holes duplicate vertexes so there can be more nodes than vertexes
+	private GrowQueue_I32 nodeVertex = new GrowQueue_I32();
+	private GrowQueue_I32 nodePrev = new GrowQueue_I32();
+	private GrowQueue_I32 nodeNext = new GrowQueue_I32();
+
+	// holes sorted by the x-coordinate of their right most vertex
+	private QuickSort_F64 sorter = new QuickSort_F64();
+	private GrowQueue_F64 holeX = new GrowQueue_F64();
+	private int[] holeOrder = new int[0];
+	private GrowQueue_I32 holeRight = new GrowQueue_I32();
+
+	@Override
+	protected void triangulate( GrowQueue_I32 triangles ) {
+		int N = xy.size/2;
+		nodeVertex.resize(N);
+		nodePrev.resize(N);
+		nodeNext.resize(N);
+		for (int i = 0; i < N; i++) {
+			nodeVertex.data[i] = i;
+			nodePrev.data[i] = prev.data[i];
+			nodeNext.data[i] = next.data[i];
+		}
+
+		bridgeHoles();
+
+		clipEars(0, triangles);
+	}
+
+	/**
+	 * Connects each hole to the outer contour. Holes with the right most vertexes are connected first so that a
+	 * hole is never bridged to a hole which hasn't been connected yet.
+	 */
+	private void bridgeHoles() {
+		int numHoles = contourStart.size - 2;
+		holeX.reset();
+		holeRight.reset();
+		for (int hole = 0; hole < numHoles; hole++) {
+			int start = contourStart.get(hole+1);
+			int end = contourStart.get(hole+2);
+			if( end - start < 3 )
+				continue;
+			int right = start;
+			for (int i = start+1; i < end; i++) {
+				if( xy.data[i*2] > xy.data[right*2] )
+					right = i;
+			}
+			holeX.add(-xy.data[right*2]);
+			holeRight.add(right);
+		}
+
+		if( holeOrder.length < holeX.size )
+			holeOrder = new int[holeX.size];
+		sorter.sort(holeX.data, 0, holeX.size, holeOrder);
+
+		for (int i = 0; i < holeX.size; i++) {
+			bridge(holeRight.get(holeOrder[i]));
+		}
+	}
+
+	/**
+	 * Connects the hole to a vertex which it can see by casting a ray from its right most vertex along the
+	 * positive x-axis
+	 */
+	private void bridge( int m ) {
+		double mx = x(m), my = y(m);
+
+		// find the closest edge hit by the ray. Only edges which go up can be seen from the inside
+		int hit = -1;
+		double hitX = Double.MAX_VALUE;
+		int a = 0;
+		do {
+			int b = nodeNext.data[a];
+			double ay = y(a), by = y(b);
+			if( ay <= my && by >= my && ay != by ) {
+				double ix = x(a) + (my - ay)*(x(b) - x(a))/(by - ay);
+				if( ix >= mx && ix < hitX ) {
+					hitX = ix;
+					hit = a;
+				}
+			}
+			a = b;
+		} while( a != 0 );
+
+		// degenerate input
+		if( hit == -1 )
+			return;
+
+		int b = nodeNext.data[hit];
+		int p;
+		if( hitX == x(hit) && my == y(hit) ) {
+			p = hit;
+		} else if( hitX == x(b) && my == y(b) ) {
+			p = b;
+		} else {
+			p = x(hit) > x(b) ? hit : b;
+
+			// A reflex vertex inside the triangle (m, hit point, p) can block the view to p. If so use the one
+			// with the smallest angle to the ray instead
+			double px = x(p), py = y(p);
+			double bestDx = px - mx, bestDy = Math.abs(py - my);
+			int n = 0;
+			do {
+				if( n != p && !same(nodeVertex.data[n], nodeVertex.data[p]) && isReflex(n) ) {
+					double nx = x(n), ny = y(n);
+					if( nx >= mx && insideTriangle(mx, my, hitX, my, px, py, nx, ny) ) {
+						double dx = nx - mx, dy = Math.abs(ny - my);
+						if( dy*bestDx < bestDy*dx || (dy*bestDx == bestDy*dx && dx < bestDx) ) {
+							bestDx = dx;
+							bestDy = dy;
+							p = n;
+						}
+					}
+				}
+				n = nodeNext.data[n];
+			} while( n != 0 );
+		}
+
+		// if the vertex is duplicated by an earlier bridge, pick the copy which faces the hole
+		if( !locallyInside(p, m) ) {
+			int n = 0;
+			do {
+				if( n != p && same(nodeVertex.data[n], nodeVertex.data[p]) && locallyInside(n, m) ) {
+					p = n;
+					break;
+				}
+				n = nodeNext.data[n];
+			} while( n != 0 );
+		}
+
+		// p -> m -> around the hole -> copy of m -> copy of p -> next(p)
+		int m2 = addNode(nodeVertex.data[m]);
+		int p2 = addNode(nodeVertex.data[p]);
+		int mPrev = nodePrev.data[m];
+		int pNext = nodeNext.data[p];
+		link(p, m);
+		link(mPrev, m2);
+		link(m2, p2);
+		link(p2, pNext);
+	}
+
+	/**
+	 * Clips ears until only a triangle is left
+	 */
+	private void clipEars( int node , GrowQueue_I32 triangles ) {
+		int size = 0;
+		int n = node;
+		do {
+			size++;
+			n = nodeNext.data[n];
+		} while( n != node );
+
+		int stop = node;
+		while( size > 3 ) {
+			int a = nodePrev.data[node];
+			int c = nodeNext.data[node];
+
+			if( isEar(node) ) {
+				addTriangle(nodeVertex.data[a], nodeVertex.data[node], nodeVertex.data[c], triangles);
+				link(a, c);
+				size--;
+				node = stop = c;
+				continue;
+			}
+
+			node = c;
+			if( node == stop ) {
+				// went all the way around without finding an ear
+				node = stop = removeDegenerate(node, triangles);
+				size--;
+			}
+		}
+
+		if( size == 3 ) {
+			int a = nodePrev.data[node];
+			int c = nodeNext.data[node];
+			if( orient(nodeVertex.data[a], nodeVertex.data[node], nodeVertex.data[c]) != 0 )
+				addTriangle(nodeVertex.data[a], nodeVertex.data[node], nodeVertex.data[c], triangles);
+		}
+	}
+
+	/**
+	 * Removes a collinear vertex, or if there are none, clips the first convex vertex
+	 *
+	 * @return A node which is still in the list
+	 */
+	private int removeDegenerate( int start , GrowQueue_I32 triangles ) {
+		int n = start;
+		do {
+			int a = nodePrev.data[n];
+			int c = nodeNext.data[n];
+			if( orient(nodeVertex.data[a], nodeVertex.data[n], nodeVertex.data[c]) == 0 ) {
+				link(a, c);
+				return c;
+			}
+			n = c;
+		} while( n != start );
+
+		do {
+			int a = nodePrev.data[n];
+			int c = nodeNext.data[n];
+			if( orient(nodeVertex.data[a], nodeVertex.data[n], nodeVertex.data[c]) > 0 || c == start ) {
+				addTriangle(nodeVertex.data[a], nodeVertex.data[n], nodeVertex.data[c], triangles);
+				link(a, c);
+				return c;
+			}
+			n = c;
+		} while( true );
+	}
+
+	/**
+	 * True if the node is convex and the triangle it forms with its neighbors doesn't contain another vertex
+	 */
+	boolean isEar( int node ) {
+		int a = nodePrev.data[node];
+		int c = nodeNext.data[node];
+		int va = nodeVertex.data[a], vb = nodeVertex.data[node], vc = nodeVertex.data[c];
+		if( orient(va, vb, vc) <= 0 )
+			return false;
+
+		int n = nodeNext.data[c];
+		while( n != a ) {
+			int v = nodeVertex.data[n];
+			if( !same(v, va) && !same(v, vb) && !same(v, vc) &&
+					orient(va, vb, v) >= 0 && orient(vb, vc, v) >= 0 && orient(vc, va, v) >= 0 )
+				return false;
+			n = nodeNext.data[n];
+		}
+		return true;
+	}
+
+	private boolean isReflex( int node ) {
+		return orient(nodeVertex.data[nodePrev.data[node]], nodeVertex.data[node],
+				nodeVertex.data[nodeNext.data[node]]) < 0;
+	}
+
+	/**
+	 * True if vertex 'm' is inside the angle formed by the node and its two neighbors
+	 */
+	private boolean locallyInside( int node , int m ) {
+		int a = nodeVertex.data[nodePrev.data[node]];
+		int b = nodeVertex.data[node];
+		int c = nodeVertex.data[nodeNext.data[node]];
+		int v = nodeVertex.data[m];
+		if( orient(a, b, c) >= 0 )
+			return orient(b, c, v) >= 0 && orient(a, b, v) >= 0;
+		else
+			return orient(b, c, v) >= 0 || orient(a, b, v) >= 0;
+	}
+
+	private static boolean insideTriangle( double ax , double ay , double bx , double by , double cx , double cy ,
+										   double px , double py ) {
+		double d1 = (bx - ax)*(py - ay) - (by - ay)*(px - ax);
+		double d2 = (cx - bx)*(py - by) - (cy - by)*(px - bx);
+		double d3 = (ax - cx)*(py - cy) - (ay - cy)*(px - cx);
+		boolean hasNeg = d1 < 0 || d2 < 0 || d3 < 0;
+		boolean hasPos = d1 > 0 || d2 > 0 || d3 > 0;
+		return !(hasNeg && hasPos);
+	}
+
+	private int addNode( int vertex ) {
+		nodeVertex.add(vertex);
+		nodePrev.add(-1);
+		nodeNext.add(-1);
+		return nodeVertex.size-1;
+	}
+
+	private void link( int a , int b ) {
+		nodeNext.data[a] = b;
+		nodePrev.data[b] = a;
+	}
+
+	private double x( int node ) {
+		return xy.data[nodeVertex.data[node]*2];
+	}
+
+	private double y( int node ) {
+		return xy.data[nodeVertex.data[node]*2+1];
+	}
+}
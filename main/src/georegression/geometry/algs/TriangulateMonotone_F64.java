@@ -0,0 +1,484 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.predicates.RobustPredicates;
+import org.ddogleg.sorting.QuickSort_F64;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * <p>
+ * Triangulates a simple polygon with holes in O(n log n) time [1]. A sweep line moves from the top to the bottom
+ * and adds diagonals at split and merge vertexes, which partitions the polygon into y-monotone pieces. Each piece
+ * is then triangulated in linear time. Vertexes with the same y-coordinate are ordered by their x-coordinate.
+ * </p>
+ *
+ * <p>
+ * [1] de Berg, Mark, et al. "Computational geometry: algorithms and applications." Chapter 3 (2008)
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangulateMonotone_F64 extends TriangulatePolygonBase_F64 {
+
+	// Types of vertexes
+	static final int START = 0;
+	static final int SPLIT = 1;
+	static final int END = 2;
+	static final int MERGE = 3;
+	static final int REGULAR = 4;
+
+	// vertexes sorted from top to bottom
+	private QuickSort_F64 sorter = new QuickSort_F64();
+	private GrowQueue_F64 keys = new GrowQueue_F64();
+	private int[] order = new int[0];
+
+	private GrowQueue_I32 type = new GrowQueue_I32();
+	// false for vertexes in contours with fewer than three vertexes, which are skipped
+	private GrowQueue_B linked = new GrowQueue_B();
+	// the edge which starts at each vertex
+	private List<Edge> edges = new ArrayList<>();
+	// edges which intersect the sweep line ordered from left to right
+	private TreeSet<Edge> status;
+	private Edge query = new Edge();
+
+	// pairs of vertexes connected by a diagonal
+	private GrowQueue_I32 diagonals = new GrowQueue_I32();
+
+	// half edges leaving each vertex. Edges of the polygon and both directions of each diagonal
+	private GrowQueue_I32 outStart = new GrowQueue_I32();
+	private GrowQueue_I32 outTarget = new GrowQueue_I32();
+	private GrowQueue_B visited = new GrowQueue_B();
+
+	// work space for triangulating a monotone piece
+	private GrowQueue_I32 piece = new GrowQueue_I32();
+	private GrowQueue_I32 sorted = new GrowQueue_I32();
+	private GrowQueue_B sortedLeft = new GrowQueue_B();
+	private GrowQueue_I32 stack = new GrowQueue_I32();
+
+	public TriangulateMonotone_F64() {
+		status = new TreeSet<>(new Comparator<Edge>() {
+			@Override
+			public int compare( Edge a , Edge b ) {
+				return compareEdges(a, b);
+			}
+		});
+		query.id = Integer.MAX_VALUE;
+	}
+
+	@Override
+	protected void triangulate( GrowQueue_I32 triangles ) {
+		int N = xy.size/2;
+		linked.resize(N);
+		for (int i = 0; i < contourStart.size-1; i++) {
+			int start = contourStart.data[i], end = contourStart.data[i+1];
+			for (int j = start; j < end; j++) {
+				linked.data[j] = end - start >= 3;
+			}
+		}
+		sortVertexes(N);
+		partition(N);
+		triangulatePieces(N, triangles);
+	}
+
+	/**
+	 * Sorts vertexes from top to bottom, then left to right
+	 */
+	private void sortVertexes( int N ) {
+		keys.resize(N);
+		for (int i = 0; i < N; i++) {
+			keys.data[i] = -xy.data[i*2+1];
+		}
+		if( order.length < N )
+			order = new int[N];
+		sorter.sort(keys.data, 0, N, order);
+
+		// break ties using x
+		for (int i = 1; i < N; i++) {
+			int v = order[i];
+			int j = i;
+			while( j > 0 && above(v, order[j-1]) ) {
+				order[j] = order[j-1];
+				j--;
+			}
+			order[j] = v;
+		}
+	}
+
+	/**
+	 * Adds diagonals which split the polygon into monotone pieces
+	 */
+	private void partition( int N ) {
+		while( edges.size() < N ) {
+			Edge e = new Edge();
+			e.id = edges.size();
+			edges.add(e);
+		}
+		type.resize(N);
+		diagonals.reset();
+		status.clear();
+
+		for (int i = 0; i < N; i++) {
+			Edge e = edges.get(i);
+			e.upper = i;
+			e.lower = next.data[i];
+			e.helper = -1;
+			type.data[i] = classify(i);
+		}
+
+		for (int idx = 0; idx < N; idx++) {
+			int v = order[idx];
+			if( !isLinked(v) )
+				continue;
+			int p = prev.data[v];
+
+			switch( type.data[v] ) {
+				case START:
+					insert(v);
+					break;
+
+				case END:
+					removeEdgeOf(p, v);
+					break;
+
+				case SPLIT: {
+					Edge left = leftOf(v);
+					if( left != null ) {
+						addDiagonal(v, left.helper);
+						left.helper = v;
+					}
+					insert(v);
+				} break;
+
+				case MERGE: {
+					removeEdgeOf(p, v);
+					Edge left = leftOf(v);
+					if( left != null ) {
+						if( type.data[left.helper] == MERGE )
+							addDiagonal(v, left.helper);
+						left.helper = v;
+					}
+				} break;
+
+				default:
+					if( above(p, v) ) {
+						// the inside of the polygon is to the right
+						removeEdgeOf(p, v);
+						insert(v);
+					} else {
+						Edge left = leftOf(v);
+						if( left != null ) {
+							if( type.data[left.helper] == MERGE )
+								addDiagonal(v, left.helper);
+							left.helper = v;
+						}
+					}
+			}
+		}
+	}
+
+	private int classify( int v ) {
+		if( !isLinked(v) )
+			return REGULAR;
+		int p = prev.data[v];
+		int n = next.data[v];
+		boolean prevAbove = above(p, v);
+		boolean nextAbove = above(n, v);
+		boolean convex = orient(p, v, n) >= 0;
+		if( !prevAbove && !nextAbove )
+			return convex ? START : SPLIT;
+		if( prevAbove && nextAbove )
+			return convex ? END : MERGE;
+		return REGULAR;
+	}
+
+	private void insert( int v ) {
+		Edge e = edges.get(v);
+		e.helper = v;
+		status.add(e);
+	}
+
+	/**
+	 * Removes the edge from 'p' to 'v' after connecting its helper if it's a merge vertex
+	 */
+	private void removeEdgeOf( int p , int v ) {
+		Edge e = edges.get(p);
+		if( e.helper >= 0 && type.data[e.helper] == MERGE )
+			addDiagonal(v, e.helper);
+		status.remove(e);
+	}
+
+	/**
+	 * Edge which is directly to the left of the vertex
+	 */
+	private Edge leftOf( int v ) {
+		query.upper = query.lower = v;
+		return status.lower(query);
+	}
+
+	private void addDiagonal( int a , int b ) {
+		diagonals.add(a);
+		diagonals.add(b);
+	}
+
+	/**
+	 * Splits the polygon into pieces along the diagonals and triangulates each piece
+	 */
+	private void triangulatePieces( int N , GrowQueue_I32 triangles ) {
+		// count the half edges leaving each vertex
+		outStart.resize(N+1);
+		outStart.fill(0);
+		for (int v = 0; v < N; v++) {
+			if( isLinked(v) )
+				outStart.data[v+1]++;
+		}
+		for (int i = 0; i < diagonals.size; i++) {
+			outStart.data[diagonals.data[i]+1]++;
+		}
+		for (int v = 0; v < N; v++) {
+			outStart.data[v+1] += outStart.data[v];
+		}
+
+		// fill in the targets then sort the half edges around each vertex counter-clockwise
+		outTarget.resize(outStart.data[N]);
+		for (int v = 0; v < N; v++) {
+			if( isLinked(v) )
+				outTarget.data[outStart.data[v]] = next.data[v];
+		}
+		stack.resize(N);
+		for (int v = 0; v < N; v++) {
+			stack.data[v] = outStart.data[v] + (isLinked(v) ? 1 : 0);
+		}
+		for (int i = 0; i < diagonals.size; i += 2) {
+			int a = diagonals.data[i], b = diagonals.data[i+1];
+			outTarget.data[stack.data[a]++] = b;
+			outTarget.data[stack.data[b]++] = a;
+		}
+		for (int v = 0; v < N; v++) {
+			int start = outStart.data[v], end = outStart.data[v+1];
+			for (int i = start+1; i < end; i++) {
+				int t = outTarget.data[i];
+				int j = i;
+				while( j > start && compareAngle(v, outTarget.data[j-1], t) > 0 ) {
+					outTarget.data[j] = outTarget.data[j-1];
+					j--;
+				}
+				outTarget.data[j] = t;
+			}
+		}
+
+		// walk around each piece with the inside on the left
+		visited.resize(outTarget.size);
+		visited.fill(false);
+		for (int h = 0; h < outTarget.size; h++) {
+			if( visited.data[h] )
+				continue;
+
+			piece.reset();
+			int from = findSource(h);
+			int edge = h;
+			while( !visited.data[edge] ) {
+				visited.data[edge] = true;
+				piece.add(from);
+				int to = outTarget.data[edge];
+				edge = nextHalfEdge(to, from);
+				from = to;
+			}
+			triangulateMonotone(triangles);
+		}
+	}
+
+	/**
+	 * Vertex which the half edge leaves from
+	 */
+	private int findSource( int h ) {
+		int lo = 0, hi = outStart.size-1;
+		while( hi - lo > 1 ) {
+			int mid = (lo + hi) >>> 1;
+			if( outStart.data[mid] <= h )
+				lo = mid;
+			else
+				hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Arriving at 'v' from 'u', the next half edge of the piece is the first one clockwise from the direction to 'u'
+	 */
+	private int nextHalfEdge( int v , int u ) {
+		int start = outStart.data[v], end = outStart.data[v+1];
+		if( end - start == 1 )
+			return start;
+
+		for (int i = end-1; i >= start; i--) {
+			if( compareAngle(v, outTarget.data[i], u) < 0 )
+				return i;
+		}
+		return end-1;
+	}
+
+	/**
+	 * Triangulates a y-monotone piece whose vertexes are in counter-clockwise order
+	 */
+	private void triangulateMonotone( GrowQueue_I32 triangles ) {
+		int N = piece.size;
+		if( N < 3 )
+			return;
+		if( N == 3 ) {
+			if( orient(piece.data[0], piece.data[1], piece.data[2]) != 0 )
+				addTriangle(piece.data[0], piece.data[1], piece.data[2], triangles);
+			return;
+		}
+
+		int top = 0, bottom = 0;
+		for (int i = 1; i < N; i++) {
+			if( above(piece.data[i], piece.data[top]) )
+				top = i;
+			if( above(piece.data[bottom], piece.data[i]) )
+				bottom = i;
+		}
+
+		// merge the two chains. Going counter-clockwise from the top is the left chain
+		sorted.reset();
+		sortedLeft.reset();
+		sorted.add(piece.data[top]);
+		sortedLeft.add(true);
+		int l = (top + 1) % N;
+		int r = (top + N - 1) % N;
+		while( l != bottom || r != bottom ) {
+			if( r == bottom || (l != bottom && above(piece.data[l], piece.data[r])) ) {
+				sorted.add(piece.data[l]);
+				sortedLeft.add(true);
+				l = (l + 1) % N;
+			} else {
+				sorted.add(piece.data[r]);
+				sortedLeft.add(false);
+				r = (r + N - 1) % N;
+			}
+		}
+		sorted.add(piece.data[bottom]);
+		sortedLeft.add(false);
+
+		stack.reset();
+		stack.add(0);
+		stack.add(1);
+		for (int j = 2; j < N-1; j++) {
+			int u = sorted.data[j];
+			boolean left = sortedLeft.data[j];
+			if( left != sortedLeft.data[stack.data[stack.size-1]] ) {
+				// connect to every vertex on the other chain
+				for (int k = 0; k < stack.size-1; k++) {
+					addTriangle(u, sorted.data[stack.data[k]], sorted.data[stack.data[k+1]], triangles);
+				}
+				int last = stack.data[stack.size-1];
+				stack.reset();
+				stack.add(last);
+				stack.add(j);
+			} else {
+				int last = stack.pop();
+				while( stack.size > 0 ) {
+					int t = stack.data[stack.size-1];
+					int side = orient(sorted.data[t], u, sorted.data[last]);
+					if( left ? side >= 0 : side <= 0 )
+						break;
+					addTriangle(u, sorted.data[last], sorted.data[t], triangles);
+					last = stack.pop();
+				}
+				stack.add(last);
+				stack.add(j);
+			}
+		}
+
+		int u = sorted.data[N-1];
+		for (int k = 0; k < stack.size-1; k++) {
+			int a = sorted.data[stack.data[k]], b = sorted.data[stack.data[k+1]];
+			if( orient(u, a, b) != 0 )
+				addTriangle(u, a, b, triangles);
+		}
+	}
+
+	/**
+	 * Order of edges in the sweep line from left to right. The edge whose upper vertex was processed last is
+	 * compared against the other edge.
+	 */
+	int compareEdges( Edge a , Edge b ) {
+		if( a == b )
+			return 0;
+
+		boolean aNewer = a == query || (b != query && !above(a.upper, b.upper));
+		Edge newer = aNewer ? a : b;
+		Edge older = aNewer ? b : a;
+
+		int side = orient(older.upper, older.lower, newer.upper);
+		if( side == 0 )
+			side = orient(older.upper, older.lower, newer.lower);
+		if( side == 0 )
+			side = newer.id > older.id ? 1 : -1;
+
+		// positive means the newer edge is to the right
+		return aNewer ? side : -side;
+	}
+
+	/**
+	 * Compares the direction from 'v' to 'a' against the direction from 'v' to 'b'. Angles start at the
+	 * positive x-axis and increase counter-clockwise.
+	 */
+	private int compareAngle( int v , int a , int b ) {
+		int halfA = half(v, a), halfB = half(v, b);
+		if( halfA != halfB )
+			return halfA - halfB;
+		double[] d = xy.data;
+		return RobustPredicates.orient2d(d[v*2], d[v*2+1], d[a*2], d[a*2+1], d[b*2], d[b*2+1]) > 0 ? -1 : 1;
+	}
+
+	private int half( int v , int p ) {
+		double vy = xy.data[v*2+1], py = xy.data[p*2+1];
+		return py > vy || (py == vy && xy.data[p*2] > xy.data[v*2]) ? 0 : 1;
+	}
+
+	/**
+	 * True if vertex 'a' comes before vertex 'b' in the sweep
+	 */
+	private boolean above( int a , int b ) {
+		double ay = xy.data[a*2+1], by = xy.data[b*2+1];
+		return ay > by || (ay == by && xy.data[a*2] < xy.data[b*2]);
+	}
+
+	private boolean isLinked( int v ) {
+		return linked.data[v];
+	}
+
+	/**
+	 * Edge from a vertex to the next vertex in its contour
+	 */
+	static class Edge {
+		int id;
+		int upper;
+		int lower;
+		int helper;
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.predicates.RobustPredicates;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Common code for algorithms which triangulate a simple polygon with optional holes. Vertexes are referenced by
+ * their index after the outer contour and the holes have been concatenated. The outer contour's vertexes come
+ * first, followed by the first hole's, and so on. The orientation of the input contours doesn't matter and the
+ * output triangles are in counter-clockwise order. Three elements are added to the output for each triangle.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class TriangulatePolygonBase_F64 {
+
+	// packed coordinates of every vertex
+	protected GrowQueue_F64 xy = new GrowQueue_F64();
+	// index of the first vertex in each contour. One extra element marks the end
+	protected GrowQueue_I32 contourStart = new GrowQueue_I32();
+
+	// Every contour as a doubly linked list. The outer contour is counter-clockwise and holes are clockwise, so
+	// the inside of the polygon is always to the left
+	protected GrowQueue_I32 prev = new GrowQueue_I32();
+	protected GrowQueue_I32 next = new GrowQueue_I32();
+
+	private List<Polygon2D_F64> noHoles = new ArrayList<>();
+
+	/**
+	 * Triangulates a simple polygon
+	 *
+	 * @param polygon (Input) Simple polygon
+	 * @param triangles (Output) Indexes of vertexes in each triangle
+	 */
+	public void process( Polygon2D_F64 polygon , GrowQueue_I32 triangles ) {
+		noHoles.clear();
+		process(polygon, noHoles, triangles);
+	}
+
+	/**
+	 * Triangulates a simple polygon with holes. The holes must be inside the outer contour and not touch
+	 * each other.
+	 *
+	 * @param outer (Input) Outer contour of the polygon
+	 * @param holes (Input) Holes inside the polygon
+	 * @param triangles (Output) Indexes of vertexes in each triangle
+	 */
+	public void process( Polygon2D_F64 outer , List<Polygon2D_F64> holes , GrowQueue_I32 triangles ) {
+		triangles.reset();
+		xy.reset();
+		contourStart.reset();
+
+		addContour(outer);
+		for (int i = 0; i < holes.size(); i++) {
+			addContour(holes.get(i));
+		}
+		contourStart.add(xy.size/2);
+
+		if( outer.size() < 3 )
+			return;
+
+		int N = xy.size/2;
+		prev.resize(N);
+		next.resize(N);
+		for (int i = 0; i < contourStart.size-1; i++) {
+			linkContour(i, i == 0);
+		}
+
+		triangulate(triangles);
+	}
+
+	/**
+	 * Triangulates the polygon described by {@link #xy} and the linked lists
+	 */
+	protected abstract void triangulate( GrowQueue_I32 triangles );
+
+	private void addContour( Polygon2D_F64 contour ) {
+		contourStart.add(xy.size/2);
+		for (int i = 0; i < contour.size(); i++) {
+			Point2D_F64 p = contour.get(i);
+			xy.add(p.x);
+			xy.add(p.y);
+		}
+	}
+
+	/**
+	 * Links the vertexes in a contour into a ring. The direction is reversed if needed so that the inside of the
+	 * polygon is to the left
+	 */
+	private void linkContour( int contour , boolean ccw ) {
+		int start = contourStart.get(contour);
+		int end = contourStart.get(contour+1);
+		if( end - start < 3 )
+			return;
+
+		double area = 0;
+		for (int i = start, j = end-1; i < end; j = i, i++) {
+			area += xy.data[j*2]*xy.data[i*2+1] - xy.data[i*2]*xy.data[j*2+1];
+		}
+
+		boolean reverse = (area > 0) != ccw;
+		for (int i = start, j = end-1; i < end; j = i, i++) {
+			if( reverse ) {
+				next.data[i] = j;
+				prev.data[j] = i;
+			} else {
+				next.data[j] = i;
+				prev.data[i] = j;
+			}
+		}
+	}
+
+	/**
+	 * Sign of the orientation of three vertexes. 1 = counter-clockwise, -1 = clockwise, 0 = collinear
+	 */
+	protected int orient( int a , int b , int c ) {
+		double[] d = xy.data;
+		return (int)Math.signum(RobustPredicates.orient2d(d[a*2], d[a*2+1], d[b*2], d[b*2+1], d[c*2], d[c*2+1]));
+	}
+
+	/**
+	 * True if the two vertexes have the same coordinate
+	 */
+	protected boolean same( int a , int b ) {
+		return xy.data[a*2] == xy.data[b*2] && xy.data[a*2+1] == xy.data[b*2+1];
+	}
+
+	/**
+	 * Adds the triangle in counter-clockwise order
+	 */
+	protected void addTriangle( int a , int b , int c , GrowQueue_I32 triangles ) {
+		triangles.add(a);
+		if( orient(a, b, c) < 0 ) {
+			triangles.add(c);
+			triangles.add(b);
+		} else {
+			triangles.add(b);
+			triangles.add(c);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Triangulates a simple polygon with optional holes. Small polygons are triangulated using
+ * {@link TriangulateEarClipping_F64}, which is O(n<sup>2</sup>) but has little overhead, and larger polygons
+ * using {@link TriangulateMonotone_F64}, which is O(n log n). See {@link TriangulatePolygonBase_F64} for how
+ * vertexes are indexed in the output.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangulatePolygon_F64 {
+	TriangulateEarClipping_F64 earClipping = new TriangulateEarClipping_F64();
+	TriangulateMonotone_F64 monotone = new TriangulateMonotone_F64();
+
+	// polygons with more vertexes than this are triangulated with the monotone algorithm
+	int maxEarClipping = 64;
+
+	private List<Polygon2D_F64> noHoles = new ArrayList<>();
+
+	/**
+	 * Triangulates a simple polygon
+	 *
+	 * @param polygon (Input) Simple polygon
+	 * @param triangles (Output) Indexes of vertexes in each triangle. Three elements for each triangle.
+	 */
+	public void process( Polygon2D_F64 polygon , GrowQueue_I32 triangles ) {
+		noHoles.clear();
+		process(polygon, noHoles, triangles);
+	}
+
+	/**
+	 * Triangulates a simple polygon with holes
+	 *
+	 * @param outer (Input) Outer contour of the polygon
+	 * @param holes (Input) Holes inside the polygon
+	 * @param triangles (Output) Indexes of vertexes in each triangle. Three elements for each triangle.
+	 */
+	public void process( Polygon2D_F64 outer , List<Polygon2D_F64> holes , GrowQueue_I32 triangles ) {
+		int total = outer.size();
+		for (int i = 0; i < holes.size(); i++) {
+			total += holes.get(i).size();
+		}
+
+		if( total <= maxEarClipping )
+			earClipping.process(outer, holes, triangles);
+		else
+			monotone.process(outer, holes, triangles);
+	}
+
+	public int getMaxEarClipping() {
+		return maxEarClipping;
+	}
+
+	public void setMaxEarClipping( int maxEarClipping ) {
+		this.maxEarClipping = maxEarClipping;
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import georegression.struct.shapes.TriangleMesh2D;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Voronoi diagram which is derived from a Delaunay triangulation, e.g. from {@link DelaunaySweepHull_F64}. The
+ * vertexes of the diagram are the circumcenters of the triangles and the cell of each site is formed by the
+ * circumcenters of the triangles which share the site as a vertex. Sites on the convex hull have unbounded cells.
+ * Those cells can be clipped by a rectangle using {@link #getCell(int, Rectangle2D_F64, Polygon2D_F64)}.
+ * </p>
+ *
+ * <p>
+ * The nearest site to a point is found by walking along edges in the triangulation, see
+ * {@link #findNearest(double, double, int)}. Internal data structures are reused when processing a new diagram.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VoronoiDiagram_F64 {
+	/**
+	 * Vertexes in the diagram. The circumcenter of each triangle packed as x,y and indexed by triangle.
+	 */
+	public GrowQueue_F64 vertexes = new GrowQueue_F64();
+
+	/**
+	 * Index of the first element in {@link #cells} for each site. Has one more element than there are sites.
+	 */
+	public GrowQueue_I32 cellStart = new GrowQueue_I32();
+
+	/**
+	 * Indexes of the vertexes which form each site's cell in counter-clockwise order. For unbounded cells these
+	 * form a chain which starts and ends at the rays which extend outwards.
+	 */
+	public GrowQueue_I32 cells = new GrowQueue_I32();
+
+	/**
+	 * A half edge in the triangulation which starts at each site or -1 if the site isn't in the triangulation.
+	 * For sites on the convex hull it will be the hull's edge.
+	 */
+	public GrowQueue_I32 siteEdge = new GrowQueue_I32();
+
+	// the triangulation and the sites
+	private TriangleMesh2D mesh;
+	private double[] sites;
+	private int numSites;
+
+	// work space for clipping
+	private GrowQueue_F64 work0 = new GrowQueue_F64();
+	private GrowQueue_F64 work1 = new GrowQueue_F64();
+
+	/**
+	 * Computes the diagram from a triangulation. References to the mesh and sites are saved.
+	 *
+	 * @param xy (Input) Sites packed as x,y pairs
+	 * @param numSites Number of sites
+	 * @param mesh (Input) Delaunay triangulation of the sites
+	 */
+	public void process( double[] xy , int numSites , TriangleMesh2D mesh ) {
+		this.sites = xy;
+		this.numSites = numSites;
+		this.mesh = mesh;
+
+		int[] triangles = mesh.triangles.data;
+		int[] halfedges = mesh.halfedges.data;
+		int numTriangles = mesh.size();
+
+		// circumcenter of every triangle
+		vertexes.resize(numTriangles*2);
+		for (int t = 0; t < numTriangles; t++) {
+			int a = triangles[t*3], b = triangles[t*3+1], c = triangles[t*3+2];
+			double ax = xy[a*2], ay = xy[a*2+1];
+			double dx = xy[b*2] - ax, dy = xy[b*2+1] - ay;
+			double ex = xy[c*2] - ax, ey = xy[c*2+1] - ay;
+
+			double bl = dx*dx + dy*dy;
+			double cl = ex*ex + ey*ey;
+			double d = 0.5/(dx*ey - dy*ex);
+
+			vertexes.data[t*2]   = ax + (ey*bl - dy*cl)*d;
+			vertexes.data[t*2+1] = ay + (dx*cl - ex*bl)*d;
+		}
+
+		// find an edge leaving each site. Hull edges are selected so that walking around a site starts at the hull
+		siteEdge.resize(numSites);
+		siteEdge.fill(-1);
+		for (int e = 0; e < mesh.triangles.size; e++) {
+			int v = triangles[e];
+			if( siteEdge.data[v] == -1 || halfedges[e] == -1 )
+				siteEdge.data[v] = e;
+		}
+
+		// walk counter-clockwise around each site to find its cell. Each triangle is in three cells
+		cellStart.resize(numSites+1);
+		cells.resize(mesh.triangles.size);
+		int index = 0;
+		for (int site = 0; site < numSites; site++) {
+			cellStart.data[site] = index;
+			int e0 = siteEdge.data[site];
+			if( e0 == -1 )
+				continue;
+			int e = e0;
+			do {
+				cells.data[index++] = e/3;
+				e = halfedges[TriangleMesh2D.prev(e)];
+			} while( e != -1 && e != e0 );
+		}
+		cellStart.data[numSites] = index;
+	}
+
+	/**
+	 * Number of sites in the diagram
+	 */
+	public int getNumberOfSites() {
+		return numSites;
+	}
+
+	/**
+	 * True if the site's cell has a finite area.
+	 */
+	public boolean isBounded( int site ) {
+		int e = siteEdge.data[site];
+		return e != -1 && mesh.halfedges.data[e] != -1;
+	}
+
+	/**
+	 * Returns the cell of a site if it's bounded.
+	 *
+	 * @param site Index of the site
+	 * @param cell (Output) Cell in counter-clockwise order
+	 * @return true if the cell is bounded and was written to the output
+	 */
+	public boolean getCell( int site , Polygon2D_F64 cell ) {
+		if( !isBounded(site) )
+			return false;
+
+		int start = cellStart.data[site];
+		int end = cellStart.data[site+1];
+		cell.vertexes.resize(end-start);
+		for (int i = start; i < end; i++) {
+			int v = cells.data[i];
+			cell.vertexes.data[i-start].set(vertexes.data[v*2], vertexes.data[v*2+1]);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the cell of a site after it has been clipped by a rectangle. Works with bounded and unbounded cells.
+	 * The cell is found by clipping the rectangle with the bisector between the site and each of its neighbors in
+	 * the triangulation.
+	 *
+	 * @param site Index of the site
+	 * @param bounds (Input) Rectangle which the cell is clipped by
+	 * @param cell (Output) Clipped cell in counter-clockwise order. Can have zero vertexes.
+	 * @return true if the clipped cell isn't empty
+	 */
+	public boolean getCell( int site , Rectangle2D_F64 bounds , Polygon2D_F64 cell ) {
+		work0.reset();
+		work0.add(bounds.p0.x); work0.add(bounds.p0.y);
+		work0.add(bounds.p1.x); work0.add(bounds.p0.y);
+		work0.add(bounds.p1.x); work0.add(bounds.p1.y);
+		work0.add(bounds.p0.x); work0.add(bounds.p1.y);
+
+		double sx = sites[site*2], sy = sites[site*2+1];
+
+		if( mesh.size() == 0 ) {
+			// collinear sites. Neighbors are adjacent on the hull
+			int N = mesh.hull.size;
+			int idx = mesh.hull.indexOf(site);
+			if( idx > 0 )
+				clip(sx, sy, mesh.hull.data[idx-1]);
+			if( idx >= 0 && idx < N-1 )
+				clip(sx, sy, mesh.hull.data[idx+1]);
+		} else if( siteEdge.data[site] != -1 ) {
+			int[] triangles = mesh.triangles.data;
+			int[] halfedges = mesh.halfedges.data;
+			int e0 = siteEdge.data[site];
+			int e = e0;
+			do {
+				clip(sx, sy, triangles[TriangleMesh2D.next(e)]);
+				int p = TriangleMesh2D.prev(e);
+				e = halfedges[p];
+				if( e == -1 ) {
+					clip(sx, sy, triangles[p]);
+					break;
+				}
+			} while( e != e0 );
+		}
+
+		int N = work0.size/2;
+		cell.vertexes.resize(N);
+		for (int i = 0; i < N; i++) {
+			cell.vertexes.data[i].set(work0.data[i*2], work0.data[i*2+1]);
+		}
+		return N > 0;
+	}
+
+	/**
+	 * Clips the polygon in work0 by the half plane which is closer to the site than its neighbor
+	 */
+	private void clip( double sx , double sy , int neighbor ) {
+		// points inside satisfy (p - m)*n <= 0
+		double nx = sites[neighbor*2] - sx;
+		double ny = sites[neighbor*2+1] - sy;
+		double mx = sx + nx/2;
+		double my = sy + ny/2;
+
+		work1.reset();
+		int N = work0.size/2;
+		for (int i = 0, j = N-1; i < N; j = i, i++) {
+			double ax = work0.data[j*2], ay = work0.data[j*2+1];
+			double bx = work0.data[i*2], by = work0.data[i*2+1];
+			double da = (ax - mx)*nx + (ay - my)*ny;
+			double db = (bx - mx)*nx + (by - my)*ny;
+
+			if( (da <= 0) != (db <= 0) ) {
+				double t = da/(da - db);
+				work1.add(ax + t*(bx - ax));
+				work1.add(ay + t*(by - ay));
+			}
+			if( db <= 0 ) {
+				work1.add(bx);
+				work1.add(by);
+			}
+		}
+
+		GrowQueue_F64 tmp = work0;
+		work0 = work1;
+		work1 = tmp;
+	}
+
+	/**
+	 * Finds the site which is closest to the point by greedily moving to neighbors in the triangulation which are
+	 * closer. On a Delaunay triangulation this always finds the nearest site. Starting from a site which is
+	 * close to the point, e.g. the result from a previous nearby query, will make it faster.
+	 *
+	 * @param x x-coordinate of the point
+	 * @param y y-coordinate of the point
+	 * @param start Site the search starts from. Must be in the triangulation.
+	 * @return index of the closest site
+	 */
+	public int findNearest( double x , double y , int start ) {
+		if( mesh.size() == 0 ) {
+			// degenerate case with no triangles
+			int best = -1;
+			double bestDist = Double.MAX_VALUE;
+			for (int i = 0; i < mesh.hull.size; i++) {
+				int site = mesh.hull.data[i];
+				double d = distance2(x, y, site);
+				if( d < bestDist ) {
+					bestDist = d;
+					best = site;
+				}
+			}
+			return best;
+		}
+
+		if( siteEdge.data[start] == -1 )
+			throw new IllegalArgumentException("The start site is not part of the triangulation");
+
+		int[] triangles = mesh.triangles.data;
+		int[] halfedges = mesh.halfedges.data;
+
+		int current = start;
+		double currentDist = distance2(x, y, current);
+
+		while( true ) {
+			int best = current;
+			double bestDist = currentDist;
+
+			int e0 = siteEdge.data[current];
+			int e = e0;
+			do {
+				int n = triangles[TriangleMesh2D.next(e)];
+				double d = distance2(x, y, n);
+				if( d < bestDist ) {
+					bestDist = d;
+					best = n;
+				}
+				int p = TriangleMesh2D.prev(e);
+				e = halfedges[p];
+				if( e == -1 ) {
+					n = triangles[p];
+					d = distance2(x, y, n);
+					if( d < bestDist ) {
+						bestDist = d;
+						best = n;
+					}
+					break;
+				}
+			} while( e != e0 );
+
+			if( best == current )
+				return current;
+			current = best;
+			currentDist = bestDist;
+		}
+	}
+
+	private double distance2( double x , double y , int site ) {
+		double dx = sites[site*2] - x;
+		double dy = sites[site*2+1] - y;
+		return dx*dx + dy*dy;
+	}
+
+	public TriangleMesh2D getMesh() {
+		return mesh;
+	}
+}
@@ -0,0 +1,656 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.predicates;
+
+/**
+ * <p>
+ * Geometric predicates which always return the correct sign, even for nearly degenerate input, based on
+ * Shewchuk's adaptive precision floating point predicates [1].  Each predicate first computes the
+ * determinant with ordinary floating point arithmetic and compares it against an error bound.  Only if the
+ * result might have the wrong sign is it recomputed using exact expansion arithmetic, so in the common case
+ * the cost is a few additional operations over the naive approach.  Between the two, the determinant of the
+ * rounded differences is computed exactly and checked against a second, tighter bound (stage B in [1]) and
+ * orient2d adds a first order correction for the round off in the differences (stage C).
+ * </p>
+ *
+ * <p>
+ * The exact computations use work arrays which are created once for each thread, so the predicates are thread
+ * safe and don't create garbage.
+ * </p>
+ *
+ * <p>
+ * Only the sign of the returned value is exact.  Inputs are doubles, which means that float input is also
+ * handled exactly since the conversion to double is lossless.  Results can be incorrect if intermediate values
+ * overflow or underflow.
+ * </p>
+ *
+ * <p>
+ * [1] Jonathan Richard Shewchuk, "Adaptive Precision Floating-Point Arithmetic and Fast Robust Geometric
+ * Predicates" Discrete &amp; Computational Geometry 18:305-363, 1997
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public strictfp class RobustPredicates {
+	// machine epsilon for round to nearest. 2^-53
+	static final double EPSILON = 1.1102230246251565E-16;
+	// used to split a double in half for exact multiplication. 2^27 + 1
+	static final double SPLITTER = 134217729.0;
+
+	static final double RESULT_BOUND = (3.0 + 8.0*EPSILON)*EPSILON;
+	static final double ORIENT2D_BOUND_A = (3.0 + 16.0*EPSILON)*EPSILON;
+	static final double ORIENT2D_BOUND_B = (2.0 + 12.0*EPSILON)*EPSILON;
+	static final double ORIENT2D_BOUND_C = (9.0 + 64.0*EPSILON)*EPSILON*EPSILON;
+	static final double ORIENT3D_BOUND_A = (7.0 + 56.0*EPSILON)*EPSILON;
+	static final double ORIENT3D_BOUND_B = (3.0 + 28.0*EPSILON)*EPSILON;
+	static final double INCIRCLE_BOUND_A = (10.0 + 96.0*EPSILON)*EPSILON;
+	static final double INCIRCLE_BOUND_B = (4.0 + 48.0*EPSILON)*EPSILON;
+
+	private static final ThreadLocal<Workspace> workspace = ThreadLocal.withInitial(Workspace::new);
+
+	/**
+	 * Returns a positive value if the points a, b, and c are in counter-clockwise order, a negative value if
+	 * they are in clockwise order, and zero if they are collinear.  The magnitude is approximately twice the
+	 * signed area of the triangle.
+	 */
+	public static double orient2d( double ax , double ay , double bx , double by , double cx , double cy ) {
+		double detleft = (ax - cx)*(by - cy);
+		double detright = (ay - cy)*(bx - cx);
+		double det = detleft - detright;
+
+		double detsum;
+		if( detleft > 0.0 ) {
+			if( detright <= 0.0 )
+				return det;
+			detsum = detleft + detright;
+		} else if( detleft < 0.0 ) {
+			if( detright >= 0.0 )
+				return det;
+			detsum = -detleft - detright;
+		} else {
+			return det;
+		}
+
+		double errbound = ORIENT2D_BOUND_A*detsum;
+		if( det >= errbound || -det >= errbound )
+			return det;
+
+		return orient2dAdapt(ax, ay, bx, by, cx, cy, detsum);
+	}
+
+	/**
+	 * Stages B and C of orient2d, which are tried before the exact computation
+	 */
+	static double orient2dAdapt( double ax , double ay , double bx , double by , double cx , double cy ,
+								 double detsum ) {
+		double acx = ax - cx, acy = ay - cy;
+		double bcx = bx - cx, bcy = by - cy;
+
+		// exact determinant of the rounded differences
+		double[] B = workspace.get().bc;
+		double det = estimate(B, cross(acx, acy, bcx, bcy, B));
+		double errbound = ORIENT2D_BOUND_B*detsum;
+		if( det >= errbound || -det >= errbound )
+			return det;
+
+		double acxtail = twoDiffTail(ax, cx, acx);
+		double acytail = twoDiffTail(ay, cy, acy);
+		double bcxtail = twoDiffTail(bx, cx, bcx);
+		double bcytail = twoDiffTail(by, cy, bcy);
+
+		// the differences are exact so the determinant is too
+		if( acxtail == 0.0 && acytail == 0.0 && bcxtail == 0.0 && bcytail == 0.0 )
+			return det;
+
+		// first order correction for the round off in the differences
+		errbound = ORIENT2D_BOUND_C*detsum + RESULT_BOUND*Math.abs(det);
+		det += (acx*bcytail + bcy*acxtail) - (acy*bcxtail + bcx*acytail);
+		if( det >= errbound || -det >= errbound )
+			return det;
+
+		return orient2dExact(ax, ay, bx, by, cx, cy);
+	}
+
+	/**
+	 * Returns a positive value if the point d lies below the plane passing through a, b, and c.  Below is
+	 * defined so that a, b, and c appear in counter-clockwise order when viewed from above the plane.
+	 * A negative value is returned if d is above and zero if the points are coplanar.  The magnitude is
+	 * approximately six times the signed volume of the tetrahedron.
+	 */
+	public static double orient3d( double ax , double ay , double az ,
+								   double bx , double by , double bz ,
+								   double cx , double cy , double cz ,
+								   double dx , double dy , double dz ) {
+		double adx = ax - dx, ady = ay - dy, adz = az - dz;
+		double bdx = bx - dx, bdy = by - dy, bdz = bz - dz;
+		double cdx = cx - dx, cdy = cy - dy, cdz = cz - dz;
+
+		double bdxcdy = bdx*cdy;
+		double cdxbdy = cdx*bdy;
+
+		double cdxady = cdx*ady;
+		double adxcdy = adx*cdy;
+
+		double adxbdy = adx*bdy;
+		double bdxady = bdx*ady;
+
+		double det = adz*(bdxcdy - cdxbdy) + bdz*(cdxady - adxcdy) + cdz*(adxbdy - bdxady);
+
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy))*Math.abs(adz)
+				+ (Math.abs(cdxady) + Math.abs(adxcdy))*Math.abs(bdz)
+				+ (Math.abs(adxbdy) + Math.abs(bdxady))*Math.abs(cdz);
+		double errbound = ORIENT3D_BOUND_A*permanent;
+		if( det > errbound || -det > errbound )
+			return det;
+
+		// exact determinant of the rounded differences
+		Workspace w = workspace.get();
+		int bcLength = cross(bdx, bdy, cdx, cdy, w.bc);
+		int caLength = cross(cdx, cdy, adx, ady, w.ca);
+		int abLength = cross(adx, ady, bdx, bdy, w.ab);
+		int aLength = scale(w.bc, bcLength, adz, w.adet);
+		int bLength = scale(w.ca, caLength, bdz, w.bdet);
+		int cLength = scale(w.ab, abLength, cdz, w.cdet);
+		int abdetLength = sum(w.adet, aLength, w.bdet, bLength, w.abdet);
+		det = estimate(w.det, sum(w.abdet, abdetLength, w.cdet, cLength, w.det));
+
+		errbound = ORIENT3D_BOUND_B*permanent;
+		if( det >= errbound || -det >= errbound )
+			return det;
+
+		if( twoDiffTail(ax, dx, adx) == 0.0 && twoDiffTail(ay, dy, ady) == 0.0 &&
+				twoDiffTail(az, dz, adz) == 0.0 && twoDiffTail(bx, dx, bdx) == 0.0 &&
+				twoDiffTail(by, dy, bdy) == 0.0 && twoDiffTail(bz, dz, bdz) == 0.0 &&
+				twoDiffTail(cx, dx, cdx) == 0.0 && twoDiffTail(cy, dy, cdy) == 0.0 &&
+				twoDiffTail(cz, dz, cdz) == 0.0 ) {
+			return det;
+		}
+
+		return orient3dExact(ax, ay, az, bx, by, bz, cx, cy, cz, dx, dy, dz);
+	}
+
+	/**
+	 * Returns a positive value if the point d lies inside the circle passing through a, b, and c, a negative
+	 * value if it lies outside, and zero if the four points are cocircular.  The points a, b, and c must be in
+	 * counter-clockwise order or the sign of the result is reversed.
+	 */
+	public static double incircle( double ax , double ay , double bx , double by ,
+								   double cx , double cy , double dx , double dy ) {
+		double adx = ax - dx, ady = ay - dy;
+		double bdx = bx - dx, bdy = by - dy;
+		double cdx = cx - dx, cdy = cy - dy;
+
+		double bdxcdy = bdx*cdy;
+		double cdxbdy = cdx*bdy;
+		double alift = adx*adx + ady*ady;
+
+		double cdxady = cdx*ady;
+		double adxcdy = adx*cdy;
+		double blift = bdx*bdx + bdy*bdy;
+
+		double adxbdy = adx*bdy;
+		double bdxady = bdx*ady;
+		double clift = cdx*cdx + cdy*cdy;
+
+		double det = alift*(bdxcdy - cdxbdy) + blift*(cdxady - adxcdy) + clift*(adxbdy - bdxady);
+
+		double permanent = (Math.abs(bdxcdy) + Math.abs(cdxbdy))*alift
+				+ (Math.abs(cdxady) + Math.abs(adxcdy))*blift
+				+ (Math.abs(adxbdy) + Math.abs(bdxady))*clift;
+		double errbound = INCIRCLE_BOUND_A*permanent;
+		if( det > errbound || -det > errbound )
+			return det;
+
+		// exact determinant of the rounded differences
+		Workspace w = workspace.get();
+		det = estimate(w.det, incircleDiff(adx, ady, bdx, bdy, cdx, cdy, w));
+		errbound = INCIRCLE_BOUND_B*permanent;
+		if( det >= errbound || -det >= errbound )
+			return det;
+
+		// If the differences were computed exactly, which is common with grids or points which are close together,
+		// then the determinant above is exact
+		if( twoDiffTail(ax, dx, adx) == 0.0 && twoDiffTail(ay, dy, ady) == 0.0 &&
+				twoDiffTail(bx, dx, bdx) == 0.0 && twoDiffTail(by, dy, bdy) == 0.0 &&
+				twoDiffTail(cx, dx, cdx) == 0.0 && twoDiffTail(cy, dy, cdy) == 0.0 ) {
+			return det;
+		}
+
+		return incircleExact(ax, ay, bx, by, cx, cy, dx, dy);
+	}
+
+	/**
+	 * Computes orient2d using exact arithmetic
+	 */
+	static double orient2dExact( double ax , double ay , double bx , double by , double cx , double cy ) {
+		Workspace w = workspace.get();
+		double[] acx = w.adx, acy = w.ady, bcx = w.bdx, bcy = w.bdy;
+		twoDiff(ax, cx, acx);
+		twoDiff(ay, cy, acy);
+		twoDiff(bx, cx, bcx);
+		twoDiff(by, cy, bcy);
+
+		int detLength = cross(acx, acy, bcx, bcy, w.det, w);
+		return w.det[detLength - 1];
+	}
+
+	/**
+	 * Computes orient3d using exact arithmetic
+	 */
+	static double orient3dExact( double ax , double ay , double az ,
+								 double bx , double by , double bz ,
+								 double cx , double cy , double cz ,
+								 double dx , double dy , double dz ) {
+		Workspace w = workspace.get();
+		twoDiff(ax, dx, w.adx); twoDiff(ay, dy, w.ady); twoDiff(az, dz, w.adz);
+		twoDiff(bx, dx, w.bdx); twoDiff(by, dy, w.bdy); twoDiff(bz, dz, w.bdz);
+		twoDiff(cx, dx, w.cdx); twoDiff(cy, dy, w.cdy); twoDiff(cz, dz, w.cdz);
+
+		int bcLength = cross(w.bdx, w.bdy, w.cdx, w.cdy, w.bc, w);
+		int caLength = cross(w.cdx, w.cdy, w.adx, w.ady, w.ca, w);
+		int abLength = cross(w.adx, w.ady, w.bdx, w.bdy, w.ab, w);
+
+		int aLength = multiply(w.bc, bcLength, w.adz, 2, w.adet, w.scaled, w.product);
+		int bLength = multiply(w.ca, caLength, w.bdz, 2, w.bdet, w.scaled, w.product);
+		int cLength = multiply(w.ab, abLength, w.cdz, 2, w.cdet, w.scaled, w.product);
+
+		int abdetLength = sum(w.adet, aLength, w.bdet, bLength, w.abdet);
+		int detLength = sum(w.abdet, abdetLength, w.cdet, cLength, w.det);
+		return w.det[detLength - 1];
+	}
+
+	/**
+	 * Computes incircle using exact arithmetic
+	 */
+	static double incircleExact( double ax , double ay , double bx , double by ,
+								 double cx , double cy , double dx , double dy ) {
+		Workspace w = workspace.get();
+		twoDiff(ax, dx, w.adx); twoDiff(ay, dy, w.ady);
+		twoDiff(bx, dx, w.bdx); twoDiff(by, dy, w.bdy);
+		twoDiff(cx, dx, w.cdx); twoDiff(cy, dy, w.cdy);
+
+		int bcLength = cross(w.bdx, w.bdy, w.cdx, w.cdy, w.bc, w);
+		int caLength = cross(w.cdx, w.cdy, w.adx, w.ady, w.ca, w);
+		int abLength = cross(w.adx, w.ady, w.bdx, w.bdy, w.ab, w);
+
+		int aliftLength = lift(w.adx, w.ady, w.alift, w);
+		int bliftLength = lift(w.bdx, w.bdy, w.blift, w);
+		int cliftLength = lift(w.cdx, w.cdy, w.clift, w);
+
+		int aLength = multiply(w.bc, bcLength, w.alift, aliftLength, w.adet, w.scaled, w.product);
+		int bLength = multiply(w.ca, caLength, w.blift, bliftLength, w.bdet, w.scaled, w.product);
+		int cLength = multiply(w.ab, abLength, w.clift, cliftLength, w.cdet, w.scaled, w.product);
+
+		int abdetLength = sum(w.adet, aLength, w.bdet, bLength, w.abdet);
+		int detLength = sum(w.abdet, abdetLength, w.cdet, cLength, w.det);
+		return w.det[detLength - 1];
+	}
+
+	/**
+	 * Computes incircle using exact arithmetic when the differences between the fourth point and the other
+	 * points can be represented exactly
+	 */
+	static double incircleExactDiff( double adx , double ady , double bdx , double bdy , double cdx , double cdy ) {
+		Workspace w = workspace.get();
+		int detLength = incircleDiff(adx, ady, bdx, bdy, cdx, cdy, w);
+		return w.det[detLength - 1];
+	}
+
+	/**
+	 * Computes the expansion of the incircle determinant from the differences to the fourth point. The result
+	 * is written to w.det.
+	 *
+	 * @return Number of components in the output
+	 */
+	private static int incircleDiff( double adx , double ady , double bdx , double bdy , double cdx , double cdy ,
+									 Workspace w ) {
+		int bcLength = cross(bdx, bdy, cdx, cdy, w.bc);
+		int caLength = cross(cdx, cdy, adx, ady, w.ca);
+		int abLength = cross(adx, ady, bdx, bdy, w.ab);
+
+		int aLength = liftScale(w.bc, bcLength, adx, ady, w.adet, w);
+		int bLength = liftScale(w.ca, caLength, bdx, bdy, w.bdet, w);
+		int cLength = liftScale(w.ab, abLength, cdx, cdy, w.cdet, w);
+
+		int abdetLength = sum(w.adet, aLength, w.bdet, bLength, w.abdet);
+		return sum(w.abdet, abdetLength, w.cdet, cLength, w.det);
+	}
+
+	/**
+	 * Approximate value of an expansion
+	 */
+	static double estimate( double[] e , int length ) {
+		double Q = e[0];
+		for (int i = 1; i < length; i++) {
+			Q += e[i];
+		}
+		return Q;
+	}
+
+	/**
+	 * Computes the expansion for ax*by - ay*bx where each input is a single value.  Shewchuk's Two_Product
+	 * followed by Two_Two_Diff.  The output always has 4 components and some of them can be zero.
+	 */
+	static int cross( double ax , double ay , double bx , double by , double[] output ) {
+		double left = ax*by;
+		double leftTail = twoProductTail(ax, by, left);
+		double right = ay*bx;
+		double rightTail = twoProductTail(ay, bx, right);
+
+		double i = leftTail - rightTail;
+		output[0] = twoDiffTail(leftTail, rightTail, i);
+		double j = left + i;
+		double k = twoSumTail(left, i, j);
+		i = k - right;
+		output[1] = twoDiffTail(k, right, i);
+		output[3] = j + i;
+		output[2] = twoSumTail(j, i, output[3]);
+		return 4;
+	}
+
+	/**
+	 * Computes the expansion for e*(x*x + y*y)
+	 */
+	private static int liftScale( double[] e , int elen , double x , double y , double[] output , Workspace w ) {
+		int length = scale(e, elen, x, w.e1);
+		int xxLength = scale(w.e1, length, x, w.xx);
+		length = scale(e, elen, y, w.e1);
+		int yyLength = scale(w.e1, length, y, w.yy);
+		return sum(w.xx, xxLength, w.yy, yyLength, output);
+	}
+
+	/**
+	 * Computes the expansion for ax*by - ay*bx where each input is a two component expansion
+	 */
+	private static int cross( double[] ax , double[] ay , double[] bx , double[] by , double[] output ,
+							  Workspace w ) {
+		int leftLength = multiply(ax, 2, by, 2, w.left, w.scaled, w.product);
+		int rightLength = multiply(ay, 2, bx, 2, w.right, w.scaled, w.product);
+		negate(w.right, rightLength);
+		return sum(w.left, leftLength, w.right, rightLength, output);
+	}
+
+	/**
+	 * Computes the expansion for x*x + y*y where each input is a two component expansion
+	 */
+	private static int lift( double[] x , double[] y , double[] output , Workspace w ) {
+		int xxLength = multiply(x, 2, x, 2, w.xx, w.scaled, w.product);
+		int yyLength = multiply(y, 2, y, 2, w.yy, w.scaled, w.product);
+		return sum(w.xx, xxLength, w.yy, yyLength, output);
+	}
+
+	/**
+	 * Computes a - b exactly as a two component expansion, smallest component first
+	 */
+	static void twoDiff( double a , double b , double[] output ) {
+		double x = a - b;
+		output[0] = twoDiffTail(a, b, x);
+		output[1] = x;
+	}
+
+	/**
+	 * Round off error in x = a - b.  Shewchuk's Two_Diff_Tail
+	 */
+	static double twoDiffTail( double a , double b , double x ) {
+		double bvirt = a - x;
+		double avirt = x + bvirt;
+		double bround = bvirt - b;
+		double around = a - avirt;
+		return around + bround;
+	}
+
+	/**
+	 * Round off error in x = a + b.  Shewchuk's Two_Sum_Tail
+	 */
+	static double twoSumTail( double a , double b , double x ) {
+		double bvirt = x - a;
+		double avirt = x - bvirt;
+		double bround = b - bvirt;
+		double around = a - avirt;
+		return around + bround;
+	}
+
+	/**
+	 * Round off error in x = a*b.  Shewchuk's Two_Product_Tail
+	 */
+	static double twoProductTail( double a , double b , double x ) {
+		double c = SPLITTER*a;
+		double abig = c - a;
+		double ahi = c - abig;
+		double alo = a - ahi;
+		c = SPLITTER*b;
+		abig = c - b;
+		double bhi = c - abig;
+		double blo = b - bhi;
+		double err1 = x - ahi*bhi;
+		double err2 = err1 - alo*bhi;
+		double err3 = err2 - ahi*blo;
+		return alo*blo - err3;
+	}
+
+	static void negate( double[] e , int length ) {
+		for (int i = 0; i < length; i++) {
+			e[i] = -e[i];
+		}
+	}
+
+	/**
+	 * Multiplies two expansions together.  The output must have at least 2*elen*flen elements.
+	 *
+	 * @param scaled Work space with at least 2*elen elements
+	 * @param work Work space with at least 2*elen*flen elements
+	 * @return Number of components in the output
+	 */
+	static int multiply( double[] e , int elen , double[] f , int flen , double[] output ,
+						 double[] scaled , double[] work ) {
+		int length = scale(e, elen, f[0], output);
+		for (int i = 1; i < flen; i++) {
+			int scaledLength = scale(e, elen, f[i], scaled);
+			length = sum(output, length, scaled, scaledLength, work);
+			System.arraycopy(work, 0, output, 0, length);
+		}
+		return length;
+	}
+
+	/**
+	 * Multiplies an expansion by a scalar and eliminates zero components.  Shewchuk's
+	 * scale_expansion_zeroelim().  The output must have at least 2*elen elements.
+	 *
+	 * @return Number of components in the output
+	 */
+	static int scale( double[] e , int elen , double b , double[] h ) {
+		// split b into two halves
+		double c = SPLITTER*b;
+		double abig = c - b;
+		double bhi = c - abig;
+		double blo = b - bhi;
+
+		int hindex = 0;
+
+		// two product of e[0] and b
+		double enow = e[0];
+		double Q = enow*b;
+		c = SPLITTER*enow;
+		abig = c - enow;
+		double ahi = c - abig;
+		double alo = enow - ahi;
+		double err1 = Q - ahi*bhi;
+		double err2 = err1 - alo*bhi;
+		double err3 = err2 - ahi*blo;
+		double hh = alo*blo - err3;
+		if( hh != 0.0 )
+			h[hindex++] = hh;
+
+		for (int eindex = 1; eindex < elen; eindex++) {
+			enow = e[eindex];
+
+			// two product of enow and b
+			double product1 = enow*b;
+			c = SPLITTER*enow;
+			abig = c - enow;
+			ahi = c - abig;
+			alo = enow - ahi;
+			err1 = product1 - ahi*bhi;
+			err2 = err1 - alo*bhi;
+			err3 = err2 - ahi*blo;
+			double product0 = alo*blo - err3;
+
+			// two sum of Q and product0
+			double sum = Q + product0;
+			double bvirt = sum - Q;
+			double avirt = sum - bvirt;
+			double bround = product0 - bvirt;
+			double around = Q - avirt;
+			hh = around + bround;
+			if( hh != 0.0 )
+				h[hindex++] = hh;
+
+			// fast two sum of product1 and sum
+			Q = product1 + sum;
+			bvirt = Q - product1;
+			hh = sum - bvirt;
+			if( hh != 0.0 )
+				h[hindex++] = hh;
+		}
+		if( Q != 0.0 || hindex == 0 )
+			h[hindex++] = Q;
+		return hindex;
+	}
+
+	/**
+	 * Sums two expansions and eliminates zero components. Shewchuk's fast_expansion_sum_zeroelim().
+	 * The output must have at least elen+flen elements and can't be the same array as either input.
+	 *
+	 * @return Number of components in the output
+	 */
+	static int sum( double[] e , int elen , double[] f , int flen , double[] h ) {
+		double enow = e[0];
+		double fnow = f[0];
+		int eindex = 0, findex = 0;
+		double Q;
+		if( (fnow > enow) == (fnow > -enow) ) {
+			Q = enow;
+			eindex++;
+			enow = eindex < elen ? e[eindex] : 0;
+		} else {
+			Q = fnow;
+			findex++;
+			fnow = findex < flen ? f[findex] : 0;
+		}
+
+		int hindex = 0;
+		double Qnew, hh, bvirt, avirt, bround, around;
+		if( eindex < elen && findex < flen ) {
+			if( (fnow > enow) == (fnow > -enow) ) {
+				// fast two sum of enow and Q
+				Qnew = enow + Q;
+				bvirt = Qnew - enow;
+				hh = Q - bvirt;
+				eindex++;
+				enow = eindex < elen ? e[eindex] : 0;
+			} else {
+				Qnew = fnow + Q;
+				bvirt = Qnew - fnow;
+				hh = Q - bvirt;
+				findex++;
+				fnow = findex < flen ? f[findex] : 0;
+			}
+			Q = Qnew;
+			if( hh != 0.0 )
+				h[hindex++] = hh;
+
+			while( eindex < elen && findex < flen ) {
+				double next;
+				if( (fnow > enow) == (fnow > -enow) ) {
+					next = enow;
+					eindex++;
+					enow = eindex < elen ? e[eindex] : 0;
+				} else {
+					next = fnow;
+					findex++;
+					fnow = findex < flen ? f[findex] : 0;
+				}
+				// two sum of Q and next
+				Qnew = Q + next;
+				bvirt = Qnew - Q;
+				avirt = Qnew - bvirt;
+				bround = next - bvirt;
+				around = Q - avirt;
+				hh = around + bround;
+				Q = Qnew;
+				if( hh != 0.0 )
+					h[hindex++] = hh;
+			}
+		}
+		while( eindex < elen ) {
+			Qnew = Q + enow;
+			bvirt = Qnew - Q;
+			avirt = Qnew - bvirt;
+			bround = enow - bvirt;
+			around = Q - avirt;
+			hh = around + bround;
+			Q = Qnew;
+			if( hh != 0.0 )
+				h[hindex++] = hh;
+			eindex++;
+			enow = eindex < elen ? e[eindex] : 0;
+		}
+		while( findex < flen ) {
+			Qnew = Q + fnow;
+			bvirt = Qnew - Q;
+			avirt = Qnew - bvirt;
+			bround = fnow - bvirt;
+			around = Q - avirt;
+			hh = around + bround;
+			Q = Qnew;
+			if( hh != 0.0 )
+				h[hindex++] = hh;
+			findex++;
+			fnow = findex < flen ? f[findex] : 0;
+		}
+		if( Q != 0.0 || hindex == 0 )
+			h[hindex++] = Q;
+		return hindex;
+	}
+
+	/**
+	 * Arrays for the exact computations, each large enough for the longest expansion that's written to it
+	 */
+	private static class Workspace {
+		// two component differences between the points
+		final double[] adx = new double[2], ady = new double[2], adz = new double[2];
+		final double[] bdx = new double[2], bdy = new double[2], bdz = new double[2];
+		final double[] cdx = new double[2], cdy = new double[2], cdz = new double[2];
+
+		// cross products and lifts of the differences
+		final double[] bc = new double[16], ca = new double[16], ab = new double[16];
+		final double[] alift = new double[16], blift = new double[16], clift = new double[16];
+
+		// terms of the determinant and their sums
+		final double[] adet = new double[512], bdet = new double[512], cdet = new double[512];
+		final double[] abdet = new double[1024];
+		final double[] det = new double[1536];
+
+		// used inside of cross(), lift(), liftScale(), and multiply()
+		final double[] left = new double[8], right = new double[8];
+		final double[] e1 = new double[8], xx = new double[16], yy = new double[16];
+		final double[] scaled = new double[32];
+		final double[] product = new double[512];
+	}
+}
@@ -19,6 +19,7 @@
 package georegression.metric;
 
 import georegression.geometry.UtilPoint2D_F64;
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.curve.EllipseRotated_F64;
 import georegression.struct.line.LineGeneral2D_F64;
 import georegression.struct.line.LineParametric2D_F64;
@@ -384,4 +385,45 @@ public class Distance2D_F64 {
 
 		return p.distance2(x,y);
 	}
+
+	/**
+	 * Computes the Euclidean distance of each point in a packed array from the line.
+	 *
+	 * @param line A line. Not modified.
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( LineGeneral2D_F64 line , double[] xy , double[] distances , int length ) {
+		double n = Math.sqrt(line.A*line.A + line.B*line.B);
+
+		PackedKernels_F64.INSTANCE.lineDistance2(line.A/n,line.B/n,line.C/n,xy,distances,length);
+	}
+
+	/**
+	 * Computes the Euclidean distance of each point in a packed array from the line.
+	 *
+	 * @param line A line. Not modified.
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( LineParametric2D_F64 line , double[] xy , double[] distances , int length ) {
+		double n = Math.sqrt(line.slope.x*line.slope.x + line.slope.y*line.slope.y);
+
+		PackedKernels_F64.INSTANCE.lineParametricDistance2(line.p.x,line.p.y,line.slope.x/n,line.slope.y/n,
+				xy,distances,length);
+	}
+
+	/**
+	 * Computes the Euclidean distance of each point in a packed array from the line segment.
+	 *
+	 * @param line A line segment. Not modified.
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( LineSegment2D_F64 line , double[] xy , double[] distances , int length ) {
+		PackedKernels_F64.INSTANCE.segmentDistance2(line.a.x,line.a.y,line.b.x,line.b.y,xy,distances,length);
+	}
 }
@@ -19,6 +19,7 @@
 package georegression.metric;
 
 import georegression.metric.alg.DistancePointTriangle3D_F64;
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.line.LineParametric3D_F64;
 import georegression.struct.line.LineSegment3D_F64;
 import georegression.struct.plane.PlaneGeneral3D_F64;
@@ -213,4 +214,48 @@ public class Distance3D_F64 {
 
 		return alg.sign(point)*d;
 	}
+
+	/**
+	 * Computes the signed distance of each point in a packed array from the plane.  See
+	 * {@link #distance(PlaneGeneral3D_F64, Point3D_F64)} for the sign convention.
+	 *
+	 * @param plane The plane. Not modified.
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Signed distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( PlaneGeneral3D_F64 plane , double[] xyz , double[] distances , int length ) {
+		double n = Math.sqrt(plane.A*plane.A + plane.B*plane.B + plane.C*plane.C);
+
+		PackedKernels_F64.INSTANCE.planeDistance(plane.A/n,plane.B/n,plane.C/n,-plane.D/n,xyz,distances,length);
+	}
+
+	/**
+	 * Computes the distance of each point in a packed array from the line.
+	 *
+	 * @param l Line. Not modified.
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( LineParametric3D_F64 l , double[] xyz , double[] distances , int length ) {
+		double n = l.slope.norm();
+
+		PackedKernels_F64.INSTANCE.lineParametricDistance3(l.p.x,l.p.y,l.p.z,l.slope.x/n,l.slope.y/n,l.slope.z/n,
+				xyz,distances,length);
+	}
+
+	/**
+	 * Computes the signed distance of each point in a packed array from the sphere's surface.  See
+	 * {@link #distance(Sphere3D_F64, Point3D_F64)} for the sign convention.
+	 *
+	 * @param sphere The sphere. Not modified.
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Signed distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public static void distance( Sphere3D_F64 sphere , double[] xyz , double[] distances , int length ) {
+		PackedKernels_F64.INSTANCE.sphereDistance(sphere.center.x,sphere.center.y,sphere.center.z,sphere.radius,
+				xyz,distances,length);
+	}
 }
@@ -20,7 +20,9 @@ package georegression.metric;
 
 import georegression.geometry.UtilEllipse_F64;
 import georegression.geometry.algs.AreaIntersectionPolygon2D_F64;
+import georegression.geometry.predicates.RobustPredicates;
 import georegression.misc.GrlConstants;
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.curve.EllipseRotated_F64;
 import georegression.struct.line.LineGeneral2D_F64;
 import georegression.struct.line.LineParametric2D_F64;
@@ -120,6 +122,40 @@ public class Intersection2D_F64 {
 		return (left % 2 == 1 && right % 2 == 1);
 	}
 
+	/**
+	 * <p>
+	 * Checks to see if the point is contained inside the polygon, which can be convex or concave.  The
+	 * side of each edge the point lies on is found using {@link RobustPredicates}, so the answer is consistent
+	 * for points which are very close to an edge.
+	 * </p>
+	 *
+	 * NOTE: Points which lie along the perimeter may or may not be considered as inside
+	 *
+	 * @param polygon Polygon. Not modified.
+	 * @param pt Point. Not modified.
+	 * @return True if the point is contained inside the polygon.
+	 */
+	public static boolean containConcaveRobust( Polygon2D_F64 polygon , Point2D_F64 pt )
+	{
+		final int N = polygon.size();
+
+		boolean inside = false;
+		for (int i = 0, j = N-1; i < N; j = i++) {
+			Point2D_F64 a = polygon.vertexes.data[j];
+			Point2D_F64 b = polygon.vertexes.data[i];
+
+			// count the edges which cross the ray heading in the positive x direction from the point
+			if( a.y <= pt.y ) {
+				if( b.y > pt.y && RobustPredicates.orient2d(a.x,a.y,b.x,b.y,pt.x,pt.y) > 0 )
+					inside = !inside;
+			} else if( b.y <= pt.y ) {
+				if( RobustPredicates.orient2d(a.x,a.y,b.x,b.y,pt.x,pt.y) < 0 )
+					inside = !inside;
+			}
+		}
+		return inside;
+	}
+
 	/**
 	 * True if the point is contained inside the quadrilateral.
 	 *
@@ -655,4 +691,18 @@ public class Intersection2D_F64 {
 
 		return totalIntersections;
 	}
+
+	/**
+	 * Checks to see which points in a packed array are inside the rectangle.  Uses the same
+	 * definition of inside as {@link #contains(Rectangle2D_F64, double, double)}.
+	 *
+	 * @param a Rectangle. Not modified.
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param inside (Output) true if the point is inside the rectangle.  Must be at least length.
+	 * @param length Number of points
+	 * @return Number of points inside the rectangle
+	 */
+	public static int contains( Rectangle2D_F64 a , double[] xy , boolean[] inside , int length ) {
+		return PackedKernels_F64.INSTANCE.rectangleContains(a.p0.x,a.p0.y,a.p1.x,a.p1.y,xy,inside,length);
+	}
 }
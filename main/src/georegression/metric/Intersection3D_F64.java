@@ -29,6 +29,8 @@ import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Vector3D_F64;
 import georegression.struct.shapes.Box3D_F64;
 import georegression.struct.shapes.BoxLength3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
 import georegression.struct.shapes.Sphere3D_F64;
 import georegression.struct.shapes.Triangle3D_F64;
 import org.ddogleg.struct.FastQueue;
@@ -557,4 +559,262 @@ public class Intersection3D_F64 {
 		return true;
 	}
 
+	/**
+	 * Finds where a ray first hits an axis aligned box. The ray starts at ray.p and travels along ray.slope.
+	 * If the ray starts inside the box then the intersection is the ray's start.
+	 *
+	 * @param ray (Input) The ray
+	 * @param box (Input) Axis aligned box
+	 * @param output (Output) Optional storage for the point of intersection. Can be null.
+	 * @return true if the ray hits the box
+	 * @see IntersectionRays3D_F64
+	 */
+	public static boolean intersect( LineParametric3D_F64 ray , Box3D_F64 box , Point3D_F64 output ) {
+		double t = IntersectionRays3D_F64.rayBox(ray.p.x, ray.p.y, ray.p.z, ray.slope.x, ray.slope.y, ray.slope.z,
+				box.p0.x, box.p0.y, box.p0.z, box.p1.x, box.p1.y, box.p1.z);
+		if( t == IntersectionRays3D_F64.MISS )
+			return false;
+
+		if( output != null )
+			ray.setPointOnLine(t, output);
+		return true;
+	}
+
+	/**
+	 * Finds the intersection of a line and the surface of an infinitely long cylinder. There can be 0, 1, or 2
+	 * intersections. If there is 1 intersection the same point is returned twice. A line parallel to the
+	 * cylinder's axis is considered to not intersect it.
+	 *
+	 * @param line line
+	 * @param cylinder cylinder
+	 * @param a (Output) Storage for point of intersection. t = min(t0,t1), where t is location on line
+	 * @param b (Output) Storage for point of intersection. t = max(t0,t1), where t is location on line
+	 * @return true if the line intersects the cylinder
+	 */
+	public static boolean intersect( LineParametric3D_F64 line , Cylinder3D_F64 cylinder ,
+									 Point3D_F64 a , Point3D_F64 b ) {
+		Vector3D_F64 d = line.slope;
+		Vector3D_F64 s = cylinder.line.slope;
+		double wx = line.p.x - cylinder.line.p.x;
+		double wy = line.p.y - cylinder.line.p.y;
+		double wz = line.p.z - cylinder.line.p.z;
+
+		double ss = s.dot(s);
+		double ds = d.dot(s);
+		double ws = wx*s.x + wy*s.y + wz*s.z;
+
+		// remove the component along the axis and solve for the distance to the axis being the radius
+		double A = d.dot(d) - ds*ds/ss;
+		double B = 2.0*(wx*d.x + wy*d.y + wz*d.z - ws*ds/ss);
+		double C = wx*wx + wy*wy + wz*wz - ws*ws/ss - cylinder.radius*cylinder.radius;
+
+		if( A <= 0 )
+			return false;
+
+		double inner = B*B - 4.0*A*C;
+		if( inner < 0 )
+			return false;
+		double sqrt = Math.sqrt(inner);
+
+		double t0 = (-B - sqrt)/(2.0*A);
+		double t1 = (-B + sqrt)/(2.0*A);
+
+		line.setPointOnLine(t0,a);
+		line.setPointOnLine(t1,b);
+
+		return true;
+	}
+
+
+	/**
+	 * Returns true if the point is inside or on the surface of the oriented box
+	 *
+	 * @param box Box
+	 * @param point Point which is tested to see if it is inside the box
+	 * @return true for inside and false for not
+	 */
+	public static boolean contained( BoxOriented3D_F64 box , Point3D_F64 point ) {
+		double[] R = box.boxToWorld.R.data;
+		double dx = point.x - box.boxToWorld.T.x;
+		double dy = point.y - box.boxToWorld.T.y;
+		double dz = point.z - box.boxToWorld.T.z;
+
+		return( Math.abs(R[0]*dx + R[3]*dy + R[6]*dz) <= box.halfX &&
+				Math.abs(R[1]*dx + R[4]*dy + R[7]*dz) <= box.halfY &&
+				Math.abs(R[2]*dx + R[5]*dy + R[8]*dz) <= box.halfZ );
+	}
+
+	/**
+	 * Returns true if the axis aligned box is inside of or on the surface of the oriented box
+	 *
+	 * @param outer Oriented box
+	 * @param inner Box which is being tested to see if it's inside
+	 * @return true if inside
+	 */
+	public static boolean contained( BoxOriented3D_F64 outer , Box3D_F64 inner ) {
+		double[] R = outer.boxToWorld.R.data;
+		double hx = (inner.p1.x - inner.p0.x)/2, hy = (inner.p1.y - inner.p0.y)/2, hz = (inner.p1.z - inner.p0.z)/2;
+		double dx = (inner.p0.x + inner.p1.x)/2 - outer.boxToWorld.T.x;
+		double dy = (inner.p0.y + inner.p1.y)/2 - outer.boxToWorld.T.y;
+		double dz = (inner.p0.z + inner.p1.z)/2 - outer.boxToWorld.T.z;
+
+		// the farthest corner along each of the oriented box's axes must be inside
+		return( Math.abs(R[0]*dx + R[3]*dy + R[6]*dz) + hx*Math.abs(R[0]) + hy*Math.abs(R[3]) + hz*Math.abs(R[6])
+				<= outer.halfX &&
+				Math.abs(R[1]*dx + R[4]*dy + R[7]*dz) + hx*Math.abs(R[1]) + hy*Math.abs(R[4]) + hz*Math.abs(R[7])
+				<= outer.halfY &&
+				Math.abs(R[2]*dx + R[5]*dy + R[8]*dz) + hx*Math.abs(R[2]) + hy*Math.abs(R[5]) + hz*Math.abs(R[8])
+				<= outer.halfZ );
+	}
+
+	/**
+	 * Returns true if the oriented box is inside of or on the surface of the axis aligned box
+	 *
+	 * @param outer Axis aligned box
+	 * @param inner Oriented box which is being tested to see if it's inside
+	 * @return true if inside
+	 */
+	public static boolean contained( Box3D_F64 outer , BoxOriented3D_F64 inner ) {
+		double[] R = inner.boxToWorld.R.data;
+		double ex = inner.halfX*Math.abs(R[0]) + inner.halfY*Math.abs(R[1]) + inner.halfZ*Math.abs(R[2]);
+		double ey = inner.halfX*Math.abs(R[3]) + inner.halfY*Math.abs(R[4]) + inner.halfZ*Math.abs(R[5]);
+		double ez = inner.halfX*Math.abs(R[6]) + inner.halfY*Math.abs(R[7]) + inner.halfZ*Math.abs(R[8]);
+		double cx = inner.boxToWorld.T.x, cy = inner.boxToWorld.T.y, cz = inner.boxToWorld.T.z;
+
+		return( outer.p0.x <= cx - ex && cx + ex <= outer.p1.x &&
+				outer.p0.y <= cy - ey && cy + ey <= outer.p1.y &&
+				outer.p0.z <= cz - ez && cz + ez <= outer.p1.z );
+	}
+
+	/**
+	 * Returns true if the sphere is inside of or on the surface of the oriented box
+	 *
+	 * @param box Oriented box
+	 * @param sphere Sphere which is being tested to see if it's inside
+	 * @return true if inside
+	 */
+	public static boolean contained( BoxOriented3D_F64 box , Sphere3D_F64 sphere ) {
+		double[] R = box.boxToWorld.R.data;
+		double dx = sphere.center.x - box.boxToWorld.T.x;
+		double dy = sphere.center.y - box.boxToWorld.T.y;
+		double dz = sphere.center.z - box.boxToWorld.T.z;
+		double r = sphere.radius;
+
+		return( Math.abs(R[0]*dx + R[3]*dy + R[6]*dz) + r <= box.halfX &&
+				Math.abs(R[1]*dx + R[4]*dy + R[7]*dz) + r <= box.halfY &&
+				Math.abs(R[2]*dx + R[5]*dy + R[8]*dz) + r <= box.halfZ );
+	}
+
+	/**
+	 * Returns true if the oriented box and the axis aligned box intersect. Touching boxes are considered to
+	 * intersect. Uses the separating axis theorem with 15 candidate axes: the 3 axes of each box and the 9 cross
+	 * products between them.
+	 *
+	 * @param boxA Oriented box
+	 * @param boxB Axis aligned box
+	 * @return true if they intersect
+	 */
+	public static boolean intersect( BoxOriented3D_F64 boxA , Box3D_F64 boxB ) {
+		// R[i][j] = dot(A_i, B_j), where B's axes are the world axes, is the transpose of boxA's rotation matrix
+		double[] A = boxA.boxToWorld.R.data;
+		double r00 = A[0], r01 = A[3], r02 = A[6];
+		double r10 = A[1], r11 = A[4], r12 = A[7];
+		double r20 = A[2], r21 = A[5], r22 = A[8];
+
+		// the small constant handles nearly parallel edges, when the cross product is close to zero
+		double eps = GrlConstants.EPS;
+		double a00 = Math.abs(r00) + eps, a01 = Math.abs(r01) + eps, a02 = Math.abs(r02) + eps;
+		double a10 = Math.abs(r10) + eps, a11 = Math.abs(r11) + eps, a12 = Math.abs(r12) + eps;
+		double a20 = Math.abs(r20) + eps, a21 = Math.abs(r21) + eps, a22 = Math.abs(r22) + eps;
+
+		double ha0 = boxA.halfX, ha1 = boxA.halfY, ha2 = boxA.halfZ;
+		double hb0 = (boxB.p1.x - boxB.p0.x)/2, hb1 = (boxB.p1.y - boxB.p0.y)/2, hb2 = (boxB.p1.z - boxB.p0.z)/2;
+
+		// translation from A to B in world and A's coordinates
+		double dx = (boxB.p0.x + boxB.p1.x)/2 - boxA.boxToWorld.T.x;
+		double dy = (boxB.p0.y + boxB.p1.y)/2 - boxA.boxToWorld.T.y;
+		double dz = (boxB.p0.z + boxB.p1.z)/2 - boxA.boxToWorld.T.z;
+		double t0 = r00*dx + r01*dy + r02*dz;
+		double t1 = r10*dx + r11*dy + r12*dz;
+		double t2 = r20*dx + r21*dy + r22*dz;
+
+		// A's axes
+		if( Math.abs(t0) > ha0 + hb0*a00 + hb1*a01 + hb2*a02 ) return false;
+		if( Math.abs(t1) > ha1 + hb0*a10 + hb1*a11 + hb2*a12 ) return false;
+		if( Math.abs(t2) > ha2 + hb0*a20 + hb1*a21 + hb2*a22 ) return false;
+
+		// B's axes
+		if( Math.abs(dx) > ha0*a00 + ha1*a10 + ha2*a20 + hb0 ) return false;
+		if( Math.abs(dy) > ha0*a01 + ha1*a11 + ha2*a21 + hb1 ) return false;
+		if( Math.abs(dz) > ha0*a02 + ha1*a12 + ha2*a22 + hb2 ) return false;
+
+		// A_0 x B_j
+		if( Math.abs(t2*r10 - t1*r20) > ha1*a20 + ha2*a10 + hb1*a02 + hb2*a01 ) return false;
+		if( Math.abs(t2*r11 - t1*r21) > ha1*a21 + ha2*a11 + hb0*a02 + hb2*a00 ) return false;
+		if( Math.abs(t2*r12 - t1*r22) > ha1*a22 + ha2*a12 + hb0*a01 + hb1*a00 ) return false;
+
+		// A_1 x B_j
+		if( Math.abs(t0*r20 - t2*r00) > ha0*a20 + ha2*a00 + hb1*a12 + hb2*a11 ) return false;
+		if( Math.abs(t0*r21 - t2*r01) > ha0*a21 + ha2*a01 + hb0*a12 + hb2*a10 ) return false;
+		if( Math.abs(t0*r22 - t2*r02) > ha0*a22 + ha2*a02 + hb0*a11 + hb1*a10 ) return false;
+
+		// A_2 x B_j
+		if( Math.abs(t1*r00 - t0*r10) > ha0*a10 + ha1*a00 + hb1*a22 + hb2*a21 ) return false;
+		if( Math.abs(t1*r01 - t0*r11) > ha0*a11 + ha1*a01 + hb0*a22 + hb2*a20 ) return false;
+		if( Math.abs(t1*r02 - t0*r12) > ha0*a12 + ha1*a02 + hb0*a21 + hb1*a20 ) return false;
+
+		return true;
+	}
+
+	/**
+	 * Returns true if the oriented box and the sphere intersect. Touching is considered an intersection.
+	 *
+	 * @param box Oriented box
+	 * @param sphere Sphere
+	 * @return true if they intersect
+	 */
+	public static boolean intersect( BoxOriented3D_F64 box , Sphere3D_F64 sphere ) {
+		double[] R = box.boxToWorld.R.data;
+		double dx = sphere.center.x - box.boxToWorld.T.x;
+		double dy = sphere.center.y - box.boxToWorld.T.y;
+		double dz = sphere.center.z - box.boxToWorld.T.z;
+
+		// distance from the sphere's center to the closest point on the box, in box coordinates
+		double ex = Math.max(0, Math.abs(R[0]*dx + R[3]*dy + R[6]*dz) - box.halfX);
+		double ey = Math.max(0, Math.abs(R[1]*dx + R[4]*dy + R[7]*dz) - box.halfY);
+		double ez = Math.max(0, Math.abs(R[2]*dx + R[5]*dy + R[8]*dz) - box.halfZ);
+
+		return ex*ex + ey*ey + ez*ez <= sphere.radius*sphere.radius;
+	}
+
+	/**
+	 * Finds where a ray first hits the oriented box using the slab method in the box's coordinate system.
+	 * The ray starts at line.p and travels along line.slope. If the ray starts inside the box then the
+	 * intersection is the ray's start.
+	 *
+	 * @param ray (Input) The ray
+	 * @param box (Input) Oriented box
+	 * @param output (Output) Optional storage for the point of intersection. Can be null.
+	 * @return true if the ray hits the box
+	 */
+	public static boolean intersect( LineParametric3D_F64 ray , BoxOriented3D_F64 box , Point3D_F64 output ) {
+		double[] R = box.boxToWorld.R.data;
+		double dx = ray.p.x - box.boxToWorld.T.x;
+		double dy = ray.p.y - box.boxToWorld.T.y;
+		double dz = ray.p.z - box.boxToWorld.T.z;
+		double vx = ray.slope.x, vy = ray.slope.y, vz = ray.slope.z;
+
+		// the ray and its direction in box coordinates
+		double px = R[0]*dx + R[3]*dy + R[6]*dz, py = R[1]*dx + R[4]*dy + R[7]*dz, pz = R[2]*dx + R[5]*dy + R[8]*dz;
+		double ux = R[0]*vx + R[3]*vy + R[6]*vz, uy = R[1]*vx + R[4]*vy + R[7]*vz, uz = R[2]*vx + R[5]*vy + R[8]*vz;
+
+		double t = IntersectionRays3D_F64.rayBox(px, py, pz, ux, uy, uz,
+				-box.halfX, -box.halfY, -box.halfZ, box.halfX, box.halfY, box.halfZ);
+		if( t == IntersectionRays3D_F64.MISS )
+			return false;
+
+		if( output != null )
+			ray.setPointOnLine(t, output);
+		return true;
+	}
 }
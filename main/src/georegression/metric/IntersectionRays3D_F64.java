@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric;
+
+import georegression.struct.line.LineParametric3D_F64;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+
+/**
+ * <p>
+ * Kernels which find where rays first hit boxes, spheres, planes, and cylinders. A ray starts at its origin and
+ * travels along its direction, the points on it are origin + t*direction for t &ge; 0. Each kernel returns the
+ * smallest t at which the ray hits the primitive or {@link #MISS} if it doesn't. If the ray starts inside a solid
+ * primitive then t = 0 is returned. The direction doesn't need to be normalized but must not be zero.
+ * </p>
+ *
+ * <p>
+ * Batch versions either intersect a packet of rays against one primitive or one ray against many primitives.
+ * Rays and primitives are packed into arrays, e.g. origins as x,y,z,x,y,z,..., and the ray parameter for each
+ * one is written to an array. The batch loops don't allocate memory, don't exit early, and access memory
+ * sequentially, which is what's needed when intersecting millions of rays, e.g. when simulating a lidar.
+ * Use {@link #closest} to find the first primitive hit by a ray.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class IntersectionRays3D_F64 {
+	/**
+	 * Ray parameter returned when a ray doesn't hit the primitive
+	 */
+	public static final double MISS = Double.MAX_VALUE;
+
+	/**
+	 * Intersects a ray with an axis aligned box using the slab method.
+	 *
+	 * @return Ray parameter of the first intersection or {@link #MISS}
+	 */
+	public static double rayBox( double ox , double oy , double oz , double dx , double dy , double dz ,
+								 double x0 , double y0 , double z0 , double x1 , double y1 , double z1 ) {
+		// range of ray parameters inside every slab
+		double tmin = 0, tmax = Double.MAX_VALUE;
+
+		if( dx == 0 ) {
+			if( ox < x0 || ox > x1 ) return MISS;
+		} else {
+			double ta = (x0 - ox)/dx, tb = (x1 - ox)/dx;
+			tmin = Math.max(tmin, Math.min(ta, tb));
+			tmax = Math.min(tmax, Math.max(ta, tb));
+		}
+		if( dy == 0 ) {
+			if( oy < y0 || oy > y1 ) return MISS;
+		} else {
+			double ta = (y0 - oy)/dy, tb = (y1 - oy)/dy;
+			tmin = Math.max(tmin, Math.min(ta, tb));
+			tmax = Math.min(tmax, Math.max(ta, tb));
+		}
+		if( dz == 0 ) {
+			if( oz < z0 || oz > z1 ) return MISS;
+		} else {
+			double ta = (z0 - oz)/dz, tb = (z1 - oz)/dz;
+			tmin = Math.max(tmin, Math.min(ta, tb));
+			tmax = Math.min(tmax, Math.max(ta, tb));
+		}
+
+		return tmin <= tmax ? tmin : MISS;
+	}
+
+	/**
+	 * Intersects a ray with a solid sphere.
+	 *
+	 * @return Ray parameter of the first intersection or {@link #MISS}
+	 */
+	public static double raySphere( double ox , double oy , double oz , double dx , double dy , double dz ,
+									double cx , double cy , double cz , double radius ) {
+		double wx = ox - cx, wy = oy - cy, wz = oz - cz;
+
+		// solve |w + t*d|^2 = r^2 using a*t^2 + 2*b*t + c = 0
+		double a = dx*dx + dy*dy + dz*dz;
+		double b = wx*dx + wy*dy + wz*dz;
+		double c = wx*wx + wy*wy + wz*wz - radius*radius;
+
+		double inner = b*b - a*c;
+		if( inner < 0 )
+			return MISS;
+		double sqrt = Math.sqrt(inner);
+
+		// the sphere is behind the ray
+		if( -b + sqrt < 0 )
+			return MISS;
+		return Math.max((-b - sqrt)/a, 0);
+	}
+
+	/**
+	 * Intersects a ray with the plane A*x + B*y + C*z = D. A ray which lies in the plane or is parallel to it
+	 * is a miss.
+	 *
+	 * @return Ray parameter of the intersection or {@link #MISS}
+	 */
+	public static double rayPlane( double ox , double oy , double oz , double dx , double dy , double dz ,
+								   double A , double B , double C , double D ) {
+		double denominator = A*dx + B*dy + C*dz;
+		if( denominator == 0 )
+			return MISS;
+		double t = (D - A*ox - B*oy - C*oz)/denominator;
+		return t >= 0 ? t : MISS;
+	}
+
+	/**
+	 * Intersects a ray with an infinitely long solid cylinder. The cylinder's axis passes through point p
+	 * and has direction s, which doesn't need to be normalized. A ray parallel to the axis only hits the
+	 * cylinder if it starts inside of it.
+	 *
+	 * @return Ray parameter of the first intersection or {@link #MISS}
+	 */
+	public static double rayCylinder( double ox , double oy , double oz , double dx , double dy , double dz ,
+									  double px , double py , double pz , double sx , double sy , double sz ,
+									  double radius ) {
+		double wx = ox - px, wy = oy - py, wz = oz - pz;
+
+		double ss = sx*sx + sy*sy + sz*sz;
+		double ds = dx*sx + dy*sy + dz*sz;
+		double ws = wx*sx + wy*sy + wz*sz;
+
+		// solve |w + t*d|^2 - (s.(w + t*d))^2/|s|^2 = r^2 using a*t^2 + 2*b*t + c = 0
+		double a = dx*dx + dy*dy + dz*dz - ds*ds/ss;
+		double b = wx*dx + wy*dy + wz*dz - ws*ds/ss;
+		double c = wx*wx + wy*wy + wz*wz - ws*ws/ss - radius*radius;
+
+		if( a <= 0 )
+			return c <= 0 ? 0 : MISS;
+
+		double inner = b*b - a*c;
+		if( inner < 0 )
+			return MISS;
+		double sqrt = Math.sqrt(inner);
+
+		// the cylinder is behind the ray
+		if( -b + sqrt < 0 )
+			return MISS;
+		return Math.max((-b - sqrt)/a, 0);
+	}
+
+	/**
+	 * Intersects a packet of rays with an axis aligned box
+	 *
+	 * @param origins (Input) Ray origins packed as x,y,z
+	 * @param directions (Input) Ray directions packed as x,y,z
+	 * @param count Number of rays
+	 * @param box (Input) The box
+	 * @param t (Output) Ray parameter for each ray or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void raysBox( double[] origins , double[] directions , int count , Box3D_F64 box , double[] t ) {
+		double x0 = box.p0.x, y0 = box.p0.y, z0 = box.p0.z;
+		double x1 = box.p1.x, y1 = box.p1.y, z1 = box.p1.z;
+
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			t[i] = rayBox(origins[j], origins[j+1], origins[j+2], directions[j], directions[j+1], directions[j+2],
+					x0, y0, z0, x1, y1, z1);
+		}
+	}
+
+	/**
+	 * Intersects a packet of rays with a sphere
+	 *
+	 * @param origins (Input) Ray origins packed as x,y,z
+	 * @param directions (Input) Ray directions packed as x,y,z
+	 * @param count Number of rays
+	 * @param sphere (Input) The sphere
+	 * @param t (Output) Ray parameter for each ray or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void raysSphere( double[] origins , double[] directions , int count , Sphere3D_F64 sphere ,
+								   double[] t ) {
+		double cx = sphere.center.x, cy = sphere.center.y, cz = sphere.center.z;
+		double radius = sphere.radius;
+
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			t[i] = raySphere(origins[j], origins[j+1], origins[j+2], directions[j], directions[j+1], directions[j+2],
+					cx, cy, cz, radius);
+		}
+	}
+
+	/**
+	 * Intersects a packet of rays with a plane
+	 *
+	 * @param origins (Input) Ray origins packed as x,y,z
+	 * @param directions (Input) Ray directions packed as x,y,z
+	 * @param count Number of rays
+	 * @param plane (Input) The plane
+	 * @param t (Output) Ray parameter for each ray or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void raysPlane( double[] origins , double[] directions , int count , PlaneGeneral3D_F64 plane ,
+								  double[] t ) {
+		double A = plane.A, B = plane.B, C = plane.C, D = plane.D;
+
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			t[i] = rayPlane(origins[j], origins[j+1], origins[j+2], directions[j], directions[j+1], directions[j+2],
+					A, B, C, D);
+		}
+	}
+
+	/**
+	 * Intersects a packet of rays with an infinitely long cylinder
+	 *
+	 * @param origins (Input) Ray origins packed as x,y,z
+	 * @param directions (Input) Ray directions packed as x,y,z
+	 * @param count Number of rays
+	 * @param cylinder (Input) The cylinder
+	 * @param t (Output) Ray parameter for each ray or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void raysCylinder( double[] origins , double[] directions , int count , Cylinder3D_F64 cylinder ,
+									 double[] t ) {
+		LineParametric3D_F64 axis = cylinder.line;
+		double px = axis.p.x, py = axis.p.y, pz = axis.p.z;
+		double sx = axis.slope.x, sy = axis.slope.y, sz = axis.slope.z;
+		double radius = cylinder.radius;
+
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			t[i] = rayCylinder(origins[j], origins[j+1], origins[j+2], directions[j], directions[j+1], directions[j+2],
+					px, py, pz, sx, sy, sz, radius);
+		}
+	}
+
+	/**
+	 * Intersects one ray with many axis aligned boxes
+	 *
+	 * @param ray (Input) The ray. Starts at ray.p and travels along ray.slope.
+	 * @param boxes (Input) Boxes packed as x0,y0,z0,x1,y1,z1
+	 * @param count Number of boxes
+	 * @param t (Output) Ray parameter for each box or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void rayBoxes( LineParametric3D_F64 ray , double[] boxes , int count , double[] t ) {
+		double ox = ray.p.x, oy = ray.p.y, oz = ray.p.z;
+		double dx = ray.slope.x, dy = ray.slope.y, dz = ray.slope.z;
+
+		for (int i = 0, j = 0; i < count; i++, j += 6) {
+			t[i] = rayBox(ox, oy, oz, dx, dy, dz,
+					boxes[j], boxes[j+1], boxes[j+2], boxes[j+3], boxes[j+4], boxes[j+5]);
+		}
+	}
+
+	/**
+	 * Intersects one ray with many spheres
+	 *
+	 * @param ray (Input) The ray. Starts at ray.p and travels along ray.slope.
+	 * @param spheres (Input) Spheres packed as x,y,z,radius
+	 * @param count Number of spheres
+	 * @param t (Output) Ray parameter for each sphere or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void raySpheres( LineParametric3D_F64 ray , double[] spheres , int count , double[] t ) {
+		double ox = ray.p.x, oy = ray.p.y, oz = ray.p.z;
+		double dx = ray.slope.x, dy = ray.slope.y, dz = ray.slope.z;
+
+		for (int i = 0, j = 0; i < count; i++, j += 4) {
+			t[i] = raySphere(ox, oy, oz, dx, dy, dz, spheres[j], spheres[j+1], spheres[j+2], spheres[j+3]);
+		}
+	}
+
+	/**
+	 * Intersects one ray with many planes
+	 *
+	 * @param ray (Input) The ray. Starts at ray.p and travels along ray.slope.
+	 * @param planes (Input) Planes packed as A,B,C,D
+	 * @param count Number of planes
+	 * @param t (Output) Ray parameter for each plane or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void rayPlanes( LineParametric3D_F64 ray , double[] planes , int count , double[] t ) {
+		double ox = ray.p.x, oy = ray.p.y, oz = ray.p.z;
+		double dx = ray.slope.x, dy = ray.slope.y, dz = ray.slope.z;
+
+		for (int i = 0, j = 0; i < count; i++, j += 4) {
+			t[i] = rayPlane(ox, oy, oz, dx, dy, dz, planes[j], planes[j+1], planes[j+2], planes[j+3]);
+		}
+	}
+
+	/**
+	 * Intersects one ray with many infinitely long cylinders
+	 *
+	 * @param ray (Input) The ray. Starts at ray.p and travels along ray.slope.
+	 * @param cylinders (Input) Cylinders packed as a point on the axis, the axis direction, and the radius,
+	 *                  px,py,pz,sx,sy,sz,radius
+	 * @param count Number of cylinders
+	 * @param t (Output) Ray parameter for each cylinder or {@link #MISS}. Must have at least count elements.
+	 */
+	public static void rayCylinders( LineParametric3D_F64 ray , double[] cylinders , int count , double[] t ) {
+		double ox = ray.p.x, oy = ray.p.y, oz = ray.p.z;
+		double dx = ray.slope.x, dy = ray.slope.y, dz = ray.slope.z;
+
+		for (int i = 0, j = 0; i < count; i++, j += 7) {
+			t[i] = rayCylinder(ox, oy, oz, dx, dy, dz, cylinders[j], cylinders[j+1], cylinders[j+2],
+					cylinders[j+3], cylinders[j+4], cylinders[j+5], cylinders[j+6]);
+		}
+	}
+
+	/**
+	 * Finds the element with the smallest ray parameter, i.e. the first one hit by the ray
+	 *
+	 * @param t (Input) Ray parameters computed by a batch function
+	 * @param count Number of elements
+	 * @return Index of the closest element or -1 if the ray doesn't hit any of them
+	 */
+	public static int closest( double[] t , int count ) {
+		int best = -1;
+		double bestT = MISS;
+		for (int i = 0; i < count; i++) {
+			if( t[i] < bestT ) {
+				bestT = t[i];
+				best = i;
+			}
+		}
+		return best;
+	}
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I8;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Classifies axis aligned boxes, spheres, and points as being inside, outside, or intersecting a convex volume
+ * defined by a set of planes, e.g. the 6 planes of a view frustum. The inside of each plane is the side the normal
+ * points towards, A*x + B*y + C*z - D &ge; 0. Planes are converted into Hessian normal form when set.
+ * </p>
+ *
+ * <p>
+ * A box is outside if its corner which is farthest along a plane's normal, the p-vertex, is outside of that plane.
+ * It's inside if the opposite corner, the n-vertex, is inside of every plane. Which corner is which only depends
+ * on the signs of the normal, so for each plane the index of the p-vertex and n-vertex coordinates are computed
+ * once in a table. This is a conservative test. A box near a corner of the volume can be classified as
+ * intersecting when it's outside.
+ * </p>
+ *
+ * <p>
+ * Objects which move slowly tend to be rejected by the same plane as the previous time they were tested. When
+ * an optional cache is provided the plane which last rejected each object is tested first, and the cache
+ * is updated. The cache should be discarded when the order of the objects changes.
+ * </p>
+ *
+ * <p>
+ * Boxes are packed into an array as x0,y0,z0,x1,y1,z1 with the lower extent first, the same as
+ * {@link Box3D_F64}. Spheres are packed as x,y,z,radius and points as x,y,z.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FrustumCulling3D_F64 {
+	/**
+	 * The object is entirely outside of at least one plane
+	 */
+	public static final byte OUTSIDE = 0;
+	/**
+	 * The object might cross the boundary
+	 */
+	public static final byte INTERSECTING = 1;
+	/**
+	 * The object is entirely inside all the planes
+	 */
+	public static final byte INSIDE = 2;
+
+	// planes in Hessian normal form, packed as A,B,C,D
+	GrowQueue_F64 planes = new GrowQueue_F64();
+	int numPlanes;
+
+	// For each plane, the offset of x,y,z inside a packed box for the p-vertex and n-vertex
+	int[] pvertex = new int[0];
+	int[] nvertex = new int[0];
+
+	// storage for a single box
+	double[] work = new double[6];
+	// plane which rejected the previous object, tested first when an object is classified on its own
+	byte lastPlane;
+
+	public FrustumCulling3D_F64( PlaneGeneral3D_F64... planes ) {
+		setPlanes(planes);
+	}
+
+	public FrustumCulling3D_F64() {
+	}
+
+	/**
+	 * Specifies the planes. The inside of the volume is on the side of each plane that its normal points towards.
+	 *
+	 * @param planes Planes. At most 127. Not modified.
+	 */
+	public void setPlanes( PlaneGeneral3D_F64... planes ) {
+		reset();
+		for (int i = 0; i < planes.length; i++) {
+			addPlane(planes[i]);
+		}
+	}
+
+	/**
+	 * Specifies the planes. The inside of the volume is on the side of each plane that its normal points towards.
+	 *
+	 * @param planes Planes. At most 127. Not modified.
+	 */
+	public void setPlanes( List<PlaneGeneral3D_F64> planes ) {
+		reset();
+		for (int i = 0; i < planes.size(); i++) {
+			addPlane(planes.get(i));
+		}
+	}
+
+	private void reset() {
+		planes.reset();
+		numPlanes = 0;
+		lastPlane = 0;
+	}
+
+	private void addPlane( PlaneGeneral3D_F64 plane ) {
+		if( numPlanes == Byte.MAX_VALUE )
+			throw new IllegalArgumentException("Too many planes");
+		double n = Math.sqrt(plane.A*plane.A + plane.B*plane.B + plane.C*plane.C);
+		if( n == 0 )
+			throw new IllegalArgumentException("Plane has a zero normal");
+		planes.add(plane.A/n);
+		planes.add(plane.B/n);
+		planes.add(plane.C/n);
+		planes.add(plane.D/n);
+
+		if( pvertex.length < (numPlanes+1)*3 ) {
+			int[] p = new int[(numPlanes+1)*3];
+			int[] m = new int[(numPlanes+1)*3];
+			System.arraycopy(pvertex, 0, p, 0, numPlanes*3);
+			System.arraycopy(nvertex, 0, m, 0, numPlanes*3);
+			pvertex = p;
+			nvertex = m;
+		}
+
+		// the p-vertex uses the upper extent when the normal is positive along an axis
+		int index = numPlanes*3;
+		pvertex[index  ] = plane.A >= 0 ? 3 : 0;
+		pvertex[index+1] = plane.B >= 0 ? 4 : 1;
+		pvertex[index+2] = plane.C >= 0 ? 5 : 2;
+		nvertex[index  ] = 3 - pvertex[index  ];
+		nvertex[index+1] = 5 - pvertex[index+1];
+		nvertex[index+2] = 7 - pvertex[index+2];
+
+		numPlanes++;
+	}
+
+	/**
+	 * Classifies the box
+	 *
+	 * @param box Box
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTING}, or {@link #INSIDE}
+	 */
+	public byte classify( Box3D_F64 box ) {
+		work[0] = box.p0.x; work[1] = box.p0.y; work[2] = box.p0.z;
+		work[3] = box.p1.x; work[4] = box.p1.y; work[5] = box.p1.z;
+
+		int result = classifyBox(work, 0, lastPlane);
+		if( result < 0 ) {
+			lastPlane = (byte)(-result - 1);
+			return OUTSIDE;
+		}
+		return (byte)result;
+	}
+
+	/**
+	 * Classifies the sphere
+	 *
+	 * @param sphere Sphere
+	 * @return {@link #OUTSIDE}, {@link #INTERSECTING}, or {@link #INSIDE}
+	 */
+	public byte classify( Sphere3D_F64 sphere ) {
+		int result = classifySphere(sphere.center.x, sphere.center.y, sphere.center.z, sphere.radius, lastPlane);
+		if( result < 0 ) {
+			lastPlane = (byte)(-result - 1);
+			return OUTSIDE;
+		}
+		return (byte)result;
+	}
+
+	/**
+	 * Returns true if the point is inside or on the boundary of every plane
+	 */
+	public boolean contains( Point3D_F64 point ) {
+		return contains(point.x, point.y, point.z);
+	}
+
+	/**
+	 * Returns true if the point is inside or on the boundary of every plane
+	 */
+	public boolean contains( double x , double y , double z ) {
+		final double[] P = planes.data;
+		for (int i = 0; i < numPlanes; i++) {
+			int idx = i*4;
+			if( P[idx]*x + P[idx+1]*y + P[idx+2]*z - P[idx+3] < 0 )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Classifies boxes packed into an array
+	 *
+	 * @param boxes (Input) Packed boxes, x0,y0,z0,x1,y1,z1,...
+	 * @param count (Input) Number of boxes
+	 * @param results (Output) Classification of each box
+	 */
+	public void classifyBoxes( double[] boxes , int count , GrowQueue_I8 results ) {
+		results.resize(count);
+		for (int i = 0; i < count; i++) {
+			int result = classifyBox(boxes, i*6, 0);
+			results.data[i] = result < 0 ? OUTSIDE : (byte)result;
+		}
+	}
+
+	/**
+	 * Classifies boxes packed into an array while taking advantage of temporal coherence
+	 *
+	 * @param boxes (Input) Packed boxes, x0,y0,z0,x1,y1,z1,...
+	 * @param count (Input) Number of boxes
+	 * @param results (Output) Classification of each box
+	 * @param cache (Input/Output) The plane which last rejected each box. Reset if its size doesn't match.
+	 */
+	public void classifyBoxes( double[] boxes , int count , GrowQueue_I8 results , GrowQueue_I8 cache ) {
+		prepareCache(count, cache);
+		results.resize(count);
+		for (int i = 0; i < count; i++) {
+			int result = classifyBox(boxes, i*6, cache.data[i]);
+			if( result < 0 ) {
+				cache.data[i] = (byte)(-result - 1);
+				results.data[i] = OUTSIDE;
+			} else {
+				results.data[i] = (byte)result;
+			}
+		}
+	}
+
+	/**
+	 * Classifies spheres packed into an array
+	 *
+	 * @param spheres (Input) Packed spheres, x,y,z,radius,...
+	 * @param count (Input) Number of spheres
+	 * @param results (Output) Classification of each sphere
+	 */
+	public void classifySpheres( double[] spheres , int count , GrowQueue_I8 results ) {
+		results.resize(count);
+		for (int i = 0; i < count; i++) {
+			int idx = i*4;
+			int result = classifySphere(spheres[idx], spheres[idx+1], spheres[idx+2], spheres[idx+3], 0);
+			results.data[i] = result < 0 ? OUTSIDE : (byte)result;
+		}
+	}
+
+	/**
+	 * Classifies spheres packed into an array while taking advantage of temporal coherence
+	 *
+	 * @param spheres (Input) Packed spheres, x,y,z,radius,...
+	 * @param count (Input) Number of spheres
+	 * @param results (Output) Classification of each sphere
+	 * @param cache (Input/Output) The plane which last rejected each sphere. Reset if its size doesn't match.
+	 */
+	public void classifySpheres( double[] spheres , int count , GrowQueue_I8 results , GrowQueue_I8 cache ) {
+		prepareCache(count, cache);
+		results.resize(count);
+		for (int i = 0; i < count; i++) {
+			int idx = i*4;
+			int result = classifySphere(spheres[idx], spheres[idx+1], spheres[idx+2], spheres[idx+3],
+					cache.data[i]);
+			if( result < 0 ) {
+				cache.data[i] = (byte)(-result - 1);
+				results.data[i] = OUTSIDE;
+			} else {
+				results.data[i] = (byte)result;
+			}
+		}
+	}
+
+	/**
+	 * Checks to see which points packed into an array are inside. Each plane is applied to all the points
+	 * before moving onto the next plane.
+	 *
+	 * @param xyz (Input) Packed points, x,y,z,...
+	 * @param count (Input) Number of points
+	 * @param inside (Output) true if the point is inside or on the boundary
+	 */
+	public void containsPoints( double[] xyz , int count , GrowQueue_B inside ) {
+		inside.resize(count);
+		inside.fill(true);
+		final boolean[] output = inside.data;
+		final double[] P = planes.data;
+		for (int plane = 0; plane < numPlanes; plane++) {
+			double a = P[plane*4], b = P[plane*4+1], c = P[plane*4+2], d = P[plane*4+3];
+			for (int i = 0; i < count; i++) {
+				int idx = i*3;
+				output[i] &= a*xyz[idx] + b*xyz[idx+1] + c*xyz[idx+2] - d >= 0;
+			}
+		}
+	}
+
+	/**
+	 * Classifies a single box, testing the first plane before the others
+	 *
+	 * @return {@link #INTERSECTING}, {@link #INSIDE}, or -(1+plane) if outside of 'plane'
+	 */
+	private int classifyBox( double[] boxes , int offset , int first ) {
+		if( first >= numPlanes )
+			first = 0;
+		final double[] P = planes.data;
+		int result = INSIDE;
+		for (int k = 0; k < numPlanes; k++) {
+			// start at the first plane then go through the others in order
+			int i = k == 0 ? first : (k <= first ? k-1 : k);
+			int idx = i*4;
+			double a = P[idx], b = P[idx+1], c = P[idx+2], d = P[idx+3];
+
+			int t = i*3;
+			double p = a*boxes[offset+pvertex[t]] + b*boxes[offset+pvertex[t+1]] + c*boxes[offset+pvertex[t+2]];
+			if( p < d )
+				return -(1 + i);
+			double n = a*boxes[offset+nvertex[t]] + b*boxes[offset+nvertex[t+1]] + c*boxes[offset+nvertex[t+2]];
+			if( n < d )
+				result = INTERSECTING;
+		}
+		return result;
+	}
+
+	/**
+	 * Classifies a single sphere, testing the first plane before the others
+	 *
+	 * @return {@link #INTERSECTING}, {@link #INSIDE}, or -(1+plane) if outside of 'plane'
+	 */
+	private int classifySphere( double x , double y , double z , double r , int first ) {
+		if( first >= numPlanes )
+			first = 0;
+		final double[] P = planes.data;
+		int result = INSIDE;
+		for (int k = 0; k < numPlanes; k++) {
+			int i = k == 0 ? first : (k <= first ? k-1 : k);
+			int idx = i*4;
+			double distance = P[idx]*x + P[idx+1]*y + P[idx+2]*z - P[idx+3];
+			if( distance < -r )
+				return -(1 + i);
+			if( distance < r )
+				result = INTERSECTING;
+		}
+		return result;
+	}
+
+	private void prepareCache( int count , GrowQueue_I8 cache ) {
+		if( cache.size != count ) {
+			cache.resize(count);
+			cache.fill((byte)0);
+		}
+	}
+
+	/**
+	 * Returns the number of planes
+	 */
+	public int getNumberOfPlanes() {
+		return numPlanes;
+	}
+
+	/**
+	 * Copies a plane, in Hessian normal form, into the provided storage
+	 */
+	public void getPlane( int index , PlaneGeneral3D_F64 plane ) {
+		int idx = index*4;
+		plane.set(planes.data[idx], planes.data[idx+1], planes.data[idx+2], planes.data[idx+3]);
+	}
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.packed;
+
+/**
+ * Selects which implementation of the packed array kernels is used. This is the Java 8 version of the class and
+ * it always picks the plain Java kernels. The multi-release jar contains a Java 17 version under
+ * META-INF/versions/17 which picks kernels written with the incubator Vector API when they are available.
+ *
+ * @author Peter Abeles
+ */
+public class PackedBackend {
+	/**
+	 * System property which, when set to "false", forces the plain Java kernels to be used
+	 */
+	public static final String PROPERTY_VECTOR = "georegression.vector";
+
+	/**
+	 * Returns the kernels that should be used for double arrays
+	 *
+	 * @param scalar Plain Java kernels. Returned if nothing better is available.
+	 */
+	public static PackedKernels_F64 select( PackedKernels_F64 scalar ) {
+		return scalar;
+	}
+
+	/**
+	 * Returns the kernels that should be used for float arrays
+	 *
+	 * @param scalar Plain Java kernels. Returned if nothing better is available.
+	 */
+	public static PackedKernels_F32 select( PackedKernels_F32 scalar ) {
+		return scalar;
+	}
+}
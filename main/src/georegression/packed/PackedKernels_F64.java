@@ -0,0 +1,323 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.packed;
+
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+
+/**
+ * <p>
+ * Kernels which process points packed into primitive arrays, as (x,y) pairs or (x,y,z) triples. The packed array
+ * functions in classes such as SePointOps_F64 and Distance2D_F64 reduce the shape or transform to a few coefficients
+ * and pass them to {@link #INSTANCE}.
+ * </p>
+ *
+ * <p>
+ * This class is the plain Java implementation and what's used on Java 8. The jar is a multi-release jar. On Java 17
+ * and newer, if the jdk.incubator.vector module has been added, e.g. "--add-modules jdk.incubator.vector", then
+ * {@link PackedBackend} returns an implementation written with the Vector API instead.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PackedKernels_F64 {
+	/**
+	 * Kernels used by the packed array functions
+	 */
+	public static final PackedKernels_F64 INSTANCE = PackedBackend.select(new PackedKernels_F64());
+
+	/**
+	 * Short description of the implementation
+	 */
+	public String getName() {
+		return "scalar";
+	}
+
+	/**
+	 * Applies an affine transform to each point. x' = a11*x + a12*y + tx, y' = a21*x + a22*y + ty
+	 *
+	 * @param src Input points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param dst (Output) Transformed points. Can be the same array as src.
+	 * @param length Number of points
+	 */
+	public void transform2( double a11 , double a12 , double tx ,
+							double a21 , double a22 , double ty ,
+							double[] src , double[] dst , int length ) {
+		final int end = length*2;
+		for( int i = 0; i < end; i += 2 ) {
+			double x = src[i];
+			double y = src[i+1];
+
+			dst[i  ] = tx + a11 * x + a12 * y;
+			dst[i+1] = ty + a21 * x + a22 * y;
+		}
+	}
+
+	/**
+	 * Applies a rigid body or affine transform to each 3D point. X' = R*X + T
+	 *
+	 * @param R 3x3 matrix in a row-major array
+	 * @param src Input points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param dst (Output) Transformed points. Can be the same array as src.
+	 * @param length Number of points
+	 */
+	public void transform3( double[] R , double tx , double ty , double tz ,
+							double[] src , double[] dst , int length ) {
+		final double r11 = R[0], r12 = R[1], r13 = R[2];
+		final double r21 = R[3], r22 = R[4], r23 = R[5];
+		final double r31 = R[6], r32 = R[7], r33 = R[8];
+
+		final int end = length*3;
+		for( int i = 0; i < end; i += 3 ) {
+			double x = src[i];
+			double y = src[i+1];
+			double z = src[i+2];
+
+			dst[i  ] = r11*x + r12*y + r13*z + tx;
+			dst[i+1] = r21*x + r22*y + r23*z + ty;
+			dst[i+2] = r31*x + r32*y + r33*z + tz;
+		}
+	}
+
+	/**
+	 * Applies a homography to each point and converts it back into 2D coordinates.
+	 *
+	 * @param src Input points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param dst (Output) Transformed points. Can be the same array as src.
+	 * @param length Number of points
+	 */
+	public void homography( double a11 , double a12 , double a13 ,
+							double a21 , double a22 , double a23 ,
+							double a31 , double a32 , double a33 ,
+							double[] src , double[] dst , int length ) {
+		final int end = length*2;
+		for( int i = 0; i < end; i += 2 ) {
+			double x = src[i];
+			double y = src[i+1];
+
+			double z = a31 * x + a32 * y + a33;
+
+			dst[i  ] = (a11 * x + a12 * y + a13)/z;
+			dst[i+1] = (a21 * x + a22 * y + a23)/z;
+		}
+	}
+
+	/**
+	 * Distance of each point from a line in general form, |A*x + B*y + C|. (A,B) must have a norm of one.
+	 *
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void lineDistance2( double A , double B , double C ,
+							   double[] xy , double[] distances , int length ) {
+		for( int i = 0, j = 0; i < length; i++, j += 2 ) {
+			distances[i] = Math.abs(A*xy[j] + B*xy[j+1] + C);
+		}
+	}
+
+	/**
+	 * Signed distance of each point from a plane in general form, A*x + B*y + C*z + D. (A,B,C) must have a
+	 * norm of one.
+	 *
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Signed distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void planeDistance( double A , double B , double C , double D ,
+							   double[] xyz , double[] distances , int length ) {
+		for( int i = 0, j = 0; i < length; i++, j += 3 ) {
+			distances[i] = A*xyz[j] + B*xyz[j+1] + C*xyz[j+2] + D;
+		}
+	}
+
+	/**
+	 * Distance of each point from a line in parametric form. The slope (sx,sy) must have a norm of one.
+	 *
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void lineParametricDistance2( double x0 , double y0 , double sx , double sy ,
+										 double[] xy , double[] distances , int length ) {
+		for( int i = 0, j = 0; i < length; i++, j += 2 ) {
+			// magnitude of the cross product between the slope and the point relative to the line's origin
+			distances[i] = Math.abs(sx*(xy[j+1] - y0) - sy*(xy[j] - x0));
+		}
+	}
+
+	/**
+	 * Distance of each point from the line segment from (ax,ay) to (bx,by)
+	 *
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void segmentDistance2( double ax , double ay , double bx , double by ,
+								  double[] xy , double[] distances , int length ) {
+		final double a = bx - ax;
+		final double b = by - ay;
+		final double normSq = a*a + b*b;
+
+		for( int i = 0, j = 0; i < length; i++, j += 2 ) {
+			double dx = xy[j] - ax;
+			double dy = xy[j+1] - ay;
+
+			// location of the closest point on the line, clamped to the end points
+			double t = (a*dx + b*dy)/normSq;
+			if( t < 0 )
+				t = 0;
+			else if( t > 1 )
+				t = 1;
+
+			dx -= t*a;
+			dy -= t*b;
+
+			distances[i] = Math.sqrt(dx*dx + dy*dy);
+		}
+	}
+
+	/**
+	 * Distance of each point from a 3D line in parametric form. The slope (sx,sy,sz) must have a norm of one.
+	 *
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void lineParametricDistance3( double x0 , double y0 , double z0 ,
+										 double sx , double sy , double sz ,
+										 double[] xyz , double[] distances , int length ) {
+		for( int i = 0, j = 0; i < length; i++, j += 3 ) {
+			double x = xyz[j] - x0;
+			double y = xyz[j+1] - y0;
+			double z = xyz[j+2] - z0;
+
+			// magnitude of the cross product with the unit slope
+			double cx = sy*z - sz*y;
+			double cy = sz*x - sx*z;
+			double cz = sx*y - sy*x;
+
+			distances[i] = Math.sqrt(cx*cx + cy*cy + cz*cz);
+		}
+	}
+
+	/**
+	 * Signed distance of each point from the surface of a sphere. Positive outside and negative inside.
+	 *
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param distances (Output) Signed distance of each point.  Must be at least length.
+	 * @param length Number of points
+	 */
+	public void sphereDistance( double cx , double cy , double cz , double r ,
+								double[] xyz , double[] distances , int length ) {
+		for( int i = 0, j = 0; i < length; i++, j += 3 ) {
+			double x = xyz[j] - cx;
+			double y = xyz[j+1] - cy;
+			double z = xyz[j+2] - cz;
+
+			distances[i] = Math.sqrt(x*x + y*y + z*z) - r;
+		}
+	}
+
+	/**
+	 * Checks to see which points are inside the rectangle, x0 &le; x &lt; x1 and y0 &le; y &lt; y1.
+	 *
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param inside (Output) true if the point is inside the rectangle.  Must be at least length.
+	 * @param length Number of points
+	 * @return Number of points inside the rectangle
+	 */
+	public int rectangleContains( double x0 , double y0 , double x1 , double y1 ,
+								  double[] xy , boolean[] inside , int length ) {
+		int total = 0;
+		for( int i = 0, j = 0; i < length; i++, j += 2 ) {
+			double x = xy[j];
+			double y = xy[j+1];
+			boolean in = x0 <= x && x1 > x && y0 <= y && y1 > y;
+			inside[i] = in;
+			if( in )
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * Finds the rectangle which contains all the points. If there are no points then p0 will be
+	 * (MAX_VALUE,MAX_VALUE) and p1 (-MAX_VALUE,-MAX_VALUE).
+	 *
+	 * @param xy Points packed as x0,y0,x1,y1,...  Not modified.
+	 * @param length Number of points
+	 * @param bounding (Output) Bounding rectangle
+	 */
+	public void bounding2( double[] xy , int length , Rectangle2D_F64 bounding ) {
+		double minX=Double.MAX_VALUE,maxX=-Double.MAX_VALUE;
+		double minY=Double.MAX_VALUE,maxY=-Double.MAX_VALUE;
+
+		final int end = length*2;
+		for( int i = 0; i < end; i += 2 ) {
+			double x = xy[i];
+			double y = xy[i+1];
+			if( x < minX )
+				minX = x;
+			if( x > maxX )
+				maxX = x;
+			if( y < minY )
+				minY = y;
+			if( y > maxY )
+				maxY = y;
+		}
+
+		bounding.set(minX,minY,maxX,maxY);
+	}
+
+	/**
+	 * Finds the box which contains all the points. If there are no points then p0 will be
+	 * (MAX_VALUE,MAX_VALUE,MAX_VALUE) and p1 (-MAX_VALUE,-MAX_VALUE,-MAX_VALUE).
+	 *
+	 * @param xyz Points packed as x0,y0,z0,x1,y1,z1,...  Not modified.
+	 * @param length Number of points
+	 * @param bounding (Output) Bounding box
+	 */
+	public void bounding3( double[] xyz , int length , Box3D_F64 bounding ) {
+		double minX=Double.MAX_VALUE,maxX=-Double.MAX_VALUE;
+		double minY=Double.MAX_VALUE,maxY=-Double.MAX_VALUE;
+		double minZ=Double.MAX_VALUE,maxZ=-Double.MAX_VALUE;
+
+		final int end = length*3;
+		for( int i = 0; i < end; i += 3 ) {
+			double x = xyz[i];
+			double y = xyz[i+1];
+			double z = xyz[i+2];
+			if( x < minX )
+				minX = x;
+			if( x > maxX )
+				maxX = x;
+			if( y < minY )
+				minY = y;
+			if( y > maxY )
+				maxY = y;
+			if( z < minZ )
+				minZ = z;
+			if( z > maxZ )
+				maxZ = z;
+		}
+
+		bounding.set(minX,minY,minZ,maxX,maxY,maxZ);
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.se.Se3_F64;
+
+import java.io.Serializable;
+
+/**
+ * <p>
+ * An oriented box in 3D. The box's own coordinate system is centered on the box with its axes along the box's sides.
+ * In the box's coordinate system a point is inside if |x| &le; halfX, |y| &le; halfY, |z| &le; halfZ.
+ * </p>
+ *
+ * <p>
+ * The translation in {@link #boxToWorld} is the center of the box and the columns of the rotation matrix are
+ * the box's axes in the world frame.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoxOriented3D_F64 implements Serializable {
+	/**
+	 * Transform from box coordinates into world coordinates
+	 */
+	public Se3_F64 boxToWorld = new Se3_F64();
+
+	/**
+	 * Half the length of the box along each of its axes
+	 */
+	public double halfX, halfY, halfZ;
+
+	public BoxOriented3D_F64( Se3_F64 boxToWorld , double halfX , double halfY , double halfZ ) {
+		set(boxToWorld, halfX, halfY, halfZ);
+	}
+
+	public BoxOriented3D_F64( BoxOriented3D_F64 orig ) {
+		set(orig);
+	}
+
+	public BoxOriented3D_F64() {
+	}
+
+	public void set( BoxOriented3D_F64 orig ) {
+		set(orig.boxToWorld, orig.halfX, orig.halfY, orig.halfZ);
+	}
+
+	public void set( Se3_F64 boxToWorld , double halfX , double halfY , double halfZ ) {
+		this.boxToWorld.set(boxToWorld);
+		this.halfX = halfX;
+		this.halfY = halfY;
+		this.halfZ = halfZ;
+	}
+
+	/**
+	 * Sets the box to be the same as an axis aligned box
+	 */
+	public void set( Box3D_F64 box ) {
+		boxToWorld.reset();
+		boxToWorld.T.set((box.p0.x + box.p1.x)/2, (box.p0.y + box.p1.y)/2, (box.p0.z + box.p1.z)/2);
+		halfX = (box.p1.x - box.p0.x)/2;
+		halfY = (box.p1.y - box.p0.y)/2;
+		halfZ = (box.p1.z - box.p0.z)/2;
+	}
+
+	/**
+	 * The box's volume. volume = 8*halfX*halfY*halfZ
+	 *
+	 * @return volume
+	 */
+	public double volume() {
+		return 8*halfX*halfY*halfZ;
+	}
+
+	/**
+	 * Returns the center of the box
+	 *
+	 * @param storage Optional storage for the center. If null a new instance will be created and returned.
+	 * @return The box's center
+	 */
+	public Point3D_F64 center( Point3D_F64 storage ) {
+		if( storage == null )
+			storage = new Point3D_F64();
+		storage.set(boxToWorld.T.x, boxToWorld.T.y, boxToWorld.T.z);
+		return storage;
+	}
+
+	/**
+	 * Computes the location of a corner in world coordinates. Bit 0 of the index selects the sign along the
+	 * x-axis, bit 1 along y, and bit 2 along z.
+	 *
+	 * @param index Index of the corner, 0 to 7
+	 * @param storage Optional storage for the corner. If null a new instance will be created and returned.
+	 * @return The corner
+	 */
+	public Point3D_F64 corner( int index , Point3D_F64 storage ) {
+		if( storage == null )
+			storage = new Point3D_F64();
+
+		double x = (index & 1) == 0 ? -halfX : halfX;
+		double y = (index & 2) == 0 ? -halfY : halfY;
+		double z = (index & 4) == 0 ? -halfZ : halfZ;
+
+		double[] R = boxToWorld.R.data;
+		storage.x = R[0]*x + R[1]*y + R[2]*z + boxToWorld.T.x;
+		storage.y = R[3]*x + R[4]*y + R[5]*z + boxToWorld.T.y;
+		storage.z = R[6]*x + R[7]*y + R[8]*z + boxToWorld.T.z;
+		return storage;
+	}
+
+	public Se3_F64 getBoxToWorld() {
+		return boxToWorld;
+	}
+
+	public void setBoxToWorld( Se3_F64 boxToWorld ) {
+		this.boxToWorld.set(boxToWorld);
+	}
+
+	public double getHalfX() {
+		return halfX;
+	}
+
+	public void setHalfX( double halfX ) {
+		this.halfX = halfX;
+	}
+
+	public double getHalfY() {
+		return halfY;
+	}
+
+	public void setHalfY( double halfY ) {
+		this.halfY = halfY;
+	}
+
+	public double getHalfZ() {
+		return halfZ;
+	}
+
+	public void setHalfZ( double halfZ ) {
+		this.halfZ = halfZ;
+	}
+
+	public String toString() {
+		return getClass().getSimpleName()+"{ center( "+boxToWorld.T.x+" "+boxToWorld.T.y+" "+boxToWorld.T.z+
+				" ) half( "+halfX+" "+halfY+" "+halfZ+" ) }";
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+/**
+ * <p>
+ * A sequence of integer 2D points, e.g. the contour of a blob in an image, where the coordinates are packed into
+ * a single primitive array instead of being stored in individual point objects. Interleaved as x0,y0,x1,y1,...
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public interface PackedContour2D {
+
+	/**
+	 * Number of points in the contour
+	 */
+	int size();
+
+	/**
+	 * x-coordinate of a point
+	 */
+	int getX( int index );
+
+	/**
+	 * y-coordinate of a point
+	 */
+	int getY( int index );
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.struct.point.Point2D_I16;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A {@link PackedContour2D} where the coordinates are stored in an array of shorts. Coordinates must be inside the range of a short.
+ *
+ * @author Peter Abeles
+ */
+public class PackedContour2D_I16 implements PackedContour2D, Serializable {
+	/**
+	 * Packed coordinates, x0,y0,x1,y1,...
+	 */
+	public short[] data;
+	/**
+	 * Number of points
+	 */
+	public int size;
+
+	public PackedContour2D_I16( int capacity ) {
+		data = new short[capacity*2];
+	}
+
+	public PackedContour2D_I16() {
+		this(10);
+	}
+
+	public PackedContour2D_I16( int... points ) {
+		if( points.length % 2 == 1 )
+			throw new IllegalArgumentException("Expected an even number");
+		data = new short[points.length];
+		for (int i = 0; i < points.length; i += 2) {
+			add(points[i], points[i+1]);
+		}
+	}
+
+	/**
+	 * Removes all the points
+	 */
+	public void reset() {
+		size = 0;
+	}
+
+	/**
+	 * Makes sure the array can store at least this many points without growing. Existing points are kept.
+	 */
+	public void reserve( int numPoints ) {
+		if( data.length < numPoints*2 ) {
+			data = Arrays.copyOf(data, numPoints*2);
+		}
+	}
+
+	/**
+	 * Adds a point to the end of the contour
+	 */
+	public void add( int x , int y ) {
+		if( data.length < (size+1)*2 ) {
+			reserve(Math.max(10, size*2));
+		}
+		data[size*2] = (short)x;
+		data[size*2+1] = (short)y;
+		size++;
+	}
+
+	public void set( int index , int x , int y ) {
+		data[index*2] = (short)x;
+		data[index*2+1] = (short)y;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public int getX( int index ) {
+		return data[index*2];
+	}
+
+	@Override
+	public int getY( int index ) {
+		return data[index*2+1];
+	}
+
+	/**
+	 * Copies a point into the provided storage
+	 */
+	public void get( int index , Point2D_I16 p ) {
+		p.set(data[index*2], data[index*2+1]);
+	}
+
+	/**
+	 * Copies the points in the list into this contour
+	 */
+	public void set( List<Point2D_I16> points ) {
+		size = 0;
+		reserve(points.size());
+		for (int i = 0; i < points.size(); i++) {
+			Point2D_I16 p = points.get(i);
+			add(p.x, p.y);
+		}
+	}
+
+	/**
+	 * Copies another contour into this contour
+	 */
+	public void set( PackedContour2D src ) {
+		size = 0;
+		reserve(src.size());
+		for (int i = 0; i < src.size(); i++) {
+			add(src.getX(i), src.getY(i));
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import org.ddogleg.struct.GrowQueue_I32;
+
+/**
+ * <p>
+ * Mesh composed of triangles which share vertexes. Vertexes are referenced by their index in a list of points
+ * which is stored elsewhere. Triangle 't' is stored in {@link #triangles} from 3*t to 3*t+2 with its vertexes in
+ * counter-clockwise order.
+ * </p>
+ *
+ * <p>
+ * Adjacency is encoded using half edges. Half edge 'e' belongs to triangle e/3 and goes from vertex triangles[e]
+ * to vertex triangles[{@link #next(int) next(e)}]. The half edge which goes in the opposite direction in the
+ * adjacent triangle is halfedges[e], or -1 if the edge lies on the boundary of the mesh.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TriangleMesh2D {
+	/**
+	 * Indexes of vertexes in each triangle. Three elements for each triangle.
+	 */
+	public GrowQueue_I32 triangles = new GrowQueue_I32();
+
+	/**
+	 * The opposite half edge of each half edge or -1 if it lies on the mesh's boundary
+	 */
+	public GrowQueue_I32 halfedges = new GrowQueue_I32();
+
+	/**
+	 * Vertexes along the boundary of the mesh in counter-clockwise order. For a Delaunay triangulation this is the
+	 * convex hull.
+	 */
+	public GrowQueue_I32 hull = new GrowQueue_I32();
+
+	/**
+	 * Number of triangles in the mesh
+	 */
+	public int size() {
+		return triangles.size/3;
+	}
+
+	/**
+	 * Returns the index of a vertex in a triangle
+	 *
+	 * @param triangle Index of the triangle
+	 * @param corner Which corner in the triangle. 0 to 2
+	 * @return index of the vertex
+	 */
+	public int getVertex( int triangle , int corner ) {
+		return triangles.data[triangle*3 + corner];
+	}
+
+	/**
+	 * Returns the triangle on the other side of an edge. Side 'i' goes from corner 'i' to corner (i+1)%3.
+	 *
+	 * @param triangle Index of the triangle
+	 * @param side Which side of the triangle. 0 to 2
+	 * @return Index of the adjacent triangle or -1 if there is none
+	 */
+	public int getAdjacent( int triangle , int side ) {
+		int e = halfedges.data[triangle*3 + side];
+		return e < 0 ? -1 : e/3;
+	}
+
+	/**
+	 * The next half edge inside the same triangle
+	 */
+	public static int next( int edge ) {
+		return edge % 3 == 2 ? edge - 2 : edge + 1;
+	}
+
+	/**
+	 * The previous half edge inside the same triangle
+	 */
+	public static int prev( int edge ) {
+		return edge % 3 == 0 ? edge + 2 : edge - 1;
+	}
+
+	public void reset() {
+		triangles.reset();
+		halfedges.reset();
+		hull.reset();
+	}
+
+	public void setTo( TriangleMesh2D src ) {
+		triangles.setTo(src.triangles);
+		halfedges.setTo(src.halfedges);
+		hull.setTo(src.hull);
+	}
+
+	public TriangleMesh2D copy() {
+		TriangleMesh2D ret = new TriangleMesh2D();
+		ret.setTo(this);
+		return ret;
+	}
+}
@@ -36,6 +36,9 @@ public class InvertibleTransformSequence<T extends InvertibleTransform> {
 	// the path
 	private List<Node<T>> path = new ArrayList<Node<T>>();
 
+	// work space. Declared the first time a transform is computed
+	private T tmp0, tmp1, inv;
+
 	/**
 	 * Adds the next transform in the sequence.
 	 *
@@ -59,9 +62,13 @@ public class InvertibleTransformSequence<T extends InvertibleTransform> {
 		if( path.size() == 0 )
 			return;
 
-		T tmp0 = (T)result.createInstance();
-		T tmp1 = (T)result.createInstance();
-		T inv = (T)result.createInstance();
+		if( inv == null ) {
+			tmp0 = (T)result.createInstance();
+			tmp1 = (T)result.createInstance();
+			inv = (T)result.createInstance();
+		}
+		T tmp0 = this.tmp0;
+		T tmp1 = this.tmp1;
 
 		Node<T> n = path.get( 0 );
 		T nodeTran = (T)n.tran;
@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform;
+
+import georegression.struct.InvertibleTransform;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * A tree of coordinate frames, where each frame is connected to its parent by a transform. The transform
+ * between any two frames in the same tree can be looked up. The path between two frames goes up from the source
+ * to their lowest common ancestor and then down to the destination, so transforms are only applied in the
+ * reverse direction after the common ancestor.
+ * </p>
+ *
+ * <p>
+ * Inverse transforms and the composed transform for each pair of frames which has been looked up are cached.
+ * When the transform of a frame is changed only the cached results which depend on it are marked as dirty and
+ * they are recomputed the next time they are requested. Repeated lookups are O(1) and no memory is declared
+ * once a pair has been looked up. Looking up frames in different trees fails in O(1) without declaring memory.
+ * </p>
+ *
+ * <p>
+ * Naming convention: The transform of a frame goes from the frame to its parent, e.g. a point in the frame's
+ * coordinate system is converted into the parent's. {@link #lookup} returns the transform from the source frame
+ * to the destination frame.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TransformGraph<T extends InvertibleTransform<T>> {
+
+	// look up table from frame name to frame
+	private Map<String, Frame<T>> nameToFrame = new HashMap<>();
+	private List<Frame<T>> frames = new ArrayList<>();
+
+	// work space for composing transforms
+	private T tmp0, tmp1;
+
+	/**
+	 * Adds a new frame to the graph
+	 *
+	 * @param name Unique name of the frame
+	 * @param parent Name of the parent frame. If null then the frame is the root of a new tree.
+	 * @param frameToParent Transform from the new frame to its parent. If the frame is a root then this is
+	 *                      ignored and can be null. Copied.
+	 * @return The new frame
+	 */
+	public Frame<T> addFrame( String name , String parent , T frameToParent ) {
+		if( nameToFrame.containsKey(name) )
+			throw new IllegalArgumentException("A frame with the same name already exists. "+name);
+
+		Frame<T> frameParent = null;
+		if( parent != null ) {
+			frameParent = nameToFrame.get(parent);
+			if( frameParent == null )
+				throw new IllegalArgumentException("Unknown parent frame. "+parent);
+		}
+
+		Frame<T> frame = new Frame<>(name, frames.size(), frameParent);
+		if( frameParent != null ) {
+			frame.depth = frameParent.depth + 1;
+			frame.root = frameParent.root;
+			frame.toParent = frameToParent.createInstance();
+			frame.toParent.set(frameToParent);
+			frame.fromParent = frameToParent.createInstance();
+			if( tmp0 == null ) {
+				tmp0 = frameToParent.createInstance();
+				tmp1 = frameToParent.createInstance();
+			}
+		}
+
+		nameToFrame.put(name, frame);
+		frames.add(frame);
+		return frame;
+	}
+
+	/**
+	 * Changes the transform from a frame to its parent. All cached transforms which depend on it are marked
+	 * as dirty.
+	 *
+	 * @param name Name of the frame
+	 * @param frameToParent New transform from the frame to its parent. Copied.
+	 */
+	public void update( String name , T frameToParent ) {
+		update(getFrame(name), frameToParent);
+	}
+
+	/**
+	 * Changes the transform from a frame to its parent. All cached transforms which depend on it are marked
+	 * as dirty.
+	 *
+	 * @param frame The frame
+	 * @param frameToParent New transform from the frame to its parent. Copied.
+	 */
+	public void update( Frame<T> frame , T frameToParent ) {
+		if( frame.parent == null )
+			throw new IllegalArgumentException("A root frame has no transform");
+		frame.toParent.set(frameToParent);
+		frame.inverseDirty = true;
+		for (int i = 0; i < frame.dependents.size(); i++) {
+			frame.dependents.get(i).dirty = true;
+		}
+	}
+
+	/**
+	 * Returns the frame with the specified name
+	 *
+	 * @throws IllegalArgumentException If there is no frame with that name
+	 */
+	public Frame<T> getFrame( String name ) {
+		Frame<T> frame = nameToFrame.get(name);
+		if( frame == null )
+			throw new IllegalArgumentException("Unknown frame. "+name);
+		return frame;
+	}
+
+	public boolean hasFrame( String name ) {
+		return nameToFrame.containsKey(name);
+	}
+
+	/**
+	 * Computes the transform from the source frame to the destination frame.
+	 *
+	 * @param source Name of the source frame
+	 * @param destination Name of the destination frame
+	 * @param sourceToDestination (Output) Transform from source to destination
+	 * @return true if successful or false if the two frames are not in the same tree
+	 */
+	public boolean lookup( String source , String destination , T sourceToDestination ) {
+		return lookup(getFrame(source), getFrame(destination), sourceToDestination);
+	}
+
+	/**
+	 * Computes the transform from the source frame to the destination frame.
+	 *
+	 * @param source The source frame
+	 * @param destination The destination frame
+	 * @param sourceToDestination (Output) Transform from source to destination
+	 * @return true if successful or false if the two frames are not in the same tree
+	 */
+	public boolean lookup( Frame<T> source , Frame<T> destination , T sourceToDestination ) {
+		if( source == destination ) {
+			sourceToDestination.reset();
+			return true;
+		}
+
+		// frames in different trees are rejected without searching for a path or declaring memory
+		if( source.root != destination.root )
+			return false;
+
+		Path<T> path = source.paths.size() > destination.index ? source.paths.get(destination.index) : null;
+		if( path == null )
+			path = createPath(source, destination);
+
+		if( path.dirty ) {
+			composePath(path);
+			path.dirty = false;
+		}
+		sourceToDestination.set(path.transform);
+		return true;
+	}
+
+	/**
+	 * Finds the path between the two frames through their lowest common ancestor and registers it with every
+	 * frame it passes through. The two frames must be in the same tree.
+	 */
+	private Path<T> createPath( Frame<T> source , Frame<T> destination ) {
+		Path<T> path = new Path<>();
+
+		// move up from the deeper frame until both are at the same depth
+		Frame<T> a = source, b = destination;
+		while( a.depth > b.depth ) {
+			path.up.add(a);
+			a = a.parent;
+		}
+		while( b.depth > a.depth ) {
+			path.down.add(b);
+			b = b.parent;
+		}
+		// move up together until the common ancestor is found
+		while( a != b ) {
+			path.up.add(a);
+			path.down.add(b);
+			a = a.parent;
+			b = b.parent;
+		}
+
+		// the down path was found in reverse order
+		for (int i = 0, j = path.down.size()-1; i < j; i++, j--) {
+			Frame<T> swap = path.down.get(i);
+			path.down.set(i, path.down.get(j));
+			path.down.set(j, swap);
+		}
+
+		path.transform = (path.up.isEmpty() ? path.down.get(0).toParent : path.up.get(0).toParent).createInstance();
+		for (int i = 0; i < path.up.size(); i++) {
+			path.up.get(i).dependents.add(path);
+		}
+		for (int i = 0; i < path.down.size(); i++) {
+			path.down.get(i).dependents.add(path);
+		}
+
+		while( source.paths.size() <= destination.index )
+			source.paths.add(null);
+		source.paths.set(destination.index, path);
+
+		return path;
+	}
+
+	/**
+	 * Computes the transform along the path by going up to the common ancestor and then down
+	 */
+	private void composePath( Path<T> path ) {
+		T current = tmp0;
+		T next = tmp1;
+		current.reset();
+
+		for (int i = 0; i < path.up.size(); i++) {
+			current.concat(path.up.get(i).toParent, next);
+			T swap = current; current = next; next = swap;
+		}
+		for (int i = 0; i < path.down.size(); i++) {
+			current.concat(path.down.get(i).getFromParent(), next);
+			T swap = current; current = next; next = swap;
+		}
+		path.transform.set(current);
+	}
+
+	/**
+	 * Number of frames in the graph
+	 */
+	public int size() {
+		return frames.size();
+	}
+
+	/**
+	 * A coordinate frame and its transform to the parent frame
+	 */
+	public static class Frame<T extends InvertibleTransform<T>> {
+		// name of the frame
+		String name;
+		// index of the frame in the graph
+		int index;
+		// number of frames between it and the root
+		int depth;
+		// parent frame. null if the root
+		Frame<T> parent;
+		// root of the tree the frame is in
+		Frame<T> root;
+
+		// transform from this frame to its parent and the inverse
+		T toParent;
+		T fromParent;
+		boolean inverseDirty = true;
+
+		// cached paths which go through this frame
+		List<Path<T>> dependents = new ArrayList<>();
+		// cached paths which start at this frame, indexed by the destination frame's index
+		List<Path<T>> paths = new ArrayList<>();
+
+		Frame( String name , int index , Frame<T> parent ) {
+			this.name = name;
+			this.index = index;
+			this.parent = parent;
+			this.root = this;
+		}
+
+		/**
+		 * Returns the transform from the parent to this frame, inverting it only if it has changed
+		 */
+		T getFromParent() {
+			if( inverseDirty ) {
+				toParent.invert(fromParent);
+				inverseDirty = false;
+			}
+			return fromParent;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public Frame<T> getParent() {
+			return parent;
+		}
+
+		/**
+		 * Transform from this frame to its parent. Do not modify, use {@link TransformGraph#update} instead.
+		 */
+		public T getToParent() {
+			return toParent;
+		}
+
+		public int getDepth() {
+			return depth;
+		}
+
+		public Frame<T> getRoot() {
+			return root;
+		}
+	}
+
+	/**
+	 * Cached path from one frame to another
+	 */
+	static class Path<T extends InvertibleTransform<T>> {
+		// frames the path goes up through, starting at the source
+		List<Frame<T>> up = new ArrayList<>();
+		// frames the path goes down through, ending at the destination
+		List<Frame<T>> down = new ArrayList<>();
+		// transform along the path
+		T transform;
+		// if true the transform needs to be recomputed
+		boolean dirty = true;
+	}
+}
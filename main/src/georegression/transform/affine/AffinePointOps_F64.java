@@ -18,6 +18,7 @@
 
 package georegression.transform.affine;
 
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.affine.Affine2D_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Vector2D_F64;
@@ -102,4 +103,17 @@ public class AffinePointOps_F64 {
 
 		return result;
 	}
+
+	/**
+	 * Applies a 2D affine transform to points which are packed into an array as (x,y) pairs.
+	 * The input and output arrays can be the same.
+	 *
+	 * @param se	 The transform.
+	 * @param src Packed input points, x0,y0,x1,y1,...  Not modified unless it's also dst.
+	 * @param dst Packed output points. Must be at least 2*length.  Modified.
+	 * @param length The number of points which are to be processed.
+	 */
+	public static void transform( Affine2D_F64 se, double[] src , double[] dst , int length ) {
+		PackedKernels_F64.INSTANCE.transform2(se.a11,se.a12,se.tx,se.a21,se.a22,se.ty,src,dst,length);
+	}
 }
@@ -18,6 +18,7 @@
 
 package georegression.transform.homography;
 
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.homography.Homography2D_F64;
 import georegression.struct.point.Point2D_F64;
 
@@ -84,4 +85,18 @@ public class HomographyPointOps_F64 {
 
 		return result;
 	}
+
+	/**
+	 * Applies a 2D homography transform to points which are packed into an array as (x,y) pairs.
+	 * The input and output arrays can be the same.
+	 *
+	 * @param H Homography transform
+	 * @param src Packed input points, x0,y0,x1,y1,...  Not modified unless it's also dst.
+	 * @param dst Packed output points. Must be at least 2*length.  Modified.
+	 * @param length The number of points which are to be processed.
+	 */
+	public static void transform( Homography2D_F64 H, double[] src , double[] dst , int length ) {
+		PackedKernels_F64.INSTANCE.homography(H.a11,H.a12,H.a13,H.a21,H.a22,H.a23,H.a31,H.a32,H.a33,
+				src,dst,length);
+	}
 }
@@ -19,6 +19,7 @@
 package georegression.transform.se;
 
 import georegression.geometry.GeometryMath_F64;
+import georegression.packed.PackedKernels_F64;
 import georegression.struct.point.Point2D_F64;
 import georegression.struct.point.Point3D_F64;
 import georegression.struct.point.Vector3D_F64;
@@ -225,4 +226,33 @@ public class SePointOps_F64 {
 
 		return tranPt;
 	}
+
+	/**
+	 * Applies a 2D special euclidean transform to points which are packed into an array as (x,y) pairs.
+	 * The input and output arrays can be the same.
+	 *
+	 * @param se	 The transform.
+	 * @param src Packed input points, x0,y0,x1,y1,...  Not modified unless it's also dst.
+	 * @param dst Packed output points. Must be at least 2*length.  Modified.
+	 * @param length The number of points which are to be processed.
+	 */
+	public static void transform( Se2_F64 se, double[] src , double[] dst , int length ) {
+		final double c = se.getCosineYaw();
+		final double s = se.getSineYaw();
+
+		PackedKernels_F64.INSTANCE.transform2(c,-s,se.getX(),s,c,se.getY(),src,dst,length);
+	}
+
+	/**
+	 * Applies a 3D special euclidean transform to points which are packed into an array as (x,y,z) triples.
+	 * The input and output arrays can be the same.
+	 *
+	 * @param se	 The transform.
+	 * @param src Packed input points, x0,y0,z0,x1,y1,z1,...  Not modified unless it's also dst.
+	 * @param dst Packed output points. Must be at least 3*length.  Modified.
+	 * @param length The number of points which are to be processed.
+	 */
+	public static void transform( Se3_F64 se, double[] src , double[] dst , int length ) {
+		PackedKernels_F64.INSTANCE.transform3(se.getR().data,se.T.x,se.T.y,se.T.z,src,dst,length);
+	}
 }
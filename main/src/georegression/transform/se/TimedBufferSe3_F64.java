@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.struct.se.Se3_F64;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <p>
+ * Bounded ring buffer of time stamped {@link Se3_F64} transforms, e.g. the pose history of a sensor. The transform
+ * at any time between the oldest and newest entries is found with a binary search and
+ * {@link InterpolateLinearSe3_F64}. Entries are evicted when the buffer is full or when they are older than
+ * the time window. No memory is declared after construction.
+ * </p>
+ *
+ * <p>
+ * In concurrent mode a single thread can add entries while other threads look up transforms using their own
+ * {@link Reader}. Readers never take a lock. They copy the two entries which bracket the requested time and
+ * use the optimistic read of a {@link StampedLock} to check that the writer didn't modify the buffer while they
+ * were copying, trying again if it did and yielding the processor after a few failed attempts. The writer is never
+ * blocked by the readers. A reader only waits while the writer is adding entries faster than it can copy.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TimedBufferSe3_F64 {
+	// maximum difference in time between the newest and oldest entries
+	long window;
+
+	// ring buffer of entries
+	long[] times;
+	Se3_F64[] transforms;
+	// index of the oldest element and the number of elements
+	int start, size;
+
+	// if not null then the buffer can be read from multiple threads
+	StampedLock lock;
+
+	// used by look ups from the thread which owns the buffer
+	Reader reader;
+
+	/**
+	 * @param capacity Maximum number of entries in the buffer
+	 * @param window Entries which are older than this relative to the newest entry are evicted
+	 * @param concurrent If true then other threads can look up transforms while entries are added
+	 */
+	public TimedBufferSe3_F64( int capacity , long window , boolean concurrent ) {
+		if( capacity < 1 )
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		this.window = window;
+		times = new long[capacity];
+		transforms = new Se3_F64[capacity];
+		for (int i = 0; i < capacity; i++) {
+			transforms[i] = new Se3_F64();
+		}
+		if( concurrent )
+			lock = new StampedLock();
+		reader = new Reader();
+	}
+
+	/**
+	 * Creates a buffer which can only be accessed by one thread
+	 */
+	public TimedBufferSe3_F64( int capacity , long window ) {
+		this(capacity, window, false);
+	}
+
+	/**
+	 * Adds a new entry to the buffer. The oldest entry is evicted if the buffer is full and all entries outside
+	 * the time window are evicted. Only one thread can add entries.
+	 *
+	 * @param time Time stamp. Must be more recent than the newest entry.
+	 * @param transform The transform at that time. Copied.
+	 */
+	public void add( long time , Se3_F64 transform ) {
+		long stamp = lock == null ? 0 : lock.writeLock();
+		try {
+			if( size > 0 && time <= times[(start + size - 1) % times.length] )
+				throw new IllegalArgumentException("Time stamps must be increasing");
+
+			if( size == times.length ) {
+				start = (start + 1) % times.length;
+				size--;
+			}
+			int index = (start + size) % times.length;
+			times[index] = time;
+			transforms[index].set(transform);
+			size++;
+
+			while( size > 1 && time - times[start] > window ) {
+				start = (start + 1) % times.length;
+				size--;
+			}
+		} finally {
+			if( lock != null )
+				lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Looks up the transform at the specified time. Can only be called by the thread which adds entries.
+	 * Other threads should use their own {@link Reader}.
+	 *
+	 * @param time The time
+	 * @param output (Output) Transform at that time
+	 * @return true if successful or false if the time is outside the range of the buffer
+	 */
+	public boolean lookup( long time , Se3_F64 output ) {
+		return reader.lookup(time, output);
+	}
+
+	/**
+	 * Creates a reader which can look up transforms. Each thread should have its own reader.
+	 */
+	public Reader createReader() {
+		return new Reader();
+	}
+
+	/**
+	 * Removes all entries
+	 */
+	public void reset() {
+		long stamp = lock == null ? 0 : lock.writeLock();
+		start = size = 0;
+		if( lock != null )
+			lock.unlockWrite(stamp);
+	}
+
+	/**
+	 * Number of entries. Only valid from the thread which adds entries.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Time stamp of the oldest entry. Only valid from the thread which adds entries.
+	 */
+	public long getOldestTime() {
+		return times[start];
+	}
+
+	/**
+	 * Time stamp of the newest entry. Only valid from the thread which adds entries.
+	 */
+	public long getNewestTime() {
+		return times[(start + size - 1) % times.length];
+	}
+
+	public long getWindow() {
+		return window;
+	}
+
+	public int getCapacity() {
+		return times.length;
+	}
+
+	/**
+	 * Looks up transforms in the buffer. Each thread needs its own instance.
+	 */
+	public class Reader {
+		// copies of the two entries which bracket the requested time
+		Se3_F64 before = new Se3_F64();
+		Se3_F64 after = new Se3_F64();
+		long timeBefore, timeAfter;
+
+		InterpolateLinearSe3_F64 interpolate = new InterpolateLinearSe3_F64();
+
+		/**
+		 * Looks up the transform at the specified time.
+		 *
+		 * @param time The time
+		 * @param output (Output) Transform at that time
+		 * @return true if successful or false if the time is outside the range of the buffer
+		 */
+		public boolean lookup( long time , Se3_F64 output ) {
+			boolean found;
+			if( lock == null ) {
+				found = copyBracket(time);
+			} else {
+				// try again until the copy wasn't modified by the writer. The writer is never blocked, instead the
+				// reader yields after a few failed attempts so that the writer can finish
+				int attempts = 0;
+				while( true ) {
+					long stamp = lock.tryOptimisticRead();
+					if( stamp != 0 ) {
+						found = copyBracket(time);
+						if( lock.validate(stamp) )
+							break;
+					}
+					if( ++attempts >= 4 )
+						Thread.yield();
+				}
+			}
+
+			if( !found )
+				return false;
+
+			if( timeBefore == timeAfter ) {
+				output.set(before);
+			} else {
+				interpolate.setTransforms(before, after);
+				interpolate.interpolate((time - timeBefore)/(double)(timeAfter - timeBefore), output);
+			}
+			return true;
+		}
+
+		/**
+		 * Finds the two entries which bracket the time and copies them. When invoked during an optimistic read
+		 * the fields can be inconsistent, so all indexes are kept inside the arrays.
+		 */
+		private boolean copyBracket( long time ) {
+			int N = times.length;
+			int start = TimedBufferSe3_F64.this.start % N;
+			int size = TimedBufferSe3_F64.this.size;
+			if( size > N )
+				size = N;
+
+			if( size == 0 || time < times[start] || time > times[(start + size - 1) % N] )
+				return false;
+
+			// find the last entry with a time which is less than or equal to the requested time
+			int low = 0, high = size - 1;
+			while( low < high ) {
+				int mid = (low + high + 1) >>> 1;
+				if( times[(start + mid) % N] <= time )
+					low = mid;
+				else
+					high = mid - 1;
+			}
+
+			int indexBefore = (start + low) % N;
+			int indexAfter = (start + (low + 1 < size ? low + 1 : low)) % N;
+			timeBefore = times[indexBefore];
+			timeAfter = times[indexAfter];
+			before.set(transforms[indexBefore]);
+			if( timeBefore == time ) {
+				timeAfter = timeBefore;
+			} else {
+				after.set(transforms[indexAfter]);
+			}
+			return true;
+		}
+	}
+}
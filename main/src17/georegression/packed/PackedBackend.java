@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.packed;
+
+/**
+ * Selects which implementation of the packed array kernels is used. This is the Java 17 version of the class, which
+ * is placed under META-INF/versions/17 in the multi-release jar. When the jdk.incubator.vector module is present
+ * the kernels written with the Vector API are used for the widest vectors the CPU supports, otherwise it falls back
+ * on the plain Java kernels.
+ *
+ * @author Peter Abeles
+ */
+public class PackedBackend {
+	/**
+	 * System property which, when set to "false", forces the plain Java kernels to be used
+	 */
+	public static final String PROPERTY_VECTOR = "georegression.vector";
+
+	/**
+	 * Returns the kernels that should be used for double arrays
+	 *
+	 * @param scalar Plain Java kernels. Returned if nothing better is available.
+	 */
+	public static PackedKernels_F64 select( PackedKernels_F64 scalar ) {
+		if( !isVectorAvailable() )
+			return scalar;
+		PackedKernels_F64 vector = VectorKernels_F64.create();
+		return vector != null ? vector : scalar;
+	}
+
+	/**
+	 * Returns the kernels that should be used for float arrays
+	 *
+	 * @param scalar Plain Java kernels. Returned if nothing better is available.
+	 */
+	public static PackedKernels_F32 select( PackedKernels_F32 scalar ) {
+		if( !isVectorAvailable() )
+			return scalar;
+		PackedKernels_F32 vector = VectorKernels_F32.create();
+		return vector != null ? vector : scalar;
+	}
+
+	/**
+	 * Incubator modules are only resolved when asked for, e.g. "--add-modules jdk.incubator.vector". Without the
+	 * module any reference to the Vector API would throw NoClassDefFoundError, so this must be checked before
+	 * the vector kernels are loaded.
+	 */
+	static boolean isVectorAvailable() {
+		if( "false".equals(System.getProperty(PROPERTY_VECTOR)) )
+			return false;
+		return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+}
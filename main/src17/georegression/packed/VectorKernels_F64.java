@@ -0,0 +1,573 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.packed;
+
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * Implementation of {@link PackedKernels_F64} with the incubator Vector API. Only included in the Java 17 part of
+ * the multi-release jar and only created by {@link PackedBackend} after it has checked that the module is present.
+ * </p>
+ *
+ * <p>
+ * Vectors are loaded directly from the packed arrays and the coordinates are never split apart. With 2D points the
+ * lanes alternate between x and y, and transforms swap adjacent lanes to bring the other coordinate of each point
+ * along. Functions with one output per point load the array again one and two elements further along, evaluate the
+ * function at every lane, and then keep the lanes where a point starts with a single shuffle. When the function costs
+ * more than the shuffles, each coordinate is shuffled into its own vector first and the function evaluated once. 3D
+ * transforms read
+ * each vector at offsets -2 to 2 and weight each offset by the matrix element which applies to that lane, which is
+ * zero when the lane would be reading a different point. Gather and scatter aren't used since they were slower and
+ * crashed the JVM on some CPUs with JDK 17. Points left over at the end are processed one at a time.
+ * </p>
+ *
+ * <p>
+ * Loops don't call helper functions which take or return vectors. When the JIT compiles such a function on its own
+ * it stops inlining it, and every vector passed to it is then allocated on the heap.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class VectorKernels_F64 extends PackedKernels_F64 {
+	/**
+	 * Fewest lanes a vector must have for these kernels to be used. Measured with JDK 17, shuffles between lanes
+	 * cost too much for anything less to be faster than the scalar code.
+	 */
+	public static final int MIN_LANES = 8;
+
+	// The species must be a constant for the JIT to compile the vector operations into SIMD instructions. The
+	// preferred species is picked by the JVM at startup and is the largest vector shape the CPU supports.
+	static final VectorSpecies<Double> species = DoubleVector.SPECIES_PREFERRED;
+	// number of lanes in a vector
+	static final int L = species.length();
+
+	// lanes which contain y when pairs are loaded
+	static final VectorMask<Double> oddLanes;
+	// swaps each pair of lanes. (x,y) to (y,x)
+	static final VectorShuffle<Double> swapPairs;
+	// moves the lanes which start a pair into the lower half of a vector, or the upper half for the second vector
+	static final VectorShuffle<Double> pairStart;
+	static final VectorMask<Double> upperLanes;
+	// moves the lanes which start a triple in three vectors into the lane for that point. The same shuffle is used for
+	// each vector and the masks select the lanes which come from the second and third vector
+	static final VectorShuffle<Double> tripleStart;
+	static final VectorMask<Double> tripleMask1, tripleMask2;
+	// phase[m][c] = lanes in the m-th vector of a group of three which hold coordinate c
+	static final VectorMask<Double>[][] phase;
+
+	static {
+		boolean[] odd = new boolean[L];
+		boolean[] upper = new boolean[L];
+		int[] swap = new int[L];
+		int[] start = new int[L];
+		for( int i = 0; i < L; i++ ) {
+			odd[i] = i%2 == 1;
+			upper[i] = i >= L/2;
+			swap[i] = i ^ 1;
+			start[i] = (2*i)%L;
+		}
+		oddLanes = VectorMask.fromArray(species, odd, 0);
+		upperLanes = VectorMask.fromArray(species, upper, 0);
+		swapPairs = VectorShuffle.fromArray(species, swap, 0);
+		pairStart = VectorShuffle.fromArray(species, start, 0);
+
+		for( int i = 0; i < L; i++ ) {
+			start[i] = (3*i)%L;
+			odd[i] = (3*i)/L == 1;
+			upper[i] = (3*i)/L == 2;
+		}
+		tripleStart = VectorShuffle.fromArray(species, start, 0);
+		tripleMask1 = VectorMask.fromArray(species, odd, 0);
+		tripleMask2 = VectorMask.fromArray(species, upper, 0);
+
+		phase = newMasks();
+		for( int m = 0; m < 3; m++ ) {
+			for( int c = 0; c < 3; c++ ) {
+				for( int i = 0; i < L; i++ ) {
+					odd[i] = (m*L + i)%3 == c;
+				}
+				phase[m][c] = VectorMask.fromArray(species, odd, 0);
+			}
+		}
+	}
+
+	/**
+	 * Creates kernels for the widest vectors the CPU supports. Returns null if they have fewer than
+	 * {@link #MIN_LANES} lanes.
+	 */
+	public static PackedKernels_F64 create() {
+		if( L < MIN_LANES )
+			return null;
+		return new VectorKernels_F64();
+	}
+
+	VectorKernels_F64() {}
+
+	@SuppressWarnings("unchecked")
+	private static VectorMask<Double>[][] newMasks() {
+		return new VectorMask[3][3];
+	}
+
+	@Override
+	public String getName() {
+		return "vector "+species.vectorBitSize()+"-bit";
+	}
+
+	@Override
+	public void transform2( double a11 , double a12 , double tx ,
+							double a21 , double a22 , double ty ,
+							double[] src , double[] dst , int length ) {
+		// coefficients of the lane's own value and of the other value in its pair
+		DoubleVector P = DoubleVector.broadcast(species, a11).blend(a22, oddLanes);
+		DoubleVector Q = DoubleVector.broadcast(species, a12).blend(a21, oddLanes);
+		DoubleVector T = DoubleVector.broadcast(species, tx).blend(ty, oddLanes);
+
+		final int end = length*2;
+		final int bound = species.loopBound(end);
+		int i = 0;
+		for( ; i < bound; i += L ) {
+			DoubleVector v = DoubleVector.fromArray(species, src, i);
+			DoubleVector swapped = v.rearrange(swapPairs);
+			v.fma(P, swapped.fma(Q, T)).intoArray(dst, i);
+		}
+		for( ; i < end; i += 2 ) {
+			double x = src[i];
+			double y = src[i+1];
+
+			dst[i  ] = tx + a11 * x + a12 * y;
+			dst[i+1] = ty + a21 * x + a22 * y;
+		}
+	}
+
+	@Override
+	public void transform3( double[] R , double tx , double ty , double tz ,
+							double[] src , double[] dst , int length ) {
+		// Coefficients of the vector read at each offset for the three vectors in a block. A lane which starts a
+		// point needs offsets 0 to 2, the lane for z needs offsets -2 to 0
+		final DoubleVector a0 = shiftedCoef(R,0,-2), a1 = shiftedCoef(R,0,-1), a2 = shiftedCoef(R,0,0);
+		final DoubleVector a3 = shiftedCoef(R,0,1), a4 = shiftedCoef(R,0,2);
+		final DoubleVector b0 = shiftedCoef(R,1,-2), b1 = shiftedCoef(R,1,-1), b2 = shiftedCoef(R,1,0);
+		final DoubleVector b3 = shiftedCoef(R,1,1), b4 = shiftedCoef(R,1,2);
+		final DoubleVector c0 = shiftedCoef(R,2,-2), c1 = shiftedCoef(R,2,-1), c2 = shiftedCoef(R,2,0);
+		final DoubleVector c3 = shiftedCoef(R,2,1), c4 = shiftedCoef(R,2,2);
+		final DoubleVector t0 = translation(tx,ty,tz,0);
+		final DoubleVector t1 = translation(tx,ty,tz,1);
+		final DoubleVector t2 = translation(tx,ty,tz,2);
+
+		final int end = length*3;
+		final int block = 3*L;
+
+		// The first point is skipped so that offset -2 is inside the array and the last block must leave two
+		// elements for offset 2
+		int i = length > 0 ? 3 : 0;
+		transform3(R, tx, ty, tz, src, dst, 0, i);
+		for( ; i + block + 2 <= end; i += block ) {
+			final int j = i + L, k = i + 2*L;
+			DoubleVector out0 = DoubleVector.fromArray(species, src, i+2).fma(a4, t0);
+			out0 = DoubleVector.fromArray(species, src, i+1).fma(a3, out0);
+			out0 = DoubleVector.fromArray(species, src, i  ).fma(a2, out0);
+			out0 = DoubleVector.fromArray(species, src, i-1).fma(a1, out0);
+			out0 = DoubleVector.fromArray(species, src, i-2).fma(a0, out0);
+			DoubleVector out1 = DoubleVector.fromArray(species, src, j+2).fma(b4, t1);
+			out1 = DoubleVector.fromArray(species, src, j+1).fma(b3, out1);
+			out1 = DoubleVector.fromArray(species, src, j  ).fma(b2, out1);
+			out1 = DoubleVector.fromArray(species, src, j-1).fma(b1, out1);
+			out1 = DoubleVector.fromArray(species, src, j-2).fma(b0, out1);
+			DoubleVector out2 = DoubleVector.fromArray(species, src, k+2).fma(c4, t2);
+			out2 = DoubleVector.fromArray(species, src, k+1).fma(c3, out2);
+			out2 = DoubleVector.fromArray(species, src, k  ).fma(c2, out2);
+			out2 = DoubleVector.fromArray(species, src, k-1).fma(c1, out2);
+			out2 = DoubleVector.fromArray(species, src, k-2).fma(c0, out2);
+
+			// Other points are read with a weight of zero, but zero times NaN or infinity is NaN. If there's a NaN
+			// anywhere the block is done again one point at a time. Nothing has been written yet, which also
+			// means src and dst can be the same array.
+			DoubleVector sum = out0.add(out1).add(out2);
+			if( sum.compare(VectorOperators.NE, sum).anyTrue() ) {
+				transform3(R, tx, ty, tz, src, dst, i, i + block);
+				continue;
+			}
+			out0.intoArray(dst, i);
+			out1.intoArray(dst, j);
+			out2.intoArray(dst, k);
+		}
+		transform3(R, tx, ty, tz, src, dst, i, end);
+	}
+
+	/**
+	 * Coefficients for the m-th vector in a block which is read at offset o
+	 */
+	private static DoubleVector shiftedCoef( double[] R , int m , int o ) {
+		DoubleVector v = DoubleVector.zero(species);
+		for( int c = 0; c < 3; c++ ) {
+			if( c + o >= 0 && c + o <= 2 )
+				v = v.blend(R[c*3 + c + o], phase[m][c]);
+		}
+		return v;
+	}
+
+	private static DoubleVector translation( double tx , double ty , double tz , int m ) {
+		return DoubleVector.broadcast(species, tx).blend(ty, phase[m][1]).blend(tz, phase[m][2]);
+	}
+
+	/**
+	 * Transforms the points from element 'start' to 'end' one at a time
+	 */
+	private static void transform3( double[] R , double tx , double ty , double tz ,
+									double[] src , double[] dst , int start , int end ) {
+		for( int i = start; i < end; i += 3 ) {
+			double x = src[i];
+			double y = src[i+1];
+			double z = src[i+2];
+
+			dst[i  ] = R[0]*x + R[1]*y + R[2]*z + tx;
+			dst[i+1] = R[3]*x + R[4]*y + R[5]*z + ty;
+			dst[i+2] = R[6]*x + R[7]*y + R[8]*z + tz;
+		}
+	}
+
+	@Override
+	public void homography( double a11 , double a12 , double a13 ,
+							double a21 , double a22 , double a23 ,
+							double a31 , double a32 , double a33 ,
+							double[] src , double[] dst , int length ) {
+		DoubleVector P = DoubleVector.broadcast(species, a11).blend(a22, oddLanes);
+		DoubleVector Q = DoubleVector.broadcast(species, a12).blend(a21, oddLanes);
+		DoubleVector T = DoubleVector.broadcast(species, a13).blend(a23, oddLanes);
+		// the denominator is the same for both lanes in a pair
+		DoubleVector zP = DoubleVector.broadcast(species, a31).blend(a32, oddLanes);
+		DoubleVector zQ = DoubleVector.broadcast(species, a32).blend(a31, oddLanes);
+		DoubleVector zT = DoubleVector.broadcast(species, a33);
+
+		final int end = length*2;
+		final int bound = species.loopBound(end);
+		int i = 0;
+		for( ; i < bound; i += L ) {
+			DoubleVector v = DoubleVector.fromArray(species, src, i);
+			DoubleVector swapped = v.rearrange(swapPairs);
+			DoubleVector z = v.fma(zP, swapped.fma(zQ, zT));
+			v.fma(P, swapped.fma(Q, T)).div(z).intoArray(dst, i);
+		}
+		for( ; i < end; i += 2 ) {
+			double x = src[i];
+			double y = src[i+1];
+
+			double z = a31 * x + a32 * y + a33;
+
+			dst[i  ] = (a11 * x + a12 * y + a13)/z;
+			dst[i+1] = (a21 * x + a22 * y + a23)/z;
+		}
+	}
+
+	@Override
+	public void lineDistance2( double A , double B , double C ,
+							   double[] xy , double[] distances , int length ) {
+		DoubleVector vA = DoubleVector.broadcast(species, A);
+		DoubleVector vB = DoubleVector.broadcast(species, B);
+		DoubleVector vC = DoubleVector.broadcast(species, C);
+
+		int i = 0;
+		// the y of the last point in a vector is one element past it, so there must be another point after
+		for( ; i + L < length; i += L ) {
+			int j = 2*i;
+			DoubleVector d0 = DoubleVector.fromArray(species, xy, j).fma(vA,
+					DoubleVector.fromArray(species, xy, j+1).fma(vB, vC));
+			j += L;
+			DoubleVector d1 = DoubleVector.fromArray(species, xy, j).fma(vA,
+					DoubleVector.fromArray(species, xy, j+1).fma(vB, vC));
+			d0.rearrange(pairStart).blend(d1.rearrange(pairStart), upperLanes).abs().intoArray(distances, i);
+		}
+		for( int j = 2*i; i < length; i++, j += 2 ) {
+			distances[i] = Math.abs(A*xy[j] + B*xy[j+1] + C);
+		}
+	}
+
+	@Override
+	public void planeDistance( double A , double B , double C , double D ,
+							   double[] xyz , double[] distances , int length ) {
+		DoubleVector vA = DoubleVector.broadcast(species, A);
+		DoubleVector vB = DoubleVector.broadcast(species, B);
+		DoubleVector vC = DoubleVector.broadcast(species, C);
+		DoubleVector vD = DoubleVector.broadcast(species, D);
+
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			int j = 3*i;
+			DoubleVector d0 = DoubleVector.fromArray(species, xyz, j).fma(vA,
+					DoubleVector.fromArray(species, xyz, j+1).fma(vB,
+					DoubleVector.fromArray(species, xyz, j+2).fma(vC, vD)));
+			j += L;
+			DoubleVector d1 = DoubleVector.fromArray(species, xyz, j).fma(vA,
+					DoubleVector.fromArray(species, xyz, j+1).fma(vB,
+					DoubleVector.fromArray(species, xyz, j+2).fma(vC, vD)));
+			j += L;
+			DoubleVector d2 = DoubleVector.fromArray(species, xyz, j).fma(vA,
+					DoubleVector.fromArray(species, xyz, j+1).fma(vB,
+					DoubleVector.fromArray(species, xyz, j+2).fma(vC, vD)));
+			d0.rearrange(tripleStart).blend(d1.rearrange(tripleStart), tripleMask1)
+					.blend(d2.rearrange(tripleStart), tripleMask2).intoArray(distances, i);
+		}
+		for( int j = 3*i; i < length; i++, j += 3 ) {
+			distances[i] = A*xyz[j] + B*xyz[j+1] + C*xyz[j+2] + D;
+		}
+	}
+
+	@Override
+	public void lineParametricDistance2( double x0 , double y0 , double sx , double sy ,
+										 double[] xy , double[] distances , int length ) {
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			int j = 2*i;
+			DoubleVector d0 = DoubleVector.fromArray(species, xy, j+1).sub(y0).mul(sx).sub(
+					DoubleVector.fromArray(species, xy, j).sub(x0).mul(sy));
+			j += L;
+			DoubleVector d1 = DoubleVector.fromArray(species, xy, j+1).sub(y0).mul(sx).sub(
+					DoubleVector.fromArray(species, xy, j).sub(x0).mul(sy));
+			d0.rearrange(pairStart).blend(d1.rearrange(pairStart), upperLanes).abs().intoArray(distances, i);
+		}
+		for( int j = 2*i; i < length; i++, j += 2 ) {
+			distances[i] = Math.abs(sx*(xy[j+1] - y0) - sy*(xy[j] - x0));
+		}
+	}
+
+	@Override
+	public void segmentDistance2( double ax , double ay , double bx , double by ,
+								  double[] xy , double[] distances , int length ) {
+		final double a = bx - ax;
+		final double b = by - ay;
+		final double normSq = a*a + b*b;
+
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			// x and y of every point in their own vector
+			int j = 2*i;
+			DoubleVector dx = DoubleVector.fromArray(species, xy, j).rearrange(pairStart).blend(
+					DoubleVector.fromArray(species, xy, j + L).rearrange(pairStart), upperLanes).sub(ax);
+			DoubleVector dy = DoubleVector.fromArray(species, xy, j + 1).rearrange(pairStart).blend(
+					DoubleVector.fromArray(species, xy, j + L + 1).rearrange(pairStart), upperLanes).sub(ay);
+
+			// max and min keep NaN, just like the comparisons in the scalar code
+			DoubleVector t = dx.mul(a).add(dy.mul(b)).div(normSq).max(0.0).min(1.0);
+
+			dx = dx.sub(t.mul(a));
+			dy = dy.sub(t.mul(b));
+			dx.mul(dx).add(dy.mul(dy)).sqrt().intoArray(distances, i);
+		}
+		for( int j = 2*i; i < length; i++, j += 2 ) {
+			double dx = xy[j] - ax;
+			double dy = xy[j+1] - ay;
+
+			double t = (a*dx + b*dy)/normSq;
+			if( t < 0 )
+				t = 0;
+			else if( t > 1 )
+				t = 1;
+
+			dx -= t*a;
+			dy -= t*b;
+
+			distances[i] = Math.sqrt(dx*dx + dy*dy);
+		}
+	}
+
+	@Override
+	public void lineParametricDistance3( double x0 , double y0 , double z0 ,
+										 double sx , double sy , double sz ,
+										 double[] xyz , double[] distances , int length ) {
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			// x, y, and z of every point in their own vector
+			int j = 3*i;
+			DoubleVector x = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(x0);
+			j++;
+			DoubleVector y = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(y0);
+			j++;
+			DoubleVector z = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(z0);
+
+			DoubleVector cx = z.mul(sy).sub(y.mul(sz));
+			DoubleVector cy = x.mul(sz).sub(z.mul(sx));
+			DoubleVector cz = y.mul(sx).sub(x.mul(sy));
+
+			cx.mul(cx).add(cy.mul(cy)).add(cz.mul(cz)).sqrt().intoArray(distances, i);
+		}
+		for( int j = 3*i; i < length; i++, j += 3 ) {
+			double x = xyz[j] - x0;
+			double y = xyz[j+1] - y0;
+			double z = xyz[j+2] - z0;
+
+			double cx = sy*z - sz*y;
+			double cy = sz*x - sx*z;
+			double cz = sx*y - sy*x;
+
+			distances[i] = Math.sqrt(cx*cx + cy*cy + cz*cz);
+		}
+	}
+
+	@Override
+	public void sphereDistance( double cx , double cy , double cz , double r ,
+								double[] xyz , double[] distances , int length ) {
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			int j = 3*i;
+			DoubleVector x = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(cx);
+			j++;
+			DoubleVector y = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(cy);
+			j++;
+			DoubleVector z = DoubleVector.fromArray(species, xyz, j).rearrange(tripleStart)
+					.blend(DoubleVector.fromArray(species, xyz, j + L).rearrange(tripleStart), tripleMask1)
+					.blend(DoubleVector.fromArray(species, xyz, j + 2*L).rearrange(tripleStart), tripleMask2).sub(cz);
+
+			x.mul(x).add(y.mul(y)).add(z.mul(z)).sqrt().sub(r).intoArray(distances, i);
+		}
+		for( int j = 3*i; i < length; i++, j += 3 ) {
+			double x = xyz[j] - cx;
+			double y = xyz[j+1] - cy;
+			double z = xyz[j+2] - cz;
+
+			distances[i] = Math.sqrt(x*x + y*y + z*z) - r;
+		}
+	}
+
+	@Override
+	public int rectangleContains( double x0 , double y0 , double x1 , double y1 ,
+								  double[] xy , boolean[] inside , int length ) {
+		int total = 0;
+		int i = 0;
+		for( ; i + L < length; i += L ) {
+			int j = 2*i;
+			DoubleVector x = DoubleVector.fromArray(species, xy, j).rearrange(pairStart).blend(
+					DoubleVector.fromArray(species, xy, j + L).rearrange(pairStart), upperLanes);
+			DoubleVector y = DoubleVector.fromArray(species, xy, j + 1).rearrange(pairStart).blend(
+					DoubleVector.fromArray(species, xy, j + L + 1).rearrange(pairStart), upperLanes);
+
+			VectorMask<Double> in = x.compare(VectorOperators.GE, x0).and(x.lt(x1))
+					.and(y.compare(VectorOperators.GE, y0)).and(y.lt(y1));
+			in.intoArray(inside, i);
+			total += in.trueCount();
+		}
+		for( int j = 2*i; i < length; i++, j += 2 ) {
+			double x = xy[j];
+			double y = xy[j+1];
+			boolean in = x0 <= x && x1 > x && y0 <= y && y1 > y;
+			inside[i] = in;
+			if( in )
+				total++;
+		}
+		return total;
+	}
+
+	@Override
+	public void bounding2( double[] xy , int length , Rectangle2D_F64 bounding ) {
+		DoubleVector min = DoubleVector.broadcast(species, Double.MAX_VALUE);
+		DoubleVector max = DoubleVector.broadcast(species, -Double.MAX_VALUE);
+
+		final int end = length*2;
+		final int bound = species.loopBound(end);
+		int i = 0;
+		for( ; i < bound; i += L ) {
+			DoubleVector v = DoubleVector.fromArray(species, xy, i);
+			// compare and blend instead of min/max so that NaN is skipped, just like the scalar code
+			min = min.blend(v, v.lt(min));
+			max = max.blend(v, v.compare(VectorOperators.GT, max));
+		}
+
+		VectorMask<Double> evenLanes = oddLanes.not();
+		double minX = min.reduceLanes(VectorOperators.MIN, evenLanes);
+		double minY = min.reduceLanes(VectorOperators.MIN, oddLanes);
+		double maxX = max.reduceLanes(VectorOperators.MAX, evenLanes);
+		double maxY = max.reduceLanes(VectorOperators.MAX, oddLanes);
+
+		for( ; i < end; i += 2 ) {
+			double x = xy[i];
+			double y = xy[i+1];
+			if( x < minX )
+				minX = x;
+			if( x > maxX )
+				maxX = x;
+			if( y < minY )
+				minY = y;
+			if( y > maxY )
+				maxY = y;
+		}
+
+		bounding.set(minX,minY,maxX,maxY);
+	}
+
+	@Override
+	public void bounding3( double[] xyz , int length , Box3D_F64 bounding ) {
+		DoubleVector min0,min1,min2,max0,max1,max2;
+		min0 = min1 = min2 = DoubleVector.broadcast(species, Double.MAX_VALUE);
+		max0 = max1 = max2 = DoubleVector.broadcast(species, -Double.MAX_VALUE);
+
+		final int end = length*3;
+		final int block = 3*L;
+		int i = 0;
+		for( ; i + block <= end; i += block ) {
+			DoubleVector v0 = DoubleVector.fromArray(species, xyz, i);
+			DoubleVector v1 = DoubleVector.fromArray(species, xyz, i + L);
+			DoubleVector v2 = DoubleVector.fromArray(species, xyz, i + 2*L);
+			min0 = min0.blend(v0, v0.lt(min0));
+			min1 = min1.blend(v1, v1.lt(min1));
+			min2 = min2.blend(v2, v2.lt(min2));
+			max0 = max0.blend(v0, v0.compare(VectorOperators.GT, max0));
+			max1 = max1.blend(v1, v1.compare(VectorOperators.GT, max1));
+			max2 = max2.blend(v2, v2.compare(VectorOperators.GT, max2));
+		}
+
+		double[] lower = new double[3];
+		double[] upper = new double[3];
+		for( int c = 0; c < 3; c++ ) {
+			lower[c] = Math.min(min0.reduceLanes(VectorOperators.MIN, phase[0][c]),
+					Math.min(min1.reduceLanes(VectorOperators.MIN, phase[1][c]),
+							min2.reduceLanes(VectorOperators.MIN, phase[2][c])));
+			upper[c] = Math.max(max0.reduceLanes(VectorOperators.MAX, phase[0][c]),
+					Math.max(max1.reduceLanes(VectorOperators.MAX, phase[1][c]),
+							max2.reduceLanes(VectorOperators.MAX, phase[2][c])));
+		}
+
+		for( ; i < end; i += 3 ) {
+			for( int c = 0; c < 3; c++ ) {
+				double v = xyz[i+c];
+				if( v < lower[c] )
+					lower[c] = v;
+				if( v > upper[c] )
+					upper[c] = v;
+			}
+		}
+
+		bounding.set(lower[0],lower[1],lower[2],upper[0],upper[1],upper[2]);
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting;
+
+import georegression.fitting.cylinder.CylinderToPointSignedDistanceJacobian_F64;
+import georegression.fitting.sphere.SphereToPointSignedDistanceJacobian_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestNormalEquationsConcurrent {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void compareToSingleThread_sphere() {
+		SphereToPointSignedDistanceJacobian_F64 function = new SphereToPointSignedDistanceJacobian_F64();
+		function.setPoints(createPoints(1003));
+
+		compare(function, new double[]{0.1,0.2,-0.1,2});
+	}
+
+	@Test
+	public void compareToSingleThread_cylinder() {
+		CylinderToPointSignedDistanceJacobian_F64 function = new CylinderToPointSignedDistanceJacobian_F64();
+		function.setPoints(createPoints(1003));
+
+		compare(function, new double[]{0.1,0.2,-0.1,0.1,0.05,1,2});
+	}
+
+	/**
+	 * Too few terms for more than one chunk
+	 */
+	@Test
+	public void singleChunk() {
+		SphereToPointSignedDistanceJacobian_F64 function = new SphereToPointSignedDistanceJacobian_F64();
+		function.setPoints(createPoints(20));
+
+		compare(function, new double[]{0.1,0.2,-0.1,2});
+	}
+
+	private void compare( NormalEquationsPartial function , double[] param ) {
+		DMatrixRMaj expectedJtJ = new DMatrixRMaj(1,1);
+		DMatrixRMaj expectedJtr = new DMatrixRMaj(1,1);
+		double expectedSumSq = function.accumulate(param,expectedJtJ,expectedJtr);
+
+		NormalEquationsConcurrent alg = new NormalEquationsConcurrent(function,100,4);
+
+		DMatrixRMaj JtJ = new DMatrixRMaj(1,1);
+		DMatrixRMaj Jtr = new DMatrixRMaj(1,1);
+
+		// call it twice to make sure the work space is correctly reset
+		for (int trial = 0; trial < 2; trial++) {
+			double sumSq = alg.accumulate(param,JtJ,Jtr);
+
+			assertEquals(expectedSumSq, sumSq, GrlConstants.TEST_F64*expectedSumSq);
+
+			int N = function.getNumOfInputsN();
+			assertEquals(N,JtJ.numRows);
+			assertEquals(N,JtJ.numCols);
+			for (int i = 0; i < N*N; i++) {
+				double tol = GrlConstants.TEST_F64*Math.max(1,Math.abs(expectedJtJ.data[i]));
+				assertEquals(expectedJtJ.data[i], JtJ.data[i], tol);
+			}
+			for (int i = 0; i < N; i++) {
+				double tol = GrlConstants.TEST_F64*Math.max(1,Math.abs(expectedJtr.data[i]));
+				assertEquals(expectedJtr.data[i], Jtr.data[i], tol);
+			}
+		}
+	}
+
+	private List<Point3D_F64> createPoints( int N ) {
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for (int i = 0; i < N; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian()*2,rand.nextGaussian()*2,rand.nextGaussian()*2));
+		}
+		return points;
+	}
+
+	@Test
+	public void copyUpperToLower() {
+		DMatrixRMaj A = new DMatrixRMaj(3,3,true,1,2,3,0,4,5,0,0,6);
+		NormalEquationsConcurrent.copyUpperToLower(A);
+
+		assertEquals(2,A.get(1,0),0);
+		assertEquals(3,A.get(2,0),0);
+		assertEquals(5,A.get(2,1),0);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.affine;
+
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.affine.AffinePointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionAffinePoint2DWeighted_F64 {
+
+	Random rand = new Random( 434324 );
+
+	@Test
+	public void noiseless() {
+		Affine2D_F64 tran = new Affine2D_F64( 2, -4, 0.3, 1.1, 0.93, -3 );
+
+		List<Point2D_F64> from = UtilPoint2D_F64.random( -10, 10, 30, rand );
+		List<Point2D_F64> to = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : from ) {
+			to.add( AffinePointOps_F64.transform(tran, p, null) );
+		}
+
+		MotionAffinePoint2DWeighted_F64 alg = new MotionAffinePoint2DWeighted_F64();
+
+		assertTrue( alg.process( from, to ) );
+		TestMotionAffinePoint2D_F64.checkTransform( from, to, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+
+		double weights[] = new double[from.size()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = rand.nextDouble()+0.1;
+		}
+		assertTrue( alg.process( from, to, weights ) );
+		TestMotionAffinePoint2D_F64.checkTransform( from, to, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * A weight of two should be the same as adding the point twice
+	 */
+	@Test
+	public void weightSameAsDuplicate() {
+		List<Point2D_F64> from = UtilPoint2D_F64.random( -10, 10, 10, rand );
+		List<Point2D_F64> to = UtilPoint2D_F64.random( -10, 10, 10, rand );
+
+		double weights[] = new double[]{1,1,1,2,1,1,1,1,1,1};
+
+		MotionAffinePoint2DWeighted_F64 alg = new MotionAffinePoint2DWeighted_F64();
+		assertTrue( alg.process( from, to, weights ) );
+		Affine2D_F64 expected = alg.getTransformSrcToDst().copy();
+
+		from.add(from.get(3));
+		to.add(to.get(3));
+
+		MotionAffinePoint2D_F64 unweighted = new MotionAffinePoint2D_F64();
+		assertTrue( unweighted.process( from, to ) );
+		Affine2D_F64 found = unweighted.getTransformSrcToDst();
+
+		assertEquals(expected.a11, found.a11, GrlConstants.TEST_F64);
+		assertEquals(expected.a12, found.a12, GrlConstants.TEST_F64);
+		assertEquals(expected.a21, found.a21, GrlConstants.TEST_F64);
+		assertEquals(expected.a22, found.a22, GrlConstants.TEST_F64);
+		assertEquals(expected.tx, found.tx, GrlConstants.TEST_F64);
+		assertEquals(expected.ty, found.ty, GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Too few points with a positive weight should fail instead of throwing an exception
+	 */
+	@Test
+	public void tooFewPoints() {
+		List<Point2D_F64> from = UtilPoint2D_F64.random( -10, 10, 10, rand );
+		List<Point2D_F64> to = UtilPoint2D_F64.random( -10, 10, 10, rand );
+
+		MotionAffinePoint2DWeighted_F64 alg = new MotionAffinePoint2DWeighted_F64();
+		double weights[] = new double[10];
+		weights[2] = 1; weights[5] = 0.5;
+		assertFalse( alg.process( from, to, weights ) );
+		weights[7] = 2;
+		assertTrue( alg.process( from, to, weights ) );
+
+		assertFalse( alg.process( from.subList(0,2), to.subList(0,2), null ) );
+	}
+}
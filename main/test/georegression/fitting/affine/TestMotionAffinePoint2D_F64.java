@@ -30,6 +30,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 
@@ -59,6 +61,70 @@ public class TestMotionAffinePoint2D_F64 {
 		checkTransform( from, to, tranFound, GrlConstants.TEST_F64);
 	}
 
+	@Test
+	public void noiseless_normal() {
+		for( MotionAffinePoint2D_F64.Mode mode : MotionAffinePoint2D_F64.Mode.values() ) {
+			Affine2D_F64 tran = new Affine2D_F64( 2, -4, 0.3, 1.1, 0.93, -3 );
+
+			List<Point2D_F64> from = UtilPoint2D_F64.random( -10, 10, 30, rand );
+			List<Point2D_F64> to = new ArrayList<Point2D_F64>();
+			for( Point2D_F64 p : from ) {
+				to.add( AffinePointOps_F64.transform(tran, p, null) );
+			}
+
+			MotionAffinePoint2D_F64 alg = new MotionAffinePoint2D_F64(mode);
+			assertTrue( alg.process( from, to ) );
+			checkTransform( from, to, alg.getTransformSrcToDst(), GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * With noise all the modes should produce almost the same solution
+	 */
+	@Test
+	public void noisy_compareModes() {
+		Affine2D_F64 tran = new Affine2D_F64( 2, -4, 0.3, 1.1, 0.93, -3 );
+
+		List<Point2D_F64> from = UtilPoint2D_F64.random( -10, 10, 100, rand );
+		List<Point2D_F64> to = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : from ) {
+			Point2D_F64 q = AffinePointOps_F64.transform(tran, p, null);
+			q.x += rand.nextGaussian()*0.1;
+			q.y += rand.nextGaussian()*0.1;
+			to.add( q );
+		}
+
+		MotionAffinePoint2D_F64 qr = new MotionAffinePoint2D_F64();
+		assertTrue( qr.process( from, to ) );
+		Affine2D_F64 expected = qr.getTransformSrcToDst();
+
+		for( MotionAffinePoint2D_F64.Mode mode : MotionAffinePoint2D_F64.Mode.values() ) {
+			MotionAffinePoint2D_F64 alg = new MotionAffinePoint2D_F64(mode);
+			assertTrue( alg.process( from, to ) );
+			Affine2D_F64 found = alg.getTransformSrcToDst();
+			assertEquals( expected.a11, found.a11, GrlConstants.TEST_SQ_F64 );
+			assertEquals( expected.a12, found.a12, GrlConstants.TEST_SQ_F64 );
+			assertEquals( expected.a21, found.a21, GrlConstants.TEST_SQ_F64 );
+			assertEquals( expected.a22, found.a22, GrlConstants.TEST_SQ_F64 );
+			assertEquals( expected.tx, found.tx, GrlConstants.TEST_SQ_F64 );
+			assertEquals( expected.ty, found.ty, GrlConstants.TEST_SQ_F64 );
+		}
+	}
+
+	/**
+	 * All the points lie along a line so there is no unique solution
+	 */
+	@Test
+	public void degenerate_normal() {
+		List<Point2D_F64> from = new ArrayList<Point2D_F64>();
+		for( int i = 0; i < 10; i++ ) {
+			from.add( new Point2D_F64(i, 0) );
+		}
+
+		assertFalse( new MotionAffinePoint2D_F64(MotionAffinePoint2D_F64.Mode.NORMAL).process( from, from ) );
+		assertFalse( new MotionAffinePoint2D_F64(MotionAffinePoint2D_F64.Mode.NORMAL_CENTERED).process( from, from ) );
+	}
+
 	public static void checkTransform( List<Point2D_F64> from, List<Point2D_F64> to, Affine2D_F64 tranFound, double tol ) {
 		Point2D_F64 foundPt = new Point2D_F64();
 		for( int i = 0; i < from.size(); i++ ) {
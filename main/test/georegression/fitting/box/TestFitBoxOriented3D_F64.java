@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.box;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.metric.Intersection3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ddogleg.struct.FastQueue;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFitBoxOriented3D_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Points which fill a box with very different side lengths. The principal axes are the box's axes.
+	 */
+	@Test
+	public void pca() {
+		FitBoxOriented3D_F64 alg = new FitBoxOriented3D_F64();
+		BoxOriented3D_F64 found = new BoxOriented3D_F64();
+
+		for (int trial = 0; trial < 20; trial++) {
+			BoxOriented3D_F64 expected = randomBox(5, 2, 0.5);
+			List<Point3D_F64> points = samplePoints(expected, 2000);
+
+			assertTrue(alg.process(points, found));
+			checkContains(found, points);
+			checkRotation(found);
+
+			// corners were included so the box is only larger because of errors in the sampled principal axes,
+			// which are magnified by the long side
+			assertTrue(found.volume() >= expected.volume()*(1 - GrlConstants.TEST_F64));
+			assertEquals(expected.volume(), found.volume(), expected.volume()*0.25);
+			assertEquals(expected.boxToWorld.T.distance(found.boxToWorld.T), 0, 0.1);
+			for (int axis = 0; axis < 3; axis++) {
+				double dot = 0;
+				for (int row = 0; row < 3; row++) {
+					dot += expected.boxToWorld.R.get(row, axis)*found.boxToWorld.R.get(row, axis);
+				}
+				assertEquals(1, Math.abs(dot), 0.01);
+			}
+		}
+	}
+
+	/**
+	 * Principal axes of a cube are arbitrary. Refinement should find a box which is close to the cube.
+	 */
+	@Test
+	public void refine() {
+		FitBoxOriented3D_F64 pca = new FitBoxOriented3D_F64(false);
+		FitBoxOriented3D_F64 refine = new FitBoxOriented3D_F64(true);
+		BoxOriented3D_F64 found = new BoxOriented3D_F64();
+
+		double totalPca = 0, totalRefine = 0;
+		for (int trial = 0; trial < 20; trial++) {
+			BoxOriented3D_F64 expected = randomBox(1, 1.05, 1.1);
+			List<Point3D_F64> points = samplePoints(expected, 300);
+
+			pca.process(points, found);
+			double volumePca = found.volume();
+
+			assertTrue(refine.process(points, found));
+			checkContains(found, points);
+			checkRotation(found);
+			assertTrue(found.volume() <= volumePca);
+			assertTrue(found.volume() >= expected.volume()*(1 - GrlConstants.TEST_F64));
+
+			totalPca += volumePca/expected.volume();
+			totalRefine += found.volume()/expected.volume();
+		}
+		// on average it should be much closer to the minimum volume
+		assertTrue(totalRefine < totalPca);
+		assertEquals(1, totalRefine/20, 0.05);
+	}
+
+	/**
+	 * Far from the origin the covariance should still be accurate
+	 */
+	@Test
+	public void translated() {
+		FitBoxOriented3D_F64 alg = new FitBoxOriented3D_F64();
+		BoxOriented3D_F64 expected = randomBox(5, 2, 0.5);
+		List<Point3D_F64> points = samplePoints(expected, 500);
+		BoxOriented3D_F64 found = new BoxOriented3D_F64();
+		alg.process(points, found);
+		double volume = found.volume();
+
+		for (Point3D_F64 p : points) {
+			p.x += 1e5; p.y -= 2e5; p.z += 3e5;
+		}
+		alg.process(points, found);
+		assertEquals(volume, found.volume(), volume*GrlConstants.TEST_F64*1000);
+	}
+
+	@Test
+	public void degenerate() {
+		FitBoxOriented3D_F64 alg = new FitBoxOriented3D_F64(true);
+		BoxOriented3D_F64 found = new BoxOriented3D_F64();
+		List<Point3D_F64> points = new ArrayList<>();
+
+		assertFalse(alg.process(points, found));
+
+		points.add(new Point3D_F64(1, 2, 3));
+		assertTrue(alg.process(points, found));
+		checkRotation(found);
+		assertEquals(0, found.boxToWorld.T.distance(1, 2, 3), GrlConstants.TEST_F64);
+		assertEquals(0, found.volume(), 0);
+
+		// points along a line
+		points.add(new Point3D_F64(2, 4, 6));
+		points.add(new Point3D_F64(3, 6, 9));
+		assertTrue(alg.process(points, found));
+		checkRotation(found);
+		checkContains(found, points);
+		assertEquals(Math.sqrt(56)/2, Math.max(found.halfX, Math.max(found.halfY, found.halfZ)),
+				GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void batch() {
+		FitBoxOriented3D_F64 alg = new FitBoxOriented3D_F64(true);
+
+		List<List<Point3D_F64>> clusters = new ArrayList<>();
+		GrowQueue_F64 xyz = new GrowQueue_F64();
+		GrowQueue_I32 offsets = new GrowQueue_I32();
+		offsets.add(0);
+		for (int i = 0; i < 5; i++) {
+			List<Point3D_F64> points = samplePoints(randomBox(1, 2, 3), 50 + i);
+			clusters.add(points);
+			for (Point3D_F64 p : points) {
+				xyz.add(p.x); xyz.add(p.y); xyz.add(p.z);
+			}
+			offsets.add(offsets.get(offsets.size-1) + points.size());
+		}
+
+		FastQueue<BoxOriented3D_F64> boxesList = new FastQueue<>(BoxOriented3D_F64.class, true);
+		FastQueue<BoxOriented3D_F64> boxesPacked = new FastQueue<>(BoxOriented3D_F64.class, true);
+		alg.process(clusters, boxesList);
+		alg.process(xyz.data, offsets, boxesPacked);
+		assertEquals(5, boxesList.size);
+		assertEquals(5, boxesPacked.size);
+
+		BoxOriented3D_F64 expected = new BoxOriented3D_F64();
+		for (int i = 0; i < 5; i++) {
+			alg.process(clusters.get(i), expected);
+			checkEquals(expected, boxesList.get(i));
+			checkEquals(expected, boxesPacked.get(i));
+		}
+	}
+
+	private static void checkEquals( BoxOriented3D_F64 a , BoxOriented3D_F64 b ) {
+		assertEquals(a.halfX, b.halfX, GrlConstants.TEST_F64);
+		assertEquals(a.halfY, b.halfY, GrlConstants.TEST_F64);
+		assertEquals(a.halfZ, b.halfZ, GrlConstants.TEST_F64);
+		assertEquals(0, a.boxToWorld.T.distance(b.boxToWorld.T), GrlConstants.TEST_F64);
+		assertTrue(MatrixFeatures_DDRM.isIdentical(a.boxToWorld.R, b.boxToWorld.R, GrlConstants.TEST_F64));
+	}
+
+	/**
+	 * The box must contain all the points
+	 */
+	private static void checkContains( BoxOriented3D_F64 box , List<Point3D_F64> points ) {
+		BoxOriented3D_F64 expanded = new BoxOriented3D_F64(box);
+		double tol = GrlConstants.TEST_F64*100;
+		expanded.halfX += tol;
+		expanded.halfY += tol;
+		expanded.halfZ += tol;
+		for (Point3D_F64 p : points) {
+			assertTrue(Intersection3D_F64.contained(expanded, p));
+		}
+	}
+
+	/**
+	 * The rotation must be orthonormal and right handed
+	 */
+	private static void checkRotation( BoxOriented3D_F64 box ) {
+		assertEquals(1, CommonOps_DDRM.det(box.boxToWorld.R), GrlConstants.TEST_F64);
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 3; j++) {
+				double dot = 0;
+				for (int row = 0; row < 3; row++) {
+					dot += box.boxToWorld.R.get(row, i)*box.boxToWorld.R.get(row, j);
+				}
+				assertEquals(i == j ? 1 : 0, dot, GrlConstants.TEST_F64);
+			}
+		}
+	}
+
+	private BoxOriented3D_F64 randomBox( double halfX , double halfY , double halfZ ) {
+		BoxOriented3D_F64 box = new BoxOriented3D_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), box.boxToWorld.R);
+		box.boxToWorld.T.set(rand.nextGaussian()*5, rand.nextGaussian()*5, rand.nextGaussian()*5);
+		box.halfX = halfX;
+		box.halfY = halfY;
+		box.halfZ = halfZ;
+		return box;
+	}
+
+	/**
+	 * Samples points uniformly inside the box and includes its corners
+	 */
+	private List<Point3D_F64> samplePoints( BoxOriented3D_F64 box , int count ) {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			points.add(box.corner(i, null));
+		}
+		Point3D_F64 local = new Point3D_F64();
+		for (int i = 0; i < count; i++) {
+			local.set(box.halfX*(2*rand.nextDouble() - 1),
+					box.halfY*(2*rand.nextDouble() - 1),
+					box.halfZ*(2*rand.nextDouble() - 1));
+			points.add(SePointOps_F64.transform(box.boxToWorld, local, null));
+		}
+		return points;
+	}
+}
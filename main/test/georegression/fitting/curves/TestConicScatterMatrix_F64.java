@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.curves;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import org.ejml.data.DMatrix6x6;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.ejml.ops.ConvertDMatrixStruct;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConicScatterMatrix_F64 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against the scatter matrix computed from the design matrix
+	 */
+	@Test
+	public void compareToDesignMatrix() {
+		List<Point2D_F64> points = createPoints(30);
+
+		ConicScatterMatrix_F64 alg = new ConicScatterMatrix_F64();
+		alg.addAll(points);
+
+		assertEquals(30,alg.getTotalWeight(),0);
+		checkEquals(computeExpected(points,null),alg);
+	}
+
+	@Test
+	public void weighted() {
+		List<Point2D_F64> points = createPoints(30);
+		double[] weights = new double[points.size()];
+
+		ConicScatterMatrix_F64 alg = new ConicScatterMatrix_F64();
+		for (int i = 0; i < points.size(); i++) {
+			weights[i] = rand.nextDouble()+0.1;
+			Point2D_F64 p = points.get(i);
+			alg.add(p.x,p.y,weights[i]*weights[i]);
+		}
+
+		checkEquals(computeExpected(points,weights),alg);
+	}
+
+	@Test
+	public void addAll_packed() {
+		List<Point2D_F64> points = createPoints(30);
+		double[] packed = new double[4 + points.size()*2];
+		for (int i = 0; i < points.size(); i++) {
+			packed[4+i*2] = points.get(i).x;
+			packed[4+i*2+1] = points.get(i).y;
+		}
+
+		ConicScatterMatrix_F64 alg = new ConicScatterMatrix_F64();
+		alg.addAll(packed,4,points.size());
+
+		checkEquals(computeExpected(points,null),alg);
+	}
+
+	/**
+	 * Merging partial sums should produce the same results as adding all the points at once
+	 */
+	@Test
+	public void add_merge() {
+		List<Point2D_F64> points = createPoints(30);
+
+		ConicScatterMatrix_F64 a = new ConicScatterMatrix_F64();
+		ConicScatterMatrix_F64 b = new ConicScatterMatrix_F64();
+		a.addAll(points,0,12);
+		b.addAll(points,12,30);
+
+		ConicScatterMatrix_F64 found = a.copy();
+		found.add(b);
+
+		checkEquals(computeExpected(points,null),found);
+
+		found.reset();
+		assertEquals(0,found.getTotalWeight(),0);
+		assertEquals(0,found.m40,0);
+		assertEquals(0,found.m01,0);
+	}
+
+	private List<Point2D_F64> createPoints( int N ) {
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < N; i++) {
+			points.add(new Point2D_F64(rand.nextGaussian(),rand.nextGaussian()));
+		}
+		return points;
+	}
+
+	private DMatrixRMaj computeExpected( List<Point2D_F64> points , double[] weights ) {
+		DMatrixRMaj D = new DMatrixRMaj(points.size(),6);
+		for (int i = 0; i < points.size(); i++) {
+			Point2D_F64 p = points.get(i);
+			double w = weights == null ? 1 : weights[i];
+			D.set(i,0,w*p.x*p.x);
+			D.set(i,1,w*p.x*p.y);
+			D.set(i,2,w*p.y*p.y);
+			D.set(i,3,w*p.x);
+			D.set(i,4,w*p.y);
+			D.set(i,5,w);
+		}
+		DMatrixRMaj S = new DMatrixRMaj(6,6);
+		CommonOps_DDRM.multTransA(D,D,S);
+		return S;
+	}
+
+	private void checkEquals( DMatrixRMaj expected , ConicScatterMatrix_F64 alg ) {
+		DMatrix6x6 S = new DMatrix6x6();
+		alg.get(S);
+		DMatrixRMaj found = new DMatrixRMaj(6,6);
+		ConvertDMatrixStruct.convert(S,found);
+
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected,found,GrlConstants.TEST_F64));
+	}
+}
@@ -20,7 +20,16 @@ package georegression.fitting.curves;
 
 import georegression.fitting.FitShapeToPoints_F64;
 import georegression.struct.curve.ConicGeneral_F64;
+import georegression.misc.GrlConstants;
 import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -31,4 +40,50 @@ public class TestFitConicAtA_F64 extends GeneralFitConic_F64 {
 	public FitShapeToPoints_F64<Point2D_F64, ConicGeneral_F64> createAlg() {
 		return new FitConicAtA_F64();
 	}
+
+	/**
+	 * Fit using a scatter matrix which has points added to it after the first fit
+	 */
+	@Test
+	public void process_scatter() {
+		Random rand = new Random(234);
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			points.add(new Point2D_F64(1.5*c+0.2,0.8*s-0.1));
+		}
+
+		FitConicAtA_F64 alg = new FitConicAtA_F64();
+		ConicGeneral_F64 expected = new ConicGeneral_F64();
+		ConicGeneral_F64 found = new ConicGeneral_F64();
+
+		ConicScatterMatrix_F64 scatter = new ConicScatterMatrix_F64();
+		scatter.addAll(points,0,20);
+		assertTrue(alg.process(scatter,found));
+		assertTrue(alg.process(points.subList(0,20),expected));
+		checkSame(expected,found);
+
+		// add the remaining points and fit again
+		scatter.addAll(points,20,40);
+		assertTrue(alg.process(scatter,found));
+		assertTrue(alg.process(points,expected));
+		checkSame(expected,found);
+
+		for( Point2D_F64 p : points ) {
+			assertEquals(0,found.evaluate(p.x,p.y),GrlConstants.TEST_F64);
+		}
+	}
+
+	private void checkSame( ConicGeneral_F64 expected , ConicGeneral_F64 found ) {
+		// the sign is arbitrary
+		double sign = Math.signum(expected.F*found.F);
+		assertEquals(expected.A,sign*found.A,GrlConstants.TEST_F64);
+		assertEquals(expected.B,sign*found.B,GrlConstants.TEST_F64);
+		assertEquals(expected.C,sign*found.C,GrlConstants.TEST_F64);
+		assertEquals(expected.D,sign*found.D,GrlConstants.TEST_F64);
+		assertEquals(expected.E,sign*found.E,GrlConstants.TEST_F64);
+		assertEquals(expected.F,sign*found.F,GrlConstants.TEST_F64);
+	}
 }
\ No newline at end of file
@@ -88,6 +88,47 @@ public class TestFitEllipseAlgebraic_F64 {
 		assertEquals(expected.F,found.F, GrlConstants.TEST_F64);
 	}
 
+	/**
+	 * Fit to a scatter matrix that was computed by merging partial sums
+	 */
+	@Test
+	public void process_scatter() {
+		EllipseRotated_F64 rotated = new EllipseRotated_F64(0.5,-0.2,3,1.5,0.25);
+
+		List<Point2D_F64> points = new ArrayList<Point2D_F64>();
+		for( int i = 0; i < 30; i++ ) {
+			double theta = 2.0*(double)Math.PI*i/30;
+			Point2D_F64 p = UtilEllipse_F64.computePoint(theta, rotated, null);
+			p.x += rand.nextGaussian()*GrlConstants.TEST_F64;
+			p.y += rand.nextGaussian()*GrlConstants.TEST_F64;
+			points.add(p);
+		}
+
+		FitEllipseAlgebraic_F64 alg = new FitEllipseAlgebraic_F64();
+		assertTrue(alg.process(points));
+		EllipseQuadratic_F64 expected = new EllipseQuadratic_F64();
+		expected.setTo(alg.getEllipse());
+
+		ConicScatterMatrix_F64 a = new ConicScatterMatrix_F64();
+		ConicScatterMatrix_F64 b = new ConicScatterMatrix_F64();
+		a.addAll(points,0,10);
+		b.addAll(points,10,30);
+		a.add(b);
+
+		assertTrue(alg.process(a));
+		EllipseQuadratic_F64 found = alg.getEllipse();
+
+		normalize(expected);
+		normalize(found);
+
+		assertEquals(expected.A,found.A, GrlConstants.TEST_F64);
+		assertEquals(expected.B,found.B, GrlConstants.TEST_F64);
+		assertEquals(expected.C,found.C, GrlConstants.TEST_F64);
+		assertEquals(expected.D,found.D, GrlConstants.TEST_F64);
+		assertEquals(expected.E,found.E, GrlConstants.TEST_F64);
+		assertEquals(expected.F,found.F, GrlConstants.TEST_F64);
+	}
+
 	/**
 	 * Randomly generate points and see if it produces a valid ellipse
 	 *
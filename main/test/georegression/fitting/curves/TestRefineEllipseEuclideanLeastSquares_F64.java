@@ -18,11 +18,13 @@
 
 package georegression.fitting.curves;
 
+import georegression.fitting.LevenbergMarquardtSchur;
 import georegression.geometry.UtilEllipse_F64;
 import georegression.misc.GrlConstants;
 import georegression.struct.curve.EllipseRotated_F64;
 import georegression.struct.point.Point2D_F64;
 import org.ddogleg.optimization.DerivativeChecker;
+import org.ejml.data.DMatrixRMaj;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -32,6 +34,9 @@ import java.util.Random;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+//CUSTOM ignore DMatrixRMaj
+//CUSTOM ignore org.ejml.data.DMatrixRMaj;
+
 /**
  * @author Peter Abeles
  */
@@ -39,6 +44,9 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 
 	Random rand = new Random(234);
 
+	// if true the sparse Schur complement optimizer is used
+	boolean schur = false;
+
 	@Test
 	public void perfectEllipse() {
 		checkPerfect(0,0,2,1,0);
@@ -78,6 +86,32 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 		checkNoisy(0.5, 3, 2, 1, 0.1, sigma);
 	}
 
+	@Test
+	public void schur_perfect() {
+		schur = true;
+		perfectEllipse();
+		perfectCircle();
+	}
+
+	@Test
+	public void schur_perfectDataBadGuess() {
+		schur = true;
+		perfectDataBadGuess();
+	}
+
+	@Test
+	public void schur_noisyEllipse() {
+		schur = true;
+		noisyEllipse();
+	}
+
+	private RefineEllipseEuclideanLeastSquares_F64 createAlgorithm() {
+		if( schur )
+			return new RefineEllipseEuclideanLeastSquares_F64(new LevenbergMarquardtSchur());
+		else
+			return new RefineEllipseEuclideanLeastSquares_F64();
+	}
+
 	public void checkPerfect( double x0 , double y0, double a, double b, double phi ) {
 		EllipseRotated_F64 rotated = new EllipseRotated_F64(x0,y0,a,b,phi);
 
@@ -88,7 +122,7 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 //			System.out.println(points.get(i).x+" "+points.get(i).y);
 		}
 
-		RefineEllipseEuclideanLeastSquares_F64 alg = new RefineEllipseEuclideanLeastSquares_F64();
+		RefineEllipseEuclideanLeastSquares_F64 alg = createAlgorithm();
 
 		assertTrue(alg.refine(rotated, points));
 
@@ -123,7 +157,7 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 //			System.out.println(points.get(i).x+" "+points.get(i).y);
 		}
 
-		RefineEllipseEuclideanLeastSquares_F64 alg = new RefineEllipseEuclideanLeastSquares_F64();
+		RefineEllipseEuclideanLeastSquares_F64 alg = createAlgorithm();
 
 		assertTrue(alg.refine(rotated, points));
 
@@ -151,11 +185,11 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 //			System.out.println(points.get(i).x+" "+points.get(i).y);
 		}
 
-		RefineEllipseEuclideanLeastSquares_F64 alg = new RefineEllipseEuclideanLeastSquares_F64();
+		RefineEllipseEuclideanLeastSquares_F64 alg = createAlgorithm();
 
 		assertTrue(alg.refine(rotated, points));
 
-		/**/double after = alg.optimizer.getFunctionValue();
+		double after = alg.getFitError();
 		assertTrue(after<alg.initialError);
 	}
 
@@ -178,7 +212,82 @@ public class TestRefineEllipseEuclideanLeastSquares_F64 {
 		RefineEllipseEuclideanLeastSquares_F64.Error error = alg.createError();
 		RefineEllipseEuclideanLeastSquares_F64.Jacobian jacobian = alg.createJacobian();
 
-		DerivativeChecker.jacobian(error,jacobian,alg.initialParam,GrlConstants.TEST_SQ_F64);
+		assertTrue(DerivativeChecker.jacobian(error,jacobian,alg.initialParam,GrlConstants.TEST_SQ_F64));
+	}
+
+	/**
+	 * Compare the sparse normal equations against ones computed from the full Jacobian
+	 */
+	@Test
+	public void checkNormalEquations() {
+		EllipseRotated_F64 model = new EllipseRotated_F64(1,2,3,2,0.1);
+
+		List<Point2D_F64> points = new ArrayList<Point2D_F64>();
+		for( int i = 0; i < 10; i++ ) {
+			double theta = 2.0*(double)Math.PI*i/10;
+			Point2D_F64 p = UtilEllipse_F64.computePoint(theta, model, null);
+			p.x += rand.nextGaussian()*0.1;
+			p.y += rand.nextGaussian()*0.1;
+			points.add(p);
+		}
+
+		RefineEllipseEuclideanLeastSquares_F64 alg = new RefineEllipseEuclideanLeastSquares_F64();
+		alg.refine(new EllipseRotated_F64(0.5,2.1,2.9,1.5,0.15),points);
+
+		RefineEllipseEuclideanLeastSquares_F64.Error error = alg.createError();
+		RefineEllipseEuclideanLeastSquares_F64.Jacobian jacobian = alg.createJacobian();
+		RefineEllipseEuclideanLeastSquares_F64.NormalEquations normal = alg.createNormalEquations();
+
+		/**/double[] param = alg.initialParam;
+		int M = error.getNumOfOutputsM();
+		int N = error.getNumOfInputsN();
+		int K = normal.getNumOfBlocks();
+		assertEquals(5+K,N);
+
+		/**/double[] residuals = new /**/double[M];
+		error.process(param,residuals);
+		/**/DMatrixRMaj J = jacobian.declareMatrixMxN();
+		jacobian.process(param,J);
+
+		/**/DMatrixRMaj U = new /**/DMatrixRMaj(5,5);
+		/**/DMatrixRMaj Wt = new /**/DMatrixRMaj(K,5);
+		/**/DMatrixRMaj V = new /**/DMatrixRMaj(K,1);
+		/**/DMatrixRMaj bg = new /**/DMatrixRMaj(5,1);
+		/**/DMatrixRMaj bl = new /**/DMatrixRMaj(K,1);
+		/**/double sumSq = normal.accumulate(param,U,Wt,V,bg,bl);
+
+		/**/double expectedSumSq = 0;
+		for (int i = 0; i < M; i++) {
+			expectedSumSq += residuals[i]*residuals[i];
+		}
+		assertEquals(expectedSumSq, sumSq, GrlConstants.TEST_F64);
+
+		for (int row = 0; row < N; row++) {
+			for (int col = 0; col < N; col++) {
+				/**/double expected = 0;
+				for (int i = 0; i < M; i++) {
+					expected += J.get(i,row)*J.get(i,col);
+				}
+				/**/double found;
+				if( row < 5 && col < 5 )
+					found = U.get(row,col);
+				else if( row < 5 )
+					found = Wt.get(col-5,row);
+				else if( col < 5 )
+					found = Wt.get(row-5,col);
+				else if( row == col )
+					found = V.get(row-5,0);
+				else
+					found = 0;
+				assertEquals(expected, found, GrlConstants.TEST_F64);
+			}
+			/**/double expected = 0;
+			for (int i = 0; i < M; i++) {
+				expected += J.get(i,row)*residuals[i];
+			}
+			/**/double found = row < 5 ? bg.get(row,0) : bl.get(row-5,0);
+			assertEquals(expected, found, GrlConstants.TEST_F64);
+		}
 	}
 
 }
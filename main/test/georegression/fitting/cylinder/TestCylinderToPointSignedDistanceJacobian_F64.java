@@ -19,6 +19,7 @@
 package georegression.fitting.cylinder;
 
 import georegression.fitting.sphere.SphereToPointSignedDistanceJacobian_F64;
+import georegression.fitting.sphere.TestSphereToPointSignedDistanceJacobian_F64;
 import georegression.misc.GrlConstants;
 import georegression.struct.point.Point3D_F64;
 import org.ddogleg.optimization.DerivativeChecker;
@@ -61,6 +62,28 @@ public class TestCylinderToPointSignedDistanceJacobian_F64 {
 				GrlConstants.TEST_F64));
 	}
 
+	/**
+	 * Compare the normal equations against ones computed from the full Jacobian
+	 */
+	@Test
+	public void accumulate() {
+		CylinderToPointSignedDistance_F64 function = new CylinderToPointSignedDistance_F64();
+		CylinderToPointSignedDistanceJacobian_F64 jacobian = new CylinderToPointSignedDistanceJacobian_F64();
+
+		/**/double param[] = new /**/double[]{1,2,3,0.1,0,2,4};
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		points.add(new Point3D_F64(1.1,1.95,4.2));
+		points.add(new Point3D_F64(0.96,-2.2,3.001));
+		points.add(new Point3D_F64(5.2,2.05,3.1));
+		points.add(new Point3D_F64(-3,2.05,-1));
+
+		function.setPoints(points);
+		jacobian.setPoints(points);
+
+		TestSphereToPointSignedDistanceJacobian_F64.checkAccumulate(function, jacobian, jacobian, param);
+	}
+
 	@Test
 	public void getN_and_getM() {
 		SphereToPointSignedDistanceJacobian_F64 alg = new SphereToPointSignedDistanceJacobian_F64();
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.cylinder;
+
+import georegression.metric.ClosestPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFitCylinderFromNormals_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void perfect() {
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1,2,3,0.1,-0.3,1,2.5);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		List<Vector3D_F64> normals = new ArrayList<Vector3D_F64>();
+		createPoints(cylinder, 50, rand, points, normals);
+
+		FitCylinderFromNormals_F64 alg = new FitCylinderFromNormals_F64();
+
+		Cylinder3D_F64 found = new Cylinder3D_F64();
+		assertTrue(alg.process(points, normals, found));
+
+		TestFitCylinderToPoints_F64.checkEquivalent(cylinder,found);
+	}
+
+	public static void createPoints( Cylinder3D_F64 cylinder , int N , Random rand,
+									 List<Point3D_F64> points , List<Vector3D_F64> normals ) {
+		for( int i = 0; i < N; i++ ) {
+			double H = (rand.nextDouble()-0.5)*4.0;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			Point3D_F64 p = TestFitCylinderToPoints_F64.createPt(cylinder,H,theta);
+			Point3D_F64 c = ClosestPoint3D_F64.closestPoint(cylinder.line,p,null);
+
+			points.add(p);
+			normals.add(new Vector3D_F64(c,p));
+		}
+	}
+}
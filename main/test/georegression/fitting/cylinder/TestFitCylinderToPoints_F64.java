@@ -88,6 +88,57 @@ public class TestFitCylinderToPoints_F64 {
 		checkEquivalent(cylinder, found);
 	}
 
+	@Test
+	public void normalEquations() {
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1,2,3,0,0,1,2.5);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for( int i = 0; i < 50; i++ ) {
+
+			double H = (rand.nextDouble()-0.5)*4.0;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			points.add(createPt(cylinder,H,theta));
+		}
+
+		FitCylinderToPoints_F64 alg = new FitCylinderToPoints_F64(200,true);
+
+		// make the initial model a bit off
+		Cylinder3D_F64 initial = new Cylinder3D_F64(0.95,2.1,3.05,0.05,-0.001,1.05,2.6);
+		Cylinder3D_F64 found = new Cylinder3D_F64();
+		alg.fitModel(points, initial, found);
+
+		checkEquivalent(cylinder, found);
+	}
+
+	/**
+	 * Initial estimate is found from the surface normals
+	 */
+	@Test
+	public void fitWithNormals() {
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1,2,3,0,0,1,2.5);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		List<Vector3D_F64> normals = new ArrayList<Vector3D_F64>();
+		TestFitCylinderFromNormals_F64.createPoints(cylinder, 50, rand, points, normals);
+
+		// add noise to the normals so that the initial estimate isn't perfect
+		for( Vector3D_F64 n : normals ) {
+			n.x += rand.nextGaussian()*0.05;
+			n.y += rand.nextGaussian()*0.05;
+			n.z += rand.nextGaussian()*0.05;
+		}
+
+		for( boolean normal : new boolean[]{false,true}) {
+			FitCylinderToPoints_F64 alg = new FitCylinderToPoints_F64(200,normal);
+
+			Cylinder3D_F64 found = new Cylinder3D_F64();
+			assertTrue(alg.fitModel(points, normals, found));
+
+			checkEquivalent(cylinder, found);
+		}
+	}
+
 	public static void checkEquivalent( Cylinder3D_F64 a , Cylinder3D_F64 b ) {
 		assertEquals(a.radius,b.radius,GrlConstants.TEST_F64);
 
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionHomographyFourPoint2D_F64 {
+	Random rand = new Random(234);
+
+	List<Point2D_F64> src = new ArrayList<>();
+	List<Point2D_F64> dst = new ArrayList<>();
+
+	@Test
+	public void perfect() {
+		MotionHomographyFourPoint2D_F64 alg = new MotionHomographyFourPoint2D_F64();
+		MotionHomographyPoint2D_F64 dlt = new MotionHomographyPoint2D_F64();
+
+		for (int trial = 0; trial < 20; trial++) {
+			Homography2D_F64 H = TestMotionHomographyPoint2D_F64.createRandom(rand);
+			createPoints(H);
+
+			assertTrue(alg.process(src, dst));
+			TestMotionHomographyPoint2D_F64.checkEquals(H, alg.getTransformSrcToDst(), GrlConstants.TEST_SQ_F64);
+
+			// should be the same as the DLT solution
+			assertTrue(dlt.process(src, dst));
+			TestMotionHomographyPoint2D_F64.checkEquals(dlt.getTransformSrcToDst(), alg.getTransformSrcToDst(),
+					GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	@Test
+	public void squareToQuad() {
+		src.add(new Point2D_F64(1, 2));
+		src.add(new Point2D_F64(4, 1));
+		src.add(new Point2D_F64(5, 6));
+		src.add(new Point2D_F64(0, 4));
+
+		Homography2D_F64 H = new Homography2D_F64();
+		assertTrue(MotionHomographyFourPoint2D_F64.squareToQuad(src, H));
+
+		double[] corners = new double[]{0,0, 1,0, 1,1, 0,1};
+		Point2D_F64 found = new Point2D_F64();
+		for (int i = 0; i < 4; i++) {
+			HomographyPointOps_F64.transform(H, corners[i*2], corners[i*2+1], found);
+			assertEquals(0, found.distance(src.get(i)), GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test
+	public void collinear() {
+		MotionHomographyFourPoint2D_F64 alg = new MotionHomographyFourPoint2D_F64();
+		createPoints(TestMotionHomographyPoint2D_F64.createRandom(rand));
+		src.get(2).set(src.get(0).x*0.5 + src.get(1).x*0.5, src.get(0).y*0.5 + src.get(1).y*0.5);
+		assertFalse(alg.process(src, dst));
+	}
+
+	@Test
+	public void badInput() {
+		MotionHomographyFourPoint2D_F64 alg = new MotionHomographyFourPoint2D_F64();
+		createPoints(TestMotionHomographyPoint2D_F64.createRandom(rand));
+		src.add(new Point2D_F64());
+		dst.add(new Point2D_F64());
+		try {
+			alg.process(src, dst);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	private void createPoints( Homography2D_F64 H ) {
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < 4; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextGaussian(), rand.nextGaussian());
+			src.add(p);
+			dst.add(HomographyPointOps_F64.transform(H, p, null));
+		}
+	}
+}
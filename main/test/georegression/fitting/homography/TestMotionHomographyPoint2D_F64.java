@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionHomographyPoint2D_F64 {
+	Random rand = new Random(234);
+
+	List<Point2D_F64> src = new ArrayList<>();
+	List<Point2D_F64> dst = new ArrayList<>();
+
+	@Test
+	public void perfect_minimum() {
+		checkPerfect(4);
+	}
+
+	@Test
+	public void perfect_many() {
+		checkPerfect(50);
+	}
+
+	private void checkPerfect( int N ) {
+		MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+
+		for (int trial = 0; trial < 10; trial++) {
+			Homography2D_F64 H = createRandom(rand);
+			createPoints(H, N, 0);
+
+			assertTrue(alg.process(src, dst));
+			checkEquals(H, alg.getTransformSrcToDst(), GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * Points have very large coordinates, which is why normalization is needed
+	 */
+	@Test
+	public void largeCoordinates() {
+		Homography2D_F64 H = new Homography2D_F64(1.1, 0.1, 300, -0.05, 0.9, 150, 0.0001, 0.0002, 1);
+		for (int i = 0; i < 30; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextDouble()*2000, rand.nextDouble()*2000);
+			src.add(p);
+			dst.add(HomographyPointOps_F64.transform(H, p, null));
+		}
+
+		MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+		assertTrue(alg.process(src, dst));
+		checkEquals(H, alg.getTransformSrcToDst(), GrlConstants.TEST_SQ_F64);
+	}
+
+	@Test
+	public void noisy() {
+		Homography2D_F64 H = createRandom(rand);
+		createPoints(H, 200, 0.001);
+
+		MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+		assertTrue(alg.process(src, dst));
+		checkEquals(H, alg.getTransformSrcToDst(), 0.01);
+	}
+
+	@Test
+	public void badInput() {
+		MotionHomographyPoint2D_F64 alg = new MotionHomographyPoint2D_F64();
+		assertEquals(4, alg.getMinimumPoints());
+		createPoints(createRandom(rand), 3, 0);
+		try {
+			alg.process(src, dst);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	static Homography2D_F64 createRandom( Random rand ) {
+		return new Homography2D_F64(
+				1 + rand.nextGaussian()*0.1, rand.nextGaussian()*0.1, rand.nextGaussian(),
+				rand.nextGaussian()*0.1, 1 + rand.nextGaussian()*0.1, rand.nextGaussian(),
+				rand.nextGaussian()*0.1, rand.nextGaussian()*0.1, 1);
+	}
+
+	void createPoints( Homography2D_F64 H , int N , double noise ) {
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextGaussian(), rand.nextGaussian());
+			Point2D_F64 q = HomographyPointOps_F64.transform(H, p, null);
+			q.x += rand.nextGaussian()*noise;
+			q.y += rand.nextGaussian()*noise;
+			src.add(p);
+			dst.add(q);
+		}
+	}
+
+	/**
+	 * Homographies are only defined up to a scale factor
+	 */
+	static void checkEquals( Homography2D_F64 expected , Homography2D_F64 found , double tol ) {
+		Homography2D_F64 a = expected.copy();
+		Homography2D_F64 b = found.copy();
+		MotionHomographyPoint2D_F64.normalize(a);
+		MotionHomographyPoint2D_F64.normalize(b);
+		for (int row = 0; row < 3; row++) {
+			for (int col = 0; col < 3; col++) {
+				assertEquals(a.get(row, col), b.get(row, col), tol);
+			}
+		}
+	}
+}
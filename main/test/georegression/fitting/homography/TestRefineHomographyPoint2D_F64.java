@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.homography;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.homography.Homography2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.transform.homography.HomographyPointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRefineHomographyPoint2D_F64 {
+	Random rand = new Random(234);
+
+	List<Point2D_F64> src = new ArrayList<>();
+	List<Point2D_F64> dst = new ArrayList<>();
+
+	/**
+	 * Perfect observations and a perturbed initial estimate
+	 */
+	@Test
+	public void perfect() {
+		RefineHomographyPoint2D_F64 alg = new RefineHomographyPoint2D_F64();
+
+		for (int trial = 0; trial < 10; trial++) {
+			Homography2D_F64 H = TestMotionHomographyPoint2D_F64.createRandom(rand);
+			createPoints(H, 30, 0);
+
+			Homography2D_F64 initial = H.copy();
+			initial.a12 += 0.05;
+			initial.a23 -= 0.05;
+			initial.a31 += 0.02;
+
+			Homography2D_F64 found = new Homography2D_F64();
+			assertTrue(alg.process(src, dst, initial, found));
+			TestMotionHomographyPoint2D_F64.checkEquals(H, found, GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * The reprojection error should be less than the DLT solution's with noisy observations
+	 */
+	@Test
+	public void noisy() {
+		MotionHomographyPoint2D_F64 dlt = new MotionHomographyPoint2D_F64();
+		RefineHomographyPoint2D_F64 alg = new RefineHomographyPoint2D_F64();
+
+		for (int trial = 0; trial < 10; trial++) {
+			Homography2D_F64 H = TestMotionHomographyPoint2D_F64.createRandom(rand);
+			createPoints(H, 50, 0.05);
+
+			assertTrue(dlt.process(src, dst));
+			Homography2D_F64 found = dlt.getTransformSrcToDst().copy();
+			double before = error(found);
+			assertTrue(alg.process(src, dst, found, found));
+			assertTrue(error(found) < before);
+		}
+	}
+
+	private double error( Homography2D_F64 H ) {
+		double total = 0;
+		Point2D_F64 p = new Point2D_F64();
+		for (int i = 0; i < src.size(); i++) {
+			HomographyPointOps_F64.transform(H, src.get(i), p);
+			total += p.distance2(dst.get(i));
+		}
+		return total;
+	}
+
+	private void createPoints( Homography2D_F64 H , int N , double noise ) {
+		src.clear();
+		dst.clear();
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextGaussian(), rand.nextGaussian());
+			Point2D_F64 q = HomographyPointOps_F64.transform(H, p, null);
+			q.x += rand.nextGaussian()*noise;
+			q.y += rand.nextGaussian()*noise;
+			src.add(p);
+			dst.add(q);
+		}
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.line;
+
+import georegression.metric.UtilAngle;
+import georegression.misc.GrlConstants;
+import georegression.struct.line.LinePolar2D_F32;
+import georegression.struct.line.LinePolar2D_F64;
+import georegression.struct.point.Point2D_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFitLineContour_I32 {
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against FitLine_I32 on random windows
+	 */
+	@Test
+	public void polar_compare() {
+		List<Point2D_I32> contour = randomContour(200, 500);
+
+		FitLineContour_I32 alg = new FitLineContour_I32();
+		alg.setContour(contour, false);
+
+		LinePolar2D_F64 expected = new LinePolar2D_F64();
+		LinePolar2D_F64 found = new LinePolar2D_F64();
+		LinePolar2D_F32 expected32 = new LinePolar2D_F32();
+		LinePolar2D_F32 found32 = new LinePolar2D_F32();
+		for (int trial = 0; trial < 100; trial++) {
+			int start = rand.nextInt(190);
+			int length = 2 + rand.nextInt(200 - start - 1);
+
+			FitLine_I32.polar(contour, start, length, expected);
+			alg.polar(start, length, found);
+			checkEquals(expected, found, GrlConstants.TEST_F64);
+
+			FitLine_I32.polar(contour, start, length, expected32);
+			alg.polar(start, length, found32);
+			assertTrue(UtilAngle.distHalf(expected32.angle, found32.angle) <= GrlConstants.TEST_F32);
+			assertEquals(expected32.distance, found32.distance, Math.abs(expected32.distance)*GrlConstants.TEST_F32);
+		}
+	}
+
+	@Test
+	public void error() {
+		List<Point2D_I32> contour = randomContour(100, 50);
+
+		FitLineContour_I32 alg = new FitLineContour_I32();
+		alg.setContour(contour, false);
+
+		LinePolar2D_F64 line = new LinePolar2D_F64();
+		for (int trial = 0; trial < 50; trial++) {
+			int start = rand.nextInt(90);
+			int length = 1 + rand.nextInt(100 - start);
+
+			FitLine_I32.polar(contour, start, length, line);
+			double expected = 0;
+			double c = Math.cos(line.angle), s = Math.sin(line.angle);
+			for (int i = start; i < start + length; i++) {
+				Point2D_I32 p = contour.get(i);
+				double d = p.x*c + p.y*s - line.distance;
+				expected += d*d;
+			}
+
+			assertEquals(expected, alg.error(start, length), GrlConstants.TEST_SQ_F64*(1 + expected));
+		}
+
+		// points along a line have no error
+		contour.clear();
+		for (int i = 0; i < 10; i++) {
+			contour.add(new Point2D_I32(3 + i*2, 5 - i));
+		}
+		alg.setContour(contour, false);
+		assertEquals(0, alg.error(0, 10), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Windows which wrap around the end of a closed contour
+	 */
+	@Test
+	public void closed_wrap() {
+		List<Point2D_I32> contour = randomContour(50, 100);
+
+		FitLineContour_I32 alg = new FitLineContour_I32();
+		alg.setContour(contour, true);
+
+		// same points without a wrap around
+		List<Point2D_I32> shifted = new ArrayList<>();
+		shifted.addAll(contour.subList(40, 50));
+		shifted.addAll(contour.subList(0, 15));
+
+		LinePolar2D_F64 expected = FitLine_I32.polar(shifted, 0, 25, (LinePolar2D_F64)null);
+		LinePolar2D_F64 found = new LinePolar2D_F64();
+		alg.polar(40, 25, found);
+		checkEquals(expected, found, GrlConstants.TEST_F64);
+
+		// an open contour can't wrap
+		alg.setContour(contour, false);
+		try {
+			alg.polar(40, 25, found);
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	@Test
+	public void packed() {
+		List<Point2D_I32> contour = randomContour(80, 300);
+		int[] xy = new int[contour.size()*2];
+		for (int i = 0; i < contour.size(); i++) {
+			xy[i*2] = contour.get(i).x;
+			xy[i*2+1] = contour.get(i).y;
+		}
+
+		FitLineContour_I32 a = new FitLineContour_I32();
+		FitLineContour_I32 b = new FitLineContour_I32();
+		a.setContour(contour, true);
+		b.setContour(xy, contour.size(), true);
+
+		LinePolar2D_F64 lineA = new LinePolar2D_F64();
+		LinePolar2D_F64 lineB = new LinePolar2D_F64();
+		for (int start = 0; start < 80; start += 7) {
+			a.polar(start, 30, lineA);
+			b.polar(start, 30, lineB);
+			assertEquals(lineA.angle, lineB.angle, 0);
+			assertEquals(lineA.distance, lineB.distance, 0);
+			assertEquals(a.error(start, 30), b.error(start, 30), 0);
+		}
+	}
+
+	/**
+	 * Coordinates are large enough that 32-bit sums would overflow
+	 */
+	@Test
+	public void largeCoordinates() {
+		List<Point2D_I32> contour = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			contour.add(new Point2D_I32(1_000_000 + i, 2_000_000 + 2*i));
+		}
+
+		FitLineContour_I32 alg = new FitLineContour_I32();
+		alg.setContour(contour, false);
+
+		LinePolar2D_F64 found = new LinePolar2D_F64();
+		alg.polar(0, 5000, found);
+
+		// the line y = 2*x
+		double angle = Math.atan2(-1, 2);
+		assertTrue(UtilAngle.distHalf(angle, found.angle) <= GrlConstants.TEST_F64);
+		double c = Math.cos(found.angle), s = Math.sin(found.angle);
+		assertEquals(0, 1_000_000*c + 2_000_000*s - found.distance, 1e-6);
+		assertEquals(0, alg.error(0, 5000), 1e-6);
+	}
+
+	private void checkEquals( LinePolar2D_F64 expected , LinePolar2D_F64 found , double tol ) {
+		assertTrue(UtilAngle.distHalf(expected.angle, found.angle) <= tol);
+		assertEquals(expected.distance, found.distance, tol*(1 + Math.abs(expected.distance)));
+	}
+
+	/**
+	 * A random walk so that windows are roughly linear
+	 */
+	private List<Point2D_I32> randomContour( int N , int offset ) {
+		List<Point2D_I32> contour = new ArrayList<>();
+		int x = offset, y = offset;
+		for (int i = 0; i < N; i++) {
+			x += rand.nextInt(5) - 1;
+			y += rand.nextInt(3) - 1;
+			contour.add(new Point2D_I32(x, y));
+		}
+		return contour;
+	}
+}
@@ -65,6 +65,30 @@ public class TestFitPlane3D_F64 {
 		assertEquals(0, Math.abs(dot) - 1, GrlConstants.TEST_F64);
 	}
 
+	@Test
+	public void covariance() {
+		createCloud();
+
+		Point3D_F64 foundCenter = new Point3D_F64();
+		Vector3D_F64 foundNorm = new Vector3D_F64();
+
+		FitPlane3D_F64 alg = new FitPlane3D_F64();
+
+		alg.covariance(cloud,foundCenter,foundNorm);
+
+		// see if the found center is on the plane
+		assertEquals(0,
+				(foundCenter.x-center.x)*axisZ.x +
+				(foundCenter.y-center.y)*axisZ.y +
+				(foundCenter.z-center.z)*axisZ.z,
+				GrlConstants.TEST_F64);
+
+		// normal should already be normalized
+		assertEquals(1, foundNorm.norm(), GrlConstants.TEST_F64);
+		double dot = foundNorm.dot(axisZ);
+		assertEquals(0, Math.abs(dot) - 1, GrlConstants.TEST_F64);
+	}
+
 	@Test
 	public void svdPoint() {
 		createCloud();
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.robust;
+
+import georegression.fitting.affine.MotionAffinePoint2DWeighted_F64;
+import georegression.fitting.affine.MotionResidualAffine2D_F64;
+import georegression.fitting.se.FitSpecialEuclideanOps_F64;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.struct.EulerType;
+import georegression.struct.affine.Affine2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se2_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.affine.AffinePointOps_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionTransformPointIRLS_F64 {
+
+	Random rand = new Random( 234 );
+
+	RobustWeightFunction_F64 kernels[] = new RobustWeightFunction_F64[]{
+			new HuberWeight_F64(), new TukeyWeight_F64(), new CauchyWeight_F64()};
+
+	/**
+	 * Outliers should be suppressed and a more accurate solution found than plain least-squares
+	 */
+	@Test
+	public void se2_outliers() {
+		Se2_F64 tran = new Se2_F64( 2, -4, 0.93 );
+
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 100, rand );
+		List<Point2D_F64> dst = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : src ) {
+			Point2D_F64 q = SePointOps_F64.transform(tran, p, null);
+			q.x += rand.nextGaussian()*0.01;
+			q.y += rand.nextGaussian()*0.01;
+			dst.add(q);
+		}
+		// corrupt 20% of the points
+		for (int i = 0; i < 20; i++) {
+			dst.get(i*5).x += 5 + rand.nextDouble()*10;
+			dst.get(i*5).y -= 5 + rand.nextDouble()*10;
+		}
+
+		Se2_F64 leastSquares = FitSpecialEuclideanOps_F64.fitPoints2D(src,dst);
+		double errorLS = Math.abs(leastSquares.getYaw()-tran.getYaw());
+
+		for( RobustWeightFunction_F64 kernel : kernels ) {
+			MotionTransformPointIRLS_F64<Se2_F64,Point2D_F64> alg = FitSpecialEuclideanOps_F64.robustPoints2D(kernel);
+
+			assertTrue(alg.process(src,dst));
+			Se2_F64 found = alg.getTransformSrcToDst();
+
+			assertTrue(alg.getIterations() > 0);
+			assertEquals(tran.getX(), found.getX(), 0.02);
+			assertEquals(tran.getY(), found.getY(), 0.02);
+			assertEquals(tran.getYaw(), found.getYaw(), 0.005);
+			assertTrue(Math.abs(found.getYaw()-tran.getYaw()) < errorLS);
+
+			// outliers should have a lower weight than inliers
+			assertTrue( alg.getWeights().get(0) < alg.getWeights().get(1));
+		}
+	}
+
+	@Test
+	public void se3_outliers() {
+		DMatrixRMaj R = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0.1, -0.5, 1.2, null);
+		Se3_F64 tran = new Se3_F64( R, new Vector3D_F64(0.5,-2,1) );
+
+		List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 100, rand);
+		List<Point3D_F64> dst = new ArrayList<Point3D_F64>();
+		for( Point3D_F64 p : src ) {
+			dst.add(SePointOps_F64.transform(tran, p, null));
+		}
+		for (int i = 0; i < 20; i++) {
+			dst.get(i*5).x += 5 + rand.nextDouble()*10;
+		}
+
+		for( RobustWeightFunction_F64 kernel : kernels ) {
+			MotionTransformPointIRLS_F64<Se3_F64,Point3D_F64> alg = FitSpecialEuclideanOps_F64.robustPoints3D(kernel);
+			alg.setMaxIterations(100);
+
+			assertTrue(alg.process(src,dst));
+			Se3_F64 found = alg.getTransformSrcToDst();
+
+			// noise free inliers so a very accurate solution should be found
+			for (int i = 1; i < 5; i++) {
+				Point3D_F64 p = SePointOps_F64.transform(found, src.get(i), null);
+				assertEquals(0, p.distance(dst.get(i)), 1e-4);
+			}
+		}
+	}
+
+	/**
+	 * Use a fixed scale instead of the automatically estimated one
+	 */
+	@Test
+	public void affine_fixedScale() {
+		Affine2D_F64 tran = new Affine2D_F64( 2, -4, 0.3, 1.1, 0.93, -3 );
+
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 100, rand );
+		List<Point2D_F64> dst = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : src ) {
+			dst.add( AffinePointOps_F64.transform(tran, p, null) );
+		}
+		for (int i = 0; i < 10; i++) {
+			dst.get(i*10).y += 20;
+		}
+
+		MotionTransformPointIRLS_F64<Affine2D_F64,Point2D_F64> alg = new MotionTransformPointIRLS_F64<>(
+				new MotionAffinePoint2DWeighted_F64(), new MotionResidualAffine2D_F64(), new TukeyWeight_F64(1.0));
+		alg.setScale(2.0);
+		alg.setMaxIterations(50);
+
+		assertTrue(alg.process(src,dst));
+		Affine2D_F64 found = alg.getTransformSrcToDst();
+
+		assertEquals(tran.a11, found.a11, 1e-6);
+		assertEquals(tran.a12, found.a12, 1e-6);
+		assertEquals(tran.a21, found.a21, 1e-6);
+		assertEquals(tran.a22, found.a22, 1e-6);
+		assertEquals(tran.tx, found.tx, 1e-6);
+		assertEquals(tran.ty, found.ty, 1e-6);
+
+		// outliers should be completely ignored
+		for (int i = 0; i < 10; i++) {
+			assertEquals(0, alg.getWeights().get(i*10), 1e-8);
+		}
+	}
+
+	/**
+	 * The estimated scale should be the standard deviation along each axis for isotropic Gaussian noise
+	 */
+	@Test
+	public void estimateScale() {
+		double sigma = 0.3;
+		int N = 20000;
+
+		MotionTransformPointIRLS_F64<Se2_F64,Point2D_F64> alg2 =
+				FitSpecialEuclideanOps_F64.robustPoints2D(new HuberWeight_F64());
+		alg2.residuals.resize(N);
+		for (int i = 0; i < N; i++) {
+			double dx = rand.nextGaussian()*sigma, dy = rand.nextGaussian()*sigma;
+			alg2.residuals.data[i] = Math.sqrt(dx*dx + dy*dy);
+		}
+		assertEquals(sigma, alg2.estimateScale(), sigma*0.03);
+
+		MotionTransformPointIRLS_F64<Se3_F64,Point3D_F64> alg3 =
+				FitSpecialEuclideanOps_F64.robustPoints3D(new HuberWeight_F64());
+		alg3.residuals.resize(N);
+		for (int i = 0; i < N; i++) {
+			double dx = rand.nextGaussian()*sigma, dy = rand.nextGaussian()*sigma, dz = rand.nextGaussian()*sigma;
+			alg3.residuals.data[i] = Math.sqrt(dx*dx + dy*dy + dz*dz);
+		}
+		assertEquals(sigma, alg3.estimateScale(), sigma*0.03);
+	}
+
+	@Test
+	public void chiMedian() {
+		// sample median of the length of standard normal vectors
+		int N = 20001;
+		double[] lengths = new double[N];
+		for (int dof = 1; dof <= 6; dof++) {
+			for (int i = 0; i < N; i++) {
+				double sum = 0;
+				for (int j = 0; j < dof; j++) {
+					double v = rand.nextGaussian();
+					sum += v*v;
+				}
+				lengths[i] = Math.sqrt(sum);
+			}
+			Arrays.sort(lengths);
+			assertEquals(lengths[N/2], MotionTransformPointIRLS_F64.chiMedian(dof), 0.02);
+		}
+		assertEquals(1.0/MotionTransformPointIRLS_F64.MAD_TO_SIGMA, MotionTransformPointIRLS_F64.chiMedian(1), 1e-4);
+	}
+}
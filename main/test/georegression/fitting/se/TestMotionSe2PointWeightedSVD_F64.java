@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.geometry.UtilPoint2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.se.Se2_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSe2PointWeightedSVD_F64 {
+
+	Random rand = new Random( 434324 );
+
+	@Test
+	public void noiseless() {
+		Se2_F64 tran = new Se2_F64( 2, -4, 0.93 );
+
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 30, rand );
+		List<Point2D_F64> dst = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : src ) {
+			dst.add(SePointOps_F64.transform(tran, p, null));
+		}
+
+		MotionSe2PointWeightedSVD_F64 alg = new MotionSe2PointWeightedSVD_F64();
+
+		assertTrue( alg.process( src, dst ) );
+		TestMotionSe2PointSVD_F64.checkTransform( src, dst, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+
+		double weights[] = new double[src.size()];
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] = rand.nextDouble()+0.1;
+		}
+		assertTrue( alg.process( src, dst, weights ) );
+		TestMotionSe2PointSVD_F64.checkTransform( src, dst, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Points with a weight of zero should be ignored
+	 */
+	@Test
+	public void zeroWeightIgnored() {
+		Se2_F64 tran = new Se2_F64( -1, 0.5, -0.4 );
+
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 30, rand );
+		List<Point2D_F64> dst = new ArrayList<Point2D_F64>();
+		for( Point2D_F64 p : src ) {
+			dst.add(SePointOps_F64.transform(tran, p, null));
+		}
+
+		double weights[] = new double[src.size()];
+		for (int i = 0; i < weights.length; i++) {
+			if( i % 3 == 0 ) {
+				dst.get(i).x += 5;
+			} else {
+				weights[i] = 1;
+			}
+		}
+
+		MotionSe2PointWeightedSVD_F64 alg = new MotionSe2PointWeightedSVD_F64();
+		assertTrue( alg.process( src, dst, weights ) );
+
+		Se2_F64 found = alg.getTransformSrcToDst();
+		assertEquals(tran.getX(), found.getX(), GrlConstants.TEST_F64);
+		assertEquals(tran.getY(), found.getY(), GrlConstants.TEST_F64);
+		assertEquals(tran.getYaw(), found.getYaw(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * A weight of two should be the same as adding the point twice
+	 */
+	@Test
+	public void weightSameAsDuplicate() {
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 10, rand );
+		List<Point2D_F64> dst = UtilPoint2D_F64.random( -10, 10, 10, rand );
+
+		double weights[] = new double[]{1,2,1,1,1,1,1,1,1,1};
+
+		MotionSe2PointWeightedSVD_F64 alg = new MotionSe2PointWeightedSVD_F64();
+		assertTrue( alg.process( src, dst, weights ) );
+		Se2_F64 expected = alg.getTransformSrcToDst().copy();
+
+		src.add(src.get(1));
+		dst.add(dst.get(1));
+		assertTrue( alg.process( src, dst ) );
+		Se2_F64 found = alg.getTransformSrcToDst();
+
+		assertEquals(expected.getX(), found.getX(), GrlConstants.TEST_F64);
+		assertEquals(expected.getY(), found.getY(), GrlConstants.TEST_F64);
+		assertEquals(expected.getYaw(), found.getYaw(), GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void allZeroWeights() {
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 10, rand );
+		List<Point2D_F64> dst = UtilPoint2D_F64.random( -10, 10, 10, rand );
+
+		MotionSe2PointWeightedSVD_F64 alg = new MotionSe2PointWeightedSVD_F64();
+		assertFalse( alg.process( src, dst, new double[10] ) );
+	}
+
+	/**
+	 * Too few points with a positive weight should fail instead of throwing an exception
+	 */
+	@Test
+	public void tooFewPoints() {
+		List<Point2D_F64> src = UtilPoint2D_F64.random( -10, 10, 10, rand );
+		List<Point2D_F64> dst = UtilPoint2D_F64.random( -10, 10, 10, rand );
+
+		MotionSe2PointWeightedSVD_F64 alg = new MotionSe2PointWeightedSVD_F64();
+		double weights[] = new double[10];
+		weights[2] = 1; weights[5] = 0.5;
+		assertFalse( alg.process( src, dst, weights ) );
+		weights[7] = 2;
+		assertTrue( alg.process( src, dst, weights ) );
+
+		assertFalse( alg.process( src.subList(0,2), dst.subList(0,2), null ) );
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.se;
+
+import georegression.fitting.MotionTransformPoint;
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.geometry.UtilPoint3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.ejml.data.DMatrixRMaj;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMotionSe3PointWeightedSVD_F64 extends GeneralMotionSe3Tests_F64 {
+
+	@Override
+	MotionTransformPoint<Se3_F64, Point3D_F64> createAlg() {
+		return new MotionSe3PointWeightedSVD_F64();
+	}
+
+	/**
+	 * Points with a weight of zero should be ignored
+	 */
+	@Test
+	public void zeroWeightIgnored() {
+		DMatrixRMaj R = ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0.1, -0.5, 1.2, null);
+		Se3_F64 tran = new Se3_F64( R, new Vector3D_F64(0.5,-2,1) );
+
+		List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 30, rand);
+		List<Point3D_F64> dst = new ArrayList<Point3D_F64>();
+		for( Point3D_F64 p : src ) {
+			dst.add(SePointOps_F64.transform(tran, p, null));
+		}
+
+		double weights[] = new double[src.size()];
+		List<Point3D_F64> srcInliers = new ArrayList<Point3D_F64>();
+		List<Point3D_F64> dstInliers = new ArrayList<Point3D_F64>();
+		for (int i = 0; i < weights.length; i++) {
+			if( i % 3 == 0 ) {
+				dst.get(i).z += 5;
+			} else {
+				weights[i] = rand.nextDouble()+0.1;
+				srcInliers.add(src.get(i));
+				dstInliers.add(dst.get(i));
+			}
+		}
+
+		MotionSe3PointWeightedSVD_F64 alg = new MotionSe3PointWeightedSVD_F64();
+		assertTrue( alg.process( src, dst, weights ) );
+
+		checkTransform( srcInliers, dstInliers, alg.getTransformSrcToDst(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Too few points with a positive weight should fail instead of throwing an exception
+	 */
+	@Test
+	public void tooFewPoints() {
+		List<Point3D_F64> src = UtilPoint3D_F64.random(-10, 10, 10, rand);
+		List<Point3D_F64> dst = UtilPoint3D_F64.random(-10, 10, 10, rand);
+
+		MotionSe3PointWeightedSVD_F64 alg = new MotionSe3PointWeightedSVD_F64();
+		double weights[] = new double[10];
+		weights[2] = 1; weights[5] = 0.5;
+		assertFalse( alg.process( src, dst, weights ) );
+		weights[7] = 2;
+		assertTrue( alg.process( src, dst, weights ) );
+
+		assertFalse( alg.process( src.subList(0,2), dst.subList(0,2), null ) );
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.metric.Distance3D_F64;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEfficientRansac_F64 {
+
+	Random rand = new Random(234);
+
+	List<Point3D_F64> points = new ArrayList<>();
+	List<Vector3D_F64> normals = new ArrayList<>();
+
+	PlaneGeneral3D_F64 plane = new PlaneGeneral3D_F64(0,0,1,-1);
+	Sphere3D_F64 sphere = new Sphere3D_F64(2,2,1,1);
+	Cylinder3D_F64 cylinder = new Cylinder3D_F64(-2,-2,1, 0,0,1, 0.75);
+
+	/**
+	 * Scene composed of a plane, sphere, cylinder, and random noise
+	 */
+	private void createScene() {
+		for (int i = 0; i < 3000; i++) {
+			points.add(new Point3D_F64(rand.nextDouble()*8-4,rand.nextDouble()*8-4,1));
+			normals.add(new Vector3D_F64(0,0,1));
+		}
+		TestPrimitiveSphere_F64.createPoints(sphere,1500,rand,points,normals);
+		TestPrimitiveCylinder_F64.createPoints(cylinder,1500,rand,points,normals);
+		for (int i = 0; i < 200; i++) {
+			points.add(new Point3D_F64(rand.nextDouble()*8-4,rand.nextDouble()*8-4,rand.nextDouble()*6+2));
+			Vector3D_F64 n = new Vector3D_F64(rand.nextGaussian(),rand.nextGaussian(),rand.nextGaussian());
+			n.normalize();
+			normals.add(n);
+		}
+	}
+
+	@Test
+	public void planeSphereCylinder() {
+		createScene();
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			EfficientRansac_F64 alg = new EfficientRansac_F64(0xBEEF,0.02,0.2,400);
+			alg.addShape(new PrimitivePlane_F64());
+			alg.addShape(new PrimitiveSphere_F64());
+			alg.addShape(new PrimitiveCylinder_F64());
+			alg.setMinimumSubset(500);
+			alg.setConcurrent(concurrent);
+
+			alg.process(points,normals);
+
+			List<DetectedShape_F64> found = alg.getFound();
+			assertEquals(3,found.size());
+
+			boolean foundPlane = false, foundSphere = false, foundCylinder = false;
+			for( DetectedShape_F64 d : found ) {
+				if( d.type instanceof PrimitivePlane_F64 ) {
+					PlaneGeneral3D_F64 p = d.getModel();
+					assertEquals(0,Distance3D_F64.distance(p,new Point3D_F64(0,0,1)),1e-3);
+					assertEquals(1,Math.abs(p.C)/Math.sqrt(p.A*p.A+p.B*p.B+p.C*p.C),1e-3);
+					checkInliers(d,0,3000);
+					foundPlane = true;
+				} else if( d.type instanceof PrimitiveSphere_F64 ) {
+					Sphere3D_F64 s = d.getModel();
+					assertEquals(0,s.center.distance(sphere.center),1e-3);
+					assertEquals(sphere.radius,s.radius,1e-3);
+					checkInliers(d,3000,4500);
+					foundSphere = true;
+				} else {
+					Cylinder3D_F64 c = d.getModel();
+					assertEquals(cylinder.radius,c.radius,1e-3);
+					assertEquals(0,Distance3D_F64.distance(cylinder.line,c.line.p),1e-3);
+					checkInliers(d,4500,6000);
+					foundCylinder = true;
+				}
+			}
+			assertTrue(foundPlane && foundSphere && foundCylinder);
+
+			// the largest shape should be found first
+			assertTrue(found.get(0).type instanceof PrimitivePlane_F64);
+
+			GrowQueue_I32 unassigned = new GrowQueue_I32();
+			alg.getUnassigned(unassigned);
+			assertTrue(unassigned.size < 400);
+		}
+	}
+
+	/**
+	 * Most of the points in the range should be inliers
+	 */
+	private void checkInliers( DetectedShape_F64 d , int first , int last ) {
+		int count = 0;
+		for (int i = 0; i < d.inliers.size; i++) {
+			int index = d.inliers.get(i);
+			if( index >= first && index < last )
+				count++;
+		}
+		assertTrue(count >= 0.9*(last-first));
+		assertTrue(d.inliers.size-count < 0.05*(last-first));
+	}
+
+	/**
+	 * Nothing but noise. Nothing should be found
+	 */
+	@Test
+	public void noise() {
+		for (int i = 0; i < 2000; i++) {
+			points.add(new Point3D_F64(rand.nextDouble()*8-4,rand.nextDouble()*8-4,rand.nextDouble()*6+2));
+			Vector3D_F64 n = new Vector3D_F64(rand.nextGaussian(),rand.nextGaussian(),rand.nextGaussian());
+			n.normalize();
+			normals.add(n);
+		}
+
+		EfficientRansac_F64 alg = new EfficientRansac_F64(0xBEEF,0.02,0.2,400);
+		alg.addShape(new PrimitivePlane_F64());
+		alg.addShape(new PrimitiveSphere_F64());
+		alg.process(points,normals);
+
+		assertEquals(0,alg.getFound().size());
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.struct.point.Point3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestLinearOctree_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void spread() {
+		assertEquals(0,LinearOctree_F64.spread(0));
+		assertEquals(1,LinearOctree_F64.spread(1));
+		assertEquals(0x9,LinearOctree_F64.spread(3));
+		assertEquals(0x49,LinearOctree_F64.spread(7));
+		assertEquals(1L << 60,LinearOctree_F64.spread(1 << 20));
+	}
+
+	@Test
+	public void compact() {
+		for (int i = 0; i < 100; i++) {
+			long x = rand.nextInt(1 << 21);
+			assertEquals(x,LinearOctree_F64.compact(LinearOctree_F64.spread(x)));
+		}
+	}
+
+	/**
+	 * Looks up the cell a point is inside of and then finds the points in that cell using its coordinate
+	 */
+	@Test
+	public void getCell_findCell() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			points.add(new Point3D_F64(rand.nextDouble(),rand.nextDouble(),rand.nextDouble()));
+		}
+
+		LinearOctree_F64 alg = new LinearOctree_F64();
+		alg.build(points,5);
+
+		int[] rangeA = new int[2];
+		int[] rangeB = new int[2];
+		long[] cell = new long[3];
+		for (int level = 0; level <= 5; level++) {
+			for (int i = 0; i < points.size(); i++) {
+				alg.getCell(i,level,cell);
+				for (int j = 0; j < 3; j++) {
+					assertTrue(cell[j] >= 0 && cell[j] < (1 << level));
+				}
+				int countA = alg.findCell(i,level,rangeA);
+				int countB = alg.findCell(level,cell[0],cell[1],cell[2],rangeB);
+				assertEquals(countA,countB);
+				assertEquals(rangeA[0],rangeB[0]);
+				assertEquals(rangeA[1],rangeB[1]);
+			}
+		}
+
+		// outside the tree
+		assertEquals(0,alg.findCell(2,-1,0,0,rangeA));
+		assertEquals(0,alg.findCell(2,0,4,0,rangeA));
+	}
+
+	/**
+	 * Compare the cells against a brute force computation of which points are inside of each cell
+	 */
+	@Test
+	public void findCell() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			points.add(new Point3D_F64(rand.nextDouble()*4-1,rand.nextDouble()*2+3,rand.nextDouble()-2));
+		}
+
+		int depth = 4;
+		LinearOctree_F64 alg = new LinearOctree_F64();
+		alg.build(points,depth);
+
+		assertEquals(500,alg.size());
+
+		// sorted order must be a permutation
+		boolean[] seen = new boolean[points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			seen[alg.getPointAt(i)] = true;
+		}
+		for (int i = 0; i < seen.length; i++) {
+			assertTrue(seen[i]);
+		}
+
+		// bounding cube
+		double x0=Double.MAX_VALUE,y0=Double.MAX_VALUE,z0=Double.MAX_VALUE;
+		double x1=-Double.MAX_VALUE,y1=-Double.MAX_VALUE,z1=-Double.MAX_VALUE;
+		for( Point3D_F64 p : points ) {
+			x0 = Math.min(x0,p.x); y0 = Math.min(y0,p.y); z0 = Math.min(z0,p.z);
+			x1 = Math.max(x1,p.x); y1 = Math.max(y1,p.y); z1 = Math.max(z1,p.z);
+		}
+		double scale = (1 << depth)/Math.max(x1-x0,Math.max(y1-y0,z1-z0));
+		int[] cells = new int[points.size()*3];
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 p = points.get(i);
+			cells[i*3  ] = (int)Math.min((1 << depth)-1,(long)((p.x-x0)*scale));
+			cells[i*3+1] = (int)Math.min((1 << depth)-1,(long)((p.y-y0)*scale));
+			cells[i*3+2] = (int)Math.min((1 << depth)-1,(long)((p.z-z0)*scale));
+		}
+
+		int[] range = new int[2];
+		for (int level = 0; level <= depth; level++) {
+			int shift = depth-level;
+			for (int trial = 0; trial < 20; trial++) {
+				int target = rand.nextInt(points.size());
+				int count = alg.findCell(target,level,range);
+				assertEquals(range[1]-range[0],count);
+
+				int expected = 0;
+				for (int i = 0; i < points.size(); i++) {
+					boolean match = true;
+					for (int j = 0; j < 3; j++) {
+						if( cells[i*3+j] >> shift != cells[target*3+j] >> shift )
+							match = false;
+					}
+					if( match )
+						expected++;
+				}
+				assertEquals(expected,count);
+
+				// the target must be inside the range
+				boolean inside = false;
+				for (int i = range[0]; i < range[1]; i++) {
+					if( alg.getPointAt(i) == target )
+						inside = true;
+				}
+				assertTrue(inside);
+			}
+		}
+	}
+}
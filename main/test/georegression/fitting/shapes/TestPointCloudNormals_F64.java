@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.GrowQueue_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPointCloudNormals_F64 {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Points on a plane. Normals should be perpendicular to the plane and have no curvature
+	 */
+	@Test
+	public void plane() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			double x = rand.nextDouble()*2, y = rand.nextDouble()*2;
+			points.add(new Point3D_F64(x,y,0.5*x-0.2*y+1));
+		}
+		Vector3D_F64 expected = new Vector3D_F64(0.5,-0.2,-1);
+		expected.normalize();
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+			alg.setConcurrent(concurrent);
+			alg.setMinimumChunk(500);
+			alg.setNearest(8);
+
+			GrowQueue_F64 normals = new GrowQueue_F64();
+			GrowQueue_F64 curvature = new GrowQueue_F64();
+			alg.process(points,normals,curvature);
+
+			assertEquals(points.size()*3,normals.size);
+			assertEquals(points.size(),curvature.size);
+
+			for (int i = 0; i < points.size(); i++) {
+				double dot = normals.data[i*3]*expected.x + normals.data[i*3+1]*expected.y + normals.data[i*3+2]*expected.z;
+				assertEquals(1,Math.abs(dot),GrlConstants.TEST_SQ_F64);
+				assertEquals(0,curvature.data[i],GrlConstants.TEST_SQ_F64);
+			}
+		}
+	}
+
+	/**
+	 * Points on a sphere using a radius. Normals should point towards the center
+	 */
+	@Test
+	public void sphere_radius() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,-1,2);
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> truth = new ArrayList<>();
+		TestPrimitiveSphere_F64.createPoints(sphere,20000,rand,points,truth);
+
+		PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+		alg.setRadius(0.2);
+
+		GrowQueue_F64 normals = new GrowQueue_F64();
+		GrowQueue_F64 curvature = new GrowQueue_F64();
+		alg.process(points,normals,curvature);
+
+		List<Vector3D_F64> found = new ArrayList<>();
+		PointCloudNormals_F64.convert(normals,found);
+		assertEquals(points.size(),found.size());
+
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(1,Math.abs(found.get(i).dot(truth.get(i))),0.01);
+			assertTrue(curvature.data[i] > 0 && curvature.data[i] < 0.05);
+		}
+	}
+
+	/**
+	 * Compare the neighbors found against a brute force search by checking the curvature, which is sensitive to
+	 * which points are included
+	 */
+	@Test
+	public void nearest_bruteForce() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian(),rand.nextGaussian(),rand.nextGaussian()*0.1));
+		}
+
+		int K = 7;
+		PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+		alg.setNearest(K);
+		alg.setOctreeDepth(6);
+
+		GrowQueue_F64 normals = new GrowQueue_F64();
+		GrowQueue_F64 curvature = new GrowQueue_F64();
+		alg.process(points,normals,curvature);
+
+		double[] distances = new double[points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			Point3D_F64 q = points.get(i);
+			for (int j = 0; j < points.size(); j++) {
+				distances[j] = points.get(j).distance2(q);
+			}
+			double[] sorted = distances.clone();
+			Arrays.sort(sorted);
+			double threshold = sorted[K-1];
+
+			List<Point3D_F64> neighbors = new ArrayList<>();
+			for (int j = 0; j < points.size(); j++) {
+				if( distances[j] <= threshold )
+					neighbors.add(points.get(j));
+			}
+
+			assertEquals(computeCurvature(neighbors),curvature.data[i],GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * The query point's cell has exactly K points, but one of them is farther away than a point in a cell which
+	 * is outside the searched block.
+	 */
+	@Test
+	public void nearest_fullCellFartherThanWidth() {
+		List<Point3D_F64> points = new ArrayList<>();
+		// the corners make the octree 8 wide, so cells at level 3 have a width of 1 and integer boundaries
+		points.add(new Point3D_F64(-4,-4,-4));
+		points.add(new Point3D_F64(4,4,4));
+		// same cell as the query. The last one is farther than the cell's width
+		points.add(new Point3D_F64(0.4,0,0));
+		points.add(new Point3D_F64(0.95,0.95,0.95));
+		points.add(new Point3D_F64(0,0,0));
+		// outside the 3x3x3 block but closer than the far point in the query's cell
+		points.add(new Point3D_F64(-1.2,0.9,0));
+
+		PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+		alg.setNearest(3);
+		alg.setOctreeDepth(3);
+		alg.setConcurrent(false);
+
+		GrowQueue_F64 normals = new GrowQueue_F64();
+		GrowQueue_F64 curvature = new GrowQueue_F64();
+		alg.process(points,normals,curvature);
+
+		// the neighborhood is in the z=0 plane
+		assertEquals(1,Math.abs(normals.data[4*3+2]),GrlConstants.TEST_F64);
+	}
+
+	private double computeCurvature( List<Point3D_F64> points ) {
+		PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+		alg.setNearest(points.size());
+		GrowQueue_F64 normals = new GrowQueue_F64();
+		GrowQueue_F64 curvature = new GrowQueue_F64();
+		alg.process(points,normals,curvature);
+		return curvature.data[0];
+	}
+
+	/**
+	 * Too few neighbors inside the radius
+	 */
+	@Test
+	public void tooFewNeighbors() {
+		List<Point3D_F64> points = new ArrayList<>();
+		points.add(new Point3D_F64(0,0,0));
+		points.add(new Point3D_F64(0.01,0,0));
+		points.add(new Point3D_F64(5,0,0));
+
+		PointCloudNormals_F64 alg = new PointCloudNormals_F64();
+		alg.setRadius(0.1);
+
+		GrowQueue_F64 normals = new GrowQueue_F64();
+		GrowQueue_F64 curvature = new GrowQueue_F64();
+		alg.process(points,normals,curvature);
+
+		for (int i = 0; i < 3; i++) {
+			assertTrue(Double.isNaN(curvature.data[i]));
+			assertEquals(0,normals.data[i*3],0);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.metric.Distance3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPrimitiveCylinder_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void generate() {
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1,-2,0.5, 0.2,1,-0.3, 0.8);
+
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> normals = new ArrayList<>();
+		createPoints(cylinder, 10, rand, points, normals);
+
+		PrimitiveCylinder_F64 alg = new PrimitiveCylinder_F64();
+		Cylinder3D_F64 found = alg.createModelInstance();
+		assertTrue(alg.generate(points,normals,new int[]{2,5},found));
+
+		assertEquals(cylinder.radius,found.radius, GrlConstants.TEST_F64);
+		assertEquals(0,Distance3D_F64.distance(cylinder.line,found.line.p), GrlConstants.TEST_SQ_F64);
+		double cos = found.line.slope.dot(cylinder.line.slope)/(found.line.slope.norm()*cylinder.line.slope.norm());
+		assertEquals(1,Math.abs(cos), GrlConstants.TEST_F64);
+
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(0,alg.distance(found,points.get(i)), GrlConstants.TEST_F64);
+			assertEquals(1,alg.normalCos(found,points.get(i),normals.get(i)), GrlConstants.TEST_F64);
+		}
+
+		// parallel normals
+		normals.get(5).set(normals.get(2));
+		assertFalse(alg.generate(points,normals,new int[]{2,5},found));
+	}
+
+	@Test
+	public void refine() {
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1,-2,0.5, 0,0,1, 0.8);
+
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> normals = new ArrayList<>();
+		createPoints(cylinder, 30, rand, points, normals);
+
+		PrimitiveCylinder_F64 alg = new PrimitiveCylinder_F64();
+		Cylinder3D_F64 model = new Cylinder3D_F64(1.05,-2,0.5, 0.02,0,1, 0.75);
+		assertTrue(alg.refine(points,model));
+
+		assertEquals(cylinder.radius,model.radius, GrlConstants.TEST_SQ_F64);
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(0,alg.distance(model,points.get(i)), GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * Creates points and their normals on the surface of the cylinder
+	 */
+	public static void createPoints( Cylinder3D_F64 cylinder , int N , Random rand ,
+									 List<Point3D_F64> points , List<Vector3D_F64> normals ) {
+		Vector3D_F64 s = cylinder.line.slope.copy();
+		s.normalize();
+
+		// two vectors perpendicular to the axis
+		Vector3D_F64 e1 = Math.abs(s.x) < 0.9 ? new Vector3D_F64(1,0,0) : new Vector3D_F64(0,1,0);
+		e1 = e1.cross(s);
+		e1.normalize();
+		Vector3D_F64 e2 = s.cross(e1);
+
+		for (int i = 0; i < N; i++) {
+			double t = rand.nextDouble()*4-2;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+			double c = Math.cos(theta), sn = Math.sin(theta);
+
+			Vector3D_F64 n = new Vector3D_F64(c*e1.x + sn*e2.x, c*e1.y + sn*e2.y, c*e1.z + sn*e2.z);
+			Point3D_F64 p = new Point3D_F64(
+					cylinder.line.p.x + t*s.x + cylinder.radius*n.x,
+					cylinder.line.p.y + t*s.y + cylinder.radius*n.y,
+					cylinder.line.p.z + t*s.z + cylinder.radius*n.z);
+			points.add(p);
+			normals.add(n);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPrimitivePlane_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void generate() {
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> normals = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian(),rand.nextGaussian(),2));
+			normals.add(new Vector3D_F64(0,0,1));
+		}
+
+		PrimitivePlane_F64 alg = new PrimitivePlane_F64();
+		PlaneGeneral3D_F64 found = alg.createModelInstance();
+		assertTrue(alg.generate(points,normals,new int[]{1,4,7},found));
+
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(0,alg.distance(found,points.get(i)), GrlConstants.TEST_F64);
+			assertEquals(1,alg.normalCos(found,points.get(i),normals.get(i)), GrlConstants.TEST_F64);
+		}
+		assertEquals(1,alg.distance(found,new Point3D_F64(0.5,2,3)), GrlConstants.TEST_F64);
+		assertEquals(0,alg.normalCos(found,points.get(0),new Vector3D_F64(1,0,0)), GrlConstants.TEST_F64);
+
+		// degenerate case
+		points.get(7).set(points.get(1));
+		assertFalse(alg.generate(points,normals,new int[]{1,4,7},found));
+	}
+
+	@Test
+	public void refine() {
+		List<Point3D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			points.add(new Point3D_F64(rand.nextGaussian(),rand.nextGaussian(),2));
+		}
+
+		PrimitivePlane_F64 alg = new PrimitivePlane_F64();
+		PlaneGeneral3D_F64 model = new PlaneGeneral3D_F64(0.1,0,1,2.2);
+		assertTrue(alg.refine(points,model));
+
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(0,alg.distance(model,points.get(i)), GrlConstants.TEST_F64);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.shapes;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPrimitiveSphere_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void generate() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,-2,0.5,1.5);
+
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> normals = new ArrayList<>();
+		createPoints(sphere, 10, rand, points, normals);
+
+		PrimitiveSphere_F64 alg = new PrimitiveSphere_F64();
+		Sphere3D_F64 found = alg.createModelInstance();
+		assertTrue(alg.generate(points,normals,new int[]{2,5},found));
+
+		assertEquals(0,found.center.distance(sphere.center), GrlConstants.TEST_F64);
+		assertEquals(sphere.radius,found.radius, GrlConstants.TEST_F64);
+
+		for (int i = 0; i < points.size(); i++) {
+			assertEquals(0,alg.distance(found,points.get(i)), GrlConstants.TEST_F64);
+			assertEquals(1,alg.normalCos(found,points.get(i),normals.get(i)), GrlConstants.TEST_F64);
+		}
+
+		// parallel normals
+		normals.get(5).set(normals.get(2));
+		assertFalse(alg.generate(points,normals,new int[]{2,5},found));
+	}
+
+	@Test
+	public void refine() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,-2,0.5,1.5);
+
+		List<Point3D_F64> points = new ArrayList<>();
+		List<Vector3D_F64> normals = new ArrayList<>();
+		createPoints(sphere, 30, rand, points, normals);
+
+		PrimitiveSphere_F64 alg = new PrimitiveSphere_F64();
+		Sphere3D_F64 model = new Sphere3D_F64(1.1,-2,0.45,1.4);
+		assertTrue(alg.refine(points,model));
+
+		assertEquals(0,model.center.distance(sphere.center), GrlConstants.TEST_SQ_F64);
+		assertEquals(sphere.radius,model.radius, GrlConstants.TEST_SQ_F64);
+	}
+
+	public static void createPoints( Sphere3D_F64 sphere , int N , Random rand ,
+									 List<Point3D_F64> points , List<Vector3D_F64> normals ) {
+		for (int i = 0; i < N; i++) {
+			Vector3D_F64 n = new Vector3D_F64(rand.nextGaussian(),rand.nextGaussian(),rand.nextGaussian());
+			n.normalize();
+			Point3D_F64 p = new Point3D_F64(
+					sphere.center.x + sphere.radius*n.x,
+					sphere.center.y + sphere.radius*n.y,
+					sphere.center.z + sphere.radius*n.z);
+			points.add(p);
+			normals.add(n);
+		}
+	}
+}
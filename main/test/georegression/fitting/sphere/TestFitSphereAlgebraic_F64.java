@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.fitting.sphere;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFitSphereAlgebraic_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void perfect() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(100,-20,3,4);
+		List<Point3D_F64> points = createPoints(sphere, 50);
+
+		FitSphereAlgebraic_F64 alg = new FitSphereAlgebraic_F64();
+
+		Sphere3D_F64 found = new Sphere3D_F64();
+		assertTrue(alg.process(points, found));
+
+		assertEquals(0,sphere.center.distance(found.center),GrlConstants.TEST_F64);
+		assertEquals(sphere.radius,found.radius,GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Points with a weight of zero should be ignored
+	 */
+	@Test
+	public void weighted() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,3,4);
+		List<Point3D_F64> points = createPoints(sphere, 50);
+
+		double weights[] = new double[points.size()];
+		for (int i = 0; i < points.size(); i++) {
+			if( i % 5 == 0 ) {
+				points.get(i).x += 2;
+			} else {
+				weights[i] = 0.5 + rand.nextDouble();
+			}
+		}
+
+		FitSphereAlgebraic_F64 alg = new FitSphereAlgebraic_F64();
+
+		Sphere3D_F64 found = new Sphere3D_F64();
+		assertTrue(alg.process(points, weights, found));
+
+		assertEquals(0,sphere.center.distance(found.center),GrlConstants.TEST_F64);
+		assertEquals(sphere.radius,found.radius,GrlConstants.TEST_F64);
+	}
+
+	private List<Point3D_F64> createPoints(Sphere3D_F64 sphere, int N) {
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for( int i = 0; i < N; i++ ) {
+			double phi = rand.nextDouble()*GrlConstants.PI2;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			points.add(TestFitSphereToPoints_F64.createPt(sphere,phi,theta));
+		}
+		return points;
+	}
+}
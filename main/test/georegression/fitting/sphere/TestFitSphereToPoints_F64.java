@@ -33,6 +33,7 @@ import java.util.List;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -88,6 +89,93 @@ public class TestFitSphereToPoints_F64 {
 		assertEquals(sphere.radius, found.radius, GrlConstants.TEST_F64);
 	}
 
+	@Test
+	public void normalEquations() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,3,4);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for( int i = 0; i < 50; i++ ) {
+
+			double phi = rand.nextDouble()*GrlConstants.PI2;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			points.add(createPt(sphere,phi,theta));
+		}
+
+		FitSphereToPoints_F64 alg = new FitSphereToPoints_F64(200,true);
+
+		// make the initial model a bit off
+		Sphere3D_F64 initial = new Sphere3D_F64(1.05,1.99,3,3.8);
+		Sphere3D_F64 found = new Sphere3D_F64();
+		alg.fitModel(points, initial, found);
+
+		assertEquals(0,sphere.center.distance(found.center),GrlConstants.TEST_F64);
+		assertEquals(sphere.radius, found.radius, GrlConstants.TEST_F64);
+
+		// call it again with a different number of points to make sure work space is handled correctly
+		points.remove(10);
+		points.remove(20);
+		alg.fitModel(points, initial, found);
+
+		assertEquals(0,sphere.center.distance(found.center),GrlConstants.TEST_F64);
+		assertEquals(sphere.radius, found.radius, GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void normalEquations_concurrent() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,3,4);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for( int i = 0; i < 2000; i++ ) {
+
+			double phi = rand.nextDouble()*GrlConstants.PI2;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			points.add(createPt(sphere,phi,theta));
+		}
+
+		FitSphereToPoints_F64 alg = new FitSphereToPoints_F64(200,true);
+		alg.setConcurrent(true);
+
+		Sphere3D_F64 initial = new Sphere3D_F64(1.05,1.99,3,3.8);
+		Sphere3D_F64 found = new Sphere3D_F64();
+		alg.fitModel(points, initial, found);
+
+		assertEquals(0,sphere.center.distance(found.center),GrlConstants.TEST_F64);
+		assertEquals(sphere.radius, found.radius, GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * No initial estimate is provided so the algebraic estimate should be used
+	 */
+	@Test
+	public void noInitialModel() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,3,4);
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		for( int i = 0; i < 50; i++ ) {
+
+			double phi = rand.nextDouble()*GrlConstants.PI2;
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+
+			Point3D_F64 p = createPt(sphere,phi,theta);
+			p.x += rand.nextGaussian()*0.01;
+			p.y += rand.nextGaussian()*0.01;
+			p.z += rand.nextGaussian()*0.01;
+			points.add(p);
+		}
+
+		for( boolean normal : new boolean[]{false,true}) {
+			FitSphereToPoints_F64 alg = new FitSphereToPoints_F64(200,normal);
+
+			Sphere3D_F64 found = new Sphere3D_F64();
+			assertTrue(alg.fitModel(points, null, found));
+
+			assertEquals(0,sphere.center.distance(found.center),0.02);
+			assertEquals(sphere.radius, found.radius, 0.02);
+		}
+	}
+
 	public static Point3D_F64 createPt( Sphere3D_F64 sphere , double phi , double theta ) {
 		Point3D_F64 p = new Point3D_F64();
 		p.set(0,0,sphere.radius);
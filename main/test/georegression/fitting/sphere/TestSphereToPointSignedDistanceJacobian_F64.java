@@ -20,7 +20,11 @@ package georegression.fitting.sphere;
 
 import georegression.misc.GrlConstants;
 import georegression.struct.point.Point3D_F64;
+import georegression.fitting.NormalEquationsFunction;
 import org.ddogleg.optimization.DerivativeChecker;
+import org.ddogleg.optimization.functions.FunctionNtoM;
+import org.ddogleg.optimization.functions.FunctionNtoMxN;
+import org.ejml.data.DMatrixRMaj;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -29,6 +33,9 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+//CUSTOM ignore org.ejml.data.DMatrixRMaj;
+//CUSTOM ignore DMatrixRMaj;
+
 /**
  * @author Peter Abeles
  */
@@ -60,6 +67,69 @@ public class TestSphereToPointSignedDistanceJacobian_F64 {
 				GrlConstants.TEST_F64));
 	}
 
+	/**
+	 * Compare the normal equations against ones computed from the full Jacobian
+	 */
+	@Test
+	public void accumulate() {
+		SphereToPointSignedDistance_F64 function = new SphereToPointSignedDistance_F64();
+		SphereToPointSignedDistanceJacobian_F64 jacobian = new SphereToPointSignedDistanceJacobian_F64();
+
+		/**/double param[] = new /**/double[]{1,2,3,4};
+
+		List<Point3D_F64> points = new ArrayList<Point3D_F64>();
+		points.add(new Point3D_F64(1.1,1.95,7.2));
+		points.add(new Point3D_F64(0.96,-2.1,3.001));
+		points.add(new Point3D_F64(5.2,2.05,3.1));
+		points.add(new Point3D_F64(-2,2.5,3.1));
+
+		function.setPoints(points);
+		jacobian.setPoints(points);
+
+		checkAccumulate(function, jacobian, jacobian, param);
+	}
+
+	public static void checkAccumulate( FunctionNtoM function , FunctionNtoMxN</**/DMatrixRMaj> jacobian ,
+										NormalEquationsFunction normal , /**/double[] param ) {
+		int M = function.getNumOfOutputsM();
+		int N = function.getNumOfInputsN();
+
+		/**/double[] residuals = new /**/double[M];
+		function.process(param,residuals);
+		/**/DMatrixRMaj J = jacobian.declareMatrixMxN();
+		jacobian.process(param,J);
+
+		/**/DMatrixRMaj JtJ = new /**/DMatrixRMaj(1,1);
+		/**/DMatrixRMaj Jtr = new /**/DMatrixRMaj(1,1);
+		/**/double sumSq = normal.accumulate(param,JtJ,Jtr);
+
+		/**/double expectedSumSq = 0;
+		for (int i = 0; i < M; i++) {
+			expectedSumSq += residuals[i]*residuals[i];
+		}
+		assertEquals(expectedSumSq, sumSq, GrlConstants.TEST_F64);
+
+		assertEquals(N, JtJ.numRows);
+		assertEquals(N, JtJ.numCols);
+		assertEquals(N, Jtr.numRows);
+		assertEquals(1, Jtr.numCols);
+
+		for (int row = 0; row < N; row++) {
+			for (int col = 0; col < N; col++) {
+				/**/double expected = 0;
+				for (int i = 0; i < M; i++) {
+					expected += J.get(i,row)*J.get(i,col);
+				}
+				assertEquals(expected, JtJ.get(row,col), GrlConstants.TEST_F64);
+			}
+			/**/double expected = 0;
+			for (int i = 0; i < M; i++) {
+				expected += J.get(i,row)*residuals[i];
+			}
+			assertEquals(expected, Jtr.get(row,0), GrlConstants.TEST_F64);
+		}
+	}
+
 	@Test
 	public void getN_and_getM() {
 		SphereToPointSignedDistanceJacobian_F64 alg = new SphereToPointSignedDistanceJacobian_F64();
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry;
+
+import georegression.metric.Distance2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.PackedContour2D_I16;
+import georegression.struct.shapes.PackedContour2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_I32;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestUtilPackedContour2D {
+	Random rand = new Random(234);
+
+	@Test
+	public void area2() {
+		PackedContour2D_I32 square = new PackedContour2D_I32(0,0, 4,0, 4,3, 0,3);
+		assertEquals(24, UtilPackedContour2D.area2(square));
+		assertEquals(12, UtilPackedContour2D.area(square), 0);
+		assertTrue(UtilPackedContour2D.isCCW(square));
+
+		flip(square);
+		assertEquals(-24, UtilPackedContour2D.area2(square));
+		assertEquals(12, UtilPackedContour2D.area(square), 0);
+		assertFalse(UtilPackedContour2D.isCCW(square));
+
+		for (int trial = 0; trial < 20; trial++) {
+			PackedContour2D_I32 contour = randomStar(5 + rand.nextInt(50), 10, 1000);
+			Polygon2D_F64 poly = convert(contour);
+			assertEquals(poly.areaSimple(), UtilPackedContour2D.area(contour), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Coordinates where the products need more than 53-bits
+	 */
+	@Test
+	public void area2_large() {
+		int a = 1 << 29;
+		PackedContour2D_I32 contour = new PackedContour2D_I32(-a,-a, a,-a+1, a,a, -a+3,a);
+
+		BigInteger expected = BigInteger.ZERO;
+		for (int i = 0, j = contour.size-1; i < contour.size; j = i, i++) {
+			BigInteger xj = BigInteger.valueOf(contour.getX(j)), yj = BigInteger.valueOf(contour.getY(j));
+			BigInteger xi = BigInteger.valueOf(contour.getX(i)), yi = BigInteger.valueOf(contour.getY(i));
+			expected = expected.add(xj.multiply(yi)).subtract(xi.multiply(yj));
+		}
+		assertEquals(expected.longValueExact(), UtilPackedContour2D.area2(contour));
+	}
+
+	@Test
+	public void perimeter() {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(0,0, 3,4, 3,10);
+		assertEquals(11, UtilPackedContour2D.perimeter(contour, false), GrlConstants.TEST_F64);
+		assertEquals(11 + Math.sqrt(9 + 100), UtilPackedContour2D.perimeter(contour, true), GrlConstants.TEST_F64);
+
+		contour.reset();
+		assertEquals(0, UtilPackedContour2D.perimeter(contour, true), 0);
+	}
+
+	@Test
+	public void moments_rectangle() {
+		long w = 7, h = 3;
+		PackedContour2D_I32 contour = new PackedContour2D_I32(0,0, (int)w,0, (int)w,(int)h, 0,(int)h);
+		long[] moments = new long[6];
+		UtilPackedContour2D.moments(contour, moments);
+
+		assertEquals(2*w*h, moments[0]);
+		assertEquals(3*w*w*h, moments[1]);
+		assertEquals(3*w*h*h, moments[2]);
+		assertEquals(4*w*w*w*h, moments[3]);
+		assertEquals(6*w*w*h*h, moments[4]);
+		assertEquals(4*w*h*h*h, moments[5]);
+	}
+
+	/**
+	 * Central moments don't change when the polygon is translated
+	 */
+	@Test
+	public void moments_translate() {
+		long[] a = new long[6];
+		long[] b = new long[6];
+		for (int trial = 0; trial < 20; trial++) {
+			PackedContour2D_I32 contour = randomStar(5 + rand.nextInt(50), 10, 500);
+			UtilPackedContour2D.moments(contour, a);
+
+			int tx = rand.nextInt(10000) - 5000;
+			int ty = rand.nextInt(10000) - 5000;
+			for (int i = 0; i < contour.size; i++) {
+				contour.set(i, contour.getX(i) + tx, contour.getY(i) + ty);
+			}
+			UtilPackedContour2D.moments(contour, b);
+
+			// area doesn't change and the centroid moves
+			assertEquals(a[0], b[0]);
+			assertEquals(a[1] + 3*tx*a[0], b[1]);
+			assertEquals(a[2] + 3*ty*a[0], b[2]);
+
+			double[] ca = central(a);
+			double[] cb = central(b);
+			for (int i = 0; i < 3; i++) {
+				assertEquals(ca[i], cb[i], Math.abs(ca[i])*1e-8);
+			}
+		}
+	}
+
+	/**
+	 * Central second moments, computed from the scaled moments
+	 */
+	private static double[] central( long[] m ) {
+		double area = m[0]/2.0;
+		double cx = m[1]/(6.0*area);
+		double cy = m[2]/(6.0*area);
+		return new double[]{
+				m[3]/12.0 - area*cx*cx,
+				m[4]/24.0 - area*cx*cy,
+				m[5]/12.0 - area*cy*cy};
+	}
+
+	@Test
+	public void bounding() {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(2,3, 5,-1, 8,4);
+		Rectangle2D_I32 rect = new Rectangle2D_I32();
+		UtilPackedContour2D.bounding(contour, rect);
+		assertEquals(2, rect.x0);
+		assertEquals(-1, rect.y0);
+		assertEquals(9, rect.x1);
+		assertEquals(5, rect.y1);
+	}
+
+	@Test
+	public void isConvex() {
+		PackedContour2D_I32 square = new PackedContour2D_I32(0,0, 4,0, 4,3, 0,3);
+		assertTrue(UtilPackedContour2D.isConvex(square));
+		flip(square);
+		assertTrue(UtilPackedContour2D.isConvex(square));
+
+		// collinear and duplicate points are allowed
+		PackedContour2D_I32 collinear = new PackedContour2D_I32(0,0, 2,0, 4,0, 4,0, 4,3, 0,3);
+		assertTrue(UtilPackedContour2D.isConvex(collinear));
+
+		// concave
+		PackedContour2D_I32 concave = new PackedContour2D_I32(0,0, 4,0, 4,4, 2,1, 0,4);
+		assertFalse(UtilPackedContour2D.isConvex(concave));
+
+		// every turn is in the same direction but it winds around twice
+		PackedContour2D_I32 pentagram = new PackedContour2D_I32(0,10, -6,-8, 10,3, -10,3, 6,-8);
+		assertFalse(UtilPackedContour2D.isConvex(pentagram));
+
+		// all points on a line
+		PackedContour2D_I32 line = new PackedContour2D_I32(0,0, 1,1, 2,2);
+		assertFalse(UtilPackedContour2D.isConvex(line));
+
+		// star shaped polygons with alternating radius are concave
+		for (int trial = 0; trial < 20; trial++) {
+			PackedContour2D_I32 contour = new PackedContour2D_I32();
+			int N = 6 + 2*rand.nextInt(20);
+			for (int i = 0; i < N; i++) {
+				double theta = i*GrlConstants.PI2/N;
+				double r = i%2 == 0 ? 500 : 100;
+				contour.add((int)(r*Math.cos(theta)), (int)(r*Math.sin(theta)));
+			}
+			assertFalse(UtilPackedContour2D.isConvex(contour));
+		}
+	}
+
+	@Test
+	public void contains() {
+		Point2D_F64 p = new Point2D_F64();
+		for (int trial = 0; trial < 20; trial++) {
+			PackedContour2D_I32 contour = randomStar(5 + rand.nextInt(30), 10, 100);
+			if( rand.nextBoolean() )
+				flip(contour);
+			Polygon2D_F64 poly = convert(contour);
+
+			for (int i = 0; i < 200; i++) {
+				int x = rand.nextInt(240) - 120;
+				int y = rand.nextInt(240) - 120;
+				p.set(x, y);
+
+				boolean found = UtilPackedContour2D.contains(contour, x, y);
+				if( Distance2D_F64.distance(poly, p) <= GrlConstants.TEST_F64 )
+					assertTrue(found);
+				else
+					assertEquals(Intersection2D_F64.containConcaveRobust(poly, p), found);
+			}
+		}
+	}
+
+	@Test
+	public void contains_boundary() {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(0,0, 4,0, 4,4, 2,2, 0,4);
+		// vertexes
+		for (int i = 0; i < contour.size; i++) {
+			assertTrue(UtilPackedContour2D.contains(contour, contour.getX(i), contour.getY(i)));
+		}
+		// edges
+		assertTrue(UtilPackedContour2D.contains(contour, 2, 0));
+		assertTrue(UtilPackedContour2D.contains(contour, 4, 3));
+		assertTrue(UtilPackedContour2D.contains(contour, 3, 3));
+		assertTrue(UtilPackedContour2D.contains(contour, 1, 3));
+		// inside and outside
+		assertTrue(UtilPackedContour2D.contains(contour, 2, 1));
+		assertFalse(UtilPackedContour2D.contains(contour, 2, 3));
+		assertFalse(UtilPackedContour2D.contains(contour, 5, 0));
+		assertFalse(UtilPackedContour2D.contains(contour, -1, 2));
+	}
+
+	@Test
+	public void contains_large() {
+		int a = (1 << 30) - 1;
+		PackedContour2D_I32 contour = new PackedContour2D_I32(-a,-a, a,-a, a,a, -a,a);
+		assertTrue(UtilPackedContour2D.contains(contour, 0, 0));
+		assertTrue(UtilPackedContour2D.contains(contour, a, 0));
+		assertTrue(UtilPackedContour2D.contains(contour, a-1, a-1));
+		assertFalse(UtilPackedContour2D.contains(contour, a+1, 0));
+
+		// a thin sliver which needs more than 53-bits to resolve
+		contour = new PackedContour2D_I32(-a,-a, a,a-1, a,a);
+		assertFalse(UtilPackedContour2D.contains(contour, a-2, a-3));
+		assertTrue(UtilPackedContour2D.contains(contour, a-2, a-2));
+		assertTrue(UtilPackedContour2D.contains(contour, a, a-1));
+	}
+
+	/**
+	 * The same results should be found with a short array
+	 */
+	@Test
+	public void shortContour() {
+		PackedContour2D_I32 contour = randomStar(20, 10, 1000);
+		PackedContour2D_I16 contour16 = new PackedContour2D_I16();
+		contour16.set(contour);
+
+		assertEquals(UtilPackedContour2D.area2(contour), UtilPackedContour2D.area2(contour16));
+		assertEquals(UtilPackedContour2D.isConvex(contour), UtilPackedContour2D.isConvex(contour16));
+		assertEquals(UtilPackedContour2D.contains(contour, 3, 4), UtilPackedContour2D.contains(contour16, 3, 4));
+	}
+
+	private PackedContour2D_I32 randomStar( int N , double minR , double maxR ) {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(N);
+		for (int i = 0; i < N; i++) {
+			double theta = (i + rand.nextDouble()*0.8)*GrlConstants.PI2/N;
+			double r = minR + rand.nextDouble()*(maxR - minR);
+			contour.add((int)(r*Math.cos(theta)), (int)(r*Math.sin(theta)));
+		}
+		return contour;
+	}
+
+	private static void flip( PackedContour2D_I32 contour ) {
+		for (int i = 0, j = contour.size-1; i < j; i++, j--) {
+			int x = contour.getX(i), y = contour.getY(i);
+			contour.set(i, contour.getX(j), contour.getY(j));
+			contour.set(j, x, y);
+		}
+	}
+
+	private static Polygon2D_F64 convert( PackedContour2D_I32 contour ) {
+		Polygon2D_F64 poly = new Polygon2D_F64(contour.size);
+		for (int i = 0; i < contour.size; i++) {
+			poly.get(i).set(contour.getX(i), contour.getY(i));
+		}
+		return poly;
+	}
+}
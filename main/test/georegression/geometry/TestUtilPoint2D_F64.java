@@ -148,4 +148,23 @@ public class TestUtilPoint2D_F64 {
 		assertTrue(found.get(3) == input.get(3));
 	}
 
+	@Test
+	public void bounding_packed() {
+		List<Point2D_F64> list = new ArrayList<>();
+		double[] xy = new double[40];
+		for (int i = 0; i < 20; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextGaussian(),rand.nextGaussian());
+			list.add(p);
+			xy[i*2] = p.x;
+			xy[i*2+1] = p.y;
+		}
+
+		Rectangle2D_F64 expected = UtilPoint2D_F64.bounding(list,(Rectangle2D_F64)null);
+		Rectangle2D_F64 found = UtilPoint2D_F64.bounding(xy,20,null);
+
+		assertEquals(expected.p0.x,found.p0.x,0);
+		assertEquals(expected.p0.y,found.p0.y,0);
+		assertEquals(expected.p1.x,found.p1.x,0);
+		assertEquals(expected.p1.y,found.p1.y,0);
+	}
 }
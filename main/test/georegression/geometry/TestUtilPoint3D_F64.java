@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -58,4 +59,25 @@ public class TestUtilPoint3D_F64 {
 		assertEquals(0,cube.getP0().distance(list.get(0)),GrlConstants.TEST_F64);
 		assertEquals(0,cube.getP1().distance(new Point3D_F64(2,3,5)),1e-8);
 	}
+
+	@Test
+	public void boundingBox_packed() {
+		List<Point3D_F64> list = new ArrayList<>();
+		double[] xyz = new double[60];
+		for (int i = 0; i < 20; i++) {
+			Point3D_F64 p = new Point3D_F64(i*0.5-3,(i*7)%5-2,i%7);
+			list.add(p);
+			xyz[i*3] = p.x;
+			xyz[i*3+1] = p.y;
+			xyz[i*3+2] = p.z;
+		}
+
+		Box3D_F64 expected = new Box3D_F64();
+		Box3D_F64 found = new Box3D_F64();
+		UtilPoint3D_F64.boundingBox(list,expected);
+		UtilPoint3D_F64.boundingBox(xyz,20,found);
+
+		assertTrue(expected.p0.isIdentical(found.p0,0));
+		assertTrue(expected.p1.isIdentical(found.p1,0));
+	}
 }
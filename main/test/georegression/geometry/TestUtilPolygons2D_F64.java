@@ -184,6 +184,24 @@ public class TestUtilPolygons2D_F64 {
 		assertEquals(expected.y, found.y, TEST_F64);
 	}
 
+	@Test
+	public void isConvexRobust() {
+		Polygon2D_F64 a = new Polygon2D_F64(0, 0, 5, 5, -5, 5);
+		assertTrue(UtilPolygons2D_F64.isConvexRobust(a));
+		a.flip();
+		assertTrue(UtilPolygons2D_F64.isConvexRobust(a));
+
+		Polygon2D_F64 b = new Polygon2D_F64(0, 0, 0, 5, -5, 5, -5, 0);
+		assertTrue(UtilPolygons2D_F64.isConvexRobust(b));
+		b.flip();
+		assertTrue(UtilPolygons2D_F64.isConvexRobust(b));
+
+		Polygon2D_F64 c = new Polygon2D_F64(0, 0, 0, 5, -5, 5, -0.1, 4.5);
+		assertFalse(UtilPolygons2D_F64.isConvexRobust(c));
+		c.flip();
+		assertFalse(UtilPolygons2D_F64.isConvexRobust(c));
+	}
+
 	@Test
 	public void isCCW() {
 		// check convex case
@@ -201,6 +219,23 @@ public class TestUtilPolygons2D_F64 {
 		assertFalse(UtilPolygons2D_F64.isCCW(reverse(list)));
 	}
 
+	@Test
+	public void isCCWRobust() {
+		// check convex case
+		List<Point2D_F64> list = new ArrayList<Point2D_F64>();
+		list.add(new Point2D_F64(1, 1));
+		list.add(new Point2D_F64(2, 1));
+		list.add(new Point2D_F64(2, 2));
+		assertTrue(UtilPolygons2D_F64.isCCWRobust(list));
+		assertFalse(UtilPolygons2D_F64.isCCWRobust(reverse(list)));
+
+		// check concave case
+		list.add(new Point2D_F64(1, 2));
+		list.add(new Point2D_F64(1.5, 1.5));
+		assertTrue(UtilPolygons2D_F64.isCCWRobust(list));
+		assertFalse(UtilPolygons2D_F64.isCCWRobust(reverse(list)));
+	}
+
 	@Test
 	public void vertexAverage() {
 
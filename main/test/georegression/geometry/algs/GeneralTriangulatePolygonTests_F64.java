@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public abstract class GeneralTriangulatePolygonTests_F64 {
+	Random rand = new Random(234);
+
+	GrowQueue_I32 triangles = new GrowQueue_I32();
+	List<Polygon2D_F64> holes = new ArrayList<>();
+	List<Point2D_F64> vertexes = new ArrayList<>();
+
+	abstract void process( Polygon2D_F64 outer , List<Polygon2D_F64> holes , GrowQueue_I32 triangles );
+
+	@Test
+	public void square() {
+		Polygon2D_F64 square = new Polygon2D_F64(0,0, 1,0, 1,1, 0,1);
+		check(square, 2, 1);
+
+		// orientation of the input shouldn't matter
+		square.flip();
+		check(square, 2, 1);
+	}
+
+	@Test
+	public void concave() {
+		Polygon2D_F64 poly = new Polygon2D_F64(0,0, 4,0, 4,4, 3,4, 3,1, 1,1, 1,4, 0,4);
+		check(poly, 6, 16 - 6);
+	}
+
+	/**
+	 * Lots of split and merge vertexes
+	 */
+	@Test
+	public void comb() {
+		Polygon2D_F64 poly = new Polygon2D_F64();
+		int teeth = 10;
+		for (int i = 0; i < teeth; i++) {
+			poly.vertexes.grow().set(i*2, 0);
+			poly.vertexes.grow().set(i*2+1, 3);
+		}
+		poly.vertexes.grow().set(teeth*2, 0);
+		poly.vertexes.grow().set(teeth*2, -1);
+		poly.vertexes.grow().set(0, -1);
+
+		// same shape upside down and sideways
+		for (int rotation = 0; rotation < 4; rotation++) {
+			check(poly, poly.size() - 2, poly.areaSimple());
+			for (int i = 0; i < poly.size(); i++) {
+				Point2D_F64 p = poly.get(i);
+				p.set(-p.y, p.x);
+			}
+		}
+	}
+
+	/**
+	 * Extra vertexes along the edges
+	 */
+	@Test
+	public void collinear() {
+		Polygon2D_F64 poly = new Polygon2D_F64(0,0, 1,0, 2,0, 3,0, 3,1, 3,2, 2,2, 1,2, 0,2, 0,1);
+		process(poly, holes, triangles);
+		checkTriangles(poly, 6);
+	}
+
+	@Test
+	public void randomStar() {
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 poly = randomStar(5 + rand.nextInt(100), 0, 0, 1, 10);
+			check(poly, poly.size() - 2, poly.areaSimple());
+		}
+	}
+
+	@Test
+	public void squareHole() {
+		Polygon2D_F64 outer = new Polygon2D_F64(0,0, 4,0, 4,4, 0,4);
+		holes.add(new Polygon2D_F64(1,1, 1,3, 3,3, 3,1));
+		check(outer, 8, 16 - 4);
+
+		// hole vertexes are aligned with the outer contour's
+		holes.clear();
+		holes.add(new Polygon2D_F64(1,1, 3,1, 3,3, 1,3));
+		outer = new Polygon2D_F64(0,1, 1,0, 3,0, 4,1, 4,3, 3,4, 1,4, 0,3);
+		check(outer, 8 + 4 + 2 - 2, outer.areaSimple() - 4);
+	}
+
+	@Test
+	public void randomHoles() {
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 outer = randomStar(30, 0, 0, 8, 10);
+			holes.clear();
+			double area = outer.areaSimple();
+			int total = outer.size();
+
+			// holes along a circle so they don't touch
+			int numHoles = 1 + rand.nextInt(6);
+			for (int i = 0; i < numHoles; i++) {
+				double theta = i*GrlConstants.PI2/numHoles;
+				double c = Math.cos(theta);
+				double s = Math.sin(theta);
+				Polygon2D_F64 hole = randomStar(3 + rand.nextInt(10), 5*c, 5*s, 0.5, 1.5);
+				holes.add(hole);
+				area -= hole.areaSimple();
+				total += hole.size();
+			}
+
+			check(outer, total + 2*numHoles - 2, area);
+		}
+	}
+
+	/**
+	 * Calling it multiple times should produce the same result
+	 */
+	@Test
+	public void reuse() {
+		Polygon2D_F64 poly = randomStar(40, 0, 0, 1, 10);
+		process(poly, holes, triangles);
+		GrowQueue_I32 expected = triangles.copy();
+
+		process(new Polygon2D_F64(0,0, 1,0, 1,1), holes, triangles);
+		process(poly, holes, triangles);
+		assertEquals(expected.size, triangles.size);
+		for (int i = 0; i < expected.size; i++) {
+			assertEquals(expected.get(i), triangles.get(i));
+		}
+	}
+
+	private void check( Polygon2D_F64 outer , int expectedTriangles , double expectedArea ) {
+		process(outer, holes, triangles);
+		assertEquals(expectedTriangles*3, triangles.size);
+		checkTriangles(outer, expectedArea);
+	}
+
+	/**
+	 * Triangles must be counter-clockwise, inside the polygon, and their total area the polygon's area
+	 */
+	private void checkTriangles( Polygon2D_F64 outer , double expectedArea ) {
+		vertexes.clear();
+		vertexes.addAll(outer.vertexes.toList());
+		for (int i = 0; i < holes.size(); i++) {
+			vertexes.addAll(holes.get(i).vertexes.toList());
+		}
+
+		double total = 0;
+		Point2D_F64 center = new Point2D_F64();
+		for (int i = 0; i < triangles.size; i += 3) {
+			Point2D_F64 a = vertexes.get(triangles.get(i));
+			Point2D_F64 b = vertexes.get(triangles.get(i+1));
+			Point2D_F64 c = vertexes.get(triangles.get(i+2));
+
+			double area = ((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2;
+			assertTrue(area >= 0);
+			total += area;
+
+			if( area > GrlConstants.TEST_F64 ) {
+				center.set((a.x + b.x + c.x)/3, (a.y + b.y + c.y)/3);
+				assertTrue(Intersection2D_F64.containConcaveRobust(outer, center));
+				for (int j = 0; j < holes.size(); j++) {
+					assertFalse(Intersection2D_F64.containConcaveRobust(holes.get(j), center));
+				}
+			}
+		}
+		assertEquals(expectedArea, total, GrlConstants.TEST_F64*expectedArea);
+	}
+
+	private Polygon2D_F64 randomStar( int N , double cx , double cy , double minR , double maxR ) {
+		Polygon2D_F64 poly = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double theta = (i + rand.nextDouble()*0.8)*GrlConstants.PI2/N;
+			double r = minR + rand.nextDouble()*(maxR - minR);
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			poly.get(i).set(cx + r*c, cy + r*s);
+		}
+		return poly;
+	}
+}
@@ -19,6 +19,7 @@
 package georegression.geometry.algs;
 
 import georegression.geometry.UtilPolygons2D_F64;
+import georegression.geometry.predicates.RobustPredicates;
 import georegression.metric.Intersection2D_F64;
 import georegression.misc.GrlConstants;
 import georegression.struct.point.Point2D_F64;
@@ -177,6 +178,50 @@ public class TestAndrewMonotoneConvexHull_F64 {
 		}
 	}
 
+	/**
+	 * Points which are almost collinear. Round off errors in the orientation test can cause the regular hull to
+	 * be malformed. With the robust test the hull must be strictly convex and contain every point.
+	 */
+	@Test
+	public void robust_nearlyCollinear() {
+		AndrewMonotoneConvexHull_F64 alg = new AndrewMonotoneConvexHull_F64();
+		alg.setRobust(true);
+		Polygon2D_F64 output = new Polygon2D_F64();
+
+		int N = 40;
+		Point2D_F64 data[] = new Point2D_F64[N+2];
+		for (int i = 0; i < N; i++) {
+			double x = 0.5 + rand.nextInt(64)*Math.ulp(0.5);
+			double y = 0.5 + rand.nextInt(64)*Math.ulp(0.5);
+			data[i] = new Point2D_F64(x,y);
+		}
+		data[N] = new Point2D_F64(12,12);
+		data[N+1] = new Point2D_F64(24,24);
+
+		alg.process(data,data.length,output);
+
+		int M = output.size();
+		assertTrue(M >= 2);
+		if( M >= 3 ) {
+			// strictly convex and counter clockwise
+			for (int i = 0; i < M; i++) {
+				Point2D_F64 a = output.get(i);
+				Point2D_F64 b = output.get((i+1)%M);
+				Point2D_F64 c = output.get((i+2)%M);
+				assertTrue(RobustPredicates.orient2d(a.x,a.y,b.x,b.y,c.x,c.y) > 0);
+			}
+			// every point is inside or on the hull
+			for (int i = 0; i < data.length; i++) {
+				Point2D_F64 p = data[i];
+				for (int j = 0; j < M; j++) {
+					Point2D_F64 a = output.get(j);
+					Point2D_F64 b = output.get((j+1)%M);
+					assertTrue(RobustPredicates.orient2d(a.x,a.y,b.x,b.y,p.x,p.y) >= 0);
+				}
+			}
+		}
+	}
+
 	private void containsOnceEach( Point2D_F64[] expected , Polygon2D_F64 output ) {
 
 		assertTrue(UtilPolygons2D_F64.isConvex(output));
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.UtilPackedContour2D;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.PackedContour2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAndrewMonotoneConvexHull_I32 {
+	Random rand = new Random(234);
+
+	AndrewMonotoneConvexHull_I32 alg = new AndrewMonotoneConvexHull_I32();
+	PackedContour2D_I32 hull = new PackedContour2D_I32();
+
+	@Test
+	public void encode() {
+		int[] values = {Integer.MIN_VALUE, -5, -1, 0, 1, 7, Integer.MAX_VALUE};
+		for (int x : values) {
+			for (int y : values) {
+				long key = AndrewMonotoneConvexHull_I32.encode(x, y);
+				assertEquals(x, AndrewMonotoneConvexHull_I32.decodeX(key));
+				assertEquals(y, AndrewMonotoneConvexHull_I32.decodeY(key));
+			}
+		}
+
+		// sorts by x then y
+		assertTrue(AndrewMonotoneConvexHull_I32.encode(-1, 5) < AndrewMonotoneConvexHull_I32.encode(0, -5));
+		assertTrue(AndrewMonotoneConvexHull_I32.encode(0, -5) < AndrewMonotoneConvexHull_I32.encode(0, 5));
+		assertTrue(AndrewMonotoneConvexHull_I32.encode(0, -1) < AndrewMonotoneConvexHull_I32.encode(0, 0));
+	}
+
+	@Test
+	public void square() {
+		PackedContour2D_I32 input = new PackedContour2D_I32(0,0, 2,1, 4,4, 0,4, 4,0, 1,3, 2,0, 4,2, 4,4);
+		alg.process(input, hull);
+
+		assertEquals(4, hull.size);
+		checkHull(input);
+	}
+
+	@Test
+	public void degenerate() {
+		PackedContour2D_I32 input = new PackedContour2D_I32();
+		alg.process(input, hull);
+		assertEquals(0, hull.size);
+
+		input.add(3, 4);
+		input.add(3, 4);
+		alg.process(input, hull);
+		assertEquals(1, hull.size);
+
+		input.add(5, 6);
+		alg.process(input, hull);
+		assertEquals(2, hull.size);
+
+		// all collinear
+		input = new PackedContour2D_I32(0,0, 3,3, 1,1, 2,2);
+		alg.process(input, hull);
+		assertEquals(2, hull.size);
+		assertEquals(0, hull.getX(0));
+		assertEquals(3, hull.getX(1));
+	}
+
+	@Test
+	public void random_compare() {
+		AndrewMonotoneConvexHull_F64 algF64 = new AndrewMonotoneConvexHull_F64();
+		Polygon2D_F64 expected = new Polygon2D_F64();
+
+		for (int trial = 0; trial < 50; trial++) {
+			int N = 3 + rand.nextInt(200);
+			PackedContour2D_I32 input = new PackedContour2D_I32(N);
+			Point2D_F64[] points = new Point2D_F64[N];
+			for (int i = 0; i < N; i++) {
+				input.add(rand.nextInt(100) - 50, rand.nextInt(100) - 50);
+				points[i] = new Point2D_F64(input.getX(i), input.getY(i));
+			}
+
+			algF64.process(points, N, expected);
+			alg.process(input, hull);
+
+			// the floating point version can keep collinear points
+			assertTrue(hull.size <= expected.size());
+			checkHull(input);
+			for (int i = 0; i < hull.size; i++) {
+				boolean matched = false;
+				for (int j = 0; j < expected.size(); j++) {
+					Point2D_F64 p = expected.get(j);
+					if( p.x == hull.getX(i) && p.y == hull.getY(i) )
+						matched = true;
+				}
+				assertTrue(matched);
+			}
+		}
+	}
+
+	/**
+	 * Coordinates where the orientation test would fail with doubles
+	 */
+	@Test
+	public void large() {
+		int a = (1 << 30) - 1;
+		PackedContour2D_I32 input = new PackedContour2D_I32(-a,-a, a,a-1, a,a, 0,0, -a,-a+1);
+		alg.process(input, hull);
+		assertEquals(4, hull.size);
+		checkHull(input);
+	}
+
+	/**
+	 * The hull must be strictly convex, counter-clockwise, and contain all the input points
+	 */
+	private void checkHull( PackedContour2D_I32 input ) {
+		assertTrue(UtilPackedContour2D.isConvex(hull));
+		assertTrue(UtilPackedContour2D.isCCW(hull));
+		for (int i = 0; i < hull.size; i++) {
+			int j = (i+1)%hull.size;
+			int k = (i+2)%hull.size;
+			long cross = (long)(hull.getX(j) - hull.getX(i))*(hull.getY(k) - hull.getY(i)) -
+					(long)(hull.getY(j) - hull.getY(i))*(hull.getX(k) - hull.getX(i));
+			assertTrue(cross > 0);
+		}
+		for (int i = 0; i < input.size; i++) {
+			assertTrue(UtilPackedContour2D.contains(hull, input.getX(i), input.getY(i)));
+		}
+	}
+}
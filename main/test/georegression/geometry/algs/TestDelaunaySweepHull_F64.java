@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.predicates.RobustPredicates;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.TriangleMesh2D;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDelaunaySweepHull_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void randomPoints() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		for (int numPoints = 3; numPoints < 200; numPoints += 13) {
+			double[] xy = new double[numPoints*2];
+			for (int i = 0; i < xy.length; i++) {
+				xy[i] = rand.nextGaussian()*10;
+			}
+
+			alg.process(xy, numPoints, mesh);
+			checkTriangulation(xy, numPoints, mesh, true);
+		}
+	}
+
+	/**
+	 * A grid has many points which lie on the same circle and on the same line
+	 */
+	@Test
+	public void grid() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		int rows = 11, cols = 13;
+		double[] xy = new double[rows*cols*2];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				xy[(i*cols+j)*2] = j*0.1 - 0.5;
+				xy[(i*cols+j)*2+1] = i*0.1 + 0.3;
+			}
+		}
+
+		alg.process(xy, rows*cols, mesh);
+		checkTriangulation(xy, rows*cols, mesh, true);
+		assertEquals(2*(rows-1)*(cols-1), mesh.size());
+	}
+
+	/**
+	 * All the points lie on the same circle
+	 */
+	@Test
+	public void cocircular() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		int N = 24;
+		double[] xy = new double[N*2];
+		int[][] pts = {{5,0},{4,3},{3,4},{0,5},{-3,4},{-4,3},{-5,0},{-4,-3},{-3,-4},{0,-5},{3,-4},{4,-3}};
+		N = pts.length;
+		for (int i = 0; i < N; i++) {
+			xy[i*2] = pts[i][0];
+			xy[i*2+1] = pts[i][1];
+		}
+
+		alg.process(xy, N, mesh);
+		checkTriangulation(xy, N, mesh, true);
+		assertEquals(N-2, mesh.size());
+		assertEquals(N, mesh.hull.size);
+	}
+
+	@Test
+	public void duplicates() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		int unique = 50;
+		int N = unique*2;
+		double[] xy = new double[N*2];
+		for (int i = 0; i < unique; i++) {
+			xy[i*2] = rand.nextDouble();
+			xy[i*2+1] = rand.nextDouble();
+		}
+		for (int i = unique; i < N; i++) {
+			int src = rand.nextInt(unique);
+			xy[i*2] = xy[src*2];
+			xy[i*2+1] = xy[src*2+1];
+		}
+
+		alg.process(xy, N, mesh);
+		checkTriangulation(xy, N, mesh, false);
+
+		// each unique point should be referenced exactly once
+		boolean[] used = new boolean[N];
+		for (int i = 0; i < mesh.triangles.size; i++) {
+			used[mesh.triangles.get(i)] = true;
+		}
+		for (int i = 0; i < unique; i++) {
+			int count = 0;
+			for (int j = 0; j < N; j++) {
+				if( used[j] && xy[j*2] == xy[i*2] && xy[j*2+1] == xy[i*2+1] )
+					count++;
+			}
+			assertEquals(1, count);
+		}
+	}
+
+	@Test
+	public void collinear() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		double[] xy = new double[]{3,6, 1,2, 2,4, 0,0, 1,2, 4,8};
+		alg.process(xy, 6, mesh);
+
+		assertEquals(0, mesh.size());
+		assertEquals(5, mesh.hull.size);
+		for (int i = 1; i < mesh.hull.size; i++) {
+			assertTrue(xy[mesh.hull.get(i)*2] > xy[mesh.hull.get(i-1)*2]);
+		}
+	}
+
+	/**
+	 * The points are exactly collinear but round off error makes the circumcircle of the seed triangle finite.
+	 * The collinear case must be detected with the robust predicate.
+	 */
+	@Test
+	public void collinearRoundOff() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		double[] xy = new double[]{4.067926551165613E-15, 8.135853102331225E-16, 45, 9, 60, 12};
+		alg.process(xy, 3, mesh);
+
+		assertEquals(0, mesh.size());
+		assertEquals(3, mesh.hull.size);
+	}
+
+	@Test
+	public void fewPoints() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		alg.process(new double[0], 0, mesh);
+		assertEquals(0, mesh.size());
+		assertEquals(0, mesh.hull.size);
+
+		alg.process(new double[]{1,2}, 1, mesh);
+		assertEquals(0, mesh.size());
+		assertEquals(1, mesh.hull.size);
+
+		alg.process(new double[]{1,2, 3,4}, 2, mesh);
+		assertEquals(0, mesh.size());
+		assertEquals(2, mesh.hull.size);
+
+		// clockwise input
+		double[] xy = new double[]{0,0, 0,1, 1,0};
+		alg.process(xy, 3, mesh);
+		assertEquals(1, mesh.size());
+		checkTriangulation(xy, 3, mesh, true);
+	}
+
+	@Test
+	public void list() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		List<Point2D_F64> points = new ArrayList<>();
+		double[] xy = new double[60];
+		for (int i = 0; i < 30; i++) {
+			points.add(new Point2D_F64(rand.nextGaussian(), rand.nextGaussian()));
+			xy[i*2] = points.get(i).x;
+			xy[i*2+1] = points.get(i).y;
+		}
+
+		alg.process(points, mesh);
+		TriangleMesh2D expected = new TriangleMesh2D();
+		alg.process(xy, 30, expected);
+
+		assertEquals(expected.triangles.size, mesh.triangles.size);
+		for (int i = 0; i < mesh.triangles.size; i++) {
+			assertEquals(expected.triangles.get(i), mesh.triangles.get(i));
+			assertEquals(expected.halfedges.get(i), mesh.halfedges.get(i));
+		}
+	}
+
+	/**
+	 * Process a large set then a small set to make sure stale data in the buffers causes no problems
+	 */
+	@Test
+	public void reuseBuffers() {
+		DelaunaySweepHull_F64 alg = new DelaunaySweepHull_F64();
+		TriangleMesh2D mesh = new TriangleMesh2D();
+
+		for (int numPoints : new int[]{500, 20, 300}) {
+			double[] xy = new double[numPoints*2];
+			for (int i = 0; i < xy.length; i++) {
+				xy[i] = rand.nextDouble()*100;
+			}
+			alg.process(xy, numPoints, mesh);
+			checkTriangulation(xy, numPoints, mesh, true);
+		}
+	}
+
+	/**
+	 * Checks the orientation, adjacency, Delaunay condition, and the hull
+	 */
+	static void checkTriangulation( double[] xy , int numPoints , TriangleMesh2D mesh , boolean allUnique ) {
+		int[] tri = mesh.triangles.data;
+		int[] half = mesh.halfedges.data;
+		assertEquals(mesh.triangles.size, mesh.halfedges.size);
+
+		// triangles are counter-clockwise
+		for (int t = 0; t < mesh.size(); t++) {
+			int a = tri[t*3], b = tri[t*3+1], c = tri[t*3+2];
+			assertTrue(orient(xy, a, b, c) > 0);
+		}
+
+		int boundary = 0;
+		for (int e = 0; e < mesh.triangles.size; e++) {
+			int o = half[e];
+			if( o == -1 ) {
+				boundary++;
+				continue;
+			}
+			// adjacency is symmetric and the edges go in opposite directions
+			assertEquals(e, half[o]);
+			assertEquals(tri[e], tri[TriangleMesh2D.next(o)]);
+			assertEquals(tri[TriangleMesh2D.next(e)], tri[o]);
+
+			// Delaunay condition
+			int a = tri[e], b = tri[TriangleMesh2D.next(e)], c = tri[TriangleMesh2D.prev(e)];
+			int d = tri[TriangleMesh2D.prev(o)];
+			assertTrue(RobustPredicates.incircle(
+					xy[a*2], xy[a*2+1], xy[b*2], xy[b*2+1], xy[c*2], xy[c*2+1], xy[d*2], xy[d*2+1]) <= 0);
+		}
+
+		// hull is convex, counter-clockwise, and made up of boundary edges
+		int H = mesh.hull.size;
+		assertEquals(H, boundary);
+		for (int i = 0; i < H; i++) {
+			int a = mesh.hull.get(i), b = mesh.hull.get((i+1)%H);
+			int c = mesh.hull.get((i+2)%H);
+			assertTrue(orient(xy, a, b, c) >= 0);
+			for (int j = 0; j < numPoints; j++) {
+				assertTrue(orient(xy, a, b, j) >= 0);
+			}
+		}
+
+		if( allUnique ) {
+			// Euler's formula
+			assertEquals(2*numPoints - 2 - H, mesh.size());
+		}
+	}
+
+	static int orient( double[] xy , int a , int b , int c ) {
+		return (int)Math.signum(RobustPredicates.orient2d(xy[a*2], xy[a*2+1], xy[b*2], xy[b*2+1], xy[c*2], xy[c*2+1]));
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Vector3D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestEigenSymmetric3x3_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void random() {
+		for (int trial = 0; trial < 100; trial++) {
+			// construct a matrix from a random rotation and eigenvalues
+			Vector3D_F64 v0 = randomUnit();
+			Vector3D_F64 v1 = v0.cross(randomUnit());
+			v1.normalize();
+			Vector3D_F64 v2 = v0.cross(v1);
+
+			double l0 = rand.nextDouble()*10-5;
+			double l1 = rand.nextDouble()*10-5;
+			double l2 = rand.nextDouble()*10-5;
+
+			double[] A = compose(v0,v1,v2,l0,l1,l2);
+			check(A);
+		}
+	}
+
+	@Test
+	public void diagonal() {
+		check(new double[]{1,0,0, 3,0, 2});
+		check(new double[]{0,0,0, 0,0, 0});
+		check(new double[]{2,0,0, 2,0, 2});
+	}
+
+	/**
+	 * Two of the eigenvalues are the same
+	 */
+	@Test
+	public void repeated() {
+		Vector3D_F64 v0 = randomUnit();
+		Vector3D_F64 v1 = v0.cross(randomUnit());
+		v1.normalize();
+		Vector3D_F64 v2 = v0.cross(v1);
+
+		check(compose(v0,v1,v2,2,2,0.5));
+		check(compose(v0,v1,v2,2,0.5,0.5));
+	}
+
+	/**
+	 * Covariance of points that lie on a plane. Smallest eigenvalue is zero
+	 */
+	@Test
+	public void planar() {
+		Vector3D_F64 v0 = randomUnit();
+		Vector3D_F64 v1 = v0.cross(randomUnit());
+		v1.normalize();
+		Vector3D_F64 v2 = v0.cross(v1);
+
+		double[] A = compose(v0,v1,v2,3,1,0);
+		check(A);
+
+		Vector3D_F64 found = new Vector3D_F64();
+		double[] values = new double[3];
+		EigenSymmetric3x3_F64.eigenvalues(A[0],A[1],A[2],A[3],A[4],A[5],values);
+		EigenSymmetric3x3_F64.eigenvector(A[0],A[1],A[2],A[3],A[4],A[5],values[2],found);
+		assertEquals(1,Math.abs(found.dot(v2)),GrlConstants.TEST_SQ_F64);
+	}
+
+	private Vector3D_F64 randomUnit() {
+		Vector3D_F64 v = new Vector3D_F64(rand.nextGaussian(),rand.nextGaussian(),rand.nextGaussian());
+		v.normalize();
+		return v;
+	}
+
+	/**
+	 * Upper triangle of V*diag(l)*V'
+	 */
+	private double[] compose( Vector3D_F64 v0 , Vector3D_F64 v1 , Vector3D_F64 v2 ,
+							  double l0 , double l1 , double l2 ) {
+		Vector3D_F64[] v = new Vector3D_F64[]{v0,v1,v2};
+		double[] l = new double[]{l0,l1,l2};
+		double[] A = new double[6];
+		int[] rows = new int[]{0,0,0,1,1,2};
+		int[] cols = new int[]{0,1,2,1,2,2};
+		for (int i = 0; i < 6; i++) {
+			double sum = 0;
+			for (int k = 0; k < 3; k++) {
+				sum += l[k]*v[k].getIndex(rows[i])*v[k].getIndex(cols[i]);
+			}
+			A[i] = sum;
+		}
+		return A;
+	}
+
+	/**
+	 * Sees if the eigenvalues are sorted and A*v = lambda*v for each eigenvector
+	 */
+	private void check( double[] A ) {
+		double[] values = new double[3];
+		EigenSymmetric3x3_F64.eigenvalues(A[0],A[1],A[2],A[3],A[4],A[5],values);
+
+		assertTrue(values[0] >= values[1]);
+		assertTrue(values[1] >= values[2]);
+
+		// trace is the sum of eigenvalues
+		assertEquals(A[0]+A[3]+A[5],values[0]+values[1]+values[2],GrlConstants.TEST_SQ_F64);
+
+		Vector3D_F64 v = new Vector3D_F64();
+		for (int i = 0; i < 3; i++) {
+			EigenSymmetric3x3_F64.eigenvector(A[0],A[1],A[2],A[3],A[4],A[5],values[i],v);
+			assertEquals(1,v.norm(),GrlConstants.TEST_F64);
+
+			double x = A[0]*v.x + A[1]*v.y + A[2]*v.z;
+			double y = A[1]*v.x + A[3]*v.y + A[4]*v.z;
+			double z = A[2]*v.x + A[4]*v.y + A[5]*v.z;
+
+			assertEquals(values[i]*v.x,x,GrlConstants.TEST_SQ_F64);
+			assertEquals(values[i]*v.y,y,GrlConstants.TEST_SQ_F64);
+			assertEquals(values[i]*v.z,z,GrlConstants.TEST_SQ_F64);
+		}
+	}
+}
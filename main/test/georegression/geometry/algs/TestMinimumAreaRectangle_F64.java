@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.metric.Area2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Quadrilateral_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMinimumAreaRectangle_F64 {
+	Random rand = new Random(234);
+
+	MinimumAreaRectangle_F64 alg = new MinimumAreaRectangle_F64();
+	Quadrilateral_F64 found = new Quadrilateral_F64();
+
+	/**
+	 * Points are sampled inside a rotated rectangle and along its sides
+	 */
+	@Test
+	public void rotatedRectangle() {
+		for (int trial = 0; trial < 20; trial++) {
+			double theta = rand.nextDouble()*GrlConstants.PI;
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			double w = 1 + rand.nextDouble()*5;
+			double h = 1 + rand.nextDouble()*5;
+
+			List<Point2D_F64> points = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				double x = rand.nextDouble()*w;
+				double y = rand.nextDouble()*h;
+				if( i < 4 ) {
+					x = i%2 == 0 ? 0 : w;
+					y = i/2 == 0 ? 0 : h;
+				}
+				points.add(new Point2D_F64(2 + c*x - s*y, -1 + s*x + c*y));
+			}
+
+			assertTrue(alg.process(points, found));
+			assertEquals(w*h, alg.getArea(), GrlConstants.TEST_F64);
+			assertEquals(w*h, Area2D_F64.quadrilateral(found), GrlConstants.TEST_F64);
+			checkContains(points);
+
+			// every corner should be one of the sampled corners
+			for (Point2D_F64 corner : new Point2D_F64[]{found.a, found.b, found.c, found.d}) {
+				double best = Double.MAX_VALUE;
+				for (int i = 0; i < 4; i++) {
+					best = Math.min(best, corner.distance(points.get(i)));
+				}
+				assertEquals(0, best, GrlConstants.TEST_F64);
+			}
+		}
+	}
+
+	/**
+	 * Compare against trying every possible edge direction
+	 */
+	@Test
+	public void compareToBruteForce() {
+		for (int trial = 0; trial < 50; trial++) {
+			List<Point2D_F64> points = new ArrayList<>();
+			int N = 3 + rand.nextInt(200);
+			for (int i = 0; i < N; i++) {
+				points.add(new Point2D_F64(rand.nextGaussian()*3, rand.nextGaussian()));
+			}
+
+			assertTrue(alg.process(points, found));
+			double expected = bruteForce(alg.getHull());
+			assertEquals(expected, alg.getArea(), GrlConstants.TEST_F64*expected);
+			assertEquals(expected, Area2D_F64.quadrilateral(found), GrlConstants.TEST_F64*expected);
+			checkContains(points);
+		}
+	}
+
+	@Test
+	public void polygon() {
+		Polygon2D_F64 poly = new Polygon2D_F64(0,0, 2,2, 1,3, -1,1);
+		assertTrue(alg.process(poly, found));
+		assertEquals(Math.sqrt(8)*Math.sqrt(2), alg.getArea(), GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void degenerate() {
+		List<Point2D_F64> points = new ArrayList<>();
+		assertFalse(alg.process(points, found));
+
+		points.add(new Point2D_F64(1, 2));
+		assertTrue(alg.process(points, found));
+		assertEquals(0, found.a.distance(1, 2), GrlConstants.TEST_F64);
+		assertEquals(0, found.c.distance(1, 2), GrlConstants.TEST_F64);
+
+		// points along a line
+		points.add(new Point2D_F64(3, 4));
+		points.add(new Point2D_F64(2, 3));
+		assertTrue(alg.process(points, found));
+		assertEquals(0, alg.getArea(), GrlConstants.TEST_F64);
+		checkContains(points);
+	}
+
+	/**
+	 * The rectangle should be counter-clockwise and contain all the points
+	 */
+	private void checkContains( List<Point2D_F64> points ) {
+		Point2D_F64[] corners = new Point2D_F64[]{found.a, found.b, found.c, found.d};
+		for (int i = 0; i < 4; i++) {
+			Point2D_F64 a = corners[i];
+			Point2D_F64 b = corners[(i+1)%4];
+			for (int j = 0; j < points.size(); j++) {
+				Point2D_F64 p = points.get(j);
+				double cross = (b.x - a.x)*(p.y - a.y) - (b.y - a.y)*(p.x - a.x);
+				assertTrue(cross >= -GrlConstants.TEST_F64);
+			}
+		}
+	}
+
+	private double bruteForce( Polygon2D_F64 hull ) {
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i < hull.size(); i++) {
+			Point2D_F64 a = hull.get(i);
+			Point2D_F64 b = hull.get((i+1)%hull.size());
+			double length = a.distance(b);
+			double ux = (b.x - a.x)/length, uy = (b.y - a.y)/length;
+
+			double minU = Double.MAX_VALUE, maxU = -Double.MAX_VALUE;
+			double minV = Double.MAX_VALUE, maxV = -Double.MAX_VALUE;
+			for (int j = 0; j < hull.size(); j++) {
+				Point2D_F64 p = hull.get(j);
+				double u = p.x*ux + p.y*uy;
+				double v = -p.x*uy + p.y*ux;
+				minU = Math.min(minU, u); maxU = Math.max(maxU, u);
+				minV = Math.min(minV, v); maxV = Math.max(maxV, v);
+			}
+			best = Math.min(best, (maxU - minU)*(maxV - minV));
+		}
+		return best;
+	}
+}
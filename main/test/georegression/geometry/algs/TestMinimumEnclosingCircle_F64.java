@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.UtilCircle2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.trig.Circle2D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMinimumEnclosingCircle_F64 {
+	Random rand = new Random(234);
+
+	MinimumEnclosingCircle_F64 alg = new MinimumEnclosingCircle_F64();
+	Circle2D_F64 found = new Circle2D_F64();
+
+	/**
+	 * Compare against the smallest circle defined by every pair and triple of points
+	 */
+	@Test
+	public void compareToBruteForce() {
+		for (int trial = 0; trial < 50; trial++) {
+			List<Point2D_F64> points = new ArrayList<>();
+			int N = 1 + rand.nextInt(25);
+			for (int i = 0; i < N; i++) {
+				points.add(new Point2D_F64(rand.nextGaussian()*3, rand.nextGaussian()));
+			}
+
+			assertTrue(alg.process(points, found));
+			checkContains(points);
+			assertEquals(bruteForce(points), found.radius, GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Points on a circle with lots of points inside
+	 */
+	@Test
+	public void knownCircle() {
+		List<Point2D_F64> points = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			double theta = rand.nextDouble()*GrlConstants.PI2;
+			double r = i < 3 ? 4 : rand.nextDouble()*4;
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			points.add(new Point2D_F64(1 + r*c, 2 + r*s));
+		}
+		// make sure the three points on the boundary aren't all on one side
+		points.get(0).set(1 + 4, 2);
+		points.get(1).set(1 - 2, 2 + Math.sqrt(12));
+		points.get(2).set(1 - 2, 2 - Math.sqrt(12));
+
+		assertTrue(alg.process(points, found));
+		assertEquals(4, found.radius, GrlConstants.TEST_F64);
+		assertEquals(0, found.center.distance(1, 2), GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void degenerate() {
+		List<Point2D_F64> points = new ArrayList<>();
+		assertFalse(alg.process(points, found));
+
+		points.add(new Point2D_F64(1, 2));
+		assertTrue(alg.process(points, found));
+		assertEquals(0, found.radius, GrlConstants.TEST_F64);
+		assertEquals(0, found.center.distance(1, 2), GrlConstants.TEST_F64);
+
+		points.add(new Point2D_F64(1, 2));
+		assertTrue(alg.process(points, found));
+		assertEquals(0, found.radius, GrlConstants.TEST_F64);
+
+		// collinear
+		points.add(new Point2D_F64(3, 2));
+		points.add(new Point2D_F64(2, 2));
+		points.add(new Point2D_F64(5, 2));
+		assertTrue(alg.process(points, found));
+		assertEquals(2, found.radius, GrlConstants.TEST_F64);
+		assertEquals(0, found.center.distance(3, 2), GrlConstants.TEST_F64);
+	}
+
+	private void checkContains( List<Point2D_F64> points ) {
+		for (int i = 0; i < points.size(); i++) {
+			assertTrue(found.center.distance(points.get(i)) <= found.radius + GrlConstants.TEST_F64);
+		}
+	}
+
+	private double bruteForce( List<Point2D_F64> points ) {
+		if( points.size() == 1 )
+			return 0;
+
+		double best = Double.MAX_VALUE;
+		Circle2D_F64 circle = new Circle2D_F64();
+		for (int i = 0; i < points.size(); i++) {
+			for (int j = i+1; j < points.size(); j++) {
+				Point2D_F64 a = points.get(i), b = points.get(j);
+				circle.center.set((a.x + b.x)/2, (a.y + b.y)/2);
+				circle.radius = a.distance(b)/2;
+				if( containsAll(circle, points) )
+					best = Math.min(best, circle.radius);
+
+				for (int k = j+1; k < points.size(); k++) {
+					if( UtilCircle2D_F64.circle(a, b, points.get(k), circle) && containsAll(circle, points) )
+						best = Math.min(best, circle.radius);
+				}
+			}
+		}
+		return best;
+	}
+
+	private static boolean containsAll( Circle2D_F64 circle , List<Point2D_F64> points ) {
+		for (int i = 0; i < points.size(); i++) {
+			if( circle.center.distance(points.get(i)) > circle.radius + GrlConstants.TEST_F64 )
+				return false;
+		}
+		return true;
+	}
+}
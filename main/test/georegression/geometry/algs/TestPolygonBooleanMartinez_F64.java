@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.algs.PolygonBooleanMartinez_F64.Operation;
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPolygonBooleanMartinez_F64 {
+
+	Random rand = new Random(234);
+
+	PolygonBooleanMartinez_F64 alg = new PolygonBooleanMartinez_F64();
+	FastQueue<Polygon2D_F64> output = new FastQueue<>(Polygon2D_F64.class, true);
+
+	@Test
+	public void overlappingSquares() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 2,0, 2,2, 0,2);
+		Polygon2D_F64 b = new Polygon2D_F64(1,1, 3,1, 3,3, 1,3);
+
+		check(a, b, Operation.INTERSECTION, 1, 1);
+		check(a, b, Operation.UNION, 7, 1);
+		check(a, b, Operation.DIFFERENCE, 3, 1);
+		check(a, b, Operation.XOR, 6, 2);
+
+		// orientation of the input doesn't matter
+		b.flip();
+		check(a, b, Operation.INTERSECTION, 1, 1);
+		check(a, b, Operation.UNION, 7, 1);
+		check(a, b, Operation.DIFFERENCE, 3, 1);
+		check(a, b, Operation.XOR, 6, 2);
+	}
+
+	@Test
+	public void disjoint() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 2,0, 2,2, 0,2);
+		Polygon2D_F64 b = new Polygon2D_F64(3,0, 4,0, 4,1, 3,1);
+
+		check(a, b, Operation.INTERSECTION, 0, 0);
+		check(a, b, Operation.UNION, 5, 2);
+		check(a, b, Operation.DIFFERENCE, 4, 1);
+		check(a, b, Operation.XOR, 5, 2);
+	}
+
+	@Test
+	public void sharedEdge() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 1,0, 1,1, 0,1);
+		Polygon2D_F64 b = new Polygon2D_F64(1,0, 2,0, 2,1, 1,1);
+
+		check(a, b, Operation.INTERSECTION, 0, 0);
+		check(a, b, Operation.UNION, 2, 1);
+		check(a, b, Operation.DIFFERENCE, 1, 1);
+		check(a, b, Operation.XOR, 2, 1);
+	}
+
+	/**
+	 * The polygons touch at a single vertex, which should not be merged into one contour
+	 */
+	@Test
+	public void touchingCorner() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 1,0, 1,1, 0,1);
+		Polygon2D_F64 b = new Polygon2D_F64(1,1, 2,1, 2,2, 1,2);
+
+		check(a, b, Operation.INTERSECTION, 0, 0);
+		check(a, b, Operation.UNION, 2, 2);
+		check(a, b, Operation.XOR, 2, 2);
+		for (int i = 0; i < output.size; i++) {
+			assertEquals(4, output.get(i).size());
+		}
+	}
+
+	@Test
+	public void identical() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 2,0, 3,2, 1,3, 0,1);
+		Polygon2D_F64 b = a.copy();
+
+		double area = a.areaSimple();
+		check(a, b, Operation.INTERSECTION, area, 1);
+		check(a, b, Operation.UNION, area, 1);
+		check(a, b, Operation.DIFFERENCE, 0, 0);
+		check(a, b, Operation.XOR, 0, 0);
+	}
+
+	/**
+	 * Removing a square from the inside of another square creates a hole
+	 */
+	@Test
+	public void createHole() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 4,0, 4,4, 0,4);
+		Polygon2D_F64 b = new Polygon2D_F64(1,1, 2,1, 2,2, 1,2);
+
+		check(a, b, Operation.DIFFERENCE, 15, 2);
+
+		int outer = output.get(0).isCCW() ? 0 : 1;
+		int hole = 1 - outer;
+		assertEquals(16, output.get(outer).areaSimple(), GrlConstants.TEST_F64);
+		assertEquals(-1, alg.getParents().get(outer));
+		assertEquals(outer, alg.getParents().get(hole));
+		assertTrue(!output.get(hole).isCCW());
+	}
+
+	/**
+	 * Input polygon with a hole in it
+	 */
+	@Test
+	public void inputWithHole() {
+		List<Polygon2D_F64> subject = new ArrayList<>();
+		subject.add(new Polygon2D_F64(0,0, 4,0, 4,4, 0,4));
+		subject.add(new Polygon2D_F64(1,1, 3,1, 3,3, 1,3));
+
+		List<Polygon2D_F64> clipping = new ArrayList<>();
+		clipping.add(new Polygon2D_F64(2,-1, 5,-1, 5,5, 2,5));
+
+		// subject has an area of 12. 6 of which is inside the clipping polygon
+		check(subject, clipping, Operation.INTERSECTION, 6);
+		check(subject, clipping, Operation.UNION, 12 + 18 - 6);
+		check(subject, clipping, Operation.DIFFERENCE, 6);
+		check(subject, clipping, Operation.XOR, 12 + 18 - 12);
+
+		// filling in the hole
+		clipping.clear();
+		clipping.add(new Polygon2D_F64(1,1, 3,1, 3,3, 1,3));
+		check(subject, clipping, Operation.UNION, 16);
+		check(subject, clipping, Operation.INTERSECTION, 0);
+	}
+
+	/**
+	 * Convex intersection goes through the fast path. Compare it to the general algorithm.
+	 */
+	@Test
+	public void convexFastPath() {
+		List<Polygon2D_F64> listA = new ArrayList<>();
+		List<Polygon2D_F64> listB = new ArrayList<>();
+		for (int trial = 0; trial < 30; trial++) {
+			Polygon2D_F64 a = TestSutherlandHodgmanClip_F64.randomConvex(rand, 8, 0, 0);
+			Polygon2D_F64 b = TestSutherlandHodgmanClip_F64.randomConvex(rand, 8, 0.3, 0.1);
+
+			alg.process(a, b, Operation.INTERSECTION, output);
+			double fast = totalArea(output);
+			assertTrue(output.size <= 1);
+
+			listA.clear(); listA.add(a);
+			listB.clear(); listB.add(b);
+			alg.process(listA, listB, Operation.INTERSECTION, output);
+			assertEquals(fast, totalArea(output), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * Random concave polygons. Check area identities and that points are inside the correct polygons
+	 */
+	@Test
+	public void randomConcave() {
+		for (int trial = 0; trial < 40; trial++) {
+			Polygon2D_F64 a = randomStar(12, 0, 0);
+			Polygon2D_F64 b = randomStar(12, 0.4, -0.2);
+
+			double areaA = a.areaSimple();
+			double areaB = b.areaSimple();
+
+			alg.process(a, b, Operation.INTERSECTION, output);
+			double inter = totalArea(output);
+			checkMembership(a, b, Operation.INTERSECTION);
+			alg.process(a, b, Operation.UNION, output);
+			double union = totalArea(output);
+			checkMembership(a, b, Operation.UNION);
+			alg.process(a, b, Operation.DIFFERENCE, output);
+			double diff = totalArea(output);
+			checkMembership(a, b, Operation.DIFFERENCE);
+			alg.process(a, b, Operation.XOR, output);
+			double xor = totalArea(output);
+			checkMembership(a, b, Operation.XOR);
+
+			double tol = GrlConstants.TEST_F64;
+			assertEquals(areaA + areaB, inter + union, tol);
+			assertEquals(areaA - inter, diff, tol);
+			assertEquals(union - inter, xor, tol);
+		}
+	}
+
+	private void check( Polygon2D_F64 a , Polygon2D_F64 b , Operation op , double area , int contours ) {
+		alg.process(a, b, op, output);
+		assertEquals(contours, output.size);
+		assertEquals(area, totalArea(output), GrlConstants.TEST_F64);
+		checkOrientation();
+	}
+
+	private void check( List<Polygon2D_F64> a , List<Polygon2D_F64> b , Operation op , double area ) {
+		alg.process(a, b, op, output);
+		assertEquals(area, totalArea(output), GrlConstants.TEST_F64);
+		checkOrientation();
+	}
+
+	/**
+	 * Outer contours are CCW and holes are CW
+	 */
+	private void checkOrientation() {
+		for (int i = 0; i < output.size; i++) {
+			boolean hole = alg.getParents().get(i) != -1;
+			assertEquals(hole, signedArea(output.get(i)) < 0);
+		}
+	}
+
+	/**
+	 * Sample points and see if they are inside the result. Points close to an edge are skipped.
+	 */
+	private void checkMembership( Polygon2D_F64 a , Polygon2D_F64 b , Operation op ) {
+		for (int i = 0; i < 100; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextDouble()*5 - 2.5, rand.nextDouble()*5 - 2.5);
+			if( closeToEdge(a, p) || closeToEdge(b, p) )
+				continue;
+
+			boolean inA = Intersection2D_F64.containConcaveRobust(a, p);
+			boolean inB = Intersection2D_F64.containConcaveRobust(b, p);
+			boolean expected;
+			switch( op ) {
+				case INTERSECTION: expected = inA && inB; break;
+				case UNION: expected = inA || inB; break;
+				case DIFFERENCE: expected = inA && !inB; break;
+				default: expected = inA ^ inB; break;
+			}
+
+			boolean found = false;
+			for (int j = 0; j < output.size; j++) {
+				if( Intersection2D_F64.containConcaveRobust(output.get(j), p) )
+					found = !found;
+			}
+			assertEquals(expected, found);
+		}
+	}
+
+	private static boolean closeToEdge( Polygon2D_F64 poly , Point2D_F64 p ) {
+		for (int i = 0, j = poly.size()-1; i < poly.size(); j = i, i++) {
+			Point2D_F64 a = poly.get(j), b = poly.get(i);
+			double dx = b.x - a.x, dy = b.y - a.y;
+			double t = ((p.x - a.x)*dx + (p.y - a.y)*dy)/(dx*dx + dy*dy);
+			t = Math.max(0, Math.min(1, t));
+			double ex = a.x + t*dx - p.x, ey = a.y + t*dy - p.y;
+			if( ex*ex + ey*ey < 1e-6 )
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Star shaped polygon, which is simple but typically concave
+	 */
+	private Polygon2D_F64 randomStar( int N , double cx , double cy ) {
+		Polygon2D_F64 poly = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double theta = (i + rand.nextDouble()*0.8)*GrlConstants.PI2/N;
+			double r = 0.5 + rand.nextDouble()*1.5;
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			poly.get(i).set(cx + r*c, cy + r*s);
+		}
+		return poly;
+	}
+
+	private double totalArea( FastQueue<Polygon2D_F64> polygons ) {
+		double total = 0;
+		for (int i = 0; i < polygons.size; i++) {
+			total += signedArea(polygons.get(i));
+		}
+		return total;
+	}
+
+	private static double signedArea( Polygon2D_F64 poly ) {
+		double total = 0;
+		for (int i = 0, j = poly.size()-1; i < poly.size(); j = i, i++) {
+			Point2D_F64 a = poly.get(j), b = poly.get(i);
+			total += a.x*b.y - b.x*a.y;
+		}
+		return total/2;
+	}
+}
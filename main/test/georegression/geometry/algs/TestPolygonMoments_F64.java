@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.curve.EllipseRotated_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.PackedContour2D_I32;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPolygonMoments_F64 {
+	Random rand = new Random(234);
+
+	PolygonMoments_F64 alg = new PolygonMoments_F64();
+
+	/**
+	 * Rotated rectangle with known moments
+	 */
+	@Test
+	public void rectangle() {
+		double w = 6, h = 2;
+		double phi = 0.4;
+		double c = Math.cos(phi), s = Math.sin(phi);
+
+		Polygon2D_F64 poly = new Polygon2D_F64(4);
+		double[][] corners = {{-w/2,-h/2},{w/2,-h/2},{w/2,h/2},{-w/2,h/2}};
+		for (int i = 0; i < 4; i++) {
+			double x = corners[i][0], y = corners[i][1];
+			poly.get(i).set(10 + c*x - s*y, -5 + s*x + c*y);
+		}
+
+		assertTrue(alg.process(poly));
+		assertEquals(w*h, alg.area, GrlConstants.TEST_F64);
+		assertEquals(10, alg.centroid.x, GrlConstants.TEST_F64);
+		assertEquals(-5, alg.centroid.y, GrlConstants.TEST_F64);
+
+		double vw = w*w/12, vh = h*h/12;
+		assertEquals(c*c*vw + s*s*vh, alg.xx, GrlConstants.TEST_F64);
+		assertEquals(c*s*(vw - vh), alg.xy, GrlConstants.TEST_F64);
+		assertEquals(s*s*vw + c*c*vh, alg.yy, GrlConstants.TEST_F64);
+
+		EllipseRotated_F64 ellipse = new EllipseRotated_F64();
+		alg.getEllipse(ellipse);
+		assertEquals(10, ellipse.center.x, GrlConstants.TEST_F64);
+		assertEquals(-5, ellipse.center.y, GrlConstants.TEST_F64);
+		assertEquals(w/Math.sqrt(3), ellipse.a, GrlConstants.TEST_F64);
+		assertEquals(h/Math.sqrt(3), ellipse.b, GrlConstants.TEST_F64);
+		assertEquals(phi, ellipse.phi, GrlConstants.TEST_F64);
+
+		// orientation of the polygon shouldn't matter
+		poly.flip();
+		PolygonMoments_F64 flipped = new PolygonMoments_F64();
+		assertTrue(flipped.process(poly));
+		checkEquals(alg, flipped, GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Compares against moments computed by summing the triangles in a fan
+	 */
+	@Test
+	public void random_triangles() {
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 poly = randomStar(3 + rand.nextInt(40), 1, 10);
+			assertTrue(alg.process(poly));
+
+			Point2D_F64 a = poly.get(0);
+			double area = 0, sx = 0, sy = 0, sxx = 0, sxy = 0, syy = 0;
+			for (int i = 1; i < poly.size()-1; i++) {
+				Point2D_F64 b = poly.get(i), c = poly.get(i+1);
+				double t = ((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2;
+				area += t;
+				sx += t*(a.x + b.x + c.x)/3;
+				sy += t*(a.y + b.y + c.y)/3;
+				sxx += t*(a.x*a.x + b.x*b.x + c.x*c.x + a.x*b.x + a.x*c.x + b.x*c.x)/6;
+				syy += t*(a.y*a.y + b.y*b.y + c.y*c.y + a.y*b.y + a.y*c.y + b.y*c.y)/6;
+				sxy += t*(2*a.x*a.y + 2*b.x*b.y + 2*c.x*c.y +
+						a.x*b.y + b.x*a.y + a.x*c.y + c.x*a.y + b.x*c.y + c.x*b.y)/12;
+			}
+			double cx = sx/area, cy = sy/area;
+
+			double tol = GrlConstants.TEST_F64*10;
+			assertEquals(Math.abs(area), alg.area, tol);
+			assertEquals(cx, alg.centroid.x, tol);
+			assertEquals(cy, alg.centroid.y, tol);
+			assertEquals(sxx/area - cx*cx, alg.xx, tol);
+			assertEquals(sxy/area - cx*cy, alg.xy, tol);
+			assertEquals(syy/area - cy*cy, alg.yy, tol);
+		}
+	}
+
+	/**
+	 * A polygon which approximates an ellipse should have about the same ellipse
+	 */
+	@Test
+	public void ellipse() {
+		EllipseRotated_F64 expected = new EllipseRotated_F64(2, 3, 5, 2, -0.6);
+		double c = Math.cos(expected.phi), s = Math.sin(expected.phi);
+
+		int N = 2000;
+		Polygon2D_F64 poly = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double t = i*GrlConstants.PI2/N;
+			double ct = Math.cos(t), st = Math.sin(t);
+			double x = expected.a*ct, y = expected.b*st;
+			poly.get(i).set(expected.center.x + c*x - s*y, expected.center.y + s*x + c*y);
+		}
+
+		EllipseRotated_F64 found = new EllipseRotated_F64();
+		assertTrue(alg.process(poly));
+		alg.getEllipse(found);
+
+		assertEquals(expected.center.x, found.center.x, GrlConstants.TEST_F64);
+		assertEquals(expected.center.y, found.center.y, GrlConstants.TEST_F64);
+		assertEquals(expected.a, found.a, 0.001);
+		assertEquals(expected.b, found.b, 0.001);
+		assertEquals(expected.phi, found.phi, 0.001);
+	}
+
+	/**
+	 * Far from the origin the answer should be the same
+	 */
+	@Test
+	public void translation() {
+		Polygon2D_F64 poly = randomStar(20, 1, 10);
+		alg.process(poly);
+
+		for (int i = 0; i < poly.size(); i++) {
+			poly.get(i).x += 1000;
+			poly.get(i).y -= 2000;
+		}
+		PolygonMoments_F64 found = new PolygonMoments_F64();
+		found.process(poly);
+
+		assertEquals(alg.area, found.area, GrlConstants.TEST_F64*100);
+		assertEquals(alg.centroid.x + 1000, found.centroid.x, GrlConstants.TEST_F64*100);
+		assertEquals(alg.centroid.y - 2000, found.centroid.y, GrlConstants.TEST_F64*100);
+		assertEquals(alg.xx, found.xx, GrlConstants.TEST_F64*100);
+		assertEquals(alg.xy, found.xy, GrlConstants.TEST_F64*100);
+		assertEquals(alg.yy, found.yy, GrlConstants.TEST_F64*100);
+	}
+
+	@Test
+	public void degenerate() {
+		assertFalse(alg.process(new Polygon2D_F64(0,0, 1,1, 2,2)));
+		assertEquals(0, alg.area, 0);
+		assertEquals(1, alg.centroid.x, GrlConstants.TEST_F64);
+		assertEquals(1, alg.centroid.y, GrlConstants.TEST_F64);
+
+		assertFalse(alg.process(new Polygon2D_I32(0,0, 2,0)));
+		assertFalse(alg.process(new PackedContour2D_I32()));
+	}
+
+	/**
+	 * Integer polygons should produce the same results
+	 */
+	@Test
+	public void integer() {
+		PolygonMoments_F64 expected = new PolygonMoments_F64();
+		PolygonMoments_F64 found = new PolygonMoments_F64();
+
+		for (int trial = 0; trial < 20; trial++) {
+			Polygon2D_F64 poly = randomStar(3 + rand.nextInt(40), 10, 200);
+			Polygon2D_I32 polyI = new Polygon2D_I32(poly.size());
+			PackedContour2D_I32 contour = new PackedContour2D_I32();
+			for (int i = 0; i < poly.size(); i++) {
+				Point2D_F64 p = poly.get(i);
+				p.set((int)p.x + 3000, (int)p.y + 500);
+				polyI.get(i).set((int)p.x, (int)p.y);
+				contour.add((int)p.x, (int)p.y);
+			}
+
+			expected.process(poly);
+			assertTrue(found.process(polyI));
+			checkEquals(expected, found, GrlConstants.TEST_F64);
+			assertTrue(found.process(contour));
+			checkEquals(expected, found, GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test
+	public void batch() {
+		List<Polygon2D_F64> polygons = new ArrayList<>();
+		List<PackedContour2D_I32> contours = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Polygon2D_F64 poly = randomStar(3 + rand.nextInt(20), 10, 100);
+			PackedContour2D_I32 contour = new PackedContour2D_I32();
+			for (int j = 0; j < poly.size(); j++) {
+				Point2D_F64 p = poly.get(j);
+				p.set((int)p.x, (int)p.y);
+				contour.add((int)p.x, (int)p.y);
+			}
+			polygons.add(poly);
+			contours.add(contour);
+		}
+
+		FastQueue<PolygonMoments_F64> moments = new FastQueue<>(PolygonMoments_F64.class, true);
+		FastQueue<PolygonMoments_F64> momentsContour = new FastQueue<>(PolygonMoments_F64.class, true);
+		FastQueue<EllipseRotated_F64> ellipses = new FastQueue<>(EllipseRotated_F64.class, true);
+		PolygonMoments_F64.process(polygons, moments);
+		PolygonMoments_F64.processContours(contours, momentsContour);
+		PolygonMoments_F64.ellipses(moments, ellipses);
+
+		assertEquals(10, moments.size);
+		assertEquals(10, momentsContour.size);
+		assertEquals(10, ellipses.size);
+
+		EllipseRotated_F64 expected = new EllipseRotated_F64();
+		for (int i = 0; i < 10; i++) {
+			alg.process(polygons.get(i));
+			checkEquals(alg, moments.get(i), 0);
+			checkEquals(alg, momentsContour.get(i), GrlConstants.TEST_F64);
+
+			alg.getEllipse(expected);
+			EllipseRotated_F64 found = ellipses.get(i);
+			assertEquals(expected.a, found.a, 0);
+			assertEquals(expected.b, found.b, 0);
+			assertEquals(expected.phi, found.phi, 0);
+		}
+	}
+
+	private static void checkEquals( PolygonMoments_F64 a , PolygonMoments_F64 b , double tol ) {
+		assertEquals(a.area, b.area, tol*Math.max(1, a.area));
+		assertEquals(a.centroid.x, b.centroid.x, tol*Math.max(1, Math.abs(a.centroid.x)));
+		assertEquals(a.centroid.y, b.centroid.y, tol*Math.max(1, Math.abs(a.centroid.y)));
+		assertEquals(a.xx, b.xx, tol*Math.max(1, Math.abs(a.xx)));
+		assertEquals(a.xy, b.xy, tol*Math.max(1, Math.abs(a.xy)));
+		assertEquals(a.yy, b.yy, tol*Math.max(1, Math.abs(a.yy)));
+	}
+
+	private Polygon2D_F64 randomStar( int N , double minR , double maxR ) {
+		Polygon2D_F64 poly = new Polygon2D_F64(N);
+		for (int i = 0; i < N; i++) {
+			double theta = (i + rand.nextDouble()*0.8)*GrlConstants.PI2/N;
+			double r = minR + rand.nextDouble()*(maxR - minR);
+			double c = Math.cos(theta);
+			double s = Math.sin(theta);
+			poly.get(i).set(r*c, r*s);
+		}
+		return poly;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimplifyDouglasPeucker_F64 {
+	Random rand = new Random(234);
+
+	@Test
+	public void straightLine() {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		for (int i = 0; i < 20; i++) {
+			points.grow().set(i, rand.nextDouble()*0.1);
+		}
+		Point2D_F64 first = points.get(0);
+		Point2D_F64 last = points.get(19);
+
+		SimplifyDouglasPeucker_F64 alg = new SimplifyDouglasPeucker_F64(0.2);
+		alg.process(points, false);
+		assertEquals(2, points.size);
+		assertSame(first, points.get(0));
+		assertSame(last, points.get(1));
+	}
+
+	@Test
+	public void corner() {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		for (int i = 0; i <= 10; i++) {
+			points.grow().set(i, 0);
+		}
+		for (int i = 1; i <= 10; i++) {
+			points.grow().set(10, i);
+		}
+
+		SimplifyDouglasPeucker_F64 alg = new SimplifyDouglasPeucker_F64(0.5);
+		alg.process(points, false);
+		assertEquals(3, points.size);
+		assertTrue(points.get(1).distance(10, 0) == 0);
+	}
+
+	@Test
+	public void polygon() {
+		Polygon2D_F64 poly = new Polygon2D_F64();
+		for (int side = 0; side < 4; side++) {
+			for (int i = 0; i < 10; i++) {
+				double t = i/10.0;
+				switch( side ) {
+					case 0: poly.vertexes.grow().set(t, 0); break;
+					case 1: poly.vertexes.grow().set(1, t); break;
+					case 2: poly.vertexes.grow().set(1 - t, 1); break;
+					default: poly.vertexes.grow().set(0, 1 - t); break;
+				}
+			}
+		}
+
+		SimplifyDouglasPeucker_F64 alg = new SimplifyDouglasPeucker_F64(0.01);
+		alg.process(poly);
+		assertEquals(4, poly.size());
+		assertTrue(poly.get(0).distance(0, 0) == 0);
+		assertTrue(poly.get(1).distance(1, 0) == 0);
+		assertTrue(poly.get(2).distance(1, 1) == 0);
+		assertTrue(poly.get(3).distance(0, 1) == 0);
+	}
+
+	@Test
+	public void tooFewPoints() {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		points.grow().set(1, 2);
+		points.grow().set(2, 2);
+
+		SimplifyDouglasPeucker_F64 alg = new SimplifyDouglasPeucker_F64(10);
+		alg.process(points, false);
+		assertEquals(2, points.size);
+
+		points.grow().set(3, 2);
+		alg.process(points, true);
+		assertEquals(3, points.size);
+	}
+
+	/**
+	 * Compare against a simple recursive implementation
+	 */
+	@Test
+	public void compareToRecursive() {
+		for (int trial = 0; trial < 20; trial++) {
+			int N = 10 + rand.nextInt(2000);
+			FastQueue<Point2D_F64> points = randomWalk(N);
+			List<Point2D_F64> expected = new ArrayList<>();
+			expected.add(points.get(0));
+			recursive(points, 0, N-1, 1.5, expected);
+			expected.add(points.get(N-1));
+
+			for (boolean hull : new boolean[]{false, true}) {
+				FastQueue<Point2D_F64> found = copy(points);
+				new SimplifyDouglasPeucker_F64(1.5, hull).process(found, false);
+				assertEquals(expected.size(), found.size);
+				for (int i = 0; i < found.size; i++) {
+					assertTrue(expected.get(i).distance(found.get(i)) == 0);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Every vertex which was removed must be within tolerance of the line it was replaced by
+	 */
+	@Test
+	public void withinTolerance() {
+		for (boolean hull : new boolean[]{false, true}) {
+			FastQueue<Point2D_F64> points = randomWalk(5000);
+			FastQueue<Point2D_F64> original = copy(points);
+
+			double tol = 2.0;
+			new SimplifyDouglasPeucker_F64(tol, hull).process(points, false);
+			assertTrue(points.size < original.size/4);
+
+			int k = 0;
+			for (int i = 0; i < original.size; i++) {
+				Point2D_F64 p = original.get(i);
+				if( p.distance(points.get(k)) == 0 ) {
+					k++;
+					continue;
+				}
+				assertTrue(lineDistance(points.get(k-1), points.get(k), p) <= tol);
+			}
+			assertEquals(points.size, k);
+		}
+	}
+
+	private void recursive( FastQueue<Point2D_F64> points , int a , int b , double tol , List<Point2D_F64> output ) {
+		int best = -1;
+		double bestDist = -1;
+		for (int i = a+1; i < b; i++) {
+			double d = lineDistance(points.get(a), points.get(b), points.get(i));
+			if( d > bestDist ) {
+				bestDist = d;
+				best = i;
+			}
+		}
+		if( best < 0 || bestDist <= tol )
+			return;
+		recursive(points, a, best, tol, output);
+		output.add(points.get(best));
+		recursive(points, best, b, tol, output);
+	}
+
+	private static double lineDistance( Point2D_F64 a , Point2D_F64 b , Point2D_F64 p ) {
+		double dx = b.x - a.x, dy = b.y - a.y;
+		double length = Math.sqrt(dx*dx + dy*dy);
+		return Math.abs(dx*(p.y - a.y) - dy*(p.x - a.x))/length;
+	}
+
+	private FastQueue<Point2D_F64> randomWalk( int N ) {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		double x = 0, y = 0;
+		for (int i = 0; i < N; i++) {
+			x += rand.nextGaussian();
+			y += rand.nextGaussian();
+			points.grow().set(x, y);
+		}
+		return points;
+	}
+
+	private static FastQueue<Point2D_F64> copy( FastQueue<Point2D_F64> points ) {
+		FastQueue<Point2D_F64> out = new FastQueue<>(Point2D_F64.class, true);
+		for (int i = 0; i < points.size; i++) {
+			out.grow().set(points.get(i));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Point2D_I32;
+import georegression.struct.shapes.Polygon2D_I32;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimplifyDouglasPeucker_I32 {
+	Random rand = new Random(234);
+
+	/**
+	 * Should produce the same result as the F64 version
+	 */
+	@Test
+	public void compareToF64() {
+		for (boolean closed : new boolean[]{false, true}) {
+			FastQueue<Point2D_I32> points = new FastQueue<>(Point2D_I32.class, true);
+			FastQueue<Point2D_F64> expected = new FastQueue<>(Point2D_F64.class, true);
+			int x = 0, y = 0;
+			for (int i = 0; i < 500; i++) {
+				x += rand.nextInt(7) - 3;
+				y += rand.nextInt(7) - 3;
+				points.grow().set(x, y);
+				expected.grow().set(x, y);
+			}
+
+			new SimplifyDouglasPeucker_F64(1.5).process(expected, closed);
+			new SimplifyDouglasPeucker_I32(1.5).process(points, closed);
+
+			assertEquals(expected.size, points.size);
+			for (int i = 0; i < points.size; i++) {
+				assertEquals(expected.get(i).x, points.get(i).x, 0);
+				assertEquals(expected.get(i).y, points.get(i).y, 0);
+			}
+		}
+	}
+
+	@Test
+	public void polygon() {
+		Polygon2D_I32 poly = new Polygon2D_I32(0,0, 5,0, 10,0, 10,10, 5,10, 0,10);
+		new SimplifyDouglasPeucker_I32(0.5).process(poly);
+		assertEquals(4, poly.size());
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.FastQueue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSimplifyVisvalingam_F64 {
+	Random rand = new Random(234);
+
+	@Test
+	public void straightLine() {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		for (int i = 0; i < 20; i++) {
+			points.grow().set(i, rand.nextDouble()*0.01);
+		}
+
+		SimplifyVisvalingam_F64 alg = new SimplifyVisvalingam_F64(0.1);
+		alg.process(points, false);
+		assertEquals(2, points.size);
+		assertTrue(points.get(0).x == 0);
+		assertTrue(points.get(1).x == 19);
+	}
+
+	@Test
+	public void zeroTolerance() {
+		FastQueue<Point2D_F64> points = randomWalk(100);
+		new SimplifyVisvalingam_F64(0).process(points, false);
+		assertEquals(100, points.size);
+	}
+
+	/**
+	 * A polygon will always have at least 3 vertexes
+	 */
+	@Test
+	public void polygonMinimum() {
+		Polygon2D_F64 poly = new Polygon2D_F64(0,0, 1,0, 2,0.1, 2,1, 0,1);
+		new SimplifyVisvalingam_F64(1000).process(poly);
+		assertEquals(3, poly.size());
+
+		poly = new Polygon2D_F64(0,0, 1,0.01, 2,0, 2,1, 0,1);
+		new SimplifyVisvalingam_F64(0.1).process(poly);
+		assertEquals(4, poly.size());
+		assertTrue(poly.get(1).x == 2);
+	}
+
+	/**
+	 * Compare against a brute force implementation which searches for the smallest area each iteration
+	 */
+	@Test
+	public void compareToBruteForce() {
+		SimplifyVisvalingam_F64 alg = new SimplifyVisvalingam_F64(5);
+		for (int trial = 0; trial < 20; trial++) {
+			for (boolean closed : new boolean[]{false, true}) {
+				FastQueue<Point2D_F64> points = randomWalk(10 + rand.nextInt(300));
+				List<Point2D_F64> expected = bruteForce(points, closed, 5);
+
+				alg.process(points, closed);
+				assertEquals(expected.size(), points.size);
+				for (int i = 0; i < points.size; i++) {
+					assertTrue(expected.get(i).distance(points.get(i)) == 0);
+				}
+			}
+		}
+	}
+
+	private List<Point2D_F64> bruteForce( FastQueue<Point2D_F64> points , boolean closed , double tol ) {
+		List<Point2D_F64> list = new ArrayList<>();
+		List<Double> areas = new ArrayList<>();
+		for (int i = 0; i < points.size; i++) {
+			list.add(points.get(i).copy());
+		}
+		for (int i = 0; i < list.size(); i++) {
+			areas.add(area(list, i, closed));
+		}
+
+		while( list.size() > (closed ? 3 : 2) ) {
+			int best = -1;
+			for (int i = 0; i < list.size(); i++) {
+				if( !closed && (i == 0 || i == list.size()-1) )
+					continue;
+				if( best == -1 || areas.get(i) < areas.get(best) )
+					best = i;
+			}
+			double removed = areas.get(best);
+			if( removed >= tol )
+				break;
+			list.remove(best);
+			areas.remove(best);
+
+			int N = list.size();
+			int p = (best - 1 + N) % N;
+			int n = best % N;
+			areas.set(p, Math.max(removed, area(list, p, closed)));
+			areas.set(n, Math.max(removed, area(list, n, closed)));
+		}
+		return list;
+	}
+
+	private static double area( List<Point2D_F64> list , int i , boolean closed ) {
+		int N = list.size();
+		if( !closed && (i == 0 || i == N-1) )
+			return Double.MAX_VALUE;
+		Point2D_F64 a = list.get((i - 1 + N) % N), b = list.get(i), c = list.get((i + 1) % N);
+		return Math.abs((b.x - a.x)*(c.y - a.y) - (b.y - a.y)*(c.x - a.x))/2;
+	}
+
+	private FastQueue<Point2D_F64> randomWalk( int N ) {
+		FastQueue<Point2D_F64> points = new FastQueue<>(Point2D_F64.class, true);
+		double x = 0, y = 0;
+		for (int i = 0; i < N; i++) {
+			x += rand.nextGaussian();
+			y += rand.nextGaussian();
+			points.grow().set(x, y);
+		}
+		return points;
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestSutherlandHodgmanClip_F64 {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void overlappingSquares() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 2,0, 2,2, 0,2);
+		Polygon2D_F64 b = new Polygon2D_F64(1,1, 3,1, 3,3, 1,3);
+
+		SutherlandHodgmanClip_F64 alg = new SutherlandHodgmanClip_F64();
+		Polygon2D_F64 found = new Polygon2D_F64();
+		alg.process(a, b, found);
+
+		assertEquals(4, found.size());
+		assertEquals(1, found.areaSimple(), GrlConstants.TEST_F64);
+		assertTrue(found.isCCW());
+
+		// the clipping polygon's orientation shouldn't matter
+		b.flip();
+		alg.process(a, b, found);
+		assertEquals(4, found.size());
+		assertEquals(1, found.areaSimple(), GrlConstants.TEST_F64);
+
+		// output has the same orientation as the subject
+		a.flip();
+		alg.process(a, b, found);
+		assertEquals(1, found.areaSimple(), GrlConstants.TEST_F64);
+		assertTrue(!found.isCCW());
+	}
+
+	@Test
+	public void noIntersection() {
+		Polygon2D_F64 a = new Polygon2D_F64(0,0, 2,0, 2,2, 0,2);
+		Polygon2D_F64 b = new Polygon2D_F64(3,1, 5,1, 5,3, 3,3);
+
+		SutherlandHodgmanClip_F64 alg = new SutherlandHodgmanClip_F64();
+		Polygon2D_F64 found = new Polygon2D_F64();
+		alg.process(a, b, found);
+		assertEquals(0, found.size());
+	}
+
+	@Test
+	public void inside() {
+		Polygon2D_F64 a = new Polygon2D_F64(1,1, 2,1, 2,2, 1,2);
+		Polygon2D_F64 b = new Polygon2D_F64(0,0, 3,0, 3,3, 0,3);
+
+		SutherlandHodgmanClip_F64 alg = new SutherlandHodgmanClip_F64();
+		Polygon2D_F64 found = new Polygon2D_F64();
+		alg.process(a, b, found);
+		assertTrue(found.isIdentical(a, GrlConstants.TEST_F64));
+
+		alg.process(b, a, found);
+		assertEquals(4, found.size());
+		assertEquals(1, found.areaSimple(), GrlConstants.TEST_F64);
+	}
+
+	/**
+	 * Compare the area against a different algorithm on random convex polygons
+	 */
+	@Test
+	public void randomConvex() {
+		SutherlandHodgmanClip_F64 alg = new SutherlandHodgmanClip_F64();
+		AreaIntersectionPolygon2D_F64 area = new AreaIntersectionPolygon2D_F64();
+		Polygon2D_F64 found = new Polygon2D_F64();
+
+		for (int trial = 0; trial < 50; trial++) {
+			Polygon2D_F64 a = randomConvex(rand, 8, 0, 0);
+			Polygon2D_F64 b = randomConvex(rand, 8, 0.5, 0.2);
+
+			alg.process(a, b, found);
+			double expected = Math.abs(area.computeArea(a, b));
+			double foundArea = found.size() >= 3 ? found.areaSimple() : 0;
+			assertEquals(expected, foundArea, 1e-4);
+			if( found.size() >= 3 )
+				assertTrue(found.isConvex());
+		}
+	}
+
+	static Polygon2D_F64 randomConvex( Random rand , int numPoints , double cx , double cy ) {
+		Point2D_F64[] points = new Point2D_F64[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			points[i] = new Point2D_F64(cx + rand.nextGaussian(), cy + rand.nextGaussian());
+		}
+		Polygon2D_F64 hull = new Polygon2D_F64();
+		new AndrewMonotoneConvexHull_F64().process(points, numPoints, hull);
+		return hull;
+	}
+}
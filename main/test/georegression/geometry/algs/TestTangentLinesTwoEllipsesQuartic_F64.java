@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.geometry.UtilEllipse_F64;
+import georegression.geometry.UtilVector2D_F64;
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.curve.EllipseRotated_F64;
+import georegression.struct.line.LineSegment2D_F64;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.point.Vector2D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTangentLinesTwoEllipsesQuartic_F64 {
+
+	Random rand = new Random(234);
+
+	Point2D_F64[] tangents = new Point2D_F64[8];
+
+	public TestTangentLinesTwoEllipsesQuartic_F64() {
+		for (int i = 0; i < tangents.length; i++) {
+			tangents[i] = new Point2D_F64();
+		}
+	}
+
+	/**
+	 * Same configurations as used to test the iterative algorithm
+	 */
+	@Test
+	public void process() {
+		TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+
+		for( int i = 0; i < 20; i++ ) {
+			double theta = i*GrlConstants.PI/20 - GrlConstants.PI/2.0;
+			check( new EllipseRotated_F64(0,10,5,4,theta), new EllipseRotated_F64(0,0,4,3,0), alg);
+			check( new EllipseRotated_F64(0,10,4,4,theta), new EllipseRotated_F64(0,0,4,4,0), alg);
+			check( new EllipseRotated_F64(2.5,10,5,4,theta), new EllipseRotated_F64(0,0,4.9,3, GrlConstants.PId2), alg);
+		}
+	}
+
+	@Test
+	public void process_random() {
+		TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+
+		for (int trial = 0; trial < 200; trial++) {
+			EllipseRotated_F64 ellipseA = randomEllipse(0,0);
+			double angle = rand.nextDouble()*GrlConstants.PI2;
+			double distance = ellipseA.a + 3.5 + rand.nextDouble()*5;
+			double c = Math.cos(angle);
+			double s = Math.sin(angle);
+			double x = distance*c;
+			double y = distance*s;
+			EllipseRotated_F64 ellipseB = randomEllipse(x,y);
+
+			check(ellipseA,ellipseB,alg);
+		}
+	}
+
+	/**
+	 * Compare the results against the iterative algorithm
+	 */
+	@Test
+	public void compareToIterative() {
+		TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+		TangentLinesTwoEllipses_F64 iterative = new TangentLinesTwoEllipses_F64(GrlConstants.TEST_F64,20);
+
+		Point2D_F64[] expected = new Point2D_F64[8];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = new Point2D_F64();
+		}
+
+		EllipseRotated_F64 ellipseA = new EllipseRotated_F64(2.5,10,5,4,0.3);
+		EllipseRotated_F64 ellipseB = new EllipseRotated_F64(0,0,4.9,3, GrlConstants.PId2);
+
+		assertTrue(alg.process(ellipseA,ellipseB,
+				tangents[0],tangents[1],tangents[2],tangents[3],
+				tangents[4],tangents[5],tangents[6],tangents[7]));
+		assertTrue(iterative.process(ellipseA,ellipseB,
+				expected[0],expected[1],expected[2],expected[3],
+				expected[4],expected[5],expected[6],expected[7]));
+
+		// the ordering of the lines is different, so match each line to its closest
+		for (int i = 0; i < 4; i++) {
+			double best = Double.MAX_VALUE;
+			int bestIndex = -1;
+			for (int j = 0; j < 4; j++) {
+				double d = tangents[i].distance(expected[j]);
+				if( d < best ) {
+					best = d;
+					bestIndex = j;
+				}
+			}
+			assertEquals(0,best,GrlConstants.TEST_SQ_F64);
+			assertEquals(0,tangents[i+4].distance(expected[bestIndex+4]),GrlConstants.TEST_SQ_F64);
+		}
+	}
+
+	/**
+	 * The ellipses intersect.  Should fail.
+	 */
+	@Test
+	public void intersecting() {
+		TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+
+		EllipseRotated_F64 ellipseA = new EllipseRotated_F64(0,0,5,4,0);
+		assertFalse(process(alg,ellipseA,new EllipseRotated_F64(1,0,3,3,0)));
+		assertFalse(process(alg,ellipseA,new EllipseRotated_F64(6,0,3,3,0)));
+	}
+
+	@Test
+	public void process_batch() {
+		int N = 1000;
+		EllipseRotated_F64[] ellipsesA = new EllipseRotated_F64[N];
+		EllipseRotated_F64[] ellipsesB = new EllipseRotated_F64[N];
+		for (int i = 0; i < N; i++) {
+			ellipsesA[i] = randomEllipse(0,0);
+			ellipsesB[i] = randomEllipse(10,-4);
+		}
+		// this one will fail
+		ellipsesB[5] = new EllipseRotated_F64(0,0,1,1,0);
+
+		TangentLinesTwoEllipsesQuartic_F64 alg = new TangentLinesTwoEllipsesQuartic_F64();
+		alg.setMinimumChunk(50);
+
+		for( boolean concurrent : new boolean[]{false,true}) {
+			alg.setConcurrent(concurrent);
+
+			Point2D_F64[] found = new Point2D_F64[N*8];
+			for (int i = 0; i < found.length; i++) {
+				found[i] = new Point2D_F64();
+			}
+			boolean[] success = new boolean[N];
+			alg.process(ellipsesA,ellipsesB,N,found,success);
+
+			for (int i = 0; i < N; i++) {
+				boolean expected = process(alg,ellipsesA[i],ellipsesB[i]);
+				assertEquals(expected,success[i]);
+				if( !expected )
+					continue;
+				for (int j = 0; j < 8; j++) {
+					assertEquals(0,tangents[j].distance(found[i*8+j]),0);
+				}
+			}
+			assertFalse(success[5]);
+		}
+	}
+
+	@Test
+	public void solveQuartic() {
+		double[] roots = new double[4];
+
+		// (x-1)*(x+2)*(x-3)*(x-0.5)
+		double[] coef = polynomial(1,-2,3,0.5);
+		assertEquals(4,TangentLinesTwoEllipsesQuartic_F64.solveQuartic(coef,roots));
+		checkRoots(roots,1,-2,3,0.5);
+
+		// biquadratic. (x^2-1)*(x^2-4)
+		coef = polynomial(1,-1,2,-2);
+		assertEquals(4,TangentLinesTwoEllipsesQuartic_F64.solveQuartic(coef,roots));
+		checkRoots(roots,1,-1,2,-2);
+
+		// (x-1)*(x+2)*(x^2+1) only has two real roots
+		coef = new double[]{-2,1,-1,1,1};
+		assertEquals(2,TangentLinesTwoEllipsesQuartic_F64.solveQuartic(coef,roots));
+		assertEquals(1,Math.max(roots[0],roots[1]),GrlConstants.TEST_F64);
+		assertEquals(-2,Math.min(roots[0],roots[1]),GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void largestCubicRoot() {
+		// (x-1)*(x+2)*(x-3) = x^3 - 2*x^2 - 5*x + 6
+		assertEquals(3,TangentLinesTwoEllipsesQuartic_F64.largestCubicRoot(-2,-5,6),GrlConstants.TEST_F64);
+		// (x-2)*(x^2+1) = x^3 - 2*x^2 + x - 2
+		assertEquals(2,TangentLinesTwoEllipsesQuartic_F64.largestCubicRoot(-2,1,-2),GrlConstants.TEST_F64);
+	}
+
+	private double[] polynomial( double r0 , double r1 , double r2 , double r3 ) {
+		double[] coef = new double[]{1,0,0,0,0};
+		double[] roots = new double[]{r0,r1,r2,r3};
+		// multiply by (x - r) one at a time
+		for (int i = 0; i < 4; i++) {
+			for (int j = i+1; j >= 1; j--) {
+				coef[j] = coef[j-1] - roots[i]*coef[j];
+			}
+			coef[0] = -roots[i]*coef[0];
+		}
+		return coef;
+	}
+
+	private void checkRoots( double[] found , double ...expected ) {
+		for( double e : expected ) {
+			double best = Double.MAX_VALUE;
+			for( double f : found ) {
+				best = Math.min(best,Math.abs(e-f));
+			}
+			assertEquals(0,best,GrlConstants.TEST_F64);
+		}
+	}
+
+	private EllipseRotated_F64 randomEllipse( double x , double y ) {
+		double b = 0.5 + rand.nextDouble();
+		double a = b + rand.nextDouble()*1.5;
+		double phi = (rand.nextDouble()-0.5)*GrlConstants.PI;
+		return new EllipseRotated_F64(x,y,a,b,phi);
+	}
+
+	private boolean process( TangentLinesTwoEllipsesQuartic_F64 alg ,
+							 EllipseRotated_F64 ellipseA , EllipseRotated_F64 ellipseB ) {
+		return alg.process(ellipseA,ellipseB,
+				tangents[0],tangents[1],tangents[2],tangents[3],
+				tangents[4],tangents[5],tangents[6],tangents[7]);
+	}
+
+	private void check( EllipseRotated_F64 ellipseA , EllipseRotated_F64 ellipseB ,
+						TangentLinesTwoEllipsesQuartic_F64 alg ) {
+		assertTrue(process(alg,ellipseA,ellipseB));
+
+		// make sure all the points are unique
+		for (int i = 0; i < 4; i++) {
+			for (int j = i+1; j < 4; j++) {
+				assertFalse(tangents[i].distance(tangents[j]) <= GrlConstants.TEST_F64);
+				assertFalse(tangents[i+4].distance(tangents[j+4]) <= GrlConstants.TEST_F64);
+			}
+		}
+
+		LineSegment2D_F64 centerLine = new LineSegment2D_F64(ellipseA.center,ellipseB.center);
+		Point2D_F64 junk = new Point2D_F64();
+		for (int i = 0; i < 4; i++) {
+			Point2D_F64 a = tangents[i];
+			Point2D_F64 b = tangents[i+4];
+
+			// the points are on the ellipses
+			assertEquals(1,UtilEllipse_F64.evaluate(a.x,a.y,ellipseA),GrlConstants.TEST_SQ_F64);
+			assertEquals(1,UtilEllipse_F64.evaluate(b.x,b.y,ellipseB),GrlConstants.TEST_SQ_F64);
+
+			checkIsTangent(a,b,ellipseA,ellipseB);
+
+			// lines 1 and 2 cross the center line
+			LineSegment2D_F64 line = new LineSegment2D_F64(a,b);
+			boolean crosses = Intersection2D_F64.intersection(centerLine,line,junk) != null;
+			assertEquals(i == 1 || i == 2, crosses);
+		}
+
+		// line 0 and 1 touch A on the left when looking towards B
+		double dx = ellipseB.center.x - ellipseA.center.x;
+		double dy = ellipseB.center.y - ellipseA.center.y;
+		for (int i = 0; i < 4; i++) {
+			double cross = dx*(tangents[i].y - ellipseA.center.y) - dy*(tangents[i].x - ellipseA.center.x);
+			assertEquals(i < 2, cross > 0);
+		}
+	}
+
+	private void checkIsTangent( Point2D_F64 a , Point2D_F64 b ,
+								 EllipseRotated_F64 ellipseA, EllipseRotated_F64 ellipseB)
+	{
+		double ta = UtilEllipse_F64.computeAngle(a,ellipseA);
+		double tb = UtilEllipse_F64.computeAngle(b,ellipseB);
+
+		double slopeX = b.x-a.x;
+		double slopeY = b.y-a.y;
+		double r = Math.sqrt( slopeX*slopeX + slopeY*slopeY);
+
+		slopeX /= r;
+		slopeY /= r;
+
+		Vector2D_F64 slopeA = UtilEllipse_F64.computeTangent(ta,ellipseA,null);
+		Vector2D_F64 slopeB = UtilEllipse_F64.computeTangent(tb,ellipseB,null);
+
+		assertTrue(UtilVector2D_F64.identicalSign(slopeX,slopeY, slopeA.x, slopeA.y, GrlConstants.TEST_SQ_F64));
+		assertTrue(UtilVector2D_F64.identicalSign(slopeX,slopeY, slopeB.x, slopeB.y, GrlConstants.TEST_SQ_F64));
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.struct.shapes.Polygon2D_F64;
+import org.ddogleg.struct.GrowQueue_I32;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTriangulatePolygon_F64 extends GeneralTriangulatePolygonTests_F64 {
+
+	TriangulatePolygon_F64 alg = new TriangulatePolygon_F64();
+
+	@Override
+	void process( Polygon2D_F64 outer , List<Polygon2D_F64> holes , GrowQueue_I32 triangles ) {
+		alg.process(outer, holes, triangles);
+	}
+
+	/**
+	 * Holes are included when deciding which algorithm to use
+	 */
+	@Test
+	public void selectAlgorithm() {
+		alg.setMaxEarClipping(6);
+		Polygon2D_F64 outer = new Polygon2D_F64(0,0, 4,0, 4,4, 0,4);
+		holes.add(new Polygon2D_F64(1,1, 3,1, 3,3, 1,3));
+
+		alg.earClipping.xy.reset();
+		alg.monotone.xy.reset();
+		alg.process(outer, holes, triangles);
+		assertEquals(0, alg.earClipping.xy.size);
+		assertEquals(16, alg.monotone.xy.size);
+
+		alg.setMaxEarClipping(8);
+		alg.process(outer, holes, triangles);
+		assertEquals(16, alg.earClipping.xy.size);
+	}
+}
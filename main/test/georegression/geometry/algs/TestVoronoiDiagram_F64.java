@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.algs;
+
+import georegression.metric.Intersection2D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.point.Point2D_F64;
+import georegression.struct.shapes.Polygon2D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import georegression.struct.shapes.TriangleMesh2D;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestVoronoiDiagram_F64 {
+
+	Random rand = new Random(234);
+
+	DelaunaySweepHull_F64 delaunay = new DelaunaySweepHull_F64();
+	TriangleMesh2D mesh = new TriangleMesh2D();
+
+	private double[] randomSites( int N ) {
+		double[] xy = new double[N*2];
+		for (int i = 0; i < xy.length; i++) {
+			xy[i] = rand.nextDouble()*10;
+		}
+		return xy;
+	}
+
+	/**
+	 * Vertexes in a bounded cell are equidistant from the site and at least as far from every other site
+	 */
+	@Test
+	public void boundedCells() {
+		int N = 100;
+		double[] xy = randomSites(N);
+		delaunay.process(xy, N, mesh);
+
+		VoronoiDiagram_F64 alg = new VoronoiDiagram_F64();
+		alg.process(xy, N, mesh);
+		assertEquals(N, alg.getNumberOfSites());
+
+		Polygon2D_F64 cell = new Polygon2D_F64();
+		int totalBounded = 0;
+		for (int site = 0; site < N; site++) {
+			boolean onHull = mesh.hull.indexOf(site) >= 0;
+			assertEquals(!onHull, alg.isBounded(site));
+			if( !alg.getCell(site, cell) ) {
+				assertTrue(onHull);
+				continue;
+			}
+			totalBounded++;
+
+			assertTrue(cell.isCCW());
+			assertTrue(cell.isConvex());
+			assertTrue(Intersection2D_F64.containConvex(cell, new Point2D_F64(xy[site*2], xy[site*2+1])));
+
+			for (int i = 0; i < cell.size(); i++) {
+				Point2D_F64 v = cell.get(i);
+				double d = v.distance(xy[site*2], xy[site*2+1]);
+				for (int j = 0; j < N; j++) {
+					assertTrue(v.distance(xy[j*2], xy[j*2+1]) >= d - GrlConstants.TEST_F64);
+				}
+			}
+		}
+		assertTrue(totalBounded > 0);
+	}
+
+	/**
+	 * Clipped cells should contain the points which are closest to their site
+	 */
+	@Test
+	public void clippedCells() {
+		int N = 40;
+		double[] xy = randomSites(N);
+		delaunay.process(xy, N, mesh);
+
+		VoronoiDiagram_F64 alg = new VoronoiDiagram_F64();
+		alg.process(xy, N, mesh);
+
+		Rectangle2D_F64 bounds = new Rectangle2D_F64(-1, -2, 11, 12);
+		Polygon2D_F64[] cells = new Polygon2D_F64[N];
+		double totalArea = 0;
+		for (int site = 0; site < N; site++) {
+			cells[site] = new Polygon2D_F64();
+			assertTrue(alg.getCell(site, bounds, cells[site]));
+			assertTrue(cells[site].isCCW());
+			assertTrue(cells[site].isConvex());
+			totalArea += cells[site].areaSimple();
+		}
+		// cells should tile the rectangle
+		assertEquals(bounds.area(), totalArea, GrlConstants.TEST_F64*100);
+
+		for (int trial = 0; trial < 200; trial++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextDouble()*12-1, rand.nextDouble()*14-2);
+			int closest = bruteForce(xy, N, p.x, p.y);
+			assertTrue(Intersection2D_F64.containConvex(cells[closest], p));
+		}
+	}
+
+	@Test
+	public void clippedCells_collinear() {
+		double[] xy = new double[]{0,0, 2,0, 1,0};
+		delaunay.process(xy, 3, mesh);
+		assertEquals(0, mesh.size());
+
+		VoronoiDiagram_F64 alg = new VoronoiDiagram_F64();
+		alg.process(xy, 3, mesh);
+
+		Polygon2D_F64 cell = new Polygon2D_F64();
+		assertFalse(alg.getCell(2, cell));
+		assertTrue(alg.getCell(2, new Rectangle2D_F64(-1, -1, 3, 1), cell));
+		assertEquals(2*1, cell.areaSimple(), GrlConstants.TEST_F64);
+
+		assertEquals(1, alg.findNearest(1.6, 5, 0));
+	}
+
+	@Test
+	public void findNearest() {
+		int N = 300;
+		double[] xy = randomSites(N);
+		delaunay.process(xy, N, mesh);
+
+		VoronoiDiagram_F64 alg = new VoronoiDiagram_F64();
+		alg.process(xy, N, mesh);
+
+		int start = mesh.getVertex(0, 0);
+		for (int trial = 0; trial < 200; trial++) {
+			double x = rand.nextDouble()*14 - 2;
+			double y = rand.nextDouble()*14 - 2;
+
+			int expected = bruteForce(xy, N, x, y);
+			int found = alg.findNearest(x, y, start);
+			assertEquals(expected, found);
+			start = found;
+		}
+	}
+
+	private static int bruteForce( double[] xy , int N , double x , double y ) {
+		int best = -1;
+		double bestDist = Double.MAX_VALUE;
+		for (int i = 0; i < N; i++) {
+			double dx = xy[i*2] - x, dy = xy[i*2+1] - y;
+			double d = dx*dx + dy*dy;
+			if( d < bestDist ) {
+				bestDist = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+}
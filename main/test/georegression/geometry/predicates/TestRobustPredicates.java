@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.geometry.predicates;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRobustPredicates {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void orient2d_simple() {
+		assertEquals(1,Math.signum(RobustPredicates.orient2d(0,0,1,0,0,1)),0);
+		assertEquals(-1,Math.signum(RobustPredicates.orient2d(0,0,0,1,1,0)),0);
+		assertEquals(0,RobustPredicates.orient2d(0,0,1,1,2,2),0);
+
+		// in the easy case it should be the same as the naive calculation
+		assertEquals(2*0.5*3*4,RobustPredicates.orient2d(1,1,4,1,1,5),1e-12);
+	}
+
+	/**
+	 * Points which are nearly collinear, where naive floating point gets the wrong answer
+	 */
+	@Test
+	public void orient2d_degenerate() {
+		double ulp = Math.ulp(0.5);
+		for (int i = 0; i < 64; i++) {
+			for (int j = 0; j < 64; j++) {
+				double ax = 0.5 + i*ulp, ay = 0.5 + j*ulp;
+				double found = RobustPredicates.orient2d(ax,ay,12,12,24,24);
+				int expected = orient2d(ax,ay,12,12,24,24);
+				assertEquals(expected,(int)Math.signum(found));
+			}
+		}
+	}
+
+	@Test
+	public void orient2d_random() {
+		for (int trial = 0; trial < 2000; trial++) {
+			double[] p = new double[6];
+			randomCollinear(p);
+			double found = RobustPredicates.orient2d(p[0],p[1],p[2],p[3],p[4],p[5]);
+			assertEquals(orient2d(p[0],p[1],p[2],p[3],p[4],p[5]),(int)Math.signum(found));
+		}
+	}
+
+	@Test
+	public void orient3d_simple() {
+		// d is below the plane
+		assertEquals(1,Math.signum(RobustPredicates.orient3d(0,0,0, 1,0,0, 0,1,0, 0,0,-1)),0);
+		assertEquals(-1,Math.signum(RobustPredicates.orient3d(0,0,0, 1,0,0, 0,1,0, 0,0,1)),0);
+		assertEquals(0,RobustPredicates.orient3d(0,0,0, 1,0,0, 0,1,0, 3,2,0),0);
+	}
+
+	@Test
+	public void orient3d_degenerate() {
+		for (int trial = 0; trial < 1000; trial++) {
+			// points which are nearly coplanar
+			double[] p = new double[12];
+			double nx = rand.nextGaussian(), ny = rand.nextGaussian();
+			for (int i = 0; i < 4; i++) {
+				double x = rand.nextDouble()*20-10;
+				double y = rand.nextDouble()*20-10;
+				p[i*3] = x;
+				p[i*3+1] = y;
+				p[i*3+2] = nx*x + ny*y + 0.1;
+			}
+			perturb(p);
+
+			double found = RobustPredicates.orient3d(p[0],p[1],p[2],p[3],p[4],p[5],p[6],p[7],p[8],p[9],p[10],p[11]);
+			assertEquals(orient3d(p),(int)Math.signum(found));
+		}
+	}
+
+	@Test
+	public void incircle_simple() {
+		assertEquals(1,Math.signum(RobustPredicates.incircle(1,0, 0,1, -1,0, 0,0)),0);
+		assertEquals(-1,Math.signum(RobustPredicates.incircle(1,0, 0,1, -1,0, 2,0)),0);
+		assertEquals(0,RobustPredicates.incircle(1,0, 0,1, -1,0, 0,-1),0);
+	}
+
+	@Test
+	public void incircle_degenerate() {
+		for (int trial = 0; trial < 1000; trial++) {
+			// points which are nearly on the same circle
+			double[] p = new double[8];
+			double cx = rand.nextGaussian(), cy = rand.nextGaussian();
+			double r = rand.nextDouble()*5 + 0.1;
+			for (int i = 0; i < 4; i++) {
+				double theta = rand.nextDouble()*Math.PI*2;
+				p[i*2] = cx + r*Math.cos(theta);
+				p[i*2+1] = cy + r*Math.sin(theta);
+			}
+			perturb(p);
+
+			double found = RobustPredicates.incircle(p[0],p[1],p[2],p[3],p[4],p[5],p[6],p[7]);
+			assertEquals(incircle(p),(int)Math.signum(found));
+		}
+	}
+
+	/**
+	 * Points on a grid, where differences between coordinates are exact
+	 */
+	@Test
+	public void incircle_exactDifferences() {
+		for (int trial = 0; trial < 1000; trial++) {
+			double[] p = new double[8];
+			for (int i = 0; i < 8; i++) {
+				p[i] = rand.nextInt(11) - 5;
+			}
+			double found = RobustPredicates.incircle(p[0],p[1],p[2],p[3],p[4],p[5],p[6],p[7]);
+			assertEquals(incircle(p),(int)Math.signum(found));
+
+			// perturb by a tiny amount and compare against the full exact computation
+			for (int i = 0; i < 6; i++) {
+				p[i] += (rand.nextInt(5)-2)*Math.ulp(p[i]);
+			}
+			found = RobustPredicates.incircleExactDiff(p[0],p[1],p[2],p[3],p[4],p[5]);
+			double expected = RobustPredicates.incircleExact(p[0],p[1],p[2],p[3],p[4],p[5],0,0);
+			assertEquals(Math.signum(expected),Math.signum(found),0);
+		}
+	}
+
+	/**
+	 * Stage B and C of orient2d should always agree with the exact computation
+	 */
+	@Test
+	public void orient2dAdapt() {
+		for (int trial = 0; trial < 2000; trial++) {
+			double[] p = new double[6];
+			randomCollinear(p);
+			double detsum = Math.abs((p[0]-p[4])*(p[3]-p[5])) + Math.abs((p[1]-p[5])*(p[2]-p[4]));
+			double found = RobustPredicates.orient2dAdapt(p[0],p[1],p[2],p[3],p[4],p[5],detsum);
+			assertEquals(orient2d(p[0],p[1],p[2],p[3],p[4],p[5]),(int)Math.signum(found));
+		}
+	}
+
+	@Test
+	public void cross_exact() {
+		for (int trial = 0; trial < 200; trial++) {
+			double ax = rand.nextGaussian(), ay = rand.nextGaussian();
+			double bx = rand.nextGaussian(), by = rand.nextGaussian();
+			double[] e = new double[4];
+			int length = RobustPredicates.cross(ax,ay,bx,by,e);
+			BigDecimal expected = big(ax).multiply(big(by)).subtract(big(ay).multiply(big(bx)));
+			assertEquals(0,toBig(e,length).compareTo(expected));
+		}
+	}
+
+	/**
+	 * Each thread has its own work space and can call the predicates at the same time
+	 */
+	@Test
+	public void concurrent() throws InterruptedException {
+		int numThreads = 4;
+		double[][] points = new double[200][8];
+		for (int trial = 0; trial < points.length; trial++) {
+			double[] p = points[trial];
+			for (int i = 0; i < 4; i++) {
+				double theta = rand.nextDouble()*Math.PI*2;
+				p[i*2] = 0.5 + 3*Math.cos(theta);
+				p[i*2+1] = -0.2 + 3*Math.sin(theta);
+			}
+			perturb(p);
+		}
+
+		int[] failures = new int[numThreads];
+		Thread[] threads = new Thread[numThreads];
+		for (int i = 0; i < numThreads; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> {
+				for (int repeat = 0; repeat < 50; repeat++) {
+					for (double[] p : points) {
+						double found = RobustPredicates.incircle(p[0],p[1],p[2],p[3],p[4],p[5],p[6],p[7]);
+						if( incircle(p) != (int)Math.signum(found) )
+							failures[index]++;
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (int i = 0; i < numThreads; i++) {
+			threads[i].join();
+			assertEquals(0,failures[i]);
+		}
+	}
+
+	@Test
+	public void expansion_sum_scale() {
+		// numbers which can't be added exactly in floating point
+		double[] e = new double[]{1e-30,1.0};
+		double[] f = new double[]{-1e-20,3e10};
+		double[] h = new double[4];
+		int length = RobustPredicates.sum(e,2,f,2,h);
+		assertEquals(0,toBig(h,length).compareTo(toBig(e,2).add(toBig(f,2))));
+
+		double[] s = new double[4];
+		length = RobustPredicates.scale(e,2,0.1,s);
+		assertEquals(0,toBig(s,length).compareTo(toBig(e,2).multiply(new BigDecimal(0.1))));
+
+		double[] m = new double[8];
+		length = RobustPredicates.multiply(e,2,f,2,m,new double[4],new double[8]);
+		assertEquals(0,toBig(m,length).compareTo(toBig(e,2).multiply(toBig(f,2))));
+	}
+
+	private void randomCollinear( double[] p ) {
+		double x0 = rand.nextGaussian(), y0 = rand.nextGaussian();
+		double dx = rand.nextGaussian(), dy = rand.nextGaussian();
+		for (int i = 0; i < 3; i++) {
+			double t = rand.nextGaussian()*100;
+			p[i*2] = x0 + t*dx;
+			p[i*2+1] = y0 + t*dy;
+		}
+		perturb(p);
+	}
+
+	/**
+	 * Randomly moves the values by a few ulp
+	 */
+	private void perturb( double[] p ) {
+		for (int i = 0; i < p.length; i++) {
+			p[i] += (rand.nextInt(5)-2)*Math.ulp(p[i]);
+		}
+	}
+
+	private static BigDecimal toBig( double[] e , int length ) {
+		BigDecimal sum = BigDecimal.ZERO;
+		for (int i = 0; i < length; i++) {
+			sum = sum.add(new BigDecimal(e[i]));
+		}
+		return sum;
+	}
+
+	private static BigDecimal big( double v ) {
+		return new BigDecimal(v);
+	}
+
+	private static int orient2d( double ax , double ay , double bx , double by , double cx , double cy ) {
+		BigDecimal acx = big(ax).subtract(big(cx));
+		BigDecimal acy = big(ay).subtract(big(cy));
+		BigDecimal bcx = big(bx).subtract(big(cx));
+		BigDecimal bcy = big(by).subtract(big(cy));
+		return acx.multiply(bcy).subtract(acy.multiply(bcx)).signum();
+	}
+
+	private static int orient3d( double[] p ) {
+		BigDecimal[] ad = new BigDecimal[3], bd = new BigDecimal[3], cd = new BigDecimal[3];
+		for (int i = 0; i < 3; i++) {
+			ad[i] = big(p[i]).subtract(big(p[9+i]));
+			bd[i] = big(p[3+i]).subtract(big(p[9+i]));
+			cd[i] = big(p[6+i]).subtract(big(p[9+i]));
+		}
+		BigDecimal det = ad[2].multiply(bd[0].multiply(cd[1]).subtract(cd[0].multiply(bd[1])))
+				.add(bd[2].multiply(cd[0].multiply(ad[1]).subtract(ad[0].multiply(cd[1]))))
+				.add(cd[2].multiply(ad[0].multiply(bd[1]).subtract(bd[0].multiply(ad[1]))));
+		return det.signum();
+	}
+
+	private static int incircle( double[] p ) {
+		BigDecimal[] x = new BigDecimal[3], y = new BigDecimal[3], lift = new BigDecimal[3];
+		for (int i = 0; i < 3; i++) {
+			x[i] = big(p[i*2]).subtract(big(p[6]));
+			y[i] = big(p[i*2+1]).subtract(big(p[7]));
+			lift[i] = x[i].multiply(x[i]).add(y[i].multiply(y[i]));
+		}
+		BigDecimal det = lift[0].multiply(x[1].multiply(y[2]).subtract(x[2].multiply(y[1])))
+				.add(lift[1].multiply(x[2].multiply(y[0]).subtract(x[0].multiply(y[2]))))
+				.add(lift[2].multiply(x[0].multiply(y[1]).subtract(x[1].multiply(y[0]))));
+		return det.signum();
+	}
+}
@@ -249,4 +249,47 @@ public class TestDistance2D_F64 {
 		assertEquals(1.1, Distance2D_F64.distance(ellipse,new Point2D_F64(4+4.1,5)), GrlConstants.TEST_F64);
 		assertEquals(1.1, Distance2D_F64.distance(ellipse,new Point2D_F64(4-4.1,5)), GrlConstants.TEST_F64);
 	}
+
+	@Test
+	public void distance_general_packed() {
+		LineGeneral2D_F64 line = new LineGeneral2D_F64(1,-2,3);
+
+		double[] xy = new double[]{1,2, -0.5,3, 4,-1};
+		double[] found = new double[3];
+		Distance2D_F64.distance(line,xy,found,3);
+
+		for (int i = 0; i < 3; i++) {
+			double expected = Distance2D_F64.distance(line,new Point2D_F64(xy[i*2],xy[i*2+1]));
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test
+	public void distance_parametric_packed() {
+		LineParametric2D_F64 line = new LineParametric2D_F64(1,-2,3,1.5);
+
+		double[] xy = new double[]{1,2, -0.5,3, 4,-1};
+		double[] found = new double[3];
+		Distance2D_F64.distance(line,xy,found,3);
+
+		for (int i = 0; i < 3; i++) {
+			double expected = Distance2D_F64.distance(line,xy[i*2],xy[i*2+1]);
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test
+	public void distance_segment_packed() {
+		LineSegment2D_F64 line = new LineSegment2D_F64(0,0,2,1);
+
+		// points before, along, and after the segment
+		double[] xy = new double[]{-1,1, 1,1, 3,0.5, 2,1};
+		double[] found = new double[4];
+		Distance2D_F64.distance(line,xy,found,4);
+
+		for (int i = 0; i < 4; i++) {
+			double expected = Distance2D_F64.distance(line,xy[i*2],xy[i*2+1]);
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+	}
 }
@@ -190,4 +190,48 @@ public class TestDistance3D_F64 {
 
 		assertEquals(-2,found,GrlConstants.TEST_F64);
 	}
+
+	@Test
+	public void distance_plane_packed() {
+		PlaneGeneral3D_F64 plane = new PlaneGeneral3D_F64(1,-2,0.5,3);
+
+		double[] xyz = new double[]{1,2,3, -0.5,3,2, 4,-1,0};
+		double[] found = new double[3];
+		Distance3D_F64.distance(plane,xyz,found,3);
+
+		for (int i = 0; i < 3; i++) {
+			double expected = Distance3D_F64.distance(plane,new Point3D_F64(xyz[i*3],xyz[i*3+1],xyz[i*3+2]));
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+	}
+
+	@Test
+	public void distance_line_packed() {
+		LineParametric3D_F64 line = new LineParametric3D_F64(1,-2,3,0.5,1,-1.5);
+
+		double[] xyz = new double[]{1,2,3, -0.5,3,2, 4,-1,0, 1.5,-1,1.5};
+		double[] found = new double[4];
+		Distance3D_F64.distance(line,xyz,found,4);
+
+		for (int i = 0; i < 3; i++) {
+			double expected = Distance3D_F64.distance(line,new Point3D_F64(xyz[i*3],xyz[i*3+1],xyz[i*3+2]));
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+		// the last point is on the line
+		assertEquals(0,found[3],GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void distance_sphere_packed() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1,2,3,2);
+
+		double[] xyz = new double[]{1,2,3.5, -0.5,3,2, 4,-1,0};
+		double[] found = new double[3];
+		Distance3D_F64.distance(sphere,xyz,found,3);
+
+		for (int i = 0; i < 3; i++) {
+			double expected = Distance3D_F64.distance(sphere,new Point3D_F64(xyz[i*3],xyz[i*3+1],xyz[i*3+2]));
+			assertEquals(expected,found[i],GrlConstants.TEST_F64);
+		}
+	}
 }
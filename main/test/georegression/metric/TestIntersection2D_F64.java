@@ -154,6 +154,35 @@ public class TestIntersection2D_F64 {
 		assertFalse(Intersection2D_F64.containConcave(poly, new Point2D_F64(0, -2)));
 	}
 	
+	@Test
+	public void containConcaveRobust() {
+		Polygon2D_F64 poly = new Polygon2D_F64(5);
+		poly.vertexes.data[0].set(-1,-1);
+		poly.vertexes.data[1].set( 0, 0);
+		poly.vertexes.data[2].set(1, -1);
+		poly.vertexes.data[3].set(1, 1);
+		poly.vertexes.data[4].set(-1, 1);
+
+		assertTrue(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(0,0.5)));
+		assertTrue(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(-0.75,-0.25)));
+		assertTrue(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(0.75,-0.25)));
+
+		assertFalse(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(0,-0.5)));
+
+		assertFalse(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(2,0)));
+		assertFalse(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(-2,0)));
+		assertFalse(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(0, 2)));
+		assertFalse(Intersection2D_F64.containConcaveRobust(poly, new Point2D_F64(0, -2)));
+
+		// should agree with the non-robust version for points which are not close to an edge
+		Random rand = new Random(234);
+		for (int i = 0; i < 200; i++) {
+			Point2D_F64 p = new Point2D_F64(rand.nextDouble()*3-1.5, rand.nextDouble()*3-1.5);
+			assertEquals(Intersection2D_F64.containConcave(poly, p),
+					Intersection2D_F64.containConcaveRobust(poly, p));
+		}
+	}
+
 	@Test
 	public void intersection_ls_to_ls() {
 		// check positive, none pathological cases
@@ -603,4 +632,31 @@ public class TestIntersection2D_F64 {
 		assertEquals(1.0, UtilEllipse_F64.evaluate(a.x, a.y, ellipse), GrlConstants.TEST_F64);
 	}
 
+	@Test
+	public void contains_rectangle_packed() {
+		Rectangle2D_F64 rect = new Rectangle2D_F64(-1,0,2,3);
+
+		int N = 50;
+		double[] xy = new double[N*2];
+		for (int i = 0; i < xy.length; i++) {
+			xy[i] = rand.nextDouble()*6-2;
+		}
+		// points on the border
+		xy[0] = -1; xy[1] = 0;
+		xy[2] = 2; xy[3] = 1;
+
+		boolean[] inside = new boolean[N];
+		int total = Intersection2D_F64.contains(rect,xy,inside,N);
+
+		int expectedTotal = 0;
+		for (int i = 0; i < N; i++) {
+			boolean expected = Intersection2D_F64.contains(rect,xy[i*2],xy[i*2+1]);
+			assertEquals(expected,inside[i]);
+			if( expected )
+				expectedTotal++;
+		}
+		assertEquals(expectedTotal,total);
+		assertTrue(inside[0]);
+		assertFalse(inside[1]);
+	}
 }
@@ -31,12 +31,16 @@ import georegression.struct.point.Point3D_F64;
 import georegression.struct.se.Se3_F64;
 import georegression.struct.shapes.Box3D_F64;
 import georegression.struct.shapes.BoxLength3D_F64;
+import georegression.struct.shapes.BoxOriented3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
 import georegression.struct.shapes.Sphere3D_F64;
 import georegression.struct.shapes.Triangle3D_F64;
 import georegression.transform.se.SePointOps_F64;
 import org.ddogleg.struct.FastQueue;
 import org.junit.Test;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 
@@ -45,6 +49,8 @@ import static org.junit.Assert.*;
  */
 public class TestIntersection3D_F64 {
 
+	Random rand = new Random(234);
+
 	@Test
 	public void intersect_planenorm_linepara() {
 		// simple case with a known solution
@@ -324,4 +330,322 @@ public class TestIntersection3D_F64 {
 		assertTrue( b.distance(new Point3D_F64(-2,0,2)) <= GrlConstants.TEST_F64);
 
 	}
+
+	@Test
+	public void contained_boxOriented_point() {
+		BoxOriented3D_F64 box = createBox(1, 2, 3, 0.5, 1, 2, 0.3, -0.2, 1.1);
+		Point3D_F64 p = new Point3D_F64();
+		for (int i = 0; i < 500; i++) {
+			p.set(rand.nextGaussian()*2 + 1, rand.nextGaussian()*2 + 2, rand.nextGaussian()*2 + 3);
+
+			// brute force by going into box coordinates
+			Point3D_F64 local = new Point3D_F64();
+			SePointOps_F64.transformReverse(box.boxToWorld, p, local);
+			boolean expected = Math.abs(local.x) <= box.halfX &&
+					Math.abs(local.y) <= box.halfY && Math.abs(local.z) <= box.halfZ;
+			assertEquals(expected, Intersection3D_F64.contained(box, p));
+		}
+
+		// corners are inside
+		for (int i = 0; i < 8; i++) {
+			box.corner(i, p);
+			Point3D_F64 local = new Point3D_F64();
+			SePointOps_F64.transformReverse(box.boxToWorld, p, local);
+			assertEquals(box.halfX, Math.abs(local.x), GrlConstants.TEST_F64);
+		}
+	}
+
+	/**
+	 * A convex shape is contained only if all its corners are
+	 */
+	@Test
+	public void contained_boxOriented_box() {
+		Point3D_F64 corner = new Point3D_F64();
+		int numTrue = 0;
+		for (int trial = 0; trial < 500; trial++) {
+			BoxOriented3D_F64 outer = createBox(0, 0, 0, 2, 3, 4,
+					rand.nextGaussian()*0.3, rand.nextGaussian()*0.3, rand.nextGaussian()*0.3);
+			double x = rand.nextGaussian(), y = rand.nextGaussian(), z = rand.nextGaussian();
+			Box3D_F64 inner = new Box3D_F64(x, y, z,
+					x + rand.nextDouble()*2, y + rand.nextDouble()*2, z + rand.nextDouble()*2);
+
+			boolean expected = true;
+			for (int i = 0; i < 8; i++) {
+				corner.set((i & 1) == 0 ? inner.p0.x : inner.p1.x,
+						(i & 2) == 0 ? inner.p0.y : inner.p1.y,
+						(i & 4) == 0 ? inner.p0.z : inner.p1.z);
+				expected &= Intersection3D_F64.contained(outer, corner);
+			}
+			assertEquals(expected, Intersection3D_F64.contained(outer, inner));
+			if( expected )
+				numTrue++;
+		}
+		// make sure both cases were tested
+		assertTrue(numTrue > 20 && numTrue < 480);
+	}
+
+	@Test
+	public void contained_box_boxOriented() {
+		Box3D_F64 outer = new Box3D_F64(-2, -3, -4, 2, 3, 4);
+		Point3D_F64 corner = new Point3D_F64();
+		int numTrue = 0;
+		for (int trial = 0; trial < 500; trial++) {
+			BoxOriented3D_F64 inner = createBox(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+					rand.nextDouble(), rand.nextDouble(), rand.nextDouble(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+
+			boolean expected = true;
+			for (int i = 0; i < 8; i++) {
+				expected &= Intersection3D_F64.contained2(outer, inner.corner(i, corner));
+			}
+			assertEquals(expected, Intersection3D_F64.contained(outer, inner));
+			if( expected )
+				numTrue++;
+		}
+		assertTrue(numTrue > 20 && numTrue < 480);
+	}
+
+	@Test
+	public void contained_boxOriented_sphere() {
+		BoxOriented3D_F64 box = createBox(1, 2, 3, 1, 2, 3, 0, 0, GrlConstants.PI/2);
+
+		// after the rotation the box's x-axis is along the world's y-axis
+		assertTrue(Intersection3D_F64.contained(box, new Sphere3D_F64(1, 2, 3, 1)));
+		assertTrue(Intersection3D_F64.contained(box, new Sphere3D_F64(1, 2.5, 3, 0.5)));
+		assertFalse(Intersection3D_F64.contained(box, new Sphere3D_F64(1, 2.6, 3, 0.5)));
+		assertTrue(Intersection3D_F64.contained(box, new Sphere3D_F64(2.5, 2, 3, 0.5)));
+		assertFalse(Intersection3D_F64.contained(box, new Sphere3D_F64(1, 2, 3, 1.1)));
+	}
+
+	@Test
+	public void intersect_boxOriented_box() {
+		Box3D_F64 aabb = new Box3D_F64(0, 0, 0, 1, 1, 1);
+
+		// no rotation is the same as two axis aligned boxes, except touching counts as intersecting
+		BoxOriented3D_F64 box = createBox(2, 0.5, 0.5, 0.9, 0.5, 0.5, 0, 0, 0);
+		assertFalse(Intersection3D_F64.intersect(box, aabb));
+		box.halfX = 1.1;
+		assertTrue(Intersection3D_F64.intersect(box, aabb));
+
+		// diamond next to a corner. Its axis aligned bounding box would intersect. The edge facing the corner
+		// lies along x + y = 2*c - sqrt(2)*h
+		double h = 0.5;
+		box = createBox(1.4, 1.4, 0.5, h, h, h, 0, 0, GrlConstants.PI/4);
+		assertFalse(Intersection3D_F64.intersect(box, aabb));
+		box = createBox(1.3, 1.3, 0.5, h, h, h, 0, 0, GrlConstants.PI/4);
+		assertTrue(Intersection3D_F64.intersect(box, aabb));
+
+		// a box inside the other
+		box = createBox(0.5, 0.5, 0.5, 0.1, 0.1, 0.1, 0.4, 0.2, 0.1);
+		assertTrue(Intersection3D_F64.intersect(box, aabb));
+		box = createBox(0.5, 0.5, 0.5, 10, 10, 10, 0.4, 0.2, 0.1);
+		assertTrue(Intersection3D_F64.intersect(box, aabb));
+
+		// Two thin rods which skew past each other. They are only separated along the cross product of their
+		// long edges. The oriented rod is along (1,1,0) and rolled by 45 degrees so that none of its faces are
+		// perpendicular to (1,-1,0)
+		double r = Math.sqrt(0.5);
+		box = createBox(0, 0, 0, 10, 0.1, 0.1, 0, 0, 0);
+		double[] R = box.boxToWorld.R.data;
+		R[0] = r;  R[1] = 0.5;  R[2] = 0.5;
+		R[3] = r;  R[4] = -0.5; R[5] = -0.5;
+		R[6] = 0;  R[7] = r;    R[8] = -r;
+		// the rods are 0.1*2*sqrt(2) apart along the separating axis when touching
+		double a = 0.25;
+		assertFalse(Intersection3D_F64.intersect(box, new Box3D_F64(a-0.1, -a-0.1, -10, a+0.1, -a+0.1, 10)));
+		a = 0.17;
+		assertTrue(Intersection3D_F64.intersect(box, new Box3D_F64(a-0.1, -a-0.1, -10, a+0.1, -a+0.1, 10)));
+	}
+
+	/**
+	 * If a point inside of both boxes is found they must intersect
+	 */
+	@Test
+	public void intersect_boxOriented_box_random() {
+		Box3D_F64 aabb = new Box3D_F64(-1, -1, -1, 1, 1, 1);
+		Point3D_F64 p = new Point3D_F64();
+		Point3D_F64 local = new Point3D_F64();
+		int numTrue = 0;
+		for (int trial = 0; trial < 200; trial++) {
+			BoxOriented3D_F64 box = createBox(rand.nextGaussian()*2, rand.nextGaussian()*2, rand.nextGaussian()*2,
+					0.2 + rand.nextDouble(), 0.2 + rand.nextDouble(), 0.2 + rand.nextDouble(),
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			boolean found = Intersection3D_F64.intersect(box, aabb);
+
+			boolean inside = false;
+			for (int i = 0; i < 2000 && !inside; i++) {
+				local.set(box.halfX*(2*rand.nextDouble() - 1),
+						box.halfY*(2*rand.nextDouble() - 1),
+						box.halfZ*(2*rand.nextDouble() - 1));
+				SePointOps_F64.transform(box.boxToWorld, local, p);
+				inside = Intersection3D_F64.contained2(aabb, p);
+			}
+			if( inside ) {
+				assertTrue(found);
+				numTrue++;
+			}
+		}
+		assertTrue(numTrue > 20 && numTrue < 180);
+	}
+
+	@Test
+	public void intersect_boxOriented_sphere() {
+		BoxOriented3D_F64 box = createBox(0, 0, 0, 1, 2, 3, 0, 0, GrlConstants.PI/4);
+		double c = Math.cos(GrlConstants.PI/4);
+
+		// center inside
+		assertTrue(Intersection3D_F64.intersect(box, new Sphere3D_F64(0.1, 0.2, 0.3, 0.01)));
+		// close to a face along the box's x-axis
+		assertTrue(Intersection3D_F64.intersect(box, new Sphere3D_F64(1.5*c, 1.5*c, 0, 0.51)));
+		assertFalse(Intersection3D_F64.intersect(box, new Sphere3D_F64(1.5*c, 1.5*c, 0, 0.49)));
+		// diagonal from a corner
+		assertTrue(Intersection3D_F64.intersect(box, new Sphere3D_F64(0, 0, 4, 1.01)));
+		assertFalse(Intersection3D_F64.intersect(box, new Sphere3D_F64(0, 0, 4, 0.99)));
+		Point3D_F64 corner = box.corner(7, null);
+		Point3D_F64 center = new Point3D_F64(corner.x + 1, corner.y + 1, corner.z + 1);
+		double distance = Math.sqrt(3);
+		assertFalse(Intersection3D_F64.intersect(box, new Sphere3D_F64(center.x, center.y, center.z, distance*0.99)));
+		// the closest point might not be the corner. Check against the local coordinates directly
+		Point3D_F64 local = new Point3D_F64();
+		SePointOps_F64.transformReverse(box.boxToWorld, center, local);
+		double dx = Math.max(0, Math.abs(local.x) - box.halfX);
+		double dy = Math.max(0, Math.abs(local.y) - box.halfY);
+		double dz = Math.max(0, Math.abs(local.z) - box.halfZ);
+		double expected = Math.sqrt(dx*dx + dy*dy + dz*dz);
+		assertTrue(Intersection3D_F64.intersect(box, new Sphere3D_F64(center.x, center.y, center.z, expected*1.01)));
+		assertFalse(Intersection3D_F64.intersect(box, new Sphere3D_F64(center.x, center.y, center.z, expected*0.99)));
+	}
+
+	@Test
+	public void intersect_ray_boxOriented() {
+		BoxOriented3D_F64 box = createBox(1, 2, 3, 1, 2, 3, 0, 0, GrlConstants.PI/2);
+		Point3D_F64 found = new Point3D_F64();
+
+		// the box's x-axis is along the world's y-axis, so it extends from y=1 to 3
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(1, -5, 3, 0, 2, 0), box, found));
+		assertEquals(1, found.x, GrlConstants.TEST_F64);
+		assertEquals(1, found.y, GrlConstants.TEST_F64);
+		assertEquals(3, found.z, GrlConstants.TEST_F64);
+
+		// pointing away
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(1, -5, 3, 0, -1, 0), box, found));
+		// misses
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(3.5, -5, 3, 0, 1, 0), box, found));
+		// inside
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(1, 2, 3, 1, 1, 1), box, found));
+		assertEquals(0, found.distance(1, 2, 3), GrlConstants.TEST_F64);
+		// parallel to a face and hits the edge. Also the output is optional
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(3, -5, 0, 0, 1, 0), box, null));
+
+		// random rays aimed at points inside the box must hit it
+		Point3D_F64 local = new Point3D_F64();
+		Point3D_F64 target = new Point3D_F64();
+		for (int i = 0; i < 100; i++) {
+			local.set(box.halfX*(2*rand.nextDouble() - 1),
+					box.halfY*(2*rand.nextDouble() - 1),
+					box.halfZ*(2*rand.nextDouble() - 1));
+			SePointOps_F64.transform(box.boxToWorld, local, target);
+			LineParametric3D_F64 ray = new LineParametric3D_F64(
+					rand.nextGaussian()*20, rand.nextGaussian()*20, rand.nextGaussian()*20, 0, 0, 0);
+			ray.slope.set(target.x - ray.p.x, target.y - ray.p.y, target.z - ray.p.z);
+			assertTrue(Intersection3D_F64.intersect(ray, box, found));
+
+			// the found point should be on the surface or the start
+			SePointOps_F64.transformReverse(box.boxToWorld, found, local);
+			double dx = Math.abs(Math.abs(local.x) - box.halfX);
+			double dy = Math.abs(Math.abs(local.y) - box.halfY);
+			double dz = Math.abs(Math.abs(local.z) - box.halfZ);
+			double tol = GrlConstants.TEST_F64*100;
+			assertTrue(found.distance(ray.p) <= tol || Math.min(dx, Math.min(dy, dz)) <= tol);
+
+			// reversed it should miss, unless it started inside
+			ray.slope.scale(-1);
+			assertEquals(Intersection3D_F64.contained(box, ray.p), Intersection3D_F64.intersect(ray, box, null));
+		}
+	}
+
+	@Test
+	public void intersect_ray_box() {
+		Box3D_F64 box = new Box3D_F64(1, 2, 3, 2, 4, 6);
+		Point3D_F64 found = new Point3D_F64();
+
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(-5, 3, 4, 2, 0, 0), box, found));
+		assertEquals(0, found.distance(1, 3, 4), GrlConstants.TEST_F64);
+		// pointing away
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(-5, 3, 4, -1, 0, 0), box, found));
+		// misses
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(-5, 5, 4, 1, 0, 0), box, found));
+		// inside
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(1.5, 3, 4, 1, -1, 1), box, found));
+		assertEquals(0, found.distance(1.5, 3, 4), GrlConstants.TEST_F64);
+		// diagonal through a corner and the output is optional
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(0, 1, 2, 1, 1, 1), box, null));
+
+		// should agree with an oriented box which isn't rotated
+		BoxOriented3D_F64 oriented = new BoxOriented3D_F64();
+		oriented.set(box);
+		Point3D_F64 expected = new Point3D_F64();
+		for (int i = 0; i < 100; i++) {
+			LineParametric3D_F64 ray = new LineParametric3D_F64(
+					rand.nextGaussian()*5, rand.nextGaussian()*5, rand.nextGaussian()*5,
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			boolean hit = Intersection3D_F64.intersect(ray, oriented, expected);
+			assertEquals(hit, Intersection3D_F64.intersect(ray, box, found));
+			if( hit )
+				assertEquals(0, found.distance(expected), GrlConstants.TEST_F64*10);
+		}
+	}
+
+	@Test
+	public void intersect_line_cylinder() {
+		Point3D_F64 a = new Point3D_F64();
+		Point3D_F64 b = new Point3D_F64();
+
+		// axis along z passing through (1,2,0)
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1, 2, 0, 0, 0, 3, 2);
+
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(-5, 2, 7, 1, 0, 0), cylinder, a, b));
+		assertEquals(0, a.distance(-1, 2, 7), GrlConstants.TEST_F64);
+		assertEquals(0, b.distance(3, 2, 7), GrlConstants.TEST_F64);
+
+		// tangent
+		assertTrue(Intersection3D_F64.intersect(new LineParametric3D_F64(3, -5, 1, 0, 1, 0), cylinder, a, b));
+		assertEquals(0, a.distance(3, 2, 1), GrlConstants.TEST_F64);
+		assertEquals(0, b.distance(3, 2, 1), GrlConstants.TEST_F64);
+
+		// misses and parallel to the axis
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(-5, 5, 0, 1, 0, 0), cylinder, a, b));
+		assertFalse(Intersection3D_F64.intersect(new LineParametric3D_F64(1, 2, 0, 0, 0, 1), cylinder, a, b));
+
+		// random lines through a tilted cylinder. The points must be on its surface
+		cylinder = new Cylinder3D_F64(1, -1, 2, 0.5, 1, -2, 1.5);
+		for (int i = 0; i < 100; i++) {
+			Point3D_F64 inside = new Point3D_F64();
+			cylinder.line.setPointOnLine(rand.nextGaussian()*3, inside);
+			inside.x += rand.nextDouble() - 0.5;
+			inside.y += rand.nextDouble() - 0.5;
+			LineParametric3D_F64 line = new LineParametric3D_F64(inside.x, inside.y, inside.z,
+					rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+			assertTrue(Intersection3D_F64.intersect(line, cylinder, a, b));
+			assertEquals(cylinder.radius, Distance3D_F64.distance(cylinder.line, a), GrlConstants.TEST_F64*10);
+			assertEquals(cylinder.radius, Distance3D_F64.distance(cylinder.line, b), GrlConstants.TEST_F64*10);
+
+			// a comes before b along the line
+			double ta = (a.x - line.p.x)*line.slope.x + (a.y - line.p.y)*line.slope.y + (a.z - line.p.z)*line.slope.z;
+			double tb = (b.x - line.p.x)*line.slope.x + (b.y - line.p.y)*line.slope.y + (b.z - line.p.z)*line.slope.z;
+			assertTrue(ta <= tb);
+		}
+	}
+
+	public static BoxOriented3D_F64 createBox( double x , double y , double z ,
+											   double halfX , double halfY , double halfZ ,
+											   double rotX , double rotY , double rotZ ) {
+		BoxOriented3D_F64 box = new BoxOriented3D_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, rotX, rotY, rotZ, box.boxToWorld.R);
+		box.boxToWorld.T.set(x, y, z);
+		box.halfX = halfX;
+		box.halfY = halfY;
+		box.halfZ = halfZ;
+		return box;
+	}
 }
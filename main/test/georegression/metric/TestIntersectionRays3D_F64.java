@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.line.LineParametric3D_F64;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Cylinder3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static georegression.metric.IntersectionRays3D_F64.MISS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestIntersectionRays3D_F64 {
+	Random rand = new Random(234);
+
+	@Test
+	public void rayBox() {
+		// hits the x0 face
+		assertEquals(3, IntersectionRays3D_F64.rayBox(-5,3,4, 2,0,0, 1,2,3, 2,4,6), GrlConstants.TEST_F64);
+		// pointing away and misses
+		assertEquals(MISS, IntersectionRays3D_F64.rayBox(-5,3,4, -1,0,0, 1,2,3, 2,4,6), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.rayBox(-5,5,4, 1,0,0, 1,2,3, 2,4,6), 0);
+		// starts inside
+		assertEquals(0, IntersectionRays3D_F64.rayBox(1.5,3,4, 0,0,-1, 1,2,3, 2,4,6), 0);
+		// parallel to a face and outside of it
+		assertEquals(MISS, IntersectionRays3D_F64.rayBox(-5,3,7, 1,0,0, 1,2,3, 2,4,6), 0);
+		// goes through the far side of the box
+		assertEquals(MISS, IntersectionRays3D_F64.rayBox(-5,3,4, 1,10,0, 1,2,3, 2,4,6), 0);
+	}
+
+	@Test
+	public void raySphere() {
+		assertEquals(3, IntersectionRays3D_F64.raySphere(-5,1,2, 1,0,0, 0,1,2, 2), GrlConstants.TEST_F64);
+		// direction doesn't need to be normalized
+		assertEquals(1.5, IntersectionRays3D_F64.raySphere(-5,1,2, 2,0,0, 0,1,2, 2), GrlConstants.TEST_F64);
+		assertEquals(MISS, IntersectionRays3D_F64.raySphere(-5,1,2, -1,0,0, 0,1,2, 2), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.raySphere(-5,4,2, 1,0,0, 0,1,2, 2), 0);
+		assertEquals(0, IntersectionRays3D_F64.raySphere(0.5,1,2, -1,0,0, 0,1,2, 2), 0);
+	}
+
+	@Test
+	public void rayPlane() {
+		// plane z = 2
+		assertEquals(4, IntersectionRays3D_F64.rayPlane(1,2,-2, 0,0,1, 0,0,1,2), GrlConstants.TEST_F64);
+		assertEquals(4, IntersectionRays3D_F64.rayPlane(1,2,6, 0,0,-1, 0,0,1,2), GrlConstants.TEST_F64);
+		// behind and parallel
+		assertEquals(MISS, IntersectionRays3D_F64.rayPlane(1,2,-2, 0,0,-1, 0,0,1,2), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.rayPlane(1,2,-2, 1,0,0, 0,0,1,2), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.rayPlane(1,2,2, 1,0,0, 0,0,1,2), 0);
+	}
+
+	@Test
+	public void rayCylinder() {
+		// axis along z passing through (1,2,0)
+		assertEquals(4, IntersectionRays3D_F64.rayCylinder(-5,2,7, 1,0,0, 1,2,0, 0,0,3, 2),
+				GrlConstants.TEST_F64);
+		assertEquals(MISS, IntersectionRays3D_F64.rayCylinder(-5,2,7, -1,0,0, 1,2,0, 0,0,3, 2), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.rayCylinder(-5,5,7, 1,0,0, 1,2,0, 0,0,3, 2), 0);
+		// starts inside
+		assertEquals(0, IntersectionRays3D_F64.rayCylinder(1.5,2,7, 1,1,1, 1,2,0, 0,0,3, 2), 0);
+		// parallel to the axis
+		assertEquals(0, IntersectionRays3D_F64.rayCylinder(1.5,2,7, 0,0,-1, 1,2,0, 0,0,3, 2), 0);
+		assertEquals(MISS, IntersectionRays3D_F64.rayCylinder(4,2,7, 0,0,-1, 1,2,0, 0,0,3, 2), 0);
+	}
+
+	/**
+	 * Random rays aimed at a point inside the primitive must hit it on its surface, unless they start inside
+	 */
+	@Test
+	public void aimedInside() {
+		Sphere3D_F64 sphere = new Sphere3D_F64(1, -2, 0.5, 1.5);
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(1, -1, 2, 0.5, 1, -2, 1.5);
+		Point3D_F64 target = new Point3D_F64();
+		Point3D_F64 hit = new Point3D_F64();
+
+		for (int i = 0; i < 100; i++) {
+			LineParametric3D_F64 ray = randomRay();
+
+			// sphere
+			target.set(sphere.center.x + rand.nextDouble() - 0.5, sphere.center.y + rand.nextDouble() - 0.5,
+					sphere.center.z + rand.nextDouble() - 0.5);
+			ray.slope.set(target.x - ray.p.x, target.y - ray.p.y, target.z - ray.p.z);
+			double t = raySphere(ray, sphere);
+			assertTrue(t != MISS);
+			if( t == 0 ) {
+				assertTrue(ray.p.distance(sphere.center) <= sphere.radius);
+			} else {
+				ray.setPointOnLine(t, hit);
+				assertEquals(sphere.radius, hit.distance(sphere.center), GrlConstants.TEST_F64*10);
+			}
+
+			// cylinder
+			cylinder.line.setPointOnLine(rand.nextGaussian(), target);
+			target.x += rand.nextDouble() - 0.5;
+			target.y += rand.nextDouble() - 0.5;
+			ray.slope.set(target.x - ray.p.x, target.y - ray.p.y, target.z - ray.p.z);
+			t = rayCylinder(ray, cylinder);
+			assertTrue(t != MISS);
+			if( t == 0 ) {
+				// the ray started inside the cylinder
+				assertTrue(Distance3D_F64.distance(cylinder.line, ray.p) <= cylinder.radius);
+			} else {
+				ray.setPointOnLine(t, hit);
+				assertEquals(cylinder.radius, Distance3D_F64.distance(cylinder.line, hit), GrlConstants.TEST_F64*10);
+			}
+		}
+	}
+
+	@Test
+	public void raysBox() {
+		int count = 200;
+		double[] origins = new double[count*3];
+		double[] directions = new double[count*3];
+		double[] t = new double[count];
+		randomRays(origins, directions, count);
+
+		Box3D_F64 box = new Box3D_F64(-1, -0.5, 0, 2, 1, 1.5);
+		IntersectionRays3D_F64.raysBox(origins, directions, count, box, t);
+
+		int hits = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			double expected = IntersectionRays3D_F64.rayBox(origins[j], origins[j+1], origins[j+2],
+					directions[j], directions[j+1], directions[j+2],
+					box.p0.x, box.p0.y, box.p0.z, box.p1.x, box.p1.y, box.p1.z);
+			assertEquals(expected, t[i], 0);
+			if( t[i] != MISS ) hits++;
+		}
+		assertTrue(hits > 0 && hits < count);
+	}
+
+	@Test
+	public void raysSphere() {
+		int count = 200;
+		double[] origins = new double[count*3];
+		double[] directions = new double[count*3];
+		double[] t = new double[count];
+		randomRays(origins, directions, count);
+
+		Sphere3D_F64 sphere = new Sphere3D_F64(0.5, -0.2, 0.3, 1.5);
+		IntersectionRays3D_F64.raysSphere(origins, directions, count, sphere, t);
+
+		int hits = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			double expected = IntersectionRays3D_F64.raySphere(origins[j], origins[j+1], origins[j+2],
+					directions[j], directions[j+1], directions[j+2],
+					sphere.center.x, sphere.center.y, sphere.center.z, sphere.radius);
+			assertEquals(expected, t[i], 0);
+			if( t[i] != MISS ) hits++;
+		}
+		assertTrue(hits > 0 && hits < count);
+	}
+
+	@Test
+	public void raysPlane() {
+		int count = 200;
+		double[] origins = new double[count*3];
+		double[] directions = new double[count*3];
+		double[] t = new double[count];
+		randomRays(origins, directions, count);
+
+		PlaneGeneral3D_F64 plane = new PlaneGeneral3D_F64(0.2, -0.5, 1, 0.5);
+		IntersectionRays3D_F64.raysPlane(origins, directions, count, plane, t);
+
+		int hits = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			double expected = IntersectionRays3D_F64.rayPlane(origins[j], origins[j+1], origins[j+2],
+					directions[j], directions[j+1], directions[j+2], plane.A, plane.B, plane.C, plane.D);
+			assertEquals(expected, t[i], 0);
+			if( t[i] != MISS ) {
+				hits++;
+				double x = origins[j] + t[i]*directions[j];
+				double y = origins[j+1] + t[i]*directions[j+1];
+				double z = origins[j+2] + t[i]*directions[j+2];
+				assertEquals(plane.D, plane.A*x + plane.B*y + plane.C*z, GrlConstants.TEST_F64*10);
+			}
+		}
+		assertTrue(hits > 0 && hits < count);
+	}
+
+	@Test
+	public void raysCylinder() {
+		int count = 200;
+		double[] origins = new double[count*3];
+		double[] directions = new double[count*3];
+		double[] t = new double[count];
+		randomRays(origins, directions, count);
+
+		Cylinder3D_F64 cylinder = new Cylinder3D_F64(0.5, 0, -1, 0, 2, 1, 0.8);
+		IntersectionRays3D_F64.raysCylinder(origins, directions, count, cylinder, t);
+
+		int hits = 0;
+		for (int i = 0, j = 0; i < count; i++, j += 3) {
+			LineParametric3D_F64 ray = new LineParametric3D_F64(origins[j], origins[j+1], origins[j+2],
+					directions[j], directions[j+1], directions[j+2]);
+			assertEquals(rayCylinder(ray, cylinder), t[i], 0);
+			if( t[i] != MISS ) hits++;
+		}
+		assertTrue(hits > 0 && hits < count);
+	}
+
+	@Test
+	public void rayBoxes() {
+		int count = 50;
+		double[] boxes = new double[count*6];
+		for (int i = 0; i < count; i++) {
+			Box3D_F64 box = randomBox();
+			boxes[i*6] = box.p0.x; boxes[i*6+1] = box.p0.y; boxes[i*6+2] = box.p0.z;
+			boxes[i*6+3] = box.p1.x; boxes[i*6+4] = box.p1.y; boxes[i*6+5] = box.p1.z;
+		}
+		double[] t = new double[count];
+
+		for (int trial = 0; trial < 20; trial++) {
+			LineParametric3D_F64 ray = randomRay();
+			IntersectionRays3D_F64.rayBoxes(ray, boxes, count, t);
+			for (int i = 0, j = 0; i < count; i++, j += 6) {
+				double expected = IntersectionRays3D_F64.rayBox(ray.p.x, ray.p.y, ray.p.z,
+						ray.slope.x, ray.slope.y, ray.slope.z,
+						boxes[j], boxes[j+1], boxes[j+2], boxes[j+3], boxes[j+4], boxes[j+5]);
+				assertEquals(expected, t[i], 0);
+			}
+		}
+	}
+
+	@Test
+	public void raySpheres() {
+		int count = 50;
+		double[] spheres = new double[count*4];
+		for (int i = 0; i < spheres.length; i++) {
+			spheres[i] = (i%4 == 3) ? 0.1 + rand.nextDouble() : rand.nextGaussian()*3;
+		}
+		double[] t = new double[count];
+
+		for (int trial = 0; trial < 20; trial++) {
+			LineParametric3D_F64 ray = randomRay();
+			IntersectionRays3D_F64.raySpheres(ray, spheres, count, t);
+			for (int i = 0, j = 0; i < count; i++, j += 4) {
+				Sphere3D_F64 sphere = new Sphere3D_F64(spheres[j], spheres[j+1], spheres[j+2], spheres[j+3]);
+				assertEquals(raySphere(ray, sphere), t[i], 0);
+			}
+		}
+	}
+
+	@Test
+	public void rayPlanes() {
+		int count = 50;
+		double[] planes = new double[count*4];
+		for (int i = 0; i < planes.length; i++) {
+			planes[i] = rand.nextGaussian();
+		}
+		double[] t = new double[count];
+
+		for (int trial = 0; trial < 20; trial++) {
+			LineParametric3D_F64 ray = randomRay();
+			IntersectionRays3D_F64.rayPlanes(ray, planes, count, t);
+			for (int i = 0, j = 0; i < count; i++, j += 4) {
+				double expected = IntersectionRays3D_F64.rayPlane(ray.p.x, ray.p.y, ray.p.z,
+						ray.slope.x, ray.slope.y, ray.slope.z, planes[j], planes[j+1], planes[j+2], planes[j+3]);
+				assertEquals(expected, t[i], 0);
+			}
+		}
+	}
+
+	@Test
+	public void rayCylinders() {
+		int count = 50;
+		double[] cylinders = new double[count*7];
+		for (int i = 0; i < cylinders.length; i++) {
+			cylinders[i] = (i%7 == 6) ? 0.1 + rand.nextDouble() : rand.nextGaussian()*3;
+		}
+		double[] t = new double[count];
+
+		for (int trial = 0; trial < 20; trial++) {
+			LineParametric3D_F64 ray = randomRay();
+			IntersectionRays3D_F64.rayCylinders(ray, cylinders, count, t);
+			for (int i = 0, j = 0; i < count; i++, j += 7) {
+				Cylinder3D_F64 cylinder = new Cylinder3D_F64(cylinders[j], cylinders[j+1], cylinders[j+2],
+						cylinders[j+3], cylinders[j+4], cylinders[j+5], cylinders[j+6]);
+				assertEquals(rayCylinder(ray, cylinder), t[i], 0);
+			}
+		}
+	}
+
+	@Test
+	public void closest() {
+		double[] t = new double[]{MISS, 5, 2, MISS, 3};
+		assertEquals(2, IntersectionRays3D_F64.closest(t, 5));
+		assertEquals(1, IntersectionRays3D_F64.closest(t, 2));
+		assertEquals(-1, IntersectionRays3D_F64.closest(t, 1));
+		assertEquals(-1, IntersectionRays3D_F64.closest(t, 0));
+	}
+
+	private static double raySphere( LineParametric3D_F64 ray , Sphere3D_F64 sphere ) {
+		return IntersectionRays3D_F64.raySphere(ray.p.x, ray.p.y, ray.p.z, ray.slope.x, ray.slope.y, ray.slope.z,
+				sphere.center.x, sphere.center.y, sphere.center.z, sphere.radius);
+	}
+
+	private static double rayCylinder( LineParametric3D_F64 ray , Cylinder3D_F64 cylinder ) {
+		LineParametric3D_F64 axis = cylinder.line;
+		return IntersectionRays3D_F64.rayCylinder(ray.p.x, ray.p.y, ray.p.z, ray.slope.x, ray.slope.y, ray.slope.z,
+				axis.p.x, axis.p.y, axis.p.z, axis.slope.x, axis.slope.y, axis.slope.z, cylinder.radius);
+	}
+
+	private LineParametric3D_F64 randomRay() {
+		return new LineParametric3D_F64(rand.nextGaussian()*5, rand.nextGaussian()*5, rand.nextGaussian()*5,
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian());
+	}
+
+	private void randomRays( double[] origins , double[] directions , int count ) {
+		for (int i = 0; i < count*3; i++) {
+			origins[i] = rand.nextGaussian()*5;
+			directions[i] = rand.nextGaussian();
+		}
+	}
+
+	private Box3D_F64 randomBox() {
+		double x = rand.nextGaussian()*3, y = rand.nextGaussian()*3, z = rand.nextGaussian()*3;
+		return new Box3D_F64(x, y, z, x + 0.1 + rand.nextDouble(), y + 0.1 + rand.nextDouble(),
+				z + 0.1 + rand.nextDouble());
+	}
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.metric.alg;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.plane.PlaneGeneral3D_F64;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Sphere3D_F64;
+import org.ddogleg.struct.GrowQueue_B;
+import org.ddogleg.struct.GrowQueue_I8;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static georegression.metric.alg.FrustumCulling3D_F64.*;
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFrustumCulling3D_F64 {
+	Random rand = new Random(234);
+
+	/**
+	 * Frustum of a camera at the origin looking down the z-axis with a 90 degree field of view.
+	 * Normals aren't normalized.
+	 */
+	public static FrustumCulling3D_F64 createFrustum() {
+		return new FrustumCulling3D_F64(
+				new PlaneGeneral3D_F64(0, 0, 1, 1),    // near, z >= 1
+				new PlaneGeneral3D_F64(0, 0, -2, -20), // far, z <= 10
+				new PlaneGeneral3D_F64(-1, 0, 1, 0),   // x <= z
+				new PlaneGeneral3D_F64(1, 0, 1, 0),    // x >= -z
+				new PlaneGeneral3D_F64(0, -1, 1, 0),   // y <= z
+				new PlaneGeneral3D_F64(0, 1, 1, 0));   // y >= -z
+	}
+
+	@Test
+	public void setPlanes_normalize() {
+		FrustumCulling3D_F64 alg = createFrustum();
+		assertEquals(6, alg.getNumberOfPlanes());
+
+		PlaneGeneral3D_F64 plane = new PlaneGeneral3D_F64();
+		alg.getPlane(1, plane);
+		assertEquals(-1, plane.C, GrlConstants.TEST_F64);
+		assertEquals(-10, plane.D, GrlConstants.TEST_F64);
+		alg.getPlane(2, plane);
+		assertEquals(-Math.sqrt(0.5), plane.A, GrlConstants.TEST_F64);
+		assertEquals(Math.sqrt(0.5), plane.C, GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void contains_point() {
+		FrustumCulling3D_F64 alg = createFrustum();
+		assertTrue(alg.contains(new Point3D_F64(0, 0, 5)));
+		assertTrue(alg.contains(new Point3D_F64(1, 1, 1)));
+		assertTrue(alg.contains(new Point3D_F64(-10, 10, 10)));
+		assertFalse(alg.contains(new Point3D_F64(0, 0, 0.9)));
+		assertFalse(alg.contains(new Point3D_F64(0, 0, 10.1)));
+		assertFalse(alg.contains(new Point3D_F64(5.1, 0, 5)));
+		assertFalse(alg.contains(new Point3D_F64(0, -5.1, 5)));
+
+		// batch should produce the same results
+		int count = 500;
+		double[] xyz = new double[count*3];
+		for (int i = 0; i < xyz.length; i++) {
+			xyz[i] = rand.nextGaussian()*6 + (i%3 == 2 ? 5 : 0);
+		}
+		GrowQueue_B inside = new GrowQueue_B();
+		alg.containsPoints(xyz, count, inside);
+		assertEquals(count, inside.size);
+		int numInside = 0;
+		for (int i = 0; i < count; i++) {
+			assertEquals(alg.contains(xyz[i*3], xyz[i*3+1], xyz[i*3+2]), inside.get(i));
+			if( inside.get(i) )
+				numInside++;
+		}
+		assertTrue(numInside > 20 && numInside < count-20);
+	}
+
+	/**
+	 * When the volume is a box the classification is exact
+	 */
+	@Test
+	public void classify_box_exact() {
+		FrustumCulling3D_F64 alg = new FrustumCulling3D_F64(
+				new PlaneGeneral3D_F64(1, 0, 0, -1), new PlaneGeneral3D_F64(-1, 0, 0, -1),
+				new PlaneGeneral3D_F64(0, 1, 0, -2), new PlaneGeneral3D_F64(0, -1, 0, -2),
+				new PlaneGeneral3D_F64(0, 0, 1, -3), new PlaneGeneral3D_F64(0, 0, -1, -3));
+
+		assertEquals(INSIDE, alg.classify(new Box3D_F64(-1, -2, -3, 1, 2, 3)));
+		assertEquals(INSIDE, alg.classify(new Box3D_F64(0, 0, 0, 0.5, 0.5, 0.5)));
+		assertEquals(INTERSECTING, alg.classify(new Box3D_F64(0.5, 0, 0, 1.5, 0.5, 0.5)));
+		assertEquals(INTERSECTING, alg.classify(new Box3D_F64(-5, -5, -5, 5, 5, 5)));
+		assertEquals(OUTSIDE, alg.classify(new Box3D_F64(1.1, 0, 0, 1.5, 0.5, 0.5)));
+		assertEquals(OUTSIDE, alg.classify(new Box3D_F64(0, 0, -4, 0.5, 0.5, -3.1)));
+	}
+
+	/**
+	 * A box is inside only if all its corners are inside and it can't be outside if a point inside of it is
+	 * inside of the frustum
+	 */
+	@Test
+	public void classify_box_random() {
+		FrustumCulling3D_F64 alg = createFrustum();
+		Point3D_F64 p = new Point3D_F64();
+
+		int count = 500;
+		double[] boxes = randomBoxes(count);
+		GrowQueue_I8 results = new GrowQueue_I8();
+		alg.classifyBoxes(boxes, count, results);
+		assertEquals(count, results.size);
+
+		int[] histogram = new int[3];
+		for (int i = 0; i < count; i++) {
+			int idx = i*6;
+			Box3D_F64 box = new Box3D_F64(boxes[idx], boxes[idx+1], boxes[idx+2],
+					boxes[idx+3], boxes[idx+4], boxes[idx+5]);
+			int found = results.get(i);
+			histogram[found]++;
+
+			// batch and single should be the same
+			assertEquals(found, alg.classify(box));
+
+			boolean allCorners = true;
+			for (int j = 0; j < 8; j++) {
+				p.set((j & 1) == 0 ? box.p0.x : box.p1.x,
+						(j & 2) == 0 ? box.p0.y : box.p1.y,
+						(j & 4) == 0 ? box.p0.z : box.p1.z);
+				allCorners &= alg.contains(p);
+			}
+			assertEquals(allCorners, found == INSIDE);
+
+			if( found == OUTSIDE ) {
+				for (int j = 0; j < 100; j++) {
+					p.set(box.p0.x + rand.nextDouble()*(box.p1.x - box.p0.x),
+							box.p0.y + rand.nextDouble()*(box.p1.y - box.p0.y),
+							box.p0.z + rand.nextDouble()*(box.p1.z - box.p0.z));
+					assertFalse(alg.contains(p));
+				}
+			}
+		}
+		// make sure every case was tested
+		for (int i = 0; i < 3; i++) {
+			assertTrue(histogram[i] > 20);
+		}
+	}
+
+	@Test
+	public void classify_sphere() {
+		FrustumCulling3D_F64 alg = createFrustum();
+		assertEquals(INSIDE, alg.classify(new Sphere3D_F64(0, 0, 5, 1)));
+		assertEquals(INTERSECTING, alg.classify(new Sphere3D_F64(0, 0, 1.5, 1)));
+		assertEquals(OUTSIDE, alg.classify(new Sphere3D_F64(0, 0, -0.5, 1)));
+		// distance to the x <= z plane is sqrt(2)*2.5
+		double d = Math.sqrt(2)*2.5;
+		assertEquals(OUTSIDE, alg.classify(new Sphere3D_F64(10, 0, 5, d*0.99)));
+		assertEquals(INTERSECTING, alg.classify(new Sphere3D_F64(10, 0, 5, d*1.01)));
+
+		// batch should be the same as single
+		int count = 300;
+		double[] spheres = new double[count*4];
+		for (int i = 0; i < count; i++) {
+			spheres[i*4] = rand.nextGaussian()*6;
+			spheres[i*4+1] = rand.nextGaussian()*6;
+			spheres[i*4+2] = rand.nextGaussian()*6 + 5;
+			spheres[i*4+3] = rand.nextDouble()*2;
+		}
+		GrowQueue_I8 results = new GrowQueue_I8();
+		alg.classifySpheres(spheres, count, results);
+		int[] histogram = new int[3];
+		for (int i = 0; i < count; i++) {
+			Sphere3D_F64 sphere = new Sphere3D_F64(spheres[i*4], spheres[i*4+1], spheres[i*4+2], spheres[i*4+3]);
+			assertEquals(results.get(i), alg.classify(sphere));
+			histogram[results.get(i)]++;
+		}
+		for (int i = 0; i < 3; i++) {
+			assertTrue(histogram[i] > 20);
+		}
+	}
+
+	/**
+	 * Results with a cache must be the same as without and the cache must point to a plane which rejects the object
+	 */
+	@Test
+	public void coherentCache() {
+		FrustumCulling3D_F64 alg = createFrustum();
+		int count = 300;
+		double[] boxes = randomBoxes(count);
+		double[] spheres = new double[count*4];
+		for (int i = 0; i < count; i++) {
+			spheres[i*4] = boxes[i*6];
+			spheres[i*4+1] = boxes[i*6+1];
+			spheres[i*4+2] = boxes[i*6+2];
+			spheres[i*4+3] = boxes[i*6+3] - boxes[i*6];
+		}
+
+		GrowQueue_I8 expected = new GrowQueue_I8();
+		GrowQueue_I8 found = new GrowQueue_I8();
+		GrowQueue_I8 cacheBoxes = new GrowQueue_I8();
+		GrowQueue_I8 cacheSpheres = new GrowQueue_I8();
+		PlaneGeneral3D_F64 plane = new PlaneGeneral3D_F64();
+
+		// simulate several frames with objects moving a little
+		for (int frame = 0; frame < 5; frame++) {
+			alg.classifyBoxes(boxes, count, expected);
+			alg.classifyBoxes(boxes, count, found, cacheBoxes);
+			assertEquals(count, cacheBoxes.size);
+			for (int i = 0; i < count; i++) {
+				assertEquals(expected.get(i), found.get(i));
+				if( found.get(i) == OUTSIDE ) {
+					// every corner is outside of the cached plane
+					alg.getPlane(cacheBoxes.get(i), plane);
+					for (int j = 0; j < 8; j++) {
+						double x = boxes[i*6 + ((j & 1) == 0 ? 0 : 3)];
+						double y = boxes[i*6 + ((j & 2) == 0 ? 1 : 4)];
+						double z = boxes[i*6 + ((j & 4) == 0 ? 2 : 5)];
+						assertTrue(plane.A*x + plane.B*y + plane.C*z - plane.D < 0);
+					}
+				}
+			}
+
+			alg.classifySpheres(spheres, count, expected);
+			alg.classifySpheres(spheres, count, found, cacheSpheres);
+			for (int i = 0; i < count; i++) {
+				assertEquals(expected.get(i), found.get(i));
+				if( found.get(i) == OUTSIDE ) {
+					alg.getPlane(cacheSpheres.get(i), plane);
+					double x = spheres[i*4], y = spheres[i*4+1], z = spheres[i*4+2];
+					assertTrue(plane.A*x + plane.B*y + plane.C*z - plane.D < -spheres[i*4+3]);
+				}
+			}
+
+			for (int i = 0; i < boxes.length; i++) {
+				boxes[i] += 0.1;
+			}
+			for (int i = 0; i < spheres.length; i++) {
+				if( i%4 != 3 )
+					spheres[i] += 0.1;
+			}
+		}
+
+		// if the number of objects changes the cache is reset
+		alg.classifyBoxes(boxes, 10, found, cacheBoxes);
+		assertEquals(10, cacheBoxes.size);
+
+		// if the cache refers to planes which no longer exist it is ignored
+		alg.setPlanes(new PlaneGeneral3D_F64(0, 0, 1, 1));
+		cacheBoxes.fill((byte)5);
+		alg.classifyBoxes(boxes, 10, found, cacheBoxes);
+		alg.classifyBoxes(boxes, 10, expected);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(expected.get(i), found.get(i));
+		}
+	}
+
+	@Test
+	public void badPlane() {
+		try {
+			new FrustumCulling3D_F64(new PlaneGeneral3D_F64(0, 0, 0, 1));
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	private double[] randomBoxes( int count ) {
+		double[] boxes = new double[count*6];
+		for (int i = 0; i < count; i++) {
+			double x = rand.nextGaussian()*6, y = rand.nextGaussian()*6, z = rand.nextGaussian()*6 + 5;
+			double size = 0.1 + rand.nextDouble()*2;
+			boxes[i*6  ] = x;
+			boxes[i*6+1] = y;
+			boxes[i*6+2] = z;
+			boxes[i*6+3] = x + size;
+			boxes[i*6+4] = y + size;
+			boxes[i*6+5] = z + size;
+		}
+		return boxes;
+	}
+}
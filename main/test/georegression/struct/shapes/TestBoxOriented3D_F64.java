@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.geometry.ConvertRotation3D_F64;
+import georegression.misc.GrlConstants;
+import georegression.struct.EulerType;
+import georegression.struct.point.Point3D_F64;
+import georegression.transform.se.SePointOps_F64;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBoxOriented3D_F64 {
+	@Test
+	public void volume() {
+		BoxOriented3D_F64 box = new BoxOriented3D_F64();
+		box.halfX = 1;
+		box.halfY = 2;
+		box.halfZ = 3;
+		assertEquals(48, box.volume(), GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void set_box() {
+		BoxOriented3D_F64 box = new BoxOriented3D_F64();
+		box.set(new Box3D_F64(1, 2, 3, 2, 4, 6));
+
+		Point3D_F64 center = box.center(null);
+		assertEquals(1.5, center.x, GrlConstants.TEST_F64);
+		assertEquals(3, center.y, GrlConstants.TEST_F64);
+		assertEquals(4.5, center.z, GrlConstants.TEST_F64);
+		assertEquals(0.5, box.halfX, GrlConstants.TEST_F64);
+		assertEquals(1, box.halfY, GrlConstants.TEST_F64);
+		assertEquals(1.5, box.halfZ, GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void corner() {
+		BoxOriented3D_F64 box = new BoxOriented3D_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ, 0.1, -0.5, 1.2, box.boxToWorld.R);
+		box.boxToWorld.T.set(1, 2, 3);
+		box.halfX = 1;
+		box.halfY = 2;
+		box.halfZ = 3;
+
+		Point3D_F64 local = new Point3D_F64();
+		for (int i = 0; i < 8; i++) {
+			Point3D_F64 found = box.corner(i, null);
+			SePointOps_F64.transformReverse(box.boxToWorld, found, local);
+
+			assertEquals((i & 1) == 0 ? -1 : 1, local.x, GrlConstants.TEST_F64);
+			assertEquals((i & 2) == 0 ? -2 : 2, local.y, GrlConstants.TEST_F64);
+			assertEquals((i & 4) == 0 ? -3 : 3, local.z, GrlConstants.TEST_F64);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import georegression.struct.point.Point2D_I32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPackedContour2D_I32 {
+	@Test
+	public void add_grow() {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(2);
+		for (int i = 0; i < 50; i++) {
+			contour.add(i, -i);
+		}
+		assertEquals(50, contour.size());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i, contour.getX(i));
+			assertEquals(-i, contour.getY(i));
+		}
+
+		Point2D_I32 p = new Point2D_I32();
+		contour.get(10, p);
+		assertEquals(10, p.x);
+		assertEquals(-10, p.y);
+	}
+
+	@Test
+	public void constructor_points() {
+		PackedContour2D_I32 contour = new PackedContour2D_I32(1,2, 3,4, 5,6);
+		assertEquals(3, contour.size());
+		assertEquals(5, contour.getX(2));
+		assertEquals(6, contour.getY(2));
+	}
+
+	@Test
+	public void set_list() {
+		List<Point2D_I32> points = new ArrayList<>();
+		for (int i = 0; i < 15; i++) {
+			points.add(new Point2D_I32(i, i*2));
+		}
+		PackedContour2D_I32 contour = new PackedContour2D_I32(1,2, 3,4);
+		contour.set(points);
+		assertEquals(15, contour.size());
+		for (int i = 0; i < 15; i++) {
+			assertEquals(i, contour.getX(i));
+			assertEquals(i*2, contour.getY(i));
+		}
+
+		// copy into a short contour and back
+		PackedContour2D_I16 contour16 = new PackedContour2D_I16();
+		contour16.set(contour);
+		PackedContour2D_I32 copy = new PackedContour2D_I32();
+		copy.set(contour16);
+		assertEquals(15, copy.size());
+		for (int i = 0; i < 15; i++) {
+			assertEquals(i, copy.getX(i));
+			assertEquals(i*2, copy.getY(i));
+		}
+	}
+}
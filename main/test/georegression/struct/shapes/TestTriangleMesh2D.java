@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.struct.shapes;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTriangleMesh2D {
+
+	/**
+	 * Two triangles which share an edge
+	 */
+	private TriangleMesh2D createPair() {
+		TriangleMesh2D mesh = new TriangleMesh2D();
+		mesh.triangles.addAll(new int[]{0,1,2, 2,1,3},0,6);
+		mesh.halfedges.addAll(new int[]{-1,3,-1, 1,-1,-1},0,6);
+		mesh.hull.addAll(new int[]{0,1,3,2},0,4);
+		return mesh;
+	}
+
+	@Test
+	public void next_prev() {
+		for (int e = 0; e < 9; e++) {
+			int n = TriangleMesh2D.next(e);
+			int p = TriangleMesh2D.prev(e);
+			assertEquals(e/3, n/3);
+			assertEquals(e/3, p/3);
+			assertEquals(e, TriangleMesh2D.prev(n));
+			assertEquals(e, TriangleMesh2D.next(p));
+		}
+		assertEquals(3, TriangleMesh2D.next(5));
+		assertEquals(5, TriangleMesh2D.prev(3));
+	}
+
+	@Test
+	public void getVertex_getAdjacent() {
+		TriangleMesh2D mesh = createPair();
+
+		assertEquals(2, mesh.size());
+		assertEquals(2, mesh.getVertex(0,2));
+		assertEquals(3, mesh.getVertex(1,2));
+
+		assertEquals(1, mesh.getAdjacent(0,1));
+		assertEquals(0, mesh.getAdjacent(1,0));
+		assertEquals(-1, mesh.getAdjacent(0,0));
+		assertEquals(-1, mesh.getAdjacent(1,2));
+	}
+
+	@Test
+	public void setTo_copy_reset() {
+		TriangleMesh2D mesh = createPair();
+		TriangleMesh2D found = mesh.copy();
+
+		assertEquals(6, found.triangles.size);
+		assertEquals(6, found.halfedges.size);
+		assertEquals(4, found.hull.size);
+		for (int i = 0; i < 6; i++) {
+			assertEquals(mesh.triangles.get(i), found.triangles.get(i));
+			assertEquals(mesh.halfedges.get(i), found.halfedges.get(i));
+		}
+
+		found.reset();
+		assertEquals(0, found.size());
+		assertEquals(0, found.hull.size);
+		assertEquals(6, mesh.triangles.size);
+	}
+}
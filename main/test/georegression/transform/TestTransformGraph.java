@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTransformGraph {
+	Random rand = new Random(234);
+
+	TransformGraph<Se3_F64> graph;
+
+	Se3_F64 robotToWorld = random();
+	Se3_F64 armToRobot = random();
+	Se3_F64 cameraToArm = random();
+	Se3_F64 lidarToWorld = random();
+
+	/**
+	 * world -> robot -> arm -> camera
+	 * world -> lidar
+	 */
+	@Before
+	public void init() {
+		graph = new TransformGraph<>();
+		graph.addFrame("world", null, null);
+		graph.addFrame("robot", "world", robotToWorld);
+		graph.addFrame("arm", "robot", armToRobot);
+		graph.addFrame("camera", "arm", cameraToArm);
+		graph.addFrame("lidar", "world", lidarToWorld);
+	}
+
+	@Test
+	public void lookup() {
+		Se3_F64 found = new Se3_F64();
+
+		// straight up
+		assertTrue(graph.lookup("camera", "world", found));
+		check(sequence(true, cameraToArm, true, armToRobot, true, robotToWorld), found);
+
+		// straight down
+		assertTrue(graph.lookup("world", "arm", found));
+		check(sequence(false, robotToWorld, false, armToRobot), found);
+
+		// up then down through the common ancestor
+		assertTrue(graph.lookup("camera", "lidar", found));
+		check(sequence(true, cameraToArm, true, armToRobot, true, robotToWorld, false, lidarToWorld), found);
+		assertTrue(graph.lookup("lidar", "arm", found));
+		check(sequence(true, lidarToWorld, false, robotToWorld, false, armToRobot), found);
+
+		// common ancestor isn't the root
+		graph.addFrame("gripper", "arm", robotToWorld);
+		assertTrue(graph.lookup("camera", "gripper", found));
+		check(sequence(true, cameraToArm, false, robotToWorld), found);
+
+		// same frame
+		assertTrue(graph.lookup("arm", "arm", found));
+		check(new Se3_F64(), found);
+	}
+
+	/**
+	 * Changing a transform should only change paths which go through it
+	 */
+	@Test
+	public void update() {
+		Se3_F64 found = new Se3_F64();
+		assertTrue(graph.lookup("camera", "lidar", found));
+		assertTrue(graph.lookup("arm", "robot", found));
+
+		Se3_F64 cameraToArm2 = random();
+		graph.update("camera", cameraToArm2);
+		assertTrue(graph.lookup("camera", "lidar", found));
+		check(sequence(true, cameraToArm2, true, armToRobot, true, robotToWorld, false, lidarToWorld), found);
+		assertTrue(graph.lookup("arm", "robot", found));
+		check(armToRobot, found);
+
+		// the inverse transform needs to be updated too
+		Se3_F64 lidarToWorld2 = random();
+		graph.update(graph.getFrame("lidar"), lidarToWorld2);
+		assertTrue(graph.lookup("camera", "lidar", found));
+		check(sequence(true, cameraToArm2, true, armToRobot, true, robotToWorld, false, lidarToWorld2), found);
+
+		// modifying the original transform shouldn't change anything
+		armToRobot.T.x += 10;
+		assertTrue(graph.lookup("arm", "robot", found));
+		assertEquals(armToRobot.T.x - 10, found.T.x, GrlConstants.TEST_F64);
+	}
+
+	@Test
+	public void differentTrees() {
+		graph.addFrame("moon", null, null);
+		graph.addFrame("rover", "moon", random());
+
+		Se3_F64 found = new Se3_F64();
+		assertFalse(graph.lookup("rover", "camera", found));
+		assertFalse(graph.lookup("world", "moon", found));
+		assertTrue(graph.lookup("rover", "moon", found));
+
+		assertSame(graph.getFrame("moon"), graph.getFrame("rover").getRoot());
+		assertSame(graph.getFrame("world"), graph.getFrame("camera").getRoot());
+
+		// failed lookups shouldn't cache anything
+		assertEquals(0, graph.getFrame("world").paths.size());
+	}
+
+	@Test
+	public void addFrame_errors() {
+		try {
+			graph.addFrame("arm", "world", random());
+			fail("Duplicate name");
+		} catch( IllegalArgumentException ignore ) {}
+		try {
+			graph.addFrame("foo", "bar", random());
+			fail("Unknown parent");
+		} catch( IllegalArgumentException ignore ) {}
+
+		assertEquals(5, graph.size());
+		assertTrue(graph.hasFrame("lidar"));
+		assertFalse(graph.hasFrame("bar"));
+		assertSame(graph.getFrame("world"), graph.getFrame("arm").getParent().getParent());
+		assertEquals(2, graph.getFrame("arm").getDepth());
+	}
+
+	private static Se3_F64 sequence( Object... args ) {
+		InvertibleTransformSequence<Se3_F64> sequence = new InvertibleTransformSequence<>();
+		for (int i = 0; i < args.length; i += 2) {
+			sequence.addTransform((Boolean)args[i], (Se3_F64)args[i+1]);
+		}
+		Se3_F64 out = new Se3_F64();
+		sequence.computeTransform(out);
+		return out;
+	}
+
+	private static void check( Se3_F64 expected , Se3_F64 found ) {
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R, found.R, GrlConstants.TEST_F64));
+		assertEquals(0, expected.T.distance(found.T), GrlConstants.TEST_F64);
+	}
+
+	private Se3_F64 random() {
+		return SpecialEuclideanOps_F64.setEulerXYZ(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+}
@@ -73,4 +73,19 @@ public class TestAffinePointOps_F64 {
 		assertEquals(expectedX,found.x, GrlConstants.TEST_F64);
 		assertEquals(expectedY, found.y, GrlConstants.TEST_F64);
 	}
+
+	@Test
+	public void transform_packed() {
+		Affine2D_F64 tran = new Affine2D_F64(1,2,-3,4,5,6);
+
+		double[] src = new double[]{1,2, -0.5,3, 4,-1};
+		double[] dst = new double[src.length];
+		AffinePointOps_F64.transform(tran,src,dst,3);
+
+		for (int i = 0; i < 3; i++) {
+			Point2D_F64 expected = AffinePointOps_F64.transform(tran,src[i*2],src[i*2+1],null);
+			assertEquals(expected.x,dst[i*2],GrlConstants.TEST_F64);
+			assertEquals(expected.y,dst[i*2+1],GrlConstants.TEST_F64);
+		}
+	}
 }
@@ -82,4 +82,19 @@ public class TestHomographyPointOps_F64 {
 		assertEquals(expected.x,dst.x, GrlConstants.TEST_F64);
 		assertEquals(expected.y,dst.y, GrlConstants.TEST_F64);
 	}
+
+	@Test
+	public void transform_packed() {
+		Homography2D_F64 H = new Homography2D_F64(1,2,3,4,5,6,0.01,-0.02,1);
+
+		double[] src = new double[]{1,2, -0.5,3, 4,-1};
+		double[] dst = new double[src.length];
+		HomographyPointOps_F64.transform(H,src,dst,3);
+
+		for (int i = 0; i < 3; i++) {
+			Point2D_F64 expected = HomographyPointOps_F64.transform(H,src[i*2],src[i*2+1],null);
+			assertEquals(expected.x,dst[i*2],GrlConstants.TEST_F64);
+			assertEquals(expected.y,dst[i*2+1],GrlConstants.TEST_F64);
+		}
+	}
 }
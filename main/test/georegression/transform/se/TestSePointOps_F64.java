@@ -31,6 +31,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
 
@@ -162,4 +163,54 @@ public class TestSePointOps_F64 {
 		assertEquals( 7, Pt.getY(), GrlConstants.TEST_F64);
 		assertEquals( 9, Pt.getZ(), GrlConstants.TEST_F64);
 	}
+
+	@Test
+	public void transform_2d_packed() {
+		Random rand = new Random(234);
+		Se2_F64 tran = new Se2_F64(-2, 3, 0.3);
+
+		int N = 11;
+		double[] src = new double[N*2];
+		for (int i = 0; i < src.length; i++) {
+			src[i] = rand.nextGaussian();
+		}
+		double[] dst = new double[N*2];
+		SePointOps_F64.transform(tran,src,dst,N);
+
+		for (int i = 0; i < N; i++) {
+			Point2D_F64 expected = SePointOps_F64.transform(tran,src[i*2],src[i*2+1],null);
+			assertEquals(expected.x,dst[i*2],GrlConstants.TEST_F64);
+			assertEquals(expected.y,dst[i*2+1],GrlConstants.TEST_F64);
+		}
+
+		// in place
+		SePointOps_F64.transform(tran,src,src,N);
+		for (int i = 0; i < src.length; i++) {
+			assertEquals(dst[i],src[i],0);
+		}
+	}
+
+	@Test
+	public void transform_3d_packed() {
+		Random rand = new Random(234);
+		Se3_F64 tran = new Se3_F64();
+		ConvertRotation3D_F64.eulerToMatrix(EulerType.XYZ,0.1,-0.5,1.2,tran.getR());
+		tran.getT().set(0.5,-2,3);
+
+		int N = 11;
+		double[] src = new double[N*3];
+		for (int i = 0; i < src.length; i++) {
+			src[i] = rand.nextGaussian();
+		}
+		double[] dst = new double[N*3];
+		SePointOps_F64.transform(tran,src,dst,N);
+
+		for (int i = 0; i < N; i++) {
+			Point3D_F64 p = new Point3D_F64(src[i*3],src[i*3+1],src[i*3+2]);
+			Point3D_F64 expected = SePointOps_F64.transform(tran,p,null);
+			assertEquals(expected.x,dst[i*3],GrlConstants.TEST_F64);
+			assertEquals(expected.y,dst[i*3+1],GrlConstants.TEST_F64);
+			assertEquals(expected.z,dst[i*3+2],GrlConstants.TEST_F64);
+		}
+	}
 }
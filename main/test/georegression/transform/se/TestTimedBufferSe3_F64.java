@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.transform.se;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.se.SpecialEuclideanOps_F64;
+import org.ejml.dense.row.MatrixFeatures_DDRM;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTimedBufferSe3_F64 {
+	Random rand = new Random(234);
+
+	@Test
+	public void lookup() {
+		TimedBufferSe3_F64 alg = new TimedBufferSe3_F64(10, 1000);
+		Se3_F64 found = new Se3_F64();
+		assertFalse(alg.lookup(0, found));
+
+		Se3_F64[] poses = new Se3_F64[5];
+		for (int i = 0; i < poses.length; i++) {
+			poses[i] = random();
+			alg.add(10 + i*10, poses[i]);
+		}
+
+		// exact match
+		assertTrue(alg.lookup(30, found));
+		check(poses[2], found);
+		assertTrue(alg.lookup(10, found));
+		check(poses[0], found);
+		assertTrue(alg.lookup(50, found));
+		check(poses[4], found);
+
+		// interpolated
+		InterpolateLinearSe3_F64 interp = new InterpolateLinearSe3_F64();
+		interp.setTransforms(poses[1], poses[2]);
+		Se3_F64 expected = new Se3_F64();
+		interp.interpolate(0.3, expected);
+		assertTrue(alg.lookup(23, found));
+		check(expected, found);
+
+		// outside the range
+		assertFalse(alg.lookup(9, found));
+		assertFalse(alg.lookup(51, found));
+	}
+
+	@Test
+	public void evictCapacity() {
+		TimedBufferSe3_F64 alg = new TimedBufferSe3_F64(3, 1000);
+		for (int i = 0; i < 7; i++) {
+			alg.add(i, random());
+		}
+		assertEquals(3, alg.size());
+		assertEquals(4, alg.getOldestTime());
+		assertEquals(6, alg.getNewestTime());
+		assertFalse(alg.lookup(3, new Se3_F64()));
+		assertTrue(alg.lookup(4, new Se3_F64()));
+
+		alg.reset();
+		assertEquals(0, alg.size());
+		assertFalse(alg.lookup(6, new Se3_F64()));
+	}
+
+	@Test
+	public void evictWindow() {
+		TimedBufferSe3_F64 alg = new TimedBufferSe3_F64(100, 25);
+		for (int i = 0; i < 10; i++) {
+			alg.add(i*10, random());
+		}
+		assertEquals(3, alg.size());
+		assertEquals(70, alg.getOldestTime());
+
+		// the newest entry is never evicted
+		alg.add(1000, random());
+		assertEquals(1, alg.size());
+	}
+
+	@Test
+	public void timeMustIncrease() {
+		TimedBufferSe3_F64 alg = new TimedBufferSe3_F64(10, 1000);
+		alg.add(5, random());
+		try {
+			alg.add(5, random());
+			fail("Should have thrown an exception");
+		} catch( IllegalArgumentException ignore ) {}
+	}
+
+	/**
+	 * Readers in other threads should never see a partially written entry. The translation and rotation of each
+	 * entry are a function of its time, so a torn read would be inconsistent.
+	 */
+	@Test
+	public void concurrent() throws InterruptedException {
+		final TimedBufferSe3_F64 alg = new TimedBufferSe3_F64(20, 1000, true);
+		final AtomicBoolean done = new AtomicBoolean(false);
+		final AtomicInteger errors = new AtomicInteger(0);
+		final AtomicInteger lookups = new AtomicInteger(0);
+		final AtomicLong newest = new AtomicLong(0);
+
+		Thread[] readers = new Thread[3];
+		for (int i = 0; i < readers.length; i++) {
+			final long seed = i;
+			readers[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					Random rand = new Random(seed);
+					TimedBufferSe3_F64.Reader reader = alg.createReader();
+					Se3_F64 found = new Se3_F64();
+					Se3_F64 expected = new Se3_F64();
+					while( !done.get() ) {
+						long time = newest.get() - rand.nextInt(40);
+						// encoded values wrap around
+						if( (time + 1) % 2000 == 0 )
+							continue;
+						if( !reader.lookup(time, found) )
+							continue;
+						lookups.incrementAndGet();
+						encode(time, expected);
+						// a torn read would be off by much more than the interpolation error
+						if( Math.abs(found.T.x - expected.T.x) > GrlConstants.TEST_SQ_F64 ||
+								!MatrixFeatures_DDRM.isIdentical(expected.R, found.R, GrlConstants.TEST_SQ_F64) )
+							errors.incrementAndGet();
+					}
+				}
+			});
+			readers[i].start();
+		}
+
+		Se3_F64 pose = new Se3_F64();
+		// only even times are added so that readers also interpolate
+		for (long time = 0; time < 10_000_000 && lookups.get() < 10_000; time += 2) {
+			encode(time, pose);
+			alg.add(time, pose);
+			newest.set(time);
+		}
+		done.set(true);
+		for (int i = 0; i < readers.length; i++) {
+			readers[i].join();
+		}
+
+		assertEquals(0, errors.get());
+		assertTrue(lookups.get() >= 10_000);
+	}
+
+	/**
+	 * Rotation about the z-axis and translation along x which can be exactly interpolated. Periodically wraps
+	 * around to keep the values small.
+	 */
+	private static void encode( long time , Se3_F64 pose ) {
+		SpecialEuclideanOps_F64.setEulerXYZ(0, 0, (time % 2000)*0.001, (time % 2000)*0.01, 0, 0, pose);
+	}
+
+	private static void check( Se3_F64 expected , Se3_F64 found ) {
+		assertTrue(MatrixFeatures_DDRM.isIdentical(expected.R, found.R, GrlConstants.TEST_F64));
+		assertEquals(0, expected.T.distance(found.T), GrlConstants.TEST_F64);
+	}
+
+	private Se3_F64 random() {
+		return SpecialEuclideanOps_F64.setEulerXYZ(rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(),
+				rand.nextGaussian(), rand.nextGaussian(), rand.nextGaussian(), null);
+	}
+}
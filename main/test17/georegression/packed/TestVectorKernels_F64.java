@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2011-2018, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of Geometric Regression Library (GeoRegression).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package georegression.packed;
+
+import georegression.misc.GrlConstants;
+import georegression.struct.shapes.Box3D_F64;
+import georegression.struct.shapes.Rectangle2D_F64;
+import jdk.incubator.vector.DoubleVector;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the vector kernels against the plain Java kernels. Lengths are picked so that every kernel is tested
+ * with nothing but a tail, with an exact number of vectors, and with vectors plus a tail. Only the species picked
+ * for this CPU is tested, run with -XX:UseAVX=N to test narrower ones.
+ *
+ * @author Peter Abeles
+ */
+public class TestVectorKernels_F64 {
+	Random rand = new Random(234);
+
+	PackedKernels_F64 scalar = new PackedKernels_F64();
+	VectorKernels_F64 alg;
+
+	@Before
+	public void before() {
+		// the kernels work with any number of lanes which is a multiple of two, even if they're too slow to be used
+		assumeTrue(VectorKernels_F64.L >= 2);
+		alg = new VectorKernels_F64();
+	}
+
+	/**
+	 * Tests are run with the incubator module added, so the vector kernels should be in use if they have enough lanes
+	 */
+	@Test
+	public void selected() {
+		assertEquals(DoubleVector.SPECIES_PREFERRED.length(), VectorKernels_F64.L);
+		assertEquals(VectorKernels_F64.L >= VectorKernels_F64.MIN_LANES,
+				PackedKernels_F64.INSTANCE instanceof VectorKernels_F64);
+	}
+
+	@Test
+	public void transform2() {
+		for( int length : lengths() ) {
+			double a11 = rand.nextGaussian(), a12 = rand.nextGaussian(), tx = rand.nextGaussian();
+			double a21 = rand.nextGaussian(), a22 = rand.nextGaussian(), ty = rand.nextGaussian();
+			double[] src = random(length*2);
+			double[] expected = new double[length*2];
+			double[] found = new double[length*2];
+
+			scalar.transform2(a11,a12,tx,a21,a22,ty,src,expected,length);
+			alg.transform2(a11,a12,tx,a21,a22,ty,src,found,length);
+			check(expected, found);
+
+			// in place
+			alg.transform2(a11,a12,tx,a21,a22,ty,src,src,length);
+			check(expected, src);
+		}
+	}
+
+	@Test
+	public void transform3() {
+		for( int length : lengths() ) {
+			double[] R = random(9);
+			double tx = rand.nextGaussian(), ty = rand.nextGaussian(), tz = rand.nextGaussian();
+			double[] src = random(length*3);
+			double[] expected = new double[length*3];
+			double[] found = new double[length*3];
+
+			scalar.transform3(R,tx,ty,tz,src,expected,length);
+			alg.transform3(R,tx,ty,tz,src,found,length);
+			check(expected, found);
+
+			// in place
+			alg.transform3(R,tx,ty,tz,src,src,length);
+			check(expected, src);
+		}
+	}
+
+	/**
+	 * Each lane reads the neighboring points at zero weight. Make sure a bad point doesn't spill into others.
+	 */
+	@Test
+	public void transform3_nanIsolated() {
+		int length = 3*VectorKernels_F64.L + 2;
+		double[] R = random(9);
+		double[] src = random(length*3);
+		double[] expected = new double[length*3];
+		double[] found = new double[length*3];
+
+		for( int bad = 0; bad < length; bad++ ) {
+			double[] input = src.clone();
+			input[bad*3+1] = Double.NaN;
+			input[bad*3+2] = Double.POSITIVE_INFINITY;
+
+			scalar.transform3(R,1,2,3,input,expected,length);
+			alg.transform3(R,1,2,3,input,found,length);
+
+			for( int i = 0; i < length; i++ ) {
+				if( i == bad )
+					continue;
+				for( int j = 0; j < 3; j++ ) {
+					assertEquals(expected[i*3+j], found[i*3+j], tol(expected[i*3+j]));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void homography() {
+		for( int length : lengths() ) {
+			double a11 = rand.nextGaussian(), a12 = rand.nextGaussian(), a13 = rand.nextGaussian();
+			double a21 = rand.nextGaussian(), a22 = rand.nextGaussian(), a23 = rand.nextGaussian();
+			double a31 = 0.01*rand.nextGaussian(), a32 = 0.01*rand.nextGaussian(), a33 = 1;
+			double[] src = random(length*2);
+			double[] expected = new double[length*2];
+			double[] found = new double[length*2];
+
+			scalar.homography(a11,a12,a13,a21,a22,a23,a31,a32,a33,src,expected,length);
+			alg.homography(a11,a12,a13,a21,a22,a23,a31,a32,a33,src,found,length);
+			check(expected, found);
+
+			alg.homography(a11,a12,a13,a21,a22,a23,a31,a32,a33,src,src,length);
+			check(expected, src);
+		}
+	}
+
+	@Test
+	public void lineDistance2() {
+		for( int length : lengths() ) {
+			double[] xy = random(length*2);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.lineDistance2(0.6,-0.8,2,xy,expected,length);
+			alg.lineDistance2(0.6,-0.8,2,xy,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void planeDistance() {
+		for( int length : lengths() ) {
+			double[] xyz = random(length*3);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.planeDistance(0.48,-0.6,0.64,-1.5,xyz,expected,length);
+			alg.planeDistance(0.48,-0.6,0.64,-1.5,xyz,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void lineParametricDistance2() {
+		for( int length : lengths() ) {
+			double[] xy = random(length*2);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.lineParametricDistance2(1,-2,0.6,0.8,xy,expected,length);
+			alg.lineParametricDistance2(1,-2,0.6,0.8,xy,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void segmentDistance2() {
+		for( int length : lengths() ) {
+			// short segment so that points are closest to the ends as well as the middle
+			double[] xy = random(length*2);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.segmentDistance2(-1,0.5,2,-1.5,xy,expected,length);
+			alg.segmentDistance2(-1,0.5,2,-1.5,xy,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void lineParametricDistance3() {
+		for( int length : lengths() ) {
+			double[] xyz = random(length*3);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.lineParametricDistance3(1,-2,3,0.48,-0.6,0.64,xyz,expected,length);
+			alg.lineParametricDistance3(1,-2,3,0.48,-0.6,0.64,xyz,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void sphereDistance() {
+		for( int length : lengths() ) {
+			double[] xyz = random(length*3);
+			double[] expected = new double[length];
+			double[] found = new double[length];
+
+			scalar.sphereDistance(1,-2,0.5,6,xyz,expected,length);
+			alg.sphereDistance(1,-2,0.5,6,xyz,found,length);
+			check(expected, found);
+		}
+	}
+
+	@Test
+	public void rectangleContains() {
+		for( int length : lengths() ) {
+			double[] xy = random(length*2);
+			// points on the edges, which are inside for the lower edge and outside for the upper edge
+			for( int i = 0; i < length; i += 3 ) {
+				xy[i*2 + i%2] = (i/3)%2 == 0 ? -4 : 5;
+			}
+			boolean[] expected = new boolean[length];
+			boolean[] found = new boolean[length];
+
+			int expectedTotal = scalar.rectangleContains(-4,-4,5,5,xy,expected,length);
+			int foundTotal = alg.rectangleContains(-4,-4,5,5,xy,found,length);
+
+			assertEquals(expectedTotal, foundTotal);
+			for( int i = 0; i < length; i++ ) {
+				assertEquals(expected[i], found[i]);
+			}
+		}
+	}
+
+	@Test
+	public void bounding2() {
+		for( int length : lengths() ) {
+			double[] xy = random(length*2);
+			// NaN is skipped by the scalar code
+			if( length > 2 )
+				xy[3] = Double.NaN;
+
+			Rectangle2D_F64 expected = new Rectangle2D_F64();
+			Rectangle2D_F64 found = new Rectangle2D_F64();
+			scalar.bounding2(xy,length,expected);
+			alg.bounding2(xy,length,found);
+
+			assertEquals(expected.p0.x, found.p0.x, 0);
+			assertEquals(expected.p0.y, found.p0.y, 0);
+			assertEquals(expected.p1.x, found.p1.x, 0);
+			assertEquals(expected.p1.y, found.p1.y, 0);
+		}
+	}
+
+	@Test
+	public void bounding3() {
+		for( int length : lengths() ) {
+			double[] xyz = random(length*3);
+			if( length > 2 )
+				xyz[4] = Double.NaN;
+
+			Box3D_F64 expected = new Box3D_F64();
+			Box3D_F64 found = new Box3D_F64();
+			scalar.bounding3(xyz,length,expected);
+			alg.bounding3(xyz,length,found);
+
+			assertEquals(0, expected.p0.distance(found.p0), 0);
+			assertEquals(0, expected.p1.distance(found.p1), 0);
+		}
+	}
+
+	private int[] lengths() {
+		int L = VectorKernels_F64.L;
+		return new int[]{0, 1, L - 1, L, L + 1, 2*L, 2*L + 1, 3*L - 1, 3*L, 3*L + 2, 7*L + 1};
+	}
+
+	private double[] random( int length ) {
+		double[] data = new double[length];
+		for( int i = 0; i < length; i++ ) {
+			data[i] = (rand.nextDouble() - 0.5)*20;
+		}
+		return data;
+	}
+
+	private void check( double[] expected , double[] found ) {
+		for( int i = 0; i < expected.length; i++ ) {
+			assertEquals(expected[i], found[i], tol(expected[i]));
+		}
+	}
+
+	private static double tol( double expected ) {
+		return GrlConstants.TEST_F64*Math.max(1, Math.abs(expected));
+	}
+}